@@ -21,6 +21,10 @@ import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.api.data.schema.Schema.LogicalType;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -36,6 +40,7 @@ import java.time.ZonedDateTime;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -44,23 +49,49 @@ import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 
 /**
- * Instance of a record structured by a {@link Schema}. Fields are accessible by name.
+ * Instance of a record structured by a {@link Schema}. Fields are accessible by name, or by their position in
+ * {@link Schema#getFields()}.
+ *
+ * Field values are stored by position. Values of boolean, int, long, float and double fields that are set through
+ * the primitive setters of the {@link Builder} are stored without boxing, and are only boxed when they are read
+ * as objects.
  */
 @Beta
 public class StructuredRecord implements Serializable {
   private static final SimpleDateFormat DEFAULT_FORMAT = new SimpleDateFormat("YYYY-MM-DD'T'HH:mm:ss z");
-  private final Schema schema;
-  private final Map<String, Object> fields;
+
+  // Kinds of the values stored in the primitives array
+  private static final byte OBJECT = 0;
+  private static final byte BOOLEAN = 1;
+  private static final byte INT = 2;
+  private static final byte LONG = 3;
+  private static final byte FLOAT = 4;
+  private static final byte DOUBLE = 5;
 
   private static final long serialVersionUID = -6547770456592865613L;
 
+  // Serialize as a map from field name to value, which is the serialized form of earlier versions
+  private static final ObjectStreamField[] serialPersistentFields = {
+    new ObjectStreamField("schema", Schema.class),
+    new ObjectStreamField("fields", Map.class)
+  };
+
+  private Schema schema;
+  // Values by field position. For primitive values, it caches the boxed value once it is read as an object.
+  private transient Object[] values;
+  // Raw bits of primitive values by field position, and the kinds of them. Both are null if there is none.
+  private transient long[] primitives;
+  private transient byte[] kinds;
+
   {
     DEFAULT_FORMAT.setTimeZone(TimeZone.getTimeZone("UTC"));
   }
 
-  private StructuredRecord(Schema schema, Map<String, Object> fields) {
+  private StructuredRecord(Schema schema, Object[] values, @Nullable long[] primitives, @Nullable byte[] kinds) {
     this.schema = schema;
-    this.fields = fields;
+    this.values = values;
+    this.primitives = primitives;
+    this.kinds = kinds;
   }
 
   /**
@@ -79,10 +110,108 @@ public class StructuredRecord implements Serializable {
    * @param <T> type of object of the field value.
    * @return value of the field.
    */
-  @SuppressWarnings("unchecked")
   @Nullable
   public <T> T get(String fieldName) {
-    return (T) fields.get(fieldName);
+    int idx = schema.getFieldIndex(fieldName);
+    return idx < 0 ? null : get(idx);
+  }
+
+  /**
+   * Get the value of a field in the record by the position of the field in the schema.
+   *
+   * @param position position of the field to get.
+   * @param <T> type of object of the field value.
+   * @return value of the field.
+   * @throws IndexOutOfBoundsException if the position is not a valid field position.
+   */
+  @SuppressWarnings("unchecked")
+  @Nullable
+  public <T> T get(int position) {
+    Object value = values[position];
+    if (value != null || kinds == null || kinds[position] == OBJECT) {
+      return (T) value;
+    }
+    value = box(kinds[position], primitives[position]);
+    values[position] = value;
+    return (T) value;
+  }
+
+  /**
+   * Get the value of a boolean field by the position of the field in the schema.
+   *
+   * @param position position of the field to get.
+   * @return value of the field.
+   * @throws NullPointerException if the field value is null.
+   */
+  public boolean getBoolean(int position) {
+    if (kinds != null && kinds[position] == BOOLEAN) {
+      return primitives[position] != 0L;
+    }
+    return (Boolean) getNonNull(position);
+  }
+
+  /**
+   * Get the value of an int field by the position of the field in the schema.
+   *
+   * @param position position of the field to get.
+   * @return value of the field.
+   * @throws NullPointerException if the field value is null.
+   */
+  public int getInt(int position) {
+    if (kinds != null && kinds[position] == INT) {
+      return (int) primitives[position];
+    }
+    return ((Number) getNonNull(position)).intValue();
+  }
+
+  /**
+   * Get the value of a long field by the position of the field in the schema.
+   *
+   * @param position position of the field to get.
+   * @return value of the field.
+   * @throws NullPointerException if the field value is null.
+   */
+  public long getLong(int position) {
+    if (kinds != null && kinds[position] == LONG) {
+      return primitives[position];
+    }
+    return ((Number) getNonNull(position)).longValue();
+  }
+
+  /**
+   * Get the value of a float field by the position of the field in the schema.
+   *
+   * @param position position of the field to get.
+   * @return value of the field.
+   * @throws NullPointerException if the field value is null.
+   */
+  public float getFloat(int position) {
+    if (kinds != null && kinds[position] == FLOAT) {
+      return Float.intBitsToFloat((int) primitives[position]);
+    }
+    return ((Number) getNonNull(position)).floatValue();
+  }
+
+  /**
+   * Get the value of a double field by the position of the field in the schema.
+   *
+   * @param position position of the field to get.
+   * @return value of the field.
+   * @throws NullPointerException if the field value is null.
+   */
+  public double getDouble(int position) {
+    if (kinds != null && kinds[position] == DOUBLE) {
+      return Double.longBitsToDouble(primitives[position]);
+    }
+    return ((Number) getNonNull(position)).doubleValue();
+  }
+
+  private Object getNonNull(int position) {
+    Object value = get(position);
+    if (value == null) {
+      throw new NullPointerException("Field " + schema.getFields().get(position).getName() + " is null.");
+    }
+    return value;
   }
 
   /**
@@ -96,7 +225,7 @@ public class StructuredRecord implements Serializable {
   public LocalDate getDate(String fieldName) {
     Schema logicalTypeSchema = validateAndGetLogicalTypeSchema(schema.getField(fieldName),
                                                                EnumSet.of(LogicalType.DATE));
-    Integer value = (Integer) fields.get(fieldName);
+    Integer value = get(fieldName);
     return (value == null || logicalTypeSchema == null) ? null : LocalDate.ofEpochDay(value.longValue());
   }
 
@@ -114,7 +243,7 @@ public class StructuredRecord implements Serializable {
     Schema logicalTypeSchema = validateAndGetLogicalTypeSchema(schema.getField(fieldName),
                                                                EnumSet.of(LogicalType.TIME_MILLIS,
                                                                           LogicalType.TIME_MICROS));
-    Object value = fields.get(fieldName);
+    Object value = get(fieldName);
     if (value == null || logicalTypeSchema == null) {
       return null;
     }
@@ -157,7 +286,7 @@ public class StructuredRecord implements Serializable {
     Schema logicalTypeSchema = validateAndGetLogicalTypeSchema(schema.getField(fieldName),
                                                                EnumSet.of(LogicalType.TIMESTAMP_MILLIS,
                                                                           LogicalType.TIMESTAMP_MICROS));
-    Object value = fields.get(fieldName);
+    Object value = get(fieldName);
     if (value == null || logicalTypeSchema == null) {
       return null;
     }
@@ -180,7 +309,7 @@ public class StructuredRecord implements Serializable {
   public BigDecimal getDecimal(String fieldName) {
     Schema logicalTypeSchema = validateAndGetLogicalTypeSchema(schema.getField(fieldName),
                                                                EnumSet.of(LogicalType.DECIMAL));
-    Object value = fields.get(fieldName);
+    Object value = get(fieldName);
     if (value == null || logicalTypeSchema == null) {
       return null;
     }
@@ -289,11 +418,13 @@ public class StructuredRecord implements Serializable {
    */
   public static class Builder {
     private final Schema schema;
-    private Map<String, Object> fields;
+    private final Object[] values;
+    private long[] primitives;
+    private byte[] kinds;
 
     private Builder(Schema schema) {
       this.schema = schema;
-      this.fields = new HashMap<>();
+      this.values = new Object[schema.getFields().size()];
     }
 
     /**
@@ -307,10 +438,85 @@ public class StructuredRecord implements Serializable {
      */
     public Builder set(String fieldName, @Nullable Object value) {
       validateAndGetField(fieldName, value);
-      fields.put(fieldName, value);
+      put(fieldName, value);
+      return this;
+    }
+
+    /**
+     * Set the field at the given position in the schema to the given value.
+     *
+     * @param position position of the field to set
+     * @param value value for the field
+     * @return this builder
+     * @throws UnexpectedFormatException if the position is not a valid field position, or the field is not nullable
+     *                                   but a null value is given
+     */
+    public Builder set(int position, @Nullable Object value) {
+      validateField(getField(position), value);
+      put(position, value);
       return this;
     }
 
+    /**
+     * Set the boolean field at the given position in the schema to the given value.
+     *
+     * @param position position of the field to set
+     * @param value value for the field
+     * @return this builder
+     * @throws UnexpectedFormatException if the position is not a valid field position
+     */
+    public Builder setBoolean(int position, boolean value) {
+      return putPrimitive(position, BOOLEAN, value ? 1L : 0L);
+    }
+
+    /**
+     * Set the int field at the given position in the schema to the given value.
+     *
+     * @param position position of the field to set
+     * @param value value for the field
+     * @return this builder
+     * @throws UnexpectedFormatException if the position is not a valid field position
+     */
+    public Builder setInt(int position, int value) {
+      return putPrimitive(position, INT, value);
+    }
+
+    /**
+     * Set the long field at the given position in the schema to the given value.
+     *
+     * @param position position of the field to set
+     * @param value value for the field
+     * @return this builder
+     * @throws UnexpectedFormatException if the position is not a valid field position
+     */
+    public Builder setLong(int position, long value) {
+      return putPrimitive(position, LONG, value);
+    }
+
+    /**
+     * Set the float field at the given position in the schema to the given value.
+     *
+     * @param position position of the field to set
+     * @param value value for the field
+     * @return this builder
+     * @throws UnexpectedFormatException if the position is not a valid field position
+     */
+    public Builder setFloat(int position, float value) {
+      return putPrimitive(position, FLOAT, Float.floatToRawIntBits(value));
+    }
+
+    /**
+     * Set the double field at the given position in the schema to the given value.
+     *
+     * @param position position of the field to set
+     * @param value value for the field
+     * @return this builder
+     * @throws UnexpectedFormatException if the position is not a valid field position
+     */
+    public Builder setDouble(int position, double value) {
+      return putPrimitive(position, DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
     /**
      * Sets the date value for {@link LogicalType#DATE} field
      *
@@ -323,11 +529,11 @@ public class StructuredRecord implements Serializable {
     public Builder setDate(String fieldName, @Nullable LocalDate localDate) {
       validateAndGetLogicalTypeSchema(validateAndGetField(fieldName, localDate), EnumSet.of(LogicalType.DATE));
       if (localDate == null) {
-        fields.put(fieldName, null);
+        put(fieldName, null);
         return this;
       }
       try {
-        fields.put(fieldName, Math.toIntExact(localDate.toEpochDay()));
+        put(fieldName, Math.toIntExact(localDate.toEpochDay()));
       } catch (ArithmeticException e) {
         // Highest integer is 2,147,483,647 which is Jan 1 2038.
         throw new UnexpectedFormatException(String.format("Field %s was set to a date that is too large." +
@@ -351,7 +557,7 @@ public class StructuredRecord implements Serializable {
                                                                             LogicalType.TIME_MICROS));
 
       if (localTime == null) {
-        fields.put(fieldName, null);
+        put(fieldName, null);
         return this;
       }
 
@@ -360,7 +566,7 @@ public class StructuredRecord implements Serializable {
       if (logicalTypeSchema.getLogicalType() == LogicalType.TIME_MILLIS) {
         try {
           int millis = Math.toIntExact(TimeUnit.NANOSECONDS.toMillis(nanos));
-          fields.put(fieldName, millis);
+          put(fieldName, millis);
         } catch (ArithmeticException e) {
           throw new UnexpectedFormatException(String.format("Field %s was set to a time that is too large.",
                                                             fieldName));
@@ -369,7 +575,7 @@ public class StructuredRecord implements Serializable {
       }
 
       long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
-      fields.put(fieldName, micros);
+      put(fieldName, micros);
       return this;
     }
 
@@ -389,7 +595,7 @@ public class StructuredRecord implements Serializable {
                                                                             LogicalType.TIMESTAMP_MICROS));
 
       if (zonedDateTime == null) {
-        fields.put(fieldName, null);
+        put(fieldName, null);
         return this;
       }
 
@@ -398,13 +604,13 @@ public class StructuredRecord implements Serializable {
         if (logicalTypeSchema.getLogicalType() == LogicalType.TIMESTAMP_MILLIS) {
           long millis = TimeUnit.SECONDS.toMillis(instant.getEpochSecond());
           long tsMillis = Math.addExact(millis, TimeUnit.NANOSECONDS.toMillis(instant.getNano()));
-          fields.put(fieldName, tsMillis);
+          put(fieldName, tsMillis);
           return this;
         }
 
         long micros = TimeUnit.SECONDS.toMicros(instant.getEpochSecond());
         long tsMicros = Math.addExact(micros, TimeUnit.NANOSECONDS.toMicros(instant.getNano()));
-        fields.put(fieldName, tsMicros);
+        put(fieldName, tsMicros);
         return this;
       } catch (ArithmeticException e) {
         throw new UnexpectedFormatException(String.format("Field %s was set to a timestamp that is too large.",
@@ -426,7 +632,7 @@ public class StructuredRecord implements Serializable {
       Schema logicalSchema = validateAndGetLogicalTypeSchema(validateAndGetField(fieldName, decimal),
                                                              EnumSet.of(LogicalType.DECIMAL));
       if (decimal == null) {
-        fields.put(fieldName, null);
+        put(fieldName, null);
         return this;
       }
 
@@ -442,7 +648,7 @@ public class StructuredRecord implements Serializable {
                         fieldName, decimal.scale(), logicalSchema.getScale()));
       }
 
-      fields.put(fieldName, decimal.unscaledValue().toByteArray());
+      put(fieldName, decimal.unscaledValue().toByteArray());
       return this;
     }
 
@@ -486,16 +692,16 @@ public class StructuredRecord implements Serializable {
       Schema.Field field = validateAndGetField(fieldName, date);
       boolean isNullable = field.getSchema().isNullable();
       if (isNullable && date == null) {
-        fields.put(fieldName, null);
+        put(fieldName, null);
         return this;
       }
 
       Schema.Type fieldType = isNullable ? field.getSchema().getNonNullable().getType() : field.getSchema().getType();
       if (fieldType == Schema.Type.LONG) {
-        fields.put(fieldName, date.getTime());
+        put(fieldName, date.getTime());
       } else if (fieldType == Schema.Type.STRING) {
         DateFormat format = dateFormat == null ? DEFAULT_FORMAT : dateFormat;
-        fields.put(fieldName, format.format(date));
+        put(fieldName, format.format(date));
       } else {
         throw new UnexpectedFormatException("Date must be either a long or a string, not a " + fieldType);
       }
@@ -514,7 +720,7 @@ public class StructuredRecord implements Serializable {
      */
     public Builder convertAndSet(String fieldName, @Nullable String strVal) throws UnexpectedFormatException {
       Schema.Field field = validateAndGetField(fieldName, strVal);
-      fields.put(fieldName, convertString(field.getSchema(), strVal));
+      put(fieldName, convertString(field.getSchema(), strVal));
       return this;
     }
 
@@ -525,20 +731,45 @@ public class StructuredRecord implements Serializable {
      * @throws UnexpectedFormatException if there is at least one non-nullable field without a value
      */
     public StructuredRecord build() throws UnexpectedFormatException {
-      // check that all non-nullable fields have a value.
-      for (Schema.Field field : schema.getFields()) {
-        String fieldName = field.getName();
-        if (!fields.containsKey(fieldName)) {
-          // if the field is not nullable and there is no value set for the field, this is invalid.
-          if (!field.getSchema().isNullable()) {
-            throw new UnexpectedFormatException("Field " + fieldName + " must contain a value.");
-          } else {
-            // otherwise, set the value for the field to null
-            fields.put(fieldName, null);
-          }
+      // check that all non-nullable fields have a value. Fields without a value are null.
+      List<Schema.Field> fields = schema.getFields();
+      for (int i = 0; i < values.length; i++) {
+        // A non-nullable field can only be null if it was never set
+        if (values[i] == null && (kinds == null || kinds[i] == OBJECT) && !fields.get(i).getSchema().isNullable()) {
+          throw new UnexpectedFormatException("Field " + fields.get(i).getName() + " must contain a value.");
         }
       }
-      return new StructuredRecord(schema, fields);
+      return new StructuredRecord(schema, values, primitives, kinds);
+    }
+
+    private void put(String fieldName, @Nullable Object value) {
+      put(schema.getFieldIndex(fieldName), value);
+    }
+
+    private void put(int position, @Nullable Object value) {
+      values[position] = value;
+      if (kinds != null) {
+        kinds[position] = OBJECT;
+      }
+    }
+
+    private Builder putPrimitive(int position, byte kind, long bits) {
+      getField(position);
+      if (kinds == null) {
+        primitives = new long[values.length];
+        kinds = new byte[values.length];
+      }
+      values[position] = null;
+      primitives[position] = bits;
+      kinds[position] = kind;
+      return this;
+    }
+
+    private Schema.Field getField(int position) {
+      if (position < 0 || position >= values.length) {
+        throw new UnexpectedFormatException("Position " + position + " is not a field position in the schema.");
+      }
+      return schema.getFields().get(position);
     }
 
     private Object convertString(Schema schema, String strVal) throws UnexpectedFormatException {
@@ -585,6 +816,11 @@ public class StructuredRecord implements Serializable {
       if (field == null) {
         throw new UnexpectedFormatException("field " + fieldName + " is not in the schema.");
       }
+      return validateField(field, val);
+    }
+
+    private Schema.Field validateField(Schema.Field field, Object val) {
+      String fieldName = field.getName();
       Schema fieldSchema = field.getSchema();
       if (val == null) {
         if (fieldSchema.getType() == Schema.Type.NULL) {
@@ -604,6 +840,50 @@ public class StructuredRecord implements Serializable {
     }
   }
 
+  /**
+   * Boxes the given raw bits of a primitive value of the given kind.
+   */
+  private static Object box(byte kind, long bits) {
+    switch (kind) {
+      case BOOLEAN:
+        return bits != 0L;
+      case INT:
+        return (int) bits;
+      case LONG:
+        return bits;
+      case FLOAT:
+        return Float.intBitsToFloat((int) bits);
+      case DOUBLE:
+        return Double.longBitsToDouble(bits);
+      default:
+        throw new IllegalArgumentException("Unknown primitive kind " + kind);
+    }
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    Map<String, Object> fields = new HashMap<>();
+    List<Schema.Field> schemaFields = schema.getFields();
+    for (int i = 0; i < values.length; i++) {
+      fields.put(schemaFields.get(i).getName(), get(i));
+    }
+    ObjectOutputStream.PutField putField = out.putFields();
+    putField.put("schema", schema);
+    putField.put("fields", fields);
+    out.writeFields();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    ObjectInputStream.GetField getField = in.readFields();
+    schema = (Schema) getField.get("schema", null);
+    Map<String, Object> fields = (Map<String, Object>) getField.get("fields", null);
+    List<Schema.Field> schemaFields = schema.getFields();
+    values = new Object[schemaFields.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = fields.get(schemaFields.get(i).getName());
+    }
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -615,12 +895,25 @@ public class StructuredRecord implements Serializable {
 
     StructuredRecord that = (StructuredRecord) o;
 
-    return Objects.equals(schema, that.schema) && Objects.equals(fields, that.fields);
-
+    if (!Objects.equals(schema, that.schema)) {
+      return false;
+    }
+    for (int i = 0; i < values.length; i++) {
+      if (!Objects.equals(get(i), that.get(i))) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(schema, fields);
+    // Same as the hash code of a map from field name to value, which was the representation in earlier versions
+    int fieldsHash = 0;
+    List<Schema.Field> fields = schema.getFields();
+    for (int i = 0; i < values.length; i++) {
+      fieldsHash += fields.get(i).getName().hashCode() ^ Objects.hashCode(get(i));
+    }
+    return Objects.hash(schema, fieldsHash);
   }
 }
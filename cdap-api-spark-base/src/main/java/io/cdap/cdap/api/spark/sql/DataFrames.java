@@ -341,11 +341,15 @@ public final class DataFrames {
     if (dataType instanceof StructType) {
       StructuredRecord record = (StructuredRecord) value;
       StructField[] fields = ((StructType) dataType).fields();
+      List<Schema.Field> schemaFields = record.getSchema().getFields();
       Object[] fieldValues = new Object[fields.length];
       for (int i = 0; i < fields.length; i++) {
         String fieldName = fields[i].name();
         String fieldPath = path + "/" + fieldName;
-        Object fieldValue = toRowValue(record.get(fieldName), fields[i].dataType(), fieldPath);
+        // The struct type is usually converted from the record schema, in which case the fields are in the same order
+        Object recordValue = i < schemaFields.size() && fieldName.equals(schemaFields.get(i).getName())
+          ? record.get(i) : record.get(fieldName);
+        Object fieldValue = toRowValue(recordValue, fields[i].dataType(), fieldPath);
 
         if (fieldValue == null && !fields[i].nullable()) {
           throw new IllegalArgumentException("Null value is not allowed for row field at " + fieldPath);
@@ -450,9 +454,9 @@ public final class DataFrames {
 
           // Special case handling for ARRAY and MAP in order to get the Java type
           if (fieldSchema.getType() == Schema.Type.ARRAY) {
-            builder.set(field.getName(), fromRowValue(row.getList(idx), fieldSchema, fieldPath));
+            builder.set(idx, fromRowValue(row.getList(idx), fieldSchema, fieldPath));
           } else if (fieldSchema.getType() == Schema.Type.MAP) {
-            builder.set(field.getName(), fromRowValue(row.getJavaMap(idx), fieldSchema, fieldPath));
+            builder.set(idx, fromRowValue(row.getJavaMap(idx), fieldSchema, fieldPath));
           } else {
             Object fieldValue = row.get(idx);
 
@@ -462,7 +466,7 @@ public final class DataFrames {
             } else if (fieldValue instanceof Timestamp) {
               fieldValue = ((Timestamp) fieldValue).getTime();
             }
-            builder.set(field.getName(), fromRowValue(fieldValue, fieldSchema, fieldPath));
+            builder.set(idx, fromRowValue(fieldValue, fieldSchema, fieldPath));
           }
 
           idx++;
@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.api.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotates a service handler method to indicate that it only reads from transactional datasets, and that it
+ * can tolerate reading data that is slightly stale.
+ *
+ * By default, every call to a service handler method runs in its own short transaction. A method annotated with
+ * this annotation instead runs in a read snapshot that is shared by concurrent calls and refreshed periodically,
+ * which avoids the cost of starting and committing a transaction for every call. The data seen by the method may
+ * be stale by up to {@link #maxStalenessMillis()} milliseconds, for example:
+ *
+ * <pre><code>
+ * {@literal @}GET
+ * {@literal @}Path("/items/{id}")
+ * {@literal @}ReadSnapshot(maxStalenessMillis = 500)
+ * public void getItem(HttpServiceRequest request, HttpServiceResponder responder,
+ *                     {@literal @}PathParam("id") String id) {
+ *   ...
+ * }
+ * </code></pre>
+ *
+ * A method annotated with this annotation must not write to transactional datasets; such writes fail when the
+ * call completes. This annotation has no effect on methods annotated with
+ * {@link TransactionPolicy}({@link TransactionControl#EXPLICIT}), and on methods that return a
+ * {@code HttpContentConsumer}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ReadSnapshot {
+
+  /**
+   * The default maximum staleness in milliseconds.
+   */
+  long DEFAULT_MAX_STALENESS_MILLIS = 1000L;
+
+  /**
+   * Returns the maximum age in milliseconds of the read snapshot used to serve a call.
+   */
+  long maxStalenessMillis() default DEFAULT_MAX_STALENESS_MILLIS;
+}
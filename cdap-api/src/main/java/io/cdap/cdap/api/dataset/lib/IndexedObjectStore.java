@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
@@ -58,6 +59,7 @@ public class IndexedObjectStore<T> extends AbstractDataset {
   //    (prefixedPrimaryKey to secondaryKeys)
   private final ObjectStore<T> objectStore;
   private final Table index;
+  private final int readBatchSize;
 
   /**
    * Constructs the IndexedObjectStore with name and type.
@@ -67,9 +69,26 @@ public class IndexedObjectStore<T> extends AbstractDataset {
    * @param index dataset to use as the index
    */
   public IndexedObjectStore(String name, ObjectStore<T> objectStore, Table index) {
+    this(name, objectStore, index, IndexedTable.DEFAULT_INDEX_SCAN_PREFETCH_SIZE);
+  }
+
+  /**
+   * Constructs the IndexedObjectStore with name and type.
+   *
+   * @param name name of the dataset
+   * @param objectStore dataset to use as the objectStore
+   * @param index dataset to use as the index
+   * @param readBatchSize the maximum number of objects read from the objectStore with a single multi-get when
+   *                      reading by index. See {@link IndexedTable#INDEX_SCAN_PREFETCH_SIZE}
+   */
+  public IndexedObjectStore(String name, ObjectStore<T> objectStore, Table index, int readBatchSize) {
     super(name, objectStore, index);
+    if (readBatchSize <= 0) {
+      throw new IllegalArgumentException("Read batch size must be positive, but is " + readBatchSize);
+    }
     this.objectStore = objectStore;
     this.index = index;
+    this.readBatchSize = readBatchSize;
   }
 
   /**
@@ -105,7 +124,15 @@ public class IndexedObjectStore<T> extends AbstractDataset {
 
     // if the index has no match, return nothing
     if (!row.isEmpty()) {
-      resultList = row.getColumns().keySet().stream().map(objectStore::read).collect(Collectors.toList());
+      // read the objects in batches, keeping the order of the index
+      List<byte[]> keys = new ArrayList<>(row.getColumns().keySet());
+      for (int start = 0; start < keys.size(); start += readBatchSize) {
+        List<byte[]> batch = keys.subList(start, Math.min(keys.size(), start + readBatchSize));
+        Map<byte[], T> objects = objectStore.readAll(batch.toArray(new byte[batch.size()][]));
+        for (byte[] key : batch) {
+          resultList.add(objects.get(key));
+        }
+      }
     }
     return Collections.unmodifiableList(resultList);
   }
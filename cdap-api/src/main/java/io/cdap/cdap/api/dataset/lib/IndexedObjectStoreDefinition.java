@@ -45,6 +45,7 @@ public class IndexedObjectStoreDefinition
     Table index = getDataset(datasetContext, "index", spec, arguments, classLoader);
     ObjectStore<?> objectStore = getDataset(datasetContext, "data", spec, arguments, classLoader);
 
-    return new IndexedObjectStore<>(spec.getName(), objectStore, index);
+    return new IndexedObjectStore<>(spec.getName(), objectStore, index,
+                                    IndexedTableDefinition.getPrefetchSize(spec, arguments));
   }
 }
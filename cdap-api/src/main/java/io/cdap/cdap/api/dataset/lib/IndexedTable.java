@@ -38,8 +38,11 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
@@ -123,6 +126,19 @@ public class IndexedTable extends AbstractDataset implements Table {
    */
   public static final String DYNAMIC_INDEXING_PREFIX = "dynamicIndexingPrefix";
 
+  /**
+   * Configuration for the number of index entries that are read ahead by the scanners returned from
+   * {@link #readByIndex(byte[], byte[])} and {@link #scanByIndex(byte[], byte[], byte[])}. The data rows for these
+   * entries are read from the data table with a single multi-get. It can be given in the dataset properties or
+   * overridden in the runtime arguments.
+   */
+  public static final String INDEX_SCAN_PREFETCH_SIZE = "indexScanPrefetchSize";
+
+  /**
+   * Default value for {@link #INDEX_SCAN_PREFETCH_SIZE}.
+   */
+  public static final int DEFAULT_INDEX_SCAN_PREFETCH_SIZE = 100;
+
   /**
    * Column key used to store the existence of a row in the secondary index.
    */
@@ -136,6 +152,7 @@ public class IndexedTable extends AbstractDataset implements Table {
   // the secondary index column
   private SortedSet<byte[]> indexedColumns;
   private final byte[] keyPrefix;
+  private final int prefetchSize;
 
   /**
    * Configuration time constructor.
@@ -146,12 +163,7 @@ public class IndexedTable extends AbstractDataset implements Table {
    * @param columnsToIndex the names of the data columns to index
    */
   public IndexedTable(String name, Table table, Table index, SortedSet<byte[]> columnsToIndex) {
-    super(name, table, index);
-    this.table = table;
-    this.index = index;
-    this.indexedColumns = columnsToIndex;
-    this.hasColumnWithDelimiter = hasDelimiterByte(columnsToIndex);
-    this.keyPrefix = Bytes.EMPTY_BYTE_ARRAY;
+    this(name, table, index, columnsToIndex, Bytes.EMPTY_BYTE_ARRAY);
   }
 
   /**
@@ -164,12 +176,32 @@ public class IndexedTable extends AbstractDataset implements Table {
    * @param keyPrefix the dynamic indexing prefix. See {@link IndexedTable#DYNAMIC_INDEXING_PREFIX}
    */
   public IndexedTable(String name, Table table, Table index, SortedSet<byte[]> columnsToIndex, byte[] keyPrefix) {
+    this(name, table, index, columnsToIndex, keyPrefix, DEFAULT_INDEX_SCAN_PREFETCH_SIZE);
+  }
+
+  /**
+   * Configuration time constructor.
+   *
+   * @param name the name of the table
+   * @param table table to use as the table
+   * @param index table to use as the index
+   * @param columnsToIndex the names of the data columns to index
+   * @param keyPrefix the dynamic indexing prefix. See {@link IndexedTable#DYNAMIC_INDEXING_PREFIX}
+   * @param prefetchSize the number of index entries read ahead by index scanners.
+   *                     See {@link IndexedTable#INDEX_SCAN_PREFETCH_SIZE}
+   */
+  public IndexedTable(String name, Table table, Table index, SortedSet<byte[]> columnsToIndex, byte[] keyPrefix,
+                      int prefetchSize) {
     super(name, table, index);
+    if (prefetchSize <= 0) {
+      throw new IllegalArgumentException("Index scan prefetch size must be positive, but is " + prefetchSize);
+    }
     this.table = table;
     this.index = index;
     this.indexedColumns = columnsToIndex;
     this.hasColumnWithDelimiter = hasDelimiterByte(columnsToIndex);
     this.keyPrefix = keyPrefix;
+    this.prefetchSize = prefetchSize;
   }
 
   /**
@@ -663,10 +695,14 @@ public class IndexedTable extends AbstractDataset implements Table {
     // scanner over index table
     private final Scanner baseScanner;
     private final byte[] column;
+    // data rows that were read ahead, in the order of the index
+    private final Deque<Row> prefetchedRows;
+    private boolean indexExhausted;
 
     AbstractIndexScanner(Scanner baseScanner, byte[] column) {
       this.baseScanner = baseScanner;
       this.column = column;
+      this.prefetchedRows = new ArrayDeque<>();
     }
 
     /**
@@ -680,9 +716,27 @@ public class IndexedTable extends AbstractDataset implements Table {
     @Nullable
     @Override
     public Row next() {
-      // TODO: retrieve results in batches to minimize RPC overhead (requires multi-get support in table)
-      // keep going until we hit a non-null, non-empty data row, or we exhaust the index
-      for (Row indexRow = baseScanner.next(); indexRow != null; indexRow = baseScanner.next()) {
+      // keep going until we have a data row, or we exhaust the index
+      while (prefetchedRows.isEmpty() && !indexExhausted) {
+        prefetch();
+      }
+      return prefetchedRows.poll();
+    }
+
+    /**
+     * Reads up to {@link #prefetchSize} matching entries from the index and fetches the corresponding data rows
+     * with a single multi-get on the data table.
+     */
+    private void prefetch() {
+      List<Get> gets = new ArrayList<>();
+      List<byte[]> columnValues = new ArrayList<>();
+      while (gets.size() < prefetchSize) {
+        Row indexRow = baseScanner.next();
+        if (indexRow == null) {
+          // end of index
+          indexExhausted = true;
+          break;
+        }
         byte[] rowkey = indexRow.get(IDX_COL);
         if (rowkey == null) {
           LOG.warn("Row of Indexed table '{}' is missing index column. Row key: {}", getName(), indexRow.getRow());
@@ -694,18 +748,26 @@ public class IndexedTable extends AbstractDataset implements Table {
         // Verify that datarow matches the expected row key to avoid issues with column name or value
         // containing the delimiter used. This is a sufficient check, as long as columns don't contain the null byte.
         if (matches(columnValue)) {
-          Row row = table.get(rowkey);
-          // If a column has null byte (the key delimiter) in it, then we need to check against the data row's column
-          // to be sure this row isn't a false positive in the scan.
-          // For reference, take a look at IndexedTableTest#testIndexKeyDelimiterAmbiguity
-          if (hasColumnWithDelimiter && !Bytes.equals(row.get(column), columnValue)) {
-            continue;
-          }
-          return row;
+          gets.add(new Get(rowkey));
+          columnValues.add(columnValue);
+        }
+      }
+      if (gets.isEmpty()) {
+        return;
+      }
+
+      // rows are returned in the same order as the gets
+      List<Row> rows = table.get(gets);
+      for (int i = 0; i < rows.size(); i++) {
+        Row row = rows.get(i);
+        // If a column has null byte (the key delimiter) in it, then we need to check against the data row's column
+        // to be sure this row isn't a false positive in the scan.
+        // For reference, take a look at IndexedTableTest#testIndexKeyDelimiterAmbiguity
+        if (hasColumnWithDelimiter && !Bytes.equals(row.get(column), columnValues.get(i))) {
+          continue;
         }
+        prefetchedRows.add(row);
       }
-      // end of index
-      return null;
     }
 
     @Override
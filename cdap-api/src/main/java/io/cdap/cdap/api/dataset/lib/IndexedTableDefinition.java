@@ -114,7 +114,28 @@ public class IndexedTableDefinition
     Table index = getDataset(datasetContext, "i", spec, arguments, classLoader);
 
     return new IndexedTable(spec.getName(), table, index, columnsToIndex,
-                            keyPrefix == null ? Bytes.EMPTY_BYTE_ARRAY : Bytes.toBytes(keyPrefix));
+                            keyPrefix == null ? Bytes.EMPTY_BYTE_ARRAY : Bytes.toBytes(keyPrefix),
+                            getPrefetchSize(spec, arguments));
+  }
+
+  /**
+   * Returns the index scan prefetch size from the runtime arguments, or from the dataset properties if it is not
+   * in the runtime arguments.
+   */
+  static int getPrefetchSize(DatasetSpecification spec, Map<String, String> arguments) {
+    String prefetchSize = arguments.get(IndexedTable.INDEX_SCAN_PREFETCH_SIZE);
+    if (prefetchSize == null) {
+      prefetchSize = spec.getProperty(IndexedTable.INDEX_SCAN_PREFETCH_SIZE);
+    }
+    if (prefetchSize == null) {
+      return IndexedTable.DEFAULT_INDEX_SCAN_PREFETCH_SIZE;
+    }
+    try {
+      return Integer.parseInt(prefetchSize);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(String.format("Invalid value '%s' for %s, it must be an integer",
+                                                       prefetchSize, IndexedTable.INDEX_SCAN_PREFETCH_SIZE));
+    }
   }
 
   /**
@@ -17,12 +17,15 @@
 package io.cdap.cdap.api.dataset.lib;
 
 import io.cdap.cdap.api.annotation.Beta;
+import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.api.data.batch.BatchReadable;
 import io.cdap.cdap.api.data.batch.BatchWritable;
 import io.cdap.cdap.api.data.batch.Split;
 import io.cdap.cdap.api.dataset.Dataset;
 
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * A dataset that stores objects of a particular class into a table.
@@ -81,6 +84,24 @@ public interface ObjectStore<T> extends Dataset, BatchReadable<byte[], T>, Batch
    */
   T read(byte[] key);
 
+  /**
+   * Read the objects with the given keys. Implementations should read all keys with as few remote calls as
+   * possible.
+   *
+   * @param keys the keys of the objects
+   * @return a map of the objects found, keyed by key
+   */
+  default Map<byte[], T> readAll(byte[][] keys) {
+    Map<byte[], T> objects = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    for (byte[] key : keys) {
+      T object = read(key);
+      if (object != null) {
+        objects.put(key, object);
+      }
+    }
+    return objects;
+  }
+
   /**
    * Scans table.
    * @param startRow start row inclusive. {@code null} means start from first row of the table
@@ -19,7 +19,11 @@ package io.cdap.cdap.api.dataset.lib;
 import io.cdap.cdap.api.annotation.Beta;
 import io.cdap.cdap.api.dataset.table.TableProperties;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import javax.annotation.Nullable;
 
 /**
@@ -38,6 +42,11 @@ public class PartitionedFileSetProperties extends FileSetProperties {
    */
   public static final String PARTITIONING_FIELD_PREFIX = "partitioning.field.";
 
+  /**
+   * The property name for the list of partitioning fields that are indexed in the partitions table.
+   */
+  public static final String PARTITIONING_INDEXED_FIELDS = "partitioning.indexed.fields";
+
   /**
    * Read the partitioning for a PartitionedFileSet from its properties.
    *
@@ -71,6 +80,26 @@ public class PartitionedFileSetProperties extends FileSetProperties {
     return builder.build();
   }
 
+  /**
+   * Read the names of the indexed partitioning fields of a PartitionedFileSet from its properties.
+   *
+   * @param properties the dataset properties
+   * @return the names of the indexed fields, or an empty set if no field is indexed
+   */
+  public static Set<String> getIndexedFields(Map<String, String> properties) {
+    String fieldList = properties.get(PARTITIONING_INDEXED_FIELDS);
+    if (fieldList == null || fieldList.trim().isEmpty()) {
+      return Collections.emptySet();
+    }
+    Set<String> fields = new LinkedHashSet<>();
+    for (String field : fieldList.split(",")) {
+      if (!field.trim().isEmpty()) {
+        fields.add(field.trim());
+      }
+    }
+    return Collections.unmodifiableSet(fields);
+  }
+
   /**
    * @return a properties builder
    */
@@ -105,6 +134,22 @@ public class PartitionedFileSetProperties extends FileSetProperties {
       return this;
     }
 
+    /**
+     * Sets the partitioning fields to index in the partitions table. Filters on an indexed field that is not a
+     * leading field of the partitioning can be served by the index instead of scanning all partitions.
+     * The indexed fields can only be set when the dataset is created.
+     */
+    public Builder setIndexedFields(Collection<String> fieldNames) {
+      StringBuilder builder = new StringBuilder();
+      String sep = "";
+      for (String fieldName : fieldNames) {
+        builder.append(sep).append(fieldName);
+        sep = ",";
+      }
+      add(PARTITIONING_INDEXED_FIELDS, builder.toString());
+      return this;
+    }
+
     /**
      * Set the table permissions as a map from user name to a permission string.
      */
@@ -34,5 +34,15 @@ public interface Metrics {
    * @param value The value to be set.
    */
   void gauge(String metricName, long value);
+
+  /**
+   * Returns a {@link MetricsCounter} for the given metric. Callers that increment the same metric many times
+   * should resolve the counter once and keep it, which lets implementations skip the per-call name lookup.
+   * @param metricName Name of the counter. Use alphanumeric characters in metric names.
+   * @return a counter that increases the given metric
+   */
+  default MetricsCounter counter(String metricName) {
+    return delta -> count(metricName, Math.toIntExact(delta));
+  }
 }
 
@@ -37,4 +37,14 @@ public interface MetricsCollector {
    * @param value value of the metric.
    */
   void gauge(String metricName, long value);
+
+  /**
+   * Returns a {@link MetricsCounter} for the given metric. Callers that increment the same metric many times
+   * should resolve the counter once and keep it, which lets implementations skip the per-call name lookup.
+   * @param metricName Name of the metric.
+   * @return a counter that increments the given metric
+   */
+  default MetricsCounter counter(String metricName) {
+    return delta -> increment(metricName, delta);
+  }
 }
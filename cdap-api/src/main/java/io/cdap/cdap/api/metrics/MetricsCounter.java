@@ -0,0 +1,31 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.api.metrics;
+
+/**
+ * A counter metric whose name has already been resolved, so that incrementing it on a hot path does not need
+ * to look up the metric by name on every call.
+ */
+public interface MetricsCounter {
+
+  /**
+   * Increases the value of the counter by delta.
+   * @param delta The value to increase by.
+   */
+  void increment(long delta);
+}
@@ -19,6 +19,7 @@ package io.cdap.cdap.app.metrics;
 import io.cdap.cdap.api.metrics.Metrics;
 import io.cdap.cdap.api.metrics.MetricsCollectionService;
 import io.cdap.cdap.api.metrics.MetricsContext;
+import io.cdap.cdap.api.metrics.MetricsCounter;
 import io.cdap.cdap.common.conf.Constants;
 
 /**
@@ -42,4 +43,9 @@ public class ProgramUserMetrics implements Metrics {
   public void gauge(String metricName, long value) {
     metricsContext.gauge(metricName, value);
   }
+
+  @Override
+  public MetricsCounter counter(String metricName) {
+    return metricsContext.counter(metricName);
+  }
 }
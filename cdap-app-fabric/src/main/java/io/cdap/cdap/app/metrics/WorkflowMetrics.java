@@ -19,6 +19,7 @@ package io.cdap.cdap.app.metrics;
 import io.cdap.cdap.api.metrics.Metrics;
 import io.cdap.cdap.api.metrics.MetricsCollectionService;
 import io.cdap.cdap.api.metrics.MetricsContext;
+import io.cdap.cdap.api.metrics.MetricsCounter;
 import io.cdap.cdap.common.conf.Constants;
 
 /**
@@ -46,4 +47,14 @@ public class WorkflowMetrics implements Metrics {
     programMetricsContext.gauge(metricName, value);
     workflowMetricsContext.gauge(metricName, value);
   }
+
+  @Override
+  public MetricsCounter counter(String metricName) {
+    MetricsCounter programCounter = programMetricsContext.counter(metricName);
+    MetricsCounter workflowCounter = workflowMetricsContext.counter(metricName);
+    return delta -> {
+      programCounter.increment(delta);
+      workflowCounter.increment(delta);
+    };
+  }
 }
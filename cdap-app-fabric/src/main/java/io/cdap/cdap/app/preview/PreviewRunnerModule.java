@@ -21,6 +21,7 @@ import com.google.inject.Scopes;
 import com.google.inject.TypeLiteral;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
 import com.google.inject.name.Names;
+import com.google.inject.util.Providers;
 import io.cdap.cdap.app.deploy.Manager;
 import io.cdap.cdap.app.deploy.ManagerFactory;
 import io.cdap.cdap.app.store.Store;
@@ -65,6 +66,8 @@ import io.cdap.cdap.security.spi.authorization.AuthorizationEnforcer;
 import io.cdap.cdap.security.spi.authorization.PrivilegesManager;
 import io.cdap.cdap.store.DefaultOwnerStore;
 
+import javax.annotation.Nullable;
+
 /**
  * Provides bindings required to create injector for running preview.
  */
@@ -80,10 +83,17 @@ public class PreviewRunnerModule extends PrivateModule {
   private final ProgramRuntimeProviderLoader programRuntimeProviderLoader;
   private final ProgramId programId;
 
+  /**
+   * Creates the module.
+   *
+   * @param programId the preview program to run, or {@code null} to create a runtime that is started ahead of time
+   *                  and assigned a program when the preview request arrives
+   */
   public PreviewRunnerModule(ArtifactRepository artifactRepository, ArtifactStore artifactStore,
                              AuthorizerInstantiator authorizerInstantiator, AuthorizationEnforcer authorizationEnforcer,
                              PrivilegesManager privilegesManager, PreferencesService preferencesService,
-                             ProgramRuntimeProviderLoader programRuntimeProviderLoader, ProgramId programId) {
+                             ProgramRuntimeProviderLoader programRuntimeProviderLoader,
+                             @Nullable ProgramId programId) {
     this.artifactRepository = artifactRepository;
     this.artifactStore = artifactStore;
     this.authorizerInstantiator = authorizerInstantiator;
@@ -156,7 +166,11 @@ public class PreviewRunnerModule extends PrivateModule {
     bind(OwnerAdmin.class).to(DefaultOwnerAdmin.class);
     expose(OwnerAdmin.class);
 
-    bind(ProgramId.class).annotatedWith(Names.named(PREVIEW_PROGRAM_ID)).toInstance(programId);
+    if (programId == null) {
+      bind(ProgramId.class).annotatedWith(Names.named(PREVIEW_PROGRAM_ID)).toProvider(Providers.of(null));
+    } else {
+      bind(ProgramId.class).annotatedWith(Names.named(PREVIEW_PROGRAM_ID)).toInstance(programId);
+    }
     expose(ProgramId.class).annotatedWith(Names.named(PREVIEW_PROGRAM_ID));
   }
 }
@@ -38,7 +38,12 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.inject.Inject;
 import javax.ws.rs.POST;
@@ -52,6 +57,7 @@ import javax.ws.rs.Path;
 public class RemotePrivilegesHandler extends AbstractRemoteSystemOpsHandler {
   private static final Logger LOG = LoggerFactory.getLogger(RemotePrivilegesHandler.class);
   private static final Type SET_OF_ACTIONS = new TypeLiteral<Set<Action>>() { }.getType();
+  private static final Type LIST_OF_PRIVILEGES = new TypeLiteral<List<AuthorizationPrivilege>>() { }.getType();
   private static final Gson GSON = new GsonBuilder()
     .registerTypeAdapter(EntityId.class, new EntityIdTypeAdapter())
     .create();
@@ -76,6 +82,33 @@ public class RemotePrivilegesHandler extends AbstractRemoteSystemOpsHandler {
     responder.sendStatus(HttpResponseStatus.OK);
   }
 
+  @POST
+  @Path("/enforceAll")
+  public void enforceAll(FullHttpRequest request, HttpResponder responder) throws Exception {
+    List<AuthorizationPrivilege> privileges = GSON.fromJson(request.content().toString(StandardCharsets.UTF_8),
+                                                            LIST_OF_PRIVILEGES);
+    LOG.trace("Enforcing for {}", privileges);
+    Map<Principal, Map<EntityId, Set<Action>>> principalPrivileges = new HashMap<>();
+    for (AuthorizationPrivilege privilege : privileges) {
+      principalPrivileges.computeIfAbsent(privilege.getPrincipal(), k -> new HashMap<>())
+        .computeIfAbsent(privilege.getEntity(), k -> EnumSet.noneOf(Action.class))
+        .add(privilege.getAction());
+    }
+
+    List<AuthorizationPrivilege> unauthorized = new ArrayList<>();
+    for (Map.Entry<Principal, Map<EntityId, Set<Action>>> entry : principalPrivileges.entrySet()) {
+      Principal principal = entry.getKey();
+      for (Map.Entry<EntityId, Set<Action>> denied
+        : authorizationEnforcer.getUnauthorizedActions(entry.getValue(), principal).entrySet()) {
+        for (Action action : denied.getValue()) {
+          unauthorized.add(new AuthorizationPrivilege(principal, denied.getKey(), action));
+        }
+      }
+    }
+    LOG.debug("Returning unauthorized privileges {}", unauthorized);
+    responder.sendJson(HttpResponseStatus.OK, GSON.toJson(unauthorized));
+  }
+
   @POST
   @Path("/isVisible")
   public void isVisible(FullHttpRequest request, HttpResponder responder) throws Exception {
@@ -21,18 +21,20 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.AbstractIdleService;
 import com.google.common.util.concurrent.Service;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
-import com.google.inject.Key;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.name.Named;
 import com.google.inject.name.Names;
 import com.google.inject.util.Modules;
+import io.cdap.cdap.api.metrics.MetricsCollectionService;
+import io.cdap.cdap.api.metrics.MetricsContext;
 import io.cdap.cdap.api.security.store.SecureStore;
 import io.cdap.cdap.app.guice.AppFabricServiceRuntimeModule;
 import io.cdap.cdap.app.guice.ProgramRunnerRuntimeModule;
@@ -85,6 +87,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.CommonConfigurationKeysPublic;
 import org.apache.hadoop.mapreduce.MRConfig;
 import org.apache.tephra.TransactionSystemClient;
+import org.apache.twill.common.Threads;
 import org.apache.twill.discovery.DiscoveryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -93,20 +96,48 @@ import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 
 /**
  * Class responsible for creating the injector for preview and starting it.
+ *
+ * Creating and starting the injector of a preview takes a considerable amount of time, hence a pool of preview
+ * runtimes is kept that are started ahead of time without a program. A preview request takes a runtime from the
+ * pool if there is one, and the pool is refilled in the background. Each runtime is only used for one preview, since
+ * its data is removed together with the preview. Runtimes that stayed in the pool for longer than the idle timeout
+ * are stopped, and the pool is only refilled on the next preview request.
  */
 public class DefaultPreviewManager extends AbstractIdleService implements PreviewManager {
 
   private static final Logger LOG = LoggerFactory.getLogger(DefaultPreviewManager.class);
 
+  static final String METRIC_RUNTIME_STARTUP = "preview.runtime.startup.ms";
+  static final String METRIC_RUNTIME_ACQUIRE = "preview.runtime.acquire.ms";
+  static final String METRIC_POOL_HIT = "preview.runtime.pool.hit";
+  static final String METRIC_POOL_MISS = "preview.runtime.pool.miss";
+
+  // Directory under the preview data directory for the pooled runtimes
+  private static final String RUNTIME_POOL_DIR = "pool";
+  // File in the directory of a pooled runtime that records the program it was assigned to
+  private static final String PROGRAM_ID_FILE = "program";
+
   private final CConfiguration cConf;
   private final Configuration hConf;
   private final SConfiguration sConf;
@@ -123,6 +154,15 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
   private final Cache<ApplicationId, Injector> appInjectors;
   private final Path previewDataDir;
   private final ProgramRuntimeProviderLoader programRuntimeProviderLoader;
+  private final MetricsContext metricsContext;
+  private final Path runtimePoolDir;
+  private final int runtimePoolSize;
+  private final long runtimeIdleTimeoutMillis;
+  // Guarded by itself
+  private final Deque<PooledRuntime> runtimePool;
+
+  private volatile ScheduledExecutorService runtimePoolExecutor;
+  private volatile boolean stopping;
 
   @Inject
   DefaultPreviewManager(CConfiguration cConf, Configuration hConf,
@@ -132,7 +172,8 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
                         TransactionSystemClient transactionSystemClient, ArtifactRepository artifactRepository,
                         ArtifactStore artifactStore, AuthorizerInstantiator authorizerInstantiator,
                         PrivilegesManager privilegesManager, AuthorizationEnforcer authorizationEnforcer,
-                        ProgramRuntimeProviderLoader programRuntimeProviderLoader) {
+                        ProgramRuntimeProviderLoader programRuntimeProviderLoader,
+                        MetricsCollectionService metricsCollectionService) {
     this.cConf = cConf;
     this.hConf = hConf;
     this.sConf = sConf;
@@ -148,6 +189,14 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
     this.authorizationEnforcer = authorizationEnforcer;
     this.previewDataDir = Paths.get(cConf.get(Constants.CFG_LOCAL_DATA_DIR), "preview").toAbsolutePath();
     this.programRuntimeProviderLoader = programRuntimeProviderLoader;
+    this.metricsContext = metricsCollectionService.getContext(ImmutableMap.of(
+      Constants.Metrics.Tag.NAMESPACE, NamespaceId.SYSTEM.getNamespace(),
+      Constants.Metrics.Tag.COMPONENT, Constants.Service.PREVIEW_HTTP));
+    this.runtimePoolDir = previewDataDir.resolve(RUNTIME_POOL_DIR);
+    this.runtimePoolSize = cConf.getInt(Constants.Preview.RUNTIME_POOL_SIZE, 1);
+    this.runtimeIdleTimeoutMillis = TimeUnit.SECONDS.toMillis(
+      cConf.getLong(Constants.Preview.RUNTIME_POOL_IDLE_TIMEOUT_SECS, 600L));
+    this.runtimePool = new ArrayDeque<>();
 
     this.appInjectors = CacheBuilder.newBuilder()
       .maximumSize(cConf.getInt(Constants.Preview.PREVIEW_CACHE_SIZE, 10))
@@ -162,8 +211,7 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
             if (runner instanceof Service) {
               stopQuietly((Service) runner);
             }
-            removePreviewDir(injector.getInstance(Key.get(ProgramId.class,
-                                                          Names.named(PreviewRunnerModule.PREVIEW_PROGRAM_ID))));
+            removePreviewDir(notification.getKey(), injector);
           }
         }
       })
@@ -176,27 +224,55 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
 
     // there should be at most 10 directories so the process should not take very long
     for (File file : DirUtils.listFiles(previewDir, File::isDirectory)) {
-      ProgramId programId;
-      String name = file.getName();
-      try {
-        String[] parts = name.split("\\.");
-        programId = new ProgramId(parts[0], parts[1], parts[2], parts[3]);
-      } catch (Exception e) {
-        // if there is an exception converting to a preview id, just continue
-        LOG.debug("Failed to parse the file directory {} to a valid preview id", name, e);
+      if (file.toPath().equals(runtimePoolDir)) {
         continue;
       }
-      Injector injector = createPreviewInjector(programId);
-      PreviewRunner runner = injector.getInstance(PreviewRunner.class);
-      if (runner instanceof Service) {
-        ((Service) runner).startAndWait();
+      ProgramId programId = parseProgramId(file.getName());
+      if (programId == null) {
+        continue;
+      }
+      Injector injector = startRuntime(programId, getPreviewDirPath(programId));
+      appInjectors.put(programId.getParent(), injector);
+    }
+
+    // Recover the pooled runtimes that were assigned to a preview, and remove the ones that were never used
+    for (File file : DirUtils.listFiles(runtimePoolDir.toFile(), File::isDirectory)) {
+      Path programIdFile = file.toPath().resolve(PROGRAM_ID_FILE);
+      ProgramId programId = null;
+      if (Files.isRegularFile(programIdFile)) {
+        programId = parseProgramId(new String(Files.readAllBytes(programIdFile), StandardCharsets.UTF_8));
+      }
+      if (programId == null) {
+        DirUtils.deleteDirectoryContents(file);
+        continue;
       }
+      Injector injector = startRuntime(programId, file.toPath());
       appInjectors.put(programId.getParent(), injector);
     }
+
+    runtimePoolExecutor = Executors.newSingleThreadScheduledExecutor(
+      Threads.createDaemonThreadFactory("preview-runtime-pool"));
+    if (runtimePoolSize > 0) {
+      long checkInterval = Math.max(TimeUnit.SECONDS.toMillis(1), runtimeIdleTimeoutMillis / 2);
+      runtimePoolExecutor.scheduleWithFixedDelay(this::removeIdleRuntimes, checkInterval, checkInterval,
+                                                 TimeUnit.MILLISECONDS);
+      refillRuntimePool();
+    }
   }
 
   @Override
   protected void shutDown() throws Exception {
+    stopping = true;
+    runtimePoolExecutor.shutdownNow();
+    runtimePoolExecutor.awaitTermination(5, TimeUnit.MINUTES);
+
+    List<PooledRuntime> pooled;
+    synchronized (runtimePool) {
+      pooled = new ArrayList<>(runtimePool);
+      runtimePool.clear();
+    }
+    pooled.forEach(runtime -> destroyRuntime(null, runtime.injector));
+
     appInjectors.asMap().forEach((applicationId, injector) -> {
       PreviewRunner runner = injector.getInstance(PreviewRunner.class);
       if (runner instanceof Service) {
@@ -210,18 +286,22 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
     // make sure preview id is unique for each run
     ApplicationId previewApp = namespace.app(RunIds.generate().getId());
     ProgramId programId = getProgramIdFromRequest(previewApp, appRequest);
-    Injector injector = createPreviewInjector(programId);
-    PreviewRunner runner = injector.getInstance(PreviewRunner.class);
-    if (runner instanceof Service) {
-      ((Service) runner).startAndWait();
+
+    long startTime = System.currentTimeMillis();
+    Injector injector = takePooledRuntime(programId);
+    if (injector == null) {
+      metricsContext.increment(METRIC_POOL_MISS, 1L);
+      injector = startRuntime(programId, getPreviewDirPath(programId));
+    } else {
+      metricsContext.increment(METRIC_POOL_HIT, 1L);
     }
+    metricsContext.gauge(METRIC_RUNTIME_ACQUIRE, System.currentTimeMillis() - startTime);
+    refillRuntimePool();
+
     try {
-      runner.startPreview(new PreviewRequest<>(programId, appRequest));
+      injector.getInstance(PreviewRunner.class).startPreview(new PreviewRequest<>(programId, appRequest));
     } catch (Exception e) {
-      if (runner instanceof Service) {
-        stopQuietly((Service) runner);
-      }
-      removePreviewDir(programId);
+      destroyRuntime(previewApp, injector);
       throw e;
     }
     appInjectors.put(previewApp, injector);
@@ -253,6 +333,26 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
    */
   @VisibleForTesting
   Injector createPreviewInjector(ProgramId programId) throws IOException {
+    return createPreviewInjector(programId, getPreviewDirPath(programId));
+  }
+
+  /**
+   * Returns the number of preview runtimes that are started and available in the pool.
+   */
+  @VisibleForTesting
+  int getPooledRuntimeCount() {
+    synchronized (runtimePool) {
+      return runtimePool.size();
+    }
+  }
+
+  /**
+   * Create injector for the given program, using the given directory for all the local data.
+   *
+   * @param programId the program to preview or {@code null} to create the injector for a pooled runtime
+   * @param dir the local data directory
+   */
+  private Injector createPreviewInjector(@Nullable ProgramId programId, Path dir) throws IOException {
     CConfiguration previewCConf = CConfiguration.copy(cConf);
 
     // Change all services bind address to local host
@@ -262,7 +362,7 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
       .filter(s -> s.endsWith(".bind.address"))
       .forEach(key -> previewCConf.set(key, localhost));
 
-    Path previewDir = Files.createDirectories(getPreviewDirPath(programId));
+    Path previewDir = Files.createDirectories(dir);
 
     previewCConf.set(Constants.CFG_LOCAL_DATA_DIR, previewDir.toString());
     previewCConf.setIfUnset(Constants.CFG_DATA_LEVELDB_DIR, previewDir.toString());
@@ -354,19 +454,172 @@ public class DefaultPreviewManager extends AbstractIdleService implements Previe
     }
   }
 
-  private void removePreviewDir(ProgramId programId) {
-    Path previewDirPath = getPreviewDirPath(programId);
+  /**
+   * Creates and starts the injector of a preview runtime.
+   *
+   * @param programId the program to preview or {@code null} to start a pooled runtime
+   * @param dir the local data directory of the runtime
+   */
+  private Injector startRuntime(@Nullable ProgramId programId, Path dir) throws IOException {
+    long startTime = System.currentTimeMillis();
+    Injector injector = createPreviewInjector(programId, dir);
+    PreviewRunner runner = injector.getInstance(PreviewRunner.class);
+    if (runner instanceof Service) {
+      ((Service) runner).startAndWait();
+    }
+    metricsContext.gauge(METRIC_RUNTIME_STARTUP, System.currentTimeMillis() - startTime);
+    return injector;
+  }
+
+  /**
+   * Takes a runtime from the pool and assigns it to the given program.
+   *
+   * @return the injector of the runtime or {@code null} if there is no runtime available in the pool
+   */
+  @Nullable
+  private Injector takePooledRuntime(ProgramId programId) {
+    PooledRuntime runtime;
+    synchronized (runtimePool) {
+      runtime = runtimePool.pollFirst();
+    }
+    if (runtime == null) {
+      return null;
+    }
+    // Record the program in the runtime directory, so that the preview can be recovered on restart
+    try {
+      Files.write(runtime.dir.resolve(PROGRAM_ID_FILE), getPreviewDirName(programId).getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      LOG.warn("Failed to assign pooled preview runtime in {} to {}", runtime.dir, programId, e);
+      destroyRuntime(null, runtime.injector);
+      return null;
+    }
+    LOG.debug("Using pooled preview runtime in {} for {}", runtime.dir, programId);
+    return runtime.injector;
+  }
+
+  /**
+   * Starts pooled runtimes in the background until the pool is full.
+   */
+  private void refillRuntimePool() {
+    if (runtimePoolSize <= 0) {
+      return;
+    }
     try {
-      DataTracerFactoryProvider.removeDataTracerFactory(programId.getParent());
-      DirUtils.deleteDirectoryContents(previewDirPath.toFile());
+      runtimePoolExecutor.execute(() -> {
+        // Runs in the single pool thread, hence there is no other thread adding to the pool
+        while (!stopping && getPooledRuntimeCount() < runtimePoolSize) {
+          Path dir = runtimePoolDir.resolve(UUID.randomUUID().toString());
+          Injector injector;
+          try {
+            injector = startRuntime(null, dir);
+          } catch (Exception e) {
+            LOG.warn("Failed to start preview runtime in {} for the pool. Will retry on the next preview request.",
+                     dir, e);
+            try {
+              DirUtils.deleteDirectoryContents(dir.toFile());
+            } catch (IOException ioe) {
+              LOG.debug("Error deleting the preview directory {}", dir, ioe);
+            }
+            return;
+          }
+          synchronized (runtimePool) {
+            runtimePool.addLast(new PooledRuntime(injector, dir, System.currentTimeMillis()));
+          }
+          LOG.debug("Started preview runtime in {} for the pool", dir);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // Happens when this service is stopping
+      LOG.trace("Not refilling preview runtime pool since the preview manager is stopping");
+    }
+  }
+
+  /**
+   * Stops the runtimes that have been idle in the pool for longer than the idle timeout.
+   */
+  private void removeIdleRuntimes() {
+    long now = System.currentTimeMillis();
+    List<PooledRuntime> expired = new ArrayList<>();
+    synchronized (runtimePool) {
+      Iterator<PooledRuntime> iterator = runtimePool.iterator();
+      while (iterator.hasNext()) {
+        PooledRuntime runtime = iterator.next();
+        if (now - runtime.readyTime >= runtimeIdleTimeoutMillis) {
+          iterator.remove();
+          expired.add(runtime);
+        }
+      }
+    }
+    for (PooledRuntime runtime : expired) {
+      LOG.debug("Stopping preview runtime in {} since it has been idle for more than {} ms",
+                runtime.dir, runtimeIdleTimeoutMillis);
+      destroyRuntime(null, runtime.injector);
+    }
+  }
+
+  /**
+   * Stops the runner of the given injector and removes its data.
+   */
+  private void destroyRuntime(@Nullable ApplicationId preview, Injector injector) {
+    PreviewRunner runner = injector.getInstance(PreviewRunner.class);
+    if (runner instanceof Service) {
+      stopQuietly((Service) runner);
+    }
+    removePreviewDir(preview, injector);
+  }
+
+  private void removePreviewDir(@Nullable ApplicationId preview, Injector injector) {
+    Path previewDirPath = Paths.get(injector.getInstance(CConfiguration.class).get(Constants.CFG_LOCAL_DATA_DIR));
+    try {
+      if (preview != null) {
+        DataTracerFactoryProvider.removeDataTracerFactory(preview);
+      }
+      // Pooled runtime directories are not reused, hence remove the directory as well
+      DirUtils.deleteDirectoryContents(previewDirPath.toFile(), !runtimePoolDir.equals(previewDirPath.getParent()));
     } catch (IOException e) {
       LOG.debug("Error deleting the preview directory {}", previewDirPath, e);
     }
   }
 
   private Path getPreviewDirPath(ProgramId programId) {
+    return previewDataDir.resolve(getPreviewDirName(programId));
+  }
+
+  private String getPreviewDirName(ProgramId programId) {
     // the preview directory will be <namespace-name>.<app-id>.<program-type>.<program-name>
-    return previewDataDir.resolve(String.format("%s.%s.%s.%s", programId.getNamespace(), programId.getApplication(),
-                                                programId.getType().name(), programId.getProgram()));
+    return String.format("%s.%s.%s.%s", programId.getNamespace(), programId.getApplication(),
+                         programId.getType().name(), programId.getProgram());
+  }
+
+  /**
+   * Parses the name returned by {@link #getPreviewDirName(ProgramId)} back to a {@link ProgramId}.
+   *
+   * @return the program id or {@code null} if the name is not a valid preview directory name
+   */
+  @Nullable
+  private ProgramId parseProgramId(String name) {
+    try {
+      String[] parts = name.trim().split("\\.");
+      return new ProgramId(parts[0], parts[1], parts[2], parts[3]);
+    } catch (Exception e) {
+      // if there is an exception converting to a preview id, just continue
+      LOG.debug("Failed to parse the file directory {} to a valid preview id", name, e);
+      return null;
+    }
+  }
+
+  /**
+   * A preview runtime in the pool.
+   */
+  private static final class PooledRuntime {
+    private final Injector injector;
+    private final Path dir;
+    private final long readyTime;
+
+    private PooledRuntime(Injector injector, Path dir, long readyTime) {
+      this.injector = injector;
+      this.dir = dir;
+      this.readyTime = readyTime;
+    }
   }
 }
@@ -80,6 +80,10 @@ import javax.annotation.Nullable;
 
 /**
  * Default implementation of the {@link PreviewRunner}.
+ *
+ * If the runner is created without a program, starting it only starts the services that don't depend on the
+ * preview program, so that it can be started ahead of time. The program is then taken from the
+ * {@link PreviewRequest} given to {@link #startPreview(PreviewRequest)}.
  */
 public class DefaultPreviewRunner extends AbstractIdleService implements PreviewRunner {
 
@@ -109,9 +113,9 @@ public class DefaultPreviewRunner extends AbstractIdleService implements Preview
   private final LevelDBTableService levelDBTableService;
   private final StructuredTableAdmin structuredTableAdmin;
   private final StructuredTableRegistry structuredTableRegistry;
-  private final ProgramId programId;
   private final CompletableFuture<PreviewStatus> completion;
 
+  private volatile ProgramId programId;
   private volatile boolean killedByTimer;
   private Timer timer;
   private volatile long startTimeMillis;
@@ -131,7 +135,7 @@ public class DefaultPreviewRunner extends AbstractIdleService implements Preview
                        LevelDBTableService levelDBTableService,
                        StructuredTableAdmin structuredTableAdmin,
                        StructuredTableRegistry structuredTableRegistry,
-                       @Named(PreviewRunnerModule.PREVIEW_PROGRAM_ID) ProgramId programId) {
+                       @Named(PreviewRunnerModule.PREVIEW_PROGRAM_ID) @Nullable ProgramId programId) {
     this.messagingService = messagingService;
     this.dsOpExecService = dsOpExecService;
     this.datasetService = datasetService;
@@ -155,6 +159,11 @@ public class DefaultPreviewRunner extends AbstractIdleService implements Preview
 
   @Override
   public void startPreview(PreviewRequest<?> previewRequest) throws Exception {
+    if (programId == null) {
+      // The runner was started ahead of time, hence the program specific services are not started yet
+      programId = previewRequest.getProgram();
+      startProgramServices();
+    }
     namespaceAdmin.create(new NamespaceMeta.Builder().setName(previewRequest.getProgram().getNamespaceId()).build());
     AppRequest<?> request = previewRequest.getAppRequest();
     ArtifactSummary artifactSummary = request.getArtifact();
@@ -311,6 +320,16 @@ public class DefaultPreviewRunner extends AbstractIdleService implements Preview
     }
     dsOpExecService.startAndWait();
     datasetService.startAndWait();
+
+    if (programId != null) {
+      startProgramServices();
+    }
+  }
+
+  /**
+   * Starts the services for running the preview program. This requires the program id to be set.
+   */
+  private void startProgramServices() throws Exception {
     timer = new Timer(programId.getApplication());
 
     // if there is a preview status in the store, that means this preview already has a run so do not need
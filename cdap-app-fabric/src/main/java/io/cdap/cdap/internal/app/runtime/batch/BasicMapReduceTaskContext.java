@@ -109,6 +109,8 @@ public class BasicMapReduceTaskContext<KEYOUT, VALUEOUT> extends AbstractContext
   private final AuthorizationEnforcer authorizationEnforcer;
   private final AuthenticationContext authenticationContext;
   private final MapReduceClassLoader mapReduceClassLoader;
+  @Nullable
+  private final MetricsCollectionService metricsCollectionService;
 
   private MultipleOutputs multipleOutputs;
   private TaskInputOutputContext<?, ?, KEYOUT, VALUEOUT> context;
@@ -154,6 +156,7 @@ public class BasicMapReduceTaskContext<KEYOUT, VALUEOUT> extends AbstractContext
     this.authorizationEnforcer = authorizationEnforcer;
     this.authenticationContext = authenticationContext;
     this.mapReduceClassLoader = mapReduceClassLoader;
+    this.metricsCollectionService = metricsCollectionService;
     initializeTransactionAwares();
   }
 
@@ -187,6 +190,9 @@ public class BasicMapReduceTaskContext<KEYOUT, VALUEOUT> extends AbstractContext
   public void setHadoopContext(TaskInputOutputContext<?, ?, KEYOUT, VALUEOUT> context) {
     this.multipleOutputs = new MultipleOutputs(context);
     this.context = context;
+    if (metricsCollectionService instanceof CounterMetricsCollectionService) {
+      ((CounterMetricsCollectionService) metricsCollectionService).setTaskContext(context);
+    }
   }
 
   public void setInputContext(InputContext inputContext) {
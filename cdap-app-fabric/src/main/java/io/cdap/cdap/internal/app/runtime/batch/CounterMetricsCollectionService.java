@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.internal.app.runtime.batch;
+
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.AbstractIdleService;
+import io.cdap.cdap.api.metrics.MetricsCollectionService;
+import io.cdap.cdap.api.metrics.MetricsContext;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.MRJobConfig;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.counters.LimitExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link MetricsCollectionService} for MapReduce tasks, which counts the metrics of the running task in Hadoop
+ * counters. The MapReduce framework merges the counters of all tasks, and the {@link MapReduceMetricsWriter} of the
+ * driver publishes them, so that a context is published once instead of by every task.
+ * Gauges, counts emitted before the task is running and counts that don't fit into the counter limits of the job
+ * are emitted through the delegate {@link MetricsCollectionService}.
+ */
+final class CounterMetricsCollectionService extends AbstractIdleService implements MetricsCollectionService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CounterMetricsCollectionService.class);
+
+  private final MetricsCollectionService delegate;
+  private final Set<String> programTags;
+  private final int groupNameMax;
+  private final int counterNameMax;
+  private volatile TaskAttemptContext taskContext;
+
+  CounterMetricsCollectionService(MetricsCollectionService delegate, Configuration conf, Set<String> programTags) {
+    this.delegate = delegate;
+    this.programTags = programTags;
+    this.groupNameMax = conf.getInt(MRJobConfig.COUNTER_GROUP_NAME_MAX_KEY,
+                                    MRJobConfig.COUNTER_GROUP_NAME_MAX_DEFAULT);
+    this.counterNameMax = conf.getInt(MRJobConfig.COUNTER_NAME_MAX_KEY, MRJobConfig.COUNTER_NAME_MAX_DEFAULT);
+  }
+
+  /**
+   * Sets the context of the running task, whose counters are used from now on.
+   */
+  void setTaskContext(TaskAttemptContext taskContext) {
+    this.taskContext = taskContext;
+  }
+
+  @Override
+  protected void startUp() throws Exception {
+    // no-op, the delegate is managed by the task
+  }
+
+  @Override
+  protected void shutDown() throws Exception {
+    // no-op
+  }
+
+  @Override
+  public MetricsContext getContext(Map<String, String> tags) {
+    return new CounterMetricsContext(delegate.getContext(tags));
+  }
+
+  /**
+   * A {@link MetricsContext} that counts in the counter group of its tags.
+   */
+  private final class CounterMetricsContext implements MetricsContext {
+
+    private final MetricsContext delegate;
+    @Nullable
+    private final String groupName;
+    // counters by metric name, absent for the metrics that are emitted through the delegate
+    private final ConcurrentMap<String, Optional<Counter>> counters;
+
+    CounterMetricsContext(MetricsContext delegate) {
+      this.delegate = delegate;
+      String groupName = MapReduceMetricsUtil.getCounterGroupName(delegate.getTags(), programTags);
+      this.groupName = groupName.length() <= groupNameMax ? groupName : null;
+      this.counters = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void increment(String metricName, long value) {
+      TaskAttemptContext context = taskContext;
+      if (context == null || groupName == null) {
+        delegate.increment(metricName, value);
+        return;
+      }
+      Optional<Counter> counter = counters.get(metricName);
+      if (counter == null) {
+        counter = getCounter(context, groupName, metricName);
+        counters.putIfAbsent(metricName, counter);
+      }
+      if (counter.isPresent()) {
+        counter.get().increment(value);
+      } else {
+        delegate.increment(metricName, value);
+      }
+    }
+
+    @Override
+    public void gauge(String metricName, long value) {
+      delegate.gauge(metricName, value);
+    }
+
+    @Override
+    public MetricsContext childContext(Map<String, String> tags) {
+      return new CounterMetricsContext(delegate.childContext(tags));
+    }
+
+    @Override
+    public MetricsContext childContext(String tagName, String tagValue) {
+      return new CounterMetricsContext(delegate.childContext(tagName, tagValue));
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+      return delegate.getTags();
+    }
+
+    private Optional<Counter> getCounter(TaskAttemptContext context, String groupName, String metricName) {
+      if (metricName.length() > counterNameMax) {
+        return Optional.absent();
+      }
+      try {
+        return Optional.fromNullable(context.getCounter(groupName, metricName));
+      } catch (LimitExceededException e) {
+        LOG.debug("Emitting metric {} of {} directly, as it exceeds the counter limits of the job.",
+                  metricName, delegate.getTags(), e);
+        return Optional.absent();
+      }
+    }
+  }
+}
@@ -16,20 +16,39 @@
 
 package io.cdap.cdap.internal.app.runtime.batch;
 
+import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
+import org.apache.hadoop.conf.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 /**
- * Utility class to get metrics report interval.
+ * Utility class to get metrics report interval, and to name the Hadoop counters that carry the metrics of tasks
+ * to the MapReduce driver.
  */
 public final class MapReduceMetricsUtil {
   private static final Logger LOG = LoggerFactory.getLogger(MapReduceMetricsUtil.class);
 
+  // the names of the metrics tags of the program in the driver, only set if tasks emit their metrics as counters
+  private static final String CONF_COUNTER_PROGRAM_TAGS = "cdap.mapreduce.metrics.counters.program.tags";
+  private static final String COUNTER_GROUP_PREFIX = "cdap.metrics";
+
   private MapReduceMetricsUtil() {
   }
 
@@ -51,4 +70,85 @@ public final class MapReduceMetricsUtil {
     }
     return TimeUnit.SECONDS.toMillis(reportInterval);
   }
+
+  /**
+   * Configures the tasks of a job to count their metrics in Hadoop counters, to be published by the driver.
+   *
+   * @param conf the configuration of the job
+   * @param programTags the names of the metrics tags of the program, which are known to the driver
+   */
+  public static void setCounterProgramTags(Configuration conf, Collection<String> programTags) {
+    conf.setStrings(CONF_COUNTER_PROGRAM_TAGS, programTags.toArray(new String[programTags.size()]));
+  }
+
+  /**
+   * Returns the names of the metrics tags of the program if the tasks of the job count their metrics in Hadoop
+   * counters, or {@code null} if they publish them directly.
+   */
+  @Nullable
+  public static Set<String> getCounterProgramTags(Configuration conf) {
+    String[] programTags = conf.getStrings(CONF_COUNTER_PROGRAM_TAGS);
+    return programTags == null ? null : ImmutableSet.copyOf(programTags);
+  }
+
+  /**
+   * Returns the name of the counter group for the metrics of a context with the given tags. The program tags and
+   * the task id are left out, so that the counters of all tasks are merged.
+   */
+  static String getCounterGroupName(Map<String, String> tags, Set<String> programTags) {
+    StringBuilder groupName = new StringBuilder(COUNTER_GROUP_PREFIX);
+    char separator = ':';
+    for (Map.Entry<String, String> tag : new TreeMap<>(tags).entrySet()) {
+      if (programTags.contains(tag.getKey()) || Constants.Metrics.Tag.INSTANCE_ID.equals(tag.getKey())) {
+        continue;
+      }
+      groupName.append(separator).append(encode(tag.getKey())).append('=').append(encode(tag.getValue()));
+      separator = '&';
+    }
+    return groupName.toString();
+  }
+
+  /**
+   * Returns the tags encoded in the given counter group name, or {@code null} if it is not a group of metrics.
+   */
+  @Nullable
+  static Map<String, String> getCounterGroupTags(String groupName) {
+    if (!groupName.startsWith(COUNTER_GROUP_PREFIX)) {
+      return null;
+    }
+    String encodedTags = groupName.substring(COUNTER_GROUP_PREFIX.length());
+    if (encodedTags.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    if (encodedTags.charAt(0) != ':') {
+      return null;
+    }
+    Map<String, String> tags = new HashMap<>();
+    for (String tag : Splitter.on('&').split(encodedTags.substring(1))) {
+      int idx = tag.indexOf('=');
+      if (idx < 0) {
+        return null;
+      }
+      tags.put(decode(tag.substring(0, idx)), decode(tag.substring(idx + 1)));
+    }
+    return tags;
+  }
+
+  private static String encode(String value) {
+    try {
+      return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+    } catch (UnsupportedEncodingException e) {
+      // Should never happen
+      throw Throwables.propagate(e);
+    }
+  }
+
+  private static String decode(String value) {
+    try {
+      return URLDecoder.decode(value, StandardCharsets.UTF_8.name());
+    } catch (UnsupportedEncodingException e) {
+      // Should never happen
+      throw Throwables.propagate(e);
+    }
+  }
 }
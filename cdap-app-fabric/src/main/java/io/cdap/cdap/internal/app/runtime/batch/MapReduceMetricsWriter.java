@@ -16,9 +16,13 @@
 
 package io.cdap.cdap.internal.app.runtime.batch;
 
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
 import io.cdap.cdap.api.metrics.MetricsContext;
 import io.cdap.cdap.app.metrics.MapReduceMetrics;
 import io.cdap.cdap.common.conf.Constants;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.CounterGroup;
 import org.apache.hadoop.mapreduce.Counters;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.JobStatus;
@@ -29,9 +33,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Gathers statistics from a running mapreduce job through its counters and writes the data to the metrics system.
+ * This includes the metrics that the tasks count in counters, see {@link CounterMetricsCollectionService}.
  */
 public class MapReduceMetricsWriter {
   private static final Logger LOG = LoggerFactory.getLogger(MapReduceMetricsWriter.class);
@@ -39,18 +46,55 @@ public class MapReduceMetricsWriter {
   private final Job jobConf;
   private final MetricsContext mapperMetrics;
   private final MetricsContext reducerMetrics;
+  private final MetricsContext programMetrics;
+  // contexts of the task metrics by counter group
+  private final Map<String, MetricsContext> taskMetrics;
+  // values of the task metrics counters that are already written, by counter group and name
+  private final Table<String, String, Long> writtenCounters;
 
   public MapReduceMetricsWriter(Job jobConf, BasicMapReduceContext context) {
+    this(jobConf, context.getProgramMetrics());
+  }
+
+  MapReduceMetricsWriter(Job jobConf, MetricsContext programMetrics) {
     this.jobConf = jobConf;
-    this.mapperMetrics = context.getProgramMetrics().childContext(Constants.Metrics.Tag.MR_TASK_TYPE,
-                                                                  MapReduceMetrics.TaskType.Mapper.getId());
-    this.reducerMetrics = context.getProgramMetrics().childContext(Constants.Metrics.Tag.MR_TASK_TYPE,
-                                                                   MapReduceMetrics.TaskType.Reducer.getId());
+    this.programMetrics = programMetrics;
+    this.taskMetrics = new HashMap<>();
+    this.writtenCounters = HashBasedTable.create();
+    this.mapperMetrics = programMetrics.childContext(Constants.Metrics.Tag.MR_TASK_TYPE,
+                                                     MapReduceMetrics.TaskType.Mapper.getId());
+    this.reducerMetrics = programMetrics.childContext(Constants.Metrics.Tag.MR_TASK_TYPE,
+                                                      MapReduceMetrics.TaskType.Reducer.getId());
   }
 
   public void reportStats() throws IOException, InterruptedException {
     Counters jobCounters = jobConf.getCounters();
     reportMapredStats(jobCounters);
+    reportTaskMetrics(jobCounters);
+  }
+
+  // metrics counted by the tasks, merged across all tasks by the framework
+  void reportTaskMetrics(Counters jobCounters) {
+    for (CounterGroup group : jobCounters) {
+      MetricsContext metricsContext = taskMetrics.get(group.getName());
+      if (metricsContext == null) {
+        Map<String, String> tags = MapReduceMetricsUtil.getCounterGroupTags(group.getName());
+        if (tags == null) {
+          continue;
+        }
+        metricsContext = programMetrics.childContext(tags);
+        taskMetrics.put(group.getName(), metricsContext);
+      }
+      for (Counter counter : group) {
+        // the counters of failed task attempts are dropped, hence the delta can be negative
+        Long written = writtenCounters.get(group.getName(), counter.getName());
+        long delta = counter.getValue() - (written == null ? 0L : written);
+        if (delta != 0L) {
+          metricsContext.increment(counter.getName(), delta);
+          writtenCounters.put(group.getName(), counter.getName(), counter.getValue());
+        }
+      }
+    }
   }
 
   // job level stats from counters built in to mapreduce
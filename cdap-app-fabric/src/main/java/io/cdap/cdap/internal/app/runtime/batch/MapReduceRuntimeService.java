@@ -255,6 +255,12 @@ final class MapReduceRuntimeService extends AbstractExecutionThreadService {
       TaskType.MAP.configure(mapredConf, cConf, context.getMapperRuntimeArguments(), context.getMapperResources());
       TaskType.REDUCE.configure(mapredConf, cConf, context.getReducerRuntimeArguments(), context.getReducerResources());
 
+      // let the tasks count their metrics in counters, which are merged by the framework and published by the driver
+      if (cConf.getBoolean(Constants.Metrics.DRIVER_AGGREGATION_ENABLED
+                             + ProgramType.MAPREDUCE.name().toLowerCase(), false)) {
+        MapReduceMetricsUtil.setCounterProgramTags(mapredConf, context.getProgramMetrics().getTags().keySet());
+      }
+
       // replace user's Mapper, Reducer, Partitioner, and Comparator classes with our wrappers in job config
       MapperWrapper.wrap(job);
       ReducerWrapper.wrap(job);
@@ -67,6 +67,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.Nullable;
 
@@ -232,6 +233,12 @@ public class MapReduceTaskContextProvider extends AbstractIdleService {
             taskType = MapReduceMetrics.TaskType.from(taskAttemptId.getTaskType());
             // if this is not for a mapper or a reducer, we don't need the metrics collection service
             metricsCollectionService = injector.getInstance(MetricsCollectionService.class);
+            Set<String> programTags = MapReduceMetricsUtil.getCounterProgramTags(key.getConfiguration());
+            if (programTags != null) {
+              // count the metrics of the task in Hadoop counters, to be merged and published by the driver
+              metricsCollectionService = new CounterMetricsCollectionService(metricsCollectionService,
+                                                                             key.getConfiguration(), programTags);
+            }
             options = new SimpleProgramOptions(options.getProgramId(), options.getArguments(),
                                                new BasicArguments(
                                                  RuntimeArguments.extractScope(
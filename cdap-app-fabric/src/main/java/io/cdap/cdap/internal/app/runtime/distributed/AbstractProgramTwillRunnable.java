@@ -44,6 +44,7 @@ import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.io.Locations;
 import io.cdap.cdap.common.logging.LoggingContextAccessor;
 import io.cdap.cdap.common.logging.common.UncaughtExceptionHandler;
+import io.cdap.cdap.data2.datafabric.dataset.DatasetMetaCache;
 import io.cdap.cdap.internal.app.ApplicationSpecificationAdapter;
 import io.cdap.cdap.internal.app.program.StateChangeListener;
 import io.cdap.cdap.internal.app.runtime.AbstractListener;
@@ -61,6 +62,7 @@ import io.cdap.cdap.messaging.MessagingService;
 import io.cdap.cdap.messaging.guice.MessagingServerRuntimeModule;
 import io.cdap.cdap.messaging.server.MessagingHttpService;
 import io.cdap.cdap.proto.id.ProgramRunId;
+import io.cdap.cdap.security.spi.authorization.AuthorizationEnforcer;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.tephra.TransactionManager;
@@ -338,6 +340,10 @@ public abstract class AbstractProgramTwillRunnable<T extends ProgramRunner> impl
       if (programRunner instanceof Closeable) {
         Closeables.closeQuietly((Closeable) programRunner);
       }
+      AuthorizationEnforcer authorizationEnforcer = injector.getInstance(AuthorizationEnforcer.class);
+      if (authorizationEnforcer instanceof Closeable) {
+        Closeables.closeQuietly((Closeable) authorizationEnforcer);
+      }
 
       stopCoreServices();
     }
@@ -518,6 +524,8 @@ public abstract class AbstractProgramTwillRunnable<T extends ProgramRunner> impl
         // This shouldn't happen. Just do nothing.
     }
 
+    // Caches dataset metadata for the dataset framework, invalidated through the messaging service
+    services.add(injector.getInstance(DatasetMetaCache.class));
     return services;
   }
 
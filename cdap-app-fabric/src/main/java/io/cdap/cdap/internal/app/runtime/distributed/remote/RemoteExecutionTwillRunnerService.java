@@ -25,6 +25,7 @@ import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.gson.Gson;
 import com.google.inject.Inject;
 import io.cdap.cdap.api.metrics.MetricsCollectionService;
+import io.cdap.cdap.api.metrics.MetricsContext;
 import io.cdap.cdap.api.retry.RetryableException;
 import io.cdap.cdap.app.runtime.Arguments;
 import io.cdap.cdap.app.runtime.ProgramOptions;
@@ -385,6 +386,18 @@ public class RemoteExecutionTwillRunnerService implements TwillRunnerService {
                                     cluster.getNodes().size(), monitorScheduler);
   }
 
+  /**
+   * Creates the {@link MetricsContext} for emitting metrics about the monitoring of the given program run.
+   */
+  private MetricsContext createMonitorMetricsContext(ProgramRunId programRunId) {
+    return metricsCollectionService.getContext(ImmutableMap.of(
+      Constants.Metrics.Tag.NAMESPACE, programRunId.getNamespace(),
+      Constants.Metrics.Tag.APP, programRunId.getApplication(),
+      Constants.Metrics.Tag.PROGRAM_TYPE, programRunId.getType().getPrettyName(),
+      Constants.Metrics.Tag.PROGRAM, programRunId.getProgram(),
+      Constants.Metrics.Tag.RUN_ID, programRunId.getRun()));
+  }
+
   /**
    * Saves the given {@link KeyStore} under the given directory.
    */
@@ -583,7 +596,8 @@ public class RemoteExecutionTwillRunnerService implements TwillRunnerService {
       RuntimeMonitorClient runtimeMonitorClient = new RuntimeMonitorClient(
         HttpRequestConfig.DEFAULT, clusterKeyInfo.getClientKeyStore(),
         KeyStores.createTrustStore(clusterKeyInfo.getServerKeyStore()),
-        serverAddressSupplier, new Proxy(Proxy.Type.SOCKS, monitorSocksProxy.getBindAddress())
+        serverAddressSupplier, new Proxy(Proxy.Type.SOCKS, monitorSocksProxy.getBindAddress()),
+        cConf.getBoolean(Constants.RuntimeMonitor.COMPRESSION_ENABLED)
       );
 
       RemoteProcessController processController = new SSHRemoteProcessController(programRunId, programOptions,
@@ -593,7 +607,8 @@ public class RemoteExecutionTwillRunnerService implements TwillRunnerService {
       RuntimeMonitor runtimeMonitor = new RuntimeMonitor(programRunId, cConf, runtimeMonitorClient,
                                                          messagingContext, monitorScheduler, logProcessor,
                                                          processController, programStateWriter,
-                                                         transactionRunner, profileMetricsService);
+                                                         transactionRunner, createMonitorMetricsContext(programRunId),
+                                                         profileMetricsService);
       RemoteExecutionTwillController controller = new RemoteExecutionTwillController(
         RunIds.fromString(programRunId.getRun()), runtimeMonitor);
 
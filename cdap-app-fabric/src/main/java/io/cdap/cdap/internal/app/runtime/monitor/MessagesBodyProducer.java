@@ -39,17 +39,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 import javax.annotation.Nullable;
 
 /**
  * A {@link BodyProducer} to encode and send back messages.
  * Instead of using GenericDatumWriter, we perform the map and array encoding manually so that we don't have to buffer
  * all messages in memory before sending out.
+ * If compression is requested, the encoded messages are deflated as they are written, with every chunk flushed so that
+ * the client can decode the messages in a chunk without waiting for the rest of the response.
  */
 final class MessagesBodyProducer extends BodyProducer {
 
@@ -66,6 +71,8 @@ final class MessagesBodyProducer extends BodyProducer {
   private final int messageChunkSize;
   private final Deque<GenericRecord> monitorMessages;
   private final ByteBuf chunk;
+  private final Deflater deflater;
+  private final OutputStream outputStream;
   private final Encoder encoder;
   private final DatumWriter<GenericRecord> messageWriter;
   private Iterator<Message> iterator;
@@ -73,7 +80,7 @@ final class MessagesBodyProducer extends BodyProducer {
   private boolean mapEnded;
 
   MessagesBodyProducer(CConfiguration cConf, Map<String, GenericRecord> requests,
-                       MessagingContext messagingContext) {
+                       MessagingContext messagingContext, boolean compress) {
     this.requestsIterator = requests.entrySet().iterator();
     this.messagingContext = messagingContext;
     this.cConf = cConf;
@@ -81,7 +88,11 @@ final class MessagesBodyProducer extends BodyProducer {
     this.messageChunkSize = cConf.getInt(Constants.RuntimeMonitor.SERVER_CONSUME_CHUNK_SIZE);
     this.monitorMessages = new LinkedList<>();
     this.chunk = Unpooled.buffer(messageChunkSize);
-    this.encoder = EncoderFactory.get().directBinaryEncoder(new ByteBufOutputStream(chunk), null);
+    // Favor speed over compression ratio since the encoding happens while the client is waiting for the response
+    this.deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+    this.outputStream = compress ? new DeflaterOutputStream(new ByteBufOutputStream(chunk), deflater, true)
+                                 : new ByteBufOutputStream(chunk);
+    this.encoder = EncoderFactory.get().directBinaryEncoder(outputStream, null);
     this.messageWriter = new GenericDatumWriter<GenericRecord>(elementSchema) {
       @Override
       protected void writeBytes(Object datum, Encoder out) throws IOException {
@@ -107,17 +118,28 @@ final class MessagesBodyProducer extends BodyProducer {
       sendMessages();
     }
 
+    if (deflater != null) {
+      // Flush all the compressed data of this chunk, and write the end of the compressed stream in the last chunk
+      if (mapEnded) {
+        ((DeflaterOutputStream) outputStream).finish();
+      } else {
+        outputStream.flush();
+      }
+    }
+
     return chunk.copy();
   }
 
   @Override
   public void finished() {
     chunk.release();
+    endDeflater();
   }
 
   @Override
   public void handleError(@Nullable Throwable cause) {
     closeIterator(iterator);
+    endDeflater();
     OUTAGE_LOG.error("Error occurred while sending chunks from Runtime Handler", cause);
   }
 
@@ -238,6 +260,12 @@ final class MessagesBodyProducer extends BodyProducer {
     return prefix == null ? null : prefix + topicConfig.substring(idx + 1);
   }
 
+  private void endDeflater() {
+    if (deflater != null) {
+      deflater.end();
+    }
+  }
+
   private void closeIterator(Iterator<?> iterator) {
     if (iterator instanceof AutoCloseable) {
       try {
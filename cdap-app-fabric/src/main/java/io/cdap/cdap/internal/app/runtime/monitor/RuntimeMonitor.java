@@ -23,6 +23,7 @@ import com.google.gson.Gson;
 import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.api.messaging.MessagePublisher;
 import io.cdap.cdap.api.messaging.MessagingContext;
+import io.cdap.cdap.api.metrics.MetricsContext;
 import io.cdap.cdap.api.retry.RetryableException;
 import io.cdap.cdap.app.runtime.ProgramStateWriter;
 import io.cdap.cdap.common.conf.CConfiguration;
@@ -67,6 +68,10 @@ import java.util.stream.Stream;
 
 /**
  * Runtime Monitor Service responsible for fetching program status, audit messages, metrics, data events and metadata
+ *
+ * The polling interval adapts to the amount of messages fetched. If a topic returned a full batch, the next fetch
+ * happens right away. If no message was fetched, the interval is doubled each time, up to the configured maximum.
+ * Otherwise the configured poll time is used.
  */
 public class RuntimeMonitor extends AbstractRetryableScheduledService {
 
@@ -79,6 +84,11 @@ public class RuntimeMonitor extends AbstractRetryableScheduledService {
 
   private static final Gson GSON = new Gson();
 
+  static final String METRIC_FETCH_BYTES = "runtime.monitor.fetch.bytes";
+  static final String METRIC_FETCH_MESSAGES = "runtime.monitor.fetch.messages";
+  static final String METRIC_FETCH_LATENCY = "runtime.monitor.fetch.latency.ms";
+  static final String METRIC_POLL_INTERVAL = "runtime.monitor.poll.interval.ms";
+
   private final RuntimeMonitorClient monitorClient;
 
   private final int limit;
@@ -88,6 +98,7 @@ public class RuntimeMonitor extends AbstractRetryableScheduledService {
   private final Map<String, String> requestKeyToLocalTopic;
 
   private final long pollTimeMillis;
+  private final long maxPollTimeMillis;
   private final long gracefulShutdownMillis;
   private final Deque<MonitorMessage> lastProgramStateMessages;
   private final MessagingContext messagingContext;
@@ -97,15 +108,17 @@ public class RuntimeMonitor extends AbstractRetryableScheduledService {
   private final ProgramStateWriter programStateWriter;
   private final TransactionRunner transactionRunner;
   private final List<Service> extraServices;
+  private final MetricsContext metricsContext;
 
   private Map<String, MonitorConsumeRequest> topicsToRequest;
   private long programFinishTime;
+  private long currentPollTimeMillis;
 
   public RuntimeMonitor(ProgramRunId programRunId, CConfiguration cConf, RuntimeMonitorClient monitorClient,
                         MessagingContext messagingContext, ScheduledExecutorService scheduledExecutorService,
                         RemoteExecutionLogProcessor logProcessor, RemoteProcessController remoteProcessController,
                         ProgramStateWriter programStateWriter, TransactionRunner transactionRunner,
-                        Service... extraServices) {
+                        MetricsContext metricsContext, Service... extraServices) {
     super(RetryStrategies.fromConfiguration(cConf, "system.runtime.monitor."));
 
     this.programRunId = programRunId;
@@ -113,6 +126,8 @@ public class RuntimeMonitor extends AbstractRetryableScheduledService {
     this.monitorClient = monitorClient;
     this.limit = cConf.getInt(Constants.RuntimeMonitor.BATCH_SIZE);
     this.pollTimeMillis = cConf.getLong(Constants.RuntimeMonitor.POLL_TIME_MS);
+    this.maxPollTimeMillis = Math.max(pollTimeMillis, cConf.getLong(Constants.RuntimeMonitor.MAX_POLL_TIME_MS));
+    this.currentPollTimeMillis = pollTimeMillis;
     this.gracefulShutdownMillis = cConf.getLong(Constants.RuntimeMonitor.GRACEFUL_SHUTDOWN_MS);
     this.topicsToRequest = new HashMap<>();
     this.messagingContext = messagingContext;
@@ -125,6 +140,7 @@ public class RuntimeMonitor extends AbstractRetryableScheduledService {
     this.programStateWriter = programStateWriter;
     this.transactionRunner = transactionRunner;
     this.extraServices = new ArrayList<>(Arrays.asList(extraServices));
+    this.metricsContext = metricsContext;
   }
 
   @Override
@@ -235,8 +251,20 @@ public class RuntimeMonitor extends AbstractRetryableScheduledService {
     }
 
     // Next to fetch data from the remote runtime
+    long fetchStartTime = System.currentTimeMillis();
+    long bytesReceived = monitorClient.getBytesReceived();
     Map<String, Deque<MonitorMessage>> monitorResponses = monitorClient.fetchMessages(topicsToRequest);
 
+    int messageCount = 0;
+    boolean hasMore = false;
+    for (Deque<MonitorMessage> messages : monitorResponses.values()) {
+      messageCount += messages.size();
+      hasMore = hasMore || messages.size() >= limit;
+    }
+    metricsContext.gauge(METRIC_FETCH_LATENCY, System.currentTimeMillis() - fetchStartTime);
+    metricsContext.increment(METRIC_FETCH_BYTES, monitorClient.getBytesReceived() - bytesReceived);
+    metricsContext.increment(METRIC_FETCH_MESSAGES, messageCount);
+
     // Update programFinishTime when remote runtime is in terminal state. Also buffer all the program status
     // events. This is done before transactional publishing to avoid re-fetching same remote runtime status
     // messages.
@@ -265,9 +293,32 @@ public class RuntimeMonitor extends AbstractRetryableScheduledService {
         clearStates();
         stop();
       }
+      // Keep polling at the configured poll time to detect the end of messages in time
+      return pollTimeMillis;
     }
 
-    return pollTimeMillis;
+    return nextPollTime(messageCount, hasMore);
+  }
+
+  /**
+   * Returns the delay in milliseconds before the next fetch based on the result of the current fetch.
+   *
+   * @param messageCount number of messages fetched
+   * @param hasMore {@code true} if any of the topics returned a full batch of messages
+   */
+  private long nextPollTime(int messageCount, boolean hasMore) {
+    if (hasMore) {
+      currentPollTimeMillis = pollTimeMillis;
+      return 0L;
+    }
+    if (messageCount > 0) {
+      currentPollTimeMillis = pollTimeMillis;
+    } else {
+      // Back off when the remote runtime is quiet
+      currentPollTimeMillis = Math.min(currentPollTimeMillis * 2, maxPollTimeMillis);
+    }
+    metricsContext.gauge(METRIC_POLL_INTERVAL, currentPollTimeMillis);
+    return currentPollTimeMillis;
   }
 
   /**
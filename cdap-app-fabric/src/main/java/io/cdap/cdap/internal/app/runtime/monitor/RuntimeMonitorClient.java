@@ -18,6 +18,7 @@ package io.cdap.cdap.internal.app.runtime.monitor;
 
 import com.google.common.io.ByteStreams;
 import com.google.common.io.CharStreams;
+import com.google.common.io.CountingInputStream;
 import com.google.common.net.HttpHeaders;
 import io.cdap.cdap.common.ServiceUnavailableException;
 import io.cdap.cdap.common.security.HttpsEnabler;
@@ -53,7 +54,10 @@ import java.util.Deque;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 import javax.net.ssl.HttpsURLConnection;
 
 /**
@@ -61,22 +65,46 @@ import javax.net.ssl.HttpsURLConnection;
  */
 public final class RuntimeMonitorClient {
   private static final Logger LOG = LoggerFactory.getLogger(RuntimeMonitorClient.class);
+  private static final String DEFLATE = "deflate";
 
   private final HttpRequestConfig requestConfig;
   private final HttpsEnabler httpsEnabler;
   private final DatumReader<GenericRecord> responseDatumReader;
   private final Supplier<InetSocketAddress> serverAddressSupplier;
   private final Proxy proxy;
+  private final boolean compression;
+  private final AtomicLong bytesReceived;
   private volatile URI baseURI;
 
   public RuntimeMonitorClient(HttpRequestConfig requestConfig, KeyStore keyStore, KeyStore trustStore,
                               Supplier<InetSocketAddress> serverAddressSupplier, Proxy proxy) {
+    this(requestConfig, keyStore, trustStore, serverAddressSupplier, proxy, true);
+  }
+
+  /**
+   * Creates an instance.
+   *
+   * @param compression {@code true} to ask the server to compress the fetched messages. The messages are only
+   *                    compressed if the server supports it.
+   */
+  public RuntimeMonitorClient(HttpRequestConfig requestConfig, KeyStore keyStore, KeyStore trustStore,
+                              Supplier<InetSocketAddress> serverAddressSupplier, Proxy proxy, boolean compression) {
     this.requestConfig = requestConfig;
     this.httpsEnabler = new HttpsEnabler().setKeyStore(keyStore, ""::toCharArray).setTrustStore(trustStore);
     this.responseDatumReader = new GenericDatumReader<>(
       MonitorSchemas.V1.MonitorResponse.SCHEMA.getValueType().getElementType());
     this.serverAddressSupplier = serverAddressSupplier;
     this.proxy = proxy;
+    this.compression = compression;
+    this.bytesReceived = new AtomicLong();
+  }
+
+  /**
+   * Returns the total number of bytes received from the server for the fetched messages, as transferred over the
+   * network.
+   */
+  long getBytesReceived() {
+    return bytesReceived.get();
   }
 
   /**
@@ -95,13 +123,26 @@ public final class RuntimeMonitorClient {
       urlConn.setDoOutput(true);
       urlConn.setRequestMethod("POST");
       urlConn.setRequestProperty(HttpHeaders.CONTENT_TYPE, "avro/binary");
+      if (compression) {
+        urlConn.setRequestProperty(HttpHeaders.ACCEPT_ENCODING, DEFLATE);
+      }
 
       try (OutputStream os = urlConn.getOutputStream()) {
         encodeRequest(request, os);
       }
 
       throwIfNotOK(urlConn.getResponseCode(), urlConn);
-      return decodeResponse(urlConn.getInputStream());
+      CountingInputStream is = new CountingInputStream(urlConn.getInputStream());
+      // Older servers don't compress the response even if it was requested
+      Inflater inflater = DEFLATE.equalsIgnoreCase(urlConn.getContentEncoding()) ? new Inflater() : null;
+      try {
+        return decodeResponse(inflater == null ? is : new InflaterInputStream(is, inflater));
+      } finally {
+        bytesReceived.addAndGet(is.getCount());
+        if (inflater != null) {
+          inflater.end();
+        }
+      }
     } catch (ConnectException e) {
       throw new ServiceUnavailableException("runtime.monitor", e);
     } finally {
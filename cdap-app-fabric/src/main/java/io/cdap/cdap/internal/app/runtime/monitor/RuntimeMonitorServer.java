@@ -43,6 +43,8 @@ import io.netty.buffer.ByteBufInputStream;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import org.apache.avro.generic.GenericDatumReader;
@@ -227,15 +229,23 @@ public class RuntimeMonitorServer extends AbstractIdleService {
     }
 
     /**
-     * Gets list of topics along with offsets and limit as request and returns list of messages
+     * Gets list of topics along with offsets and limit as request and returns list of messages.
+     * The response is deflated if the client accepts the deflate encoding.
      */
     @POST
     @Path("/metadata")
     public void metadata(FullHttpRequest request, HttpResponder responder) throws Exception {
       Map<String, GenericRecord> consumeRequests = decodeConsumeRequest(request);
-      MessagesBodyProducer messagesBodyProducer = new MessagesBodyProducer(cConf, consumeRequests, messagingContext);
-      responder.sendContent(HttpResponseStatus.OK, messagesBodyProducer,
-                            new DefaultHttpHeaders().set(HttpHeaderNames.CONTENT_TYPE, "avro/binary"));
+      String acceptEncoding = request.headers().get(HttpHeaderNames.ACCEPT_ENCODING);
+      boolean compress = acceptEncoding != null
+        && acceptEncoding.toLowerCase().contains(HttpHeaderValues.DEFLATE.toString());
+
+      HttpHeaders headers = new DefaultHttpHeaders().set(HttpHeaderNames.CONTENT_TYPE, "avro/binary");
+      if (compress) {
+        headers.set(HttpHeaderNames.CONTENT_ENCODING, HttpHeaderValues.DEFLATE);
+      }
+      responder.sendContent(HttpResponseStatus.OK,
+                            new MessagesBodyProducer(cConf, consumeRequests, messagingContext, compress), headers);
     }
 
     /**
@@ -402,6 +402,17 @@ public class JobQueueTable implements JobQueue {
 
   @VisibleForTesting
   int getPartition(ScheduleId scheduleId) {
+    return getPartition(scheduleId, numPartitions);
+  }
+
+  /**
+   * Returns the partition of the job queue that stores the jobs of the given schedule.
+   *
+   * @param scheduleId the schedule to compute the partition for
+   * @param numPartitions the number of partitions in the job queue
+   * @return the partition id, between {@code 0} (inclusive) and {@code numPartitions} (exclusive)
+   */
+  public static int getPartition(ScheduleId scheduleId, int numPartitions) {
     // Similar to ScheduleId#hashCode, but that is not consistent across runtimes due to how Enum#hashCode works.
     // Ensure that the hash won't change across runtimes:
     int hash = Hashing.murmur3_32().newHasher()
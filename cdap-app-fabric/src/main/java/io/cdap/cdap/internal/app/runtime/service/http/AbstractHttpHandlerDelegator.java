@@ -17,6 +17,7 @@
 package io.cdap.cdap.internal.app.runtime.service.http;
 
 import com.google.common.base.Preconditions;
+import io.cdap.cdap.api.annotation.ReadSnapshot;
 import io.cdap.cdap.api.annotation.TransactionControl;
 import io.cdap.cdap.api.metrics.MetricsContext;
 import io.cdap.cdap.api.service.http.HttpContentConsumer;
@@ -66,6 +67,19 @@ public abstract class AbstractHttpHandlerDelegator<T> implements HttpHandler {
     context.getServiceTaskExecutor().execute(runnable, transactional);
   }
 
+  /**
+   * Executes a given {@link ThrowingRunnable} in a read snapshot that is at most the given age.
+   * This method is called from handler class generated by {@link HttpHandlerGenerator} for methods annotated
+   * with {@link ReadSnapshot}.
+   *
+   * @param runnable the runnable to call
+   * @param maxStalenessMillis the maximum age in milliseconds of the read snapshot
+   * @throws Exception if there is exception, either caused by the runnable or by the transaction system.
+   */
+  protected final void executeWithReadSnapshot(ThrowingRunnable runnable, long maxStalenessMillis) throws Exception {
+    context.getServiceTaskExecutor().executeWithReadSnapshot(runnable, maxStalenessMillis);
+  }
+
   /**
    * Returns the user http service handler associated with the current thread.
    * This method is called from handler class generated by {@link HttpHandlerGenerator}.
@@ -24,6 +24,7 @@ import com.google.common.collect.Lists;
 import com.google.common.hash.Hashing;
 import com.google.common.reflect.TypeParameter;
 import com.google.common.reflect.TypeToken;
+import io.cdap.cdap.api.annotation.ReadSnapshot;
 import io.cdap.cdap.api.annotation.TransactionControl;
 import io.cdap.cdap.api.annotation.TransactionPolicy;
 import io.cdap.cdap.api.metrics.MetricsContext;
@@ -122,6 +123,7 @@ final class HttpHandlerGenerator {
 
   private static final Type TX_POLICY_TYPE = Type.getType(TransactionPolicy.class);
   private static final Type TX_CONTROL_TYPE = Type.getType(TransactionControl.class);
+  private static final Type READ_SNAPSHOT_TYPE = Type.getType(ReadSnapshot.class);
   private static final Type ATOMIC_REFERENCE_TYPE = Type.getType(AtomicReference.class);
   private static final Type THROWING_RUNNABLE_TYPE = Type.getType(ThrowingRunnable.class);
   private static final Type EXCEPTION_TYPE = Type.getType(Exception.class);
@@ -412,9 +414,21 @@ final class HttpHandlerGenerator {
       // this is a handler process, hence need to copy.
       boolean handlerMethod = false;
       TransactionControl txCtrl = defaultTxControl;
+      // The max staleness of the read snapshot for serving the method, or -1 if it doesn't use a read snapshot
+      long maxStalenessMillis = -1L;
       for (AnnotationNode annotation : annotations) {
         if (isHandlerMethod(Type.getType(annotation.desc))) {
           handlerMethod = true;
+        } else if (READ_SNAPSHOT_TYPE.equals(Type.getType(annotation.desc))) {
+          maxStalenessMillis = ReadSnapshot.DEFAULT_MAX_STALENESS_MILLIS;
+          List list = annotation.values;
+          if (list != null) {
+            for (Iterator iter = list.iterator(); iter.hasNext(); ) {
+              if ("maxStalenessMillis".equals(iter.next()) && iter.hasNext()) {
+                maxStalenessMillis = Math.max(0L, (Long) iter.next());
+              }
+            }
+          }
         } else if (TX_POLICY_TYPE.equals(Type.getType(annotation.desc))) {
           List list = annotation.values;
           for (Iterator iter = list.iterator(); iter.hasNext(); ) {
@@ -490,7 +504,7 @@ final class HttpHandlerGenerator {
       }
 
       // Generate the method body
-      generateDelegateBody(classWriter, mg, new Method(name, desc), txCtrl);
+      generateDelegateBody(classWriter, mg, new Method(name, desc), txCtrl, maxStalenessMillis);
 
       super.visitEnd();
     }
@@ -572,6 +586,9 @@ final class HttpHandlerGenerator {
      * }
      * </pre>
      *
+     * If the method is annotated with {@link ReadSnapshot} and runs in an implicit transaction, the
+     * {@code execute(..., useTx)} call is replaced by {@code executeWithReadSnapshot(..., maxStalenessMillis)}.
+     *
      * For handler that returns {@link HttpContentConsumer}, it has the following form:
      *
      * <pre>
@@ -595,8 +612,12 @@ final class HttpHandlerGenerator {
      * </pre>
      */
     private void generateDelegateBody(ClassWriter classWriter, GeneratorAdapter mg,
-                                      Method method, TransactionControl txControl) {
+                                      Method method, TransactionControl txControl, long maxStalenessMillis) {
       boolean useBodyConsumer = method.getReturnType().getSort() == Type.OBJECT;
+      // Only a method that runs in an implicit transaction and that doesn't consume the request body
+      // in a separate transaction can be served from a read snapshot
+      boolean useReadSnapshot = maxStalenessMillis >= 0 && txControl == TransactionControl.IMPLICIT
+        && !useBodyConsumer;
 
       // Generate the synthetic static method for lambda invoke first
       Method lambdaMethod = generateRunnableLambda(classWriter, method, useBodyConsumer);
@@ -685,10 +706,17 @@ final class HttpHandlerGenerator {
       mg.invokeDynamic("run", Type.getMethodDescriptor(THROWING_RUNNABLE_TYPE, lambdaMethod.getArgumentTypes()),
                        metaFactoryHandle, samMethodType, lambdaMethodHandle, samMethodType);
 
-      // Second argument to the execute method
-      mg.push(txControl == TransactionControl.IMPLICIT);
-      mg.invokeVirtual(classType, new Method("execute", Type.VOID_TYPE,
-                                             new Type[] { THROWING_RUNNABLE_TYPE, Type.BOOLEAN_TYPE }));
+      if (useReadSnapshot) {
+        // Second argument to the executeWithReadSnapshot method
+        mg.push(maxStalenessMillis);
+        mg.invokeVirtual(classType, new Method("executeWithReadSnapshot", Type.VOID_TYPE,
+                                               new Type[] { THROWING_RUNNABLE_TYPE, Type.LONG_TYPE }));
+      } else {
+        // Second argument to the execute method
+        mg.push(txControl == TransactionControl.IMPLICIT);
+        mg.invokeVirtual(classType, new Method("execute", Type.VOID_TYPE,
+                                               new Type[] { THROWING_RUNNABLE_TYPE, Type.BOOLEAN_TYPE }));
+      }
 
       mg.goTo(txTryEnd);
 
@@ -45,6 +45,19 @@ public interface ServiceTaskExecutor {
    */
   <T> T execute(Callable<T> callable, boolean transactional) throws Exception;
 
+  /**
+   * Executes a given {@link ThrowingRunnable} in a read-only transaction, which can be served from a read snapshot
+   * that is shared with other calls, as long as the snapshot is not older than the given staleness.
+   * By default, it runs the runnable in a new transaction.
+   *
+   * @param runnable the runnable to call
+   * @param maxStalenessMillis the maximum age in milliseconds of the read snapshot
+   * @throws Exception if there is exception, either caused by the runnable or by the transaction system.
+   */
+  default void executeWithReadSnapshot(ThrowingRunnable runnable, long maxStalenessMillis) throws Exception {
+    execute(runnable, true);
+  }
+
   /**
    * Release resources that are no longer needed after an endpoint has been executed.
    */
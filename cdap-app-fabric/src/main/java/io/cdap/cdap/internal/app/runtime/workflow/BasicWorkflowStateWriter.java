@@ -50,4 +50,14 @@ public class BasicWorkflowStateWriter implements WorkflowStateWriter {
       AppMetadataStore.create(context).addWorkflowNodeState(workflowRunId, nodeStateDetail);
     });
   }
+
+  @Override
+  public void setWorkflowState(ProgramRunId workflowRunId, WorkflowToken token,
+                               WorkflowNodeStateDetail nodeStateDetail) {
+    TransactionRunners.run(transactionRunner, context -> {
+      AppMetadataStore store = AppMetadataStore.create(context);
+      store.setWorkflowToken(workflowRunId, token);
+      store.addWorkflowNodeState(workflowRunId, nodeStateDetail);
+    });
+  }
 }
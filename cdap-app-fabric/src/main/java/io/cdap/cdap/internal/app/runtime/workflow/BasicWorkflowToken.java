@@ -53,6 +53,8 @@ public class BasicWorkflowToken implements WorkflowToken, Serializable {
   private String nodeName;
   private boolean putAllowed = true;
   private int bytesLeft;
+  // number of modifications to this token instance, used to avoid persisting an unmodified token
+  private transient long modificationCount;
 
   /**
    * Creates a {@link BasicWorkflowToken} with the specified maximum size.
@@ -277,6 +279,15 @@ public class BasicWorkflowToken implements WorkflowToken, Serializable {
     }
 
     this.mapReduceCounters = countersBuilder.build();
+    modificationCount++;
+  }
+
+  /**
+   * Returns the number of modifications made to this token instance. It is not carried over by copies or
+   * serialization.
+   */
+  synchronized long getModificationCount() {
+    return modificationCount;
   }
 
   /**
@@ -325,6 +336,7 @@ public class BasicWorkflowToken implements WorkflowToken, Serializable {
       nodeValues.add(nodeValue);
     }
     bytesLeft = left;
+    modificationCount++;
   }
 
   // Serialize the WorkflowToken content for passing it to the Spark executor.
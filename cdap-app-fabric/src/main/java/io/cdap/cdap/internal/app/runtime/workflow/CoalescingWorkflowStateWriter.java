@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.runtime.workflow;
+
+import com.google.common.collect.MapMaker;
+import io.cdap.cdap.api.workflow.WorkflowToken;
+import io.cdap.cdap.proto.WorkflowNodeStateDetail;
+import io.cdap.cdap.proto.id.ProgramRunId;
+
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link WorkflowStateWriter} that skips writing a {@link BasicWorkflowToken} which has not been modified since it
+ * was last written through this writer. A single instance is shared by all nodes and fork branches of a workflow run,
+ * so that actions and conditions which don't update the token don't cause a write of the full token.
+ */
+final class CoalescingWorkflowStateWriter implements WorkflowStateWriter {
+
+  private final WorkflowStateWriter delegate;
+  // modification count of each token when it was last written, tokens are compared by identity
+  private final ConcurrentMap<BasicWorkflowToken, Long> writtenModifications;
+
+  CoalescingWorkflowStateWriter(WorkflowStateWriter delegate) {
+    this.delegate = delegate;
+    this.writtenModifications = new MapMaker().weakKeys().makeMap();
+  }
+
+  @Override
+  public void setWorkflowToken(ProgramRunId workflowRunId, WorkflowToken token) {
+    Long modificationCount = getUnwrittenModificationCount(token);
+    if (modificationCount == null) {
+      return;
+    }
+    delegate.setWorkflowToken(workflowRunId, token);
+    setWritten(token, modificationCount);
+  }
+
+  @Override
+  public void addWorkflowNodeState(ProgramRunId workflowRunId, WorkflowNodeStateDetail nodeStateDetail) {
+    delegate.addWorkflowNodeState(workflowRunId, nodeStateDetail);
+  }
+
+  @Override
+  public void setWorkflowState(ProgramRunId workflowRunId, WorkflowToken token,
+                               WorkflowNodeStateDetail nodeStateDetail) {
+    Long modificationCount = getUnwrittenModificationCount(token);
+    if (modificationCount == null) {
+      delegate.addWorkflowNodeState(workflowRunId, nodeStateDetail);
+      return;
+    }
+    delegate.setWorkflowState(workflowRunId, token, nodeStateDetail);
+    setWritten(token, modificationCount);
+  }
+
+  /**
+   * Returns the current modification count of the given token if it needs to be written, or {@code null} if it was
+   * written already since its last modification. The count is taken before the write, so that a modification
+   * concurrent to the write gets written the next time.
+   */
+  @Nullable
+  private Long getUnwrittenModificationCount(WorkflowToken token) {
+    if (!(token instanceof BasicWorkflowToken)) {
+      return -1L;
+    }
+    long modificationCount = ((BasicWorkflowToken) token).getModificationCount();
+    Long written = writtenModifications.get(token);
+    return written != null && written == modificationCount ? null : modificationCount;
+  }
+
+  private void setWritten(WorkflowToken token, long modificationCount) {
+    if (token instanceof BasicWorkflowToken) {
+      writtenModifications.put((BasicWorkflowToken) token, modificationCount);
+    }
+  }
+}
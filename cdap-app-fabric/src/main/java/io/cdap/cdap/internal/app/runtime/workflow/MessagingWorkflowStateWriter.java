@@ -53,9 +53,7 @@ public class MessagingWorkflowStateWriter implements WorkflowStateWriter {
 
   @Override
   public void setWorkflowToken(ProgramRunId workflowRunId, WorkflowToken token) {
-    MetadataMessage message = new MetadataMessage(MetadataMessage.Type.WORKFLOW_TOKEN,
-                                                  workflowRunId, GSON.toJsonTree(token));
-    StoreRequest request = StoreRequestBuilder.of(topic).addPayload(GSON.toJson(message)).build();
+    StoreRequest request = StoreRequestBuilder.of(topic).addPayload(createTokenPayload(workflowRunId, token)).build();
     try {
       Retries.callWithRetries(() -> messagingService.publish(request), retryStrategy, Retries.ALWAYS_TRUE);
     } catch (Exception e) {
@@ -66,9 +64,7 @@ public class MessagingWorkflowStateWriter implements WorkflowStateWriter {
 
   @Override
   public void addWorkflowNodeState(ProgramRunId workflowRunId, WorkflowNodeStateDetail state) {
-    MetadataMessage message = new MetadataMessage(MetadataMessage.Type.WORKFLOW_STATE,
-                                                  workflowRunId, GSON.toJsonTree(state));
-    StoreRequest request = StoreRequestBuilder.of(topic).addPayload(GSON.toJson(message)).build();
+    StoreRequest request = StoreRequestBuilder.of(topic).addPayload(createStatePayload(workflowRunId, state)).build();
     try {
       Retries.callWithRetries(() -> messagingService.publish(request), retryStrategy, Retries.ALWAYS_TRUE);
     } catch (Exception e) {
@@ -76,4 +72,29 @@ public class MessagingWorkflowStateWriter implements WorkflowStateWriter {
                                    + "of node " + state.getNodeId() + " with state " + state.getNodeStatus(), e);
     }
   }
+
+  @Override
+  public void setWorkflowState(ProgramRunId workflowRunId, WorkflowToken token, WorkflowNodeStateDetail state) {
+    // publish both messages with one request, so that they are written and consumed together
+    StoreRequest request = StoreRequestBuilder.of(topic)
+      .addPayload(createTokenPayload(workflowRunId, token))
+      .addPayload(createStatePayload(workflowRunId, state))
+      .build();
+    try {
+      Retries.callWithRetries(() -> messagingService.publish(request), retryStrategy, Retries.ALWAYS_TRUE);
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to publish workflow token and node state for workflow run " + workflowRunId
+                                   + "of node " + state.getNodeId() + " with state " + state.getNodeStatus(), e);
+    }
+  }
+
+  private String createTokenPayload(ProgramRunId workflowRunId, WorkflowToken token) {
+    return GSON.toJson(new MetadataMessage(MetadataMessage.Type.WORKFLOW_TOKEN, workflowRunId,
+                                           GSON.toJsonTree(token)));
+  }
+
+  private String createStatePayload(ProgramRunId workflowRunId, WorkflowNodeStateDetail state) {
+    return GSON.toJson(new MetadataMessage(MetadataMessage.Type.WORKFLOW_STATE, workflowRunId,
+                                           GSON.toJsonTree(state)));
+  }
 }
@@ -170,7 +170,8 @@ final class WorkflowDriver extends AbstractExecutionThreadService {
     this.metricsCollectionService = metricsCollectionService;
     this.discoveryServiceClient = discoveryServiceClient;
     this.txClient = txClient;
-    this.workflowStateWriter = workflowStateWriter;
+    // shared by all nodes and fork branches of the run
+    this.workflowStateWriter = new CoalescingWorkflowStateWriter(workflowStateWriter);
     this.workflowProgramRunnerFactory = new ProgramWorkflowRunnerFactory(cConf, workflowSpec, programRunnerFactory,
                                                                          program, options, programStateWriter);
 
@@ -435,16 +436,15 @@ final class WorkflowDriver extends AbstractExecutionThreadService {
       throw t;
     } finally {
       status.remove(node.getNodeId());
-      workflowStateWriter.setWorkflowToken(workflowRunId, token);
       NodeStatus status = failureCause == null ? NodeStatus.COMPLETED : NodeStatus.FAILED;
       if (failureCause == null) {
         writeFieldLineage(context.getFieldLineageOperations());
       }
       nodeStates.put(node.getNodeId(), new WorkflowNodeState(node.getNodeId(), status, null, failureCause));
       BasicThrowable defaultThrowable = failureCause == null ? null : new BasicThrowable(failureCause);
-      workflowStateWriter.addWorkflowNodeState(workflowRunId,
-                                               new WorkflowNodeStateDetail(node.getNodeId(), status, null,
-                                                                           defaultThrowable));
+      workflowStateWriter.setWorkflowState(workflowRunId, token,
+                                           new WorkflowNodeStateDetail(node.getNodeId(), status, null,
+                                                                       defaultThrowable));
     }
   }
 
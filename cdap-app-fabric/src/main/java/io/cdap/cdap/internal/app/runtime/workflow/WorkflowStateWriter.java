@@ -42,4 +42,18 @@ public interface WorkflowStateWriter {
    * @param nodeStateDetail the node state to be added for the Workflow run
    */
   void addWorkflowNodeState(ProgramRunId workflowRunId, WorkflowNodeStateDetail nodeStateDetail);
+
+  /**
+   * Sets the {@link WorkflowToken} and adds a node state for the given {@link Workflow} run. This method is used to
+   * persist the state of a completed node at once, implementations should write both in a single operation.
+   *
+   * @param workflowRunId the Workflow run
+   * @param token the {@link WorkflowToken} to set to
+   * @param nodeStateDetail the node state to be added for the Workflow run
+   */
+  default void setWorkflowState(ProgramRunId workflowRunId, WorkflowToken token,
+                                WorkflowNodeStateDetail nodeStateDetail) {
+    setWorkflowToken(workflowRunId, token);
+    addWorkflowNodeState(workflowRunId, nodeStateDetail);
+  }
 }
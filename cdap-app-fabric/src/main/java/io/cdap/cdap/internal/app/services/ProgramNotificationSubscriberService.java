@@ -74,11 +74,13 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 
@@ -148,14 +150,24 @@ public class ProgramNotificationSubscriberService extends AbstractNotificationSu
   protected void processMessages(StructuredTableContext structuredTableContext,
                                  Iterator<ImmutablePair<String, Notification>> messages) throws Exception {
     ProgramHeartbeatTable heartbeatDataset = new ProgramHeartbeatTable(structuredTableContext);
+    AppMetadataStore appMetadataStore = getAppMetadataStore(structuredTableContext);
+
+    List<ImmutablePair<String, Notification>> notifications = new ArrayList<>();
+    messages.forEachRemaining(notifications::add);
+
+    // Read the run records of all program runs in this batch at once. State transitions are applied to the
+    // cached run records, so that each run record is only written once, no matter how many notifications
+    // there are for the same program run in this batch.
+    appMetadataStore.beginRunRecordBatch(getProgramRunIds(notifications));
+
     List<Runnable> tasks = new LinkedList<>();
-    while (messages.hasNext()) {
-      ImmutablePair<String, Notification> messagePair = messages.next();
-      List<Runnable> runnables = processNotification(heartbeatDataset,
+    for (ImmutablePair<String, Notification> messagePair : notifications) {
+      List<Runnable> runnables = processNotification(heartbeatDataset, appMetadataStore,
                                                      messagePair.getFirst().getBytes(StandardCharsets.UTF_8),
                                                      messagePair.getSecond(), structuredTableContext);
       tasks.addAll(runnables);
     }
+    appMetadataStore.flushRunRecordBatch();
 
     // Only add post processing tasks if all messages are processed. If there is exception in the processNotifiation,
     // messages will be replayed.
@@ -171,10 +183,25 @@ public class ProgramNotificationSubscriberService extends AbstractNotificationSu
     }
   }
 
+  /**
+   * Returns the program runs that the given notifications are about.
+   */
+  private Set<ProgramRunId> getProgramRunIds(List<ImmutablePair<String, Notification>> notifications) {
+    Set<ProgramRunId> programRunIds = new LinkedHashSet<>();
+    for (ImmutablePair<String, Notification> messagePair : notifications) {
+      String programRun = messagePair.getSecond().getProperties().get(ProgramOptionConstants.PROGRAM_RUN_ID);
+      if (programRun != null) {
+        programRunIds.add(GSON.fromJson(programRun, ProgramRunId.class));
+      }
+    }
+    return programRunIds;
+  }
+
   /**
    * Process a {@link Notification} received from TMS.
    *
    * @param programHeartbeatTable the {@link ProgramHeartbeatTable} for writing heart beats and program status
+   * @param appMetadataStore the {@link AppMetadataStore} for reading and writing run records
    * @param messageIdBytes the raw message id in the TMS for the notification
    * @param notification the {@link Notification} to process
    * @param context context to get the table for operations
@@ -183,9 +210,9 @@ public class ProgramNotificationSubscriberService extends AbstractNotificationSu
    * @throws Exception if failed to process the given notification
    */
   private List<Runnable> processNotification(ProgramHeartbeatTable programHeartbeatTable,
+                                             AppMetadataStore appMetadataStore,
                                              byte[] messageIdBytes, Notification notification,
                                              StructuredTableContext context) throws Exception {
-    AppMetadataStore appMetadataStore = AppMetadataStore.create(context);
     Map<String, String> properties = notification.getProperties();
     // Required parameters
     String programRun = properties.get(ProgramOptionConstants.PROGRAM_RUN_ID);
@@ -0,0 +1,332 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.services;
+
+import io.cdap.cdap.api.annotation.ReadSnapshot;
+import io.cdap.cdap.api.metrics.MetricsContext;
+import io.cdap.cdap.internal.app.runtime.ThrowingRunnable;
+import org.apache.tephra.InvalidTruncateTimeException;
+import org.apache.tephra.Transaction;
+import org.apache.tephra.TransactionCouldNotTakeSnapshotException;
+import org.apache.tephra.TransactionFailureException;
+import org.apache.tephra.TransactionNotInProgressException;
+import org.apache.tephra.TransactionSystemClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link TransactionSystemClient} that serves the calls to service handler methods annotated with
+ * {@link ReadSnapshot} from a read snapshot that is shared by all such calls, instead of starting and committing
+ * a new short transaction for every call.
+ *
+ * The read snapshot is a short transaction that is kept in progress for as long as calls are using it, so that
+ * the data visible to it is not pruned. A new snapshot is started once the current one is older than the maximum
+ * staleness requested by a call, or older than half of the transaction timeout. A retired snapshot is aborted once
+ * the last call using it completes. Inside of {@link #execute(ThrowingRunnable, long, MetricsContext)}, every short
+ * transaction started by the calling thread is the current snapshot, whose commit and abort are no-ops. Committing
+ * a snapshot with changes fails, since the snapshot is read-only.
+ */
+final class ReadSnapshotTransactionSystemClient implements TransactionSystemClient, Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ReadSnapshotTransactionSystemClient.class);
+
+  static final String METRIC_SNAPSHOT_AGE = "read.snapshot.age.ms";
+  static final String METRIC_SNAPSHOT_REUSE = "read.snapshot.reuse";
+  static final String METRIC_SNAPSHOT_REFRESH = "read.snapshot.refresh";
+
+  private final TransactionSystemClient delegate;
+  private final int txTimeout;
+  private final long maxSnapshotAgeMillis;
+  private final ThreadLocal<Snapshot> currentSnapshot;
+
+  // Guarded by this
+  private Snapshot snapshot;
+  private boolean closed;
+
+  /**
+   * Creates an instance.
+   *
+   * @param delegate the {@link TransactionSystemClient} for all operations that are not served by the read snapshot
+   * @param txTimeout the timeout in seconds of the transactions started for the read snapshots
+   */
+  ReadSnapshotTransactionSystemClient(TransactionSystemClient delegate, int txTimeout) {
+    this.delegate = delegate;
+    this.txTimeout = txTimeout;
+    this.maxSnapshotAgeMillis = TimeUnit.SECONDS.toMillis(txTimeout) / 2;
+    this.currentSnapshot = new ThreadLocal<>();
+  }
+
+  /**
+   * Executes the given {@link ThrowingRunnable} with all short transactions started by the current thread served
+   * from a read snapshot that is at most the given age.
+   *
+   * @param runnable the runnable to execute
+   * @param maxStalenessMillis the maximum age of the read snapshot in milliseconds
+   * @param metricsContext the {@link MetricsContext} for emitting metrics about the read snapshot usage
+   * @throws Exception if the runnable failed
+   */
+  void execute(ThrowingRunnable runnable, long maxStalenessMillis, MetricsContext metricsContext) throws Exception {
+    if (currentSnapshot.get() != null) {
+      // Already inside of a read snapshot
+      runnable.run();
+      return;
+    }
+
+    Snapshot snapshot = acquire(maxStalenessMillis, metricsContext);
+    currentSnapshot.set(snapshot);
+    try {
+      runnable.run();
+    } finally {
+      currentSnapshot.remove();
+      release(snapshot);
+    }
+  }
+
+  /**
+   * Retires the current read snapshot. Calls to {@link #execute(ThrowingRunnable, long, MetricsContext)} after
+   * this method is called start a new transaction for every call.
+   */
+  @Override
+  public void close() {
+    Snapshot retired;
+    synchronized (this) {
+      closed = true;
+      retired = retire();
+    }
+    abortIfReleased(retired);
+  }
+
+  @Override
+  public Transaction startShort() {
+    Snapshot snapshot = currentSnapshot.get();
+    return snapshot == null ? delegate.startShort() : snapshot.tx;
+  }
+
+  @Override
+  public Transaction startShort(int timeout) {
+    Snapshot snapshot = currentSnapshot.get();
+    return snapshot == null ? delegate.startShort(timeout) : snapshot.tx;
+  }
+
+  @Override
+  public Transaction startLong() {
+    return delegate.startLong();
+  }
+
+  @Override
+  @SuppressWarnings("deprecation")
+  public boolean canCommit(Transaction tx, Collection<byte[]> changeIds) throws TransactionNotInProgressException {
+    if (isSnapshot(tx)) {
+      return changeIds.isEmpty();
+    }
+    return delegate.canCommit(tx, changeIds);
+  }
+
+  @Override
+  public void canCommitOrThrow(Transaction tx, Collection<byte[]> changeIds) throws TransactionFailureException {
+    if (!isSnapshot(tx)) {
+      delegate.canCommitOrThrow(tx, changeIds);
+    } else if (!changeIds.isEmpty()) {
+      throw new TransactionFailureException(String.format(
+        "Transaction %d is a read-only snapshot. Writes to transactional datasets are not allowed in methods "
+          + "annotated with @%s.", tx.getTransactionId(), ReadSnapshot.class.getSimpleName()));
+    }
+  }
+
+  @Override
+  @SuppressWarnings("deprecation")
+  public boolean commit(Transaction tx) throws TransactionNotInProgressException {
+    return isSnapshot(tx) || delegate.commit(tx);
+  }
+
+  @Override
+  public void commitOrThrow(Transaction tx) throws TransactionFailureException {
+    if (!isSnapshot(tx)) {
+      delegate.commitOrThrow(tx);
+    }
+  }
+
+  @Override
+  public void abort(Transaction tx) {
+    if (!isSnapshot(tx)) {
+      delegate.abort(tx);
+    }
+  }
+
+  @Override
+  public boolean invalidate(long tx) {
+    Snapshot snapshot = currentSnapshot.get();
+    if (snapshot != null && snapshot.tx.getTransactionId() == tx) {
+      // The snapshot has no changes, hence there is nothing to invalidate
+      return true;
+    }
+    return delegate.invalidate(tx);
+  }
+
+  @Override
+  public Transaction checkpoint(Transaction tx) throws TransactionNotInProgressException {
+    if (isSnapshot(tx)) {
+      throw new UnsupportedOperationException("Checkpoint is not supported for read-only snapshot transaction "
+                                                + tx.getTransactionId());
+    }
+    return delegate.checkpoint(tx);
+  }
+
+  @Override
+  public InputStream getSnapshotInputStream() throws TransactionCouldNotTakeSnapshotException {
+    return delegate.getSnapshotInputStream();
+  }
+
+  @Override
+  public String status() {
+    return delegate.status();
+  }
+
+  @Override
+  public void resetState() {
+    delegate.resetState();
+  }
+
+  @Override
+  public boolean truncateInvalidTx(Set<Long> invalidTxIds) {
+    return delegate.truncateInvalidTx(invalidTxIds);
+  }
+
+  @Override
+  public boolean truncateInvalidTxBefore(long time) throws InvalidTruncateTimeException {
+    return delegate.truncateInvalidTxBefore(time);
+  }
+
+  @Override
+  public int getInvalidSize() {
+    return delegate.getInvalidSize();
+  }
+
+  @Override
+  public void pruneNow() {
+    delegate.pruneNow();
+  }
+
+  /**
+   * Returns {@code true} if the given transaction is the read snapshot used by the current thread.
+   */
+  private boolean isSnapshot(Transaction tx) {
+    Snapshot snapshot = currentSnapshot.get();
+    return snapshot != null && snapshot.tx.getTransactionId() == tx.getTransactionId();
+  }
+
+  /**
+   * Acquires a read snapshot that is at most the given age, starting a new one if needed.
+   */
+  private Snapshot acquire(long maxStalenessMillis, MetricsContext metricsContext) {
+    long maxAge = Math.min(maxStalenessMillis, maxSnapshotAgeMillis);
+    Snapshot acquired;
+    Snapshot retired = null;
+    boolean reused;
+
+    synchronized (this) {
+      long now = System.currentTimeMillis();
+      reused = snapshot != null && now - snapshot.createTime <= maxAge;
+      if (!reused) {
+        retired = retire();
+        // Don't keep the snapshot if closed, so that it gets aborted on release
+        snapshot = new Snapshot(delegate.startShort(txTimeout), now, closed);
+      }
+      acquired = snapshot;
+      acquired.refCount++;
+      if (closed) {
+        snapshot = null;
+      }
+    }
+    abortIfReleased(retired);
+
+    metricsContext.increment(reused ? METRIC_SNAPSHOT_REUSE : METRIC_SNAPSHOT_REFRESH, 1L);
+    metricsContext.gauge(METRIC_SNAPSHOT_AGE, System.currentTimeMillis() - acquired.createTime);
+    return acquired;
+  }
+
+  /**
+   * Releases a read snapshot acquired by {@link #acquire(long, MetricsContext)}.
+   */
+  private void release(Snapshot snapshot) {
+    synchronized (this) {
+      snapshot.refCount--;
+    }
+    abortIfReleased(snapshot);
+  }
+
+  /**
+   * Retires the current snapshot so that it won't be used by new calls.
+   *
+   * @return the retired snapshot or {@code null} if there was no current snapshot
+   */
+  @Nullable
+  private synchronized Snapshot retire() {
+    Snapshot retired = snapshot;
+    if (retired != null) {
+      retired.retired = true;
+      snapshot = null;
+    }
+    return retired;
+  }
+
+  /**
+   * Aborts the transaction of the given snapshot if it is retired and no longer used by any call.
+   */
+  private void abortIfReleased(@Nullable Snapshot snapshot) {
+    if (snapshot == null) {
+      return;
+    }
+    synchronized (this) {
+      if (!snapshot.retired || snapshot.refCount > 0 || snapshot.aborted) {
+        return;
+      }
+      snapshot.aborted = true;
+    }
+    try {
+      delegate.abort(snapshot.tx);
+    } catch (Exception e) {
+      // The transaction has no changes, hence it is safe to let it time out
+      LOG.warn("Failed to abort read snapshot transaction {}. It will be invalidated on timeout.",
+               snapshot.tx.getTransactionId(), e);
+    }
+  }
+
+  /**
+   * A read snapshot and its usage. All mutable fields are guarded by the enclosing client instance.
+   */
+  private static final class Snapshot {
+    private final Transaction tx;
+    private final long createTime;
+    private boolean retired;
+    private boolean aborted;
+    private int refCount;
+
+    private Snapshot(Transaction tx, long createTime, boolean retired) {
+      this.tx = tx;
+      this.createTime = createTime;
+      this.retired = retired;
+    }
+  }
+}
@@ -55,6 +55,7 @@ import io.cdap.cdap.proto.ProgramType;
 import io.cdap.cdap.spi.data.transaction.TransactionRunner;
 import io.cdap.http.NettyHttpService;
 import org.apache.tephra.TransactionSystemClient;
+import org.apache.tephra.TxConstants;
 import org.apache.twill.api.ServiceAnnouncer;
 import org.apache.twill.discovery.DiscoveryServiceClient;
 
@@ -75,6 +76,7 @@ public class ServiceHttpServer extends AbstractServiceHttpServer<HttpServiceHand
   private final AtomicInteger instanceCount;
   private final BasicHttpServiceContextFactory contextFactory;
   private final NamespaceQueryAdmin namespaceQueryAdmin;
+  private final ReadSnapshotTransactionSystemClient readSnapshotTxClient;
 
   public ServiceHttpServer(String host, Program program, ProgramOptions programOptions,
                            CConfiguration cConf, ServiceSpecification spec,
@@ -92,11 +94,13 @@ public class ServiceHttpServer extends AbstractServiceHttpServer<HttpServiceHand
     this.cConf = cConf;
     this.serviceSpecification = spec;
     this.instanceCount = new AtomicInteger(instanceCount);
+    this.readSnapshotTxClient = new ReadSnapshotTransactionSystemClient(
+      txClient, cConf.getInt(TxConstants.Manager.CFG_TX_TIMEOUT));
     this.contextFactory = createContextFactory(program, programOptions, instanceId, this.instanceCount,
                                                metricsCollectionService, datasetFramework, discoveryServiceClient,
-                                               txClient, pluginInstantiator, secureStore, secureStoreManager,
-                                               messagingService, artifactManager, metadataReader, metadataPublisher,
-                                               pluginFinder, transactionRunner);
+                                               readSnapshotTxClient, pluginInstantiator, secureStore,
+                                               secureStoreManager, messagingService, artifactManager, metadataReader,
+                                               metadataPublisher, pluginFinder, transactionRunner);
     this.context = contextFactory.create(null);
     this.namespaceQueryAdmin = namespaceQueryAdmin;
   }
@@ -121,6 +125,15 @@ public class ServiceHttpServer extends AbstractServiceHttpServer<HttpServiceHand
 
   }
 
+  @Override
+  protected void shutDown() throws Exception {
+    try {
+      super.shutDown();
+    } finally {
+      readSnapshotTxClient.close();
+    }
+  }
+
   @Override
   protected String getRoutingPathName() {
     return ProgramType.SERVICE.getCategoryName();
@@ -221,6 +234,11 @@ public class ServiceHttpServer extends AbstractServiceHttpServer<HttpServiceHand
           return context.execute(callable);
         }
 
+        @Override
+        public void executeWithReadSnapshot(ThrowingRunnable runnable, long maxStalenessMillis) throws Exception {
+          readSnapshotTxClient.execute(() -> execute(runnable, true), maxStalenessMillis, getHandlerMetricsContext());
+        }
+
         @Override
         public void releaseCallResources() {
           context.releaseCallResources();
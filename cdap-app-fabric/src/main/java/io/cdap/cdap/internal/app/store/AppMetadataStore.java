@@ -141,6 +141,10 @@ public class AppMetadataStore {
   private StructuredTable programCountsTable;
   private StructuredTable subscriberStateTable;
 
+  // Run records read or updated while run record updates are batched, keyed by program run.
+  // It is null if updates are not batched. See #beginRunRecordBatch.
+  private Map<ProgramRunId, BatchedRunRecord> batchedRunRecords;
+
   /**
    * Static method for creating an instance of {@link AppMetadataStore}.
    */
@@ -400,18 +404,13 @@ public class AppMetadataStore {
                                           StoreDefinition.AppMetadataStore.NODE_STATE_DATA);
 
     // Get the run record of the Workflow which started this program
-    List<Field<?>> runRecordFields = getProgramRunInvertedTimeKey(TYPE_RUN_RECORD_ACTIVE, workflowRunId,
-                                                                  RunIds.getTime(workflowRun, TimeUnit.SECONDS));
-
-    Optional<StructuredRow> row = getRunRecordsTable().read(runRecordFields);
-    if (row.isPresent()) {
-      RunRecordMeta record = deserializeRunRecordMeta(row.get());
+    RunRecordMeta record = getActiveRun(workflowRunId);
+    if (record != null) {
       // Update the parent Workflow run record by adding node id and program run id in the properties
       Map<String, String> properties = new HashMap<>(record.getProperties());
       properties.put(workflowNodeId, programRunId.getRun());
-      writeToStructuredTableWithPrimaryKeys(
-        runRecordFields, RunRecordMeta.builder(record).setProperties(properties).setSourceId(sourceId).build(),
-        getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+      writeRunRecord(record, TYPE_RUN_RECORD_ACTIVE,
+                     RunRecordMeta.builder(record).setProperties(properties).setSourceId(sourceId).build());
     }
   }
 
@@ -517,14 +516,12 @@ public class AppMetadataStore {
       return null;
     }
 
-    List<Field<?>> key = getProgramRunInvertedTimeKey(TYPE_RUN_RECORD_ACTIVE, programRunId, existing.getStartTs());
     ProgramRunCluster cluster = new ProgramRunCluster(ProgramRunClusterStatus.PROVISIONED, null, numNodes);
     RunRecordMeta meta = RunRecordMeta.builder(existing)
       .setCluster(cluster)
       .setSourceId(sourceId)
       .build();
-    writeToStructuredTableWithPrimaryKeys(
-      key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(existing, TYPE_RUN_RECORD_ACTIVE, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunClusterStatus.PROVISIONED, programRunId);
     return meta;
   }
@@ -553,18 +550,13 @@ public class AppMetadataStore {
       return null;
     }
 
-    delete(existing);
-
-    List<Field<?>> key = getProgramRunInvertedTimeKey(TYPE_RUN_RECORD_COMPLETED, programRunId, existing.getStartTs());
-
     ProgramRunCluster cluster = new ProgramRunCluster(ProgramRunClusterStatus.DEPROVISIONING, null,
                                                       existing.getCluster().getNumNodes());
     RunRecordMeta meta = RunRecordMeta.builder(existing)
       .setCluster(cluster)
       .setSourceId(sourceId)
       .build();
-    writeToStructuredTableWithPrimaryKeys(
-      key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(existing, TYPE_RUN_RECORD_COMPLETED, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunClusterStatus.DEPROVISIONING, programRunId);
     return meta;
   }
@@ -595,17 +587,13 @@ public class AppMetadataStore {
       return null;
     }
 
-    delete(existing);
-    List<Field<?>> key = getProgramRunInvertedTimeKey(TYPE_RUN_RECORD_COMPLETED, programRunId, existing.getStartTs());
-
     ProgramRunCluster cluster = new ProgramRunCluster(ProgramRunClusterStatus.DEPROVISIONED, endTs,
                                                       existing.getCluster().getNumNodes());
     RunRecordMeta meta = RunRecordMeta.builder(existing)
       .setCluster(cluster)
       .setSourceId(sourceId)
       .build();
-    writeToStructuredTableWithPrimaryKeys(
-      key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(existing, TYPE_RUN_RECORD_COMPLETED, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunClusterStatus.DEPROVISIONED, programRunId);
     return meta;
   }
@@ -635,17 +623,13 @@ public class AppMetadataStore {
       return null;
     }
 
-    delete(existing);
-    List<Field<?>> key = getProgramRunInvertedTimeKey(TYPE_RUN_RECORD_COMPLETED, programRunId, existing.getStartTs());
-
     ProgramRunCluster cluster = new ProgramRunCluster(ProgramRunClusterStatus.ORPHANED, endTs,
                                                       existing.getCluster().getNumNodes());
     RunRecordMeta meta = RunRecordMeta.builder(existing)
       .setCluster(cluster)
       .setSourceId(sourceId)
       .build();
-    writeToStructuredTableWithPrimaryKeys(
-      key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(existing, TYPE_RUN_RECORD_COMPLETED, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunClusterStatus.ORPHANED, programRunId);
     return meta;
   }
@@ -694,10 +678,7 @@ public class AppMetadataStore {
    * Writes a new {@link RunRecordMeta} and increments the run count of a program.
    */
   private void writeNewRunRecord(RunRecordMeta meta, String typeRunRecordCompleted) throws IOException {
-    List<Field<?>> fields = getProgramRunInvertedTimeKey(typeRunRecordCompleted,
-                                                         meta.getProgramRunId(), meta.getStartTs());
-    writeToStructuredTableWithPrimaryKeys(fields, meta, getRunRecordsTable(),
-                                          StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(null, typeRunRecordCompleted, meta);
     List<Field<?>> countKey = getProgramCountPrimaryKeys(TYPE_COUNT, meta.getProgramRunId().getParent());
     getProgramCountsTable().increment(countKey, StoreDefinition.AppMetadataStore.COUNTS, 1L);
   }
@@ -733,16 +714,12 @@ public class AppMetadataStore {
       return null;
     }
 
-    // Delete the old run record
-    delete(existing);
-    List<Field<?>> key = getProgramRunInvertedTimeKey(TYPE_RUN_RECORD_ACTIVE, programRunId, existing.getStartTs());
     meta = RunRecordMeta.builder(existing)
       .setStatus(ProgramRunStatus.STARTING)
       .setTwillRunId(twillRunId)
       .setSourceId(sourceId)
       .build();
-    writeToStructuredTableWithPrimaryKeys(
-      key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(existing, TYPE_RUN_RECORD_ACTIVE, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunStatus.STARTING, programRunId);
     return meta;
   }
@@ -777,10 +754,6 @@ public class AppMetadataStore {
       addWorkflowNodeState(programRunId, systemArgs, ProgramRunStatus.RUNNING, null, sourceId);
     }
 
-    // Delete the old run record
-    delete(existing);
-    List<Field<?>> key = getProgramRunInvertedTimeKey(TYPE_RUN_RECORD_ACTIVE, programRunId, existing.getStartTs());
-
     // The existing record's properties already contains the workflowRunId
     RunRecordMeta meta = RunRecordMeta.builder(existing)
       .setRunTime(stateChangeTime)
@@ -788,8 +761,7 @@ public class AppMetadataStore {
       .setTwillRunId(twillRunId)
       .setSourceId(sourceId)
       .build();
-    writeToStructuredTableWithPrimaryKeys(
-      key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(existing, TYPE_RUN_RECORD_ACTIVE, meta);
     LOG.trace("Recorded {} for program {}", ProgramRunStatus.RUNNING, programRunId);
     return meta;
   }
@@ -852,9 +824,6 @@ public class AppMetadataStore {
     if (action.equals("resume")) {
       toStatus = ProgramRunStatus.RUNNING;
     }
-    // Delete the old run record
-    delete(existing);
-    List<Field<?>> key = getProgramRunInvertedTimeKey(TYPE_RUN_RECORD_ACTIVE, programRunId, existing.getStartTs());
     RunRecordMeta.Builder builder = RunRecordMeta.builder(existing).setStatus(toStatus).setSourceId(sourceId);
     if (timestamp != -1) {
       if (action.equals("resume")) {
@@ -864,8 +833,7 @@ public class AppMetadataStore {
       }
     }
     RunRecordMeta meta = builder.build();
-    writeToStructuredTableWithPrimaryKeys(
-      key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(existing, TYPE_RUN_RECORD_ACTIVE, meta);
     LOG.trace("Recorded {} for program {}", toStatus, programRunId);
     return meta;
   }
@@ -896,23 +864,18 @@ public class AppMetadataStore {
       // Skip recording stop if the existing records are not valid
       return null;
     }
-    // Delete the old run record
-    delete(existing);
-
     // Record in the workflow
     Map<String, String> systemArgs = existing.getSystemArgs();
     if (systemArgs != null && systemArgs.containsKey(ProgramOptionConstants.WORKFLOW_NAME)) {
       addWorkflowNodeState(programRunId, systemArgs, runStatus, failureCause, sourceId);
     }
 
-    List<Field<?>> key = getProgramRunInvertedTimeKey(TYPE_RUN_RECORD_COMPLETED, programRunId, existing.getStartTs());
     RunRecordMeta meta = RunRecordMeta.builder(existing)
       .setStopTime(stopTs)
       .setStatus(runStatus)
       .setSourceId(sourceId)
       .build();
-    writeToStructuredTableWithPrimaryKeys(
-      key, meta, getRunRecordsTable(), StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    writeRunRecord(existing, TYPE_RUN_RECORD_COMPLETED, meta);
     LOG.trace("Recorded {} for program {}", runStatus, programRunId);
     return meta;
   }
@@ -1160,14 +1123,138 @@ public class AppMetadataStore {
   // JIRA https://issues.cask.co/browse/CDAP-2172
   @Nullable
   public RunRecordMeta getRun(ProgramRunId programRun) throws IOException {
+    BatchedRunRecord batched = batchedRunRecords == null ? null : batchedRunRecords.get(programRun);
+    if (batched != null) {
+      return batched.meta;
+    }
     // Query active run record first
     RunRecordMeta running = getUnfinishedRuns(Collections.singleton(programRun)).get(programRun);
     // If program is running, this will be non-null
     if (running != null) {
+      addToBatch(programRun, TYPE_RUN_RECORD_ACTIVE, running);
       return running;
     }
     // If program is not running, query completed run records
-    return getCompletedRuns(Collections.singleton(programRun)).get(programRun);
+    RunRecordMeta completed = getCompletedRuns(Collections.singleton(programRun)).get(programRun);
+    addToBatch(programRun, completed == null ? null : TYPE_RUN_RECORD_COMPLETED, completed);
+    return completed;
+  }
+
+  /**
+   * Returns the active run record of the given program run, or {@code null} if the program run is not active.
+   */
+  @Nullable
+  private RunRecordMeta getActiveRun(ProgramRunId programRun) throws IOException {
+    BatchedRunRecord batched = batchedRunRecords == null ? null : batchedRunRecords.get(programRun);
+    if (batched != null) {
+      return TYPE_RUN_RECORD_ACTIVE.equals(batched.recordType) ? batched.meta : null;
+    }
+    RunRecordMeta running = getUnfinishedRuns(Collections.singleton(programRun)).get(programRun);
+    // Only cache if the record exists, since a missing active record doesn't mean there is no completed one
+    if (running != null) {
+      addToBatch(programRun, TYPE_RUN_RECORD_ACTIVE, running);
+    }
+    return running;
+  }
+
+  /**
+   * Starts batching of run record updates. Until {@link #flushRunRecordBatch()} is called, all run records read
+   * through {@link #getRun(ProgramRunId)} are cached, and all run record state transitions are applied to the cached
+   * records only. This way a sequence of state transitions is applied with a single read and a single write of each
+   * run record, no matter how many transitions there are for the same program run. The run records of the given
+   * program runs are read upfront with batched reads.
+   *
+   * While updates are batched, only {@link #getRun(ProgramRunId)} reflects the updated run records. Other methods
+   * that read run records will not see them until {@link #flushRunRecordBatch()} is called.
+   *
+   * @param programRunIds the program runs whose run records will likely be updated in this batch
+   * @throws IOException if failed to read the run records
+   */
+  public void beginRunRecordBatch(Collection<ProgramRunId> programRunIds) throws IOException {
+    Preconditions.checkState(batchedRunRecords == null, "Run record updates are already batched");
+    batchedRunRecords = new LinkedHashMap<>();
+
+    Set<ProgramRunId> runIds = new LinkedHashSet<>(programRunIds);
+    Map<ProgramRunId, RunRecordMeta> unfinishedRuns = getUnfinishedRuns(runIds);
+    Map<ProgramRunId, RunRecordMeta> completedRuns = getCompletedRuns(Sets.difference(runIds,
+                                                                                      unfinishedRuns.keySet()));
+    for (ProgramRunId programRunId : runIds) {
+      RunRecordMeta running = unfinishedRuns.get(programRunId);
+      if (running != null) {
+        addToBatch(programRunId, TYPE_RUN_RECORD_ACTIVE, running);
+      } else {
+        RunRecordMeta completed = completedRuns.get(programRunId);
+        addToBatch(programRunId, completed == null ? null : TYPE_RUN_RECORD_COMPLETED, completed);
+      }
+    }
+  }
+
+  /**
+   * Writes all run records updated since {@link #beginRunRecordBatch(Collection)} was called and stops batching
+   * of run record updates. Each updated run record is written once, and its previous version is deleted if it was
+   * stored under a different key.
+   *
+   * @throws IOException if failed to write the run records
+   */
+  public void flushRunRecordBatch() throws IOException {
+    Preconditions.checkState(batchedRunRecords != null, "Run record updates are not batched");
+    Map<ProgramRunId, BatchedRunRecord> batched = batchedRunRecords;
+    batchedRunRecords = null;
+
+    for (Map.Entry<ProgramRunId, BatchedRunRecord> entry : batched.entrySet()) {
+      BatchedRunRecord record = entry.getValue();
+      if (!record.dirty) {
+        continue;
+      }
+      if (record.storedType != null && !record.storedType.equals(record.recordType)) {
+        getRunRecordsTable().delete(getProgramRunInvertedTimeKey(record.storedType, entry.getKey(),
+                                                                 record.meta.getStartTs()));
+      }
+      List<Field<?>> key = getProgramRunInvertedTimeKey(record.recordType, entry.getKey(), record.meta.getStartTs());
+      writeToStructuredTableWithPrimaryKeys(key, record.meta, getRunRecordsTable(),
+                                            StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
+    }
+  }
+
+  /**
+   * Adds a run record as read from the table to the batch, if run record updates are batched.
+   */
+  private void addToBatch(ProgramRunId programRunId, @Nullable String recordType, @Nullable RunRecordMeta meta) {
+    if (batchedRunRecords != null) {
+      batchedRunRecords.put(programRunId, new BatchedRunRecord(recordType, meta));
+    }
+  }
+
+  /**
+   * Writes a new version of a run record under the key for the given record type. If run record updates are
+   * batched, the write is deferred until {@link #flushRunRecordBatch()} is called.
+   *
+   * @param existing the existing version of the run record, or {@code null} if it is a new run record
+   * @param recordType the type of the run record, which determines the key it is written to
+   * @param meta the new version of the run record
+   */
+  private void writeRunRecord(@Nullable RunRecordMeta existing, String recordType,
+                              RunRecordMeta meta) throws IOException {
+    ProgramRunId programRunId = meta.getProgramRunId();
+    if (batchedRunRecords != null) {
+      BatchedRunRecord batched = batchedRunRecords.get(programRunId);
+      if (batched == null) {
+        // A new run record, or one that was not read through getRun. In the latter case, the existing record
+        // is stored at the key for its status.
+        batched = new BatchedRunRecord(existing == null ? null : STATUS_TYPE_MAP.get(existing.getStatus()), existing);
+        batchedRunRecords.put(programRunId, batched);
+      }
+      batched.update(recordType, meta);
+      return;
+    }
+
+    // Delete the old run record if it is stored under a different key
+    if (existing != null && !recordType.equals(STATUS_TYPE_MAP.get(existing.getStatus()))) {
+      delete(existing);
+    }
+    List<Field<?>> key = getProgramRunInvertedTimeKey(recordType, programRunId, meta.getStartTs());
+    writeToStructuredTableWithPrimaryKeys(key, meta, getRunRecordsTable(),
+                                          StoreDefinition.AppMetadataStore.RUN_RECORD_DATA);
   }
 
   private void delete(RunRecordMeta record) throws IOException {
@@ -1771,4 +1858,31 @@ public class AppMetadataStore {
       return time != null && time >= lowerBound && time <= upperBound;
     };
   }
+
+  /**
+   * A run record that was read or updated while run record updates are batched.
+   */
+  private static final class BatchedRunRecord {
+    // The type of the key the run record is stored under in the table, or null if it is not stored
+    @Nullable
+    private final String storedType;
+    // The type of the key the run record will be written to
+    @Nullable
+    private String recordType;
+    @Nullable
+    private RunRecordMeta meta;
+    private boolean dirty;
+
+    BatchedRunRecord(@Nullable String storedType, @Nullable RunRecordMeta meta) {
+      this.storedType = storedType;
+      this.recordType = storedType;
+      this.meta = meta;
+    }
+
+    void update(String recordType, RunRecordMeta meta) {
+      this.recordType = recordType;
+      this.meta = meta;
+      this.dirty = true;
+    }
+  }
 }
@@ -0,0 +1,166 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.internal.provision;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.cdap.cdap.api.metrics.MetricsContext;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.runtime.spi.provisioner.Provisioner;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Policy of the cluster pool, which keeps the clusters of finished program runs idle for some time so that they can
+ * be handed to later program runs, instead of deleting every cluster and creating a new one for every run.
+ *
+ * Clusters are pooled by the provisioner, the namespace and user of the program run, and the profile properties,
+ * so that a cluster is only reused by program runs that would have created an identical cluster. The state of the
+ * pool is stored in the {@link ClusterPoolTable}. All methods that take a {@link ClusterPoolTable} must be called
+ * within the same transaction as the table was created in.
+ */
+final class ClusterPool {
+
+  static final String METRIC_HIT = "provisioner.cluster.pool.hit";
+  static final String METRIC_MISS = "provisioner.cluster.pool.miss";
+  static final String METRIC_RETURNED = "provisioner.cluster.pool.returned";
+  static final String METRIC_CREATED = "provisioner.cluster.pool.created";
+  static final String METRIC_EXPIRED = "provisioner.cluster.pool.expired";
+
+  private final boolean enabled;
+  private final long idleTTLMillis;
+  private final int maxIdle;
+  private final int minIdle;
+  private final long checkIntervalSecs;
+  private final MetricsContext metricsContext;
+
+  ClusterPool(CConfiguration cConf, MetricsContext metricsContext) {
+    this.enabled = cConf.getBoolean(Constants.Provisioner.CLUSTER_POOL_ENABLED);
+    this.idleTTLMillis = TimeUnit.SECONDS.toMillis(cConf.getLong(Constants.Provisioner.CLUSTER_POOL_IDLE_TTL_SECS));
+    this.maxIdle = cConf.getInt(Constants.Provisioner.CLUSTER_POOL_MAX_IDLE);
+    this.minIdle = Math.min(maxIdle, cConf.getInt(Constants.Provisioner.CLUSTER_POOL_MIN_IDLE));
+    this.checkIntervalSecs = cConf.getLong(Constants.Provisioner.CLUSTER_POOL_CHECK_INTERVAL_SECS);
+    this.metricsContext = metricsContext;
+  }
+
+  /**
+   * Returns {@code true} if the cluster pool is enabled.
+   */
+  boolean isEnabled() {
+    return enabled && maxIdle > 0;
+  }
+
+  /**
+   * Returns the number of seconds between checks of the clusters in the pool.
+   */
+  long getCheckIntervalSecs() {
+    return checkIntervalSecs;
+  }
+
+  /**
+   * Returns {@code true} if clusters created by the given provisioner with the given properties should be pooled.
+   */
+  boolean isPoolable(Provisioner provisioner, Map<String, String> properties) {
+    return isEnabled() && provisioner.isClusterReusable(properties);
+  }
+
+  /**
+   * Returns the key of the pool for clusters of the given provisioning task.
+   */
+  static String getPoolKey(ProvisioningTaskInfo taskInfo) {
+    Hasher hasher = Hashing.sha256().newHasher()
+      .putString(taskInfo.getProvisionerName(), StandardCharsets.UTF_8).putByte((byte) 0)
+      .putString(taskInfo.getProgramRunId().getNamespace(), StandardCharsets.UTF_8).putByte((byte) 0)
+      .putString(taskInfo.getUser(), StandardCharsets.UTF_8).putByte((byte) 0);
+    // Sort the properties so that the key doesn't depend on the map ordering
+    for (Map.Entry<String, String> entry : new TreeMap<>(taskInfo.getProvisionerProperties()).entrySet()) {
+      hasher.putString(entry.getKey(), StandardCharsets.UTF_8).putByte((byte) 0)
+        .putString(entry.getValue(), StandardCharsets.UTF_8).putByte((byte) 0);
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Takes an idle cluster out of the given pool.
+   *
+   * @return the {@link PooledCluster} taken or {@code null} if there is no idle cluster in the pool
+   */
+  @Nullable
+  PooledCluster take(ClusterPoolTable table, String poolKey) throws IOException {
+    long now = System.currentTimeMillis();
+    for (PooledCluster cluster : table.list(poolKey)) {
+      if (cluster.getStatus() == PooledCluster.Status.IDLE && !isExpired(cluster, now)) {
+        table.delete(cluster);
+        metricsContext.increment(METRIC_HIT, 1L);
+        return cluster;
+      }
+    }
+    metricsContext.increment(METRIC_MISS, 1L);
+    return null;
+  }
+
+  /**
+   * Offers the cluster of a completed provisioning task to the pool.
+   *
+   * @return {@code true} if the cluster is kept in the pool, or {@code false} if the pool is full
+   */
+  boolean offer(ClusterPoolTable table, ProvisioningTaskInfo taskInfo) throws IOException {
+    String poolKey = getPoolKey(taskInfo);
+    if (getAvailableCount(table, poolKey) >= maxIdle) {
+      return false;
+    }
+    table.put(new PooledCluster(poolKey, PooledCluster.Status.IDLE, System.currentTimeMillis(), taskInfo));
+    metricsContext.increment(METRIC_RETURNED, 1L);
+    return true;
+  }
+
+  /**
+   * Returns the number of clusters that needs to be created ahead of time for the given pool to have the
+   * minimum number of idle clusters.
+   */
+  int getMissingCount(ClusterPoolTable table, String poolKey) throws IOException {
+    return Math.max(0, minIdle - getAvailableCount(table, poolKey));
+  }
+
+  /**
+   * Returns {@code true} if the given cluster has been idle for longer than the idle TTL.
+   */
+  boolean isExpired(PooledCluster cluster, long now) {
+    return cluster.getStatus() == PooledCluster.Status.IDLE && now - cluster.getStatusTime() > idleTTLMillis;
+  }
+
+  /**
+   * Emits a metric about the cluster pool.
+   */
+  void increment(String metricName) {
+    metricsContext.increment(metricName, 1L);
+  }
+
+  /**
+   * Returns the number of clusters in the given pool that are idle or will become idle.
+   */
+  private int getAvailableCount(ClusterPoolTable table, String poolKey) throws IOException {
+    return (int) table.list(poolKey).stream().filter(c -> c.getStatus() != PooledCluster.Status.DELETING).count();
+  }
+}
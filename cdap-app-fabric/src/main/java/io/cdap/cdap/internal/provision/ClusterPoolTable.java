@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.internal.provision;
+
+import io.cdap.cdap.api.dataset.lib.CloseableIterator;
+import io.cdap.cdap.spi.data.StructuredRow;
+import io.cdap.cdap.spi.data.StructuredTable;
+import io.cdap.cdap.spi.data.StructuredTableContext;
+import io.cdap.cdap.spi.data.TableNotFoundException;
+import io.cdap.cdap.spi.data.table.field.Field;
+import io.cdap.cdap.spi.data.table.field.Fields;
+import io.cdap.cdap.spi.data.table.field.Range;
+import io.cdap.cdap.store.StoreDefinition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nullable;
+
+/**
+ * Operations on top of StructuredTable for storing the state of the cluster pool.
+ */
+final class ClusterPoolTable {
+
+  private final StructuredTable table;
+
+  ClusterPoolTable(StructuredTableContext context) throws TableNotFoundException {
+    this.table = context.getTable(StoreDefinition.ProvisionerStore.CLUSTER_POOL_TABLE);
+  }
+
+  /**
+   * Lists the clusters in the given pool, or in all pools if the pool key is {@code null}.
+   *
+   * @param poolKey the key of the pool to list or {@code null} to list all pools
+   * @return list of {@link PooledCluster}
+   * @throws IOException if there is an error reading from underlying structured table.
+   */
+  List<PooledCluster> list(@Nullable String poolKey) throws IOException {
+    Range range = poolKey == null
+      ? Range.all()
+      : Range.singleton(Collections.singletonList(Fields.stringField(StoreDefinition.ProvisionerStore.POOL_KEY_FIELD,
+                                                                     poolKey)));
+    List<PooledCluster> result = new ArrayList<>();
+    try (CloseableIterator<StructuredRow> iterator = table.scan(range, Integer.MAX_VALUE)) {
+      while (iterator.hasNext()) {
+        result.add(deserialize(iterator.next().getString(StoreDefinition.ProvisionerStore.POOLED_CLUSTER_FIELD)));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Fetch a cluster in the pool.
+   *
+   * @return the {@link PooledCluster} or {@code null} if the cluster is not in the pool
+   * @throws IOException if there is an error reading from underlying structured table.
+   */
+  @Nullable
+  PooledCluster get(String poolKey, String clusterId) throws IOException {
+    Optional<StructuredRow> row = table.read(createPrimaryKey(poolKey, clusterId));
+    return row.map(r -> deserialize(r.getString(StoreDefinition.ProvisionerStore.POOLED_CLUSTER_FIELD))).orElse(null);
+  }
+
+  /**
+   * Persist a cluster in the pool, replacing any existing state of the same cluster.
+   *
+   * @throws IOException if there is an issue writing to the underlying structured table.
+   */
+  void put(PooledCluster cluster) throws IOException {
+    List<Field<?>> fields = createPrimaryKey(cluster.getPoolKey(), cluster.getClusterId());
+    fields.add(Fields.stringField(StoreDefinition.ProvisionerStore.POOLED_CLUSTER_FIELD,
+                                  ProvisionerTable.GSON.toJson(cluster)));
+    table.upsert(fields);
+  }
+
+  /**
+   * Removes a cluster from the pool.
+   *
+   * @throws IOException if there is an issue deleting from the underlying structured table.
+   */
+  void delete(PooledCluster cluster) throws IOException {
+    table.delete(createPrimaryKey(cluster.getPoolKey(), cluster.getClusterId()));
+  }
+
+  private List<Field<?>> createPrimaryKey(String poolKey, String clusterId) {
+    return new ArrayList<>(Arrays.asList(
+      Fields.stringField(StoreDefinition.ProvisionerStore.POOL_KEY_FIELD, poolKey),
+      Fields.stringField(StoreDefinition.ProvisionerStore.CLUSTER_ID_FIELD, clusterId)));
+  }
+
+  private PooledCluster deserialize(String pooledCluster) {
+    return ProvisionerTable.GSON.fromJson(pooledCluster, PooledCluster.class);
+  }
+}
@@ -100,4 +100,10 @@ public class NativeProvisioner implements Provisioner {
   public Capabilities getCapabilities() {
     return SYSTEM_DATASETS;
   }
+
+  @Override
+  public boolean isClusterReusable(Map<String, String> properties) {
+    // there is no actual cluster, hence nothing specific to a program run
+    return true;
+  }
 }
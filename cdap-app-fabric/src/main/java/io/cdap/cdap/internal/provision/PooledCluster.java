@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.internal.provision;
+
+/**
+ * A cluster in the cluster pool, together with the information of the provisioning task that created it, which is
+ * needed to operate on the cluster after the program run it was created for has completed.
+ */
+final class PooledCluster {
+
+  /**
+   * Status of a cluster in the pool.
+   */
+  enum Status {
+    // the cluster is being created ahead of time and is not yet available for program runs
+    CREATING,
+    // the cluster is available for program runs
+    IDLE,
+    // the cluster is being deleted
+    DELETING
+  }
+
+  private final String poolKey;
+  private final Status status;
+  private final long statusTime;
+  private final ProvisioningTaskInfo taskInfo;
+
+  PooledCluster(String poolKey, Status status, long statusTime, ProvisioningTaskInfo taskInfo) {
+    this.poolKey = poolKey;
+    this.status = status;
+    this.statusTime = statusTime;
+    this.taskInfo = taskInfo;
+  }
+
+  /**
+   * Returns the key of the pool that the cluster belongs to. Clusters in the same pool are created by the same
+   * provisioner with the same properties.
+   */
+  String getPoolKey() {
+    return poolKey;
+  }
+
+  /**
+   * Returns the unique id of the cluster within its pool, which is the run id of the program run that the cluster
+   * was created for.
+   */
+  String getClusterId() {
+    return taskInfo.getProgramRunId().getRun();
+  }
+
+  Status getStatus() {
+    return status;
+  }
+
+  /**
+   * Returns the time in milliseconds when the cluster entered the current status.
+   */
+  long getStatusTime() {
+    return statusTime;
+  }
+
+  /**
+   * Returns the information of the provisioning task that the cluster was created by. The cluster is only
+   * {@code null} if the cluster is in {@link Status#CREATING} status and the create request has not been made yet.
+   */
+  ProvisioningTaskInfo getTaskInfo() {
+    return taskInfo;
+  }
+
+  /**
+   * Returns a copy of this instance with the given status and task information.
+   */
+  PooledCluster transition(Status status, ProvisioningTaskInfo taskInfo) {
+    return new PooledCluster(poolKey, status, System.currentTimeMillis(), taskInfo);
+  }
+
+  @Override
+  public String toString() {
+    return "PooledCluster{" +
+      "poolKey='" + poolKey + '\'' +
+      ", clusterId='" + getClusterId() + '\'' +
+      ", status=" + status +
+      ", statusTime=" + statusTime +
+      '}';
+  }
+}
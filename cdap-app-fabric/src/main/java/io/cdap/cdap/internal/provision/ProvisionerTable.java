@@ -46,7 +46,7 @@ import javax.annotation.Nullable;
  */
 public class ProvisionerTable {
   private final StructuredTable table;
-  private static final Gson GSON = ApplicationSpecificationAdapter.addTypeAdapters(new GsonBuilder())
+  static final Gson GSON = ApplicationSpecificationAdapter.addTypeAdapters(new GsonBuilder())
     .registerTypeAdapter(ProgramOptions.class, new ProgramOptionsCodec())
     .registerTypeAdapter(Arguments.class, new ArgumentsCodec())
     .create();
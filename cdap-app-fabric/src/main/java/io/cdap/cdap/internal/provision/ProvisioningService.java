@@ -18,6 +18,7 @@ package io.cdap.cdap.internal.provision;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.AbstractIdleService;
 import com.google.gson.Gson;
@@ -26,14 +27,17 @@ import com.google.inject.Inject;
 import io.cdap.cdap.api.macro.InvalidMacroException;
 import io.cdap.cdap.api.macro.MacroEvaluator;
 import io.cdap.cdap.api.macro.MacroParserOptions;
+import io.cdap.cdap.api.metrics.MetricsCollectionService;
 import io.cdap.cdap.api.plugin.Requirements;
 import io.cdap.cdap.api.security.store.SecureStore;
 import io.cdap.cdap.app.runtime.ProgramOptions;
 import io.cdap.cdap.app.runtime.ProgramStateWriter;
 import io.cdap.cdap.common.NotFoundException;
+import io.cdap.cdap.common.app.RunIds;
 import io.cdap.cdap.common.async.KeyedExecutor;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.common.io.Locations;
 import io.cdap.cdap.common.logging.LogSamplers;
 import io.cdap.cdap.common.logging.Loggers;
 import io.cdap.cdap.common.logging.LoggingContext;
@@ -50,6 +54,7 @@ import io.cdap.cdap.internal.provision.task.DeprovisionTask;
 import io.cdap.cdap.internal.provision.task.ProvisionTask;
 import io.cdap.cdap.internal.provision.task.ProvisioningTask;
 import io.cdap.cdap.logging.context.LoggingContextHelper;
+import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.ProgramRunId;
 import io.cdap.cdap.proto.provisioner.ProvisionerDetail;
 import io.cdap.cdap.runtime.spi.SparkCompat;
@@ -66,6 +71,7 @@ import io.cdap.cdap.runtime.spi.ssh.SSHKeyPair;
 import io.cdap.cdap.security.spi.authentication.SecurityRequestContext;
 import io.cdap.cdap.spi.data.StructuredTableContext;
 import io.cdap.cdap.spi.data.transaction.TransactionRunner;
+import io.cdap.cdap.spi.data.transaction.TransactionRunners;
 import org.apache.twill.common.Cancellable;
 import org.apache.twill.common.Threads;
 import org.apache.twill.filesystem.Location;
@@ -89,6 +95,7 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -118,13 +125,16 @@ public class ProvisioningService extends AbstractIdleService {
   private KeyedExecutor<ProvisioningTaskKey> taskExecutor;
   private final ProvisionerStore provisionerStore;
   private final TransactionRunner transactionRunner;
+  private final ClusterPool clusterPool;
+  private ScheduledExecutorService clusterPoolExecutor;
 
   @Inject
   ProvisioningService(CConfiguration cConf, ProvisionerProvider provisionerProvider,
                       ProvisionerConfigProvider provisionerConfigProvider,
                       ProvisionerNotifier provisionerNotifier, LocationFactory locationFactory,
                       SecureStore secureStore, ProgramStateWriter programStateWriter,
-                      ProvisionerStore provisionerStore, TransactionRunner transactionRunner) {
+                      ProvisionerStore provisionerStore, TransactionRunner transactionRunner,
+                      MetricsCollectionService metricsCollectionService) {
     this.cConf = cConf;
     this.provisionerProvider = provisionerProvider;
     this.provisionerConfigProvider = provisionerConfigProvider;
@@ -136,6 +146,9 @@ public class ProvisioningService extends AbstractIdleService {
     this.programStateWriter = programStateWriter;
     this.provisionerStore = provisionerStore;
     this.transactionRunner = transactionRunner;
+    this.clusterPool = new ClusterPool(cConf, metricsCollectionService.getContext(ImmutableMap.of(
+      Constants.Metrics.Tag.NAMESPACE, NamespaceId.SYSTEM.getNamespace(),
+      Constants.Metrics.Tag.COMPONENT, Constants.Service.MASTER_SERVICES)));
     this.taskStateCleanup = programRunId -> {
       try {
         provisionerStore.deleteTaskInfo(programRunId);
@@ -152,6 +165,14 @@ public class ProvisioningService extends AbstractIdleService {
     this.taskExecutor = new KeyedExecutor<>(Executors.newScheduledThreadPool(
       0, Threads.createDaemonThreadFactory("provisioning-service-%d")));
     resumeTasks(taskStateCleanup);
+    if (clusterPool.isEnabled()) {
+      // Pooled clusters are checked periodically, which deletes expired clusters and completes the creation of
+      // clusters created ahead of time. This also resumes any such operations in progress during the last shutdown.
+      clusterPoolExecutor = Executors.newSingleThreadScheduledExecutor(
+        Threads.createDaemonThreadFactory("provisioning-cluster-pool"));
+      long interval = clusterPool.getCheckIntervalSecs();
+      clusterPoolExecutor.scheduleWithFixedDelay(this::checkClusterPool, interval, interval, TimeUnit.SECONDS);
+    }
   }
 
   @Override
@@ -162,6 +183,9 @@ public class ProvisioningService extends AbstractIdleService {
       // Wait for a moment for threads to complete. Even if they don't, however, it also ok since we have
       // the state persisted and the threads are daemon threads.
       taskExecutor.shutdownNow();
+      if (clusterPoolExecutor != null) {
+        clusterPoolExecutor.shutdownNow();
+      }
       taskExecutor.awaitTermination(5, TimeUnit.SECONDS);
     } catch (InterruptedException ie) {
       // Ignore it.
@@ -352,6 +376,11 @@ public class ProvisioningService extends AbstractIdleService {
       new ProvisioningTaskInfo(programRunId, provisionRequest.getProgramDescriptor(), programOptions,
                                properties, name, provisionRequest.getUser(), provisioningOp,
                                createKeysDirectory(programRunId).toURI(), null);
+
+    if (clusterPool.isPoolable(provisioner, properties)) {
+      provisioningTaskInfo = takeFromPool(provisioningTaskInfo, new ClusterPoolTable(context));
+    }
+
     ProvisionerTable provisionerTable = new ProvisionerTable(context);
     provisionerTable.putTaskInfo(provisioningTaskInfo);
     return createProvisionTask(provisioningTaskInfo, provisioner);
@@ -408,6 +437,17 @@ public class ProvisioningService extends AbstractIdleService {
       return () -> taskCleanup.accept(existing.getProgramRunId());
     }
 
+    // keep the cluster for reuse if it was fully provisioned and the pool is not full
+    if (existing.getProvisioningOp().getStatus() == ProvisioningOp.Status.CREATED
+      && clusterPool.isPoolable(provisioner, existing.getProvisionerProperties())
+      && clusterPool.offer(new ClusterPoolTable(context), existing)) {
+      runWithProgramLogging(programRunId, existing.getProgramOptions().getArguments().asMap(),
+                            () -> LOG.info("Keeping cluster {} idle in the cluster pool for reuse.",
+                                           existing.getCluster().getName()));
+      provisionerNotifier.deprovisioned(programRunId);
+      return () -> taskCleanup.accept(programRunId);
+    }
+
     ProvisioningOp provisioningOp = new ProvisioningOp(ProvisioningOp.Type.DEPROVISION,
                                                        ProvisioningOp.Status.REQUESTING_DELETE);
     ProvisioningTaskInfo provisioningTaskInfo = new ProvisioningTaskInfo(existing, provisioningOp,
@@ -627,6 +667,230 @@ public class ProvisioningService extends AbstractIdleService {
     }));
   }
 
+  /**
+   * Takes an idle cluster from the cluster pool for the given provisioning task. If there is one, the task starts
+   * by polling the status of the pooled cluster, which goes through the regular initialization if the cluster is
+   * running, or creates a new cluster if it no longer exists. Also requests creation of clusters ahead of time if the
+   * pool has less than the minimum number of idle clusters.
+   *
+   * @param taskInfo the task information for creating a new cluster
+   * @param poolTable the {@link ClusterPoolTable} in the same transaction as the provisioning task is recorded in
+   * @return the task information for the provisioning task to run
+   */
+  private ProvisioningTaskInfo takeFromPool(ProvisioningTaskInfo taskInfo,
+                                            ClusterPoolTable poolTable) throws IOException {
+    String poolKey = ClusterPool.getPoolKey(taskInfo);
+    PooledCluster pooled = clusterPool.take(poolTable, poolKey);
+
+    int missing = clusterPool.getMissingCount(poolTable, poolKey);
+    for (int i = 0; i < missing; i++) {
+      ProgramRunId runId = taskInfo.getProgramRunId().getParent().run(RunIds.generate());
+      ProvisioningTaskInfo createInfo = new ProvisioningTaskInfo(
+        runId, taskInfo.getProgramDescriptor(), taskInfo.getProgramOptions(), taskInfo.getProvisionerProperties(),
+        taskInfo.getProvisionerName(), taskInfo.getUser(), taskInfo.getProvisioningOp(),
+        createKeysDirectory(runId).toURI(), null);
+      poolTable.put(new PooledCluster(poolKey, PooledCluster.Status.CREATING, System.currentTimeMillis(), createInfo));
+    }
+
+    if (pooled == null) {
+      return taskInfo;
+    }
+
+    ProvisioningTaskInfo pooledInfo = pooled.getTaskInfo();
+    runWithProgramLogging(taskInfo.getProgramRunId(), taskInfo.getProgramOptions().getArguments().asMap(),
+                          () -> LOG.info("Reusing cluster {} from the cluster pool.",
+                                         pooledInfo.getCluster().getName()));
+    // the run no longer needs its own keys directory, since it uses the keys of the pooled cluster
+    Locations.deleteQuietly(locationFactory.create(taskInfo.getSecureKeysDir()), true);
+    return new ProvisioningTaskInfo(taskInfo.getProgramRunId(), taskInfo.getProgramDescriptor(),
+                                    taskInfo.getProgramOptions(), taskInfo.getProvisionerProperties(),
+                                    taskInfo.getProvisionerName(), taskInfo.getUser(),
+                                    new ProvisioningOp(ProvisioningOp.Type.PROVISION,
+                                                       ProvisioningOp.Status.POLLING_CREATE),
+                                    pooledInfo.getSecureKeysDir(), pooledInfo.getCluster());
+  }
+
+  /**
+   * Checks all clusters in the cluster pool, deleting clusters that have been idle for too long, and advancing the
+   * creation and deletion of clusters. Each call performs at most one provisioner operation per cluster, so that a
+   * slow provisioner doesn't block the check of other clusters for long.
+   */
+  private void checkClusterPool() {
+    List<PooledCluster> clusters;
+    try {
+      clusters = TransactionRunners.run(transactionRunner, context -> {
+        return new ClusterPoolTable(context).list(null);
+      }, IOException.class);
+    } catch (Exception e) {
+      SAMPLING_LOG.warn("Failed to list clusters in the cluster pool. Will be retried.", e);
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+    for (PooledCluster cluster : clusters) {
+      if (clusterPoolExecutor.isShutdown()) {
+        return;
+      }
+      ProvisioningTaskInfo taskInfo = cluster.getTaskInfo();
+      Provisioner provisioner = provisionerInfo.get().provisioners.get(taskInfo.getProvisionerName());
+      if (provisioner == null) {
+        // can happen if a provisioner is removed while its clusters are in the pool
+        LOG.warn("Removing cluster of run {} from the cluster pool because provisioner {} no longer exists. "
+                   + "The cluster will be orphaned.", taskInfo.getProgramRunId(), taskInfo.getProvisionerName());
+        removeFromPool(cluster);
+        continue;
+      }
+      try {
+        switch (cluster.getStatus()) {
+          case IDLE:
+            if (clusterPool.isExpired(cluster, now)) {
+              deletePooledCluster(cluster, provisioner);
+            }
+            break;
+          case CREATING:
+            advancePooledClusterCreate(cluster, provisioner);
+            break;
+          case DELETING:
+            advancePooledClusterDelete(cluster, provisioner);
+            break;
+        }
+      } catch (Exception e) {
+        // the same step is retried on the next check
+        LOG.warn("Failed to process cluster {} in the cluster pool. Will be retried.", cluster, e);
+      }
+    }
+  }
+
+  /**
+   * Advances the creation of a cluster that is created ahead of time.
+   */
+  private void advancePooledClusterCreate(PooledCluster cluster, Provisioner provisioner) throws Exception {
+    ProvisioningTaskInfo taskInfo = cluster.getTaskInfo();
+    ProvisionerContext context = createPooledClusterContext(taskInfo);
+
+    if (taskInfo.getCluster() == null) {
+      Cluster created = provisioner.createCluster(context);
+      updatePooledCluster(cluster, cluster.transition(PooledCluster.Status.CREATING,
+                                                      new ProvisioningTaskInfo(taskInfo, taskInfo.getProvisioningOp(),
+                                                                               created)));
+      return;
+    }
+
+    ClusterStatus status = provisioner.getClusterStatus(context, taskInfo.getCluster());
+    switch (status) {
+      case CREATING:
+        // still creating
+        break;
+      case RUNNING:
+        Cluster detail = provisioner.getClusterDetail(context, taskInfo.getCluster());
+        provisioner.initializeCluster(context, detail);
+        Map<String, String> properties = new HashMap<>(taskInfo.getCluster().getProperties());
+        properties.putAll(detail.getProperties());
+        Cluster running = new Cluster(detail.getName(), ClusterStatus.RUNNING, detail.getNodes(), properties);
+        ProvisioningOp op = new ProvisioningOp(ProvisioningOp.Type.PROVISION, ProvisioningOp.Status.CREATED);
+        if (updatePooledCluster(cluster, cluster.transition(PooledCluster.Status.IDLE,
+                                                            new ProvisioningTaskInfo(taskInfo, op, running)))) {
+          clusterPool.increment(ClusterPool.METRIC_CREATED);
+          LOG.debug("Cluster {} created ahead of time is available in the cluster pool.", running.getName());
+        }
+        break;
+      case NOT_EXISTS:
+        removeFromPool(cluster);
+        break;
+      default:
+        LOG.warn("Cluster {} created ahead of time for the cluster pool is in {} state. It will be deleted.",
+                 taskInfo.getCluster().getName(), status);
+        deletePooledCluster(cluster, provisioner);
+    }
+  }
+
+  /**
+   * Advances the deletion of a pooled cluster.
+   */
+  private void advancePooledClusterDelete(PooledCluster cluster, Provisioner provisioner) throws Exception {
+    ProvisioningTaskInfo taskInfo = cluster.getTaskInfo();
+    if (taskInfo.getCluster() == null) {
+      removeFromPool(cluster);
+      return;
+    }
+    ProvisionerContext context = createPooledClusterContext(taskInfo);
+    ClusterStatus status = provisioner.getClusterStatus(context, taskInfo.getCluster());
+    switch (status) {
+      case DELETING:
+        // still deleting
+        break;
+      case NOT_EXISTS:
+        removeFromPool(cluster);
+        break;
+      case RUNNING:
+        // the delete request didn't go through, request again
+        provisioner.deleteCluster(context, taskInfo.getCluster());
+        break;
+      default:
+        LOG.warn("Got unexpected cluster state {} while deleting cluster {} from the cluster pool. "
+                   + "The cluster will be orphaned.", status, taskInfo.getCluster().getName());
+        removeFromPool(cluster);
+    }
+  }
+
+  /**
+   * Marks a pooled cluster as deleting and requests the deletion. The marking happens first, so that the cluster is
+   * not taken by any program run once deletion is requested.
+   */
+  private void deletePooledCluster(PooledCluster cluster, Provisioner provisioner) throws Exception {
+    ProvisioningTaskInfo taskInfo = cluster.getTaskInfo();
+    if (!updatePooledCluster(cluster, cluster.transition(PooledCluster.Status.DELETING, taskInfo))) {
+      return;
+    }
+    if (cluster.getStatus() == PooledCluster.Status.IDLE) {
+      clusterPool.increment(ClusterPool.METRIC_EXPIRED);
+    }
+    if (taskInfo.getCluster() != null) {
+      LOG.debug("Deleting cluster {} from the cluster pool.", taskInfo.getCluster().getName());
+      provisioner.deleteCluster(createPooledClusterContext(taskInfo), taskInfo.getCluster());
+    }
+  }
+
+  /**
+   * Replaces the state of a pooled cluster if it has not been changed since it was read, for example by a program
+   * run that took it from the pool.
+   *
+   * @return {@code true} if the state was replaced
+   */
+  private boolean updatePooledCluster(PooledCluster current, PooledCluster updated) throws IOException {
+    return TransactionRunners.run(transactionRunner, context -> {
+      ClusterPoolTable poolTable = new ClusterPoolTable(context);
+      PooledCluster stored = poolTable.get(current.getPoolKey(), current.getClusterId());
+      if (stored == null || stored.getStatus() != current.getStatus()
+        || stored.getStatusTime() != current.getStatusTime()) {
+        return false;
+      }
+      poolTable.put(updated);
+      return true;
+    }, IOException.class);
+  }
+
+  /**
+   * Removes a cluster from the cluster pool, together with its keys directory.
+   */
+  private void removeFromPool(PooledCluster cluster) {
+    try {
+      TransactionRunners.run(transactionRunner, context -> {
+        new ClusterPoolTable(context).delete(cluster);
+      }, IOException.class);
+      Locations.deleteQuietly(locationFactory.create(cluster.getTaskInfo().getSecureKeysDir()), true);
+    } catch (IOException e) {
+      LOG.warn("Failed to remove cluster {} from the cluster pool. Will be retried.", cluster, e);
+    }
+  }
+
+  private ProvisionerContext createPooledClusterContext(ProvisioningTaskInfo taskInfo) throws IOException {
+    return createContext(taskInfo.getProgramRunId(), taskInfo.getUser(), taskInfo.getProvisionerProperties(),
+                         new DefaultSSHContext(Networks.getAddress(cConf, Constants.NETWORK_PROXY_ADDRESS),
+                                               locationFactory.create(taskInfo.getSecureKeysDir()),
+                                               createSSHKeyPair(taskInfo)));
+  }
+
   private List<ProvisioningTaskInfo> getInProgressTasks() throws IOException {
     return Retries.callWithRetries(provisionerStore::listTaskInfo, RetryStrategies.fixDelay(6, TimeUnit.SECONDS), t -> {
       // don't retry if we were interrupted, or if the service is not running
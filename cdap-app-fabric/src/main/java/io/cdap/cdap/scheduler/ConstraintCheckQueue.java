@@ -0,0 +1,203 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.scheduler;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.internal.app.runtime.schedule.queue.JobQueueTable;
+import io.cdap.cdap.proto.id.ProgramId;
+import io.cdap.cdap.proto.id.ScheduleId;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An in-memory queue of schedules that have jobs waiting for constraint checks, ordered by the time at which the
+ * jobs should be checked next. It is shared by the {@link ScheduleNotificationSubscriberService}, which adds
+ * schedules whose jobs were updated and reports completed program runs, and the {@link ConstraintCheckerService},
+ * which waits on this queue instead of repeatedly scanning the job queue. The queue is partitioned the same way as
+ * the {@link JobQueueTable}, so that each constraint checker thread only wakes up for its own partition.
+ *
+ * Entries are only hints. Losing one, e.g. because the process restarted, merely delays a job until the next
+ * recovery scan of the job queue performed by the {@link ConstraintCheckerService}.
+ */
+@Singleton
+class ConstraintCheckQueue {
+
+  private final int numPartitions;
+  private final Partition[] partitions;
+  private final ConcurrentMap<ProgramId, Set<ScheduleId>> concurrencyWaiters;
+
+  @Inject
+  ConstraintCheckQueue(CConfiguration cConf) {
+    this.numPartitions = cConf.getInt(Constants.Scheduler.JOB_QUEUE_NUM_PARTITIONS);
+    this.partitions = new Partition[numPartitions];
+    for (int i = 0; i < numPartitions; i++) {
+      partitions[i] = new Partition();
+    }
+    this.concurrencyWaiters = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Requests the jobs of the given schedules to be checked as soon as possible.
+   */
+  void checkNow(Collection<ScheduleId> scheduleIds) {
+    long now = System.currentTimeMillis();
+    for (ScheduleId scheduleId : scheduleIds) {
+      scheduleCheck(scheduleId, now);
+    }
+  }
+
+  /**
+   * Requests the jobs of the given schedule to be checked at the given time. If a check for the schedule is
+   * already requested for an earlier time, this method has no effect.
+   *
+   * @param scheduleId the schedule to check
+   * @param checkTimeMillis the time in milliseconds at which the check should happen
+   */
+  void scheduleCheck(ScheduleId scheduleId, long checkTimeMillis) {
+    partitions[JobQueueTable.getPartition(scheduleId, numPartitions)].add(scheduleId, checkTimeMillis);
+  }
+
+  /**
+   * Requests the jobs of the given schedule to be checked again when a run of the given program completes.
+   * This is used for jobs that are waiting for a concurrency constraint to be satisfied.
+   */
+  void checkOnRunCompletion(ScheduleId scheduleId, ProgramId programId) {
+    concurrencyWaiters.computeIfAbsent(programId, k -> ConcurrentHashMap.newKeySet()).add(scheduleId);
+  }
+
+  /**
+   * Notifies that a run of the given programs has completed, so that jobs waiting for a concurrency constraint
+   * of any of these programs are checked as soon as possible.
+   */
+  void runsCompleted(Collection<ProgramId> programIds) {
+    for (ProgramId programId : programIds) {
+      Set<ScheduleId> scheduleIds = concurrencyWaiters.remove(programId);
+      if (scheduleIds != null) {
+        checkNow(scheduleIds);
+      }
+    }
+  }
+
+  /**
+   * Waits until there are schedules due for check in the given partition and returns them. The returned
+   * schedules are removed from the queue.
+   *
+   * @param partition the partition to wait on
+   * @param deadlineMillis the time in milliseconds after which this method returns even if nothing is due
+   * @return the schedules due for check, or an empty collection if the deadline passed
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  Collection<ScheduleId> awaitDueSchedules(int partition, long deadlineMillis) throws InterruptedException {
+    return partitions[partition].awaitDue(deadlineMillis);
+  }
+
+  /**
+   * The schedules of one partition of the job queue.
+   */
+  private static final class Partition {
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<CheckEntry> queue = new PriorityQueue<>();
+    // The earliest requested check time of each schedule. Queue entries that don't match are stale.
+    private final Map<ScheduleId, Long> checkTimes = new HashMap<>();
+
+    void add(ScheduleId scheduleId, long checkTimeMillis) {
+      lock.lock();
+      try {
+        Long existing = checkTimes.get(scheduleId);
+        if (existing != null && existing <= checkTimeMillis) {
+          return;
+        }
+        checkTimes.put(scheduleId, checkTimeMillis);
+        CheckEntry entry = new CheckEntry(scheduleId, checkTimeMillis);
+        queue.add(entry);
+        // Only wake up the waiting thread if the new entry changes the next wake up time
+        if (queue.peek() == entry) {
+          changed.signalAll();
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    Collection<ScheduleId> awaitDue(long deadlineMillis) throws InterruptedException {
+      lock.lock();
+      try {
+        while (true) {
+          long now = System.currentTimeMillis();
+          List<ScheduleId> due = pollDue(now);
+          if (!due.isEmpty()) {
+            return due;
+          }
+          long wakeupTime = queue.isEmpty() ? deadlineMillis : Math.min(deadlineMillis, queue.peek().checkTimeMillis);
+          if (wakeupTime <= now) {
+            return Collections.emptyList();
+          }
+          changed.await(wakeupTime - now, TimeUnit.MILLISECONDS);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private List<ScheduleId> pollDue(long now) {
+      List<ScheduleId> due = new ArrayList<>();
+      while (!queue.isEmpty() && queue.peek().checkTimeMillis <= now) {
+        CheckEntry entry = queue.poll();
+        if (checkTimes.remove(entry.scheduleId, entry.checkTimeMillis)) {
+          due.add(entry.scheduleId);
+        }
+      }
+      return due;
+    }
+  }
+
+  /**
+   * An entry in the priority queue of a partition.
+   */
+  private static final class CheckEntry implements Comparable<CheckEntry> {
+    private final ScheduleId scheduleId;
+    private final long checkTimeMillis;
+
+    CheckEntry(ScheduleId scheduleId, long checkTimeMillis) {
+      this.scheduleId = scheduleId;
+      this.checkTimeMillis = checkTimeMillis;
+    }
+
+    @Override
+    public int compareTo(CheckEntry other) {
+      return Long.compare(checkTimeMillis, other.checkTimeMillis);
+    }
+  }
+}
@@ -31,6 +31,7 @@ import io.cdap.cdap.common.namespace.NamespaceQueryAdmin;
 import io.cdap.cdap.common.service.RetryStrategy;
 import io.cdap.cdap.internal.app.runtime.schedule.ScheduleTaskRunner;
 import io.cdap.cdap.internal.app.runtime.schedule.constraint.CheckableConstraint;
+import io.cdap.cdap.internal.app.runtime.schedule.constraint.ConcurrencyConstraint;
 import io.cdap.cdap.internal.app.runtime.schedule.constraint.ConstraintContext;
 import io.cdap.cdap.internal.app.runtime.schedule.constraint.ConstraintResult;
 import io.cdap.cdap.internal.app.runtime.schedule.queue.Job;
@@ -40,6 +41,7 @@ import io.cdap.cdap.internal.app.runtime.schedule.store.Schedulers;
 import io.cdap.cdap.internal.app.services.ProgramLifecycleService;
 import io.cdap.cdap.internal.app.services.PropertiesResolver;
 import io.cdap.cdap.internal.schedule.constraint.Constraint;
+import io.cdap.cdap.proto.id.ScheduleId;
 import io.cdap.cdap.spi.data.transaction.TransactionException;
 import io.cdap.cdap.spi.data.transaction.TransactionRunner;
 import io.cdap.cdap.spi.data.transaction.TransactionRunners;
@@ -48,16 +50,22 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Polls the JobQueue, checks the jobs for constraint satisfaction, and launches them.
+ * Checks the jobs in the JobQueue for constraint satisfaction, and launches them. Jobs are checked when they are
+ * signaled through the {@link ConstraintCheckQueue}, either because they were updated, because their constraints
+ * are expected to be satisfied by then, or because a run of the scheduled program completed. A full scan of the
+ * JobQueue is only done periodically to recover jobs that were not signaled, e.g. after a restart.
  */
 class ConstraintCheckerService extends AbstractIdleService {
   private static final Logger LOG = LoggerFactory.getLogger(ConstraintCheckerService.class);
+  private static final long MAX_WAIT_MILLIS = 2000L;
 
   private final Store store;
   private final ProgramLifecycleService lifecycleService;
@@ -65,6 +73,7 @@ class ConstraintCheckerService extends AbstractIdleService {
   private final NamespaceQueryAdmin namespaceQueryAdmin;
   private final CConfiguration cConf;
   private final TransactionRunner transactionRunner;
+  private final ConstraintCheckQueue checkQueue;
   private ScheduleTaskRunner taskRunner;
   private ListeningExecutorService taskExecutorService;
   private volatile boolean stopping = false;
@@ -74,13 +83,15 @@ class ConstraintCheckerService extends AbstractIdleService {
                            ProgramLifecycleService lifecycleService, PropertiesResolver propertiesResolver,
                            NamespaceQueryAdmin namespaceQueryAdmin,
                            CConfiguration cConf,
-                           TransactionRunner transactionRunner) {
+                           TransactionRunner transactionRunner,
+                           ConstraintCheckQueue checkQueue) {
     this.store = store;
     this.lifecycleService = lifecycleService;
     this.propertiesResolver = propertiesResolver;
     this.namespaceQueryAdmin = namespaceQueryAdmin;
     this.cConf = cConf;
     this.transactionRunner = transactionRunner;
+    this.checkQueue = checkQueue;
   }
 
   @Override
@@ -118,15 +129,19 @@ class ConstraintCheckerService extends AbstractIdleService {
   private class ConstraintCheckerThread implements Runnable {
     private final RetryStrategy scheduleStrategy;
     private final int partition;
+    private final long recoveryScanIntervalMillis;
     private final Deque<Job> readyJobs = new ArrayDeque<>();
     private Job lastConsumed;
     private int failureCount;
+    // Starts with zero so that the first pass performs a recovery scan
+    private long nextRecoveryScanTime;
 
     ConstraintCheckerThread(int partition) {
       // TODO: [CDAP-11370] Need to be configured in cdap-default.xml. Retry with delay ranging from 0.1s to 30s
       scheduleStrategy =
         io.cdap.cdap.common.service.RetryStrategies.exponentialDelay(100, 30000, TimeUnit.MILLISECONDS);
       this.partition = partition;
+      this.recoveryScanIntervalMillis = cConf.getLong(Constants.Scheduler.JOB_QUEUE_RECOVERY_SCAN_INTERVAL_MILLIS);
     }
 
     @Override
@@ -141,29 +156,52 @@ class ConstraintCheckerService extends AbstractIdleService {
             TimeUnit.MILLISECONDS.sleep(sleepTime);
           }
         } catch (InterruptedException e) {
-          // sleep is interrupted, just exit without doing anything
+          // sleep or wait is interrupted, just exit without doing anything
+          break;
         }
       }
     }
 
     /**
-     * Check jobs in job queue for constraint satisfaction.
+     * Check jobs in job queue for constraint satisfaction. Either continues the recovery scan of the partition if
+     * one is due or in progress, or waits for schedules signaled through the {@link ConstraintCheckQueue} and checks
+     * their jobs.
      *
      * @return sleep time in milliseconds before next fetch
+     * @throws InterruptedException if interrupted while waiting for signaled schedules
      */
-    private long checkJobQueue() {
-      boolean emptyFetch = false;
+    private long checkJobQueue() throws InterruptedException {
+      Collection<ScheduleId> dueSchedules = Collections.emptyList();
       try {
-        emptyFetch = TransactionRunners.run(transactionRunner, context -> {
-          return checkJobConstraints(JobQueueTable.getJobQueue(context, cConf));
-        });
+        if (lastConsumed != null || System.currentTimeMillis() >= nextRecoveryScanTime) {
+          boolean scanCompleted = TransactionRunners.run(transactionRunner, context -> {
+            return checkJobConstraints(JobQueueTable.getJobQueue(context, cConf));
+          });
+          if (scanCompleted) {
+            nextRecoveryScanTime = System.currentTimeMillis() + recoveryScanIntervalMillis;
+          }
+        } else if (readyJobs.isEmpty()) {
+          // Bound the wait so that the stopping flag is honored in a timely manner
+          long deadline = Math.min(nextRecoveryScanTime, System.currentTimeMillis() + MAX_WAIT_MILLIS);
+          dueSchedules = checkQueue.awaitDueSchedules(partition, deadline);
+          if (!dueSchedules.isEmpty()) {
+            Collection<ScheduleId> schedules = dueSchedules;
+            TransactionRunners.run(transactionRunner, context -> {
+              checkScheduleJobs(JobQueueTable.getJobQueue(context, cConf), schedules);
+            });
+          }
+        }
 
         // run any ready jobs
         runReadyJobs();
         failureCount = 0;
+      } catch (InterruptedException e) {
+        throw e;
       } catch (Exception e) {
         LOG.warn("Failed to check Job constraints. Will retry in next run", e);
         failureCount++;
+        // Check the signaled schedules again after the retry delay
+        checkQueue.checkNow(dueSchedules);
       }
 
       // If there is any failure, delay the next fetch based on the strategy
@@ -172,28 +210,40 @@ class ConstraintCheckerService extends AbstractIdleService {
         return scheduleStrategy.nextRetry(failureCount, 0);
       }
 
-      // Sleep for 2 seconds if there's no jobs in the queue
-      return emptyFetch && readyJobs.isEmpty() ? 2000L : 0L;
+      // No need to sleep, since waiting for due schedules blocks until there is work to do
+      return 0L;
     }
 
+    /**
+     * Scans the partition for jobs, starting after the last consumed job, for at most one second.
+     *
+     * @return {@code true} if the scan reached the end of the partition
+     */
     private boolean checkJobConstraints(JobQueue jobQueue) throws IOException {
-      boolean emptyScan = true;
-
       try (CloseableIterator<Job> jobQueueIter = jobQueue.getJobs(partition, lastConsumed)) {
         Stopwatch stopWatch = new Stopwatch().start();
         // limit the batches of the scan to 1000ms
         while (!stopping && stopWatch.elapsedMillis() < 1000) {
           if (!jobQueueIter.hasNext()) {
             lastConsumed = null;
-            return emptyScan;
+            return true;
           }
           Job job = jobQueueIter.next();
           lastConsumed = job;
-          emptyScan = false;
           checkAndUpdateJob(jobQueue, job);
         }
       }
-      return emptyScan;
+      return false;
+    }
+
+    private void checkScheduleJobs(JobQueue jobQueue, Collection<ScheduleId> scheduleIds) throws IOException {
+      for (ScheduleId scheduleId : scheduleIds) {
+        try (CloseableIterator<Job> jobs = jobQueue.getJobsForSchedule(scheduleId)) {
+          while (!stopping && jobs.hasNext()) {
+            checkAndUpdateJob(jobQueue, jobs.next());
+          }
+        }
+      }
     }
 
     private void checkAndUpdateJob(JobQueue jobQueue, Job job) throws IOException {
@@ -209,6 +259,9 @@ class ConstraintCheckerService extends AbstractIdleService {
           (job.getState() == Job.State.PENDING_TRIGGER &&
             now - job.getDeleteTimeMillis() > 2 * Schedulers.SUBSCRIBER_TX_TIMEOUT_MILLIS))) {
           jobQueue.deleteJob(job);
+        } else if (job.getState() == Job.State.PENDING_TRIGGER) {
+          checkQueue.scheduleCheck(job.getSchedule().getScheduleId(),
+                                   job.getDeleteTimeMillis() + 2 * Schedulers.SUBSCRIBER_TX_TIMEOUT_MILLIS + 1);
         }
         return;
       }
@@ -285,6 +338,8 @@ class ConstraintCheckerService extends AbstractIdleService {
 
     private ConstraintResult.SatisfiedState constraintsSatisfied(Job job, long now) {
       ConstraintResult.SatisfiedState satisfiedState = ConstraintResult.SatisfiedState.SATISFIED;
+      long nextCheckTime = Long.MAX_VALUE;
+      boolean concurrencyLimited = false;
 
       ConstraintContext constraintContext = new ConstraintContext(job, now, store);
       for (Constraint constraint : job.getSchedule().getConstraints()) {
@@ -303,6 +358,18 @@ class ConstraintCheckerService extends AbstractIdleService {
         }
         if (result.getSatisfiedState() == ConstraintResult.SatisfiedState.NOT_SATISFIED) {
           satisfiedState = ConstraintResult.SatisfiedState.NOT_SATISFIED;
+          // NOT_SATISFIED results always carry the next check time
+          nextCheckTime = Math.min(nextCheckTime, result.getNextCheckTime());
+          concurrencyLimited = concurrencyLimited || constraint instanceof ConcurrencyConstraint;
+        }
+      }
+
+      if (satisfiedState == ConstraintResult.SatisfiedState.NOT_SATISFIED) {
+        ScheduleId scheduleId = job.getSchedule().getScheduleId();
+        checkQueue.scheduleCheck(scheduleId, nextCheckTime);
+        if (concurrencyLimited) {
+          // A completed run may satisfy the concurrency constraint before the next check time
+          checkQueue.checkOnRunCompletion(scheduleId, job.getSchedule().getProgramId());
         }
       }
       return satisfiedState;
@@ -49,9 +49,11 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -68,16 +70,18 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
   private final CConfiguration cConf;
   private final MessagingService messagingService;
   private final MetricsCollectionService metricsCollectionService;
+  private final ConstraintCheckQueue checkQueue;
   private final List<Service> subscriberServices;
   private ScheduledExecutorService subscriberExecutor;
 
   @Inject
   ScheduleNotificationSubscriberService(CConfiguration cConf, MessagingService messagingService,
                                         MetricsCollectionService metricsCollectionService,
-                                        TransactionRunner transactionRunner) {
+                                        TransactionRunner transactionRunner, ConstraintCheckQueue checkQueue) {
     this.cConf = cConf;
     this.messagingService = messagingService;
     this.metricsCollectionService = metricsCollectionService;
+    this.checkQueue = checkQueue;
     this.subscriberServices = Arrays.asList(new SchedulerEventSubscriberService(transactionRunner),
                                             new DataEventSubscriberService(transactionRunner),
                                             new ProgramStatusEventSubscriberService(transactionRunner));
@@ -120,6 +124,11 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
    */
   private abstract class AbstractSchedulerSubscriberService extends AbstractNotificationSubscriberService {
 
+    // Schedules with updated jobs and programs with completed runs, to be signaled to the constraint checker
+    // once the transaction that processed the notifications is committed
+    private final Set<ScheduleId> updatedSchedules = new HashSet<>();
+    private final Set<ProgramId> completedPrograms = new HashSet<>();
+
     AbstractSchedulerSubscriberService(String name, String topic, int fetchSize,
                                        TransactionRunner transactionRunner) {
       super(name, cConf, topic, fetchSize, cConf.getLong(Constants.Scheduler.EVENT_POLL_DELAY_MILLIS),
@@ -143,16 +152,43 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
       ProgramScheduleStoreDataset scheduleStore = getScheduleStore(structuredTableContext);
       JobQueueTable jobQueue = getJobQueue(structuredTableContext);
 
+      // Messages are replayed if the previous transaction failed, so only keep what this transaction processed
+      updatedSchedules.clear();
+      completedPrograms.clear();
       while (messages.hasNext()) {
         processNotification(scheduleStore, jobQueue, messages.next().getSecond());
       }
     }
 
+    @Override
+    protected void postProcess() {
+      checkQueue.checkNow(updatedSchedules);
+      checkQueue.runsCompleted(completedPrograms);
+      updatedSchedules.clear();
+      completedPrograms.clear();
+    }
+
     @Override
     protected ScheduledExecutorService executor() {
       return subscriberExecutor;
     }
 
+    /**
+     * Adds the given notification to the job queue and remembers the schedule for signaling the constraint checker.
+     */
+    protected void addNotification(JobQueueTable jobQueue, ProgramScheduleRecord record,
+                                   Notification notification) throws IOException {
+      jobQueue.addNotification(record, notification);
+      updatedSchedules.add(record.getSchedule().getScheduleId());
+    }
+
+    /**
+     * Remembers that a run of the given program completed, for signaling the constraint checker.
+     */
+    protected void runCompleted(ProgramId programId) {
+      completedPrograms.add(programId);
+    }
+
     /**
      * Processes a single {@link Notification}.
      */
@@ -206,7 +242,7 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
         LOG.warn("Ignore notification that doesn't have a schedule {} associated with, {}", scheduleId, notification);
         return;
       }
-      jobQueue.addNotification(record, notification);
+      addNotification(jobQueue, record, notification);
     }
   }
 
@@ -231,7 +267,7 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
       DatasetId datasetId = DatasetId.fromString(datasetIdString);
       for (ProgramScheduleRecord schedule :
         scheduleStore.findSchedules(Schedulers.triggerKeyForPartition(datasetId))) {
-        jobQueue.addNotification(schedule, notification);
+        addNotification(jobQueue, schedule, notification);
       }
     }
   }
@@ -268,10 +304,13 @@ public class ScheduleNotificationSubscriberService extends AbstractIdleService {
 
       ProgramRunId programRunId = GSON.fromJson(programRunIdString, ProgramRunId.class);
       ProgramId programId = programRunId.getParent();
+      if (ProgramRunStatus.isEndState(programRunStatusString)) {
+        runCompleted(programId);
+      }
       String triggerKeyForProgramStatus = Schedulers.triggerKeyForProgramStatus(programId, programStatus);
 
       for (ProgramScheduleRecord schedule : scheduleStore.findSchedules(triggerKeyForProgramStatus)) {
-        jobQueue.addNotification(schedule, notification);
+        addNotification(jobQueue, schedule, notification);
       }
     }
   }
@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.app.runtime.monitor;
 
+import com.google.common.base.Strings;
 import com.google.common.util.concurrent.Service;
 import com.google.gson.Gson;
 import com.google.inject.Guice;
@@ -27,6 +28,8 @@ import io.cdap.cdap.api.Transactional;
 import io.cdap.cdap.api.dataset.lib.CloseableIterator;
 import io.cdap.cdap.api.messaging.Message;
 import io.cdap.cdap.api.messaging.MessageFetcher;
+import io.cdap.cdap.api.metrics.MetricsContext;
+import io.cdap.cdap.api.metrics.NoopMetricsContext;
 import io.cdap.cdap.app.guice.RemoteExecutionDiscoveryModule;
 import io.cdap.cdap.app.runtime.NoOpProgramStateWriter;
 import io.cdap.cdap.app.runtime.ProgramStateWriter;
@@ -81,14 +84,21 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
@@ -98,6 +108,11 @@ import javax.annotation.Nullable;
  */
 public class RuntimeMonitorTest {
 
+  private static final String FETCH_BYTES_METRIC = "runtime.monitor.fetch.bytes";
+  private static final String FETCH_MESSAGES_METRIC = "runtime.monitor.fetch.messages";
+  private static final String FETCH_LATENCY_METRIC = "runtime.monitor.fetch.latency.ms";
+  private static final String POLL_INTERVAL_METRIC = "runtime.monitor.poll.interval.ms";
+
   private static CConfiguration cConf;
   private static MessagingService messagingService;
 
@@ -126,6 +141,7 @@ public class RuntimeMonitorTest {
     cConf.set(Constants.RuntimeMonitor.SERVER_INFO_FILE, new File(TMP_FOLDER.newFolder(), "info").getAbsolutePath());
     cConf.set(Constants.RuntimeMonitor.BATCH_SIZE, "2");
     cConf.set(Constants.RuntimeMonitor.POLL_TIME_MS, "200");
+    cConf.set(Constants.RuntimeMonitor.MAX_POLL_TIME_MS, "1000");
     cConf.set(Constants.RuntimeMonitor.GRACEFUL_SHUTDOWN_MS, "1000");
 
     serverKeyStore = KeyStores.generatedCertKeyStore(1, "");
@@ -234,7 +250,8 @@ public class RuntimeMonitorTest {
     RuntimeMonitor runtimeMonitor = new RuntimeMonitor(programRunId, monitorCConf, monitorClient,
                                                        messagingContext, scheduler,
                                                        monitorMessage -> { }, new MockRemoteProcessController(),
-                                                       new NoOpProgramStateWriter(), transactionRunner);
+                                                       new NoOpProgramStateWriter(), transactionRunner,
+                                                       new NoopMetricsContext());
 
     runtimeMonitor.startAndWait();
     // use different configuration for verification
@@ -249,7 +266,7 @@ public class RuntimeMonitorTest {
     runtimeMonitor = new RuntimeMonitor(programRunId, monitorCConf, monitorClient,
                                         messagingContext, scheduler, monitorMessage -> { },
                                         new MockRemoteProcessController(), new NoOpProgramStateWriter(),
-                                        transactionRunner);
+                                        transactionRunner, new NoopMetricsContext());
     runtimeMonitor.startAndWait();
     // use different configuration for verification
     lastProcessed = verifyPublishedMessages(monitorCConf, 2, lastProcessed);
@@ -301,7 +318,7 @@ public class RuntimeMonitorTest {
     RuntimeMonitor runtimeMonitor = new RuntimeMonitor(programRunId, monitorCConf, monitorClient,
                                                        messagingContext, scheduler, monitorMessage -> { },
                                                        new MockRemoteProcessController(), new NoOpProgramStateWriter(),
-                                                       transactionRunner);
+                                                       transactionRunner, new NoopMetricsContext());
     runtimeMonitor.startAndWait();
 
     // Wait and verify messages as being republished by the runtime monitor to the "local" metrics topics
@@ -354,7 +371,7 @@ public class RuntimeMonitorTest {
     RuntimeMonitor runtimeMonitor = new RuntimeMonitor(programRunId, monitorCConf, monitorClient,
                                                        messagingContext, scheduler, monitorMessage -> { },
                                                        new MockRemoteProcessController(), new NoOpProgramStateWriter(),
-                                                       transactionRunner);
+                                                       transactionRunner, new NoopMetricsContext());
 
     runtimeMonitor.startAndWait();
     verifyPublishedMessages(monitorCConf, 2, null);
@@ -372,6 +389,127 @@ public class RuntimeMonitorTest {
   }
 
 
+  @Test
+  public void testCompression() throws Exception {
+    ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(5, Threads.createDaemonThreadFactory("test"));
+    CConfiguration monitorCConf = createMetricsMonitorCConf();
+    String metricsTopic = cConf.get(Constants.Metrics.TOPIC_PREFIX) + 0;
+    String localMetricsTopic = monitorCConf.get(Constants.Metrics.TOPIC_PREFIX) + 0;
+
+    // Publish messages that compress well to the metrics topic used by the runtime monitor server
+    List<String> payloads = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      String payload = Strings.repeat("metrics payload " + i, 100);
+      messagingContext.getMessagePublisher().publish(NamespaceId.SYSTEM.getNamespace(), metricsTopic, payload);
+      payloads.add(payload);
+    }
+
+    // The same messages are fetched by a client that asks for compression and by one that does not
+    long compressedBytes = fetchAllMessages(monitorCConf, scheduler, true, payloads.size());
+    Assert.assertEquals(payloads, fetchPayloads(localMetricsTopic));
+    long uncompressedBytes = fetchAllMessages(monitorCConf, scheduler, false, payloads.size());
+    Assert.assertEquals(payloads, fetchPayloads(localMetricsTopic).subList(payloads.size(), payloads.size() * 2));
+
+    // The payloads alone are larger than what was received compressed
+    Assert.assertTrue(uncompressedBytes > payloads.stream().mapToInt(String::length).sum());
+    Assert.assertTrue(compressedBytes * 2 < uncompressedBytes);
+  }
+
+  @Test
+  public void testAdaptivePolling() throws Exception {
+    ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(5, Threads.createDaemonThreadFactory("test"));
+    CConfiguration monitorCConf = createMetricsMonitorCConf();
+    ProgramRunId programRunId = NamespaceId.DEFAULT.app("app1").workflow("testAdaptivePolling").run(RunIds.generate());
+
+    RuntimeMonitorClient monitorClient = new RuntimeMonitorClient(HttpRequestConfig.DEFAULT,
+                                                                  clientKeyStore, serverKeyStore,
+                                                                  runtimeServer::getBindAddress, Proxy.NO_PROXY);
+    RecordingMetricsContext metricsContext = new RecordingMetricsContext();
+    RuntimeMonitor runtimeMonitor = new RuntimeMonitor(programRunId, monitorCConf, monitorClient,
+                                                       messagingContext, scheduler, monitorMessage -> { },
+                                                       new MockRemoteProcessController(), new NoOpProgramStateWriter(),
+                                                       transactionRunner, metricsContext);
+    runtimeMonitor.startAndWait();
+    try {
+      // Without messages, the poll interval doubles from the poll time of 200ms up to the max poll time of 1000ms
+      Tasks.waitFor(true, () -> metricsContext.getGauges(POLL_INTERVAL_METRIC).contains(1000L),
+                    10, TimeUnit.SECONDS, 50, TimeUnit.MILLISECONDS);
+      List<Long> intervals = metricsContext.getGauges(POLL_INTERVAL_METRIC);
+      Assert.assertEquals(Arrays.asList(400L, 800L, 1000L), intervals.subList(0, 3));
+      Assert.assertEquals(0L, metricsContext.getCount(FETCH_MESSAGES_METRIC));
+
+      // Once a message is fetched, the poll interval goes back to the poll time
+      int emptyPolls = intervals.size();
+      messagingContext.getMessagePublisher().publish(NamespaceId.SYSTEM.getNamespace(),
+                                                     cConf.get(Constants.Metrics.TOPIC_PREFIX) + 0, "test");
+      Tasks.waitFor(true, () -> {
+        List<Long> gauges = metricsContext.getGauges(POLL_INTERVAL_METRIC);
+        return gauges.subList(emptyPolls, gauges.size()).contains(200L);
+      }, 10, TimeUnit.SECONDS, 50, TimeUnit.MILLISECONDS);
+      Assert.assertTrue(metricsContext.getGauges(POLL_INTERVAL_METRIC).stream().allMatch(i -> i <= 1000L));
+
+      // Every fetch reports its latency and the bytes and messages received
+      Assert.assertEquals(1L, metricsContext.getCount(FETCH_MESSAGES_METRIC));
+      Assert.assertTrue(metricsContext.getCount(FETCH_BYTES_METRIC) > 0);
+      Assert.assertTrue(metricsContext.getGauges(FETCH_LATENCY_METRIC).size() >= intervals.size());
+    } finally {
+      runtimeMonitor.stopAndWait();
+    }
+  }
+
+  /**
+   * Creates the configuration for a {@link RuntimeMonitor} that republishes the metrics fetched from the
+   * {@link RuntimeMonitorServer} to metrics topics of a different prefix, since both use the same messaging service.
+   */
+  private CConfiguration createMetricsMonitorCConf() throws Exception {
+    CConfiguration monitorCConf = CConfiguration.copy(cConf);
+    monitorCConf.set(Constants.AppFabric.PROGRAM_STATUS_EVENT_TOPIC, "cdap-programStatus");
+    messagingService.createTopic(new TopicMetadata(NamespaceId.SYSTEM.topic("cdap-programStatus")));
+
+    String newMetricsPrefix = "cdap-" + cConf.get(Constants.Metrics.TOPIC_PREFIX);
+    monitorCConf.set(Constants.Metrics.TOPIC_PREFIX, newMetricsPrefix);
+    for (int i = 0; i < monitorCConf.getInt(Constants.Metrics.MESSAGING_TOPIC_NUM); i++) {
+      messagingService.createTopic(new TopicMetadata(NamespaceId.SYSTEM.topic(newMetricsPrefix + i)));
+    }
+    return monitorCConf;
+  }
+
+  /**
+   * Runs a {@link RuntimeMonitor} for a new program run until it fetched the given number of messages.
+   *
+   * @return the number of bytes received by the monitor
+   */
+  private long fetchAllMessages(CConfiguration monitorCConf, ScheduledExecutorService scheduler,
+                                boolean compression, int expectedCount) throws Exception {
+    ProgramRunId programRunId = NamespaceId.DEFAULT.app("app1").workflow("testCompression").run(RunIds.generate());
+    RuntimeMonitorClient monitorClient = new RuntimeMonitorClient(HttpRequestConfig.DEFAULT,
+                                                                  clientKeyStore, serverKeyStore,
+                                                                  runtimeServer::getBindAddress, Proxy.NO_PROXY,
+                                                                  compression);
+    RecordingMetricsContext metricsContext = new RecordingMetricsContext();
+    RuntimeMonitor runtimeMonitor = new RuntimeMonitor(programRunId, monitorCConf, monitorClient,
+                                                       messagingContext, scheduler, monitorMessage -> { },
+                                                       new MockRemoteProcessController(), new NoOpProgramStateWriter(),
+                                                       transactionRunner, metricsContext);
+    runtimeMonitor.startAndWait();
+    try {
+      Tasks.waitFor((long) expectedCount, () -> metricsContext.getCount(FETCH_MESSAGES_METRIC),
+                    10, TimeUnit.SECONDS, 50, TimeUnit.MILLISECONDS);
+      return metricsContext.getCount(FETCH_BYTES_METRIC);
+    } finally {
+      runtimeMonitor.stopAndWait();
+    }
+  }
+
+  private List<String> fetchPayloads(String topic) throws Exception {
+    List<String> payloads = new ArrayList<>();
+    try (CloseableIterator<Message> iterator = messagingContext.getMessageFetcher()
+      .fetch(NamespaceId.SYSTEM.getNamespace(), topic, Integer.MAX_VALUE, null)) {
+      iterator.forEachRemaining(message -> payloads.add(message.getPayloadAsString()));
+    }
+    return payloads;
+  }
+
   private String verifyPublishedMessages(CConfiguration cConfig,
                                          int expectedCount, @Nullable final String messageId) throws Exception {
     final String[] lastProcessed = {null};
@@ -425,6 +563,49 @@ public class RuntimeMonitorTest {
     }
   }
 
+  /**
+   * A {@link MetricsContext} that keeps the sum of the increments and all the gauge values of each metric.
+   */
+  private static final class RecordingMetricsContext implements MetricsContext {
+
+    private final Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+    private final Map<String, List<Long>> gauges = new ConcurrentHashMap<>();
+
+    @Override
+    public MetricsContext childContext(Map<String, String> tags) {
+      return this;
+    }
+
+    @Override
+    public MetricsContext childContext(String tagName, String tagValue) {
+      return this;
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+      return Collections.emptyMap();
+    }
+
+    @Override
+    public void increment(String metricName, long value) {
+      counts.computeIfAbsent(metricName, name -> new AtomicLong()).addAndGet(value);
+    }
+
+    @Override
+    public void gauge(String metricName, long value) {
+      gauges.computeIfAbsent(metricName, name -> new CopyOnWriteArrayList<>()).add(value);
+    }
+
+    long getCount(String metricName) {
+      AtomicLong count = counts.get(metricName);
+      return count == null ? 0L : count.get();
+    }
+
+    List<Long> getGauges(String metricName) {
+      return new ArrayList<>(gauges.getOrDefault(metricName, Collections.emptyList()));
+    }
+  }
+
   private static final class MockRemoteProcessController implements RemoteProcessController {
 
     @Override
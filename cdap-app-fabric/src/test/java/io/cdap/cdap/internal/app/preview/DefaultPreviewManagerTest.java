@@ -34,6 +34,7 @@ import io.cdap.cdap.common.guice.ConfigModule;
 import io.cdap.cdap.common.guice.IOModule;
 import io.cdap.cdap.common.guice.InMemoryDiscoveryModule;
 import io.cdap.cdap.common.guice.NonCustomLocationUnitTestModule;
+import io.cdap.cdap.common.utils.Tasks;
 import io.cdap.cdap.config.guice.ConfigStoreModule;
 import io.cdap.cdap.data.runtime.DataFabricModules;
 import io.cdap.cdap.data.runtime.DataSetServiceModules;
@@ -69,6 +70,7 @@ import org.junit.rules.TemporaryFolder;
 import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Tests for {@link DefaultPreviewManager}.
@@ -174,6 +176,9 @@ public class DefaultPreviewManagerTest {
       Assert.assertEquals(2, cacheMap.size());
       Assert.assertTrue(cacheMap.containsKey(programId1.getParent()));
       Assert.assertTrue(cacheMap.containsKey(programId2.getParent()));
+
+      // A preview runtime should be started ahead of time for the next preview request
+      Tasks.waitFor(1, defaultPreviewManager::getPooledRuntimeCount, 2, TimeUnit.MINUTES);
     } finally {
       defaultPreviewManager.stopAndWait();
     }
@@ -0,0 +1,247 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.internal.app.runtime.batch;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Table;
+import io.cdap.cdap.api.metrics.MetricsCollectionService;
+import io.cdap.cdap.api.metrics.MetricsContext;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.common.metrics.NoOpMetricsCollectionService;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.Counters;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.StatusReporter;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tests for counting the metrics of MapReduce tasks in counters, which are published by the
+ * {@link MapReduceMetricsWriter} of the driver.
+ */
+public class CounterMetricsCollectionServiceTest {
+
+  private static final Map<String, String> PROGRAM_TAGS = ImmutableMap.of(
+    Constants.Metrics.Tag.NAMESPACE, "ns",
+    Constants.Metrics.Tag.APP, "app",
+    Constants.Metrics.Tag.MAPREDUCE, "mr",
+    Constants.Metrics.Tag.RUN_ID, "run");
+
+  @Test
+  public void testCounterGroupName() {
+    Map<String, String> tags = new HashMap<>(PROGRAM_TAGS);
+    tags.put(Constants.Metrics.Tag.MR_TASK_TYPE, "m");
+    tags.put(Constants.Metrics.Tag.INSTANCE_ID, "task_1");
+    tags.put(Constants.Metrics.Tag.DATASET, "a table&more=1");
+
+    // program tags and the task id are left out
+    String groupName = MapReduceMetricsUtil.getCounterGroupName(tags, PROGRAM_TAGS.keySet());
+    Assert.assertEquals(ImmutableMap.of(Constants.Metrics.Tag.MR_TASK_TYPE, "m",
+                                        Constants.Metrics.Tag.DATASET, "a table&more=1"),
+                        MapReduceMetricsUtil.getCounterGroupTags(groupName));
+    Assert.assertEquals(ImmutableMap.of(),
+                        MapReduceMetricsUtil.getCounterGroupTags(
+                          MapReduceMetricsUtil.getCounterGroupName(PROGRAM_TAGS, PROGRAM_TAGS.keySet())));
+
+    // other counter groups are not metrics
+    Assert.assertNull(MapReduceMetricsUtil.getCounterGroupTags("org.apache.hadoop.mapreduce.TaskCounter"));
+    Assert.assertNull(MapReduceMetricsUtil.getCounterGroupTags("cdap.metricsGroup"));
+
+    Configuration conf = new Configuration();
+    Assert.assertNull(MapReduceMetricsUtil.getCounterProgramTags(conf));
+    MapReduceMetricsUtil.setCounterProgramTags(conf, PROGRAM_TAGS.keySet());
+    Assert.assertEquals(PROGRAM_TAGS.keySet(), MapReduceMetricsUtil.getCounterProgramTags(conf));
+  }
+
+  @Test
+  public void testDriverPublish() throws Exception {
+    Table<Map<String, String>, String, Long> taskMetrics = HashBasedTable.create();
+    Table<Map<String, String>, String, Long> driverMetrics = HashBasedTable.create();
+    Map<String, String> taskTags = new HashMap<>(PROGRAM_TAGS);
+    taskTags.put(Constants.Metrics.Tag.MR_TASK_TYPE, "m");
+
+    Counters jobCounters = new Counters();
+    for (int i = 0; i < 2; i++) {
+      Counters taskCounters = new Counters();
+      CounterMetricsCollectionService service = createService(taskMetrics, PROGRAM_TAGS.keySet());
+      MetricsContext context = service.getContext(taskTags).childContext(Constants.Metrics.Tag.INSTANCE_ID,
+                                                                         "task" + i);
+      MetricsContext datasetContext = context.childContext(Constants.Metrics.Tag.DATASET, "ds");
+
+      // counts before the task is running are emitted directly
+      context.increment("records", 1);
+
+      service.setTaskContext(createTaskContext(taskCounters, i));
+      context.increment("records", 10);
+      context.increment("records", 5);
+      datasetContext.increment("ops", 2);
+      context.gauge("progress", 50);
+      jobCounters.incrAllCounters(taskCounters);
+    }
+
+    // only the counts before running and the gauges are emitted by the tasks
+    Assert.assertEquals(4, taskMetrics.size());
+    for (int i = 0; i < 2; i++) {
+      Map<String, String> tags = new HashMap<>(taskTags);
+      tags.put(Constants.Metrics.Tag.INSTANCE_ID, "task" + i);
+      Assert.assertEquals(1L, (long) taskMetrics.get(tags, "records"));
+      Assert.assertEquals(50L, (long) taskMetrics.get(tags, "progress"));
+    }
+
+    // the driver publishes the counts of all tasks as one, without the task id
+    MapReduceMetricsWriter metricsWriter =
+      new MapReduceMetricsWriter(Job.getInstance(new Configuration()),
+                                 new RecordingMetricsContext(PROGRAM_TAGS, driverMetrics));
+    metricsWriter.reportTaskMetrics(jobCounters);
+    Map<String, String> datasetTags = new HashMap<>(taskTags);
+    datasetTags.put(Constants.Metrics.Tag.DATASET, "ds");
+    Assert.assertEquals(2, driverMetrics.size());
+    Assert.assertEquals(30L, (long) driverMetrics.get(taskTags, "records"));
+    Assert.assertEquals(4L, (long) driverMetrics.get(datasetTags, "ops"));
+
+    // only the changes are published on the next report, which can be negative if a task attempt failed
+    String groupName = MapReduceMetricsUtil.getCounterGroupName(taskTags, PROGRAM_TAGS.keySet());
+    jobCounters.findCounter(groupName, "records").increment(7);
+    metricsWriter.reportTaskMetrics(jobCounters);
+    Assert.assertEquals(37L, (long) driverMetrics.get(taskTags, "records"));
+    Assert.assertEquals(4L, (long) driverMetrics.get(datasetTags, "ops"));
+    jobCounters.findCounter(groupName, "records").setValue(20);
+    metricsWriter.reportTaskMetrics(jobCounters);
+    Assert.assertEquals(20L, (long) driverMetrics.get(taskTags, "records"));
+  }
+
+  @Test
+  public void testCounterLimits() throws Exception {
+    Table<Map<String, String>, String, Long> taskMetrics = HashBasedTable.create();
+    Counters taskCounters = new Counters();
+    CounterMetricsCollectionService service = createService(taskMetrics, ImmutableSet.<String>of());
+    service.setTaskContext(createTaskContext(taskCounters, 0));
+
+    // metrics with names or tags too long for counters are emitted directly
+    String longName = Strings.repeat("m", 1000);
+    MetricsContext context = service.getContext(ImmutableMap.of(Constants.Metrics.Tag.NAMESPACE, "ns"));
+    context.increment(longName, 1);
+    context.childContext(Constants.Metrics.Tag.DATASET, longName).increment("ops", 1);
+    context.increment("records", 1);
+
+    Assert.assertEquals(1L, (long) taskMetrics.get(ImmutableMap.of(Constants.Metrics.Tag.NAMESPACE, "ns"),
+                                                   longName));
+    Assert.assertEquals(1L, (long) taskMetrics.get(ImmutableMap.of(Constants.Metrics.Tag.NAMESPACE, "ns",
+                                                                   Constants.Metrics.Tag.DATASET, longName), "ops"));
+    Assert.assertFalse(taskMetrics.containsColumn("records"));
+    Counter counter = taskCounters.findCounter(
+      MapReduceMetricsUtil.getCounterGroupName(ImmutableMap.of(Constants.Metrics.Tag.NAMESPACE, "ns"),
+                                               ImmutableSet.<String>of()), "records");
+    Assert.assertEquals(1L, counter.getValue());
+  }
+
+  private CounterMetricsCollectionService createService(final Table<Map<String, String>, String, Long> metrics,
+                                                        Set<String> programTags) {
+    MetricsCollectionService delegate = new NoOpMetricsCollectionService() {
+      @Override
+      public MetricsContext getContext(Map<String, String> tags) {
+        return new RecordingMetricsContext(tags, metrics);
+      }
+    };
+    return new CounterMetricsCollectionService(delegate, new Configuration(), programTags);
+  }
+
+  private TaskAttemptContextImpl createTaskContext(final Counters counters, int taskId) {
+    StatusReporter reporter = new StatusReporter() {
+      @Override
+      public Counter getCounter(Enum<?> name) {
+        return counters.findCounter(name);
+      }
+
+      @Override
+      public Counter getCounter(String group, String name) {
+        return counters.findCounter(group, name);
+      }
+
+      @Override
+      public void progress() {
+        // no-op
+      }
+
+      @Override
+      public float getProgress() {
+        return 0f;
+      }
+
+      @Override
+      public void setStatus(String status) {
+        // no-op
+      }
+    };
+    return new TaskAttemptContextImpl(new Configuration(), new TaskAttemptID("job", 1, TaskType.MAP, taskId, 0),
+                                      reporter);
+  }
+
+  /**
+   * A {@link MetricsContext} that records the latest value of gauges and the sum of increments by tags.
+   */
+  private static final class RecordingMetricsContext implements MetricsContext {
+
+    private final Map<String, String> tags;
+    private final Table<Map<String, String>, String, Long> metrics;
+
+    RecordingMetricsContext(Map<String, String> tags, Table<Map<String, String>, String, Long> metrics) {
+      this.tags = ImmutableMap.copyOf(tags);
+      this.metrics = metrics;
+    }
+
+    @Override
+    public synchronized void increment(String metricName, long value) {
+      Long current = metrics.get(tags, metricName);
+      metrics.put(tags, metricName, current == null ? value : current + value);
+    }
+
+    @Override
+    public synchronized void gauge(String metricName, long value) {
+      metrics.put(tags, metricName, value);
+    }
+
+    @Override
+    public MetricsContext childContext(Map<String, String> tags) {
+      Map<String, String> childTags = new HashMap<>(this.tags);
+      childTags.putAll(tags);
+      return new RecordingMetricsContext(childTags, metrics);
+    }
+
+    @Override
+    public MetricsContext childContext(String tagName, String tagValue) {
+      return childContext(ImmutableMap.of(tagName, tagValue));
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+      return tags;
+    }
+  }
+}
@@ -31,6 +31,7 @@ import io.cdap.cdap.api.Transactional;
 import io.cdap.cdap.api.Transactionals;
 import io.cdap.cdap.api.TxCallable;
 import io.cdap.cdap.api.TxRunnable;
+import io.cdap.cdap.api.annotation.ReadSnapshot;
 import io.cdap.cdap.api.annotation.TransactionControl;
 import io.cdap.cdap.api.annotation.TransactionPolicy;
 import io.cdap.cdap.api.app.ApplicationSpecification;
@@ -103,6 +104,7 @@ import javax.ws.rs.PathParam;
 public class HttpHandlerGeneratorTest {
 
   private static final String IN_TX = "in-tx";
+  private static final String READ_SNAPSHOT_STALENESS = "read-snapshot-staleness";
 
   @ClassRule
   public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
@@ -173,6 +175,24 @@ public class HttpHandlerGeneratorTest {
     public void exceptionNoTx(HttpServiceRequest request, HttpServiceResponder responder) throws Exception {
       throw new Exception("exceptionNoTx");
     }
+
+    @Path("/snapshot")
+    @GET
+    @ReadSnapshot(maxStalenessMillis = 5000L)
+    public void snapshot(HttpServiceRequest request, HttpServiceResponder responder) {
+      Assert.assertNotNull(System.getProperty(IN_TX));
+      responder.sendString(System.getProperty(READ_SNAPSHOT_STALENESS));
+    }
+
+    @TransactionPolicy(TransactionControl.EXPLICIT)
+    @Path("/snapshotNoTx")
+    @GET
+    @ReadSnapshot
+    public void snapshotNoTx(HttpServiceRequest request, HttpServiceResponder responder) {
+      Assert.assertNull(System.getProperty(IN_TX));
+      Assert.assertNull(System.getProperty(READ_SNAPSHOT_STALENESS));
+      responder.sendString("no snapshot");
+    }
   }
 
   // Omit class-level PATH annotation, to verify that prefix is still prepended to handled path.
@@ -585,6 +605,19 @@ public class HttpHandlerGeneratorTest {
       Assert.assertEquals("Exception occurred while handling request: exceptionNoTx",
                           new String(ByteStreams.toByteArray(((HttpURLConnection) urlConn).getErrorStream()), "UTF-8"));
 
+      // Call to a read only method, which should be served from a read snapshot with the annotated staleness
+      urlConn = new URL(String.format("http://%s:%d/prefix/p2/snapshot",
+                                      bindAddress.getHostName(), bindAddress.getPort())).openConnection();
+      urlConn.setReadTimeout(2000);
+      Assert.assertEquals("5000", new String(ByteStreams.toByteArray(urlConn.getInputStream()), Charsets.UTF_8));
+
+      // A read only method with explicit transaction control doesn't use a read snapshot
+      urlConn = new URL(String.format("http://%s:%d/prefix/p2/snapshotNoTx",
+                                      bindAddress.getHostName(), bindAddress.getPort())).openConnection();
+      urlConn.setReadTimeout(2000);
+      Assert.assertEquals("no snapshot",
+                          new String(ByteStreams.toByteArray(urlConn.getInputStream()), Charsets.UTF_8));
+
     } finally {
       service.stop();
     }
@@ -625,6 +658,17 @@ public class HttpHandlerGeneratorTest {
           return callable.call();
         }
 
+        @Override
+        public void executeWithReadSnapshot(ThrowingRunnable runnable, long maxStalenessMillis) throws Exception {
+          // record the staleness so that the handler method can verify it is called through a read snapshot
+          System.setProperty(READ_SNAPSHOT_STALENESS, Long.toString(maxStalenessMillis));
+          try {
+            execute(runnable, true);
+          } finally {
+            System.clearProperty(READ_SNAPSHOT_STALENESS);
+          }
+        }
+
         @Override
         public void releaseCallResources() {
           // no-op
@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.runtime.workflow;
+
+import io.cdap.cdap.api.workflow.NodeStatus;
+import io.cdap.cdap.api.workflow.WorkflowToken;
+import io.cdap.cdap.proto.WorkflowNodeStateDetail;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.id.ProgramRunId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link CoalescingWorkflowStateWriter}.
+ */
+public class CoalescingWorkflowStateWriterTest {
+
+  private static final ProgramRunId RUN_ID = NamespaceId.DEFAULT.app("app").workflow("workflow").run("run");
+
+  @Test
+  public void testSkipUnmodifiedToken() {
+    RecordingStateWriter recorder = new RecordingStateWriter();
+    WorkflowStateWriter writer = new CoalescingWorkflowStateWriter(recorder);
+
+    BasicWorkflowToken token = new BasicWorkflowToken(1);
+    token.setCurrentNode("node1");
+    token.put("k1", "v1");
+    writer.setWorkflowToken(RUN_ID, token);
+    // the token is not modified, so it should not be written again
+    writer.setWorkflowToken(RUN_ID, token);
+    Assert.assertEquals(1, recorder.tokenWrites);
+
+    token.put("k1", "v2");
+    writer.setWorkflowToken(RUN_ID, token);
+    Assert.assertEquals(2, recorder.tokenWrites);
+
+    // a copy is a different token, e.g. the one of a fork branch, and gets written
+    BasicWorkflowToken copy = (BasicWorkflowToken) token.deepCopy();
+    writer.setWorkflowToken(RUN_ID, copy);
+    Assert.assertEquals(3, recorder.tokenWrites);
+
+    // the node state is always written, together with the token only if it got modified
+    writer.setWorkflowState(RUN_ID, token, new WorkflowNodeStateDetail("node1", NodeStatus.COMPLETED));
+    Assert.assertEquals(3, recorder.tokenWrites);
+    Assert.assertEquals(0, recorder.combinedWrites);
+    Assert.assertEquals(1, recorder.nodeStates.size());
+
+    token.setCurrentNode("node2");
+    token.put("k2", "v1");
+    writer.setWorkflowState(RUN_ID, token, new WorkflowNodeStateDetail("node2", NodeStatus.COMPLETED));
+    Assert.assertEquals(1, recorder.combinedWrites);
+    Assert.assertEquals(2, recorder.nodeStates.size());
+  }
+
+  /**
+   * A {@link WorkflowStateWriter} that records the writes.
+   */
+  private static final class RecordingStateWriter implements WorkflowStateWriter {
+
+    private final List<WorkflowNodeStateDetail> nodeStates = new ArrayList<>();
+    private int tokenWrites;
+    private int combinedWrites;
+
+    @Override
+    public void setWorkflowToken(ProgramRunId workflowRunId, WorkflowToken token) {
+      tokenWrites++;
+    }
+
+    @Override
+    public void addWorkflowNodeState(ProgramRunId workflowRunId, WorkflowNodeStateDetail nodeStateDetail) {
+      nodeStates.add(nodeStateDetail);
+    }
+
+    @Override
+    public void setWorkflowState(ProgramRunId workflowRunId, WorkflowToken token,
+                                 WorkflowNodeStateDetail nodeStateDetail) {
+      combinedWrites++;
+      nodeStates.add(nodeStateDetail);
+    }
+  }
+}
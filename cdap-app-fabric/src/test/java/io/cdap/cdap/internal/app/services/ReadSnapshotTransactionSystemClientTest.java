@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.services;
+
+import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.api.metrics.MetricsContext;
+import io.cdap.cdap.api.metrics.NoopMetricsContext;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.tephra.Transaction;
+import org.apache.tephra.TransactionFailureException;
+import org.apache.tephra.TransactionManager;
+import org.apache.tephra.inmemory.InMemoryTxSystemClient;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for {@link ReadSnapshotTransactionSystemClient}.
+ */
+public class ReadSnapshotTransactionSystemClientTest {
+
+  private static final MetricsContext METRICS_CONTEXT = new NoopMetricsContext();
+
+  private TransactionManager txManager;
+  private ReadSnapshotTransactionSystemClient txClient;
+
+  @Before
+  public void before() {
+    txManager = new TransactionManager(new Configuration());
+    txManager.startAndWait();
+    txClient = new ReadSnapshotTransactionSystemClient(new InMemoryTxSystemClient(txManager), 30);
+  }
+
+  @After
+  public void after() {
+    txManager.stopAndWait();
+  }
+
+  @Test
+  public void testSnapshotReuse() throws Exception {
+    AtomicReference<Transaction> first = new AtomicReference<>();
+    AtomicReference<Transaction> second = new AtomicReference<>();
+
+    txClient.execute(() -> first.set(startAndCommit()), TimeUnit.HOURS.toMillis(1), METRICS_CONTEXT);
+    txClient.execute(() -> second.set(startAndCommit()), TimeUnit.HOURS.toMillis(1), METRICS_CONTEXT);
+
+    // Both calls are served from the same snapshot, which stays in progress
+    Assert.assertEquals(first.get().getTransactionId(), second.get().getTransactionId());
+    Assert.assertTrue(isInProgress(first.get()));
+
+    // A call that doesn't tolerate staleness starts a new snapshot, and the old one is aborted
+    TimeUnit.MILLISECONDS.sleep(10);
+    txClient.execute(() -> second.set(startAndCommit()), 0L, METRICS_CONTEXT);
+    Assert.assertNotEquals(first.get().getTransactionId(), second.get().getTransactionId());
+    Assert.assertFalse(isInProgress(first.get()));
+    Assert.assertTrue(isInProgress(second.get()));
+
+    // Outside of execute, transactions are not served from the snapshot
+    Transaction tx = txClient.startShort();
+    Assert.assertNotEquals(second.get().getTransactionId(), tx.getTransactionId());
+    txClient.commitOrThrow(tx);
+
+    // Closing aborts the current snapshot
+    txClient.close();
+    Assert.assertFalse(isInProgress(second.get()));
+  }
+
+  @Test
+  public void testSnapshotInUse() throws Exception {
+    AtomicReference<Transaction> outer = new AtomicReference<>();
+    AtomicReference<Transaction> inner = new AtomicReference<>();
+
+    txClient.execute(() -> {
+      outer.set(startAndCommit());
+      TimeUnit.MILLISECONDS.sleep(10);
+      // Refreshing the snapshot from another thread must not abort the snapshot in use
+      Thread t = new Thread(() -> {
+        try {
+          txClient.execute(() -> inner.set(startAndCommit()), 0L, METRICS_CONTEXT);
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      });
+      t.start();
+      t.join();
+      Assert.assertTrue(isInProgress(outer.get()));
+    }, TimeUnit.HOURS.toMillis(1), METRICS_CONTEXT);
+
+    Assert.assertNotEquals(outer.get().getTransactionId(), inner.get().getTransactionId());
+    Assert.assertFalse(isInProgress(outer.get()));
+  }
+
+  @Test
+  public void testWriteNotAllowed() throws Exception {
+    txClient.execute(() -> {
+      Transaction tx = txClient.startShort();
+      try {
+        txClient.canCommitOrThrow(tx, Collections.singleton(Bytes.toBytes("change")));
+        Assert.fail("Expected writes to a read snapshot to fail");
+      } catch (TransactionFailureException e) {
+        // expected
+      }
+      txClient.abort(tx);
+      Assert.assertTrue(isInProgress(tx));
+    }, TimeUnit.HOURS.toMillis(1), METRICS_CONTEXT);
+  }
+
+  private Transaction startAndCommit() throws TransactionFailureException {
+    Transaction tx = txClient.startShort(10);
+    txClient.canCommitOrThrow(tx, Collections.emptyList());
+    txClient.commitOrThrow(tx);
+    return tx;
+  }
+
+  private boolean isInProgress(Transaction tx) {
+    return txManager.getCurrentState().getInProgress().containsKey(tx.getWritePointer());
+  }
+}
@@ -626,6 +626,52 @@ public abstract class AppMetadataStoreTest {
     });
   }
 
+  @Test
+  public void testBatchedRunRecordUpdates() throws Exception {
+    ProgramId programId = NamespaceId.DEFAULT.app("batchApp").workflow("batchProgram");
+    ProgramRunId existingRun = programId.run(RunIds.generate(runIdTime.incrementAndGet()));
+    ProgramRunId newRun = programId.run(RunIds.generate(runIdTime.incrementAndGet()));
+
+    TransactionRunners.run(transactionRunner, context -> {
+      recordProvisionAndStart(existingRun, AppMetadataStore.create(context));
+    });
+
+    TransactionRunners.run(transactionRunner, context -> {
+      AppMetadataStore store = AppMetadataStore.create(context);
+      store.beginRunRecordBatch(Arrays.asList(existingRun, newRun));
+
+      // apply a sequence of transitions to both runs
+      long startTime = RunIds.getTime(existingRun.getRun(), TimeUnit.SECONDS);
+      Assert.assertNotNull(store.recordProgramRunning(existingRun, startTime, null,
+                                                      AppFabricTestHelper.createSourceId(sourceId.incrementAndGet())));
+      Assert.assertNotNull(store.recordProgramStop(existingRun, startTime, ProgramRunStatus.COMPLETED, null,
+                                                   AppFabricTestHelper.createSourceId(sourceId.incrementAndGet())));
+      recordProvisionAndStart(newRun, store);
+
+      // the batch reflects the transitions, while they are not yet written
+      Assert.assertEquals(ProgramRunStatus.COMPLETED, store.getRun(existingRun).getStatus());
+      Assert.assertEquals(ProgramRunStatus.STARTING, store.getRun(newRun).getStatus());
+      AppMetadataStore otherStore = AppMetadataStore.create(context);
+      Assert.assertEquals(ProgramRunStatus.STARTING, otherStore.getRun(existingRun).getStatus());
+      Assert.assertNull(otherStore.getRun(newRun));
+
+      // a transition that is not valid for the batched state must be ignored
+      Assert.assertNull(store.recordProgramSuspend(existingRun,
+                                                   AppFabricTestHelper.createSourceId(sourceId.incrementAndGet()), -1));
+
+      store.flushRunRecordBatch();
+    });
+
+    TransactionRunners.run(transactionRunner, context -> {
+      AppMetadataStore store = AppMetadataStore.create(context);
+      Assert.assertEquals(ProgramRunStatus.COMPLETED, store.getRun(existingRun).getStatus());
+      Assert.assertEquals(ProgramRunStatus.STARTING, store.getRun(newRun).getStatus());
+      // the completed run must have been removed from the active runs
+      Assert.assertEquals(Collections.singleton(newRun), store.getActiveRuns(programId).keySet());
+      Assert.assertEquals(2L, store.getProgramRunCount(programId));
+    });
+  }
+
   @Test
   public void testOrderedActiveRuns() throws Exception {
     ProgramId programId = NamespaceId.DEFAULT.app("test").workflow("test");
@@ -18,12 +18,18 @@ package io.cdap.cdap.internal.app.store.remote;
 
 import com.google.common.collect.ImmutableSet;
 import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.common.utils.Tasks;
 import io.cdap.cdap.proto.security.Action;
+import io.cdap.cdap.proto.security.Authorizable;
 import io.cdap.cdap.security.authorization.RemoteAuthorizationEnforcer;
+import io.cdap.cdap.security.spi.authorization.UnauthorizedException;
 import org.junit.Assert;
 import org.junit.BeforeClass;
+import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Test {@link RemoteAuthorizationEnforcer} with cache enabled.
@@ -33,6 +39,7 @@ public class RemotePrivilegesCacheTest extends RemotePrivilegesTestBase {
   @BeforeClass
   public static void beforeClass() throws IOException, InterruptedException {
     cConf.setInt(Constants.Security.Authorization.CACHE_MAX_ENTRIES, 10000);
+    cConf.setLong(Constants.Security.Authorization.PRIVILEGE_CHANGE_POLL_DELAY_MILLIS, 100L);
     RemotePrivilegesTestBase.setup();
   }
 
@@ -53,4 +60,29 @@ public class RemotePrivilegesCacheTest extends RemotePrivilegesTestBase {
     Assert.assertEquals(ImmutableSet.of(NS, APP, PROGRAM),
                         authorizationEnforcer.isVisible(ImmutableSet.of(NS, APP, PROGRAM), ALICE));
   }
+
+  @Test
+  public void testPrivilegeChangeInvalidation() throws Exception {
+    // The enforcer from the injector has the messaging service, hence watches privilege changes
+    RemoteAuthorizationEnforcer enforcer = injector.getInstance(RemoteAuthorizationEnforcer.class);
+    try {
+      privilegesManager.grant(Authorizable.fromEntityId(APP), CAROL, Collections.singleton(Action.ADMIN));
+      long cachedTime = System.nanoTime();
+      enforcer.enforce(APP, CAROL, Action.ADMIN);
+
+      // The revoke is published, which should discard the cached result before it expires
+      privilegesManager.revoke(Authorizable.fromEntityId(APP));
+      Tasks.waitFor(true, () -> {
+        try {
+          enforcer.enforce(APP, CAROL, Action.ADMIN);
+          return false;
+        } catch (UnauthorizedException e) {
+          return true;
+        }
+      }, CACHE_TIMEOUT - 1, TimeUnit.SECONDS, 50, TimeUnit.MILLISECONDS);
+      Assert.assertTrue(System.nanoTime() - cachedTime < TimeUnit.SECONDS.toNanos(CACHE_TIMEOUT));
+    } finally {
+      enforcer.close();
+    }
+  }
 }
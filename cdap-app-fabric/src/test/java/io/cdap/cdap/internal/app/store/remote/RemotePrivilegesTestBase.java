@@ -17,6 +17,7 @@
 package io.cdap.cdap.internal.app.store.remote;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.inject.Injector;
 import io.cdap.cdap.common.conf.CConfiguration;
@@ -55,6 +56,7 @@ import org.junit.rules.TemporaryFolder;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.jar.Attributes;
@@ -75,11 +77,12 @@ public abstract class RemotePrivilegesTestBase {
   protected static final NamespaceId NS = new NamespaceId("ns");
   protected static final ApplicationId APP = NS.app("app");
   protected static final ProgramId PROGRAM = APP.program(ProgramType.SERVICE, "ser");
-  private static final int CACHE_TIMEOUT = 3;
+  protected static final int CACHE_TIMEOUT = 3;
 
   protected static AuthorizationEnforcer authorizationEnforcer;
   protected static PrivilegesManager privilegesManager;
   protected static CConfiguration cConf = CConfiguration.create();
+  protected static Injector injector;
 
   private static DiscoveryServiceClient discoveryService;
   private static AppFabricServer appFabricServer;
@@ -95,12 +98,13 @@ public abstract class RemotePrivilegesTestBase {
     LocationFactory locationFactory = new LocalLocationFactory(TEMPORARY_FOLDER.newFolder());
     Location externalAuthJar = AppJarHelper.createDeploymentJar(locationFactory, InMemoryAuthorizer.class, manifest);
     cConf.set(Constants.Security.Authorization.EXTENSION_JAR_PATH, externalAuthJar.toString());
-    Injector injector = AppFabricTestHelper.getInjector(cConf);
+    injector = AppFabricTestHelper.getInjector(cConf);
     discoveryService = injector.getInstance(DiscoveryServiceClient.class);
     appFabricServer = injector.getInstance(AppFabricServer.class);
     appFabricServer.startAndWait();
     waitForService(Constants.Service.APP_FABRIC_HTTP);
-    authorizationEnforcer = injector.getInstance(RemoteAuthorizationEnforcer.class);
+    // Not watching privilege changes, so that cached results are only discarded by expiry in these tests
+    authorizationEnforcer = new RemoteAuthorizationEnforcer(cConf, discoveryService);
     privilegesManager = injector.getInstance(PrivilegesManager.class);
   }
 
@@ -155,6 +159,29 @@ public abstract class RemotePrivilegesTestBase {
     privilegesManager.revoke(Authorizable.fromEntityId(NS));
   }
 
+  @Test
+  public void testUnauthorizedActions() throws Exception {
+    privilegesManager.grant(Authorizable.fromEntityId(NS), ALICE, EnumSet.of(Action.READ, Action.WRITE));
+    privilegesManager.grant(Authorizable.fromEntityId(PROGRAM), ALICE, Collections.singleton(Action.EXECUTE));
+
+    Map<EntityId, Set<Action>> entityActions = ImmutableMap.of(NS, EnumSet.of(Action.READ, Action.ADMIN),
+                                                               APP, EnumSet.of(Action.ADMIN),
+                                                               PROGRAM, EnumSet.of(Action.EXECUTE));
+    Assert.assertEquals(ImmutableMap.of(NS, EnumSet.of(Action.ADMIN), APP, EnumSet.of(Action.ADMIN)),
+                        authorizationEnforcer.getUnauthorizedActions(entityActions, ALICE));
+    Assert.assertEquals(entityActions, authorizationEnforcer.getUnauthorizedActions(entityActions, BOB));
+
+    try {
+      authorizationEnforcer.enforce(NS, ALICE, EnumSet.of(Action.READ, Action.ADMIN));
+      Assert.fail();
+    } catch (UnauthorizedException e) {
+      // expected
+    }
+
+    privilegesManager.revoke(Authorizable.fromEntityId(PROGRAM));
+    privilegesManager.revoke(Authorizable.fromEntityId(NS));
+  }
+
   @Test
   public void testVisibility() throws Exception {
     ApplicationId app1 = NS.app("app1");
@@ -202,6 +229,7 @@ public abstract class RemotePrivilegesTestBase {
 
   @AfterClass
   public static void tearDown() {
+    ((RemoteAuthorizationEnforcer) authorizationEnforcer).close();
     appFabricServer.stopAndWait();
     AppFabricTestHelper.shutdown();
   }
@@ -54,6 +54,7 @@ public class MockProvisioner implements Provisioner {
   public static final String FIRST_CLUSTER_STATUS = "first.cluster.status";
   public static final String WAIT_CREATE_MS = "wait.create";
   public static final String WAIT_DELETE_MS = "wait.delete";
+  public static final String REUSABLE = "reusable";
   private static final ProvisionerSpecification SPEC = new ProvisionerSpecification(
     NAME, "Native", "Runs programs on the CDAP master cluster. Does not provision any resources.");
   private final AtomicInteger callCount;
@@ -138,6 +139,11 @@ public class MockProvisioner implements Provisioner {
     return NativeProvisioner.SYSTEM_DATASETS;
   }
 
+  @Override
+  public boolean isClusterReusable(Map<String, String> properties) {
+    return Boolean.parseBoolean(properties.get(REUSABLE));
+  }
+
   // throws a RetryableProvisionException every other time this is called
   private void failRetryablyEveryN(ProvisionerContext context) throws RetryableProvisionException {
     String nStr = context.getProperties().get(FAIL_RETRYABLY_EVERY_N);
@@ -174,6 +180,7 @@ public class MockProvisioner implements Provisioner {
     private long waitCreateMillis = -1L;
     private long waitDeleteMillis = -1L;
     private ClusterStatus firstClusterStatus;
+    private boolean reusable = false;
 
     /**
      * Configures the provisioner to fail in a retryable fashion every Nth method call.
@@ -240,6 +247,14 @@ public class MockProvisioner implements Provisioner {
       return this;
     }
 
+    /**
+     * Configures the provisioner to allow clusters to be reused by other program runs.
+     */
+    public PropertyBuilder reusable() {
+      reusable = true;
+      return this;
+    }
+
     public ProvisionerInfo build() {
       List<ProvisionerPropertyValue> properties = new ArrayList<>();
       properties.add(new ProvisionerPropertyValue(FAIL_CREATE, Boolean.toString(failCreate), true));
@@ -248,6 +263,7 @@ public class MockProvisioner implements Provisioner {
       properties.add(new ProvisionerPropertyValue(FAIL_DELETE, Boolean.toString(failDelete), true));
       properties.add(new ProvisionerPropertyValue(WAIT_CREATE_MS, Long.toString(waitCreateMillis), true));
       properties.add(new ProvisionerPropertyValue(WAIT_DELETE_MS, Long.toString(waitDeleteMillis), true));
+      properties.add(new ProvisionerPropertyValue(REUSABLE, Boolean.toString(reusable), true));
       if (failRetryablyEveryN != null) {
         properties.add(new ProvisionerPropertyValue(FAIL_RETRYABLY_EVERY_N,
                                                     Integer.toString(failRetryablyEveryN), true));
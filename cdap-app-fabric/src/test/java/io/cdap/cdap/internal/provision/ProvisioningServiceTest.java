@@ -96,6 +96,9 @@ public class ProvisioningServiceTest {
   public static void setupClass() throws Exception {
     CConfiguration cConf = CConfiguration.create();
     cConf.set(Constants.CFG_LOCAL_DATA_DIR, TEMP_FOLDER.newFolder().getAbsolutePath());
+    // only applies to runs with the reusable property set
+    cConf.setBoolean(Constants.Provisioner.CLUSTER_POOL_ENABLED, true);
+    cConf.setInt(Constants.Provisioner.CLUSTER_POOL_MAX_IDLE, 1);
 
     Injector injector = Guice.createInjector(new AppFabricTestModule(cConf));
     txManager = injector.getInstance(TransactionManager.class);
@@ -248,6 +251,41 @@ public class ProvisioningServiceTest {
     testDeprovision(taskFields.programRunId, ProvisioningOp.Status.FAILED);
   }
 
+  @Test
+  public void testClusterReuse() throws Exception {
+    ProvisionerInfo provisionerInfo = new MockProvisioner.PropertyBuilder().reusable().build();
+    TaskFields first = testProvision(ProvisioningOp.Status.CREATED, provisionerInfo);
+    Cluster cluster = provisionerStore.getTaskInfo(
+      new ProvisioningTaskKey(first.programRunId, ProvisioningOp.Type.PROVISION)).getCluster();
+
+    // the cluster is kept in the pool instead of being deleted
+    Runnable task = TransactionRunners.run(transactionRunner, context -> {
+      return provisioningService.deprovision(first.programRunId, context, t -> { });
+    });
+    task.run();
+    Assert.assertNull(provisionerStore.getTaskInfo(new ProvisioningTaskKey(first.programRunId,
+                                                                           ProvisioningOp.Type.DEPROVISION)));
+
+    // the next run with the same properties reuses the cluster
+    TaskFields second = testProvision(ProvisioningOp.Status.CREATED, provisionerInfo);
+    ProvisioningTaskInfo taskInfo = provisionerStore.getTaskInfo(
+      new ProvisioningTaskKey(second.programRunId, ProvisioningOp.Type.PROVISION));
+    Assert.assertEquals(cluster.getName(), taskInfo.getCluster().getName());
+
+    // the pool is empty now, hence another run gets a new cluster
+    TaskFields third = testProvision(ProvisioningOp.Status.CREATED, provisionerInfo);
+    taskInfo = provisionerStore.getTaskInfo(new ProvisioningTaskKey(third.programRunId,
+                                                                    ProvisioningOp.Type.PROVISION));
+    Assert.assertEquals(third.programRunId.getRun(), taskInfo.getCluster().getName());
+
+    // the pool only keeps one idle cluster, hence the cluster of the third run is deleted
+    task = TransactionRunners.run(transactionRunner, context -> {
+      return provisioningService.deprovision(second.programRunId, context, t -> { });
+    });
+    task.run();
+    testDeprovision(third.programRunId, ProvisioningOp.Status.DELETED);
+  }
+
   @Test
   public void testScanForTasks() throws Exception {
     // write state for a provision operation that is polling for the cluster to be created
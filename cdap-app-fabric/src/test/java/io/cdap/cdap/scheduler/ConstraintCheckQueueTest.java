@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.scheduler;
+
+import com.google.common.collect.ImmutableSet;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.proto.id.ApplicationId;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.id.ProgramId;
+import io.cdap.cdap.proto.id.ScheduleId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link ConstraintCheckQueue}.
+ */
+public class ConstraintCheckQueueTest {
+
+  private static final ApplicationId APP_ID = NamespaceId.DEFAULT.app("app");
+  private static final ProgramId PROGRAM_ID = APP_ID.workflow("wf");
+  private static final ScheduleId SCHEDULE_1 = APP_ID.schedule("schedule1");
+  private static final ScheduleId SCHEDULE_2 = APP_ID.schedule("schedule2");
+
+  @Test
+  public void testDueOrdering() throws InterruptedException {
+    ConstraintCheckQueue queue = createQueue();
+    long now = System.currentTimeMillis();
+
+    // Nothing due, so it should return empty once the deadline passes
+    Assert.assertTrue(queue.awaitDueSchedules(0, now + 50).isEmpty());
+
+    queue.scheduleCheck(SCHEDULE_1, now + TimeUnit.HOURS.toMillis(1));
+    queue.scheduleCheck(SCHEDULE_2, now - 1);
+    Assert.assertEquals(Collections.singletonList(SCHEDULE_2), queue.awaitDueSchedules(0, now + 50));
+    Assert.assertTrue(queue.awaitDueSchedules(0, System.currentTimeMillis() + 50).isEmpty());
+
+    // An earlier check time replaces the later one
+    queue.scheduleCheck(SCHEDULE_1, now - 1);
+    Assert.assertEquals(Collections.singletonList(SCHEDULE_1), queue.awaitDueSchedules(0, now + 50));
+    Assert.assertTrue(queue.awaitDueSchedules(0, System.currentTimeMillis() + 50).isEmpty());
+  }
+
+  @Test
+  public void testWakeup() throws Exception {
+    ConstraintCheckQueue queue = createQueue();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Collection<ScheduleId>> future = executor.submit(
+        () -> queue.awaitDueSchedules(0, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1)));
+      queue.checkNow(Collections.singleton(SCHEDULE_1));
+      Assert.assertEquals(Collections.singletonList(SCHEDULE_1), future.get(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testRunCompletion() throws InterruptedException {
+    ConstraintCheckQueue queue = createQueue();
+    queue.checkOnRunCompletion(SCHEDULE_1, PROGRAM_ID);
+    queue.checkOnRunCompletion(SCHEDULE_2, PROGRAM_ID);
+
+    // Completion of an unrelated program doesn't trigger a check
+    queue.runsCompleted(Collections.singleton(APP_ID.workflow("other")));
+    Assert.assertTrue(queue.awaitDueSchedules(0, System.currentTimeMillis() + 50).isEmpty());
+
+    queue.runsCompleted(Collections.singleton(PROGRAM_ID));
+    Assert.assertEquals(ImmutableSet.of(SCHEDULE_1, SCHEDULE_2),
+                        ImmutableSet.copyOf(queue.awaitDueSchedules(0, System.currentTimeMillis() + 50)));
+
+    // Waiters are only signaled once
+    queue.runsCompleted(Collections.singleton(PROGRAM_ID));
+    Assert.assertTrue(queue.awaitDueSchedules(0, System.currentTimeMillis() + 50).isEmpty());
+  }
+
+  private ConstraintCheckQueue createQueue() {
+    CConfiguration cConf = CConfiguration.create();
+    // Use a single partition so that all schedules go to partition 0
+    cConf.setInt(Constants.Scheduler.JOB_QUEUE_NUM_PARTITIONS, 1);
+    return new ConstraintCheckQueue(cConf);
+  }
+}
@@ -63,6 +63,7 @@ import io.cdap.cdap.etl.batch.WorkflowBackedActionContext;
 import io.cdap.cdap.etl.batch.condition.PipelineCondition;
 import io.cdap.cdap.etl.batch.connector.AlertPublisherSink;
 import io.cdap.cdap.etl.batch.connector.AlertReader;
+import io.cdap.cdap.etl.batch.connector.ConnectorFormat;
 import io.cdap.cdap.etl.batch.connector.ConnectorSource;
 import io.cdap.cdap.etl.batch.connector.MultiConnectorSource;
 import io.cdap.cdap.etl.batch.customaction.PipelineAction;
@@ -357,20 +358,39 @@ public class SmartWorkflow extends AbstractWorkflow {
     PipelinePlanner planner;
     Set<String> actionTypes = ImmutableSet.of(Action.PLUGIN_TYPE, Constants.SPARK_PROGRAM_PLUGIN_TYPE);
     Set<String> multiPortTypes = ImmutableSet.of(SplitterTransform.PLUGIN_TYPE);
+    ConnectorFormat connectorFormat = getConnectorFormat();
     if (useSpark) {
       // if the pipeline uses spark, we don't need to break the pipeline up into phases, we can just have
       // a single phase.
       planner = new PipelinePlanner(supportedPluginTypes, ImmutableSet.of(), ImmutableSet.of(),
-                                    actionTypes, multiPortTypes);
+                                    actionTypes, multiPortTypes, connectorFormat);
     } else {
       planner = new PipelinePlanner(supportedPluginTypes,
                                     ImmutableSet.of(BatchAggregator.PLUGIN_TYPE, BatchJoiner.PLUGIN_TYPE),
                                     ImmutableSet.of(SparkCompute.PLUGIN_TYPE, SparkSink.PLUGIN_TYPE),
-                                    actionTypes, multiPortTypes);
+                                    actionTypes, multiPortTypes, connectorFormat);
     }
     return planner.plan(spec);
   }
 
+  /**
+   * Returns the format of the connector datasets, which can be set through a pipeline property.
+   * Connectors use Avro data files unless the text format is requested.
+   */
+  private ConnectorFormat getConnectorFormat() {
+    String format = config.getProperties().get(Constants.Connector.FORMAT_PROPERTY);
+    if (format == null) {
+      return ConnectorFormat.AVRO;
+    }
+    try {
+      return ConnectorFormat.valueOf(format.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(
+        String.format("Invalid value '%s' for pipeline property '%s'. It must be one of %s.",
+                      format, Constants.Connector.FORMAT_PROPERTY, Arrays.toString(ConnectorFormat.values())), e);
+    }
+  }
+
   private void updateTokenWithTriggeringProperties(TriggeringScheduleInfo scheduleInfo,
                                                    TriggeringPropertyMapping propertiesMapping,
                                                    WorkflowToken token) {
@@ -676,7 +696,8 @@ public class SmartWorkflow extends AbstractWorkflow {
         connectorDatasets.put(connectorName, datasetName);
         phaseConnectorDatasets.put(connectorName, datasetName);
         // add the local dataset
-        ConnectorSource connectorSource = new MultiConnectorSource(datasetName, null);
+        ConnectorSource connectorSource = new MultiConnectorSource(datasetName, null,
+                                                                   ConnectorFormat.of(connectorInfo));
         connectorSource.configure(getConfigurer());
       } else {
         phaseConnectorDatasets.put(connectorName, connectorDatasets.get(connectorName));
@@ -85,6 +85,7 @@ import io.cdap.cdap.etl.mock.batch.MockSink;
 import io.cdap.cdap.etl.mock.batch.MockSource;
 import io.cdap.cdap.etl.mock.batch.NodeStatesAction;
 import io.cdap.cdap.etl.mock.batch.aggregator.FieldCountAggregator;
+import io.cdap.cdap.etl.mock.batch.aggregator.FieldCountReducibleAggregator;
 import io.cdap.cdap.etl.mock.batch.aggregator.GroupFilterAggregator;
 import io.cdap.cdap.etl.mock.batch.aggregator.IdentityAggregator;
 import io.cdap.cdap.etl.mock.batch.joiner.MockJoiner;
@@ -1971,6 +1972,71 @@ public class DataPipelineTest extends HydratorTestBase {
     testParallelAggregators(Engine.SPARK);
   }
 
+  @Test
+  public void testMapRedReducibleAggregator() throws Exception {
+    testReducibleAggregator(Engine.MAPREDUCE);
+  }
+
+  @Test
+  public void testSparkReducibleAggregator() throws Exception {
+    testReducibleAggregator(Engine.SPARK);
+  }
+
+  private void testReducibleAggregator(Engine engine) throws Exception {
+    String sourceName = "reducibleAggInput-" + engine.name();
+    String sinkName = "reducibleAggOutput-" + engine.name();
+    Schema inputSchema = Schema.recordOf(
+      "testRecord",
+      Schema.Field.of("user", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("item", Schema.of(Schema.Type.LONG))
+    );
+
+    // source --> agg --> sink
+    ETLBatchConfig etlConfig = ETLBatchConfig.builder()
+      .setEngine(engine)
+      .addStage(new ETLStage("source", MockSource.getPlugin(sourceName, inputSchema)))
+      .addStage(new ETLStage("agg", FieldCountReducibleAggregator.getPlugin("user")))
+      .addStage(new ETLStage("sink", MockSink.getPlugin(sinkName)))
+      .addConnection("source", "agg")
+      .addConnection("agg", "sink")
+      // write out partial aggregates in the mapper whenever there is more than one group
+      .setProperties(ImmutableMap.of("system.mapreduce.cdap.etl.map.aggregate.max.groups", "1"))
+      .build();
+
+    AppRequest<ETLBatchConfig> appRequest = new AppRequest<>(APP_ARTIFACT, etlConfig);
+    ApplicationId appId = NamespaceId.DEFAULT.app("ReducibleAggApp-" + engine);
+    ApplicationManager appManager = deployApplication(appId, appRequest);
+
+    DataSetManager<Table> inputManager = getDataset(NamespaceId.DEFAULT.dataset(sourceName));
+    MockSource.writeInput(inputManager, ImmutableList.of(
+      StructuredRecord.builder(inputSchema).set("user", "samuel").set("item", 1L).build(),
+      StructuredRecord.builder(inputSchema).set("user", "samuel").set("item", 2L).build(),
+      StructuredRecord.builder(inputSchema).set("user", "samuel").set("item", 3L).build(),
+      StructuredRecord.builder(inputSchema).set("user", "john").set("item", 4L).build(),
+      StructuredRecord.builder(inputSchema).set("user", "john").set("item", 3L).build()));
+
+    WorkflowManager workflowManager = appManager.getWorkflowManager(SmartWorkflow.NAME);
+    workflowManager.start();
+    workflowManager.waitForRun(ProgramRunStatus.COMPLETED, 5, TimeUnit.MINUTES);
+
+    Schema outputSchema = Schema.recordOf(
+      "user.count",
+      Schema.Field.of("user", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("ct", Schema.of(Schema.Type.LONG))
+    );
+    Set<StructuredRecord> expected = ImmutableSet.of(
+      StructuredRecord.builder(outputSchema).set("user", "all").set("ct", 5L).build(),
+      StructuredRecord.builder(outputSchema).set("user", "samuel").set("ct", 3L).build(),
+      StructuredRecord.builder(outputSchema).set("user", "john").set("ct", 2L).build());
+    DataSetManager<Table> sinkManager = getDataset(sinkName);
+    Set<StructuredRecord> actual = Sets.newHashSet(MockSink.readOutput(sinkManager));
+    Assert.assertEquals(expected, actual);
+
+    validateMetric(5, appId, "agg.records.in");
+    validateMetric(3, appId, "agg.aggregator.groups");
+    validateMetric(3, appId, "agg.records.out");
+  }
+
   private void testSequentialAggregators(Engine engine) throws Exception {
     String sourceName = "linearAggInput-" + engine.name();
     String sinkName = "linearAggOutput-" + engine.name();
@@ -2579,6 +2645,121 @@ public class DataPipelineTest extends HydratorTestBase {
     validateMetric(4, appId, sinkName + ".records.in");
   }
 
+  @Test
+  public void testBroadcastJoinSpark() throws Exception {
+    Schema customerSchema = Schema.recordOf(
+      "customerRecord",
+      Schema.Field.of("customer_id", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("customer_name", Schema.of(Schema.Type.STRING))
+    );
+
+    Schema itemSchema = Schema.recordOf(
+      "itemRecord",
+      Schema.Field.of("item_id", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("item_price", Schema.of(Schema.Type.LONG)),
+      Schema.Field.of("cust_id", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("cust_name", Schema.of(Schema.Type.STRING))
+    );
+
+    Schema transactionSchema = Schema.recordOf(
+      "transactionRecord",
+      Schema.Field.of("t_id", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("c_id", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("c_name", Schema.of(Schema.Type.STRING))
+    );
+
+    String customersName = "broadcastJoinCustomers";
+    String itemsName = "broadcastJoinItems";
+    String transactionsName = "broadcastJoinTransactions";
+    String outputName = "broadcastJoinOutput";
+    String joinerName = "broadcastJoiner";
+    // items are the large input, customers are inner joined and transactions are left outer joined by broadcast
+    ETLBatchConfig etlConfig = ETLBatchConfig.builder()
+      .addStage(new ETLStage("customers", MockSource.getPlugin(customersName, customerSchema)))
+      .addStage(new ETLStage("items", MockSource.getPlugin(itemsName, itemSchema)))
+      .addStage(new ETLStage("transactions", MockSource.getPlugin(transactionsName, transactionSchema)))
+      .addStage(new ETLStage("t1", IdentityTransform.getPlugin()))
+      .addStage(new ETLStage("t2", IdentityTransform.getPlugin()))
+      .addStage(new ETLStage("t3", IdentityTransform.getPlugin()))
+      .addStage(new ETLStage(joinerName, MockJoiner.getPlugin("t1.customer_id=t2.cust_id=t3.c_id&" +
+                                                                "t1.customer_name=t2.cust_name=t3.c_name",
+                                                              "t2,t1", "", "t1,t3")))
+      .addStage(new ETLStage("sink", MockSink.getPlugin(outputName)))
+      .addConnection("customers", "t1")
+      .addConnection("items", "t2")
+      .addConnection("transactions", "t3")
+      .addConnection("t1", joinerName)
+      .addConnection("t2", joinerName)
+      .addConnection("t3", joinerName)
+      .addConnection(joinerName, "sink")
+      .setEngine(Engine.SPARK)
+      .build();
+
+    AppRequest<ETLBatchConfig> appRequest = new AppRequest<>(APP_ARTIFACT, etlConfig);
+    ApplicationId appId = NamespaceId.DEFAULT.app("BroadcastJoinApp");
+    ApplicationManager appManager = deployApplication(appId, appRequest);
+
+    Schema outSchema = Schema.recordOf(
+      "join.output",
+      Schema.Field.of("customer_id", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("customer_name", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("item_id", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("item_price", Schema.of(Schema.Type.LONG)),
+      Schema.Field.of("cust_id", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("cust_name", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("t_id", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("c_id", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("c_name", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+
+    List<StructuredRecord> customers = ImmutableList.of(
+      StructuredRecord.builder(customerSchema).set("customer_id", "1").set("customer_name", "samuel").build(),
+      StructuredRecord.builder(customerSchema).set("customer_id", "2").set("customer_name", "bob").build(),
+      StructuredRecord.builder(customerSchema).set("customer_id", "3").set("customer_name", "jane").build());
+
+    // skewed items: almost all of them belong to samuel, one belongs to a customer that does not exist
+    List<StructuredRecord> items = new ArrayList<>();
+    Set<StructuredRecord> expected = new HashSet<>();
+    for (int i = 0; i < 50; i++) {
+      items.add(StructuredRecord.builder(itemSchema).set("item_id", String.valueOf(i)).set("item_price", (long) i)
+                  .set("cust_id", "1").set("cust_name", "samuel").build());
+      expected.add(StructuredRecord.builder(outSchema)
+                     .set("customer_id", "1").set("customer_name", "samuel")
+                     .set("item_id", String.valueOf(i)).set("item_price", (long) i)
+                     .set("cust_id", "1").set("cust_name", "samuel")
+                     .set("t_id", "100").set("c_id", "1").set("c_name", "samuel").build());
+    }
+    items.add(StructuredRecord.builder(itemSchema).set("item_id", "50").set("item_price", 50L)
+                .set("cust_id", "3").set("cust_name", "jane").build());
+    expected.add(StructuredRecord.builder(outSchema)
+                   .set("customer_id", "3").set("customer_name", "jane")
+                   .set("item_id", "50").set("item_price", 50L).set("cust_id", "3").set("cust_name", "jane").build());
+    items.add(StructuredRecord.builder(itemSchema).set("item_id", "51").set("item_price", 51L)
+                .set("cust_id", "4").set("cust_name", "martha").build());
+
+    List<StructuredRecord> transactions = ImmutableList.of(
+      StructuredRecord.builder(transactionSchema).set("t_id", "100").set("c_id", "1").set("c_name", "samuel").build(),
+      StructuredRecord.builder(transactionSchema).set("t_id", "101").set("c_id", "2").set("c_name", "bob").build());
+
+    DataSetManager<Table> inputManager = getDataset(NamespaceId.DEFAULT.dataset(customersName));
+    MockSource.writeInput(inputManager, customers);
+    inputManager = getDataset(NamespaceId.DEFAULT.dataset(itemsName));
+    MockSource.writeInput(inputManager, items);
+    inputManager = getDataset(NamespaceId.DEFAULT.dataset(transactionsName));
+    MockSource.writeInput(inputManager, transactions);
+
+    WorkflowManager workflowManager = appManager.getWorkflowManager(SmartWorkflow.NAME);
+    workflowManager.start();
+    workflowManager.waitForRun(ProgramRunStatus.COMPLETED, 5, TimeUnit.MINUTES);
+
+    DataSetManager<Table> sinkManager = getDataset(outputName);
+    Set<StructuredRecord> actual = Sets.newHashSet(MockSink.readOutput(sinkManager));
+    Assert.assertEquals(expected, actual);
+
+    validateMetric(51, appId, joinerName + ".records.out");
+    // the output is the same as with a shuffle join, so check that both small inputs were actually broadcast
+    validateMetric(2, appId, joinerName + ".joiner.broadcast.inputs");
+  }
+
   @Test
   public void testMultiPhaseJoinerMR() throws Exception {
     testMultipleJoiner(Engine.MAPREDUCE);
@@ -191,6 +191,11 @@ public class SparkStreamingPipelineDriver implements JavaSparkMain {
         JavaSparkContext javaSparkContext = context == null ? new JavaSparkContext() : context;
         JavaStreamingContext jssc = new JavaStreamingContext(
           javaSparkContext, Durations.milliseconds(pipelineSpec.getBatchIntervalMillis()));
+        // set the checkpoint directory before creating the pipeline so that stages know whether state can be kept
+        if (checkpointDir != null) {
+          jssc.checkpoint(checkpointDir);
+          jssc.sparkContext().hadoopConfiguration().set("fs.defaultFS", checkpointDir);
+        }
         SparkStreamingPipelineRunner runner = new SparkStreamingPipelineRunner(sec, jssc, pipelineSpec,
                                                                                pipelineSpec.isCheckpointsDisabled());
         PipelinePluginContext pluginContext = new PipelinePluginContext(sec.getPluginContext(), sec.getMetrics(),
@@ -205,10 +210,6 @@ public class SparkStreamingPipelineDriver implements JavaSparkMain {
         } catch (Exception e) {
           throw new RuntimeException(e);
         }
-        if (checkpointDir != null) {
-          jssc.checkpoint(checkpointDir);
-          jssc.sparkContext().hadoopConfiguration().set("fs.defaultFS", checkpointDir);
-        }
         return jssc;
       }
     };
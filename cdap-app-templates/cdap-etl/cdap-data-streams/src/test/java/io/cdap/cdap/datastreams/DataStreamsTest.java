@@ -35,7 +35,9 @@ import io.cdap.cdap.etl.mock.alert.NullAlertTransform;
 import io.cdap.cdap.etl.mock.alert.TMSAlertPublisher;
 import io.cdap.cdap.etl.mock.batch.MockSink;
 import io.cdap.cdap.etl.mock.batch.aggregator.FieldCountAggregator;
+import io.cdap.cdap.etl.mock.batch.aggregator.FieldCountReducibleAggregator;
 import io.cdap.cdap.etl.mock.batch.aggregator.GroupFilterAggregator;
+import io.cdap.cdap.etl.mock.batch.aggregator.StatefulFieldCountAggregator;
 import io.cdap.cdap.etl.mock.batch.joiner.DupeFlagger;
 import io.cdap.cdap.etl.mock.batch.joiner.MockJoiner;
 import io.cdap.cdap.etl.mock.spark.Window;
@@ -519,6 +521,200 @@ public class DataStreamsTest extends HydratorTestBase {
     sparkManager.stop();
   }
 
+  @Test
+  public void testIncrementalWindowAggregator() throws Exception {
+    /*
+     * source --> window(width=5,interval=1) --> reducible aggregator --> filter --> sink
+     */
+    Schema schema = Schema.recordOf("data", Schema.Field.of("x", Schema.of(Schema.Type.STRING)));
+    List<StructuredRecord> input = ImmutableList.of(
+      StructuredRecord.builder(schema).set("x", "abc").build(),
+      StructuredRecord.builder(schema).set("x", "abc").build(),
+      StructuredRecord.builder(schema).set("x", "abc").build());
+
+    String sinkName = "incrementalWindowOut";
+    // source sleeps 1 second between outputs
+    DataStreamsConfig etlConfig = DataStreamsConfig.builder()
+      .addStage(new ETLStage("source", MockSource.getPlugin(schema, input, 1000L)))
+      .addStage(new ETLStage("window", Window.getPlugin(5, 1)))
+      .addStage(new ETLStage("agg", FieldCountReducibleAggregator.getPlugin("x")))
+      .addStage(new ETLStage("filter", StringValueFilterTransform.getPlugin("x", "all")))
+      .addStage(new ETLStage("sink", MockSink.getPlugin(sinkName)))
+      .addConnection("source", "window")
+      .addConnection("window", "agg")
+      .addConnection("agg", "filter")
+      .addConnection("filter", "sink")
+      .setBatchInterval("1s")
+      .setCheckpointDir(checkpointDir)
+      .build();
+
+    AppRequest<DataStreamsConfig> appRequest = new AppRequest<>(APP_ARTIFACT, etlConfig);
+    ApplicationId appId = NamespaceId.DEFAULT.app("IncrementalWindowApp");
+    ApplicationManager appManager = deployApplication(appId, appRequest);
+
+    SparkManager sparkManager = appManager.getSparkManager(DataStreamsSparkLauncher.NAME);
+    sparkManager.start();
+    sparkManager.waitForRun(ProgramRunStatus.RUNNING, 10, TimeUnit.SECONDS);
+
+    // the window aggregate is maintained by adding and subtracting batches, so it must never go over 3,
+    // and there should eventually be a window that contains all 3 records.
+    final DataSetManager<Table> outputManager = getDataset(sinkName);
+    Tasks.waitFor(
+      true,
+      new Callable<Boolean>() {
+        @Override
+        public Boolean call() throws Exception {
+          outputManager.flush();
+          boolean sawThree = false;
+          for (StructuredRecord record : MockSink.readOutput(outputManager)) {
+            long count = record.get("ct");
+            if (count == 3L) {
+              sawThree = true;
+            }
+            Assert.assertTrue(count <= 3L);
+          }
+          return sawThree;
+        }
+      },
+      2,
+      TimeUnit.MINUTES);
+
+    // batches that left the window must have been subtracted rather than the window being recomputed
+    Tasks.waitFor(
+      true,
+      new Callable<Boolean>() {
+        @Override
+        public Boolean call() throws Exception {
+          return getMetric(appId, "agg." + FieldCountReducibleAggregator.SUBTRACT_METRIC) > 0L;
+        }
+      },
+      2,
+      TimeUnit.MINUTES);
+
+    sparkManager.stop();
+  }
+
+  @Test
+  public void testWindowInvertibleAggregatorWithoutCheckpoints() throws Exception {
+    /*
+     * source --> window(width=5,interval=1) --> reducible aggregator --> filter --> sink
+     */
+    Schema schema = Schema.recordOf("data", Schema.Field.of("x", Schema.of(Schema.Type.STRING)));
+    List<StructuredRecord> input = ImmutableList.of(
+      StructuredRecord.builder(schema).set("x", "abc").build(),
+      StructuredRecord.builder(schema).set("x", "abc").build(),
+      StructuredRecord.builder(schema).set("x", "abc").build());
+
+    String sinkName = "noCheckpointWindowOut";
+    // source sleeps 1 second between outputs
+    DataStreamsConfig etlConfig = DataStreamsConfig.builder()
+      .addStage(new ETLStage("source", MockSource.getPlugin(schema, input, 1000L)))
+      .addStage(new ETLStage("window", Window.getPlugin(5, 1)))
+      .addStage(new ETLStage("agg", FieldCountReducibleAggregator.getPlugin("x")))
+      .addStage(new ETLStage("filter", StringValueFilterTransform.getPlugin("x", "all")))
+      .addStage(new ETLStage("sink", MockSink.getPlugin(sinkName)))
+      .addConnection("source", "window")
+      .addConnection("window", "agg")
+      .addConnection("agg", "filter")
+      .addConnection("filter", "sink")
+      .setBatchInterval("1s")
+      .disableCheckpoints()
+      .build();
+
+    AppRequest<DataStreamsConfig> appRequest = new AppRequest<>(APP_ARTIFACT, etlConfig);
+    ApplicationId appId = NamespaceId.DEFAULT.app("NoCheckpointWindowApp");
+    ApplicationManager appManager = deployApplication(appId, appRequest);
+
+    SparkManager sparkManager = appManager.getSparkManager(DataStreamsSparkLauncher.NAME);
+    sparkManager.start();
+    sparkManager.waitForRun(ProgramRunStatus.RUNNING, 10, TimeUnit.SECONDS);
+
+    // without a checkpoint directory the window can't be maintained with the inverse function,
+    // so it is merged from its batches, which must still give a window with all 3 records.
+    final DataSetManager<Table> outputManager = getDataset(sinkName);
+    Tasks.waitFor(
+      true,
+      new Callable<Boolean>() {
+        @Override
+        public Boolean call() throws Exception {
+          outputManager.flush();
+          boolean sawThree = false;
+          for (StructuredRecord record : MockSink.readOutput(outputManager)) {
+            long count = record.get("ct");
+            if (count == 3L) {
+              sawThree = true;
+            }
+            Assert.assertTrue(count <= 3L);
+          }
+          return sawThree;
+        }
+      },
+      2,
+      TimeUnit.MINUTES);
+
+    sparkManager.stop();
+    sparkManager.waitForStopped(10, TimeUnit.SECONDS);
+    Assert.assertEquals(0L, getMetric(appId, "agg." + FieldCountReducibleAggregator.SUBTRACT_METRIC));
+  }
+
+  @Test
+  public void testStatefulAggregator() throws Exception {
+    /*
+     * source --> stateful aggregator --> filter --> sink
+     */
+    Schema schema = Schema.recordOf("data", Schema.Field.of("x", Schema.of(Schema.Type.STRING)));
+    List<StructuredRecord> input = ImmutableList.of(
+      StructuredRecord.builder(schema).set("x", "abc").build(),
+      StructuredRecord.builder(schema).set("x", "abc").build(),
+      StructuredRecord.builder(schema).set("x", "abc").build());
+
+    String sinkName = "statefulAggOut";
+    // source sleeps 1 second between outputs, so the records arrive in different batches
+    DataStreamsConfig etlConfig = DataStreamsConfig.builder()
+      .addStage(new ETLStage("source", MockSource.getPlugin(schema, input, 1000L)))
+      .addStage(new ETLStage("agg", StatefulFieldCountAggregator.getPlugin("x")))
+      .addStage(new ETLStage("filter", StringValueFilterTransform.getPlugin("x", "all")))
+      .addStage(new ETLStage("sink", MockSink.getPlugin(sinkName)))
+      .addConnection("source", "agg")
+      .addConnection("agg", "filter")
+      .addConnection("filter", "sink")
+      .setBatchInterval("1s")
+      .setCheckpointDir(checkpointDir)
+      .build();
+
+    AppRequest<DataStreamsConfig> appRequest = new AppRequest<>(APP_ARTIFACT, etlConfig);
+    ApplicationId appId = NamespaceId.DEFAULT.app("StatefulAggregatorApp");
+    ApplicationManager appManager = deployApplication(appId, appRequest);
+
+    SparkManager sparkManager = appManager.getSparkManager(DataStreamsSparkLauncher.NAME);
+    sparkManager.start();
+    sparkManager.waitForRun(ProgramRunStatus.RUNNING, 10, TimeUnit.SECONDS);
+
+    // counts are kept across batches, so the count should eventually reach 3 even though no batch has 3 records
+    final DataSetManager<Table> outputManager = getDataset(sinkName);
+    Tasks.waitFor(
+      true,
+      new Callable<Boolean>() {
+        @Override
+        public Boolean call() throws Exception {
+          outputManager.flush();
+          boolean sawThree = false;
+          for (StructuredRecord record : MockSink.readOutput(outputManager)) {
+            long count = record.get("ct");
+            if (count == 3L) {
+              sawThree = true;
+            }
+            Assert.assertTrue(count <= 3L);
+          }
+          return sawThree;
+        }
+      },
+      2,
+      TimeUnit.MINUTES);
+
+    sparkManager.stop();
+  }
+
   @Test
   public void testJoin() throws Exception {
     /*
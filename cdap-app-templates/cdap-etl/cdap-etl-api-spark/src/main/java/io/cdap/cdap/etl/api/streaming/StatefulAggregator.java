@@ -0,0 +1,36 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.api.streaming;
+
+import io.cdap.cdap.api.annotation.Beta;
+
+/**
+ * Implemented by a reducible aggregator to keep the aggregate value of each group across micro-batches when
+ * it is used in a streaming pipeline. Instead of aggregating every batch on its own, each batch is merged into the
+ * aggregate that is kept for its groups, and the updated aggregates of the groups that received values in the
+ * batch are output. The kept aggregates are part of the pipeline checkpoint, so pipelines with checkpointing
+ * disabled aggregate every batch on its own.
+ */
+@Beta
+public interface StatefulAggregator {
+
+  /**
+   * @return the number of seconds the aggregate of a group is kept without receiving any new values, after which
+   *   it is removed. Groups are never removed if this is zero or negative.
+   */
+  long getStateTimeout();
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.api;
+
+import io.cdap.cdap.api.annotation.Beta;
+
+/**
+ * A {@link ReducibleAggregator} whose partial aggregates can also be subtracted from each other. Streaming pipelines
+ * use this to maintain sliding window aggregates incrementally: when the window slides, the values that entered the
+ * window are merged into the previous aggregate and the values that left it are subtracted, instead of aggregating
+ * the whole window again.
+ *
+ * @param <AGG_VALUE> Type of the aggregate value of a group
+ */
+@Beta
+public interface InvertibleAggregator<AGG_VALUE> {
+
+  /**
+   * Remove a partial aggregate value from the aggregate value of the same group. The second value is guaranteed to
+   * have been merged into the first one earlier. The first value can be modified and returned.
+   *
+   * @param aggValue the aggregate value of the group
+   * @param toRemove the partial aggregate value to remove from it
+   * @return the aggregate value without the removed partial value
+   * @throws Exception if there is some error subtracting the values
+   */
+  AGG_VALUE subtractPartitions(AGG_VALUE aggValue, AGG_VALUE toRemove) throws Exception;
+
+  /**
+   * Returns whether an aggregate value no longer contains any values, after everything merged into it was
+   * subtracted again. Groups with empty aggregate values are dropped from the window.
+   *
+   * @param aggValue the aggregate value of a group
+   * @return whether the aggregate value is empty
+   */
+  boolean isEmpty(AGG_VALUE aggValue);
+}
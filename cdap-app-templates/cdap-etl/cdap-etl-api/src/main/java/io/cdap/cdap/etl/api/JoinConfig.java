@@ -16,11 +16,14 @@
 
 package io.cdap.cdap.etl.api;
 
+import java.util.Collections;
+
 /**
  * Join configuration to hold information about join to be performed
  */
 public class JoinConfig {
   private Iterable<String> requiredInputs;
+  private Iterable<String> broadcastInputs;
 
   /**
    * Creates new instance of {@link JoinConfig}
@@ -30,7 +33,19 @@ public class JoinConfig {
    * meet join criteria.
    */
   public JoinConfig(Iterable<String> requiredInputs) {
+    this(requiredInputs, Collections.<String>emptySet());
+  }
+
+  /**
+   * Creates new instance of {@link JoinConfig}
+   * @param requiredInputs iterable of input stage names. This will be used to find out type of the join.
+   * @param broadcastInputs iterable of input stage names that are small enough to be held in memory. Where the
+   * execution engine supports it, these inputs are loaded into memory and joined against the other inputs without
+   * shuffling them. This is only a hint; it is ignored for full outer joins and for the first required input.
+   */
+  public JoinConfig(Iterable<String> requiredInputs, Iterable<String> broadcastInputs) {
     this.requiredInputs = requiredInputs;
+    this.broadcastInputs = broadcastInputs;
   }
 
   /**
@@ -40,4 +55,12 @@ public class JoinConfig {
   public Iterable<String> getRequiredInputs() {
     return requiredInputs;
   }
+
+  /**
+   * Returns inputs that are small enough to be broadcast to every executor.
+   * @return iterable of broadcast inputs
+   */
+  public Iterable<String> getBroadcastInputs() {
+    return broadcastInputs == null ? Collections.<String>emptySet() : broadcastInputs;
+  }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.api;
+
+import io.cdap.cdap.api.annotation.Beta;
+
+/**
+ * Groups all input objects into collections and aggregates each group by merging its values one by one into an
+ * aggregate value. Because values are merged incrementally, values can be partially aggregated where they are
+ * produced, before they are sent to where all the values of a group come together. The partial aggregates are then
+ * merged, and the final aggregate value of each group is turned into zero or more output objects.
+ *
+ * Merging must be associative, and the result must not depend on the order in which values and partial aggregates
+ * are merged, as this is not guaranteed.
+ *
+ * @param <GROUP_KEY> Type of group key
+ * @param <GROUP_VALUE> Type of values to group
+ * @param <AGG_VALUE> Type of the aggregate value of a group
+ * @param <OUT> Type of output object
+ */
+@Beta
+public interface ReducibleAggregator<GROUP_KEY, GROUP_VALUE, AGG_VALUE, OUT> {
+
+  /**
+   * Emit the group key(s) for a given input value. If no group key is emitted, the input value
+   * is filtered out. If multiple group keys are emitted, the input value will be present in multiple groups.
+   *
+   * @param groupValue the value to group
+   * @param emitter the emitter to emit zero or more group keys for the input
+   * @throws Exception if there is some error getting the group
+   */
+  void groupBy(GROUP_VALUE groupValue, Emitter<GROUP_KEY> emitter) throws Exception;
+
+  /**
+   * Create the aggregate value of a group from the first value of the group seen in a partition.
+   *
+   * @param groupValue the group value
+   * @return the aggregate value for the single group value
+   * @throws Exception if there is some error creating the aggregate value
+   */
+  AGG_VALUE initializeAggregateValue(GROUP_VALUE groupValue) throws Exception;
+
+  /**
+   * Merge a group value into the aggregate value of its group. The aggregate value can be modified and returned.
+   *
+   * @param aggValue the aggregate value of the group
+   * @param groupValue the group value to merge
+   * @return the aggregate value including the group value
+   * @throws Exception if there is some error merging the value
+   */
+  AGG_VALUE mergeValues(AGG_VALUE aggValue, GROUP_VALUE groupValue) throws Exception;
+
+  /**
+   * Merge two partial aggregate values of the same group. The first value can be modified and returned.
+   *
+   * @param value1 a partial aggregate value of the group
+   * @param value2 another partial aggregate value of the group
+   * @return the aggregate value including both partial values
+   * @throws Exception if there is some error merging the values
+   */
+  AGG_VALUE mergePartitions(AGG_VALUE value1, AGG_VALUE value2) throws Exception;
+
+  /**
+   * Emit the output objects for the final aggregate value of a group.
+   *
+   * @param groupKey the key for the group
+   * @param aggValue the aggregate value of all the values in the group
+   * @param emitter the emitter to emit aggregate values for the group
+   * @throws Exception if there is some error emitting the output
+   */
+  void finalize(GROUP_KEY groupKey, AGG_VALUE aggValue, Emitter<OUT> emitter) throws Exception;
+}
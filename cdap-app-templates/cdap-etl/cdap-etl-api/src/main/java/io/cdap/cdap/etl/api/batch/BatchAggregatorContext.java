@@ -17,6 +17,7 @@
 package io.cdap.cdap.etl.api.batch;
 
 import io.cdap.cdap.api.annotation.Beta;
+import io.cdap.cdap.api.data.schema.Schema;
 
 /**
  * Context of a Batch Aggregator.
@@ -51,4 +52,14 @@ public interface BatchAggregatorContext extends BatchContext {
    */
   void setGroupValueClass(Class<?> groupValueClass);
 
+  /**
+   * Set the schema of the group keys, if they are {@link io.cdap.cdap.api.data.format.StructuredRecord
+   * StructuredRecords} of a schema known at configure time. This is not required, but allows the execution engine
+   * to shuffle the group keys without their schema. Execution engines that cannot make use of it ignore it.
+   *
+   * @param groupKeySchema the schema of the group keys
+   */
+  default void setGroupKeySchema(Schema groupKeySchema) {
+    // no-op
+  }
 }
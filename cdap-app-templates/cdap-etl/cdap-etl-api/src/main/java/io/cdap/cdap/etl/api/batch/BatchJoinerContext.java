@@ -17,6 +17,7 @@
 package io.cdap.cdap.etl.api.batch;
 
 import io.cdap.cdap.api.annotation.Beta;
+import io.cdap.cdap.api.data.schema.Schema;
 
 /**
  * Context of a Batch Joiner
@@ -49,4 +50,15 @@ public interface BatchJoinerContext extends BatchContext {
    * @param joinInputRecordClass the join input record class
    */
   void setJoinInputRecordClass(Class<?> joinInputRecordClass);
+
+  /**
+   * Set the schema of the join keys, if they are {@link io.cdap.cdap.api.data.format.StructuredRecord
+   * StructuredRecords} of a schema known at configure time. This is not required, but allows the execution engine
+   * to shuffle the join keys without their schema. Execution engines that cannot make use of it ignore it.
+   *
+   * @param joinKeySchema the schema of the join keys
+   */
+  default void setJoinKeySchema(Schema joinKeySchema) {
+    // no-op
+  }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.api.batch;
+
+import io.cdap.cdap.api.annotation.Beta;
+import io.cdap.cdap.etl.api.Emitter;
+import io.cdap.cdap.etl.api.ReducibleAggregator;
+
+import java.util.Iterator;
+
+/**
+ * A {@link BatchAggregator} that aggregates groups through the {@link ReducibleAggregator} methods, which lets
+ * the pipeline partially aggregate the values of each group before they are shuffled. This makes aggregations
+ * like counts and sums much cheaper when there are many more values than groups.
+ * It is configured and used in pipelines the same way as other batch aggregators.
+ *
+ * In addition to the group key and value classes, the aggregate value class must be a supported type.
+ * If it is not one of those types and is being used in mapreduce, it must implement Hadoop's
+ * org.apache.hadoop.io.Writable interface. If the aggregator is being used in spark, it must implement the
+ * {@link java.io.Serializable} interface.
+ *
+ * @param <GROUP_KEY> group key type. Must be a supported type
+ * @param <GROUP_VALUE> group value type. Must be a supported type
+ * @param <AGG_VALUE> aggregate value type. Must be a supported type
+ * @param <OUT> output object type
+ */
+@Beta
+public abstract class BatchReducibleAggregator<GROUP_KEY, GROUP_VALUE, AGG_VALUE, OUT>
+  extends BatchAggregator<GROUP_KEY, GROUP_VALUE, OUT>
+  implements ReducibleAggregator<GROUP_KEY, GROUP_VALUE, AGG_VALUE, OUT> {
+
+  /**
+   * Aggregates the values of a group one by one. This is only used when the values of the group are not
+   * partially aggregated, and is equivalent to merging them in the order they are given.
+   */
+  @Override
+  public final void aggregate(GROUP_KEY groupKey, Iterator<GROUP_VALUE> groupValues,
+                              Emitter<OUT> emitter) throws Exception {
+    if (!groupValues.hasNext()) {
+      return;
+    }
+    AGG_VALUE aggValue = initializeAggregateValue(groupValues.next());
+    while (groupValues.hasNext()) {
+      aggValue = mergeValues(aggValue, groupValues.next());
+    }
+    finalize(groupKey, aggValue, emitter);
+  }
+}
@@ -22,7 +22,8 @@ import io.cdap.cdap.etl.api.Destroyable;
 
 /**
  * A stage in the PipeTransformExecutor. Pipe transforms should send each output record immediately to all output stages
- * without buffering anything in memory.
+ * without buffering anything in memory, unless they are at the end of the pipe and send buffered records when they
+ * are finished.
  *
  * @param <T> type of input record
  */
@@ -46,12 +47,22 @@ public abstract class PipeStage<T> implements Destroyable {
       // Another stage has already failed, just throw the exception as-is
       throw e;
     } catch (Exception e) {
-      Throwable rootCause = Throwables.getRootCause(e);
-      // Create StageFailureException to save the Stage information
-      throw new StageFailureException(
-        String.format("Failed to execute pipeline stage '%s' with the error: %s. Please review your pipeline " +
-                        "configuration and check the system logs for more details.", stageName, rootCause.getMessage()),
-        rootCause);
+      throw createFailure(e);
+    }
+  }
+
+  /**
+   * Called after all input records have been consumed, to send any records buffered by the stage to its outputs.
+   *
+   * @throws StageFailureException if there was an exception sending the buffered records
+   */
+  public void finish() {
+    try {
+      finishInput();
+    } catch (StageFailureException e) {
+      throw e;
+    } catch (Exception e) {
+      throw createFailure(e);
     }
   }
 
@@ -62,4 +73,23 @@ public abstract class PipeStage<T> implements Destroyable {
    * @throws Exception if there was a failure processing the input
    */
   protected abstract void consumeInput(T input) throws Exception;
+
+  /**
+   * Send records buffered by the stage to its outputs, throwing an exception if there is a failure.
+   * Stages don't buffer records by default, so this does nothing.
+   *
+   * @throws Exception if there was a failure sending the records
+   */
+  protected void finishInput() throws Exception {
+    // no-op
+  }
+
+  private StageFailureException createFailure(Exception e) {
+    Throwable rootCause = Throwables.getRootCause(e);
+    // Create StageFailureException to save the Stage information
+    return new StageFailureException(
+      String.format("Failed to execute pipeline stage '%s' with the error: %s. Please review your pipeline " +
+                      "configuration and check the system logs for more details.", stageName, rootCause.getMessage()),
+      rootCause);
+  }
 }
@@ -44,6 +44,16 @@ public class PipeTransformExecutor<IN> implements Destroyable {
     }
   }
 
+  /**
+   * Finishes all stages after the last input has been run through the pipe. Only stages at the end of the pipe
+   * buffer records, so the order in which stages are finished does not matter.
+   */
+  public void finish() {
+    for (PipeStage stage : pipeStages.values()) {
+      stage.finish();
+    }
+  }
+
   @Override
   public void destroy() {
     for (PipeStage stage : pipeStages.values()) {
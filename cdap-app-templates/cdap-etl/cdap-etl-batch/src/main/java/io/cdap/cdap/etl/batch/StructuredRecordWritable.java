@@ -16,30 +16,90 @@
 
 package io.cdap.cdap.etl.batch;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
 import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.data.schema.SchemaHash;
+import io.cdap.cdap.common.io.Decoder;
+import io.cdap.cdap.common.io.Encoder;
+import io.cdap.cdap.etl.common.record.SchemaComparator;
 import io.cdap.cdap.etl.common.record.StructuredRecordComparator;
-import io.cdap.cdap.format.StructuredRecordStringConverter;
+import io.cdap.cdap.format.io.StructuredRecordDatumReader;
+import io.cdap.cdap.format.io.StructuredRecordDatumWriter;
+import io.cdap.cdap.internal.io.SchemaTypeAdapter;
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DataInputBuffer;
 import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.io.WritableUtils;
 
 import java.io.DataInput;
 import java.io.DataOutput;
+import java.io.EOFException;
 import java.io.IOException;
-import java.util.Comparator;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
 
 /**
  * Wrapper around a {@link StructuredRecord} so that it can be used as the output key and/or value of a mapper.
- * This is not very performant and must be improved soon (CDAP-5347).
+ *
+ * A record is serialized as the fingerprint of its schema, followed by the schema, followed by the record in binary
+ * format. The schema is omitted if it is one of the schemas set in the job configuration through
+ * {@link #setSchemas(Configuration, Collection)}, since those are known to every task of the job. This requires
+ * the writable to be configured with the job configuration, either by Hadoop or through
+ * {@link #StructuredRecordWritable(StructuredRecord, Configuration)}.
+ * Serialized records can be compared without being deserialized through the registered {@link Comparator}.
  */
-public class StructuredRecordWritable implements WritableComparable<StructuredRecordWritable> {
+public class StructuredRecordWritable implements WritableComparable<StructuredRecordWritable>, Configurable {
+  private static final String SCHEMAS_KEY = "cdap.etl.batch.record.schemas";
+  private static final Type SCHEMA_LIST_TYPE = new TypeToken<List<Schema>>() { }.getType();
+  private static final Gson GSON = new GsonBuilder()
+    .registerTypeAdapter(Schema.class, new SchemaTypeAdapter())
+    .create();
+  private static final int SCHEMA_HASH_SIZE = 16;
+  private static final StructuredRecordComparator COMPARATOR = new StructuredRecordComparator();
+  private static final StructuredRecordDatumWriter DATUM_WRITER = new StructuredRecordDatumWriter();
+  private static final StructuredRecordDatumReader DATUM_READER = new StructuredRecordDatumReader();
   // schema cache so that we do not parse schema string for each incoming record
-  private static final Map<byte[], Schema> schemaCache = new TreeMap<>(Bytes.BYTES_COMPARATOR);
-  private static final Comparator<StructuredRecord> COMPARATOR = new StructuredRecordComparator();
+  private static final ConcurrentMap<SchemaHash, Schema> SCHEMAS = new ConcurrentHashMap<>();
+  // serialized schema cache so that we do not generate the schema string for each outgoing record
+  private static final ConcurrentMap<SchemaHash, byte[]> SCHEMA_BYTES = new ConcurrentHashMap<>();
+  // schemas set in each configuration, which are not serialized with the records. Configurations are compared by
+  // identity and only weakly referenced, so that the schemas of a job are neither used by nor kept for other jobs
+  private static final LoadingCache<Configuration, Map<SchemaHash, Schema>> CONFIGURED_SCHEMAS =
+    CacheBuilder.newBuilder().weakKeys().build(new CacheLoader<Configuration, Map<SchemaHash, Schema>>() {
+      @Override
+      public Map<SchemaHash, Schema> load(Configuration conf) {
+        return loadSchemas(conf);
+      }
+    });
+
+  static {
+    WritableComparator.define(StructuredRecordWritable.class, new Comparator());
+  }
+
   private StructuredRecord record;
+  private Configuration conf;
+  private Map<SchemaHash, Schema> configuredSchemas = Collections.emptyMap();
 
   // required by Hadoop
   @SuppressWarnings("unused")
@@ -50,6 +110,41 @@ public class StructuredRecordWritable implements WritableComparable<StructuredRe
     this.record = record;
   }
 
+  /**
+   * Creates a writable for the given record that is serialized with the schemas set in the given configuration.
+   */
+  public StructuredRecordWritable(StructuredRecord record, Configuration conf) {
+    this.record = record;
+    setConf(conf);
+  }
+
+  /**
+   * Sets the schemas of the records that are expected to be serialized by the job. Records of those schemas are
+   * serialized without their schema.
+   */
+  public static void setSchemas(Configuration conf, Collection<Schema> schemas) {
+    conf.set(SCHEMAS_KEY, GSON.toJson(schemas, SCHEMA_LIST_TYPE));
+  }
+
+  /**
+   * Returns the schemas set in the given configuration by their fingerprint.
+   */
+  private static Map<SchemaHash, Schema> getConfiguredSchemas(@Nullable Configuration conf) {
+    return conf == null ? Collections.emptyMap() : CONFIGURED_SCHEMAS.getUnchecked(conf);
+  }
+
+  private static Map<SchemaHash, Schema> loadSchemas(Configuration conf) {
+    String schemasStr = conf.get(SCHEMAS_KEY);
+    if (schemasStr == null) {
+      return Collections.emptyMap();
+    }
+    Map<SchemaHash, Schema> schemas = new HashMap<>();
+    for (Schema schema : GSON.<List<Schema>>fromJson(schemasStr, SCHEMA_LIST_TYPE)) {
+      schemas.put(schema.getSchemaHash(), schema);
+    }
+    return schemas;
+  }
+
   public void set(StructuredRecord record) {
     this.record = record;
   }
@@ -58,38 +153,48 @@ public class StructuredRecordWritable implements WritableComparable<StructuredRe
     return record;
   }
 
-  @SuppressWarnings("ConstantConditions")
   @Override
-  public void write(DataOutput out) throws IOException {
-    byte[] schemaBytes = Bytes.toBytes(record.getSchema().toString());
-    out.writeInt(schemaBytes.length);
-    out.write(schemaBytes);
+  public void setConf(Configuration conf) {
+    this.conf = conf;
+    this.configuredSchemas = getConfiguredSchemas(conf);
+  }
 
-    byte[] recordBytes = Bytes.toBytes(StructuredRecordStringConverter.toJsonString(record));
-    out.writeInt(recordBytes.length);
-    out.write(recordBytes);
+  @Override
+  public Configuration getConf() {
+    return conf;
+  }
+
+  @Override
+  public void write(DataOutput out) throws IOException {
+    Schema schema = record.getSchema();
+    SchemaHash schemaHash = schema.getSchemaHash();
+    out.write(schemaHash.toByteArray());
+    if (configuredSchemas.containsKey(schemaHash)) {
+      WritableUtils.writeVInt(out, 0);
+    } else {
+      byte[] schemaBytes = SCHEMA_BYTES.computeIfAbsent(schemaHash, hash -> Bytes.toBytes(schema.toString()));
+      WritableUtils.writeVInt(out, schemaBytes.length);
+      out.write(schemaBytes);
+    }
+    DATUM_WRITER.encode(record, new DataOutputEncoder(out));
   }
 
   @Override
   public void readFields(DataInput in) throws IOException {
-    int schemaLen = in.readInt();
-    byte[] schemaBytes = new byte[schemaLen];
-    in.readFully(schemaBytes, 0, schemaLen);
+    byte[] hashBytes = new byte[SCHEMA_HASH_SIZE];
+    in.readFully(hashBytes);
+    SchemaHash schemaHash = new SchemaHash(ByteBuffer.wrap(hashBytes));
+    int schemaLen = WritableUtils.readVInt(in);
 
-    Schema schema;
-    if (schemaCache.containsKey(schemaBytes)) {
-      schema = schemaCache.get(schemaBytes);
+    Schema schema = getSchema(configuredSchemas, schemaHash);
+    if (schema == null) {
+      byte[] schemaBytes = new byte[schemaLen];
+      in.readFully(schemaBytes);
+      schema = parseSchema(schemaHash, schemaBytes, 0, schemaLen);
     } else {
-      String schemaStr = Bytes.toString(schemaBytes);
-      schema = Schema.parseJson(schemaStr);
-      schemaCache.put(schemaBytes, schema);
+      skipFully(in, schemaLen);
     }
-
-    int recordLen = in.readInt();
-    byte[] recordBytes = new byte[recordLen];
-    in.readFully(recordBytes, 0, recordLen);
-    String recordStr = Bytes.toString(recordBytes);
-    this.record = StructuredRecordStringConverter.fromJsonString(recordStr, schema);
+    this.record = DATUM_READER.read(new DataInputDecoder(in), schema);
   }
 
   @Override
@@ -115,4 +220,453 @@ public class StructuredRecordWritable implements WritableComparable<StructuredRe
   public int hashCode() {
     return record != null ? record.hashCode() : 0;
   }
+
+  @Nullable
+  private static Schema getSchema(Map<SchemaHash, Schema> configuredSchemas, SchemaHash schemaHash) {
+    Schema schema = configuredSchemas.get(schemaHash);
+    return schema == null ? SCHEMAS.get(schemaHash) : schema;
+  }
+
+  private static Schema parseSchema(SchemaHash schemaHash, byte[] bytes, int offset, int length) throws IOException {
+    if (length == 0) {
+      // can only happen if the schema was set in the configuration of the writer but not of the reader
+      throw new IOException(String.format("Schema with fingerprint '%s' is not known. "
+                                            + "The record was not read with the job configuration.",
+                                          schemaHash));
+    }
+    Schema schema = Schema.parseJson(Bytes.toString(bytes, offset, length));
+    Schema existing = SCHEMAS.putIfAbsent(schemaHash, schema);
+    return existing == null ? schema : existing;
+  }
+
+  private static void skipFully(DataInput in, int len) throws IOException {
+    int skipped = 0;
+    while (skipped < len) {
+      int skip = in.skipBytes(len - skipped);
+      if (skip == 0) {
+        // skipBytes does not distinguish end of input, so read a byte to find out
+        in.readByte();
+        skip = 1;
+      }
+      skipped += skip;
+    }
+  }
+
+  /**
+   * A {@link WritableComparator} that compares serialized {@link StructuredRecordWritable StructuredRecordWritables}
+   * the same way as {@link StructuredRecordComparator} compares the records. Records with the same schema are compared
+   * field by field on their serialized form, as long as the schema only contains primitive types, records and
+   * unions of distinct types. Otherwise, the records are deserialized before being compared.
+   */
+  public static class Comparator extends WritableComparator implements Configurable {
+    private static final SchemaComparator SCHEMA_COMPARATOR = new SchemaComparator();
+    private static final Set<Schema.Type> PRIMITIVE_TYPES = EnumSet.of(
+      Schema.Type.NULL, Schema.Type.BOOLEAN, Schema.Type.INT, Schema.Type.LONG, Schema.Type.FLOAT,
+      Schema.Type.DOUBLE, Schema.Type.STRING, Schema.Type.BYTES);
+    private static final ConcurrentMap<SchemaHash, Boolean> RAW_COMPARABLE = new ConcurrentHashMap<>();
+
+    private Configuration conf;
+    private Map<SchemaHash, Schema> configuredSchemas = Collections.emptyMap();
+
+    public Comparator() {
+      super(StructuredRecordWritable.class);
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+      this.conf = conf;
+      this.configuredSchemas = getConfiguredSchemas(conf);
+    }
+
+    @Override
+    public Configuration getConf() {
+      return conf;
+    }
+
+    @Override
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      try {
+        Cursor cursor1 = new Cursor(b1, s1, configuredSchemas);
+        Cursor cursor2 = new Cursor(b2, s2, configuredSchemas);
+        Schema schema1 = cursor1.readSchema();
+        Schema schema2 = cursor2.readSchema();
+
+        if (compareBytes(b1, s1, SCHEMA_HASH_SIZE, b2, s2, SCHEMA_HASH_SIZE) == 0) {
+          if (RAW_COMPARABLE.computeIfAbsent(schema1.getSchemaHash(), hash -> isRawComparable(schema1))) {
+            return compare(schema1, cursor1, cursor2);
+          }
+        } else {
+          int comp = SCHEMA_COMPARATOR.compare(schema1, schema2);
+          if (comp != 0) {
+            return comp;
+          }
+        }
+
+        // the records can only be compared deserialized
+        return COMPARATOR.compare(deserialize(b1, s1, l1), deserialize(b2, s2, l2));
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    private int compare(Schema schema, Cursor cursor1, Cursor cursor2) {
+      switch (schema.getType()) {
+        case NULL:
+          return 0;
+        case BOOLEAN:
+          return Boolean.compare(cursor1.readBoolean(), cursor2.readBoolean());
+        case INT:
+        case LONG:
+          return Long.compare(cursor1.readLong(), cursor2.readLong());
+        case FLOAT:
+          return Float.compare(cursor1.readFloat(), cursor2.readFloat());
+        case DOUBLE:
+          return Double.compare(cursor1.readDouble(), cursor2.readDouble());
+        case STRING:
+          return compareStrings(cursor1, cursor2);
+        case BYTES:
+          int len1 = (int) cursor1.readLong();
+          int len2 = (int) cursor2.readLong();
+          int comp = compareBytes(cursor1.bytes, cursor1.pos, len1, cursor2.bytes, cursor2.pos, len2);
+          cursor1.pos += len1;
+          cursor2.pos += len2;
+          return comp;
+        case RECORD:
+          //noinspection ConstantConditions
+          for (Schema.Field field : schema.getFields()) {
+            comp = compare(field.getSchema(), cursor1, cursor2);
+            if (comp != 0) {
+              return comp;
+            }
+          }
+          return 0;
+        case UNION:
+          int idx1 = (int) cursor1.readLong();
+          int idx2 = (int) cursor2.readLong();
+          if (idx1 != idx2) {
+            // the union schemas are of distinct types, so this never returns 0
+            return SCHEMA_COMPARATOR.compare(schema.getUnionSchema(idx1), schema.getUnionSchema(idx2));
+          }
+          return compare(schema.getUnionSchema(idx1), cursor1, cursor2);
+      }
+
+      // should never happen, as only schemas that are raw comparable are compared
+      throw new IllegalStateException(String.format("Cannot compare serialized value of type '%s'",
+                                                    schema.getType()));
+    }
+
+    /**
+     * Compares two UTF-8 encoded strings the same way as {@link String#compareTo(String)} compares them.
+     */
+    private static int compareStrings(Cursor cursor1, Cursor cursor2) {
+      int len1 = (int) cursor1.readLong();
+      int len2 = (int) cursor2.readLong();
+      int comp = Integer.compare(len1, len2);
+      int len = Math.min(len1, len2);
+      for (int i = 0; i < len; i++) {
+        int byte1 = cursor1.bytes[cursor1.pos + i] & 0xff;
+        int byte2 = cursor2.bytes[cursor2.pos + i] & 0xff;
+        if (byte1 != byte2) {
+          comp = compareUtf8Bytes(byte1, byte2);
+          break;
+        }
+      }
+      cursor1.pos += len1;
+      cursor2.pos += len2;
+      return comp;
+    }
+
+    /**
+     * Compares the first differing bytes of two UTF-8 encoded strings. The unsigned byte order is the code point
+     * order, which is the order of {@link String#compareTo(String)} except that supplementary characters
+     * (lead byte 0xF0 and above) are encoded as surrogate pairs in Java strings, which are less than the characters
+     * from U+E000 to U+FFFF (lead byte 0xEE or 0xEF).
+     */
+    private static int compareUtf8Bytes(int byte1, int byte2) {
+      if (byte1 >= 0xF0 && (byte2 == 0xEE || byte2 == 0xEF)) {
+        return -1;
+      }
+      if (byte2 >= 0xF0 && (byte1 == 0xEE || byte1 == 0xEF)) {
+        return 1;
+      }
+      return Integer.compare(byte1, byte2);
+    }
+
+    private StructuredRecord deserialize(byte[] bytes, int offset, int length) throws IOException {
+      DataInputBuffer buffer = new DataInputBuffer();
+      buffer.reset(bytes, offset, length);
+      StructuredRecordWritable writable = new StructuredRecordWritable();
+      writable.conf = conf;
+      writable.configuredSchemas = configuredSchemas;
+      writable.readFields(buffer);
+      return writable.get();
+    }
+
+    /**
+     * Returns whether the serialized form of the records of the given schema can be compared without deserializing
+     * them. Enums, arrays and maps are not, as well as unions that contain more than one schema of the same type,
+     * since the union index written does not identify which of them {@link StructuredRecordComparator} would use.
+     */
+    private static boolean isRawComparable(Schema schema) {
+      switch (schema.getType()) {
+        case RECORD:
+          //noinspection ConstantConditions
+          return schema.getFields().stream().allMatch(field -> isRawComparable(field.getSchema()));
+        case UNION:
+          //noinspection ConstantConditions
+          List<Schema> unionSchemas = schema.getUnionSchemas();
+          return unionSchemas.stream().map(Schema::getType).distinct().count() == unionSchemas.size()
+            && unionSchemas.stream().allMatch(Comparator::isRawComparable);
+        default:
+          return PRIMITIVE_TYPES.contains(schema.getType());
+      }
+    }
+  }
+
+  /**
+   * Reads values of a serialized record from a byte array.
+   */
+  private static final class Cursor {
+    private final byte[] bytes;
+    private final Map<SchemaHash, Schema> configuredSchemas;
+    private int pos;
+
+    private Cursor(byte[] bytes, int pos, Map<SchemaHash, Schema> configuredSchemas) {
+      this.bytes = bytes;
+      this.pos = pos;
+      this.configuredSchemas = configuredSchemas;
+    }
+
+    Schema readSchema() throws IOException {
+      SchemaHash schemaHash = new SchemaHash(ByteBuffer.wrap(bytes, pos, SCHEMA_HASH_SIZE));
+      pos += SCHEMA_HASH_SIZE;
+      int schemaLen = WritableComparator.readVInt(bytes, pos);
+      pos += WritableUtils.decodeVIntSize(bytes[pos]);
+      Schema schema = getSchema(configuredSchemas, schemaHash);
+      if (schema == null) {
+        schema = parseSchema(schemaHash, bytes, pos, schemaLen);
+      }
+      pos += schemaLen;
+      return schema;
+    }
+
+    boolean readBoolean() {
+      return bytes[pos++] != 0;
+    }
+
+    long readLong() {
+      long val = 0;
+      int shift = 0;
+      int b = bytes[pos++] & 0xff;
+      while (b > 0x7f) {
+        val ^= (long) (b & 0x7f) << shift;
+        shift += 7;
+        b = bytes[pos++] & 0xff;
+      }
+      val ^= (long) b << shift;
+      return (val >>> 1) ^ -(val & 1);
+    }
+
+    float readFloat() {
+      return Float.intBitsToFloat(readFixedInt());
+    }
+
+    double readDouble() {
+      long low = readFixedInt() & 0xffffffffL;
+      long high = readFixedInt();
+      return Double.longBitsToDouble((high << 32) | low);
+    }
+
+    private int readFixedInt() {
+      int bits = (bytes[pos] & 0xff) | (bytes[pos + 1] & 0xff) << 8
+        | (bytes[pos + 2] & 0xff) << 16 | (bytes[pos + 3] & 0xff) << 24;
+      pos += 4;
+      return bits;
+    }
+  }
+
+  /**
+   * {@link Encoder} that writes values in binary format to a {@link DataOutput}.
+   * Integers are written with zig-zag variable length encoding and floating point numbers in little endian.
+   */
+  private static final class DataOutputEncoder implements Encoder {
+    private final DataOutput out;
+
+    private DataOutputEncoder(DataOutput out) {
+      this.out = out;
+    }
+
+    @Override
+    public Encoder writeNull() {
+      return this;
+    }
+
+    @Override
+    public Encoder writeBool(boolean b) throws IOException {
+      out.writeByte(b ? 1 : 0);
+      return this;
+    }
+
+    @Override
+    public Encoder writeInt(int i) throws IOException {
+      return writeLong(i);
+    }
+
+    @Override
+    public Encoder writeLong(long l) throws IOException {
+      long val = (l << 1) ^ (l >> 63);
+      while ((val & ~0x7fL) != 0) {
+        out.writeByte((int) ((val & 0x7f) | 0x80));
+        val >>>= 7;
+      }
+      out.writeByte((int) val);
+      return this;
+    }
+
+    @Override
+    public Encoder writeFloat(float f) throws IOException {
+      writeFixedInt(Float.floatToIntBits(f));
+      return this;
+    }
+
+    @Override
+    public Encoder writeDouble(double d) throws IOException {
+      long bits = Double.doubleToLongBits(d);
+      writeFixedInt((int) bits);
+      writeFixedInt((int) (bits >> 32));
+      return this;
+    }
+
+    @Override
+    public Encoder writeString(String s) throws IOException {
+      return writeBytes(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public Encoder writeBytes(byte[] bytes) throws IOException {
+      return writeBytes(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public Encoder writeBytes(byte[] bytes, int off, int len) throws IOException {
+      writeLong(len);
+      out.write(bytes, off, len);
+      return this;
+    }
+
+    @Override
+    public Encoder writeBytes(ByteBuffer bytes) throws IOException {
+      if (bytes.hasArray()) {
+        return writeBytes(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+      }
+      byte[] buf = new byte[bytes.remaining()];
+      bytes.duplicate().get(buf);
+      return writeBytes(buf);
+    }
+
+    private void writeFixedInt(int bits) throws IOException {
+      out.writeByte(bits & 0xff);
+      out.writeByte((bits >> 8) & 0xff);
+      out.writeByte((bits >> 16) & 0xff);
+      out.writeByte((bits >> 24) & 0xff);
+    }
+  }
+
+  /**
+   * {@link Decoder} that reads values written by {@link DataOutputEncoder} from a {@link DataInput}.
+   */
+  private static final class DataInputDecoder implements Decoder {
+    private final DataInput in;
+
+    private DataInputDecoder(DataInput in) {
+      this.in = in;
+    }
+
+    @Nullable
+    @Override
+    public Object readNull() {
+      return null;
+    }
+
+    @Override
+    public boolean readBool() throws IOException {
+      return in.readByte() != 0;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+      return (int) readLong();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+      long val = 0;
+      int shift = 0;
+      int b = in.readUnsignedByte();
+      while (b > 0x7f) {
+        val ^= (long) (b & 0x7f) << shift;
+        shift += 7;
+        b = in.readUnsignedByte();
+      }
+      val ^= (long) b << shift;
+      return (val >>> 1) ^ -(val & 1);
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+      return Float.intBitsToFloat(readFixedInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+      long low = readFixedInt() & 0xffffffffL;
+      long high = readFixedInt();
+      return Double.longBitsToDouble((high << 32) | low);
+    }
+
+    @Override
+    public String readString() throws IOException {
+      return new String(readRawBytes(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public ByteBuffer readBytes() throws IOException {
+      return ByteBuffer.wrap(readRawBytes());
+    }
+
+    @Override
+    public void skipFloat() throws IOException {
+      skipFully(in, 4);
+    }
+
+    @Override
+    public void skipDouble() throws IOException {
+      skipFully(in, 8);
+    }
+
+    @Override
+    public void skipString() throws IOException {
+      skipBytes();
+    }
+
+    @Override
+    public void skipBytes() throws IOException {
+      skipFully(in, readInt());
+    }
+
+    private byte[] readRawBytes() throws IOException {
+      int len = readInt();
+      if (len < 0) {
+        throw new EOFException("Invalid length " + len);
+      }
+      byte[] bytes = new byte[len];
+      in.readFully(bytes);
+      return bytes;
+    }
+
+    private int readFixedInt() throws IOException {
+      return in.readUnsignedByte() | in.readUnsignedByte() << 8
+        | in.readUnsignedByte() << 16 | in.readUnsignedByte() << 24;
+    }
+  }
 }
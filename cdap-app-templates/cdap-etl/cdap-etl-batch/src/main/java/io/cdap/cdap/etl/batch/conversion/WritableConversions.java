@@ -19,6 +19,7 @@ package io.cdap.cdap.etl.batch.conversion;
 import com.google.common.collect.ImmutableMap;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.etl.batch.StructuredRecordWritable;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.BooleanWritable;
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.DoubleWritable;
@@ -41,18 +42,7 @@ public class WritableConversions {
 
   static {
     ImmutableMap.Builder<String, WritableConversion<?, ?>> builder = ImmutableMap.builder();
-    builder.put(StructuredRecord.class.getName(),
-                new WritableConversion<StructuredRecord, StructuredRecordWritable>() {
-                  @Override
-                  public StructuredRecordWritable toWritable(StructuredRecord val) {
-                    return new StructuredRecordWritable(val);
-                  }
-
-                  @Override
-                  public StructuredRecord fromWritable(StructuredRecordWritable val) {
-                    return val.get();
-                  }
-                });
+    builder.put(StructuredRecord.class.getName(), new StructuredRecordConversion(null));
     builder.put(String.class.getName(),
                 new WritableConversion<String, Text>() {
                   @Override
@@ -153,7 +143,47 @@ public class WritableConversions {
     return (WritableConversion<KEY, VAL>) CONVERSIONS.get(className);
   }
 
+  /**
+   * Get the conversion functions to and from the WritableComparable for the specified class, where the Writables
+   * created are configured with the given configuration. Returns null if none exists.
+   *
+   * @param className the name of the class to convert to/from a WritableComparable
+   * @param conf the configuration of the job the Writables are serialized in
+   * @return conversion functions to and from the WritableComparable for the specified class
+   */
+  @Nullable
+  public static <KEY, VAL extends Writable> WritableConversion<KEY, VAL> getConversion(String className,
+                                                                                       Configuration conf) {
+    if (StructuredRecord.class.getName().equals(className)) {
+      //noinspection unchecked
+      return (WritableConversion<KEY, VAL>) new StructuredRecordConversion(conf);
+    }
+    return getConversion(className);
+  }
+
   private WritableConversions() {
     // no-op to prevent instantiation of a helper class
   }
+
+  /**
+   * Conversion between {@link StructuredRecord} and {@link StructuredRecordWritable}.
+   */
+  private static final class StructuredRecordConversion
+    extends WritableConversion<StructuredRecord, StructuredRecordWritable> {
+    private final Configuration conf;
+
+    private StructuredRecordConversion(@Nullable Configuration conf) {
+      this.conf = conf;
+    }
+
+    @Override
+    public StructuredRecordWritable toWritable(StructuredRecord val) {
+      return conf == null ? new StructuredRecordWritable(val) : new StructuredRecordWritable(val, conf);
+    }
+
+    @Override
+    public StructuredRecord fromWritable(StructuredRecordWritable val) {
+      return val.get();
+    }
+  }
 }
@@ -70,6 +70,9 @@ public class ETLMapReduce extends AbstractMapReduce {
   public static final String NAME = ETLMapReduce.class.getSimpleName();
   static final String MAP_KEY_CLASS = "cdap.etl.map.key.class";
   static final String MAP_VAL_CLASS = "cdap.etl.map.val.class";
+  // maximum number of groups a mapper partially aggregates in memory before writing them out
+  static final String MAP_AGGREGATE_MAX_GROUPS = "cdap.etl.map.aggregate.max.groups";
+  static final int DEFAULT_MAP_AGGREGATE_MAX_GROUPS = 10000;
   static final String RUNTIME_ARGS_KEY = "cdap.etl.runtime.args";
   static final String INPUT_ALIAS_KEY = "cdap.etl.source.alias.key";
   static final String SINK_OUTPUTS_KEY = "cdap.etl.sink.outputs";
@@ -236,6 +239,17 @@ public class ETLMapReduce extends AbstractMapReduce {
       }
     }
 
+    @Override
+    protected void cleanup(Mapper.Context context) {
+      // partially aggregated records are written out once all input of the mapper is processed
+      try {
+        transformRunner.finish();
+      } catch (StageFailureException e) {
+        PIPELINE_LOG.error("{}", e.getMessage(), e.getCause());
+        Throwables.propagate(e.getCause());
+      }
+    }
+
     @Override
     public void destroy() {
       transformRunner.destroy();
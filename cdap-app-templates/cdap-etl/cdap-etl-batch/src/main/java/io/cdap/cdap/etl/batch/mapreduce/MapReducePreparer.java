@@ -18,6 +18,8 @@ package io.cdap.cdap.etl.batch.mapreduce;
 
 import com.google.gson.Gson;
 import io.cdap.cdap.api.data.DatasetContext;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.api.macro.MacroEvaluator;
 import io.cdap.cdap.api.mapreduce.MapReduceContext;
 import io.cdap.cdap.api.metrics.Metrics;
@@ -27,6 +29,7 @@ import io.cdap.cdap.etl.api.Transform;
 import io.cdap.cdap.etl.api.batch.BatchAggregator;
 import io.cdap.cdap.etl.api.batch.BatchConfigurable;
 import io.cdap.cdap.etl.api.batch.BatchJoiner;
+import io.cdap.cdap.etl.api.batch.BatchReducibleAggregator;
 import io.cdap.cdap.etl.api.batch.BatchSinkContext;
 import io.cdap.cdap.etl.api.batch.BatchSourceContext;
 import io.cdap.cdap.etl.api.lineage.field.FieldOperation;
@@ -35,6 +38,7 @@ import io.cdap.cdap.etl.batch.DefaultAggregatorContext;
 import io.cdap.cdap.etl.batch.DefaultJoinerContext;
 import io.cdap.cdap.etl.batch.PipelinePhasePreparer;
 import io.cdap.cdap.etl.batch.PipelinePluginInstantiator;
+import io.cdap.cdap.etl.batch.StructuredRecordWritable;
 import io.cdap.cdap.etl.batch.conversion.WritableConversion;
 import io.cdap.cdap.etl.batch.conversion.WritableConversions;
 import io.cdap.cdap.etl.common.Constants;
@@ -57,6 +61,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
 
 /**
  * For each stage, call prepareRun() in topological order. prepareRun will setup the input/output of the pipeline phase
@@ -180,10 +187,15 @@ public class MapReducePreparer extends PipelinePhasePreparer {
       if (outputValClass == null) {
         outputValClass = TypeChecker.getGroupValueClass(aggregator);
       }
+      // reducible aggregators shuffle partial aggregate values instead of the group values
+      if (aggregator instanceof BatchReducibleAggregator) {
+        outputValClass = TypeChecker.getAggregateValueClass((BatchReducibleAggregator<?, ?, ?, ?>) aggregator);
+      }
       hConf.set(ETLMapReduce.MAP_KEY_CLASS, outputKeyClass.getName());
       hConf.set(ETLMapReduce.MAP_VAL_CLASS, outputValClass.getName());
       job.setMapOutputKeyClass(getOutputKeyClass(stageName, outputKeyClass));
       job.setMapOutputValueClass(getOutputValClass(stageName, outputValClass));
+      setRecordSerialization(stageSpec, aggregatorContext.getGroupKeySchema());
       stageOperations.put(stageName, aggregatorContext.getFieldOperations());
     });
   }
@@ -212,10 +224,29 @@ public class MapReducePreparer extends PipelinePhasePreparer {
       getOutputValClass(stageName, inputRecordClass);
       // for joiner plugin map output is tagged with stageName
       job.setMapOutputValueClass(TaggedWritable.class);
+      setRecordSerialization(stageSpec, joinerContext.getJoinKeySchema());
       stageOperations.put(stageName, joinerContext.getFieldOperations());
     });
   }
 
+  /**
+   * Sets up the serialization of the {@link StructuredRecord StructuredRecords} shuffled to the given reducer stage.
+   * The input records are usually of the input schemas of the stage, so those are serialized without the schema,
+   * as well as the keys if the stage declared their schema. Structured record keys are sorted on their serialized
+   * form.
+   */
+  private void setRecordSerialization(StageSpec reducerSpec, @Nullable Schema keySchema) {
+    List<Schema> schemas = Stream.concat(reducerSpec.getInputSchemas().values().stream(), Stream.of(keySchema))
+      .filter(schema -> schema != null && schema.getType() == Schema.Type.RECORD)
+      .distinct()
+      .collect(Collectors.toList());
+    StructuredRecordWritable.setSchemas(hConf, schemas);
+    if (StructuredRecordWritable.class.equals(job.getMapOutputKeyClass())) {
+      // set explicitly rather than relying on the registered comparator so that the comparator gets the configuration
+      job.setSortComparatorClass(StructuredRecordWritable.Comparator.class);
+    }
+  }
+
   private Class<?> getOutputKeyClass(String reducerName, Class<?> outputKeyClass) {
     // in case the classes are not a WritableComparable, but is some common type we support
     // for example, a String or a StructuredRecord
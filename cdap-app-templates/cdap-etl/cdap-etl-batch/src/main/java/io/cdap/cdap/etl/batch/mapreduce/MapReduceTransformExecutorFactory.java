@@ -38,6 +38,7 @@ import io.cdap.cdap.etl.api.Transformation;
 import io.cdap.cdap.etl.api.batch.BatchAggregator;
 import io.cdap.cdap.etl.api.batch.BatchJoiner;
 import io.cdap.cdap.etl.api.batch.BatchJoinerRuntimeContext;
+import io.cdap.cdap.etl.api.batch.BatchReducibleAggregator;
 import io.cdap.cdap.etl.api.batch.BatchRuntimeContext;
 import io.cdap.cdap.etl.batch.ConnectorSourceEmitter;
 import io.cdap.cdap.etl.batch.DirectOutputPipeStage;
@@ -54,6 +55,7 @@ import io.cdap.cdap.etl.common.BasicArguments;
 import io.cdap.cdap.etl.common.Constants;
 import io.cdap.cdap.etl.common.DefaultMacroEvaluator;
 import io.cdap.cdap.etl.common.DefaultStageMetrics;
+import io.cdap.cdap.etl.common.Destroyables;
 import io.cdap.cdap.etl.common.NoErrorEmitter;
 import io.cdap.cdap.etl.common.NoopStageStatisticsCollector;
 import io.cdap.cdap.etl.common.PipelinePhase;
@@ -67,10 +69,12 @@ import io.cdap.cdap.etl.proto.v2.spec.StageSpec;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableUtils;
 import org.apache.hadoop.mapreduce.JobContext;
 import org.apache.hadoop.mapreduce.Mapper;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -94,6 +98,7 @@ public class MapReduceTransformExecutorFactory<T> {
   private final String mapOutputValClassName;
   private final BasicArguments arguments;
   private final boolean isPipelineContainsCondition;
+  private final Configuration hConf;
   private boolean isMapPhase;
 
   public MapReduceTransformExecutorFactory(MapReduceTaskContext taskContext,
@@ -109,7 +114,7 @@ public class MapReduceTransformExecutorFactory<T> {
     this.macroEvaluator =
       new DefaultMacroEvaluator(arguments, taskContext.getLogicalStartTime(), taskContext, taskContext.getNamespace());
     JobContext hadoopContext = (JobContext) taskContext.getHadoopContext();
-    Configuration hConf = hadoopContext.getConfiguration();
+    this.hConf = hadoopContext.getConfiguration();
     this.mapOutputKeyClassName = hConf.get(ETLMapReduce.MAP_KEY_CLASS);
     this.mapOutputValClassName = hConf.get(ETLMapReduce.MAP_VAL_CLASS);
     this.isMapPhase = hadoopContext instanceof Mapper.Context;
@@ -157,8 +162,13 @@ public class MapReduceTransformExecutorFactory<T> {
       batchAggregator.initialize(runtimeContext);
       if (isMapPhase) {
         return getTrackedEmitKeyStep(new MapperAggregatorTransformation(batchAggregator, mapOutputKeyClassName,
-                                                                        mapOutputValClassName),
+                                                                        mapOutputValClassName, hConf),
                                      stageMetrics, taskContext.getDataTracer(stageName), collector);
+      } else if (batchAggregator instanceof BatchReducibleAggregator) {
+        return getTrackedAggregateStep(
+          new ReducerReducibleAggregatorTransformation((BatchReducibleAggregator<?, ?, ?, ?>) batchAggregator,
+                                                       mapOutputKeyClassName, mapOutputValClassName, hConf),
+          stageMetrics, taskContext.getDataTracer(stageName), collector);
       } else {
         return getTrackedAggregateStep(new ReducerAggregatorTransformation(batchAggregator,
                                                                            mapOutputKeyClassName,
@@ -171,7 +181,8 @@ public class MapReduceTransformExecutorFactory<T> {
       batchJoiner.initialize(runtimeContext);
       if (isMapPhase) {
         return getTrackedEmitKeyStep(
-          new MapperJoinerTransformation(batchJoiner, mapOutputKeyClassName, mapOutputValClassName), stageMetrics,
+          new MapperJoinerTransformation(batchJoiner, mapOutputKeyClassName, mapOutputValClassName, hConf),
+          stageMetrics,
           taskContext.getDataTracer(stageName), collector);
       } else {
         return getTrackedMergeStep(
@@ -244,6 +255,10 @@ public class MapReduceTransformExecutorFactory<T> {
         // connectors and joiners require the getting the RecordInfo class directly instead of unwrapping it
         Transformation<RecordInfo<Object>, Object> sink = getTransformation(stageSpec);
         return new DirectOutputPipeStage<>(stageName, sink, new SinkEmitter<>(stageName, outputWriter));
+      } else if (isMapPhase && BatchAggregator.PLUGIN_TYPE.equals(pluginType) &&
+        BatchReducibleAggregator.class.isAssignableFrom(pluginInstantiator.loadPluginClass(stageName))) {
+        // reducible aggregators partially aggregate their input before it is written to the shuffle
+        return getPartialAggregateStage(stageSpec, new SinkEmitter<>(stageName, outputWriter));
       } else {
         // others (batchsink, aggregators, alertpublisher), only required the value within the RecordInfo
         return new UnwrapPipeStage<>(stageName, getTransformation(stageSpec),
@@ -296,6 +311,25 @@ public class MapReduceTransformExecutorFactory<T> {
     }
   }
 
+  private PipeStage<RecordInfo<Object>> getPartialAggregateStage(StageSpec stageSpec,
+                                                                 Emitter<Object> emitter) throws Exception {
+    String stageName = stageSpec.getName();
+    BatchReducibleAggregator<Object, Object, Object, ?> aggregator =
+      pluginInstantiator.newPluginInstance(stageName, macroEvaluator);
+    aggregator.initialize(createRuntimeContext(stageSpec));
+
+    StageMetrics stageMetrics = new DefaultStageMetrics(metrics, stageName);
+    TaskAttemptContext taskAttemptContext = (TaskAttemptContext) taskContext.getHadoopContext();
+    StageStatisticsCollector collector = isPipelineContainsCondition ?
+      new MapReduceStageStatisticsCollector(stageName, taskAttemptContext) : new NoopStageStatisticsCollector();
+    TrackedTransform<Object, Object> groupBy = getTrackedEmitKeyStep(aggregator::groupBy, stageMetrics,
+                                                                     taskContext.getDataTracer(stageName), collector);
+    int maxGroups = hConf.getInt(ETLMapReduce.MAP_AGGREGATE_MAX_GROUPS,
+                                 ETLMapReduce.DEFAULT_MAP_AGGREGATE_MAX_GROUPS);
+    return new PartialAggregatePipeStage<>(stageName, aggregator, groupBy, emitter, mapOutputKeyClassName,
+                                           mapOutputValClassName, maxGroups, hConf);
+  }
+
   /**
    * Instantiates and initializes the plugin for the stage.
    *
@@ -353,11 +387,13 @@ public class MapReduceTransformExecutorFactory<T> {
     private final WritableConversion<INPUT_RECORD, OUT_VALUE> inputConversion;
 
     MapperJoinerTransformation(Joiner<JOIN_KEY, INPUT_RECORD, OUT> joiner, String joinKeyClassName,
-                               String joinInputClassName) {
+                               String joinInputClassName, Configuration hConf) {
       this.joiner = joiner;
-      WritableConversion<JOIN_KEY, OUT_KEY> keyConversion = WritableConversions.getConversion(joinKeyClassName);
+      // the map output is serialized with the schemas set in the job configuration
+      WritableConversion<JOIN_KEY, OUT_KEY> keyConversion =
+        WritableConversions.getConversion(joinKeyClassName, hConf);
       WritableConversion<INPUT_RECORD, OUT_VALUE> inputConversion =
-        WritableConversions.getConversion(joinInputClassName);
+        WritableConversions.getConversion(joinInputClassName, hConf);
       this.keyConversion = keyConversion == null ? new CastConversion<>() : keyConversion;
       this.inputConversion = inputConversion == null ? new CastConversion<>() : inputConversion;
     }
@@ -440,12 +476,16 @@ public class MapReduceTransformExecutorFactory<T> {
 
     MapperAggregatorTransformation(Aggregator<GROUP_KEY, GROUP_VAL, ?> aggregator,
                                    String groupKeyClassName,
-                                   String groupValClassName) {
+                                   String groupValClassName,
+                                   Configuration hConf) {
       this.aggregator = aggregator;
       this.groupKeyEmitter =
         new NoErrorEmitter<>("Errors and Alerts cannot be emitted from the groupBy method of an aggregator");
-      WritableConversion<GROUP_KEY, OUT_KEY> keyConversion = WritableConversions.getConversion(groupKeyClassName);
-      WritableConversion<GROUP_VAL, OUT_VAL> valConversion = WritableConversions.getConversion(groupValClassName);
+      // the map output is serialized with the schemas set in the job configuration
+      WritableConversion<GROUP_KEY, OUT_KEY> keyConversion =
+        WritableConversions.getConversion(groupKeyClassName, hConf);
+      WritableConversion<GROUP_VAL, OUT_VAL> valConversion =
+        WritableConversions.getConversion(groupValClassName, hConf);
       // if the conversion is null, it means the user is using a Writable already
       this.keyConversion = keyConversion == null ? new CastConversion<>() : keyConversion;
       this.valConversion = valConversion == null ? new CastConversion<>() : valConversion;
@@ -504,6 +544,125 @@ public class MapReduceTransformExecutorFactory<T> {
     }
   }
 
+  /**
+   * A pipe stage that partially aggregates the input of a reducible aggregator in the mapper. The aggregate value of
+   * each group is kept in memory, and only the aggregate values are written to the shuffle, when the mapper has
+   * consumed all of its input. If there are more groups than the given maximum, all partial aggregates are written
+   * out early so that memory use stays bounded when there are many groups.
+   *
+   * @param <GROUP_KEY> type of group key output by the aggregator
+   * @param <GROUP_VAL> type of group value used by the aggregator
+   * @param <AGG_VAL>   type of aggregate value used by the aggregator
+   * @param <OUT_KEY>   type of output key for mapreduce. Must implement WritableComparable
+   * @param <OUT_VAL>   type of output value for mapreduce. Must implement Writable
+   */
+  private static class PartialAggregatePipeStage<GROUP_KEY, GROUP_VAL, AGG_VAL, OUT_KEY extends Writable,
+    OUT_VAL extends Writable> extends PipeStage<RecordInfo<GROUP_VAL>> {
+    private final BatchReducibleAggregator<GROUP_KEY, GROUP_VAL, AGG_VAL, ?> aggregator;
+    private final Transformation<GROUP_VAL, GROUP_KEY> groupBy;
+    private final Emitter<Object> emitter;
+    private final NoErrorEmitter<GROUP_KEY> groupKeyEmitter;
+    private final WritableConversion<GROUP_KEY, OUT_KEY> keyConversion;
+    private final WritableConversion<AGG_VAL, OUT_VAL> aggConversion;
+    private final int maxGroups;
+    private final Map<GROUP_KEY, AGG_VAL> aggregates;
+
+    PartialAggregatePipeStage(String stageName, BatchReducibleAggregator<GROUP_KEY, GROUP_VAL, AGG_VAL, ?> aggregator,
+                              Transformation<GROUP_VAL, GROUP_KEY> groupBy, Emitter<Object> emitter,
+                              String groupKeyClassName, String aggValClassName, int maxGroups,
+                              Configuration hConf) {
+      super(stageName);
+      this.aggregator = aggregator;
+      this.groupBy = groupBy;
+      this.emitter = emitter;
+      this.groupKeyEmitter =
+        new NoErrorEmitter<>("Errors and Alerts cannot be emitted from the groupBy method of an aggregator");
+      // the map output is serialized with the schemas set in the job configuration
+      WritableConversion<GROUP_KEY, OUT_KEY> keyConversion =
+        WritableConversions.getConversion(groupKeyClassName, hConf);
+      WritableConversion<AGG_VAL, OUT_VAL> aggConversion = WritableConversions.getConversion(aggValClassName, hConf);
+      this.keyConversion = keyConversion == null ? new CastConversion<>() : keyConversion;
+      this.aggConversion = aggConversion == null ? new CastConversion<>() : aggConversion;
+      this.maxGroups = maxGroups;
+      this.aggregates = new HashMap<>();
+    }
+
+    @Override
+    protected void consumeInput(RecordInfo<GROUP_VAL> input) throws Exception {
+      GROUP_VAL value = input.getValue();
+      groupKeyEmitter.reset();
+      groupBy.transform(value, groupKeyEmitter);
+      Collection<GROUP_KEY> groupKeys = groupKeyEmitter.getEntries();
+      for (GROUP_KEY groupKey : groupKeys) {
+        AGG_VAL aggValue = aggregates.get(groupKey);
+        aggregates.put(groupKey, aggValue == null ?
+          aggregator.initializeAggregateValue(value) : aggregator.mergeValues(aggValue, value));
+      }
+      if (aggregates.size() > maxGroups) {
+        finishInput();
+      }
+    }
+
+    @Override
+    protected void finishInput() {
+      for (Map.Entry<GROUP_KEY, AGG_VAL> aggregate : aggregates.entrySet()) {
+        emitter.emit(new KeyValue<>(keyConversion.toWritable(aggregate.getKey()),
+                                    aggConversion.toWritable(aggregate.getValue())));
+      }
+      aggregates.clear();
+    }
+
+    @Override
+    public void destroy() {
+      Destroyables.destroyQuietly(aggregator);
+    }
+  }
+
+  /**
+   * A Transformation that merges the partial aggregate values of a group computed by the mappers and emits the
+   * output of the reducible aggregator for the final aggregate value.
+   *
+   * @param <GROUP_KEY>  type of group key output by the aggregator
+   * @param <AGG_VAL>    type of aggregate value used by the aggregator
+   * @param <REDUCE_KEY> type of reduce key for mapreduce. Must implement WritableComparable
+   * @param <REDUCE_VAL> type of reduce value for mapreduce. Must implement Writable
+   */
+  private static class ReducerReducibleAggregatorTransformation<GROUP_KEY, AGG_VAL, OUT,
+    REDUCE_KEY extends WritableComparable, REDUCE_VAL extends Writable>
+    implements Transformation<KeyValue<REDUCE_KEY, Iterator<REDUCE_VAL>>, OUT> {
+    private final BatchReducibleAggregator<GROUP_KEY, ?, AGG_VAL, OUT> aggregator;
+    private final WritableConversion<GROUP_KEY, REDUCE_KEY> keyConversion;
+    private final WritableConversion<AGG_VAL, REDUCE_VAL> aggConversion;
+    private final Configuration hConf;
+
+    ReducerReducibleAggregatorTransformation(BatchReducibleAggregator<GROUP_KEY, ?, AGG_VAL, OUT> aggregator,
+                                             String groupKeyClassName, String aggValClassName,
+                                             Configuration hConf) {
+      this.aggregator = aggregator;
+      WritableConversion<GROUP_KEY, REDUCE_KEY> keyConversion = WritableConversions.getConversion(groupKeyClassName);
+      this.keyConversion = keyConversion == null ? new CastConversion<>() : keyConversion;
+      this.aggConversion = WritableConversions.getConversion(aggValClassName);
+      this.hConf = hConf;
+    }
+
+    @Override
+    public void transform(KeyValue<REDUCE_KEY, Iterator<REDUCE_VAL>> input, Emitter<OUT> emitter) throws Exception {
+      GROUP_KEY groupKey = keyConversion.fromWritable(input.getKey());
+      Iterator<REDUCE_VAL> values = input.getValue();
+      AGG_VAL aggValue = getAggregateValue(values.next());
+      while (values.hasNext()) {
+        aggValue = aggregator.mergePartitions(aggValue, getAggregateValue(values.next()));
+      }
+      aggregator.finalize(groupKey, aggValue, emitter);
+    }
+
+    @SuppressWarnings("unchecked")
+    private AGG_VAL getAggregateValue(REDUCE_VAL value) {
+      // mapreduce reuses the value object, so Writable aggregate values need to be copied
+      return aggConversion == null ? (AGG_VAL) WritableUtils.clone(value, hConf) : aggConversion.fromWritable(value);
+    }
+  }
+
   /**
    * Conversion that doesn't do anything but cast types to each other.
    * This is used in the MapperAggregatorTransformation and ReducerAggregatorTransformation when the user is already
@@ -141,6 +141,13 @@ public class TransformRunner<KEY, VALUE> {
     transformExecutor.runOneIteration(input);
   }
 
+  /**
+   * Sends any records still buffered by the pipeline to the output, after the last input has been transformed.
+   */
+  public void finish() {
+    transformExecutor.finish();
+  }
+
   public void destroy() {
     Destroyables.destroyQuietly(transformExecutor);
   }
@@ -0,0 +1,167 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.etl.batch;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the shuffle of {@link StructuredRecordWritable} keys, as done for the group keys of an aggregator
+ * and the join keys of a joiner. Compares serializing records with their schema inline and with the schema set in
+ * the job configuration, and sorting serialized keys with the raw {@link StructuredRecordWritable.Comparator} and by
+ * deserializing them. The main method also prints the serialized size of a key in both formats.
+ *
+ * Run it with the main method from the test classpath of this module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ShuffleSerializationBenchmark {
+
+  private static final Schema SCHEMA = Schema.recordOf(
+    "key",
+    Schema.Field.of("name", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("id", Schema.of(Schema.Type.LONG)),
+    Schema.Field.of("count", Schema.of(Schema.Type.INT)),
+    Schema.Field.of("price", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))));
+  private static final int KEYS = 1000;
+
+  private Configuration conf;
+  private StructuredRecord[] records;
+  private byte[][] keys;
+  private StructuredRecordWritable.Comparator comparator;
+  private DataOutputBuffer output;
+
+  @Setup
+  public void setup() throws IOException {
+    conf = createConf();
+    records = createRecords();
+    keys = new byte[KEYS][];
+    for (int i = 0; i < KEYS; i++) {
+      keys[i] = serialize(new StructuredRecordWritable(records[i], conf));
+    }
+    comparator = new StructuredRecordWritable.Comparator();
+    comparator.setConf(conf);
+    output = new DataOutputBuffer();
+  }
+
+  @Benchmark
+  public int serializeInline() throws IOException {
+    output.reset();
+    for (StructuredRecord record : records) {
+      new StructuredRecordWritable(record).write(output);
+    }
+    return output.getLength();
+  }
+
+  @Benchmark
+  public int serializeConfigured() throws IOException {
+    output.reset();
+    for (StructuredRecord record : records) {
+      new StructuredRecordWritable(record, conf).write(output);
+    }
+    return output.getLength();
+  }
+
+  @Benchmark
+  public byte[][] sortRaw() {
+    byte[][] sorted = keys.clone();
+    Arrays.sort(sorted, (key1, key2) -> comparator.compare(key1, 0, key1.length, key2, 0, key2.length));
+    return sorted;
+  }
+
+  @Benchmark
+  public byte[][] sortDeserialized() {
+    byte[][] sorted = keys.clone();
+    DataInputBuffer buffer = new DataInputBuffer();
+    StructuredRecordWritable writable1 = new StructuredRecordWritable(null, conf);
+    StructuredRecordWritable writable2 = new StructuredRecordWritable(null, conf);
+    Arrays.sort(sorted, (key1, key2) -> {
+      try {
+        buffer.reset(key1, key1.length);
+        writable1.readFields(buffer);
+        buffer.reset(key2, key2.length);
+        writable2.readFields(buffer);
+        return writable1.compareTo(writable2);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    });
+    return sorted;
+  }
+
+  private static Configuration createConf() {
+    Configuration conf = new Configuration(false);
+    StructuredRecordWritable.setSchemas(conf, Collections.singleton(SCHEMA));
+    return conf;
+  }
+
+  private static StructuredRecord[] createRecords() {
+    Random random = new Random(0);
+    StructuredRecord[] records = new StructuredRecord[KEYS];
+    for (int i = 0; i < KEYS; i++) {
+      records[i] = StructuredRecord.builder(SCHEMA)
+        .set("name", "customer" + random.nextInt(100))
+        .set("id", random.nextLong())
+        .set("count", random.nextInt(1000))
+        .set("price", random.nextBoolean() ? null : random.nextDouble())
+        .build();
+    }
+    return records;
+  }
+
+  private static byte[] serialize(StructuredRecordWritable writable) throws IOException {
+    DataOutputBuffer output = new DataOutputBuffer();
+    writable.write(output);
+    return Arrays.copyOf(output.getData(), output.getLength());
+  }
+
+  public static void main(String[] args) throws IOException, RunnerException {
+    Configuration conf = createConf();
+    StructuredRecord record = createRecords()[0];
+    System.out.printf("Serialized key size: %d bytes with the schema inline, %d bytes with the configured schema%n",
+                      serialize(new StructuredRecordWritable(record)).length,
+                      serialize(new StructuredRecordWritable(record, conf)).length);
+    new Runner(new OptionsBuilder().include(ShuffleSerializationBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -18,6 +18,8 @@ package io.cdap.cdap.etl.batch;
 
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.etl.common.record.StructuredRecordComparator;
+import org.apache.hadoop.conf.Configuration;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -28,6 +30,12 @@ import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
 
 /**
  */
@@ -52,6 +60,132 @@ public class StructuredRecordWritableTest {
     Assert.assertEquals(writableIn.get(), record);
   }
 
+  @Test
+  public void testConfiguredSchema() throws IOException {
+    Schema schema = Schema.recordOf("configured", Schema.Field.of("x", Schema.of(Schema.Type.STRING)));
+    StructuredRecord record = StructuredRecord.builder(schema).set("x", "abc").build();
+    int inlineSize = serialize(record).length;
+
+    Configuration conf = new Configuration(false);
+    StructuredRecordWritable.setSchemas(conf, Collections.singletonList(schema));
+    byte[] bytes = serialize(new StructuredRecordWritable(record, conf));
+    Assert.assertTrue(bytes.length < inlineSize);
+    Assert.assertEquals(record, deserialize(bytes, conf));
+
+    // the schemas set in one configuration are not used with another one
+    Configuration otherConf = new Configuration(false);
+    Assert.assertEquals(inlineSize, serialize(new StructuredRecordWritable(record, otherConf)).length);
+    Assert.assertEquals(inlineSize, serialize(record).length);
+    try {
+      deserialize(bytes, otherConf);
+      Assert.fail("Expected the schema to be unknown without the configuration it was set in");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testConfiguredSchemaComparison() throws IOException {
+    Schema schema = Schema.recordOf("key", Schema.Field.of("s", Schema.of(Schema.Type.STRING)),
+                                    Schema.Field.of("a", Schema.arrayOf(Schema.of(Schema.Type.INT))));
+    Configuration conf = new Configuration(false);
+    StructuredRecordWritable.setSchemas(conf, Collections.singletonList(schema));
+
+    // the comparator reads the schemas of the keys from the configuration it is set with
+    StructuredRecordWritable.Comparator comparator = new StructuredRecordWritable.Comparator();
+    comparator.setConf(conf);
+    StructuredRecordComparator recordComparator = new StructuredRecordComparator();
+    List<StructuredRecord> records = new ArrayList<>();
+    for (String s : new String[] { "a", "b" }) {
+      for (List<Integer> array : Arrays.asList(Collections.singletonList(1), Collections.singletonList(2))) {
+        records.add(StructuredRecord.builder(schema).set("s", s).set("a", array).build());
+      }
+    }
+    for (StructuredRecord record1 : records) {
+      byte[] bytes1 = serialize(new StructuredRecordWritable(record1, conf));
+      for (StructuredRecord record2 : records) {
+        byte[] bytes2 = serialize(new StructuredRecordWritable(record2, conf));
+        Assert.assertEquals(Integer.signum(recordComparator.compare(record1, record2)),
+                            Integer.signum(comparator.compare(bytes1, 0, bytes1.length, bytes2, 0, bytes2.length)));
+      }
+    }
+  }
+
+  @Test
+  public void testRawComparison() throws IOException {
+    Schema inner = Schema.recordOf("inner", Schema.Field.of("d", Schema.of(Schema.Type.DOUBLE)));
+    Schema schema = Schema.recordOf(
+      "rec",
+      Schema.Field.of("b", Schema.of(Schema.Type.BOOLEAN)),
+      Schema.Field.of("i", Schema.of(Schema.Type.INT)),
+      Schema.Field.of("l", Schema.nullableOf(Schema.of(Schema.Type.LONG))),
+      Schema.Field.of("f", Schema.of(Schema.Type.FLOAT)),
+      Schema.Field.of("s", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("bytes", Schema.of(Schema.Type.BYTES)),
+      Schema.Field.of("inner", inner));
+    Schema arraySchema = Schema.recordOf("arr", Schema.Field.of("a", Schema.arrayOf(Schema.of(Schema.Type.INT))));
+
+    List<StructuredRecord> records = new ArrayList<>();
+    for (boolean b : new boolean[] { false, true }) {
+      for (int i : new int[] { Integer.MIN_VALUE, -1, 0, 1, 200 }) {
+        for (Long l : new Long[] { null, -5L, 5L }) {
+          for (String s : new String[] { "", "a", "ab", "b", "\uFFFD", "\uD83D\uDE00" }) {
+            records.add(StructuredRecord.builder(schema)
+                          .set("b", b).set("i", i).set("l", l).set("f", i / 3f).set("s", s)
+                          .set("bytes", new byte[] { (byte) i }).set("inner", StructuredRecord.builder(inner)
+                            .set("d", -(double) i).build())
+                          .build());
+          }
+        }
+      }
+    }
+    records.add(StructuredRecord.builder(arraySchema).set("a", Arrays.asList(1, 2)).build());
+    records.add(StructuredRecord.builder(arraySchema).set("a", Arrays.asList(1, 3)).build());
+
+    StructuredRecordWritable.Comparator comparator = new StructuredRecordWritable.Comparator();
+    StructuredRecordComparator recordComparator = new StructuredRecordComparator();
+    for (StructuredRecord record1 : records) {
+      byte[] bytes1 = serialize(record1);
+      for (StructuredRecord record2 : records) {
+        byte[] bytes2 = serialize(record2);
+        Assert.assertEquals(Integer.signum(recordComparator.compare(record1, record2)),
+                            Integer.signum(comparator.compare(bytes1, 0, bytes1.length, bytes2, 0, bytes2.length)));
+      }
+    }
+  }
+
+  @Test
+  public void testEmptyCollections() throws IOException {
+    Schema schema = Schema.recordOf(
+      "coll",
+      Schema.Field.of("a", Schema.arrayOf(Schema.of(Schema.Type.INT))),
+      Schema.Field.of("m", Schema.mapOf(Schema.of(Schema.Type.STRING), Schema.of(Schema.Type.INT))),
+      Schema.Field.of("s", Schema.of(Schema.Type.STRING)));
+
+    List<StructuredRecord> records = new ArrayList<>();
+    for (List<Integer> array : Arrays.asList(Collections.<Integer>emptyList(), Collections.singletonList(1))) {
+      for (Map<String, Integer> map : Arrays.asList(Collections.<String, Integer>emptyMap(),
+                                                    Collections.singletonMap("k", 1))) {
+        for (String s : new String[] { "a", "b" }) {
+          records.add(StructuredRecord.builder(schema).set("a", array).set("m", map).set("s", s).build());
+        }
+      }
+    }
+
+    StructuredRecordWritable.Comparator comparator = new StructuredRecordWritable.Comparator();
+    StructuredRecordComparator recordComparator = new StructuredRecordComparator();
+    for (StructuredRecord record1 : records) {
+      byte[] bytes1 = serialize(record1);
+      // Fields after an empty array or map must be read back intact
+      Assert.assertEquals(record1, deserialize(bytes1));
+      for (StructuredRecord record2 : records) {
+        byte[] bytes2 = serialize(record2);
+        Assert.assertEquals(Integer.signum(recordComparator.compare(record1, record2)),
+                            Integer.signum(comparator.compare(bytes1, 0, bytes1.length, bytes2, 0, bytes2.length)));
+      }
+    }
+  }
+
   @Test
   public void testComparison() {
     Schema schema = Schema.recordOf("l", Schema.Field.of("l", Schema.of(Schema.Type.LONG)));
@@ -62,4 +196,27 @@ public class StructuredRecordWritableTest {
     Assert.assertNotEquals(0, writable1.compareTo(writable2));
     Assert.assertNotEquals(writable1, writable2);
   }
+
+  private static byte[] serialize(StructuredRecord record) throws IOException {
+    return serialize(new StructuredRecordWritable(record));
+  }
+
+  private static byte[] serialize(StructuredRecordWritable writable) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    writable.write(new DataOutputStream(os));
+    return os.toByteArray();
+  }
+
+  private static StructuredRecord deserialize(byte[] bytes) throws IOException {
+    return deserialize(bytes, null);
+  }
+
+  private static StructuredRecord deserialize(byte[] bytes, @Nullable Configuration conf) throws IOException {
+    StructuredRecordWritable writable = new StructuredRecordWritable();
+    if (conf != null) {
+      writable.setConf(conf);
+    }
+    writable.readFields(new DataInputStream(new ByteArrayInputStream(bytes)));
+    return writable.get();
+  }
 }
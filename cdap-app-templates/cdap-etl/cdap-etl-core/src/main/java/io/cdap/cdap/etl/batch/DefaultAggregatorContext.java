@@ -18,10 +18,13 @@ package io.cdap.cdap.etl.batch;
 
 import io.cdap.cdap.api.Admin;
 import io.cdap.cdap.api.data.DatasetContext;
+import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.etl.api.batch.BatchAggregatorContext;
 import io.cdap.cdap.etl.common.PipelineRuntime;
 import io.cdap.cdap.etl.proto.v2.spec.StageSpec;
 
+import javax.annotation.Nullable;
+
 /**
  * Batch Aggregator Context.
  */
@@ -29,6 +32,7 @@ public class DefaultAggregatorContext extends AbstractBatchContext implements Ba
   private Integer numPartitions;
   private Class<?> groupKeyClass;
   private Class<?> groupValueClass;
+  private Schema groupKeySchema;
 
   public DefaultAggregatorContext(PipelineRuntime pipelineRuntime, StageSpec stageSpec,
                                   DatasetContext datasetContext, Admin admin) {
@@ -54,6 +58,11 @@ public class DefaultAggregatorContext extends AbstractBatchContext implements Ba
     this.groupValueClass = groupValueClass;
   }
 
+  @Override
+  public void setGroupKeySchema(Schema groupKeySchema) {
+    this.groupKeySchema = groupKeySchema;
+  }
+
   public Integer getNumPartitions() {
     return numPartitions;
   }
@@ -65,4 +74,9 @@ public class DefaultAggregatorContext extends AbstractBatchContext implements Ba
   public Class<?> getGroupValueClass() {
     return groupValueClass;
   }
+
+  @Nullable
+  public Schema getGroupKeySchema() {
+    return groupKeySchema;
+  }
 }
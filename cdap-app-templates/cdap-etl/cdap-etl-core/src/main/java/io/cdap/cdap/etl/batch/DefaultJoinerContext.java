@@ -18,10 +18,13 @@ package io.cdap.cdap.etl.batch;
 
 import io.cdap.cdap.api.Admin;
 import io.cdap.cdap.api.data.DatasetContext;
+import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.etl.api.batch.BatchJoinerContext;
 import io.cdap.cdap.etl.common.PipelineRuntime;
 import io.cdap.cdap.etl.proto.v2.spec.StageSpec;
 
+import javax.annotation.Nullable;
+
 /**
  * Batch Joiner context
  */
@@ -29,6 +32,7 @@ public class DefaultJoinerContext extends AbstractBatchContext implements BatchJ
   private Integer numPartitions;
   private Class<?> joinKeyClass;
   private Class<?> joinInputRecordClass;
+  private Schema joinKeySchema;
 
   public DefaultJoinerContext(PipelineRuntime pipelineRuntime, StageSpec stageSpec,
                               DatasetContext datasetContext, Admin admin) {
@@ -58,6 +62,11 @@ public class DefaultJoinerContext extends AbstractBatchContext implements BatchJ
     this.joinInputRecordClass = joinInputRecordClass;
   }
 
+  @Override
+  public void setJoinKeySchema(Schema joinKeySchema) {
+    this.joinKeySchema = joinKeySchema;
+  }
+
   public Class<?> getJoinKeyClass() {
     return joinKeyClass;
   }
@@ -65,4 +74,9 @@ public class DefaultJoinerContext extends AbstractBatchContext implements BatchJ
   public Class<?> getJoinInputRecordClass() {
     return joinInputRecordClass;
   }
+
+  @Nullable
+  public Schema getJoinKeySchema() {
+    return joinKeySchema;
+  }
 }
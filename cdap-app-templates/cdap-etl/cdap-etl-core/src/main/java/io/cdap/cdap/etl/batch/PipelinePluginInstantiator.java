@@ -24,6 +24,7 @@ import io.cdap.cdap.api.plugin.PluginProperties;
 import io.cdap.cdap.etl.api.AlertPublisher;
 import io.cdap.cdap.etl.batch.connector.AlertPublisherSink;
 import io.cdap.cdap.etl.batch.connector.ConnectorFactory;
+import io.cdap.cdap.etl.batch.connector.ConnectorFormat;
 import io.cdap.cdap.etl.batch.connector.ConnectorSink;
 import io.cdap.cdap.etl.batch.connector.ConnectorSource;
 import io.cdap.cdap.etl.common.Constants;
@@ -105,10 +106,12 @@ public class PipelinePluginInstantiator implements PluginContext {
   private <T> T getBuiltIn(String stageName) {
     if (connectorSources.contains(stageName)) {
       String datasetName = phaseSpec.getConnectorDatasets().get(stageName);
-      return (T) connectorFactory.createSource(datasetName);
+      ConnectorFormat format = ConnectorFormat.of(phaseSpec.getPhase().getStage(stageName));
+      return (T) connectorFactory.createSource(datasetName, format);
     } else if (connectorSinks.contains(stageName)) {
       String datasetName = phaseSpec.getConnectorDatasets().get(stageName);
-      return (T) connectorFactory.createSink(datasetName, phaseSpec.getPhaseName());
+      ConnectorFormat format = ConnectorFormat.of(phaseSpec.getPhase().getStage(stageName));
+      return (T) connectorFactory.createSink(datasetName, phaseSpec.getPhaseName(), format);
     }
     StageSpec stageSpec = phaseSpec.getPhase().getStage(stageName);
     if (stageSpec.getPluginType().equals(AlertPublisher.PLUGIN_TYPE)) {
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.batch.connector;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.common.io.Decoder;
+import io.cdap.cdap.format.StructuredRecordStringConverter;
+import io.cdap.cdap.format.io.StructuredRecordDatumReader;
+import org.apache.avro.Schema;
+import org.apache.avro.io.DatumReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import javax.annotation.Nullable;
+
+/**
+ * Avro {@link DatumReader} that reads {@link StructuredRecord StructuredRecords} written by
+ * {@link ConnectorAvroDatumWriter}. The record schema is taken from the data file metadata rather than converted
+ * from the Avro schema, so it must be set through {@link #setRecordSchema} before reading.
+ */
+final class ConnectorAvroDatumReader implements DatumReader<StructuredRecord> {
+  private static final StructuredRecordDatumReader RECORD_READER = new StructuredRecordDatumReader();
+  private io.cdap.cdap.api.data.schema.Schema recordSchema;
+  private boolean json;
+
+  void setRecordSchema(io.cdap.cdap.api.data.schema.Schema recordSchema, boolean json) {
+    this.recordSchema = recordSchema;
+    this.json = json;
+  }
+
+  @Override
+  public void setSchema(Schema schema) {
+    // no-op, records are read with the record schema
+  }
+
+  @Override
+  public StructuredRecord read(@Nullable StructuredRecord reuse, org.apache.avro.io.Decoder in) throws IOException {
+    if (json) {
+      return StructuredRecordStringConverter.fromJsonString(in.readString(null).toString(), recordSchema);
+    }
+    return RECORD_READER.read(new AvroDecoder(in), recordSchema);
+  }
+
+  /**
+   * {@link Decoder} that reads from an Avro {@link org.apache.avro.io.Decoder}.
+   */
+  private static final class AvroDecoder implements Decoder {
+    private final org.apache.avro.io.Decoder in;
+
+    private AvroDecoder(org.apache.avro.io.Decoder in) {
+      this.in = in;
+    }
+
+    @Nullable
+    @Override
+    public Object readNull() throws IOException {
+      in.readNull();
+      return null;
+    }
+
+    @Override
+    public boolean readBool() throws IOException {
+      return in.readBoolean();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+      return in.readInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+      return in.readLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+      return in.readFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+      return in.readDouble();
+    }
+
+    @Override
+    public String readString() throws IOException {
+      return in.readString(null).toString();
+    }
+
+    @Override
+    public ByteBuffer readBytes() throws IOException {
+      return in.readBytes(null);
+    }
+
+    @Override
+    public void skipFloat() throws IOException {
+      in.readFloat();
+    }
+
+    @Override
+    public void skipDouble() throws IOException {
+      in.readDouble();
+    }
+
+    @Override
+    public void skipString() throws IOException {
+      in.skipString();
+    }
+
+    @Override
+    public void skipBytes() throws IOException {
+      in.skipBytes();
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.batch.connector;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.common.io.Encoder;
+import io.cdap.cdap.format.StructuredRecordStringConverter;
+import io.cdap.cdap.format.io.StructuredRecordDatumWriter;
+import org.apache.avro.Schema;
+import org.apache.avro.io.DatumWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Avro {@link DatumWriter} that writes {@link StructuredRecord StructuredRecords} of the schema of the data file they
+ * are written to. Records are encoded with {@link StructuredRecordDatumWriter}, whose binary encoding is the Avro
+ * binary encoding, or as a json string if the record schema has no Avro equivalent.
+ */
+final class ConnectorAvroDatumWriter implements DatumWriter<StructuredRecord> {
+  private static final StructuredRecordDatumWriter RECORD_WRITER = new StructuredRecordDatumWriter();
+  private final boolean json;
+
+  ConnectorAvroDatumWriter(boolean json) {
+    this.json = json;
+  }
+
+  @Override
+  public void setSchema(Schema schema) {
+    // no-op, records are written with their own schema
+  }
+
+  @Override
+  public void write(StructuredRecord record, org.apache.avro.io.Encoder out) throws IOException {
+    if (json) {
+      out.writeString(StructuredRecordStringConverter.toJsonString(record));
+    } else {
+      RECORD_WRITER.encode(record, new AvroEncoder(out));
+    }
+  }
+
+  /**
+   * {@link Encoder} that writes to an Avro {@link org.apache.avro.io.Encoder}.
+   */
+  private static final class AvroEncoder implements Encoder {
+    private final org.apache.avro.io.Encoder out;
+
+    private AvroEncoder(org.apache.avro.io.Encoder out) {
+      this.out = out;
+    }
+
+    @Override
+    public Encoder writeNull() throws IOException {
+      out.writeNull();
+      return this;
+    }
+
+    @Override
+    public Encoder writeBool(boolean b) throws IOException {
+      out.writeBoolean(b);
+      return this;
+    }
+
+    @Override
+    public Encoder writeInt(int i) throws IOException {
+      out.writeInt(i);
+      return this;
+    }
+
+    @Override
+    public Encoder writeLong(long l) throws IOException {
+      out.writeLong(l);
+      return this;
+    }
+
+    @Override
+    public Encoder writeFloat(float f) throws IOException {
+      out.writeFloat(f);
+      return this;
+    }
+
+    @Override
+    public Encoder writeDouble(double d) throws IOException {
+      out.writeDouble(d);
+      return this;
+    }
+
+    @Override
+    public Encoder writeString(String s) throws IOException {
+      out.writeString(s);
+      return this;
+    }
+
+    @Override
+    public Encoder writeBytes(byte[] bytes) throws IOException {
+      out.writeBytes(bytes);
+      return this;
+    }
+
+    @Override
+    public Encoder writeBytes(byte[] bytes, int off, int len) throws IOException {
+      out.writeBytes(bytes, off, len);
+      return this;
+    }
+
+    @Override
+    public Encoder writeBytes(ByteBuffer bytes) throws IOException {
+      out.writeBytes(bytes);
+      return this;
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.batch.connector;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.etl.common.RecordInfo;
+import io.cdap.cdap.etl.common.RecordType;
+import org.apache.avro.file.DataFileReader;
+import org.apache.avro.file.SeekableInput;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileRecordReader;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileSplit;
+
+import java.io.IOException;
+
+/**
+ * {@link CombineFileInputFormat} that reads the data files written by {@link ConnectorAvroOutputFormat}.
+ * Like the {@code CombineTextInputFormat} used for text connectors, small files are combined into a split, while
+ * large files are split at the sync markers of the data files.
+ */
+public class ConnectorAvroInputFormat extends CombineFileInputFormat<NullWritable, RecordInfo<StructuredRecord>> {
+
+  @Override
+  public RecordReader<NullWritable, RecordInfo<StructuredRecord>> createRecordReader(InputSplit split,
+                                                                                     TaskAttemptContext context)
+    throws IOException {
+    return new CombineFileRecordReader<>((CombineFileSplit) split, context, DataFileRecordReader.class);
+  }
+
+  /**
+   * Reads the records of one data file in a {@link CombineFileSplit}, from the first sync marker after the start of
+   * the file split to the first sync marker after its end.
+   */
+  public static final class DataFileRecordReader extends RecordReader<NullWritable, RecordInfo<StructuredRecord>> {
+    private final Path path;
+    private final long start;
+    private final long end;
+    private DataFileReader<StructuredRecord> reader;
+    private String stage;
+    private RecordType type;
+    private RecordInfo<StructuredRecord> current;
+
+    // constructor required by CombineFileRecordReader
+    public DataFileRecordReader(CombineFileSplit split, TaskAttemptContext context, Integer idx) {
+      this.path = split.getPath(idx);
+      this.start = split.getOffset(idx);
+      this.end = start + split.getLength(idx);
+    }
+
+    @Override
+    public void initialize(InputSplit split, TaskAttemptContext context) throws IOException {
+      FileSystem fileSystem = path.getFileSystem(context.getConfiguration());
+      long length = fileSystem.getFileStatus(path).getLen();
+      ConnectorAvroDatumReader datumReader = new ConnectorAvroDatumReader();
+      reader = new DataFileReader<>(new FSSeekableInput(fileSystem.open(path), length), datumReader);
+
+      stage = reader.getMetaString(ConnectorAvroOutputFormat.STAGE_META);
+      type = RecordType.valueOf(reader.getMetaString(ConnectorAvroOutputFormat.TYPE_META));
+      datumReader.setRecordSchema(Schema.parseJson(reader.getMetaString(ConnectorAvroOutputFormat.SCHEMA_META)),
+                                  Boolean.parseBoolean(reader.getMetaString(ConnectorAvroOutputFormat.JSON_META)));
+      reader.sync(start);
+    }
+
+    @Override
+    public boolean nextKeyValue() throws IOException {
+      if (!reader.hasNext() || reader.pastSync(end)) {
+        current = null;
+        return false;
+      }
+      current = RecordInfo.builder(reader.next(), stage, type).build();
+      return true;
+    }
+
+    @Override
+    public NullWritable getCurrentKey() {
+      return NullWritable.get();
+    }
+
+    @Override
+    public RecordInfo<StructuredRecord> getCurrentValue() {
+      return current;
+    }
+
+    @Override
+    public float getProgress() throws IOException {
+      if (end == start) {
+        return 0.0f;
+      }
+      return Math.min(1.0f, (reader.tell() - start) / (float) (end - start));
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (reader != null) {
+        reader.close();
+      }
+    }
+  }
+
+  /**
+   * {@link SeekableInput} for reading a file through a {@link FSDataInputStream}.
+   */
+  private static final class FSSeekableInput implements SeekableInput {
+    private final FSDataInputStream input;
+    private final long length;
+
+    private FSSeekableInput(FSDataInputStream input, long length) {
+      this.input = input;
+      this.length = length;
+    }
+
+    @Override
+    public void seek(long p) throws IOException {
+      input.seek(p);
+    }
+
+    @Override
+    public long tell() throws IOException {
+      return input.getPos();
+    }
+
+    @Override
+    public long length() {
+      return length;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      return input.read(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      input.close();
+    }
+  }
+}
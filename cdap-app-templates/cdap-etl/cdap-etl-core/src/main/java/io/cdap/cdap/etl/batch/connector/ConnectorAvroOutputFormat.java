@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.batch.connector;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.etl.common.RecordInfo;
+import io.cdap.cdap.etl.common.RecordType;
+import org.apache.avro.file.CodecFactory;
+import org.apache.avro.file.DataFileWriter;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import javax.annotation.Nullable;
+
+/**
+ * {@link FileOutputFormat} that writes the records of a connector into Avro data files.
+ *
+ * A data file has a single schema, so each task writes a separate file for every combination of the stage a record
+ * came from, the record type, and the record schema. Those are stored in the file metadata, so that each record in
+ * the file only contains its field values.
+ */
+public class ConnectorAvroOutputFormat extends FileOutputFormat<NullWritable, RecordInfo<StructuredRecord>> {
+  static final String STAGE_META = "cdap.connector.stage";
+  static final String TYPE_META = "cdap.connector.type";
+  static final String SCHEMA_META = "cdap.connector.schema";
+  static final String JSON_META = "cdap.connector.json";
+  static final String FILE_EXTENSION = ".avro";
+  // the size of an uncompressed block in the data files, which is also the granularity of splits
+  static final String SYNC_INTERVAL = "cdap.connector.avro.sync.interval";
+
+  private static final Logger LOG = LoggerFactory.getLogger(ConnectorAvroOutputFormat.class);
+  private static final int DEFAULT_SYNC_INTERVAL = 64 * 1024;
+  private static final org.apache.avro.Schema JSON_SCHEMA =
+    org.apache.avro.Schema.create(org.apache.avro.Schema.Type.STRING);
+
+  @Override
+  public RecordWriter<NullWritable, RecordInfo<StructuredRecord>> getRecordWriter(TaskAttemptContext context)
+    throws IOException {
+    return new ConnectorRecordWriter(getDefaultWorkFile(context, ""), context.getConfiguration());
+  }
+
+  /**
+   * Writes records to one data file per stage, record type and schema.
+   */
+  private static final class ConnectorRecordWriter extends RecordWriter<NullWritable, RecordInfo<StructuredRecord>> {
+    private final Path basePath;
+    private final FileSystem fileSystem;
+    private final int syncInterval;
+    private final Map<FileKey, DataFileWriter<StructuredRecord>> writers;
+
+    private ConnectorRecordWriter(Path basePath, Configuration conf) throws IOException {
+      this.basePath = basePath;
+      this.fileSystem = basePath.getFileSystem(conf);
+      this.syncInterval = conf.getInt(SYNC_INTERVAL, DEFAULT_SYNC_INTERVAL);
+      this.writers = new HashMap<>();
+    }
+
+    @Override
+    public void write(NullWritable key, RecordInfo<StructuredRecord> value) throws IOException {
+      StructuredRecord record = value.getValue();
+      FileKey fileKey = new FileKey(value.getFromStage(), value.getType(), record.getSchema());
+      DataFileWriter<StructuredRecord> writer = writers.get(fileKey);
+      if (writer == null) {
+        writer = createWriter(fileKey);
+        writers.put(fileKey, writer);
+      }
+      writer.append(record);
+    }
+
+    @Override
+    public void close(TaskAttemptContext context) throws IOException {
+      IOException failure = null;
+      for (DataFileWriter<StructuredRecord> writer : writers.values()) {
+        try {
+          writer.close();
+        } catch (IOException e) {
+          if (failure == null) {
+            failure = e;
+          } else {
+            failure.addSuppressed(e);
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }
+
+    private DataFileWriter<StructuredRecord> createWriter(FileKey fileKey) throws IOException {
+      org.apache.avro.Schema avroSchema = toAvroSchema(fileKey.schema);
+      boolean json = avroSchema == null;
+
+      DataFileWriter<StructuredRecord> writer = new DataFileWriter<>(new ConnectorAvroDatumWriter(json));
+      writer.setCodec(CodecFactory.deflateCodec(Deflater.BEST_SPEED));
+      writer.setSyncInterval(syncInterval);
+      if (fileKey.stage != null) {
+        writer.setMeta(STAGE_META, fileKey.stage);
+      }
+      writer.setMeta(TYPE_META, fileKey.type.name());
+      writer.setMeta(SCHEMA_META, fileKey.schema.toString());
+      writer.setMeta(JSON_META, Boolean.toString(json));
+
+      Path path = new Path(basePath.getParent(), String.format("%s-%d%s", basePath.getName(), writers.size(),
+                                                               FILE_EXTENSION));
+      return writer.create(json ? JSON_SCHEMA : avroSchema, fileSystem.create(path, false));
+    }
+
+    /**
+     * Returns the Avro schema equivalent of the given schema, or {@code null} if it is not a valid Avro schema,
+     * for example because a record or field name contains characters that are not allowed in Avro names.
+     */
+    @Nullable
+    private org.apache.avro.Schema toAvroSchema(Schema schema) {
+      try {
+        return new org.apache.avro.Schema.Parser().parse(schema.toString());
+      } catch (Exception e) {
+        LOG.debug("Schema {} is not a valid Avro schema. Records of the schema will be written as json.", schema, e);
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Identifies the data file a record is written to.
+   */
+  private static final class FileKey {
+    private final String stage;
+    private final RecordType type;
+    private final Schema schema;
+
+    private FileKey(@Nullable String stage, RecordType type, Schema schema) {
+      this.stage = stage;
+      this.type = type;
+      this.schema = schema;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      FileKey that = (FileKey) o;
+      return Objects.equals(stage, that.stage) && type == that.type && schema.equals(that.schema);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(stage, type, schema);
+    }
+  }
+}
@@ -25,16 +25,18 @@ public interface ConnectorFactory {
    * Create a connector source
    *
    * @param datasetName the name of the connector dataset
+   * @param format the format of the data in the connector dataset
    * @return a new connector source
    */
-  ConnectorSource createSource(String datasetName);
+  ConnectorSource createSource(String datasetName, ConnectorFormat format);
 
   /**
    * Create a connector sink
    *
    * @param datasetName the name of the connector dataset
    * @param phaseName the name of the phase that will be writing to the dataset
+   * @param format the format of the data in the connector dataset
    * @return a new connector sink
    */
-  ConnectorSink createSink(String datasetName, String phaseName);
+  ConnectorSink createSink(String datasetName, String phaseName, ConnectorFormat format);
 }
@@ -17,10 +17,13 @@
 package io.cdap.cdap.etl.batch.connector;
 
 import io.cdap.cdap.api.data.batch.Output;
+import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.dataset.lib.FileSetArguments;
+import io.cdap.cdap.api.dataset.lib.KeyValue;
 import io.cdap.cdap.etl.api.batch.BatchSink;
 import io.cdap.cdap.etl.api.batch.BatchSinkContext;
 import io.cdap.cdap.etl.common.Constants;
+import io.cdap.cdap.etl.common.RecordInfo;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.io.Text;
 
@@ -39,17 +42,20 @@ import java.util.Map;
  * This is because we don't want this to show up as a plugin that users can select and use, and also because
  * it uses features not exposed in the etl api (local workflow datasets).
  *
- * TODO: improve storage format. It is currently a json of the record but that is obviously not ideal
+ * With the {@link ConnectorFormat#AVRO} format, records are written as a {@link RecordInfo} to Avro data files.
+ * With the {@link ConnectorFormat#TEXT} format, they are written as a line of json together with their schema.
  *
  * @param <T> type of input object
  */
-public abstract class ConnectorSink<T> extends BatchSink<T, NullWritable, Text> {
+public abstract class ConnectorSink<T> extends BatchSink<T, NullWritable, Object> {
   private final String datasetName;
   private final String phaseName;
+  protected final ConnectorFormat format;
 
-  protected ConnectorSink(String datasetName, String phaseName) {
+  protected ConnectorSink(String datasetName, String phaseName, ConnectorFormat format) {
     this.datasetName = datasetName;
     this.phaseName = phaseName;
+    this.format = format;
   }
 
   @Override
@@ -58,4 +64,18 @@ public abstract class ConnectorSink<T> extends BatchSink<T, NullWritable, Text>
     FileSetArguments.setOutputPath(arguments, Constants.Connector.DATA_DIR + "/" + phaseName);
     context.addOutput(Output.ofDataset(datasetName, arguments));
   }
+
+  /**
+   * Creates the output for a record in the Avro format.
+   */
+  protected static KeyValue<NullWritable, Object> avroOutput(RecordInfo<StructuredRecord> record) {
+    return new KeyValue<>(NullWritable.get(), record);
+  }
+
+  /**
+   * Creates the output for a record in the text format.
+   */
+  protected static KeyValue<NullWritable, Object> textOutput(String json) {
+    return new KeyValue<>(NullWritable.get(), new Text(json));
+  }
 }
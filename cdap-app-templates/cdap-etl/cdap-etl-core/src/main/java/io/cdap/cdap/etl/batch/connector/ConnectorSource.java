@@ -24,11 +24,7 @@ import io.cdap.cdap.api.workflow.WorkflowConfigurer;
 import io.cdap.cdap.etl.api.batch.BatchSource;
 import io.cdap.cdap.etl.api.batch.BatchSourceContext;
 import io.cdap.cdap.etl.common.Constants;
-import org.apache.hadoop.io.LongWritable;
-import org.apache.hadoop.io.Text;
-import org.apache.hadoop.mapreduce.lib.input.CombineTextInputFormat;
 import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
-import org.apache.hadoop.mapreduce.lib.output.TextOutputFormat;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -45,15 +41,20 @@ import java.util.Map;
  * This is because we don't want this to show up as a plugin that users can select and use, and also because
  * it uses features not exposed in the etl api (local workflow datasets).
  *
+ * Records are read as a {@link io.cdap.cdap.etl.common.RecordInfo} from Avro connectors and as a line of json
+ * from text connectors, depending on the {@link ConnectorFormat}.
+ *
  * @param <T> type of output object
  */
-public class ConnectorSource<T> extends BatchSource<LongWritable, Text, T> {
+public class ConnectorSource<T> extends BatchSource<Object, Object, T> {
   // you can't read from the basedir of a FileSet so adding an arbitrary directory where data will be stored/read.
   static final String DATA_DIR = "data";
   private final String datasetName;
+  private final ConnectorFormat format;
 
-  protected ConnectorSource(String datasetName) {
+  protected ConnectorSource(String datasetName, ConnectorFormat format) {
     this.datasetName = datasetName;
+    this.format = format;
   }
 
   // not the standard configurePipeline method. Need a workflowConfigurer to create a local dataset
@@ -61,9 +62,9 @@ public class ConnectorSource<T> extends BatchSource<LongWritable, Text, T> {
   public void configure(WorkflowConfigurer workflowConfigurer) {
     workflowConfigurer.createLocalDataset(datasetName, FileSet.class,
                                           FileSetProperties.builder()
-                                            .setInputFormat(CombineTextInputFormat.class)
+                                            .setInputFormat(format.getInputFormatClass())
                                             .setInputProperty(FileInputFormat.INPUT_DIR_RECURSIVE, "true")
-                                            .setOutputFormat(TextOutputFormat.class)
+                                            .setOutputFormat(format.getOutputFormatClass())
                                             .build());
   }
 
@@ -22,12 +22,12 @@ package io.cdap.cdap.etl.batch.connector;
 public class MultiConnectorFactory implements ConnectorFactory {
 
   @Override
-  public ConnectorSource createSource(String datasetName) {
-    return new MultiConnectorSource(datasetName, null);
+  public ConnectorSource createSource(String datasetName, ConnectorFormat format) {
+    return new MultiConnectorSource(datasetName, null, format);
   }
 
   @Override
-  public ConnectorSink createSink(String datasetName, String phaseName) {
-    return new MultiConnectorSink(datasetName, phaseName);
+  public ConnectorSink createSink(String datasetName, String phaseName, ConnectorFormat format) {
+    return new MultiConnectorSink(datasetName, phaseName, format);
   }
 }
@@ -23,7 +23,6 @@ import io.cdap.cdap.etl.api.Emitter;
 import io.cdap.cdap.etl.common.RecordInfo;
 import io.cdap.cdap.format.StructuredRecordStringConverter;
 import org.apache.hadoop.io.NullWritable;
-import org.apache.hadoop.io.Text;
 
 import java.io.IOException;
 
@@ -34,16 +33,19 @@ import java.io.IOException;
  */
 public class MultiConnectorSink extends ConnectorSink<RecordInfo<StructuredRecord>> {
 
-  public MultiConnectorSink(String datasetName, String phaseName) {
-    super(datasetName, phaseName);
+  public MultiConnectorSink(String datasetName, String phaseName, ConnectorFormat format) {
+    super(datasetName, phaseName, format);
   }
 
   @Override
-  public void transform(RecordInfo<StructuredRecord> input, Emitter<KeyValue<NullWritable, Text>> emitter)
+  public void transform(RecordInfo<StructuredRecord> input, Emitter<KeyValue<NullWritable, Object>> emitter)
     throws Exception {
+    if (format == ConnectorFormat.AVRO) {
+      emitter.emit(avroOutput(input));
+      return;
+    }
     StructuredRecord modifiedRecord = modifyRecord(input);
-    emitter.emit(new KeyValue<>(NullWritable.get(),
-                                new Text(StructuredRecordStringConverter.toJsonString(modifiedRecord))));
+    emitter.emit(textOutput(StructuredRecordStringConverter.toJsonString(modifiedRecord)));
   }
 
   private StructuredRecord modifyRecord(RecordInfo<StructuredRecord> input) throws IOException {
@@ -23,8 +23,6 @@ import io.cdap.cdap.etl.api.Emitter;
 import io.cdap.cdap.etl.common.RecordInfo;
 import io.cdap.cdap.etl.common.RecordType;
 import io.cdap.cdap.format.StructuredRecordStringConverter;
-import org.apache.hadoop.io.LongWritable;
-import org.apache.hadoop.io.Text;
 
 import javax.annotation.Nullable;
 
@@ -41,14 +39,20 @@ public class MultiConnectorSource extends ConnectorSource<RecordInfo<StructuredR
   @Nullable
   private final Schema schema;
 
-  public MultiConnectorSource(String datasetName, @Nullable Schema schema) {
-    super(datasetName);
+  public MultiConnectorSource(String datasetName, @Nullable Schema schema, ConnectorFormat format) {
+    super(datasetName, format);
     this.schema = schema;
   }
 
+  @SuppressWarnings("unchecked")
   @Override
-  public void transform(KeyValue<LongWritable, Text> input,
+  public void transform(KeyValue<Object, Object> input,
                         Emitter<RecordInfo<StructuredRecord>> emitter) throws Exception {
+    if (input.getValue() instanceof RecordInfo) {
+      emitter.emit((RecordInfo<StructuredRecord>) input.getValue());
+      return;
+    }
+
     StructuredRecord output;
     String inputStr = input.getValue().toString();
     StructuredRecord recordWithSchema =
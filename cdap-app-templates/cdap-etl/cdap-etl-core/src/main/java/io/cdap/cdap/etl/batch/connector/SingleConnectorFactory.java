@@ -22,12 +22,12 @@ package io.cdap.cdap.etl.batch.connector;
 public class SingleConnectorFactory implements ConnectorFactory {
 
   @Override
-  public ConnectorSource createSource(String datasetName) {
-    return new SingleConnectorSource(datasetName, null);
+  public ConnectorSource createSource(String datasetName, ConnectorFormat format) {
+    return new SingleConnectorSource(datasetName, null, format);
   }
 
   @Override
-  public ConnectorSink createSink(String datasetName, String phaseName) {
-    return new SingleConnectorSink(datasetName, phaseName);
+  public ConnectorSink createSink(String datasetName, String phaseName, ConnectorFormat format) {
+    return new SingleConnectorSink(datasetName, phaseName, format);
   }
 }
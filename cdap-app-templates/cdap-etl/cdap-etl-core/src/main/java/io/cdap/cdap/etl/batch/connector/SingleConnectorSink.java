@@ -20,9 +20,10 @@ import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.api.dataset.lib.KeyValue;
 import io.cdap.cdap.etl.api.Emitter;
+import io.cdap.cdap.etl.common.RecordInfo;
+import io.cdap.cdap.etl.common.RecordType;
 import io.cdap.cdap.format.StructuredRecordStringConverter;
 import org.apache.hadoop.io.NullWritable;
-import org.apache.hadoop.io.Text;
 
 import java.io.IOException;
 
@@ -32,16 +33,19 @@ import java.io.IOException;
  */
 public class SingleConnectorSink extends ConnectorSink<StructuredRecord> {
 
-  public SingleConnectorSink(String datasetName, String phaseName) {
-    super(datasetName, phaseName);
+  public SingleConnectorSink(String datasetName, String phaseName, ConnectorFormat format) {
+    super(datasetName, phaseName, format);
   }
 
   @Override
-  public void transform(StructuredRecord input, Emitter<KeyValue<NullWritable, Text>> emitter)
+  public void transform(StructuredRecord input, Emitter<KeyValue<NullWritable, Object>> emitter)
     throws Exception {
+    if (format == ConnectorFormat.AVRO) {
+      emitter.emit(avroOutput(RecordInfo.builder(input, null, RecordType.OUTPUT).build()));
+      return;
+    }
     StructuredRecord modifiedRecord = modifyRecord(input);
-    emitter.emit(new KeyValue<>(NullWritable.get(),
-                                new Text(StructuredRecordStringConverter.toJsonString(modifiedRecord))));
+    emitter.emit(textOutput(StructuredRecordStringConverter.toJsonString(modifiedRecord)));
   }
 
   private StructuredRecord modifyRecord(StructuredRecord input) throws IOException {
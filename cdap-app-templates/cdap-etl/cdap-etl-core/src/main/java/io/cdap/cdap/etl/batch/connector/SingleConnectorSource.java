@@ -20,9 +20,8 @@ import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.api.dataset.lib.KeyValue;
 import io.cdap.cdap.etl.api.Emitter;
+import io.cdap.cdap.etl.common.RecordInfo;
 import io.cdap.cdap.format.StructuredRecordStringConverter;
-import org.apache.hadoop.io.LongWritable;
-import org.apache.hadoop.io.Text;
 
 import javax.annotation.Nullable;
 
@@ -37,14 +36,20 @@ public class SingleConnectorSource extends ConnectorSource<StructuredRecord> {
   @Nullable
   private final Schema schema;
 
-  public SingleConnectorSource(String datasetName, @Nullable Schema schema) {
-    super(datasetName);
+  public SingleConnectorSource(String datasetName, @Nullable Schema schema, ConnectorFormat format) {
+    super(datasetName, format);
     this.schema = schema;
   }
 
+  @SuppressWarnings("unchecked")
   @Override
-  public void transform(KeyValue<LongWritable, Text> input,
+  public void transform(KeyValue<Object, Object> input,
                         Emitter<StructuredRecord> emitter) throws Exception {
+    if (input.getValue() instanceof RecordInfo) {
+      emitter.emit(((RecordInfo<StructuredRecord>) input.getValue()).getValue());
+      return;
+    }
+
     StructuredRecord output;
     String inputStr = input.getValue().toString();
     StructuredRecord recordWithSchema =
@@ -48,6 +48,9 @@ public final class Constants {
     public static final String SOURCE_TYPE = "source";
     public static final String SINK_TYPE = "sink";
     public static final String DATA_DIR = "data";
+    public static final String FORMAT = "format";
+    // pipeline property to choose the ConnectorFormat
+    public static final String FORMAT_PROPERTY = "system.connector.format";
   }
 
   /**
@@ -64,7 +67,9 @@ public final class Constants {
     public static final String RECORDS_ERROR = "records.error";
     public static final String RECORDS_ALERT = "records.alert";
     public static final String AGG_GROUPS = "aggregator.groups";
+    public static final String AGG_STATE_GROUPS = "aggregator.state.groups";
     public static final String JOIN_KEYS = "joiner.keys";
+    public static final String JOIN_BROADCAST_INPUTS = "joiner.broadcast.inputs";
   }
 
   /**
@@ -17,6 +17,7 @@
 package io.cdap.cdap.etl.common;
 
 import io.cdap.cdap.api.metrics.Metrics;
+import io.cdap.cdap.api.metrics.MetricsCounter;
 import io.cdap.cdap.etl.api.StageMetrics;
 import io.cdap.cdap.etl.common.plugin.Caller;
 import io.cdap.cdap.etl.common.plugin.NoStageLoggingCaller;
@@ -59,6 +60,17 @@ public class DefaultStageMetrics implements StageMetrics, Externalizable {
     });
   }
 
+  @Override
+  public MetricsCounter counter(final String metricName) {
+    // the counter is resolved once, increments on it do not log and so do not need to go through the caller
+    return caller.callUnchecked(new Callable<MetricsCounter>() {
+      @Override
+      public MetricsCounter call() throws Exception {
+        return metrics.counter(prefix + metricName);
+      }
+    });
+  }
+
   @Override
   public void gauge(final String metricName, final long value) {
     caller.callUnchecked(new Callable<Void>() {
@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.etl.common;
 
+import io.cdap.cdap.api.metrics.MetricsCounter;
 import io.cdap.cdap.api.preview.DataTracer;
 import io.cdap.cdap.etl.api.Emitter;
 import io.cdap.cdap.etl.api.InvalidEntry;
@@ -30,23 +31,39 @@ import java.util.Map;
  */
 public class TrackedEmitter<T> implements Emitter<T> {
   private final Emitter<T> delegate;
-  private final StageMetrics stageMetrics;
   private final String emitMetricName;
+  private final MetricsCounter emitCounter;
+  private final MetricsCounter errorCounter;
+  private final MetricsCounter alertCounter;
   private final DataTracer dataTracer;
   private final StageStatisticsCollector collector;
 
   public TrackedEmitter(Emitter<T> delegate, StageMetrics stageMetrics, String emitMetricName, DataTracer dataTracer,
                         StageStatisticsCollector collector) {
+    this(delegate, emitMetricName, stageMetrics.counter(emitMetricName),
+         stageMetrics.counter(Constants.Metrics.RECORDS_ERROR), stageMetrics.counter(Constants.Metrics.RECORDS_ALERT),
+         dataTracer, collector);
+  }
+
+  /**
+   * Creates an emitter that counts through already resolved counters, so that creating it for every record
+   * does not need to look up any metric.
+   */
+  TrackedEmitter(Emitter<T> delegate, String emitMetricName, MetricsCounter emitCounter,
+                 MetricsCounter errorCounter, MetricsCounter alertCounter, DataTracer dataTracer,
+                 StageStatisticsCollector collector) {
     this.delegate = delegate;
-    this.stageMetrics = stageMetrics;
     this.emitMetricName = emitMetricName;
+    this.emitCounter = emitCounter;
+    this.errorCounter = errorCounter;
+    this.alertCounter = alertCounter;
     this.dataTracer = dataTracer;
     this.collector = collector;
   }
 
   @Override
   public void emit(T value) {
-    stageMetrics.count(emitMetricName, 1);
+    emitCounter.increment(1);
     if (emitMetricName.equals(Constants.Metrics.RECORDS_OUT)) {
       collector.incrementOutputRecordCount();
     }
@@ -58,7 +75,7 @@ public class TrackedEmitter<T> implements Emitter<T> {
 
   @Override
   public void emitError(InvalidEntry<T> value) {
-    stageMetrics.count(Constants.Metrics.RECORDS_ERROR, 1);
+    errorCounter.increment(1);
     collector.incrementErrorRecordCount();
     if (dataTracer.isEnabled()) {
       dataTracer.info(Constants.Metrics.RECORDS_ERROR, value);
@@ -68,7 +85,7 @@ public class TrackedEmitter<T> implements Emitter<T> {
 
   @Override
   public void emitAlert(Map<String, String> payload) {
-    stageMetrics.count(Constants.Metrics.RECORDS_ALERT, 1);
+    alertCounter.increment(1);
     if (dataTracer.isEnabled()) {
       dataTracer.info(Constants.Metrics.RECORDS_ALERT, payload);
     }
@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.etl.common;
 
+import io.cdap.cdap.api.metrics.MetricsCounter;
 import io.cdap.cdap.etl.api.StageMetrics;
 
 import java.util.Iterator;
@@ -27,13 +28,11 @@ import java.util.Iterator;
  */
 public class TrackedIterator<T> implements Iterator<T> {
   private final Iterator<T> delegate;
-  private final StageMetrics stageMetrics;
-  private final String metricName;
+  private final MetricsCounter counter;
 
   public TrackedIterator(Iterator<T> delegate, StageMetrics stageMetrics, String metricName) {
     this.delegate = delegate;
-    this.stageMetrics = stageMetrics;
-    this.metricName = metricName;
+    this.counter = stageMetrics.counter(metricName);
   }
 
   @Override
@@ -43,7 +42,7 @@ public class TrackedIterator<T> implements Iterator<T> {
 
   @Override
   public T next() {
-    stageMetrics.count(metricName, 1);
+    counter.increment(1);
     return delegate.next();
   }
 
@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.etl.common;
 
+import io.cdap.cdap.api.metrics.MetricsCounter;
 import io.cdap.cdap.api.preview.DataTracer;
 import io.cdap.cdap.etl.api.Destroyable;
 import io.cdap.cdap.etl.api.MultiOutputEmitter;
@@ -34,6 +35,7 @@ import io.cdap.cdap.etl.api.Transformation;
 public class TrackedMultiOutputTransform<IN, ERROR> implements MultiOutputTransformation<IN, ERROR>, Destroyable {
   private final MultiOutputTransformation<IN, ERROR> transform;
   private final StageMetrics metrics;
+  private final MetricsCounter inCounter;
   private final DataTracer dataTracer;
   private final StageStatisticsCollector collector;
 
@@ -46,13 +48,14 @@ public class TrackedMultiOutputTransform<IN, ERROR> implements MultiOutputTransf
                                      DataTracer dataTracer, StageStatisticsCollector collector) {
     this.transform = transform;
     this.metrics = metrics;
+    this.inCounter = metrics.counter(Constants.Metrics.RECORDS_IN);
     this.dataTracer = dataTracer;
     this.collector = collector;
   }
 
   @Override
   public void transform(IN input, MultiOutputEmitter<ERROR> emitter) throws Exception {
-    metrics.count(Constants.Metrics.RECORDS_IN, 1);
+    inCounter.increment(1);
     collector.incrementInputRecordCount();
     transform.transform(input, new TrackedMultiOutputEmitter<>(emitter, metrics, dataTracer, collector));
   }
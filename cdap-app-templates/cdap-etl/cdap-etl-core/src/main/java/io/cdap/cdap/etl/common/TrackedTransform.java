@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.etl.common;
 
+import io.cdap.cdap.api.metrics.MetricsCounter;
 import io.cdap.cdap.api.preview.DataTracer;
 import io.cdap.cdap.etl.api.Destroyable;
 import io.cdap.cdap.etl.api.Emitter;
@@ -33,9 +34,13 @@ import javax.annotation.Nullable;
  */
 public class TrackedTransform<IN, OUT> implements Transformation<IN, OUT>, Destroyable {
   private final Transformation<IN, OUT> transform;
-  private final StageMetrics metrics;
   private final String metricInName;
   private final String metricOutName;
+  // counters are resolved once, as transform is called for every record
+  private final MetricsCounter inCounter;
+  private final MetricsCounter outCounter;
+  private final MetricsCounter errorCounter;
+  private final MetricsCounter alertCounter;
   private final DataTracer dataTracer;
   private final StageStatisticsCollector collector;
 
@@ -56,9 +61,12 @@ public class TrackedTransform<IN, OUT> implements Transformation<IN, OUT>, Destr
   public TrackedTransform(Transformation<IN, OUT> transform, StageMetrics metrics, @Nullable String metricInName,
                           @Nullable String metricOutName, DataTracer dataTracer, StageStatisticsCollector collector) {
     this.transform = transform;
-    this.metrics = metrics;
     this.metricInName = metricInName;
     this.metricOutName = metricOutName;
+    this.inCounter = metricInName == null ? null : metrics.counter(metricInName);
+    this.outCounter = metricOutName == null ? null : metrics.counter(metricOutName);
+    this.errorCounter = metricOutName == null ? null : metrics.counter(Constants.Metrics.RECORDS_ERROR);
+    this.alertCounter = metricOutName == null ? null : metrics.counter(Constants.Metrics.RECORDS_ALERT);
     this.dataTracer = dataTracer;
     this.collector = collector;
   }
@@ -66,13 +74,13 @@ public class TrackedTransform<IN, OUT> implements Transformation<IN, OUT>, Destr
   @Override
   public void transform(IN input, Emitter<OUT> emitter) throws Exception {
     if (metricInName != null) {
-      metrics.count(metricInName, 1);
+      inCounter.increment(1);
       if (metricInName.equals(Constants.Metrics.RECORDS_IN)) {
         collector.incrementInputRecordCount();
       }
     }
     transform.transform(input, metricOutName == null ? emitter :
-      new TrackedEmitter<>(emitter, metrics, metricOutName, dataTracer, collector));
+      new TrackedEmitter<>(emitter, metricOutName, outCounter, errorCounter, alertCounter, dataTracer, collector));
   }
 
   @Override
@@ -20,6 +20,7 @@ import com.google.common.reflect.TypeToken;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.etl.api.Aggregator;
 import io.cdap.cdap.etl.api.Joiner;
+import io.cdap.cdap.etl.api.ReducibleAggregator;
 
 /**
  * Helper for checking parameter types.
@@ -37,6 +38,10 @@ public class TypeChecker {
     return getParameterClass(aggregator, Aggregator.class, 1);
   }
 
+  public static Class<?> getAggregateValueClass(ReducibleAggregator aggregator) {
+    return getParameterClass(aggregator, ReducibleAggregator.class, 2);
+  }
+
   public static Class<?> getJoinKeyClass(Joiner joiner) {
     return getParameterClass(joiner, Joiner.class, 0);
   }
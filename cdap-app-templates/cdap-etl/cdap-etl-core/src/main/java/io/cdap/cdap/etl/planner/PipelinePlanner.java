@@ -22,6 +22,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import io.cdap.cdap.etl.api.condition.Condition;
+import io.cdap.cdap.etl.batch.connector.ConnectorFormat;
 import io.cdap.cdap.etl.common.Constants;
 import io.cdap.cdap.etl.common.PipelinePhase;
 import io.cdap.cdap.etl.proto.Connection;
@@ -35,6 +36,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import javax.annotation.Nullable;
 
 /**
  * Takes a {@link PipelineSpec} and creates an execution plan from it.
@@ -45,9 +47,21 @@ public class PipelinePlanner {
   private final Set<String> supportedPluginTypes;
   private final Set<String> actionTypes;
   private final Set<String> multiPortTypes;
+  private final ConnectorFormat connectorFormat;
 
   public PipelinePlanner(Set<String> supportedPluginTypes, Set<String> reduceTypes, Set<String> isolationTypes,
                          Set<String> actionTypes, Set<String> multiPortTypes) {
+    this(supportedPluginTypes, reduceTypes, isolationTypes, actionTypes, multiPortTypes, null);
+  }
+
+  /**
+   * Creates a planner whose connectors store their data in the given format. If the format is null, connectors
+   * will not have a format property and will use the default {@link ConnectorFormat#TEXT} format.
+   */
+  public PipelinePlanner(Set<String> supportedPluginTypes, Set<String> reduceTypes, Set<String> isolationTypes,
+                         Set<String> actionTypes, Set<String> multiPortTypes,
+                         @Nullable ConnectorFormat connectorFormat) {
+    this.connectorFormat = connectorFormat;
     this.reduceTypes = ImmutableSet.copyOf(reduceTypes);
     this.isolationTypes = ImmutableSet.copyOf(isolationTypes);
     this.supportedPluginTypes = ImmutableSet.copyOf(supportedPluginTypes);
@@ -359,11 +373,14 @@ public class PipelinePlanner {
       if (originalName != null || conditionConnectors.values().contains(stageName)) {
         String connectorType = dag.getSources().contains(stageName) ?
           Constants.Connector.SOURCE_TYPE : Constants.Connector.SINK_TYPE;
+        ImmutableMap.Builder<String, String> connectorProperties = ImmutableMap.<String, String>builder()
+          .put(Constants.Connector.ORIGINAL_NAME, originalName != null ? originalName : stageName)
+          .put(Constants.Connector.TYPE, connectorType);
+        if (connectorFormat != null) {
+          connectorProperties.put(Constants.Connector.FORMAT, connectorFormat.name());
+        }
         PluginSpec connectorSpec =
-          new PluginSpec(Constants.Connector.PLUGIN_TYPE, "connector",
-                         ImmutableMap.of(Constants.Connector.ORIGINAL_NAME, originalName != null
-                                           ? originalName : stageName,
-                                         Constants.Connector.TYPE, connectorType), null);
+          new PluginSpec(Constants.Connector.PLUGIN_TYPE, "connector", connectorProperties.build(), null);
         phaseBuilder.addStage(StageSpec.builder(stageName, connectorSpec).build());
         continue;
       }
@@ -0,0 +1,188 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.batch.connector;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multiset;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.etl.common.Constants;
+import io.cdap.cdap.etl.common.RecordInfo;
+import io.cdap.cdap.etl.common.RecordType;
+import io.cdap.cdap.etl.proto.v2.spec.PluginSpec;
+import io.cdap.cdap.etl.proto.v2.spec.StageSpec;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.JobContext;
+import org.apache.hadoop.mapreduce.JobID;
+import org.apache.hadoop.mapreduce.OutputCommitter;
+import org.apache.hadoop.mapreduce.RecordReader;
+import org.apache.hadoop.mapreduce.RecordWriter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskType;
+import org.apache.hadoop.mapreduce.lib.input.CombineFileSplit;
+import org.apache.hadoop.mapreduce.lib.input.CombineTextInputFormat;
+import org.apache.hadoop.mapreduce.lib.input.FileInputFormat;
+import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.TextOutputFormat;
+import org.apache.hadoop.mapreduce.task.JobContextImpl;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for {@link ConnectorAvroOutputFormat}, {@link ConnectorAvroInputFormat} and {@link ConnectorFormat}.
+ */
+public class ConnectorAvroFormatTest {
+
+  @ClassRule
+  public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+  private static final Schema SCHEMA = Schema.recordOf(
+    "rec",
+    Schema.Field.of("id", Schema.of(Schema.Type.INT)),
+    Schema.Field.of("name", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("values", Schema.arrayOf(Schema.of(Schema.Type.INT))),
+    Schema.Field.of("counts", Schema.mapOf(Schema.of(Schema.Type.STRING), Schema.of(Schema.Type.LONG))));
+  private static final Schema ERROR_SCHEMA = Schema.recordOf(
+    "error",
+    Schema.Field.of("message", Schema.of(Schema.Type.STRING)));
+  // not a valid Avro schema because of the field name, so the records are written as json
+  private static final Schema JSON_SCHEMA = Schema.recordOf(
+    "user",
+    Schema.Field.of("id", Schema.of(Schema.Type.INT)),
+    Schema.Field.of("first-name", Schema.of(Schema.Type.STRING)));
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    Configuration conf = new Configuration();
+    // small blocks and splits, so that splits start and end in the middle of the data files
+    conf.setInt(ConnectorAvroOutputFormat.SYNC_INTERVAL, 1024);
+    conf.setLong(FileInputFormat.SPLIT_MAXSIZE, 4096);
+    Path outputDir = new Path(TEMP_FOLDER.newFolder().toURI().toString(), "connector");
+    conf.set(FileOutputFormat.OUTDIR, outputDir.toString());
+    conf.set(FileInputFormat.INPUT_DIR, outputDir.toString());
+
+    List<RecordInfo<StructuredRecord>> records = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      StructuredRecord record = StructuredRecord.builder(SCHEMA)
+        .set("id", i)
+        .set("name", i % 3 == 0 ? null : "name" + i)
+        .set("values", i % 4 == 0 ? Collections.<Integer>emptyList() : Arrays.asList(i, i + 1))
+        .set("counts", i % 5 == 0 ? Collections.<String, Long>emptyMap() : ImmutableMap.of("c" + i, (long) i))
+        .build();
+      records.add(RecordInfo.builder(record, "source", RecordType.OUTPUT).build());
+    }
+    for (int i = 0; i < 100; i++) {
+      StructuredRecord error = StructuredRecord.builder(ERROR_SCHEMA).set("message", "error" + i).build();
+      records.add(RecordInfo.builder(error, "transform", RecordType.ERROR).build());
+      StructuredRecord user = StructuredRecord.builder(JSON_SCHEMA).set("id", i).set("first-name", "n" + i).build();
+      records.add(RecordInfo.builder(user, "transform", RecordType.OUTPUT).build());
+    }
+
+    write(conf, records);
+
+    JobContext jobContext = new JobContextImpl(conf, new JobID("test", 0));
+    List<InputSplit> splits = new ConnectorAvroInputFormat().getSplits(jobContext);
+    boolean splitMidFile = false;
+    Multiset<List<Object>> actual = HashMultiset.create();
+    for (InputSplit split : splits) {
+      CombineFileSplit combineSplit = (CombineFileSplit) split;
+      for (int i = 0; i < combineSplit.getNumPaths(); i++) {
+        Assert.assertTrue(combineSplit.getPath(i).getName().endsWith(ConnectorAvroOutputFormat.FILE_EXTENSION));
+        splitMidFile = splitMidFile || combineSplit.getOffset(i) > 0;
+      }
+      actual.addAll(read(conf, split));
+    }
+    Assert.assertTrue(splitMidFile);
+
+    Multiset<List<Object>> expected = HashMultiset.create();
+    for (RecordInfo<StructuredRecord> record : records) {
+      expected.add(toList(record));
+    }
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testConnectorFormat() {
+    // connectors planned before the format property was added use the text format
+    PluginSpec textSpec = new PluginSpec(Constants.Connector.PLUGIN_TYPE, "connector",
+                                         ImmutableMap.of(Constants.Connector.ORIGINAL_NAME, "n1",
+                                                         Constants.Connector.TYPE, Constants.Connector.SINK_TYPE),
+                                         null);
+    ConnectorFormat format = ConnectorFormat.of(StageSpec.builder("n1.connector", textSpec).build());
+    Assert.assertEquals(ConnectorFormat.TEXT, format);
+    Assert.assertEquals(CombineTextInputFormat.class, format.getInputFormatClass());
+    Assert.assertEquals(TextOutputFormat.class, format.getOutputFormatClass());
+
+    PluginSpec avroSpec = new PluginSpec(Constants.Connector.PLUGIN_TYPE, "connector",
+                                         ImmutableMap.of(Constants.Connector.ORIGINAL_NAME, "n1",
+                                                         Constants.Connector.TYPE, Constants.Connector.SINK_TYPE,
+                                                         Constants.Connector.FORMAT, ConnectorFormat.AVRO.name()),
+                                         null);
+    format = ConnectorFormat.of(StageSpec.builder("n1.connector", avroSpec).build());
+    Assert.assertEquals(ConnectorFormat.AVRO, format);
+    Assert.assertEquals(ConnectorAvroInputFormat.class, format.getInputFormatClass());
+    Assert.assertEquals(ConnectorAvroOutputFormat.class, format.getOutputFormatClass());
+  }
+
+  private void write(Configuration conf, List<RecordInfo<StructuredRecord>> records) throws Exception {
+    ConnectorAvroOutputFormat outputFormat = new ConnectorAvroOutputFormat();
+    TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID("test", 0, TaskType.MAP, 0, 0));
+    OutputCommitter committer = outputFormat.getOutputCommitter(context);
+    committer.setupJob(context);
+    committer.setupTask(context);
+
+    RecordWriter<NullWritable, RecordInfo<StructuredRecord>> writer = outputFormat.getRecordWriter(context);
+    for (RecordInfo<StructuredRecord> record : records) {
+      writer.write(NullWritable.get(), record);
+    }
+    writer.close(context);
+
+    committer.commitTask(context);
+    committer.commitJob(context);
+  }
+
+  private List<List<Object>> read(Configuration conf, InputSplit split) throws Exception {
+    TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID("test", 0, TaskType.MAP, 0, 0));
+    List<List<Object>> records = new ArrayList<>();
+    try (RecordReader<NullWritable, RecordInfo<StructuredRecord>> reader =
+           new ConnectorAvroInputFormat().createRecordReader(split, context)) {
+      reader.initialize(split, context);
+      while (reader.nextKeyValue()) {
+        records.add(toList(reader.getCurrentValue()));
+      }
+    }
+    return records;
+  }
+
+  private List<Object> toList(RecordInfo<StructuredRecord> record) {
+    return ImmutableList.<Object>of(record.getFromStage(), record.getType(), record.getValue());
+  }
+}
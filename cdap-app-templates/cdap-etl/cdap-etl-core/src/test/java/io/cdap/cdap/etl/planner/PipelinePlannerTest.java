@@ -23,6 +23,7 @@ import io.cdap.cdap.api.artifact.ArtifactId;
 import io.cdap.cdap.api.artifact.ArtifactScope;
 import io.cdap.cdap.api.artifact.ArtifactVersion;
 import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.etl.batch.connector.ConnectorFormat;
 import io.cdap.cdap.etl.common.Constants;
 import io.cdap.cdap.etl.common.Constants.Connector;
 import io.cdap.cdap.etl.common.PipelinePhase;
@@ -1096,6 +1097,59 @@ public class PipelinePlannerTest {
     Assert.assertEquals(expected, actual);
   }
 
+  @Test
+  public void testConnectorFormat() {
+    /*
+        n1 --- n2(r) --- n3
+     */
+    Schema schema = Schema.recordOf("stuff", Schema.Field.of("x", Schema.of(Schema.Type.INT)));
+    Set<StageSpec> stageSpecs = ImmutableSet.of(
+      StageSpec.builder("n1", NODE)
+        .addOutput(schema, "n2")
+        .build(),
+      StageSpec.builder("n2", REDUCE)
+        .addInputSchema("n1", schema)
+        .addOutput(schema, "n3")
+        .build(),
+      StageSpec.builder("n3", NODE)
+        .addInputSchema("n2", schema)
+        .build()
+    );
+    Set<Connection> connections = ImmutableSet.of(new Connection("n1", "n2"), new Connection("n2", "n3"));
+    PipelineSpec pipelineSpec = PipelineSpec.builder().addStages(stageSpecs).addConnections(connections).build();
+    Set<String> pluginTypes = ImmutableSet.of(NODE.getType(), REDUCE.getType(), Constants.Connector.PLUGIN_TYPE);
+    Set<String> reduceTypes = ImmutableSet.of(REDUCE.getType());
+    Set<String> emptySet = ImmutableSet.of();
+
+    // the format is recorded on every connector stage
+    PipelinePlanner planner = new PipelinePlanner(pluginTypes, reduceTypes, emptySet, emptySet, emptySet,
+                                                  ConnectorFormat.AVRO);
+    Set<StageSpec> connectors = getConnectors(planner.plan(pipelineSpec));
+    Assert.assertEquals(2, connectors.size());
+    for (StageSpec connector : connectors) {
+      Assert.assertEquals(ConnectorFormat.AVRO.name(),
+                          connector.getPlugin().getProperties().get(Constants.Connector.FORMAT));
+      Assert.assertEquals(ConnectorFormat.AVRO, ConnectorFormat.of(connector));
+    }
+
+    // without a format, connectors do not have the property and use the text format
+    planner = new PipelinePlanner(pluginTypes, reduceTypes, emptySet, emptySet, emptySet);
+    connectors = getConnectors(planner.plan(pipelineSpec));
+    Assert.assertEquals(2, connectors.size());
+    for (StageSpec connector : connectors) {
+      Assert.assertFalse(connector.getPlugin().getProperties().containsKey(Constants.Connector.FORMAT));
+      Assert.assertEquals(ConnectorFormat.TEXT, ConnectorFormat.of(connector));
+    }
+  }
+
+  private static Set<StageSpec> getConnectors(PipelinePlan plan) {
+    Set<StageSpec> connectors = new HashSet<>();
+    for (PipelinePhase phase : plan.getPhases().values()) {
+      connectors.addAll(phase.getStagesOfType(Constants.Connector.PLUGIN_TYPE));
+    }
+    return connectors;
+  }
+
   private static PluginSpec connectorSpec(String originalName, String type) {
     return new PluginSpec(Constants.Connector.PLUGIN_TYPE, "connector",
                           ImmutableMap.of(Constants.Connector.TYPE, type,
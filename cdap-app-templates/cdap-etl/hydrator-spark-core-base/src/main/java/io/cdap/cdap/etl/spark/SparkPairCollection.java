@@ -19,8 +19,11 @@ package io.cdap.cdap.etl.spark;
 import com.google.common.base.Optional;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.apache.spark.api.java.function.Function;
+import org.apache.spark.broadcast.Broadcast;
 import scala.Tuple2;
 
+import java.util.Collection;
+
 /**
  * Abstraction over different types of spark pair collections with common shared operations on those collections.
  * For example, both JavaPairRDD and JavaPairDStream support the flatMap operation, but don't share a higher interface.
@@ -51,4 +54,24 @@ public interface SparkPairCollection<K, V> {
 
   <T> SparkPairCollection<K, Tuple2<Optional<V>, Optional<T>>> fullOuterJoin(SparkPairCollection<K, T> other,
                                                                              int numPartitions);
+
+  /**
+   * Performs an inner join where the other collection is small enough to be collected and broadcast to every
+   * executor. Records in this collection are joined where they are, without being shuffled.
+   * The broadcast variable is added to the given collection, so that the caller can destroy it once the result
+   * has been computed. Implementations that cannot broadcast fall back to a regular
+   * {@link #join(SparkPairCollection)} and add nothing.
+   */
+  <T> SparkPairCollection<K, Tuple2<V, T>> broadcastJoin(SparkPairCollection<K, T> other,
+                                                         Collection<Broadcast<?>> broadcasts);
+
+  /**
+   * Performs a left outer join where the other collection is small enough to be collected and broadcast to every
+   * executor. Records in this collection are joined where they are, without being shuffled.
+   * The broadcast variable is added to the given collection, so that the caller can destroy it once the result
+   * has been computed. Implementations that cannot broadcast fall back to a regular
+   * {@link #leftOuterJoin(SparkPairCollection)} and add nothing.
+   */
+  <T> SparkPairCollection<K, Tuple2<V, Optional<T>>> broadcastLeftOuterJoin(SparkPairCollection<K, T> other,
+                                                                            Collection<Broadcast<?>> broadcasts);
 }
@@ -17,6 +17,7 @@
 package io.cdap.cdap.etl.spark;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.cdap.cdap.api.macro.MacroEvaluator;
 import io.cdap.cdap.api.plugin.PluginContext;
@@ -25,12 +26,14 @@ import io.cdap.cdap.etl.api.Alert;
 import io.cdap.cdap.etl.api.AlertPublisher;
 import io.cdap.cdap.etl.api.ErrorRecord;
 import io.cdap.cdap.etl.api.ErrorTransform;
+import io.cdap.cdap.etl.api.JoinConfig;
 import io.cdap.cdap.etl.api.JoinElement;
 import io.cdap.cdap.etl.api.SplitterTransform;
 import io.cdap.cdap.etl.api.Transform;
 import io.cdap.cdap.etl.api.batch.BatchAggregator;
 import io.cdap.cdap.etl.api.batch.BatchJoiner;
 import io.cdap.cdap.etl.api.batch.BatchJoinerRuntimeContext;
+import io.cdap.cdap.etl.api.batch.BatchReducibleAggregator;
 import io.cdap.cdap.etl.api.batch.BatchSink;
 import io.cdap.cdap.etl.api.batch.SparkCompute;
 import io.cdap.cdap.etl.api.batch.SparkSink;
@@ -38,6 +41,7 @@ import io.cdap.cdap.etl.api.streaming.Windower;
 import io.cdap.cdap.etl.common.BasicArguments;
 import io.cdap.cdap.etl.common.Constants;
 import io.cdap.cdap.etl.common.DefaultMacroEvaluator;
+import io.cdap.cdap.etl.common.DefaultStageMetrics;
 import io.cdap.cdap.etl.common.NoopStageStatisticsCollector;
 import io.cdap.cdap.etl.common.PipelinePhase;
 import io.cdap.cdap.etl.common.RecordInfo;
@@ -53,6 +57,7 @@ import io.cdap.cdap.etl.spark.function.LeftJoinFlattenFunction;
 import io.cdap.cdap.etl.spark.function.OuterJoinFlattenFunction;
 import io.cdap.cdap.etl.spark.function.OutputPassFilter;
 import io.cdap.cdap.etl.spark.function.PluginFunctionContext;
+import org.apache.spark.broadcast.Broadcast;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -105,6 +110,8 @@ public abstract class SparkPipelineRunner {
     }
 
     Collection<Runnable> sinkRunnables = new ArrayList<>();
+    // broadcast variables of map side joins, which are destroyed once all sinks have been written
+    List<Broadcast<?>> broadcasts = new ArrayList<>();
     for (String stageName : pipelinePhase.getDag().getTopologicalOrder()) {
       StageSpec stageSpec = pipelinePhase.getStage(stageName);
       //noinspection ConstantConditions
@@ -241,7 +248,12 @@ public abstract class SparkPipelineRunner {
       } else if (BatchAggregator.PLUGIN_TYPE.equals(pluginType)) {
 
         Integer partitions = stagePartitions.get(stageName);
-        SparkCollection<RecordInfo<Object>> combinedData = stageData.aggregate(stageSpec, partitions, collector);
+        // reducible aggregators are partially aggregated before the shuffle instead of grouping all values
+        Class<?> aggregatorClass = pluginContext.loadPluginClass(stageName);
+        SparkCollection<RecordInfo<Object>> combinedData =
+          BatchReducibleAggregator.class.isAssignableFrom(aggregatorClass) ?
+            stageData.reduceAggregate(stageSpec, partitions, collector) :
+            stageData.aggregate(stageSpec, partitions, collector);
         emittedBuilder = addEmitted(emittedBuilder, pipelinePhase, stageSpec,
                                     combinedData, hasErrorOutput, hasAlertOutput);
 
@@ -263,13 +275,22 @@ public abstract class SparkPipelineRunner {
 
         Integer numPartitions = stagePartitions.get(stageName);
 
+        JoinConfig joinConfig = joiner.getJoinConfig();
+        Set<String> broadcastInputs = new HashSet<>();
+        Iterables.addAll(broadcastInputs, joinConfig.getBroadcastInputs());
+
+        int numBroadcasts = broadcasts.size();
         SparkPairCollection<Object, List<JoinElement<Object>>> joinedInputs = null;
         // inner join on required inputs
-        for (final String inputStageName : joiner.getJoinConfig().getRequiredInputs()) {
+        for (final String inputStageName : joinConfig.getRequiredInputs()) {
           SparkPairCollection<Object, Object> preJoinCollection = preJoinStreams.get(inputStageName);
 
           if (joinedInputs == null) {
             joinedInputs = preJoinCollection.mapValues(new InitialJoinFunction<>(inputStageName));
+          } else if (broadcastInputs.contains(inputStageName)) {
+            // small input, join it map side so that the inputs joined so far are not shuffled
+            joinedInputs = joinedInputs.broadcastJoin(preJoinCollection, broadcasts)
+              .mapValues(new JoinFlattenFunction<>(inputStageName));
           } else {
             JoinFlattenFunction<Object> joinFlattenFunction = new JoinFlattenFunction<>(inputStageName);
             joinedInputs = numPartitions == null ?
@@ -293,6 +314,9 @@ public abstract class SparkPipelineRunner {
               joinedInputs = numPartitions == null ?
                 joinedInputs.fullOuterJoin(preJoinStream).mapValues(flattenFunction) :
                 joinedInputs.fullOuterJoin(preJoinStream, numPartitions).mapValues(flattenFunction);
+            } else if (broadcastInputs.contains(inputStageName)) {
+              joinedInputs = joinedInputs.broadcastLeftOuterJoin(preJoinStream, broadcasts)
+                .mapValues(new LeftJoinFlattenFunction<>(inputStageName));
             } else {
               LeftJoinFlattenFunction<Object> flattenFunction = new LeftJoinFlattenFunction<>(inputStageName);
 
@@ -307,6 +331,10 @@ public abstract class SparkPipelineRunner {
         if (joinedInputs == null) {
           throw new IllegalStateException("There are no inputs into join stage " + stageName);
         }
+        if (broadcasts.size() > numBroadcasts) {
+          new DefaultStageMetrics(sec.getMetrics(), stageName).count(Constants.Metrics.JOIN_BROADCAST_INPUTS,
+                                                                     broadcasts.size() - numBroadcasts);
+        }
 
         emittedBuilder = emittedBuilder.setOutput(mergeJoinResults(stageSpec, joinedInputs, collector).cache());
 
@@ -343,6 +371,16 @@ public abstract class SparkPipelineRunner {
       emittedRecords.put(stageName, emittedBuilder.build());
     }
 
+    try {
+      runSinks(sec, sinkRunnables);
+    } finally {
+      for (Broadcast<?> broadcast : broadcasts) {
+        broadcast.destroy();
+      }
+    }
+  }
+
+  private void runSinks(JavaSparkExecutionContext sec, Collection<Runnable> sinkRunnables) {
     boolean shouldWriteInParallel = Boolean.parseBoolean(
       sec.getRuntimeArguments().get("pipeline.spark.parallel.sinks.enabled"));
     if (!shouldWriteInParallel) {
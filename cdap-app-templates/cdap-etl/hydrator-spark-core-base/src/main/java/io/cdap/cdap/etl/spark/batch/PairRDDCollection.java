@@ -22,12 +22,21 @@ import io.cdap.cdap.api.spark.JavaSparkExecutionContext;
 import io.cdap.cdap.etl.spark.Compat;
 import io.cdap.cdap.etl.spark.SparkCollection;
 import io.cdap.cdap.etl.spark.SparkPairCollection;
+import io.cdap.cdap.etl.spark.function.BroadcastJoinFunction;
+import io.cdap.cdap.etl.spark.function.BroadcastLeftJoinFunction;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.apache.spark.api.java.function.Function;
+import org.apache.spark.broadcast.Broadcast;
 import scala.Tuple2;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Implementation of {@link SparkCollection} that is backed by a JavaPairRDD.
  *
@@ -104,6 +113,40 @@ public class PairRDDCollection<K, V> implements SparkPairCollection<K, V> {
     return wrap(Compat.fullOuterJoin(pairRDD, (JavaPairRDD<K, T>) other.getUnderlying(), numPartitions));
   }
 
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> SparkPairCollection<K, Tuple2<V, T>> broadcastJoin(SparkPairCollection<K, T> other,
+                                                                Collection<Broadcast<?>> broadcasts) {
+    Broadcast<Map<K, List<T>>> lookup = broadcast((JavaPairRDD<K, T>) other.getUnderlying());
+    broadcasts.add(lookup);
+    return wrap(pairRDD.flatMapToPair(Compat.convert(new BroadcastJoinFunction<K, V, T>(lookup))));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> SparkPairCollection<K, Tuple2<V, Optional<T>>> broadcastLeftOuterJoin(
+    SparkPairCollection<K, T> other, Collection<Broadcast<?>> broadcasts) {
+    Broadcast<Map<K, List<T>>> lookup = broadcast((JavaPairRDD<K, T>) other.getUnderlying());
+    broadcasts.add(lookup);
+    return wrap(pairRDD.flatMapToPair(Compat.convert(new BroadcastLeftJoinFunction<K, V, T>(lookup))));
+  }
+
+  /**
+   * Collects the given pairs to the driver, grouped by key, and broadcasts them to the executors.
+   */
+  private <T> Broadcast<Map<K, List<T>>> broadcast(JavaPairRDD<K, T> small) {
+    Map<K, List<T>> lookup = new HashMap<>();
+    for (Tuple2<K, T> pair : small.collect()) {
+      List<T> values = lookup.get(pair._1());
+      if (values == null) {
+        values = new ArrayList<>(1);
+        lookup.put(pair._1(), values);
+      }
+      values.add(pair._2());
+    }
+    return jsc.broadcast(lookup);
+  }
+
   private <X, Y> SparkPairCollection<X, Y> wrap(JavaPairRDD<X, Y> javaPairRDD) {
     return new PairRDDCollection<>(sec, jsc, datasetContext, sinkFactory, javaPairRDD);
   }
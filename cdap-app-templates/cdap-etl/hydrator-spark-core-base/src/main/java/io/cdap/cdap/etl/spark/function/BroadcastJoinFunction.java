@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.function;
+
+import org.apache.spark.broadcast.Broadcast;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inner joins each record against a broadcast lookup of the other side of the join. Produces the same output as a
+ * shuffle join, so the result can be flattened with {@link JoinFlattenFunction}.
+ *
+ * @param <K> type of join key
+ * @param <V> type of value being joined
+ * @param <T> type of value in the broadcast lookup
+ */
+public class BroadcastJoinFunction<K, V, T> implements PairFlatMapFunc<Tuple2<K, V>, K, Tuple2<V, T>> {
+  private final Broadcast<Map<K, List<T>>> lookup;
+
+  public BroadcastJoinFunction(Broadcast<Map<K, List<T>>> lookup) {
+    this.lookup = lookup;
+  }
+
+  @Override
+  public Iterable<Tuple2<K, Tuple2<V, T>>> call(Tuple2<K, V> in) throws Exception {
+    List<T> matches = lookup.value().get(in._1());
+    if (matches == null) {
+      return Collections.emptyList();
+    }
+    List<Tuple2<K, Tuple2<V, T>>> output = new ArrayList<>(matches.size());
+    for (T match : matches) {
+      output.add(new Tuple2<>(in._1(), new Tuple2<>(in._2(), match)));
+    }
+    return output;
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.function;
+
+import org.apache.spark.streaming.State;
+
+import java.io.Serializable;
+import javax.annotation.Nullable;
+
+/**
+ * A function that maps each key and value of a stream while reading and updating the state kept for the key.
+ * Used instead of Spark's Function3 because the optional value type is different in Spark1 and Spark2.
+ *
+ * @param <K> type of key
+ * @param <V> type of value
+ * @param <S> type of state
+ * @param <M> type of mapped output
+ */
+public interface MapWithStateFunc<K, V, S, M> extends Serializable {
+
+  /**
+   * @param key the key
+   * @param value the value, or null if the state of the key is timing out
+   * @param state the state of the key
+   * @return the mapped output
+   */
+  M call(K key, @Nullable V value, State<S> state) throws Exception;
+}
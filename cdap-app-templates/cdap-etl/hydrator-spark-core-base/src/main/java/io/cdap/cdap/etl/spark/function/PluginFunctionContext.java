@@ -24,6 +24,7 @@ import io.cdap.cdap.api.preview.DataTracer;
 import io.cdap.cdap.api.security.store.SecureStore;
 import io.cdap.cdap.api.spark.JavaSparkExecutionContext;
 import io.cdap.cdap.etl.api.StageMetrics;
+import io.cdap.cdap.etl.batch.connector.ConnectorFormat;
 import io.cdap.cdap.etl.batch.connector.SingleConnectorSink;
 import io.cdap.cdap.etl.batch.connector.SingleConnectorSource;
 import io.cdap.cdap.etl.common.BasicArguments;
@@ -85,9 +86,9 @@ public class PluginFunctionContext implements Serializable {
       String connectorType = stageSpec.getPlugin().getProperties().get(Constants.Connector.TYPE);
       // ok to pass in null to constructors here since we are only going to use the transform method
       if (connectorType.equals(Constants.Connector.SOURCE_TYPE)) {
-        return (T) new SingleConnectorSource(null, null);
+        return (T) new SingleConnectorSource(null, null, ConnectorFormat.of(stageSpec));
       } else {
-        return (T) new SingleConnectorSink(null, null);
+        return (T) new SingleConnectorSink(null, null, ConnectorFormat.of(stageSpec));
       }
     }
     MacroEvaluator macroEvaluator = new DefaultMacroEvaluator(arguments, logicalStartTime, secureStore, namespace);
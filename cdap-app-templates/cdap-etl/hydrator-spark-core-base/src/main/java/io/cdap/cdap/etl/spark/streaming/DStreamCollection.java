@@ -16,14 +16,17 @@
 
 package io.cdap.cdap.etl.spark.streaming;
 
+import com.google.common.base.Throwables;
 import io.cdap.cdap.api.Transactionals;
 import io.cdap.cdap.api.TxRunnable;
 import io.cdap.cdap.api.data.DatasetContext;
 import io.cdap.cdap.api.spark.JavaSparkExecutionContext;
 import io.cdap.cdap.etl.api.Alert;
+import io.cdap.cdap.etl.api.Destroyable;
 import io.cdap.cdap.etl.api.batch.SparkCompute;
 import io.cdap.cdap.etl.api.batch.SparkExecutionPluginContext;
 import io.cdap.cdap.etl.api.batch.SparkSink;
+import io.cdap.cdap.etl.api.streaming.StatefulAggregator;
 import io.cdap.cdap.etl.api.streaming.Windower;
 import io.cdap.cdap.etl.common.Constants;
 import io.cdap.cdap.etl.common.NoopStageStatisticsCollector;
@@ -35,13 +38,20 @@ import io.cdap.cdap.etl.spark.Compat;
 import io.cdap.cdap.etl.spark.SparkCollection;
 import io.cdap.cdap.etl.spark.SparkPairCollection;
 import io.cdap.cdap.etl.spark.SparkPipelineRuntime;
+import io.cdap.cdap.etl.spark.StreamingCompat;
 import io.cdap.cdap.etl.spark.batch.BasicSparkExecutionPluginContext;
+import io.cdap.cdap.etl.spark.function.PluginFunctionContext;
 import io.cdap.cdap.etl.spark.streaming.function.ComputeTransformFunction;
 import io.cdap.cdap.etl.spark.streaming.function.CountingTransformFunction;
 import io.cdap.cdap.etl.spark.streaming.function.DynamicAggregatorAggregate;
+import io.cdap.cdap.etl.spark.streaming.function.DynamicAggregatorCombine;
+import io.cdap.cdap.etl.spark.streaming.function.DynamicAggregatorFinalize;
 import io.cdap.cdap.etl.spark.streaming.function.DynamicAggregatorGroupBy;
+import io.cdap.cdap.etl.spark.streaming.function.DynamicAggregatorReduce;
 import io.cdap.cdap.etl.spark.streaming.function.DynamicSparkCompute;
 import io.cdap.cdap.etl.spark.streaming.function.DynamicTransform;
+import io.cdap.cdap.etl.spark.streaming.function.StateSizeMetricFunction;
+import io.cdap.cdap.etl.spark.streaming.function.StreamingAggregatorState;
 import io.cdap.cdap.etl.spark.streaming.function.StreamingAlertPublishFunction;
 import io.cdap.cdap.etl.spark.streaming.function.StreamingBatchSinkFunction;
 import io.cdap.cdap.etl.spark.streaming.function.StreamingSparkSinkFunction;
@@ -52,7 +62,9 @@ import org.apache.spark.api.java.function.PairFlatMapFunction;
 import org.apache.spark.storage.StorageLevel;
 import org.apache.spark.streaming.Durations;
 import org.apache.spark.streaming.api.java.JavaDStream;
+import org.apache.spark.streaming.api.java.JavaMapWithStateDStream;
 import org.apache.spark.streaming.api.java.JavaPairDStream;
+import scala.Tuple2;
 
 import javax.annotation.Nullable;
 
@@ -130,6 +142,62 @@ public class DStreamCollection<T> implements SparkCollection<T> {
     return wrap(groupedCollection.transform(new DynamicAggregatorAggregate<Object, T, Object>(dynamicDriverContext)));
   }
 
+  @Override
+  public SparkCollection<RecordInfo<Object>> reduceAggregate(StageSpec stageSpec, @Nullable Integer partitions,
+                                                             StageStatisticsCollector collector) {
+    DynamicDriverContext dynamicDriverContext = new DynamicDriverContext(stageSpec, sec, collector);
+    JavaPairDStream<Object, T> keyedCollection =
+      stream.transformToPair(new DynamicAggregatorGroupBy<Object, T>(dynamicDriverContext));
+
+    Long stateTimeout = getStateTimeout(stageSpec);
+    if (stateTimeout == null) {
+      return wrap(keyedCollection.transform(new DynamicAggregatorReduce<Object, T, Object>(dynamicDriverContext,
+                                                                                            partitions)));
+    }
+
+    // merge the aggregates of each batch into the aggregates kept across batches
+    JavaPairDStream<Object, Object> batchAggregates =
+      keyedCollection.transformToPair(new DynamicAggregatorCombine<Object, T, Object>(dynamicDriverContext,
+                                                                                      partitions));
+    JavaMapWithStateDStream<Object, Object, Object, Tuple2<Object, Object>> updatedAggregates =
+      StreamingCompat.mapWithState(
+        batchAggregates, new StreamingAggregatorState<>(new StreamingFunctionContext(dynamicDriverContext)),
+        stateTimeout > 0 ? Durations.seconds(stateTimeout) : null, partitions);
+    StreamingCompat.foreachRDD(updatedAggregates.stateSnapshots().count(),
+                               new StateSizeMetricFunction(stageSpec.getName(), sec.getMetrics(),
+                                                           Constants.Metrics.AGG_STATE_GROUPS));
+    return wrap(JavaPairDStream.fromJavaDStream(updatedAggregates)
+                  .transform(new DynamicAggregatorFinalize<Object, Object>(dynamicDriverContext)));
+  }
+
+  /**
+   * Returns the state timeout of the aggregator of the given stage if it keeps its aggregates across batches,
+   * or null if each batch should be aggregated on its own. State can only be kept if checkpointing is enabled.
+   */
+  @Nullable
+  private Long getStateTimeout(StageSpec stageSpec) {
+    if (!stream.context().sparkContext().getCheckpointDir().isDefined()) {
+      return null;
+    }
+    Class<?> aggregatorClass = sec.getPluginContext().loadPluginClass(stageSpec.getName());
+    if (!StatefulAggregator.class.isAssignableFrom(aggregatorClass)) {
+      return null;
+    }
+    try {
+      StatefulAggregator aggregator =
+        new PluginFunctionContext(stageSpec, sec, new NoopStageStatisticsCollector()).createPlugin();
+      try {
+        return aggregator.getStateTimeout();
+      } finally {
+        if (aggregator instanceof Destroyable) {
+          ((Destroyable) aggregator).destroy();
+        }
+      }
+    } catch (Exception e) {
+      throw Throwables.propagate(e);
+    }
+  }
+
   @Override
   public <U> SparkCollection<U> compute(final StageSpec stageSpec, SparkCompute<T, U> compute) throws Exception {
     final SparkCompute<T, U> wrappedCompute =
@@ -178,10 +246,14 @@ public class DStreamCollection<T> implements SparkCollection<T> {
   @Override
   public SparkCollection<T> window(StageSpec stageSpec, Windower windower) {
     String stageName = stageSpec.getName();
-    return wrap(stream.transform(new CountingTransformFunction<T>(stageName, sec.getMetrics(), "records.in", null))
-                  .window(Durations.seconds(windower.getWidth()), Durations.seconds(windower.getSlideInterval()))
-                  .transform(new CountingTransformFunction<T>(stageName, sec.getMetrics(), "records.out",
-                                                             sec.getDataTracer(stageName))));
+    JavaDStream<T> countedStream =
+      stream.transform(new CountingTransformFunction<T>(stageName, sec.getMetrics(), "records.in", null));
+    JavaDStream<T> windowedStream = countedStream
+      .window(Durations.seconds(windower.getWidth()), Durations.seconds(windower.getSlideInterval()))
+      .transform(new CountingTransformFunction<T>(stageName, sec.getMetrics(), "records.out",
+                                                 sec.getDataTracer(stageName)));
+    return new WindowedDStreamCollection<>(sec, windowedStream, countedStream,
+                                           windower.getWidth(), windower.getSlideInterval());
   }
 
   private <U> SparkCollection<U> wrap(JavaDStream<U> stream) {
@@ -0,0 +1,115 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.streaming;
+
+import io.cdap.cdap.etl.spark.function.PluginFunctionContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+
+/**
+ * Serializable context for executor functions that Spark Streaming keeps in the DStream graph, such as window
+ * reduce functions and state mapping functions. Such functions are written to the checkpoint, so a plain
+ * {@link PluginFunctionContext} in them would carry the runtime arguments and logical start time of the run
+ * that created the checkpoint into every later run.
+ *
+ * This context keeps the {@link DynamicDriverContext} it was created from as serialized bytes, so that executors
+ * never deserialize the {@link io.cdap.cdap.api.spark.JavaSparkExecutionContext}. Functions are only ever serialized
+ * by the driver, so when this context is serialized after being restored from a checkpoint, the driver context is
+ * deserialized again and a fresh {@link PluginFunctionContext} for the current run is sent to the executors.
+ */
+public class StreamingFunctionContext implements Serializable {
+  private static final long serialVersionUID = 4368913529834162791L;
+
+  private transient DynamicDriverContext driverContext;
+  private transient byte[] driverContextBytes;
+  private transient PluginFunctionContext pluginFunctionContext;
+
+  public StreamingFunctionContext(DynamicDriverContext driverContext) {
+    this.driverContext = driverContext;
+    this.pluginFunctionContext = driverContext.getPluginFunctionContext();
+  }
+
+  public PluginFunctionContext getPluginFunctionContext() {
+    return pluginFunctionContext;
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    if (driverContext == null) {
+      // restored from a checkpoint, pick up the context of the current run
+      driverContext = deserialize(driverContextBytes);
+      pluginFunctionContext = driverContext.getPluginFunctionContext();
+    }
+    if (driverContextBytes == null) {
+      driverContextBytes = serialize(driverContext);
+    }
+    out.writeInt(driverContextBytes.length);
+    out.write(driverContextBytes);
+    out.writeObject(pluginFunctionContext);
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    driverContextBytes = new byte[in.readInt()];
+    in.readFully(driverContextBytes);
+    pluginFunctionContext = (PluginFunctionContext) in.readObject();
+  }
+
+  private static byte[] serialize(DynamicDriverContext driverContext) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+      oos.writeObject(driverContext);
+    }
+    return bos.toByteArray();
+  }
+
+  private static DynamicDriverContext deserialize(byte[] bytes) throws IOException {
+    try (ObjectInputStream ois = new ContextClassLoaderObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return (DynamicDriverContext) ois.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Unable to deserialize the driver context", e);
+    }
+  }
+
+  /**
+   * ObjectInputStream that resolves classes through the context ClassLoader, which is the one Spark uses to
+   * deserialize the checkpoint.
+   */
+  private static final class ContextClassLoaderObjectInputStream extends ObjectInputStream {
+
+    ContextClassLoaderObjectInputStream(ByteArrayInputStream in) throws IOException {
+      super(in);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+      ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+      if (classLoader == null) {
+        return super.resolveClass(desc);
+      }
+      try {
+        return Class.forName(desc.getName(), false, classLoader);
+      } catch (ClassNotFoundException e) {
+        return super.resolveClass(desc);
+      }
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.streaming;
+
+import io.cdap.cdap.api.spark.JavaSparkExecutionContext;
+import io.cdap.cdap.etl.api.InvertibleAggregator;
+import io.cdap.cdap.etl.common.RecordInfo;
+import io.cdap.cdap.etl.common.StageStatisticsCollector;
+import io.cdap.cdap.etl.proto.v2.spec.StageSpec;
+import io.cdap.cdap.etl.spark.SparkCollection;
+import io.cdap.cdap.etl.spark.streaming.function.DynamicAggregatorCombine;
+import io.cdap.cdap.etl.spark.streaming.function.DynamicAggregatorFinalize;
+import io.cdap.cdap.etl.spark.streaming.function.DynamicAggregatorGroupBy;
+import io.cdap.cdap.etl.spark.streaming.function.StreamingAggregatorMerge;
+import io.cdap.cdap.etl.spark.streaming.function.StreamingAggregatorRetain;
+import io.cdap.cdap.etl.spark.streaming.function.StreamingAggregatorSubtract;
+import org.apache.spark.streaming.Duration;
+import org.apache.spark.streaming.Durations;
+import org.apache.spark.streaming.api.java.JavaDStream;
+import org.apache.spark.streaming.api.java.JavaPairDStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * {@link DStreamCollection} for the output of a window. Behaves like the windowed stream, except that reducible
+ * aggregators are not run over the windowed stream. Instead, each batch of the stream that is being windowed is
+ * aggregated once, and the window is maintained over the aggregates of its batches. If the aggregator is an
+ * {@link InvertibleAggregator}, each slide only merges the batches that entered the window and subtracts the
+ * batches that left it, instead of aggregating the whole window again. This requires checkpointing, so without a
+ * checkpoint directory the window is merged from the aggregates of all its batches on every slide.
+ *
+ * @param <T> type of objects in the collection
+ */
+public class WindowedDStreamCollection<T> extends DStreamCollection<T> {
+  private final JavaSparkExecutionContext sec;
+  private final JavaDStream<T> unwindowedStream;
+  private final Duration width;
+  private final Duration slideInterval;
+
+  public WindowedDStreamCollection(JavaSparkExecutionContext sec, JavaDStream<T> windowedStream,
+                                   JavaDStream<T> unwindowedStream, long width, long slideInterval) {
+    super(sec, windowedStream);
+    this.sec = sec;
+    this.unwindowedStream = unwindowedStream;
+    this.width = Durations.seconds(width);
+    this.slideInterval = Durations.seconds(slideInterval);
+  }
+
+  @Override
+  public SparkCollection<T> cache() {
+    // persisting changes the windowed stream in place, so the aggregation over the unwindowed stream stays available
+    super.cache();
+    return this;
+  }
+
+  @Override
+  public SparkCollection<RecordInfo<Object>> reduceAggregate(StageSpec stageSpec, @Nullable Integer partitions,
+                                                             StageStatisticsCollector collector) {
+    DynamicDriverContext dynamicDriverContext = new DynamicDriverContext(stageSpec, sec, collector);
+    JavaPairDStream<Object, Object> batchAggregates = unwindowedStream
+      .transformToPair(new DynamicAggregatorGroupBy<Object, T>(dynamicDriverContext))
+      .transformToPair(new DynamicAggregatorCombine<Object, T, Object>(dynamicDriverContext, partitions));
+
+    StreamingFunctionContext functionContext = new StreamingFunctionContext(dynamicDriverContext);
+    StreamingAggregatorMerge<Object> mergeFunction = new StreamingAggregatorMerge<>(functionContext);
+    JavaPairDStream<Object, Object> windowAggregates;
+    Class<?> aggregatorClass = sec.getPluginContext().loadPluginClass(stageSpec.getName());
+    // the inverse function requires checkpointing, which is disabled in preview or when checkpoints are turned off
+    if (InvertibleAggregator.class.isAssignableFrom(aggregatorClass)
+      && unwindowedStream.context().sparkContext().getCheckpointDir().isDefined()) {
+      int numPartitions = partitions == null ?
+        unwindowedStream.context().sparkContext().defaultParallelism() : partitions;
+      windowAggregates = batchAggregates.reduceByKeyAndWindow(
+        mergeFunction, new StreamingAggregatorSubtract<>(functionContext), width, slideInterval, numPartitions,
+        new StreamingAggregatorRetain<>(functionContext));
+    } else {
+      windowAggregates = partitions == null ?
+        batchAggregates.reduceByKeyAndWindow(mergeFunction, width, slideInterval) :
+        batchAggregates.reduceByKeyAndWindow(mergeFunction, width, slideInterval, partitions);
+    }
+    return new DStreamCollection<>(
+      sec, windowAggregates.transform(new DynamicAggregatorFinalize<Object, Object>(dynamicDriverContext)));
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.streaming.function;
+
+import io.cdap.cdap.etl.common.RecordInfo;
+import io.cdap.cdap.etl.spark.Compat;
+import io.cdap.cdap.etl.spark.function.AggregatorFinalizeFunction;
+import io.cdap.cdap.etl.spark.streaming.DynamicDriverContext;
+import org.apache.spark.api.java.JavaPairRDD;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.apache.spark.api.java.function.Function;
+import org.apache.spark.api.java.function.Function2;
+import org.apache.spark.streaming.Time;
+import scala.Tuple2;
+
+/**
+ * Serializable function that emits the output of a ReducibleAggregator for the aggregate value of each group.
+ * Null entries, which stand for groups that were removed from the aggregator state, are skipped.
+ * Dynamically instantiates the Aggregator plugin used to ensure that code changes are picked up and to ensure
+ * that macro substitution occurs.
+ *
+ * @param <GROUP_KEY> type of group key
+ * @param <AGG_VAL> type of aggregate val
+ */
+public class DynamicAggregatorFinalize<GROUP_KEY, AGG_VAL>
+  implements Function2<JavaPairRDD<GROUP_KEY, AGG_VAL>, Time, JavaRDD<RecordInfo<Object>>> {
+  private final DynamicDriverContext dynamicDriverContext;
+  private transient FlatMapFunction<Tuple2<GROUP_KEY, AGG_VAL>, RecordInfo<Object>> finalizeFunction;
+
+  public DynamicAggregatorFinalize(DynamicDriverContext dynamicDriverContext) {
+    this.dynamicDriverContext = dynamicDriverContext;
+  }
+
+  @Override
+  public JavaRDD<RecordInfo<Object>> call(JavaPairRDD<GROUP_KEY, AGG_VAL> input, Time batchTime) throws Exception {
+    if (finalizeFunction == null) {
+      finalizeFunction = Compat.convert(new AggregatorFinalizeFunction<GROUP_KEY, AGG_VAL, Object>(
+        dynamicDriverContext.getPluginFunctionContext()));
+    }
+    return input.filter(new NonNullFilter<Tuple2<GROUP_KEY, AGG_VAL>>()).flatMap(finalizeFunction);
+  }
+
+  /**
+   * Filters out null entries.
+   *
+   * @param <T> type of entry
+   */
+  private static class NonNullFilter<T> implements Function<T, Boolean> {
+
+    @Override
+    public Boolean call(T entry) {
+      return entry != null;
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.streaming.function;
+
+import io.cdap.cdap.api.metrics.Metrics;
+import io.cdap.cdap.etl.common.DefaultStageMetrics;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.function.Function2;
+import org.apache.spark.streaming.Time;
+
+/**
+ * Function used to emit a gauge metric for the number of entries kept in the state of a stage after each batch.
+ */
+public class StateSizeMetricFunction implements Function2<JavaRDD<Long>, Time, Void> {
+  private final Metrics metrics;
+  private final String stageName;
+  private final String metricName;
+
+  public StateSizeMetricFunction(String stageName, Metrics metrics, String metricName) {
+    this.metrics = metrics;
+    this.stageName = stageName;
+    this.metricName = metricName;
+  }
+
+  @Override
+  public Void call(JavaRDD<Long> counts, Time batchTime) throws Exception {
+    long size = 0L;
+    for (Long count : counts.collect()) {
+      size += count;
+    }
+    new DefaultStageMetrics(metrics, stageName).gauge(metricName, size);
+    return null;
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.streaming.function;
+
+import io.cdap.cdap.etl.api.batch.BatchReducibleAggregator;
+import io.cdap.cdap.etl.spark.streaming.StreamingFunctionContext;
+import org.apache.spark.api.java.function.Function2;
+
+/**
+ * Function that uses a BatchReducibleAggregator to merge the aggregate values of a group from different batches.
+ * Used in the DStream graph itself, so it is created with a {@link StreamingFunctionContext} that can be restored
+ * from a checkpoint. Non-serializable fields are lazily created since this is used in a Spark closure.
+ *
+ * @param <AGG_VAL> type of aggregate val
+ */
+public class StreamingAggregatorMerge<AGG_VAL> implements Function2<AGG_VAL, AGG_VAL, AGG_VAL> {
+  private final StreamingFunctionContext functionContext;
+  private transient BatchReducibleAggregator<?, ?, AGG_VAL, ?> aggregator;
+
+  public StreamingAggregatorMerge(StreamingFunctionContext functionContext) {
+    this.functionContext = functionContext;
+  }
+
+  @Override
+  public AGG_VAL call(AGG_VAL value1, AGG_VAL value2) throws Exception {
+    if (aggregator == null) {
+      aggregator = StreamingAggregators.createAggregator(functionContext);
+    }
+    return aggregator.mergePartitions(value1, value2);
+  }
+}
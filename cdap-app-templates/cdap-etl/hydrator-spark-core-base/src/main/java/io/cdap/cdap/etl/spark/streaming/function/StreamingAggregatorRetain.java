@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.streaming.function;
+
+import io.cdap.cdap.etl.api.InvertibleAggregator;
+import io.cdap.cdap.etl.spark.streaming.StreamingFunctionContext;
+import org.apache.spark.api.java.function.Function;
+import scala.Tuple2;
+
+/**
+ * Function that uses an {@link InvertibleAggregator} to drop groups from a window once everything merged into their
+ * aggregate value has been subtracted again. Used in the DStream graph itself, so it is created with a
+ * {@link StreamingFunctionContext} that can be restored from a checkpoint.
+ * Non-serializable fields are lazily created since this is used in a Spark closure.
+ *
+ * @param <GROUP_KEY> type of group key
+ * @param <AGG_VAL> type of aggregate val
+ */
+public class StreamingAggregatorRetain<GROUP_KEY, AGG_VAL> implements Function<Tuple2<GROUP_KEY, AGG_VAL>, Boolean> {
+  private final StreamingFunctionContext functionContext;
+  private transient InvertibleAggregator<AGG_VAL> aggregator;
+
+  public StreamingAggregatorRetain(StreamingFunctionContext functionContext) {
+    this.functionContext = functionContext;
+  }
+
+  @Override
+  public Boolean call(Tuple2<GROUP_KEY, AGG_VAL> group) throws Exception {
+    if (aggregator == null) {
+      aggregator = StreamingAggregatorSubtract.createAggregator(functionContext);
+    }
+    return !aggregator.isEmpty(group._2());
+  }
+}
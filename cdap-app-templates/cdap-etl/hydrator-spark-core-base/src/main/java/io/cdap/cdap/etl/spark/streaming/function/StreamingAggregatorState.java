@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.streaming.function;
+
+import io.cdap.cdap.etl.api.batch.BatchReducibleAggregator;
+import io.cdap.cdap.etl.spark.function.MapWithStateFunc;
+import io.cdap.cdap.etl.spark.streaming.StreamingFunctionContext;
+import org.apache.spark.streaming.State;
+import scala.Tuple2;
+
+import javax.annotation.Nullable;
+
+/**
+ * Function that uses a BatchReducibleAggregator to merge the aggregate value of a group in a batch into the
+ * aggregate value kept for the group across batches. Returns the updated aggregate value, or null when the group
+ * is removed because it timed out. Used in the DStream graph itself, so it is created with a
+ * {@link StreamingFunctionContext} that can be restored from a checkpoint.
+ * Non-serializable fields are lazily created since this is used in a Spark closure.
+ *
+ * @param <GROUP_KEY> type of group key
+ * @param <AGG_VAL> type of aggregate val
+ */
+public class StreamingAggregatorState<GROUP_KEY, AGG_VAL>
+  implements MapWithStateFunc<GROUP_KEY, AGG_VAL, AGG_VAL, Tuple2<GROUP_KEY, AGG_VAL>> {
+  private final StreamingFunctionContext functionContext;
+  private transient BatchReducibleAggregator<?, ?, AGG_VAL, ?> aggregator;
+
+  public StreamingAggregatorState(StreamingFunctionContext functionContext) {
+    this.functionContext = functionContext;
+  }
+
+  @Nullable
+  @Override
+  public Tuple2<GROUP_KEY, AGG_VAL> call(GROUP_KEY groupKey, @Nullable AGG_VAL batchValue,
+                                         State<AGG_VAL> state) throws Exception {
+    if (batchValue == null) {
+      // the group is timing out, its state is removed without emitting it again
+      return null;
+    }
+    if (aggregator == null) {
+      aggregator = StreamingAggregators.createAggregator(functionContext);
+    }
+    AGG_VAL aggValue = state.exists() ? aggregator.mergePartitions(state.get(), batchValue) : batchValue;
+    state.update(aggValue);
+    return new Tuple2<>(groupKey, aggValue);
+  }
+}
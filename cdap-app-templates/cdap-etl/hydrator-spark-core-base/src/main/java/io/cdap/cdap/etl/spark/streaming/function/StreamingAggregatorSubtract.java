@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.streaming.function;
+
+import io.cdap.cdap.etl.api.InvertibleAggregator;
+import io.cdap.cdap.etl.api.batch.BatchReducibleAggregator;
+import io.cdap.cdap.etl.spark.streaming.StreamingFunctionContext;
+import org.apache.spark.api.java.function.Function2;
+
+/**
+ * Function that uses an {@link InvertibleAggregator} to remove the aggregate value of a batch that left a window
+ * from the aggregate value of the window. Used in the DStream graph itself, so it is created with a
+ * {@link StreamingFunctionContext} that can be restored from a checkpoint.
+ * Non-serializable fields are lazily created since this is used in a Spark closure.
+ *
+ * @param <AGG_VAL> type of aggregate val
+ */
+public class StreamingAggregatorSubtract<AGG_VAL> implements Function2<AGG_VAL, AGG_VAL, AGG_VAL> {
+  private final StreamingFunctionContext functionContext;
+  private transient InvertibleAggregator<AGG_VAL> aggregator;
+
+  public StreamingAggregatorSubtract(StreamingFunctionContext functionContext) {
+    this.functionContext = functionContext;
+  }
+
+  @Override
+  public AGG_VAL call(AGG_VAL aggValue, AGG_VAL toRemove) throws Exception {
+    if (aggregator == null) {
+      aggregator = createAggregator(functionContext);
+    }
+    return aggregator.subtractPartitions(aggValue, toRemove);
+  }
+
+  @SuppressWarnings("unchecked")
+  static <AGG_VAL> InvertibleAggregator<AGG_VAL> createAggregator(StreamingFunctionContext functionContext)
+    throws Exception {
+    BatchReducibleAggregator<?, ?, AGG_VAL, ?> aggregator = StreamingAggregators.createAggregator(functionContext);
+    return (InvertibleAggregator<AGG_VAL>) aggregator;
+  }
+}
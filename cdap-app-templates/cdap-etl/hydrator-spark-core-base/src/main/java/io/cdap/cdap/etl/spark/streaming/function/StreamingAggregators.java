@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.streaming.function;
+
+import io.cdap.cdap.etl.api.batch.BatchReducibleAggregator;
+import io.cdap.cdap.etl.spark.function.PluginFunctionContext;
+import io.cdap.cdap.etl.spark.streaming.StreamingFunctionContext;
+import org.apache.spark.TaskContext;
+import org.apache.spark.util.TaskCompletionListener;
+
+/**
+ * Helper for the streaming aggregator functions to create the aggregator plugin inside a Spark closure.
+ */
+final class StreamingAggregators {
+
+  private StreamingAggregators() {
+    // no-op
+  }
+
+  /**
+   * Creates and initializes the aggregator of the stage. Each deserialized function instance is only used for the
+   * current task, hence the aggregator is destroyed on task completion.
+   */
+  static <AGG_VAL> BatchReducibleAggregator<?, ?, AGG_VAL, ?> createAggregator(
+    StreamingFunctionContext functionContext) throws Exception {
+    PluginFunctionContext pluginFunctionContext = functionContext.getPluginFunctionContext();
+    final BatchReducibleAggregator<?, ?, AGG_VAL, ?> aggregator = pluginFunctionContext.createPlugin();
+    aggregator.initialize(pluginFunctionContext.createBatchRuntimeContext());
+    TaskContext taskContext = TaskContext.get();
+    if (taskContext != null) {
+      taskContext.addTaskCompletionListener(new TaskCompletionListener() {
+        @Override
+        public void onTaskCompletion(TaskContext context) {
+          aggregator.destroy();
+        }
+      });
+    }
+    return aggregator;
+  }
+}
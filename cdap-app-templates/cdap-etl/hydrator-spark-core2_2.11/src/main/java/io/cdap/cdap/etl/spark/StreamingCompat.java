@@ -17,17 +17,25 @@
 package io.cdap.cdap.etl.spark;
 
 import com.google.common.base.Optional;
+import io.cdap.cdap.etl.spark.function.MapWithStateFunc;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.function.Function0;
 import org.apache.spark.api.java.function.Function2;
+import org.apache.spark.api.java.function.Function3;
 import org.apache.spark.api.java.function.VoidFunction2;
+import org.apache.spark.streaming.Duration;
+import org.apache.spark.streaming.State;
+import org.apache.spark.streaming.StateSpec;
 import org.apache.spark.streaming.Time;
 import org.apache.spark.streaming.api.java.JavaDStream;
+import org.apache.spark.streaming.api.java.JavaMapWithStateDStream;
 import org.apache.spark.streaming.api.java.JavaPairDStream;
 import org.apache.spark.streaming.api.java.JavaStreamingContext;
 import scala.Tuple2;
 
+import javax.annotation.Nullable;
+
 /**
  * Utility class to handle incompatibilities between Spark1 and Spark2 streaming.
  * All hydrator-spark-core modules must have this class with the exact same method signatures.
@@ -37,6 +45,7 @@ import scala.Tuple2;
  * In Spark1.2, a Function2 must be used because VoidFunction2 was not yet introduced.
  *
  * Outer join methods in Spark1 use guava's Optional whereas Spark2 uses its own Optional.
+ * The same goes for the value passed to the state mapping function of mapWithState.
  *
  * JavaStreamingContext.getOrCreate() does not use a JavaStreamingContextFactory in Spark2, but requires it in Spark1.2.
  */
@@ -80,4 +89,35 @@ public final class StreamingCompat {
     JavaPairDStream<K, V1> left, JavaPairDStream<K, V2> right, int numPartitions) {
     return left.fullOuterJoin(right, numPartitions).mapValues(new Compat.ConvertOptional2<V1, V2>());
   }
+
+  public static <K, V, S, M> JavaMapWithStateDStream<K, V, S, M> mapWithState(JavaPairDStream<K, V> stream,
+                                                                              MapWithStateFunc<K, V, S, M> func,
+                                                                              @Nullable Duration timeout,
+                                                                              @Nullable Integer numPartitions) {
+    StateSpec<K, V, S, M> stateSpec = StateSpec.function(new MapWithStateFunction<>(func));
+    if (timeout != null) {
+      stateSpec = stateSpec.timeout(timeout);
+    }
+    if (numPartitions != null) {
+      stateSpec = stateSpec.numPartitions(numPartitions);
+    }
+    return stream.mapWithState(stateSpec);
+  }
+
+  /**
+   * Adapts a {@link MapWithStateFunc} to the state mapping function of this Spark version.
+   */
+  private static final class MapWithStateFunction<K, V, S, M>
+    implements Function3<K, org.apache.spark.api.java.Optional<V>, State<S>, M> {
+    private final MapWithStateFunc<K, V, S, M> func;
+
+    private MapWithStateFunction(MapWithStateFunc<K, V, S, M> func) {
+      this.func = func;
+    }
+
+    @Override
+    public M call(K key, org.apache.spark.api.java.Optional<V> value, State<S> state) throws Exception {
+      return func.call(key, value.isPresent() ? value.get() : null, state);
+    }
+  }
 }
@@ -30,6 +30,7 @@ import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.cdap.etl.api.PipelineConfigurer;
 import io.cdap.cdap.etl.api.StageConfigurer;
 import io.cdap.cdap.etl.api.batch.BatchAggregator;
+import io.cdap.cdap.etl.api.batch.BatchAggregatorContext;
 import io.cdap.cdap.etl.api.batch.BatchRuntimeContext;
 import io.cdap.cdap.etl.proto.v2.ETLPlugin;
 
@@ -66,6 +67,12 @@ public class DistinctAggregator extends BatchAggregator<StructuredRecord, Struct
     stageConfigurer.setOutputSchema(outputSchema);
   }
 
+  @Override
+  public void prepareRun(BatchAggregatorContext context) {
+    // the group keys are records of the output schema
+    context.setGroupKeySchema(context.getOutputSchema());
+  }
+
   @Override
   public void initialize(BatchRuntimeContext context) {
     outputSchema = context.getOutputSchema();
@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.mock.batch.aggregator;
+
+import io.cdap.cdap.api.annotation.Name;
+import io.cdap.cdap.api.annotation.Plugin;
+import io.cdap.cdap.api.plugin.PluginClass;
+import io.cdap.cdap.api.plugin.PluginPropertyField;
+import io.cdap.cdap.etl.api.batch.BatchAggregator;
+import io.cdap.cdap.etl.api.streaming.StatefulAggregator;
+import io.cdap.cdap.etl.proto.v2.ETLPlugin;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link FieldCountReducibleAggregator} that keeps its counts across batches in streaming pipelines.
+ * Used to test that the aggregates of streaming aggregators can be kept across batches.
+ */
+@Plugin(type = BatchAggregator.PLUGIN_TYPE)
+@Name("StatefulFieldCount")
+public class StatefulFieldCountAggregator extends FieldCountReducibleAggregator implements StatefulAggregator {
+  public static final PluginClass PLUGIN_CLASS = getPluginClass();
+
+  public StatefulFieldCountAggregator(Config config) {
+    super(config);
+  }
+
+  @Override
+  public long getStateTimeout() {
+    return 0L;
+  }
+
+  public static ETLPlugin getPlugin(String fieldName) {
+    Map<String, String> properties = new HashMap<>();
+    properties.put("fieldName", fieldName);
+    return new ETLPlugin("StatefulFieldCount", BatchAggregator.PLUGIN_TYPE, properties, null);
+  }
+
+  private static PluginClass getPluginClass() {
+    Map<String, PluginPropertyField> properties = new HashMap<>();
+    properties.put("fieldName", new PluginPropertyField("fieldName", "", "string", true, false));
+    return new PluginClass(BatchAggregator.PLUGIN_TYPE, "StatefulFieldCount", "",
+                           StatefulFieldCountAggregator.class.getName(), "config", properties);
+  }
+}
@@ -36,6 +36,7 @@ import io.cdap.cdap.etl.api.batch.BatchJoinerRuntimeContext;
 import io.cdap.cdap.etl.proto.v2.ETLPlugin;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -97,7 +98,7 @@ public class MockJoiner extends BatchJoiner<StructuredRecord, StructuredRecord,
 
   @Override
   public JoinConfig getJoinConfig() {
-    return new JoinConfig(config.getRequiredInputs());
+    return new JoinConfig(config.getRequiredInputs(), config.getBroadcastInputs());
   }
 
   @Override
@@ -145,12 +146,14 @@ public class MockJoiner extends BatchJoiner<StructuredRecord, StructuredRecord,
     private final String selectedFields;
     @Nullable
     private final String requiredInputs;
-
+    @Nullable
+    private final String broadcastInputs;
 
     public Config() {
       this.joinKeys = "joinKeys";
       this.selectedFields = "selectedFields";
       this.requiredInputs = "requiredInputs";
+      this.broadcastInputs = null;
     }
 
     private void validateConfig(Map<String, Schema> inputSchemas, FailureCollector collector) {
@@ -235,13 +238,26 @@ public class MockJoiner extends BatchJoiner<StructuredRecord, StructuredRecord,
     private Iterable<String> getRequiredInputs() {
       return Splitter.on(',').trimResults().omitEmptyStrings().split(requiredInputs);
     }
+
+    private Iterable<String> getBroadcastInputs() {
+      return broadcastInputs == null ? Collections.<String>emptyList() :
+        Splitter.on(',').trimResults().omitEmptyStrings().split(broadcastInputs);
+    }
   }
 
   public static ETLPlugin getPlugin(String joinKeys, String requiredInputs, String selectedFields) {
+    return getPlugin(joinKeys, requiredInputs, selectedFields, null);
+  }
+
+  public static ETLPlugin getPlugin(String joinKeys, String requiredInputs, String selectedFields,
+                                    @Nullable String broadcastInputs) {
     Map<String, String> properties = new HashMap<>();
     properties.put("joinKeys", joinKeys);
     properties.put("requiredInputs", requiredInputs);
     properties.put("selectedFields", selectedFields);
+    if (broadcastInputs != null) {
+      properties.put("broadcastInputs", broadcastInputs);
+    }
     return new ETLPlugin("MockJoiner", BatchJoiner.PLUGIN_TYPE, properties, null);
   }
 
@@ -250,6 +266,7 @@ public class MockJoiner extends BatchJoiner<StructuredRecord, StructuredRecord,
     properties.put("joinKeys", new PluginPropertyField("joinKeys", "", "string", true, false));
     properties.put("requiredInputs", new PluginPropertyField("requiredInputs", "", "string", true, false));
     properties.put("selectedFields", new PluginPropertyField("selectedFields", "", "string", true, false));
+    properties.put("broadcastInputs", new PluginPropertyField("broadcastInputs", "", "string", false, false));
     return new PluginClass(BatchJoiner.PLUGIN_TYPE, "MockJoiner", "", MockJoiner.class.getName(),
                            "config", properties);
   }
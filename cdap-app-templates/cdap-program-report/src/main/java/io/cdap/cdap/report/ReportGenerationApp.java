@@ -27,6 +27,7 @@ public class ReportGenerationApp extends AbstractApplication {
   public static final String NAME = "ReportGenerationApp";
   public static final String RUN_META_FILESET = "RunMetaFileset";
   public static final String REPORT_FILESET = "ReportFileset";
+  public static final String RUN_META_AGGREGATE_FILESET = "RunMetaAggregateFileset";
 
   @Override
   public void configure() {
@@ -36,5 +37,9 @@ public class ReportGenerationApp extends AbstractApplication {
       .setEnableExploreOnCreate(false)
       .setDescription("fileSet")
       .build());
+    createDataset(RUN_META_AGGREGATE_FILESET, FileSet.class, FileSetProperties.builder()
+      .setEnableExploreOnCreate(false)
+      .setDescription("Daily aggregates of the program run meta files")
+      .build());
   }
 }
@@ -904,8 +904,9 @@ public class ReportGenerationSpark extends AbstractExtendedSpark {
 
     /**
      * Generates report files according to the given request and write them to the given location.
-     * Program run meta files are first filtered to exclude unnecessary files for report generation,
-     * and send the paths of qualified run meta files to {@link ReportGenerationHelper#generateReport}
+     * Program run meta files are first filtered to exclude unnecessary files for report generation.
+     * Files that are included in the daily aggregates are replaced by the aggregates, and the paths of the remaining
+     * run meta files and the aggregates are sent to {@link ReportGenerationHelper#generateReport}
      * that actually launches a Spark job to generate reports.
      *
      * @param reportRequest the request to generate report
@@ -914,6 +915,8 @@ public class ReportGenerationSpark extends AbstractExtendedSpark {
      */
     private void generateReport(ReportGenerationRequest reportRequest, Location reportIdDir) throws IOException {
       Location baseLocation = getDatasetBaseLocation(ReportGenerationApp.RUN_META_FILESET);
+      RunMetaDailyAggregates dailyAggregates =
+        new RunMetaDailyAggregates(sqlContext, getDatasetBaseLocation(ReportGenerationApp.RUN_META_AGGREGATE_FILESET));
       // Get a list of directories of all namespaces under RunMetaFileset base location
       List<Location> nsLocations;
       nsLocations = baseLocation.list();
@@ -924,29 +927,17 @@ public class ReportGenerationSpark extends AbstractExtendedSpark {
       if (nsFilter != null) {
         filteredNsLocations = nsLocations.stream().filter(nsLocation -> nsFilter.apply(nsLocation.getName()));
       }
-      // Iterate through all qualified namespaces directories to get program run meta files
-      Stream<Location> metaFiles = filteredNsLocations.flatMap(nsLocation -> {
-        try {
-          List<Location> metaFileLocations = nsLocation.list();
-          LOG.debug("Files under namespace {}: {}", nsLocation.getName(), metaFileLocations);
-          return metaFileLocations.stream();
-        } catch (IOException e) {
-          throw new RuntimeException(e);
-        }
-      });
+      // Iterate through all qualified namespaces directories to get program run meta files and daily aggregates.
       // Program run meta files are in avro format. Each file is named by the earliest program run meta record
       // in the file, so exclude the files with no record earlier than the end of query time range.
-      List<String> metaFilePaths = metaFiles.filter(metaFile -> {
-        String fileName = metaFile.getName();
-        return fileName.endsWith(".avro")
-          //file name is of the format <event-time-millis>-<creation-time-millis>.avro
-          && TimeUnit.MILLISECONDS.toSeconds(Long.parseLong(fileName.substring(0, fileName.indexOf("-")))) <
-          reportRequest.getEnd();
-      }).map(location -> location.toURI().toString()).collect(Collectors.toList());
-      LOG.debug("Filtered meta files {}", metaFilePaths);
-      // Generate the report with the request and program run meta files
-      ReportGenerationHelper.generateReport(sqlContext, reportRequest,
-                                            metaFilePaths, reportIdDir, reportsExpiryTimeMillis);
+      RunMetaDailyAggregates.Inputs inputs = new RunMetaDailyAggregates.Inputs();
+      for (Location nsLocation : filteredNsLocations.collect(Collectors.toList())) {
+        dailyAggregates.collectInputs(nsLocation, reportRequest.getEnd(), inputs);
+      }
+      LOG.debug("Filtered meta files {} and aggregates {}", inputs.getRunMetaFiles(), inputs.getAggregates());
+      // Generate the report with the request, program run meta files, and aggregates
+      ReportGenerationHelper.generateReport(sqlContext, reportRequest, inputs.getRunMetaFiles(),
+                                            inputs.getAggregates(), reportIdDir, reportsExpiryTimeMillis);
     }
 
     /**
@@ -0,0 +1,215 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.report;
+
+import org.apache.spark.sql.SQLContext;
+import org.apache.twill.filesystem.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+
+/**
+ * Maintains the daily aggregates of the program run meta files. The run meta files of a namespace are grouped by
+ * the day of their earliest record, and once all files of a day are closed, they are aggregated by
+ * {@link ReportGenerationHelper#aggregateRunMeta} into a Parquet directory at {@code <namespace>/<yyyy-MM-dd>}
+ * under the aggregate base location. A {@code _FILES} manifest in the directory lists the run meta files included
+ * in the aggregate, so that report generation reads the aggregate instead of those files, and only reads the
+ * run meta files that are not included in any aggregate yet.
+ */
+final class RunMetaDailyAggregates {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RunMetaDailyAggregates.class);
+  private static final String MANIFEST_FILE = "_FILES";
+  private static final String RUN_META_FILE_SUFFIX = ".avro";
+
+  private final SQLContext sqlContext;
+  private final Location aggregateBaseLocation;
+
+  RunMetaDailyAggregates(SQLContext sqlContext, Location aggregateBaseLocation) {
+    this.sqlContext = sqlContext;
+    this.aggregateBaseLocation = aggregateBaseLocation;
+  }
+
+  /**
+   * Collects the inputs for generating a report ending at the given time from the run meta files in the given
+   * namespace directory. Days that are complete but not aggregated yet are aggregated first.
+   *
+   * @param nsLocation the directory containing the run meta files of a namespace
+   * @param endSecs the end of the report time range in seconds
+   * @param inputs the {@link Inputs} to add the run meta files and aggregates to read to
+   */
+  void collectInputs(Location nsLocation, long endSecs, Inputs inputs) throws IOException {
+    List<Location> metaFiles = nsLocation.list().stream()
+      .filter(location -> location.getName().endsWith(RUN_META_FILE_SUFFIX))
+      .collect(Collectors.toList());
+    if (metaFiles.isEmpty()) {
+      return;
+    }
+
+    // The file created last is the one the TMS subscriber might still be writing to. Files of the days before
+    // the day of that file are all closed, hence can be aggregated.
+    Optional<Location> openFile = metaFiles.stream()
+      .max(Comparator.comparingLong((Location l) -> getCreationTime(l.getName()))
+             .thenComparingLong(l -> getEventTime(l.getName())));
+    LocalDate openDay = openFile.map(location -> getDay(getEventTime(location.getName()))).orElse(null);
+
+    Map<LocalDate, List<Location>> filesByDay = new TreeMap<>();
+    for (Location metaFile : metaFiles) {
+      filesByDay.computeIfAbsent(getDay(getEventTime(metaFile.getName())), day -> new ArrayList<>()).add(metaFile);
+    }
+
+    Location nsAggregateLocation = aggregateBaseLocation.append(nsLocation.getName());
+    for (Map.Entry<LocalDate, List<Location>> entry : filesByDay.entrySet()) {
+      LocalDate day = entry.getKey();
+      // Each file is named by its earliest record, so skip the days with no record earlier than the end of the range
+      if (TimeUnit.DAYS.toSeconds(day.toEpochDay()) >= endSecs) {
+        continue;
+      }
+      Location dayLocation = nsAggregateLocation.append(day.toString());
+      Set<String> aggregated = readManifest(dayLocation);
+      if (aggregated == null && day.isBefore(openDay)) {
+        aggregated = aggregate(nsAggregateLocation, dayLocation, entry.getValue());
+      }
+      if (aggregated != null) {
+        inputs.aggregates.add(dayLocation.toURI().toString());
+      }
+      for (Location metaFile : entry.getValue()) {
+        String fileName = metaFile.getName();
+        if ((aggregated == null || !aggregated.contains(fileName))
+          && TimeUnit.MILLISECONDS.toSeconds(getEventTime(fileName)) < endSecs) {
+          inputs.runMetaFiles.add(metaFile.toURI().toString());
+        }
+      }
+    }
+  }
+
+  /**
+   * Aggregates the given run meta files into the given day location.
+   *
+   * @return the names of the files included in the aggregate, or {@code null} if the aggregation failed
+   */
+  @Nullable
+  private Set<String> aggregate(Location nsAggregateLocation, Location dayLocation, List<Location> metaFiles) {
+    // Aggregate into a hidden temporary directory first, so that a partially written aggregate is never read
+    Location tmpLocation = nsAggregateLocation.append("." + dayLocation.getName() + "-" + UUID.randomUUID());
+    try {
+      List<String> inputURIs = metaFiles.stream().map(l -> l.toURI().toString()).collect(Collectors.toList());
+      ReportGenerationHelper.aggregateRunMeta(sqlContext, inputURIs, tmpLocation.toURI().toString());
+      Set<String> fileNames = metaFiles.stream().map(Location::getName).collect(Collectors.toSet());
+      try (PrintWriter writer = new PrintWriter(
+        new OutputStreamWriter(tmpLocation.append(MANIFEST_FILE).getOutputStream(), StandardCharsets.UTF_8))) {
+        fileNames.forEach(writer::println);
+      }
+      // Another report generation might have aggregated the same day concurrently
+      if (!dayLocation.exists() && tmpLocation.renameTo(dayLocation) != null) {
+        LOG.debug("Aggregated run meta files {} to {}", fileNames, dayLocation);
+        return fileNames;
+      }
+      return readManifest(dayLocation);
+    } catch (Exception e) {
+      LOG.warn("Failed to aggregate run meta files of {}. Reading the run meta files instead.", dayLocation, e);
+      return null;
+    } finally {
+      try {
+        tmpLocation.delete(true);
+      } catch (IOException e) {
+        LOG.warn("Failed to delete temporary aggregate location {}", tmpLocation, e);
+      }
+    }
+  }
+
+  /**
+   * Reads the names of the run meta files included in the aggregate at the given location.
+   *
+   * @return the set of file names, or {@code null} if there is no aggregate at the given location
+   */
+  @Nullable
+  private Set<String> readManifest(Location dayLocation) throws IOException {
+    Location manifest = dayLocation.append(MANIFEST_FILE);
+    if (!manifest.exists()) {
+      return null;
+    }
+    Set<String> fileNames = new HashSet<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(manifest.getInputStream(),
+                                                                          StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.isEmpty()) {
+          fileNames.add(line);
+        }
+      }
+    }
+    return fileNames;
+  }
+
+  private static LocalDate getDay(long timeMillis) {
+    return Instant.ofEpochMilli(timeMillis).atZone(ZoneOffset.UTC).toLocalDate();
+  }
+
+  /**
+   * Returns the time of the earliest record in the given run meta file.
+   * File name is of the format <event-time-millis>-<creation-time-millis>.avro
+   */
+  private static long getEventTime(String fileName) {
+    return Long.parseLong(fileName.substring(0, fileName.indexOf('-')));
+  }
+
+  /**
+   * Returns the creation time of the given run meta file.
+   */
+  private static long getCreationTime(String fileName) {
+    return Long.parseLong(fileName.substring(fileName.indexOf('-') + 1,
+                                             fileName.length() - RUN_META_FILE_SUFFIX.length()));
+  }
+
+  /**
+   * The run meta files and aggregates to read for generating a report.
+   */
+  static final class Inputs {
+    private final List<String> runMetaFiles = new ArrayList<>();
+    private final List<String> aggregates = new ArrayList<>();
+
+    List<String> getRunMetaFiles() {
+      return runMetaFiles;
+    }
+
+    List<String> getAggregates() {
+      return aggregates;
+    }
+  }
+}
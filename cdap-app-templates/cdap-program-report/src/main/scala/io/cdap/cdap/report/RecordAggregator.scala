@@ -22,12 +22,12 @@ import org.apache.spark.sql.{Encoder, Encoders, Row}
 import org.apache.spark.sql.expressions.Aggregator
 
 /**
-  * An aggregator that aggregates [[Row]]'s with the same program run ID into intermediate [[RecordBuilder]]'s
-  * and finally merge the [[RecordBuilder]]'s to build a single [[Record]]
+  * An aggregator that aggregates [[Row]]'s with the same program run ID into a partial [[RecordBuilder]].
+  * Partial [[RecordBuilder]]'s of a program run are merged by [[RecordAggregator]] to build a single [[Record]].
   */
-class RecordAggregator extends Aggregator[Row, RecordBuilder, Record] {
+class PartialRecordAggregator extends Aggregator[Row, RecordBuilder, RecordBuilder] {
 
-  def zero: RecordBuilder = RecordBuilder("", "", "", "", "", "", Vector.empty, None, 0, 0, 0)
+  def zero: RecordBuilder = RecordAggregator.EMPTY
   def reduce(builder: RecordBuilder, row: Row): RecordBuilder = {
     // Get the StartInfo from the builder if it exists or construct a new StartInfo from the row
     val startInfo = builder.startInfo.orElse(Option(row.getAs[Row](Constants.START_INFO)).map(rowToStartInfo))
@@ -45,11 +45,11 @@ class RecordAggregator extends Aggregator[Row, RecordBuilder, Record] {
   def merge(b1: RecordBuilder, b2: RecordBuilder): RecordBuilder = {
     b1.merge(b2)
   }
-  def finish(b: RecordBuilder): Record = {
-    b.build()
+  def finish(b: RecordBuilder): RecordBuilder = {
+    b
   }
   def bufferEncoder(): Encoder[RecordBuilder] = Encoders.product[RecordBuilder]
-  def outputEncoder(): Encoder[Record] = Encoders.product[Record]
+  def outputEncoder(): Encoder[RecordBuilder] = Encoders.product[RecordBuilder]
 
   private def rowToStartInfo(startInfoRow: Row): StartInfo = {
     val artifact: Row = startInfoRow.getAs[Row](Constants.ARTIFACT_ID)
@@ -58,3 +58,27 @@ class RecordAggregator extends Aggregator[Row, RecordBuilder, Record] {
       artifact.getAs(Constants.ARTIFACT_SCOPE), startInfoRow.getAs(Constants.SYSTEM_ARGUMENTS))
   }
 }
+
+/**
+  * An aggregator that merges partial [[RecordBuilder]]'s with the same program run ID, which are either aggregated
+  * from the program run meta files or read from the daily aggregates, and finally builds a single [[Record]].
+  */
+class RecordAggregator extends Aggregator[RecordBuilder, RecordBuilder, Record] {
+
+  def zero: RecordBuilder = RecordAggregator.EMPTY
+  def reduce(builder: RecordBuilder, partial: RecordBuilder): RecordBuilder = {
+    builder.merge(partial)
+  }
+  def merge(b1: RecordBuilder, b2: RecordBuilder): RecordBuilder = {
+    b1.merge(b2)
+  }
+  def finish(b: RecordBuilder): Record = {
+    b.build()
+  }
+  def bufferEncoder(): Encoder[RecordBuilder] = Encoders.product[RecordBuilder]
+  def outputEncoder(): Encoder[Record] = Encoders.product[Record]
+}
+
+object RecordAggregator {
+  val EMPTY = RecordBuilder("", "", "", "", "", "", Vector.empty, None, 0, 0, 0)
+}
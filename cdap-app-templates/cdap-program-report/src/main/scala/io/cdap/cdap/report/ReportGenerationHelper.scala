@@ -27,7 +27,7 @@ import com.databricks.spark._
 import com.google.gson._
 import org.apache.avro.mapred._
 import org.apache.spark.sql._
-import org.apache.spark.sql.functions.{avg, max, min}
+import org.apache.spark.sql.functions.{avg, col, lit, max, min}
 import org.apache.twill.filesystem.Location
 import org.slf4j.LoggerFactory
 
@@ -46,15 +46,39 @@ object ReportGenerationHelper {
   val REQUIRED_FILTER_FIELDS = Set(Constants.START, Constants.END)
   val REQUIRED_SUMMARY_FIELDS = Set(Constants.NAMESPACE, Constants.ARTIFACT_NAME, Constants.ARTIFACT_VERSION,
     Constants.ARTIFACT_SCOPE, Constants.DURATION, Constants.START, Constants.USER, Constants.START_METHOD)
+  // the fields in program run meta records that are the same in all records of a program run
+  val RUN_FIELDS = Set(Constants.NAMESPACE, Constants.APPLICATION_NAME, Constants.APPLICATION_VERSION,
+    Constants.PROGRAM_TYPE, Constants.PROGRAM, Constants.RUN)
+  // the columns of program run meta records required for report generation
+  val RUN_META_COLUMNS = Seq(Constants.NAMESPACE, Constants.APPLICATION_NAME, Constants.APPLICATION_VERSION,
+    Constants.PROGRAM_TYPE, Constants.PROGRAM, Constants.RUN, Constants.STATUS, Constants.TIME, Constants.START_INFO)
   val AVRO_READER = avro.AvroDataFrameReader(_)
   val FS_INPUT = classOf[FsInput]
   // the default name of the column created by calling aggregate function count
   val COUNT_COL = "count"
 
   /**
-    * Generates a report file according to the given request from the given program run meta files.
-    * The given program run meta files are first read into a single [[org.apache.spark.sql.DataFrame]].
-    * The [[org.apache.spark.sql.DataFrame]] is then grouped by program run ID and aggregated to form
+    * Aggregates the program run meta records in the given program run meta files into partial records, one per
+    * program run, and writes them as Parquet files to the given output location. Reports can read the partial
+    * records instead of the program run meta files, see [[generateReport]].
+    *
+    * @param sql the SQL context to run the aggregation with
+    * @param inputURIs URIs of the avro files containing program run meta records
+    * @param outputURI URI of the directory to write the Parquet files to
+    */
+  def aggregateRunMeta(sql: SQLContext, inputURIs: java.util.List[String], outputURI: String): Unit = {
+    val df = SparkCompat.readAvroFiles(sql, inputURIs).select(RUN_META_COLUMNS.map(col): _*)
+    SparkCompat.aggregatePartial(sql, df).coalesce(1).write.parquet(outputURI)
+  }
+
+  /**
+    * Generates a report file according to the given request from the given program run meta files and
+    * aggregates of program run meta files written by [[aggregateRunMeta]].
+    * The given program run meta files are first read into a single [[org.apache.spark.sql.DataFrame]] and
+    * aggregated into partial records of program runs, which are combined with the partial records read from
+    * the given aggregates. Filters in the request on the fields that are the same in all records of a program run,
+    * such as namespace and program, are applied while reading, before the partial records are combined.
+    * The partial records are then grouped by program run ID and aggregated to form
     * a new aggregated [[org.apache.spark.sql.DataFrame]] with a column "run" containing program run ID and a column
     * "record" containing fields as shown below:
     * +---------+----------+
@@ -88,25 +112,38 @@ object ReportGenerationHelper {
     * @param sql the SQL context to run report generation with
     * @param request the report generation request
     * @param inputURIs URIs of the avro files containing program run meta records
+    * @param aggregateURIs URIs of the Parquet directories containing partial records of program runs
     * @param reportIdDir location of the directory where the report files directory, COUNT file,
     *                    and _SUCCESS file will be created.
     * @throws java.io.IOException when fails to write to the COUNT or _SUCCESS file
     */
   @throws(classOf[IOException])
   def generateReport(sql: SQLContext, request: ReportGenerationRequest, inputURIs: java.util.List[String],
+                     aggregateURIs: java.util.List[String],
                      reportIdDir: Location, reportExpiryDurationMillis : Long): Unit = {
-    if (inputURIs.isEmpty) {
+    if (inputURIs.isEmpty && aggregateURIs.isEmpty) {
       writeEmptySummaryFile(request, reportIdDir, reportExpiryDurationMillis);
       return
     }
-    val df = SparkCompat.readAvroFiles(sql, inputURIs)
     // Get the fields to be included in the final report and additional fields required for filtering and sorting
     val (reportFields: Set[String], additionalFields: Set[String]) = getReportAndAdditionalFields(request)
 
     // TODO: configure partitions. The default number of partitions is 200
-    // Group the program run meta records by program runId's and aggregate the grouped data to get an
+    // Aggregate the program run meta records into partial records, one per program run in each run meta file,
+    // and combine them with the partial records from the daily aggregates
+    val partials = Seq(
+      Option(inputURIs).filter(!_.isEmpty).map(uris => {
+        val df = SparkCompat.readAvroFiles(sql, uris).select(RUN_META_COLUMNS.map(col): _*)
+        SparkCompat.aggregatePartial(sql, df.filter(getRunFilter(request, df)))
+      }),
+      Option(aggregateURIs).filter(!_.isEmpty).map(uris => {
+        val ds = SparkCompat.readAggregates(sql, uris)
+        ds.filter(getRunFilter(request, ds.toDF()))
+      })
+    ).flatten.reduce(_ union _)
+    // Group the partial records by program runId's and aggregate the grouped data to get an
     // aggregated DataFrame with two columns: column "run" with runId's and column "record" with aggregation results
-    val initAggDf = SparkCompat.aggregate(sql, df)
+    val initAggDf = SparkCompat.aggregate(sql, partials)
     // With every unique field in reportFields and additionalFields, construct and add new columns from record column
     // in aggregated DataFrame, in addition to the two initial columns "run" and "record"
     val aggDf = (reportFields ++ additionalFields).foldLeft(initAggDf)((df, fieldName) =>
@@ -276,6 +313,35 @@ object ReportGenerationHelper {
     (reportFields, additionalFields)
   }
 
+  /**
+    * Gets a filter constructed from the value filters in the report generation request on the fields in
+    * [[RUN_FIELDS]]. Such a filter can be applied to every program run meta record or partial record
+    * before they are aggregated, since it either keeps or drops all records of a program run.
+    *
+    * @param request the report generation request
+    * @param df the DateFrame to apply filter on
+    * @return the filter
+    */
+  private def getRunFilter(request: ReportGenerationRequest, df: DataFrame): Column = {
+    Option(request.getFilters).map(_.toList).getOrElse(Nil)
+      .filter(filter => RUN_FIELDS.contains(filter.getFieldName))
+      .foldLeft(lit(true))((fCol: Column, filter: Filter[_]) => filter match {
+        case valueFilter: ValueFilter[_] => {
+          val fieldCol = df(filter.getFieldName)
+          val whitelist = valueFilter.getWhitelist
+          val blacklist = valueFilter.getBlacklist
+          if (whitelist.size() > 0) {
+            fCol && fieldCol.isin(whitelist.stream().collect(Collectors.toList()): _*)
+          } else if (blacklist.size() > 0) {
+            fCol && !fieldCol.isin(blacklist.stream().collect(Collectors.toList()): _*)
+          } else {
+            fCol
+          }
+        }
+        case _ => fCol
+      })
+  }
+
   /**
     * Gets a filter constructed from the report time range and filters in the report generation request.
     *
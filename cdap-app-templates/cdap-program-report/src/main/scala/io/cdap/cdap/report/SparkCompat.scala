@@ -16,14 +16,15 @@
 package io.cdap.cdap.report
 
 import io.cdap.cdap.report.util.Constants
-import org.apache.spark.sql.{DataFrame, SQLContext}
+import org.apache.spark.sql.{DataFrame, Dataset, SQLContext}
 
 /**
-  * A utility class to maintain compatibility with Spark2 for reading avro files and aggregating.
+  * A utility class to maintain compatibility with Spark2 for reading avro and Parquet files and aggregating.
   */
 object SparkCompat {
 
   val SPARK_VERSION = "spark2_2.11"
+  val PARTIAL_COL = "partial"
 
   /**
     * @return the compatible Spark version
@@ -43,18 +44,44 @@ object SparkCompat {
   }
 
   /**
-    * Groups the given [[DataFrame]] by the column [[Constants.RUN]] and aggregates the grouped data
-    * by [[RecordAggregator]]
+    * Reads the Parquet directories written by [[ReportGenerationHelper.aggregateRunMeta]] to construct
+    * a [[Dataset]] of partial [[RecordBuilder]]'s.
+    *
+    * @param sql the SQL context to create the [[Dataset]] with
+    * @param inputURIs URIs of the Parquet directories to read
+    */
+  def readAggregates(sql: SQLContext, inputURIs: Seq[String]): Dataset[RecordBuilder] = {
+    import sql.sparkSession.implicits._
+    sql.sparkSession.read.parquet(inputURIs: _*).as[RecordBuilder]
+  }
+
+  /**
+    * Groups the given [[DataFrame]] of program run meta records by the column [[Constants.RUN]] and aggregates
+    * the grouped data by [[PartialRecordAggregator]]
     *
     * @param sql the SQL context from which the [[DataFrame]] is created
     * @param df the [[DataFrame]] to be aggregated
+    * @return the [[Dataset]] of partial [[RecordBuilder]]'s, one per program run
+    */
+  def aggregatePartial(sql: SQLContext, df: DataFrame): Dataset[RecordBuilder] = {
+    import sql.sparkSession.implicits._
+    val partialCol = new PartialRecordAggregator().toColumn.alias(PARTIAL_COL).as[RecordBuilder]
+    df.groupBy(Constants.RUN).agg(partialCol).select(PARTIAL_COL + ".*").as[RecordBuilder]
+  }
+
+  /**
+    * Groups the given [[Dataset]] of partial [[RecordBuilder]]'s by program run ID and aggregates the grouped data
+    * by [[RecordAggregator]]
+    *
+    * @param sql the SQL context from which the [[Dataset]] is created
+    * @param partials the [[Dataset]] to be aggregated
     * @return the aggregated [[DataFrame]]
     */
-  def aggregate(sql: SQLContext, df: DataFrame): DataFrame = {
+  def aggregate(sql: SQLContext, partials: Dataset[RecordBuilder]): DataFrame = {
     import sql.sparkSession.implicits._
     // Create an aggregator that aggregates grouped data into a column with data type Record.
     val aggCol = new RecordAggregator().toColumn.alias(ReportGenerationHelper.RECORD_COL).as[Record]
-    // Group the program run meta records by program run Id's and aggregate the grouped data with aggCol.
-    df.groupBy(Constants.RUN).agg(aggCol)
+    // Group the partial records by program run Id's and aggregate the grouped data with aggCol.
+    partials.groupByKey(_.run).agg(aggCol).toDF(Constants.RUN, ReportGenerationHelper.RECORD_COL)
   }
 }
@@ -91,6 +91,8 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -364,6 +366,73 @@ public class ReportGenerationAppTest extends TestBase {
     getNamespaceAdmin().delete(testNamespace);
   }
 
+  @Test
+  public void testDailyAggregates() throws Exception {
+    NamespaceId testNamespace = new NamespaceId("aggregates");
+    getNamespaceAdmin().create(new NamespaceMeta.Builder()
+                                 .setName(testNamespace)
+                                 .setDescription("Namespace used to test daily aggregates of run meta files")
+                                 .build());
+    // Run meta files from two days ago can be aggregated, since newer run meta files exist in every namespace
+    long currentTimeMillis = System.currentTimeMillis();
+    long pastTimeMillis = currentTimeMillis - TimeUnit.DAYS.toMillis(2);
+    DatasetId datasetId = createAndInitializeDataset(testNamespace, pastTimeMillis);
+    DataSetManager<FileSet> metaFileset = getDataset(datasetId);
+    populateMetaFiles(metaFileset.get().getBaseLocation(), currentTimeMillis);
+
+    Map<String, String> runTimeArguments = new HashMap<>();
+    runTimeArguments.put(Constants.DISABLE_TMS_SUBSCRIBER_THREAD, "true");
+    SparkManager sparkManager = deployAndStartReportingApplication(testNamespace, runTimeArguments);
+    URL url = sparkManager.getServiceURL(1, TimeUnit.MINUTES);
+    Assert.assertNotNull(url);
+    URL reportURL = url.toURI().resolve("reports/").toURL();
+    List<Filter> filters =
+      ImmutableList.of(
+        new ValueFilter<>(Constants.NAMESPACE, ImmutableSet.of("ns1", "ns2"), null),
+        new RangeFilter<>(Constants.DURATION, new RangeFilter.Range<>(null, 500L)));
+    long startSecs = TimeUnit.MILLISECONDS.toSeconds(pastTimeMillis);
+    ReportGenerationRequest request =
+      new ReportGenerationRequest("ns1_ns2_report", startSecs, startSecs + 30,
+                                  new ArrayList<>(ReportField.FIELD_NAME_MAP.keySet()),
+                                  ImmutableList.of(new Sort(Constants.DURATION, Sort.Order.DESCENDING)), filters);
+
+    // The first report aggregates the run meta files, and the second one reads the aggregates only.
+    // Both should have the same content as a report generated from the run meta files.
+    for (int i = 0; i < 2; i++) {
+      String reportId = startReportGeneration(reportURL, request);
+      validateReportSummary(reportURL.toURI().resolve("info?report-id=" + reportId).toURL(), startSecs);
+      validateReportContent(reportURL.toURI().resolve("download?report-id=" + reportId).toURL());
+    }
+
+    // Only the namespaces included in the report are aggregated
+    DataSetManager<FileSet> aggregateFileset =
+      getDataset(testNamespace.dataset(ReportGenerationApp.RUN_META_AGGREGATE_FILESET));
+    Location aggregateLocation = aggregateFileset.get().getBaseLocation();
+    String day = Instant.ofEpochMilli(pastTimeMillis).atZone(ZoneOffset.UTC).toLocalDate().toString();
+    Assert.assertTrue(aggregateLocation.append("ns1").append(day).append("_FILES").exists());
+    Assert.assertTrue(aggregateLocation.append("ns2").append(day).append("_FILES").exists());
+    Assert.assertFalse(aggregateLocation.append("default").exists());
+
+    sparkManager.stop();
+    sparkManager.waitForStopped(2, TimeUnit.MINUTES);
+    deleteDatasetInstance(datasetId);
+    getNamespaceAdmin().delete(testNamespace);
+  }
+
+  private String startReportGeneration(URL reportURL, ReportGenerationRequest request) throws IOException {
+    HttpURLConnection urlConn = (HttpURLConnection) reportURL.openConnection();
+    urlConn.setDoOutput(true);
+    urlConn.setRequestMethod("POST");
+    urlConn.getOutputStream().write(GSON.toJson(request).getBytes(StandardCharsets.UTF_8));
+    if (urlConn.getErrorStream() != null) {
+      Assert.fail(Bytes.toString(ByteStreams.toByteArray(urlConn.getErrorStream())));
+    }
+    Assert.assertEquals(200, urlConn.getResponseCode());
+    String reportId = getResponseObject(urlConn, STRING_STRING_MAP).get("id");
+    Assert.assertNotNull(reportId);
+    return reportId;
+  }
+
   private int getReportsList(URL url) throws IOException, URISyntaxException {
     URL reportURL = url.toURI().resolve("reports/").toURL();
     HttpURLConnection reportsUrl = (HttpURLConnection) reportURL.openConnection();
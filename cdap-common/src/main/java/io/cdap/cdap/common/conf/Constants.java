@@ -338,6 +338,11 @@ public final class Constants {
     public static final String WORKER_THREADS = "preview.worker.threads";
 
     public static final String PREVIEW_CACHE_SIZE = "preview.cache.size";
+
+    /** Number of preview runtimes that are started ahead of time for upcoming preview requests */
+    public static final String RUNTIME_POOL_SIZE = "preview.runtime.pool.size";
+    /** Time in seconds a pooled preview runtime can stay unused before it is stopped */
+    public static final String RUNTIME_POOL_IDLE_TIMEOUT_SECS = "preview.runtime.pool.idle.timeout.secs";
   }
 
   /**
@@ -358,6 +363,8 @@ public final class Constants {
     public static final String PROGRAM_STATUS_EVENT_FETCH_SIZE = "scheduler.program.status.event.fetch.size";
 
     public static final String JOB_QUEUE_NUM_PARTITIONS = "scheduler.job.queue.num.partitions";
+    public static final String JOB_QUEUE_RECOVERY_SCAN_INTERVAL_MILLIS =
+      "scheduler.job.queue.recovery.scan.interval.millis";
   }
 
   /**
@@ -445,6 +452,13 @@ public final class Constants {
 
     public static final String DATA_EVENT_TOPIC = "data.event.topic";
 
+    /** TMS topic for publishing dataset instance and module changes, which invalidates client side dataset caches */
+    public static final String DATASET_CHANGE_TOPIC = "dataset.change.topic";
+    /** Delay between polls for dataset changes when there is no new change */
+    public static final String DATASET_CHANGE_POLL_DELAY_MILLIS = "dataset.change.poll.delay.ms";
+    /** Time to live of dataset instance metadata cached by clients of the dataset service */
+    public static final String CLIENT_CACHE_TTL_SECS = "dataset.client.cache.ttl.secs";
+
     public static final String DATA_STORAGE_IMPLEMENTATION = "data.storage.implementation";
     public static final String DATA_STORAGE_NOSQL = "nosql";
     public static final String DATA_STORAGE_SQL = "postgresql";
@@ -599,6 +613,12 @@ public final class Constants {
     public static final int HOUR_RESOLUTION = 3600;
     public static final long PROCESS_INTERVAL_MILLIS = 60000;
     public static final String RETENTION_SECONDS_SUFFIX = ".seconds";
+    // Key prefix for deriving a resolution table by rollup of the next finer one instead of writing it on ingest.
+    // The actual key is suffixed by the table resolution and ROLLUP_ENABLED_SUFFIX.
+    public static final String ROLLUP_ENABLED = "metrics.data.table.rollup.resolution.";
+    public static final String ROLLUP_ENABLED_SUFFIX = ".enabled";
+    public static final String ROLLUP_DELAY_SECONDS = "metrics.data.table.rollup.delay.seconds";
+    public static final String ROLLUP_INTERVAL_SECONDS = "metrics.data.table.rollup.interval.seconds";
 
     public static final String TOPIC_PREFIX = "metrics.topic.prefix";
 
@@ -617,6 +637,13 @@ public final class Constants {
     public static final int DEFAULT_TIME_SERIES_TABLE_ROLL_TIME = 3600;
 
     public static final String MESSAGING_TOPIC_NUM = "metrics.messaging.topic.num";
+    // Key prefix for the tags to drop from the metrics contexts of a program type before publishing, so that contexts
+    // in the same container which only differ by these tags are published as one. The actual key is suffixed by the
+    // lower case program type.
+    public static final String PUBLISH_AGGREGATION_TAGS = "metrics.publish.aggregation.tags.";
+    // Key prefix for whether the counters emitted by the tasks of a program type are merged in the program driver
+    // and published by it. The actual key is suffixed by the lower case program type.
+    public static final String DRIVER_AGGREGATION_ENABLED = "metrics.driver.aggregation.enabled.";
 
     public static final String TWILL_INSTANCE_ID = "metrics.twill.instance.id";
 
@@ -847,6 +874,8 @@ public final class Constants {
    */
   public static final class RuntimeMonitor {
     public static final String POLL_TIME_MS = "app.program.runtime.monitor.polltime.ms";
+    public static final String MAX_POLL_TIME_MS = "app.program.runtime.monitor.max.polltime.ms";
+    public static final String COMPRESSION_ENABLED = "app.program.runtime.monitor.compression.enabled";
     public static final String BATCH_SIZE = "app.program.runtime.monitor.batch.size";
     public static final String TOPICS_CONFIGS = "app.program.runtime.monitor.topics.configs";
     public static final String GRACEFUL_SHUTDOWN_MS = "app.program.runtime.monitor.graceful.shutdown.ms";
@@ -970,6 +999,8 @@ public final class Constants {
     public static final String TOKEN_EXPIRATION = "security.server.token.expiration.ms";
     /** Long lasting Access token expiration time in milliseconds. */
     public static final String EXTENDED_TOKEN_EXPIRATION = "security.server.extended.token.expiration.ms";
+    /** Maximum number of validated access tokens to cache. A value of zero or less disables the cache. */
+    public static final String TOKEN_VALIDATION_CACHE_SIZE = "security.token.validation.cache.size";
     public static final String CFG_FILE_BASED_KEYFILE_PATH = "security.data.keyfile.path";
     /** Configuration for security realm. */
     public static final String CFG_REALM = "security.realm";
@@ -1020,6 +1051,13 @@ public final class Constants {
       public static final String CACHE_TTL_SECS = "security.authorization.cache.ttl.secs";
       /** Maximum number of entries the authorization cache will hold */
       public static final String CACHE_MAX_ENTRIES = "security.authorization.cache.max.entries";
+      /** Time after which entries in container's privilege cache are refreshed in the background on access */
+      public static final String CACHE_REFRESH_SECS = "security.authorization.cache.refresh.secs";
+      /** TMS topic for publishing privilege changes, which invalidates container's privilege cache */
+      public static final String PRIVILEGE_CHANGE_TOPIC = "security.authorization.privilege.change.topic";
+      /** Delay between polls for privilege changes when there is no new change */
+      public static final String PRIVILEGE_CHANGE_POLL_DELAY_MILLIS =
+        "security.authorization.privilege.change.poll.delay.ms";
       /** Batch size for query for the visibility of entities */
       public static final int VISIBLE_BATCH_SIZE = 500;
       /** Upper limit on extension operation time after which the time is logged as WARN rather than TRACE */
@@ -1382,6 +1420,17 @@ public final class Constants {
   public static final class Provisioner {
     public static final String EXTENSIONS_DIR = "runtime.extensions.dir";
     public static final String SYSTEM_PROPERTY_PREFIX = "provisioner.system.properties.";
+
+    /** Whether clusters of finished program runs are kept for reuse by later runs with the same profile */
+    public static final String CLUSTER_POOL_ENABLED = "provisioner.cluster.pool.enabled";
+    /** Number of seconds that a pooled cluster is kept idle before it is deleted */
+    public static final String CLUSTER_POOL_IDLE_TTL_SECS = "provisioner.cluster.pool.idle.ttl.secs";
+    /** Maximum number of idle clusters kept in the pool for the same profile */
+    public static final String CLUSTER_POOL_MAX_IDLE = "provisioner.cluster.pool.max.idle";
+    /** Number of idle clusters to keep created ahead of time for a profile that is in use */
+    public static final String CLUSTER_POOL_MIN_IDLE = "provisioner.cluster.pool.min.idle";
+    /** Number of seconds between checks of the clusters in the pool */
+    public static final String CLUSTER_POOL_CHECK_INTERVAL_SECS = "provisioner.cluster.pool.check.interval.secs";
   }
 
   /**
@@ -1,37 +0,0 @@
-/*
- * Copyright © 2014 Cask Data, Inc.
- *
- * Licensed under the Apache License, Version 2.0 (the "License"); you may not
- * use this file except in compliance with the License. You may obtain a copy of
- * the License at
- *
- * http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
- * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
- * License for the specific language governing permissions and limitations under
- * the License.
- */
-package io.cdap.cdap.common.lang;
-
-import com.google.common.base.Defaults;
-import io.cdap.cdap.internal.lang.FieldVisitor;
-
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-import java.lang.reflect.Type;
-
-/**
- * Package private class for {@link InstantiatorFactory} to initialize fields for instances created using Unsafe.
- */
-final class FieldInitializer extends FieldVisitor {
-
-  @Override
-  public void visit(Object instance, Type inspectType, Type declareType, Field field) throws Exception {
-    if (Modifier.isStatic(field.getModifiers())) {
-      return;
-    }
-    field.set(instance, Defaults.defaultValue(field.getType()));
-  }
-}
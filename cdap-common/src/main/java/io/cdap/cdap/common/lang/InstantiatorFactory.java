@@ -24,7 +24,6 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
-import io.cdap.cdap.internal.lang.Reflections;
 import sun.misc.Unsafe;
 
 import java.lang.reflect.Constructor;
@@ -174,13 +173,13 @@ public final class InstantiatorFactory {
   }
 
   private <T> Instantiator<T> getByUnsafe(final TypeToken<T> type) {
+    final Class<? super T> rawType = type.getRawType();
     return new Instantiator<T>() {
       @Override
       public T create() {
         try {
-          Object instance = UNSAFE.allocateInstance(type.getRawType());
-          Reflections.visit(instance, type.getType(), new FieldInitializer());
-          return (T) instance;
+          // The fields of an allocated instance already have their default values
+          return (T) UNSAFE.allocateInstance(rawType);
         } catch (InstantiationException e) {
           throw Throwables.propagate(e);
         }
@@ -0,0 +1,703 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.io;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.primitives.Longs;
+import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.common.io.DatumReader;
+import io.cdap.cdap.common.io.Decoder;
+import io.cdap.cdap.common.lang.Instantiator;
+import io.cdap.cdap.common.lang.InstantiatorFactory;
+import io.cdap.cdap.internal.lang.Fields;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A factory class for creating {@link DatumReader} instance for different data type and schema.
+ *
+ * Unlike the {@link ReflectionDatumReader}, which resolves the source schema against the target schema and type
+ * for every value being read, the {@link DatumReader} created by this factory resolves each source schema once
+ * into a tree of readers, which is cached in this factory. Record fields are set through {@link FieldAccessor}
+ * created by the given {@link FieldAccessorFactory}. Use the {@link ASMFieldAccessorFactory} for system types,
+ * and the {@link ReflectionFieldAccessorFactory} for types loaded by program classloaders.
+ * Schema evolution follows the same rules as the {@link ReflectionDatumReader}.
+ */
+public final class ResolvingDatumReaderFactory implements DatumReaderFactory {
+
+  // Most factories only see a few source schemas. The limit keeps schemas and types from being retained forever.
+  private static final int MAX_CACHED_READERS = 100;
+
+  private final FieldAccessorFactory fieldAccessorFactory;
+  private final InstantiatorFactory instantiatorFactory;
+  private final LoadingCache<ReaderKey, ValueReader> valueReaders;
+
+  public ResolvingDatumReaderFactory(FieldAccessorFactory fieldAccessorFactory) {
+    this.fieldAccessorFactory = fieldAccessorFactory;
+    this.instantiatorFactory = new InstantiatorFactory(true);
+    this.valueReaders = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_READERS)
+      .build(new CacheLoader<ReaderKey, ValueReader>() {
+        @Override
+        public ValueReader load(ReaderKey key) throws Exception {
+          return new Resolver().resolve(key.sourceSchema, key.targetSchema, key.type);
+        }
+      });
+  }
+
+  /**
+   * Creates a {@link DatumReader} that is able to decode the given data type with the given target {@link Schema}.
+   * The instance created is thread safe and reusable.
+   *
+   * @param type Type information of the data type to be decoded.
+   * @param schema Schema of the data type.
+   * @param <T> Type of the data type.
+   * @return A {@link DatumReader} instance.
+   */
+  @Override
+  public <T> DatumReader<T> create(TypeToken<T> type, Schema schema) {
+    return new ResolvingDatumReader<>(type, schema);
+  }
+
+  /**
+   * Resolves the reader for values written with the given source schema, without caching it. It is used by the
+   * {@link ResolvingRowReader} to read each column.
+   */
+  ValueReader resolve(Schema sourceSchema, Schema targetSchema, TypeToken<?> targetType) throws IOException {
+    return new Resolver().resolve(sourceSchema, targetSchema, targetType);
+  }
+
+  /**
+   * Returns the type of the given field of the given type, with type variables resolved. The
+   * {@link FieldAccessor#getType()} cannot be used for that, since the accessors generated by the
+   * {@link ASMFieldAccessorFactory} return the type that declares the field instead.
+   */
+  static TypeToken<?> getFieldType(TypeToken<?> type, String fieldName) throws IOException {
+    try {
+      return type.resolveType(Fields.findField(type.getType(), fieldName).getGenericType());
+    } catch (NoSuchFieldException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * The {@link DatumReader} returned by this factory. It remembers the reader resolved for the last source schema,
+   * since the same source schema is usually used for many reads.
+   *
+   * @param <T> type of the data type to be decoded
+   */
+  private final class ResolvingDatumReader<T> implements DatumReader<T> {
+
+    private final TypeToken<T> type;
+    private final Schema schema;
+    private volatile ResolvedReader lastReader;
+
+    private ResolvingDatumReader(TypeToken<T> type, Schema schema) {
+      this.type = type;
+      this.schema = schema;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T read(Decoder decoder, Schema sourceSchema) throws IOException {
+      ResolvedReader reader = lastReader;
+      if (reader == null || reader.sourceSchema != sourceSchema) {
+        reader = new ResolvedReader(sourceSchema, getValueReader(sourceSchema));
+        lastReader = reader;
+      }
+      return (T) reader.valueReader.read(decoder);
+    }
+
+    private ValueReader getValueReader(Schema sourceSchema) throws IOException {
+      try {
+        return valueReaders.get(new ReaderKey(sourceSchema, schema, type));
+      } catch (ExecutionException | UncheckedExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+          throw (IOException) cause;
+        }
+        throw new IOException(cause);
+      }
+    }
+  }
+
+  /**
+   * Pair of source schema and the reader resolved for it.
+   */
+  private static final class ResolvedReader {
+    private final Schema sourceSchema;
+    private final ValueReader valueReader;
+
+    private ResolvedReader(Schema sourceSchema, ValueReader valueReader) {
+      this.sourceSchema = sourceSchema;
+      this.valueReader = valueReader;
+    }
+  }
+
+  /**
+   * Reads a value written with a given source schema and converts it to a given target schema and type.
+   */
+  interface ValueReader {
+    Object read(Decoder decoder) throws IOException;
+  }
+
+  /**
+   * Resolves source schemas into {@link ValueReader}. A new instance is used for each resolution, so that
+   * recursive record schemas are resolved into a recursive tree of readers.
+   */
+  private final class Resolver {
+
+    private final Map<ReaderKey, RecordReader> recordReaders = new HashMap<>();
+
+    ValueReader resolve(Schema sourceSchema, Schema targetSchema, TypeToken<?> targetType) throws IOException {
+      if (sourceSchema.getType() != Schema.Type.UNION && targetSchema.getType() == Schema.Type.UNION) {
+        // Try every target schemas
+        for (Schema schema : targetSchema.getUnionSchemas()) {
+          try {
+            return doResolve(sourceSchema, schema, targetType);
+          } catch (IOException e) {
+            // Continue
+          }
+        }
+        throw new IOException(String.format("No matching schema to resolve %s to %s", sourceSchema, targetSchema));
+      }
+      return doResolve(sourceSchema, targetSchema, targetType);
+    }
+
+    /**
+     * Resolves a schema that may never be encountered in the data, e.g. a branch of a union. If it fails to
+     * resolve, the returned reader fails when it is used, which is the same as what the
+     * {@link ReflectionDatumReader} does.
+     */
+    private ValueReader resolveLazily(Schema sourceSchema, Schema targetSchema, TypeToken<?> targetType) {
+      try {
+        return resolve(sourceSchema, targetSchema, targetType);
+      } catch (final IOException e) {
+        return decoder -> {
+          throw new IOException(e.getMessage(), e);
+        };
+      }
+    }
+
+    private ValueReader doResolve(Schema sourceSchema, Schema targetSchema,
+                                  TypeToken<?> targetTypeToken) throws IOException {
+      Schema.Type sourceType = sourceSchema.getType();
+      Schema.Type targetType = targetSchema.getType();
+
+      switch (sourceType) {
+        case NULL:
+          check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
+          return Decoder::readNull;
+        case BYTES:
+          check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
+          return resolveBytes(targetTypeToken);
+        case ENUM:
+          check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
+          return resolveEnum(sourceSchema, targetSchema, targetTypeToken);
+        case ARRAY:
+          check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
+          return resolveArray(sourceSchema, targetSchema, targetTypeToken);
+        case MAP:
+          check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
+          return resolveMap(sourceSchema, targetSchema, targetTypeToken);
+        case RECORD:
+          check(sourceType == targetType, "Fails to resolve %s to %s", sourceType, targetType);
+          return resolveRecord(sourceSchema, targetSchema, targetTypeToken);
+        case UNION:
+          return resolveUnion(sourceSchema, targetSchema, targetTypeToken);
+      }
+      // For simple type other than NULL and BYTES
+      if (sourceType.isSimpleType()) {
+        return resolveSimpleType(sourceType, targetType, targetTypeToken.getRawType());
+      }
+      throw new IOException(String.format("Fails to resolve %s to %s", sourceSchema, targetSchema));
+    }
+
+    private ValueReader resolveBytes(TypeToken<?> targetType) {
+      Class<?> targetClass = targetType.getRawType();
+      if (targetClass.equals(byte[].class)) {
+        return decoder -> {
+          ByteBuffer buffer = decoder.readBytes();
+          if (buffer.hasArray()) {
+            byte[] array = buffer.array();
+            if (buffer.remaining() == array.length) {
+              return array;
+            }
+            byte[] bytes = new byte[buffer.remaining()];
+            System.arraycopy(array, buffer.arrayOffset() + buffer.position(), bytes, 0, buffer.remaining());
+            return bytes;
+          }
+          byte[] bytes = new byte[buffer.remaining()];
+          buffer.get(bytes);
+          return bytes;
+        };
+      }
+      if (targetClass.equals(UUID.class)) {
+        return decoder -> {
+          ByteBuffer buffer = decoder.readBytes();
+          if (buffer.remaining() == Longs.BYTES * 2) {
+            return new UUID(buffer.getLong(), buffer.getLong());
+          }
+          return buffer;
+        };
+      }
+      return Decoder::readBytes;
+    }
+
+    private ValueReader resolveEnum(final Schema sourceSchema, Schema targetSchema,
+                                    TypeToken<?> targetType) throws IOException {
+      // Map each source enum index to the target enum constant. Values missing in the target fail when read.
+      final Object[] constants = new Object[sourceSchema.getEnumValues().size()];
+      int idx = 0;
+      for (String enumValue : sourceSchema.getEnumValues()) {
+        if (targetSchema.getEnumValues().contains(enumValue)) {
+          try {
+            constants[idx] = targetType.getRawType().getMethod("valueOf", String.class).invoke(null, enumValue);
+          } catch (Exception e) {
+            throw new IOException(e);
+          }
+        }
+        idx++;
+      }
+      return decoder -> {
+        int enumIdx = decoder.readInt();
+        Object constant = enumIdx >= 0 && enumIdx < constants.length ? constants[enumIdx] : null;
+        if (constant == null) {
+          throw new IOException(String.format("Enum value '%s' missing in target.",
+                                              sourceSchema.getEnumValue(enumIdx)));
+        }
+        return constant;
+      };
+    }
+
+    private ValueReader resolveArray(Schema sourceSchema, Schema targetSchema,
+                                     TypeToken<?> targetType) throws IOException {
+      TypeToken<?> componentType = null;
+      if (targetType.isArray()) {
+        componentType = targetType.getComponentType();
+      } else if (Collection.class.isAssignableFrom(targetType.getRawType())) {
+        Type type = targetType.getType();
+        check(type instanceof ParameterizedType, "Only parameterized type is supported for collection.");
+        componentType = TypeToken.of(((ParameterizedType) type).getActualTypeArguments()[0]);
+      }
+      check(componentType != null, "Only array or collection type is support for array value.");
+
+      final ValueReader componentReader = resolveLazily(sourceSchema.getComponentSchema(),
+                                                        targetSchema.getComponentSchema(), componentType);
+      if (targetType.isArray()) {
+        final Class<?> componentClass = componentType.getRawType();
+        return decoder -> {
+          List<Object> list = new ArrayList<>();
+          int len = decoder.readInt();
+          while (len != 0) {
+            for (int i = 0; i < len; i++) {
+              list.add(componentReader.read(decoder));
+            }
+            len = decoder.readInt();
+          }
+          Object array = Array.newInstance(componentClass, list.size());
+          int idx = 0;
+          for (Object obj : list) {
+            Array.set(array, idx++, obj);
+          }
+          return array;
+        };
+      }
+
+      final Instantiator<?> instantiator = instantiatorFactory.get(targetType);
+      return decoder -> {
+        @SuppressWarnings("unchecked")
+        Collection<Object> collection = (Collection<Object>) instantiator.create();
+        int len = decoder.readInt();
+        while (len != 0) {
+          for (int i = 0; i < len; i++) {
+            collection.add(componentReader.read(decoder));
+          }
+          len = decoder.readInt();
+        }
+        return collection;
+      };
+    }
+
+    private ValueReader resolveMap(Schema sourceSchema, Schema targetSchema,
+                                   TypeToken<?> targetType) throws IOException {
+      check(Map.class.isAssignableFrom(targetType.getRawType()), "Only map type is supported for map data.");
+      Type type = targetType.getType();
+      check(type instanceof ParameterizedType, "Only parameterized map is supported.");
+      Type[] typeArgs = ((ParameterizedType) type).getActualTypeArguments();
+
+      Map.Entry<Schema, Schema> sourceEntry = sourceSchema.getMapSchema();
+      Map.Entry<Schema, Schema> targetEntry = targetSchema.getMapSchema();
+      final ValueReader keyReader = resolveLazily(sourceEntry.getKey(), targetEntry.getKey(),
+                                                  TypeToken.of(typeArgs[0]));
+      final ValueReader valueReader = resolveLazily(sourceEntry.getValue(), targetEntry.getValue(),
+                                                    TypeToken.of(typeArgs[1]));
+      final Instantiator<?> instantiator = instantiatorFactory.get(targetType);
+      return decoder -> {
+        @SuppressWarnings("unchecked")
+        Map<Object, Object> map = (Map<Object, Object>) instantiator.create();
+        int len = decoder.readInt();
+        while (len != 0) {
+          for (int i = 0; i < len; i++) {
+            map.put(keyReader.read(decoder), valueReader.read(decoder));
+          }
+          len = decoder.readInt();
+        }
+        return map;
+      };
+    }
+
+    private ValueReader resolveUnion(Schema sourceSchema, Schema targetSchema, TypeToken<?> targetType) {
+      List<Schema> sourceSchemas = sourceSchema.getUnionSchemas();
+      final ValueReader[] branchReaders = new ValueReader[sourceSchemas.size()];
+      for (int idx = 0; idx < branchReaders.length; idx++) {
+        branchReaders[idx] = resolveUnionBranch(idx, sourceSchema, targetSchema, targetType);
+      }
+      return decoder -> {
+        int idx = decoder.readInt();
+        if (idx < 0 || idx >= branchReaders.length) {
+          throw new IOException(String.format("Union index %d out of range for %s", idx, sourceSchema));
+        }
+        return branchReaders[idx].read(decoder);
+      };
+    }
+
+    private ValueReader resolveUnionBranch(int idx, Schema sourceSchema, Schema targetSchema,
+                                           TypeToken<?> targetType) {
+      Schema sourceValueSchema = sourceSchema.getUnionSchema(idx);
+      if (targetSchema.getType() != Schema.Type.UNION) {
+        return resolveLazily(sourceValueSchema, targetSchema, targetType);
+      }
+
+      // A simple optimization to try resolve before resorting to linearly try the union schema.
+      Schema targetValueSchema = targetSchema.getUnionSchema(idx);
+      if (targetValueSchema != null && targetValueSchema.getType() == sourceValueSchema.getType()) {
+        try {
+          return resolve(sourceValueSchema, targetValueSchema, targetType);
+        } catch (IOException e) {
+          // OK to ignore it, as we'll do union schema resolution
+        }
+      }
+      for (Schema schema : targetSchema.getUnionSchemas()) {
+        try {
+          return resolve(sourceValueSchema, schema, targetType);
+        } catch (IOException e) {
+          // It's ok to have exception here, as we'll keep trying until exhausted the target union.
+        }
+      }
+      final String message = String.format("Fail to resolve %s to %s", sourceSchema, targetSchema);
+      return decoder -> {
+        throw new IOException(message);
+      };
+    }
+
+    private ValueReader resolveRecord(Schema sourceSchema, Schema targetSchema,
+                                      TypeToken<?> targetType) throws IOException {
+      ReaderKey key = new ReaderKey(sourceSchema, targetSchema, targetType);
+      RecordReader recordReader = recordReaders.get(key);
+      if (recordReader != null) {
+        // Recursive record, the reader is being resolved by the caller
+        return recordReader;
+      }
+
+      recordReader = new RecordReader(instantiatorFactory.get(targetType));
+      recordReaders.put(key, recordReader);
+      try {
+        List<Schema.Field> sourceFields = sourceSchema.getFields();
+        FieldReader[] fieldReaders = new FieldReader[sourceFields.size()];
+        for (int i = 0; i < fieldReaders.length; i++) {
+          Schema.Field sourceField = sourceFields.get(i);
+          Schema.Field targetField = targetSchema.getField(sourceField.getName());
+          if (targetField == null) {
+            fieldReaders[i] = createSkipper(sourceField.getSchema());
+            continue;
+          }
+          FieldAccessor fieldAccessor = fieldAccessorFactory.getFieldAccessor(targetType, sourceField.getName());
+          TypeToken<?> fieldType = getFieldType(targetType, sourceField.getName());
+          ValueReader valueReader = resolve(sourceField.getSchema(), targetField.getSchema(), fieldType);
+          fieldReaders[i] = createFieldReader(sourceField.getSchema(), targetField.getSchema(),
+                                              fieldAccessor, fieldType.getType(), valueReader);
+        }
+        recordReader.fieldReaders = fieldReaders;
+        return recordReader;
+      } catch (IOException e) {
+        recordReaders.remove(key);
+        throw e;
+      } catch (Exception e) {
+        recordReaders.remove(key);
+        throw new IOException(e);
+      }
+    }
+
+    /**
+     * Creates a {@link FieldReader} that sets primitive fields without boxing when the source and target types
+     * are the same.
+     */
+    private FieldReader createFieldReader(Schema sourceSchema, Schema targetSchema, final FieldAccessor fieldAccessor,
+                                          Type fieldType, final ValueReader valueReader) {
+      Schema.Type type = sourceSchema.getType();
+      if (type == targetSchema.getType()) {
+        if (type == Schema.Type.BOOLEAN && fieldType == boolean.class) {
+          return (decoder, record) -> fieldAccessor.setBoolean(record, decoder.readBool());
+        }
+        if (type == Schema.Type.INT && fieldType == int.class) {
+          return (decoder, record) -> fieldAccessor.setInt(record, decoder.readInt());
+        }
+        if (type == Schema.Type.LONG && fieldType == long.class) {
+          return (decoder, record) -> fieldAccessor.setLong(record, decoder.readLong());
+        }
+        if (type == Schema.Type.FLOAT && fieldType == float.class) {
+          return (decoder, record) -> fieldAccessor.setFloat(record, decoder.readFloat());
+        }
+        if (type == Schema.Type.DOUBLE && fieldType == double.class) {
+          return (decoder, record) -> fieldAccessor.setDouble(record, decoder.readDouble());
+        }
+      }
+      return (decoder, record) -> fieldAccessor.set(record, valueReader.read(decoder));
+    }
+
+    private FieldReader createSkipper(final Schema schema) {
+      return (decoder, record) -> skip(decoder, schema);
+    }
+
+    private ValueReader resolveSimpleType(Schema.Type sourceType, Schema.Type targetType,
+                                          Class<?> targetClass) throws IOException {
+      switch (sourceType) {
+        case BOOLEAN:
+          switch (targetType) {
+            case BOOLEAN:
+              return Decoder::readBool;
+            case STRING:
+              return decoder -> String.valueOf(decoder.readBool());
+          }
+          break;
+        case INT:
+          switch (targetType) {
+            case INT:
+              if (targetClass.equals(byte.class) || targetClass.equals(Byte.class)) {
+                return decoder -> (byte) decoder.readInt();
+              }
+              if (targetClass.equals(char.class) || targetClass.equals(Character.class)) {
+                return decoder -> (char) decoder.readInt();
+              }
+              if (targetClass.equals(short.class) || targetClass.equals(Short.class)) {
+                return decoder -> (short) decoder.readInt();
+              }
+              return Decoder::readInt;
+            case LONG:
+              return decoder -> (long) decoder.readInt();
+            case FLOAT:
+              return decoder -> (float) decoder.readInt();
+            case DOUBLE:
+              return decoder -> (double) decoder.readInt();
+            case STRING:
+              return decoder -> String.valueOf(decoder.readInt());
+          }
+          break;
+        case LONG:
+          switch (targetType) {
+            case LONG:
+              return Decoder::readLong;
+            case FLOAT:
+              return decoder -> (float) decoder.readLong();
+            case DOUBLE:
+              return decoder -> (double) decoder.readLong();
+            case STRING:
+              return decoder -> String.valueOf(decoder.readLong());
+          }
+          break;
+        case FLOAT:
+          switch (targetType) {
+            case FLOAT:
+              return Decoder::readFloat;
+            case DOUBLE:
+              return decoder -> (double) decoder.readFloat();
+            case STRING:
+              return decoder -> String.valueOf(decoder.readFloat());
+          }
+          break;
+        case DOUBLE:
+          switch (targetType) {
+            case DOUBLE:
+              return Decoder::readDouble;
+            case STRING:
+              return decoder -> String.valueOf(decoder.readDouble());
+          }
+          break;
+        case STRING:
+          if (targetType == Schema.Type.STRING) {
+            if (targetClass.equals(URI.class)) {
+              return decoder -> URI.create(decoder.readString());
+            }
+            if (targetClass.equals(URL.class)) {
+              return decoder -> new URL(decoder.readString());
+            }
+            return Decoder::readString;
+          }
+          break;
+      }
+      throw new IOException("Fail to resolve type " + sourceType + " to type " + targetType);
+    }
+
+    private void check(boolean condition, String message, Object... objs) throws IOException {
+      if (!condition) {
+        throw new IOException(String.format(message, objs));
+      }
+    }
+  }
+
+  /**
+   * Reads one field of a record.
+   */
+  private interface FieldReader {
+    void read(Decoder decoder, Object record) throws IOException;
+  }
+
+  /**
+   * Reads a record by reading all fields of the source schema in order. The field readers are set after
+   * construction, so that a recursive record schema can refer to the reader being resolved.
+   */
+  private static final class RecordReader implements ValueReader {
+
+    private final Instantiator<?> instantiator;
+    private FieldReader[] fieldReaders;
+
+    private RecordReader(Instantiator<?> instantiator) {
+      this.instantiator = instantiator;
+    }
+
+    @Override
+    public Object read(Decoder decoder) throws IOException {
+      try {
+        Object record = instantiator.create();
+        for (FieldReader fieldReader : fieldReaders) {
+          fieldReader.read(decoder, record);
+        }
+        return record;
+      } catch (IOException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new IOException(e);
+      }
+    }
+  }
+
+  private static void skip(Decoder decoder, Schema schema) throws IOException {
+    switch (schema.getType()) {
+      case NULL:
+        break;
+      case BOOLEAN:
+        decoder.readBool();
+        break;
+      case INT:
+      case ENUM:
+        decoder.readInt();
+        break;
+      case LONG:
+        decoder.readLong();
+        break;
+      case FLOAT:
+        decoder.skipFloat();
+        break;
+      case DOUBLE:
+        decoder.skipDouble();
+        break;
+      case BYTES:
+        decoder.skipBytes();
+        break;
+      case STRING:
+        decoder.skipString();
+        break;
+      case ARRAY:
+        for (int len = decoder.readInt(); len != 0; len = decoder.readInt()) {
+          for (int i = 0; i < len; i++) {
+            skip(decoder, schema.getComponentSchema());
+          }
+        }
+        break;
+      case MAP:
+        Map.Entry<Schema, Schema> mapSchema = schema.getMapSchema();
+        for (int len = decoder.readInt(); len != 0; len = decoder.readInt()) {
+          for (int i = 0; i < len; i++) {
+            skip(decoder, mapSchema.getKey());
+            skip(decoder, mapSchema.getValue());
+          }
+        }
+        break;
+      case RECORD:
+        for (Schema.Field field : schema.getFields()) {
+          skip(decoder, field.getSchema());
+        }
+        break;
+      case UNION:
+        skip(decoder, schema.getUnionSchema(decoder.readInt()));
+        break;
+    }
+  }
+
+  /**
+   * Key for caching resolved {@link ValueReader}.
+   */
+  private static final class ReaderKey {
+    private final Schema sourceSchema;
+    private final Schema targetSchema;
+    private final TypeToken<?> type;
+    private final int hashCode;
+
+    private ReaderKey(Schema sourceSchema, Schema targetSchema, TypeToken<?> type) {
+      this.sourceSchema = sourceSchema;
+      this.targetSchema = targetSchema;
+      this.type = type;
+      this.hashCode = Objects.hashCode(sourceSchema, targetSchema, type);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      ReaderKey other = (ReaderKey) o;
+      return sourceSchema.equals(other.sourceSchema) && targetSchema.equals(other.targetSchema)
+        && type.equals(other.type);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.io;
+
+import com.google.common.base.Preconditions;
+import com.google.common.reflect.TypeToken;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.dataset.table.Row;
+import io.cdap.cdap.api.dataset.table.Table;
+import io.cdap.cdap.common.io.Decoder;
+import io.cdap.cdap.common.lang.Instantiator;
+import io.cdap.cdap.common.lang.InstantiatorFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes an object from a {@link Row} object fetched from a {@link Table}, with the same restrictions and schema
+ * evolution rules as the {@link ReflectionRowReader}. Instead of resolving the source schema against the target
+ * schema for every row, the conversion of every column is resolved once per source schema by the
+ * {@link ResolvingDatumReaderFactory}.
+ *
+ * @param <T> the type of object to read
+ */
+public final class ResolvingRowReader<T> {
+
+  private final Schema schema;
+  private final TypeToken<T> type;
+  private final FieldAccessorFactory fieldAccessorFactory;
+  private final ResolvingDatumReaderFactory readerFactory;
+  private final Instantiator<?> instantiator;
+  private volatile ResolvedRecord lastRecord;
+
+  public ResolvingRowReader(Schema schema, TypeToken<T> type, FieldAccessorFactory fieldAccessorFactory) {
+    Preconditions.checkArgument(schema.getType() == Schema.Type.RECORD, "Target schema must be a record.");
+    for (Schema.Field field : schema.getFields()) {
+      Preconditions.checkArgument(
+        field.getSchema().isSimpleOrNullableSimple(),
+        "Target schema must only contain simple fields (boolean, int, long, float, double, bytes, string)");
+    }
+    this.schema = schema;
+    this.type = type;
+    this.fieldAccessorFactory = fieldAccessorFactory;
+    this.readerFactory = new ResolvingDatumReaderFactory(fieldAccessorFactory);
+    this.instantiator = new InstantiatorFactory(true).get(type);
+  }
+
+  /**
+   * Reads an object from the given row.
+   *
+   * @param row the row to read from
+   * @param sourceSchema the schema the object was written with
+   * @return the object of the type and schema of this reader
+   * @throws IOException if the row cannot be converted to the target schema
+   */
+  @SuppressWarnings("unchecked")
+  public T read(Row row, Schema sourceSchema) throws IOException {
+    Preconditions.checkArgument(sourceSchema.getType() == Schema.Type.RECORD, "Source schema must be a record.");
+    ResolvedRecord record = lastRecord;
+    if (record == null || record.sourceSchema != sourceSchema) {
+      record = new ResolvedRecord(sourceSchema, resolve(sourceSchema));
+      lastRecord = record;
+    }
+    try {
+      Object result = instantiator.create();
+      RowDecoder decoder = new RowDecoder(row);
+      for (ColumnReader columnReader : record.columnReaders) {
+        columnReader.read(decoder, result);
+      }
+      return (T) result;
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+  }
+
+  private List<ColumnReader> resolve(Schema sourceSchema) throws IOException {
+    Preconditions.checkArgument(!sourceSchema.getFields().isEmpty(), "Record must contain at least one field.");
+    List<ColumnReader> columnReaders = new ArrayList<>();
+    for (Schema.Field sourceField : sourceSchema.getFields()) {
+      Schema.Field targetField = schema.getField(sourceField.getName());
+      if (targetField != null) {
+        columnReaders.add(resolveColumn(sourceField, targetField));
+      }
+    }
+    return columnReaders;
+  }
+
+  private ColumnReader resolveColumn(Schema.Field sourceField, Schema.Field targetField) throws IOException {
+    String column = sourceField.getName();
+    FieldAccessor fieldAccessor = fieldAccessorFactory.getFieldAccessor(type, column);
+    Schema sourceSchema = sourceField.getSchema();
+    Schema targetSchema = targetField.getSchema();
+    boolean targetNullable = targetSchema.isNullable() || targetSchema.getType() == Schema.Type.NULL;
+
+    if (sourceSchema.getType() == Schema.Type.NULL) {
+      check(targetNullable, column, sourceSchema, targetSchema);
+      return (decoder, record) -> fieldAccessor.set(record, null);
+    }
+
+    // Unions are only supported if they represent a nullable, in which case a missing column is a null value
+    boolean sourceNullable = sourceSchema.getType() == Schema.Type.UNION;
+    if (sourceNullable && !sourceSchema.isNullable()) {
+      throw new UnsupportedOperationException("Unions that do not represent nullables are not supported.");
+    }
+    Schema sourceValueSchema = sourceNullable ? sourceSchema.getNonNullable() : sourceSchema;
+    ResolvingDatumReaderFactory.ValueReader valueReader =
+      readerFactory.resolve(sourceValueSchema, targetSchema,
+                            ResolvingDatumReaderFactory.getFieldType(type, column));
+
+    return (decoder, record) -> {
+      if (sourceNullable && decoder.row.get(column) == null) {
+        check(targetNullable, column, sourceSchema, targetSchema);
+        fieldAccessor.set(record, null);
+        return;
+      }
+      decoder.column = column;
+      fieldAccessor.set(record, valueReader.read(decoder));
+    };
+  }
+
+  private static void check(boolean resolvable, String column,
+                            Schema sourceSchema, Schema targetSchema) throws IOException {
+    if (!resolvable) {
+      throw new IOException(String.format("Fail to resolve %s to %s for column %s",
+                                          sourceSchema, targetSchema, column));
+    }
+  }
+
+  /**
+   * The readers of all columns that are resolved for a source schema.
+   */
+  private static final class ResolvedRecord {
+    private final Schema sourceSchema;
+    private final List<ColumnReader> columnReaders;
+
+    private ResolvedRecord(Schema sourceSchema, List<ColumnReader> columnReaders) {
+      this.sourceSchema = sourceSchema;
+      this.columnReaders = columnReaders;
+    }
+  }
+
+  /**
+   * Reads one column of a row into a field of the record.
+   */
+  private interface ColumnReader {
+    void read(RowDecoder decoder, Object record) throws IOException;
+  }
+
+  /**
+   * A {@link Decoder} that reads the value of the current column of a {@link Row}, so that the column value can be
+   * converted by the readers resolved by the {@link ResolvingDatumReaderFactory}.
+   */
+  private static final class RowDecoder implements Decoder {
+
+    private final Row row;
+    private String column;
+
+    private RowDecoder(Row row) {
+      this.row = row;
+    }
+
+    @Override
+    public Object readNull() {
+      return null;
+    }
+
+    @Override
+    public boolean readBool() throws IOException {
+      return validateNotNull(row.getBoolean(column));
+    }
+
+    @Override
+    public int readInt() throws IOException {
+      return validateNotNull(row.getInt(column));
+    }
+
+    @Override
+    public long readLong() throws IOException {
+      return validateNotNull(row.getLong(column));
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+      return validateNotNull(row.getFloat(column));
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+      return validateNotNull(row.getDouble(column));
+    }
+
+    @Override
+    public String readString() throws IOException {
+      return validateNotNull(row.getString(column));
+    }
+
+    @Override
+    public ByteBuffer readBytes() throws IOException {
+      return ByteBuffer.wrap(validateNotNull(row.get(column)));
+    }
+
+    @Override
+    public void skipFloat() {
+      throw new UnsupportedOperationException("Skipping is not supported.");
+    }
+
+    @Override
+    public void skipDouble() {
+      throw new UnsupportedOperationException("Skipping is not supported.");
+    }
+
+    @Override
+    public void skipString() {
+      throw new UnsupportedOperationException("Skipping is not supported.");
+    }
+
+    @Override
+    public void skipBytes() {
+      throw new UnsupportedOperationException("Skipping is not supported.");
+    }
+
+    private <V> V validateNotNull(V value) throws IOException {
+      if (value == null) {
+        throw new IOException("No value for " + column + " exists.");
+      }
+      return value;
+    }
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.io;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.reflect.TypeToken;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.data.schema.UnsupportedTypeException;
+import io.cdap.cdap.common.io.BinaryDecoder;
+import io.cdap.cdap.common.io.BinaryEncoder;
+import io.cdap.cdap.common.io.DatumReader;
+import io.cdap.cdap.common.io.DatumWriter;
+import io.cdap.cdap.internal.io.ASMDatumWriterFactory;
+import io.cdap.cdap.internal.io.ASMFieldAccessorFactory;
+import io.cdap.cdap.internal.io.ReflectionDatumReader;
+import io.cdap.cdap.internal.io.ReflectionDatumWriter;
+import io.cdap.cdap.internal.io.ReflectionSchemaGenerator;
+import io.cdap.cdap.internal.io.ResolvingDatumReaderFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Unit tests for {@link ResolvingDatumReaderFactory}.
+ */
+public class ResolvingDatumReaderTest {
+
+  private static final ASMDatumWriterFactory DATUM_WRITER_FACTORY
+    = new ASMDatumWriterFactory(new ASMFieldAccessorFactory());
+  private static final ResolvingDatumReaderFactory DATUM_READER_FACTORY
+    = new ResolvingDatumReaderFactory(new ASMFieldAccessorFactory());
+
+  /**
+   * Record with all kinds of field types.
+   */
+  public static final class Record {
+    private int i;
+    private long l;
+    private boolean b;
+    private float f;
+    private double d;
+    private short s;
+    private String str;
+    private String nullStr;
+    private byte[] bytes;
+    private UUID uuid;
+    private URI uri;
+    private ASMDatumCodecTest.TestEnum e;
+    private List<String> list;
+    private Set<Integer> set;
+    private long[] longs;
+    private Map<String, DatumCodecTest.Value> map;
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Record other = (Record) o;
+      return i == other.i && l == other.l && b == other.b && Float.compare(f, other.f) == 0
+        && Double.compare(d, other.d) == 0 && s == other.s && str.equals(other.str)
+        && Objects.equal(nullStr, other.nullStr)
+        && Arrays.equals(bytes, other.bytes) && uuid.equals(other.uuid) && uri.equals(other.uri)
+        && e == other.e && list.equals(other.list) && set.equals(other.set)
+        && Arrays.equals(longs, other.longs) && map.equals(other.map);
+    }
+
+    @Override
+    public int hashCode() {
+      return i;
+    }
+  }
+
+  @Test
+  public void testRecord() throws IOException, UnsupportedTypeException {
+    Record record = new Record();
+    record.i = 10;
+    record.l = Long.MAX_VALUE;
+    record.b = true;
+    record.f = 1.5f;
+    record.d = 3.14d;
+    record.s = (short) 300;
+    record.str = "testing";
+    record.bytes = new byte[] { 1, 2, 3 };
+    record.uuid = UUID.randomUUID();
+    record.uri = URI.create("http://cdap.io");
+    record.e = ASMDatumCodecTest.TestEnum.VALUE3;
+    record.list = ImmutableList.of("a", "b", "c");
+    record.set = ImmutableSet.of(1, 2, 3);
+    record.longs = new long[] { 5L, 6L };
+    record.map = ImmutableMap.of("x", new DatumCodecTest.Value(1, "one"));
+
+    TypeToken<Record> type = TypeToken.of(Record.class);
+    Schema schema = getSchema(type);
+    byte[] bytes = encode(DATUM_WRITER_FACTORY.create(type, schema), record);
+
+    Record value = DATUM_READER_FACTORY.create(type, schema).read(decoder(bytes), schema);
+    Assert.assertEquals(record, value);
+    Assert.assertEquals(new ReflectionDatumReader<>(schema, type).read(decoder(bytes), schema), value);
+  }
+
+  @Test
+  public void testTypeProject() throws IOException, UnsupportedTypeException {
+    DatumCodecTest.Record1 r1 = new DatumCodecTest.Record1(10, new HashMap<>(), new URL("http://www.yahoo.com"));
+    Schema sourceSchema = getSchema(TypeToken.of(DatumCodecTest.Record1.class));
+    TypeToken<DatumCodecTest.Record2> targetType = TypeToken.of(DatumCodecTest.Record2.class);
+    Schema targetSchema = getSchema(targetType);
+    byte[] bytes = encode(new ReflectionDatumWriter<>(sourceSchema), r1);
+
+    // Widening, string conversion, missing fields and union resolution should behave the same as reflection
+    DatumReader<DatumCodecTest.Record2> reader = DATUM_READER_FACTORY.create(targetType, targetSchema);
+    DatumCodecTest.Record2 r2 = reader.read(decoder(bytes), sourceSchema);
+    DatumCodecTest.Record2 expected = new ReflectionDatumReader<>(targetSchema, targetType)
+      .read(decoder(bytes), sourceSchema);
+
+    Assert.assertEquals(encodeToString(targetSchema, expected), encodeToString(targetSchema, r2));
+
+    // Reading again with the same source schema should reuse the resolved reader
+    r2 = reader.read(decoder(bytes), sourceSchema);
+    Assert.assertEquals(encodeToString(targetSchema, expected), encodeToString(targetSchema, r2));
+  }
+
+  @Test
+  public void testReduceProjection() throws IOException, UnsupportedTypeException {
+    Schema sourceSchema = getSchema(TypeToken.of(DatumCodecTest.MoreFields.class));
+    TypeToken<DatumCodecTest.LessFields> targetType = TypeToken.of(DatumCodecTest.LessFields.class);
+    Schema targetSchema = getSchema(targetType);
+
+    DatumCodecTest.MoreFields moreFields = new DatumCodecTest.MoreFields(10, 20.2, "30", ImmutableList.of("1", "2"));
+    byte[] bytes = encode(new ReflectionDatumWriter<>(sourceSchema), moreFields);
+    DatumCodecTest.LessFields lessFields = DATUM_READER_FACTORY.create(targetType, targetSchema)
+      .read(decoder(bytes), sourceSchema);
+
+    Assert.assertEquals("30", lessFields.k);
+    Assert.assertEquals(moreFields.inner.b, lessFields.inner.b);
+  }
+
+  @Test
+  public void testCollection() throws IOException, UnsupportedTypeException {
+    List<String> list = ImmutableList.of("1", "2", "3");
+    Schema sourceSchema = getSchema(new TypeToken<List<String>>() { });
+    byte[] bytes = encode(new ReflectionDatumWriter<>(sourceSchema), list);
+
+    TypeToken<Set<String>> setType = new TypeToken<Set<String>>() { };
+    Set<String> set = DATUM_READER_FACTORY.create(setType, getSchema(setType)).read(decoder(bytes), sourceSchema);
+    Assert.assertEquals(ImmutableSet.of("1", "2", "3"), set);
+
+    TypeToken<String[]> arrayType = new TypeToken<String[]>() { };
+    String[] array = DATUM_READER_FACTORY.create(arrayType, getSchema(arrayType)).read(decoder(bytes), sourceSchema);
+    Assert.assertArrayEquals(new String[] { "1", "2", "3" }, array);
+  }
+
+  @Test
+  public void testRecursive() throws IOException, UnsupportedTypeException {
+    TypeToken<ASMDatumCodecTest.Node> type = TypeToken.of(ASMDatumCodecTest.Node.class);
+    Schema schema = getSchema(type);
+    ASMDatumCodecTest.Node root = new ASMDatumCodecTest.Node(
+      (short) 1, new ASMDatumCodecTest.Node((short) 2, null, new ASMDatumCodecTest.Node((short) 3, null, null)),
+      new ASMDatumCodecTest.Node((short) 4, new ASMDatumCodecTest.Node((short) 5, null, null), null));
+    byte[] bytes = encode(DATUM_WRITER_FACTORY.create(type, schema), root);
+
+    Assert.assertEquals(root, DATUM_READER_FACTORY.create(type, schema).read(decoder(bytes), schema));
+  }
+
+  @Test
+  public void testEnumEvolution() throws IOException, UnsupportedTypeException {
+    TypeToken<ASMDatumCodecTest.TestEnum> type = TypeToken.of(ASMDatumCodecTest.TestEnum.class);
+    Schema targetSchema = getSchema(type);
+    // The source has the values in a different order and a value that is missing in the target
+    Schema sourceSchema = Schema.enumWith("VALUE4", "VALUE2", "UNKNOWN");
+    DatumReader<ASMDatumCodecTest.TestEnum> reader = DATUM_READER_FACTORY.create(type, targetSchema);
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    BinaryEncoder encoder = new BinaryEncoder(os);
+    encoder.writeInt(0);
+    encoder.writeInt(1);
+    encoder.writeInt(2);
+
+    BinaryDecoder decoder = decoder(os.toByteArray());
+    Assert.assertEquals(ASMDatumCodecTest.TestEnum.VALUE4, reader.read(decoder, sourceSchema));
+    Assert.assertEquals(ASMDatumCodecTest.TestEnum.VALUE2, reader.read(decoder, sourceSchema));
+    try {
+      reader.read(decoder, sourceSchema);
+      Assert.fail("Expected failure on enum value missing in the target");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testIncompatible() throws IOException, UnsupportedTypeException {
+    TypeToken<DatumCodecTest.Value> type = TypeToken.of(DatumCodecTest.Value.class);
+    Schema sourceSchema = Schema.recordOf("Value", Schema.Field.of("id", Schema.of(Schema.Type.STRING)));
+    DATUM_READER_FACTORY.create(type, getSchema(type)).read(decoder(new byte[0]), sourceSchema);
+  }
+
+  private <T> Schema getSchema(TypeToken<T> type) throws UnsupportedTypeException {
+    return new ReflectionSchemaGenerator().generate(type.getType());
+  }
+
+  private <T> byte[] encode(DatumWriter<T> writer, T value) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    writer.encode(value, new BinaryEncoder(os));
+    return os.toByteArray();
+  }
+
+  private <T> String encodeToString(Schema schema, T value) throws IOException {
+    return Arrays.toString(encode(new ReflectionDatumWriter<T>(schema), value));
+  }
+
+  private BinaryDecoder decoder(byte[] bytes) {
+    return new BinaryDecoder(new ByteArrayInputStream(bytes));
+  }
+}
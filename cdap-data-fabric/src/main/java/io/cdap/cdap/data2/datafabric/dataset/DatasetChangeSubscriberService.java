@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.data2.datafabric.dataset;
+
+import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.api.messaging.Message;
+import io.cdap.cdap.api.messaging.MessagingContext;
+import io.cdap.cdap.api.metrics.NoopMetricsContext;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.common.service.RetryStrategies;
+import io.cdap.cdap.common.utils.ImmutablePair;
+import io.cdap.cdap.data2.datafabric.dataset.service.DatasetChangePublisher;
+import io.cdap.cdap.messaging.MessagingService;
+import io.cdap.cdap.messaging.context.MultiThreadMessagingContext;
+import io.cdap.cdap.messaging.data.MessageId;
+import io.cdap.cdap.messaging.subscriber.AbstractMessagingPollingService;
+import io.cdap.cdap.proto.id.EntityId;
+import io.cdap.cdap.proto.id.NamespaceId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+
+/**
+ * Service that polls the dataset change topic published by {@link DatasetChangePublisher} and
+ * calls a given invalidator with every changed entity, so that cached dataset metadata can be discarded.
+ * The invalidator is called with {@code null} if the changed entity cannot be decoded.
+ * Only changes published after this service was created are processed.
+ */
+final class DatasetChangeSubscriberService extends AbstractMessagingPollingService<String> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DatasetChangeSubscriberService.class);
+
+  private final MessagingContext messagingContext;
+  private final Consumer<EntityId> invalidator;
+  private final long startTime;
+
+  DatasetChangeSubscriberService(CConfiguration cConf, MessagingService messagingService,
+                                 Consumer<EntityId> invalidator) {
+    super(NamespaceId.SYSTEM.topic(cConf.get(Constants.Dataset.DATASET_CHANGE_TOPIC)),
+          new NoopMetricsContext(), 100,
+          cConf.getLong(Constants.Dataset.DATASET_CHANGE_POLL_DELAY_MILLIS),
+          RetryStrategies.exponentialDelay(100, 5000, TimeUnit.MILLISECONDS));
+    this.messagingContext = new MultiThreadMessagingContext(messagingService);
+    this.invalidator = invalidator;
+    this.startTime = System.currentTimeMillis();
+  }
+
+  @Override
+  protected MessagingContext getMessagingContext() {
+    return messagingContext;
+  }
+
+  @Override
+  protected String decodeMessage(Message message) {
+    return message.getPayloadAsString();
+  }
+
+  @Nullable
+  @Override
+  protected String loadMessageId() {
+    // Start from the time when this service was created. Changes before that are already reflected in the caches.
+    byte[] rawId = new byte[MessageId.RAW_ID_SIZE];
+    MessageId.putRawId(startTime, (short) 0, 0L, (short) 0, rawId, 0);
+    return Bytes.toHexString(rawId);
+  }
+
+  @Nullable
+  @Override
+  protected String processMessages(Iterator<ImmutablePair<String, String>> messages) {
+    String messageId = null;
+    while (messages.hasNext()) {
+      ImmutablePair<String, String> message = messages.next();
+      LOG.trace("Received dataset change {}", message.getSecond());
+      EntityId entityId;
+      try {
+        entityId = EntityId.fromString(message.getSecond());
+      } catch (IllegalArgumentException e) {
+        LOG.debug("Failed to decode dataset change {}", message.getSecond(), e);
+        entityId = null;
+      }
+      invalidator.accept(entityId);
+      messageId = message.getFirst();
+    }
+    return messageId;
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.data2.datafabric.dataset;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.AbstractIdleService;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.cdap.cdap.api.dataset.DatasetManagementException;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.messaging.MessagingService;
+import io.cdap.cdap.proto.DatasetMeta;
+import io.cdap.cdap.proto.id.DatasetId;
+import io.cdap.cdap.proto.id.EntityId;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+/**
+ * Cache of {@link DatasetMeta} shared by the {@link RemoteDatasetFramework} instances of a process. Cached metadata is
+ * invalidated by the dataset changes published by the dataset service, so the cache is only used while this service
+ * is running. The process that owns the injector starts and stops it together with its other services.
+ */
+@Singleton
+public class DatasetMetaCache extends AbstractIdleService {
+  private static final int MAX_CACHED_DATASETS = 1000;
+
+  // Incremented on every invalidation, so that metadata fetched concurrently with a change is not cached
+  private final AtomicLong version;
+  // Both are null if caching is disabled
+  private final Cache<DatasetId, DatasetMeta> cache;
+  private final DatasetChangeSubscriberService changeSubscriber;
+
+  @Inject
+  DatasetMetaCache(CConfiguration cConf, MessagingService messagingService) {
+    this.version = new AtomicLong();
+    long cacheTTLSecs = cConf.getLong(Constants.Dataset.CLIENT_CACHE_TTL_SECS);
+    if (cacheTTLSecs > 0) {
+      this.cache = CacheBuilder.newBuilder()
+        .expireAfterWrite(cacheTTLSecs, TimeUnit.SECONDS)
+        .maximumSize(MAX_CACHED_DATASETS)
+        .build();
+      this.changeSubscriber = new DatasetChangeSubscriberService(cConf, messagingService, this::invalidate);
+    } else {
+      this.cache = null;
+      this.changeSubscriber = null;
+    }
+  }
+
+  @Override
+  protected void startUp() {
+    if (changeSubscriber != null) {
+      changeSubscriber.startAndWait();
+    }
+  }
+
+  @Override
+  protected void shutDown() {
+    if (changeSubscriber != null) {
+      changeSubscriber.stopAndWait();
+      cache.invalidateAll();
+    }
+  }
+
+  /**
+   * Returns the {@link DatasetMeta} of the given dataset from the cache, or from the given loader if it is not
+   * cached or the cache is not running. Dataset that doesn't exist is not cached.
+   */
+  @Nullable
+  DatasetMeta get(DatasetId datasetInstanceId, MetaLoader loader) throws DatasetManagementException {
+    if (cache == null || !isRunning()) {
+      return loader.load();
+    }
+
+    DatasetMeta datasetMeta = cache.getIfPresent(datasetInstanceId);
+    if (datasetMeta != null) {
+      return datasetMeta;
+    }
+    long loadVersion = version.get();
+    datasetMeta = loader.load();
+    if (datasetMeta != null) {
+      cache.put(datasetInstanceId, datasetMeta);
+      // A change that happened while fetching may not be reflected in the fetched metadata
+      if (version.get() != loadVersion) {
+        cache.invalidate(datasetInstanceId);
+      }
+    }
+    return datasetMeta;
+  }
+
+  /**
+   * Invalidates the cached {@link DatasetMeta} affected by a change of the given entity. A change of anything other
+   * than a dataset instance, such as a dataset module, invalidates all cached metadata.
+   */
+  void invalidate(@Nullable EntityId entityId) {
+    if (cache == null) {
+      return;
+    }
+    version.incrementAndGet();
+    if (entityId instanceof DatasetId) {
+      cache.invalidate(entityId);
+    } else {
+      cache.invalidateAll();
+    }
+  }
+
+  /**
+   * Loads the {@link DatasetMeta} of a dataset that is not cached.
+   */
+  interface MetaLoader {
+    @Nullable
+    DatasetMeta load() throws DatasetManagementException;
+  }
+}
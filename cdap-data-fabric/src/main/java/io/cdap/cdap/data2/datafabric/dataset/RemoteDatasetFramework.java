@@ -16,14 +16,17 @@
 
 package io.cdap.cdap.data2.datafabric.dataset;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 import io.cdap.cdap.api.dataset.Dataset;
 import io.cdap.cdap.api.dataset.DatasetAdmin;
@@ -65,24 +68,34 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
 import java.util.jar.JarOutputStream;
 import javax.annotation.Nullable;
 
 /**
- * {@link io.cdap.cdap.data2.dataset2.DatasetFramework} implementation that talks to DatasetFramework Service
+ * {@link io.cdap.cdap.data2.dataset2.DatasetFramework} implementation that talks to DatasetFramework Service.
+ *
+ * The {@link DatasetType} instantiated for a dataset type is cached per {@link DatasetClassLoaderProvider}, so
+ * that getting the same dataset repeatedly doesn't rebuild its {@link DatasetDefinitionRegistry}. While a
+ * {@link DatasetMetaCache} is running, the {@link DatasetMeta} of datasets are also cached for {@link #getDataset}.
  */
 @SuppressWarnings("unchecked")
 public class RemoteDatasetFramework implements DatasetFramework {
   private static final Logger LOG = LoggerFactory.getLogger(RemoteDatasetFramework.class);
+  private static final int MAX_CACHED_TYPES_PER_PROVIDER = 100;
 
   private final CConfiguration cConf;
   private final LoadingCache<NamespaceId, DatasetServiceClient> clientCache;
   private final DatasetDefinitionRegistryFactory registryFactory;
+  private final LoadingCache<DatasetClassLoaderProvider, Cache<TypeKey, DatasetType>> typeCache;
+  private DatasetMetaCache metaCache;
 
   @Inject
   public RemoteDatasetFramework(final CConfiguration cConf, final DiscoveryServiceClient discoveryClient,
@@ -92,10 +105,35 @@ public class RemoteDatasetFramework implements DatasetFramework {
     this.clientCache = CacheBuilder.newBuilder().build(new CacheLoader<NamespaceId, DatasetServiceClient>() {
       @Override
       public DatasetServiceClient load(NamespaceId namespace) throws Exception {
-        return new DatasetServiceClient(discoveryClient, namespace, cConf, authenticationContext);
+        return createServiceClient(discoveryClient, namespace, authenticationContext);
       }
     });
     this.registryFactory = registryFactory;
+    // Weak keys, since a provider is usually used for the lifetime of a program and then discarded.
+    // The cached types don't reference the provider, hence don't prevent it from being collected.
+    this.typeCache = CacheBuilder.newBuilder().weakKeys().build(
+      new CacheLoader<DatasetClassLoaderProvider, Cache<TypeKey, DatasetType>>() {
+        @Override
+        public Cache<TypeKey, DatasetType> load(DatasetClassLoaderProvider provider) {
+          return CacheBuilder.newBuilder().maximumSize(MAX_CACHED_TYPES_PER_PROVIDER).build();
+        }
+      });
+  }
+
+  /**
+   * Sets the {@link DatasetMetaCache} for caching dataset metadata. It is optional, since it requires the messaging
+   * service, which not every process that uses datasets has available. Without it, or while it is not running,
+   * dataset metadata is always fetched from the dataset service.
+   */
+  @Inject(optional = true)
+  void setDatasetMetaCache(DatasetMetaCache metaCache) {
+    this.metaCache = metaCache;
+  }
+
+  @VisibleForTesting
+  DatasetServiceClient createServiceClient(DiscoveryServiceClient discoveryClient, NamespaceId namespace,
+                                           AuthenticationContext authenticationContext) {
+    return new DatasetServiceClient(discoveryClient, namespace, cConf, authenticationContext);
   }
 
   @Override
@@ -106,6 +144,7 @@ public class RemoteDatasetFramework implements DatasetFramework {
       try {
         clientCache.getUnchecked(moduleId.getParent())
           .addModule(moduleId.getEntityName(), moduleClass.getName(), deploymentJar);
+        invalidateDatasetMeta(moduleId);
       } finally {
         try {
           deploymentJar.delete();
@@ -127,16 +166,19 @@ public class RemoteDatasetFramework implements DatasetFramework {
                         Location jarLocation) throws DatasetManagementException {
     clientCache.getUnchecked(moduleId.getParent())
       .addModule(moduleId.getEntityName(), DatasetModules.getDatasetModuleClass(module).getName(), jarLocation);
+    invalidateDatasetMeta(moduleId);
   }
 
   @Override
   public void deleteModule(DatasetModuleId moduleId) throws DatasetManagementException {
     clientCache.getUnchecked(moduleId.getParent()).deleteModule(moduleId.getEntityName());
+    invalidateDatasetMeta(moduleId);
   }
 
   @Override
   public void deleteAllModules(NamespaceId namespaceId) throws DatasetManagementException {
     clientCache.getUnchecked(namespaceId).deleteModules();
+    invalidateDatasetMeta(namespaceId);
   }
 
   @Override
@@ -152,6 +194,7 @@ public class RemoteDatasetFramework implements DatasetFramework {
     throws DatasetManagementException {
     clientCache.getUnchecked(datasetInstanceId.getParent())
       .updateInstance(datasetInstanceId.getEntityName(), props);
+    invalidateDatasetMeta(datasetInstanceId);
   }
 
   @Override
@@ -198,11 +241,13 @@ public class RemoteDatasetFramework implements DatasetFramework {
   @Override
   public void deleteInstance(DatasetId datasetInstanceId) throws DatasetManagementException {
     clientCache.getUnchecked(datasetInstanceId.getParent()).deleteInstance(datasetInstanceId.getEntityName());
+    invalidateDatasetMeta(datasetInstanceId);
   }
 
   @Override
   public void deleteAllInstances(NamespaceId namespaceId) throws DatasetManagementException {
     clientCache.getUnchecked(namespaceId).deleteInstances();
+    invalidateDatasetMeta(namespaceId);
   }
 
   @Override
@@ -235,12 +280,12 @@ public class RemoteDatasetFramework implements DatasetFramework {
                                           @Nullable Iterable<? extends EntityId> owners, AccessType accessType)
     throws DatasetManagementException, IOException {
 
-    DatasetMeta datasetMeta = clientCache.getUnchecked(id.getParent()).getInstance(id.getEntityName());
+    DatasetMeta datasetMeta = getCachedDatasetMeta(id);
     if (datasetMeta == null) {
       return null;
     }
 
-    DatasetType type = getType(datasetMeta.getType(), classLoader, classLoaderProvider);
+    DatasetType type = getCachedType(datasetMeta.getType(), classLoader, classLoaderProvider);
     return (T) type.getDataset(DatasetContext.from(id.getNamespace()), datasetMeta.getSpec(), arguments);
   }
 
@@ -249,6 +294,28 @@ public class RemoteDatasetFramework implements DatasetFramework {
     // no-op. The RemoteDatasetFramework doesn't need to do anything. The lineage should be recorded before this point.
   }
 
+  /**
+   * Returns the {@link DatasetMeta} of the given dataset from the {@link DatasetMetaCache} if there is one, or from
+   * the dataset service otherwise.
+   */
+  @Nullable
+  private DatasetMeta getCachedDatasetMeta(DatasetId datasetInstanceId) throws DatasetManagementException {
+    DatasetServiceClient client = clientCache.getUnchecked(datasetInstanceId.getParent());
+    if (metaCache == null) {
+      return client.getInstance(datasetInstanceId.getEntityName());
+    }
+    return metaCache.get(datasetInstanceId, () -> client.getInstance(datasetInstanceId.getEntityName()));
+  }
+
+  /**
+   * Invalidates the cached {@link DatasetMeta} affected by a change of the given entity.
+   */
+  private void invalidateDatasetMeta(EntityId entityId) {
+    if (metaCache != null) {
+      metaCache.invalidate(entityId);
+    }
+  }
+
   private Location createDeploymentJar(Class<?> clz) throws IOException {
     File tempDir = new File(cConf.get(Constants.CFG_LOCAL_DATA_DIR),
                             cConf.get(Constants.AppFabric.TEMP_DIR)).getAbsoluteFile();
@@ -327,6 +394,24 @@ public class RemoteDatasetFramework implements DatasetFramework {
     return getType(implementationInfo, classLoader, classLoaderProvider);
   }
 
+  /**
+   * Returns the {@link DatasetType} for the given dataset type metadata from the type cache of the given classloader
+   * provider, instantiating it with {@link #getType} if it is not cached yet.
+   */
+  private DatasetType getCachedType(DatasetTypeMeta datasetTypeMeta, @Nullable ClassLoader classLoader,
+                                    DatasetClassLoaderProvider classLoaderProvider) {
+    ClassLoader parentClassLoader = classLoader == null
+      ? Objects.firstNonNull(Thread.currentThread().getContextClassLoader(), getClass().getClassLoader())
+      : classLoader;
+    try {
+      return typeCache.getUnchecked(classLoaderProvider).get(
+        new TypeKey(datasetTypeMeta, parentClassLoader),
+        () -> getType(datasetTypeMeta, parentClassLoader, classLoaderProvider));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
   /**
    * Return an instance of the {@link DatasetType} corresponding to given dataset modules. Uses the given
    * classloader as a parent for all dataset modules, and the given classloader provider to get classloaders for
@@ -374,4 +459,45 @@ public class RemoteDatasetFramework implements DatasetFramework {
     // for that last module.
     return (T) new DatasetType(registry.get(datasetTypeMeta.getName()), classLoader);
   }
+
+  /**
+   * Key for caching {@link DatasetType}. The jar locations of the modules are part of the key, since they are not
+   * considered in {@link DatasetModuleMeta#equals(Object)}. The parent classloader is compared by identity.
+   */
+  private static final class TypeKey {
+    private final String typeName;
+    private final List<DatasetModuleMeta> modules;
+    private final List<String> jarLocations;
+    private final ClassLoader parentClassLoader;
+
+    TypeKey(DatasetTypeMeta datasetTypeMeta, ClassLoader parentClassLoader) {
+      this.typeName = datasetTypeMeta.getName();
+      this.modules = datasetTypeMeta.getModules();
+      this.jarLocations = new ArrayList<>(modules.size());
+      for (DatasetModuleMeta moduleMeta : modules) {
+        jarLocations.add(moduleMeta.getJarLocationPath());
+      }
+      this.parentClassLoader = parentClassLoader;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      TypeKey that = (TypeKey) o;
+      return parentClassLoader == that.parentClassLoader
+        && typeName.equals(that.typeName)
+        && modules.equals(that.modules)
+        && jarLocations.equals(that.jarLocations);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(typeName, modules, jarLocations, System.identityHashCode(parentClassLoader));
+    }
+  }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.data2.datafabric.dataset.service;
+
+import com.google.inject.Inject;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.messaging.MessagingService;
+import io.cdap.cdap.messaging.client.StoreRequestBuilder;
+import io.cdap.cdap.proto.id.EntityId;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.id.TopicId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+/**
+ * Publishes changes of dataset instances and modules to the dataset change topic if a {@link MessagingService} is
+ * available, so that clients of the dataset service can invalidate the dataset metadata they have cached.
+ * The payload of each message is the string form of the changed {@link EntityId}.
+ */
+public class DatasetChangePublisher {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DatasetChangePublisher.class);
+
+  private final TopicId changeTopic;
+  @Nullable
+  private MessagingService messagingService;
+
+  @Inject
+  public DatasetChangePublisher(CConfiguration cConf) {
+    this.changeTopic = NamespaceId.SYSTEM.topic(cConf.get(Constants.Dataset.DATASET_CHANGE_TOPIC));
+  }
+
+  /**
+   * Sets the {@link MessagingService} for publishing dataset changes. It is optional, since not every process
+   * that manages datasets has the messaging service available.
+   */
+  @Inject(optional = true)
+  public void setMessagingService(MessagingService messagingService) {
+    this.messagingService = messagingService;
+  }
+
+  /**
+   * Publishes a change of the given dataset instance, dataset module or namespace. Failure to publish is only logged,
+   * since the change has already been made, and cached dataset metadata will still expire by its TTL.
+   */
+  public void publish(EntityId entityId) {
+    if (messagingService == null) {
+      return;
+    }
+    try {
+      messagingService.publish(StoreRequestBuilder.of(changeTopic).addPayload(entityId.toString()).build());
+    } catch (Exception e) {
+      LOG.warn("Failed to publish dataset change on {} to topic {}. Cached dataset metadata may be stale until it "
+                 + "expires.", entityId, changeTopic, e);
+    }
+  }
+}
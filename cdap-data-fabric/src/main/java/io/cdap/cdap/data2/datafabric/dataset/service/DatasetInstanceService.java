@@ -95,6 +95,7 @@ public class DatasetInstanceService {
   private final AuthenticationContext authenticationContext;
 
   private AuditPublisher auditPublisher;
+  private DatasetChangePublisher changePublisher;
   private MetadataServiceClient metadataServiceClient;
 
   @VisibleForTesting
@@ -134,6 +135,12 @@ public class DatasetInstanceService {
     this.auditPublisher = auditPublisher;
   }
 
+  @VisibleForTesting
+  @Inject(optional = true)
+  public void setDatasetChangePublisher(DatasetChangePublisher changePublisher) {
+    this.changePublisher = changePublisher;
+  }
+
   /**
    * Lists all dataset instances in a namespace. If perimeter security and authorization are enabled, only returns the
    * dataset instances that the current user has access to.
@@ -397,6 +404,7 @@ public class DatasetInstanceService {
     DatasetSpecification spec = response.getSpec();
     instanceManager.add(instance.getParent(), spec);
     metaCache.invalidate(instance);
+    publishChange(instance);
 
     updateExplore(instance, datasetProperties, existing, spec);
     publishAudit(instance, AuditType.UPDATE);
@@ -560,6 +568,7 @@ public class DatasetInstanceService {
       throw new DatasetNotFoundException(instance);
     }
     metaCache.invalidate(instance);
+    publishChange(instance);
 
     // by pass the auth check for dataset type when the operation is not creation
     DatasetTypeMeta typeMeta = getTypeInfo(instance.getParent(), spec.getType(), true);
@@ -633,6 +642,12 @@ public class DatasetInstanceService {
     AuditPublishers.publishAudit(auditPublisher, datasetInstance, auditType, AuditPayload.EMPTY_PAYLOAD);
   }
 
+  private void publishChange(DatasetId datasetInstance) {
+    if (changePublisher != null) {
+      changePublisher.publish(datasetInstance);
+    }
+  }
+
   private void publishMetadata(DatasetId dataset, SystemMetadata metadata) {
     if (metadata != null && !metadata.isEmpty()) {
       SystemMetadataWriter metadataWriter = new DelegateSystemMetadataWriter(metadataServiceClient, dataset, metadata);
@@ -46,6 +46,7 @@ import io.cdap.cdap.proto.DatasetModuleMeta;
 import io.cdap.cdap.proto.DatasetTypeMeta;
 import io.cdap.cdap.proto.id.DatasetModuleId;
 import io.cdap.cdap.proto.id.DatasetTypeId;
+import io.cdap.cdap.proto.id.EntityId;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.security.impersonation.Impersonator;
 import io.cdap.cdap.spi.data.transaction.TransactionRunner;
@@ -84,6 +85,7 @@ public class DefaultDatasetTypeService extends AbstractIdleService implements Da
   private final TransactionSystemClientService txClientService;
   private final Map<String, DatasetModule> defaultModules;
   private final Map<String, DatasetModule> extensionModules;
+  private DatasetChangePublisher changePublisher;
 
   @Inject
   @VisibleForTesting
@@ -105,6 +107,12 @@ public class DefaultDatasetTypeService extends AbstractIdleService implements Da
     this.transactionRunner = transactionRunner;
   }
 
+  @VisibleForTesting
+  @Inject(optional = true)
+  public void setDatasetChangePublisher(DatasetChangePublisher changePublisher) {
+    this.changePublisher = changePublisher;
+  }
+
   @Override
   protected void startUp() throws Exception {
     txClientService.startAndWait();
@@ -201,6 +209,7 @@ public class DefaultDatasetTypeService extends AbstractIdleService implements Da
     } catch (DatasetModuleConflictException e) {
       throw new DatasetModuleCannotBeDeletedException(datasetModuleId, e.getMessage());
     }
+    publishChange(datasetModuleId);
   }
 
   /**
@@ -218,6 +227,7 @@ public class DefaultDatasetTypeService extends AbstractIdleService implements Da
     } catch (DatasetModuleConflictException e) {
       throw new ConflictException(e.getMessage(), e);
     }
+    publishChange(namespaceId);
   }
 
   /**
@@ -325,6 +335,7 @@ public class DefaultDatasetTypeService extends AbstractIdleService implements Da
           }
 
           typeManager.addModule(datasetModuleId, className, archive, forceUpdate);
+          publishChange(datasetModuleId);
           // todo: response with DatasetModuleMeta of just added module (and log this info)
           // Ideally this should have been done before, but we cannot grant privileges on types until they've been
           // added to the type MDS. First revoke any orphaned privileges for types left behind by past failed revokes
@@ -426,4 +437,13 @@ public class DefaultDatasetTypeService extends AbstractIdleService implements Da
       }
     }
   }
+
+  /**
+   * Publishes a change of dataset modules, which may change the types of existing dataset instances.
+   */
+  private void publishChange(EntityId entityId) {
+    if (changePublisher != null) {
+      changePublisher.publish(entityId);
+    }
+  }
 }
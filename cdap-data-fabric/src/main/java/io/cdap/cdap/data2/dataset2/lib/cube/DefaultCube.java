@@ -16,15 +16,14 @@
 
 package io.cdap.cdap.data2.dataset2.lib.cube;
 
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.PeekingIterator;
 import com.google.common.collect.Sets;
-import com.google.common.collect.Table;
 import com.google.common.util.concurrent.Uninterruptibles;
 import io.cdap.cdap.api.dataset.lib.cube.AggregationFunction;
 import io.cdap.cdap.api.dataset.lib.cube.AggregationOption;
@@ -34,6 +33,8 @@ import io.cdap.cdap.api.dataset.lib.cube.CubeExploreQuery;
 import io.cdap.cdap.api.dataset.lib.cube.CubeFact;
 import io.cdap.cdap.api.dataset.lib.cube.CubeQuery;
 import io.cdap.cdap.api.dataset.lib.cube.DimensionValue;
+import io.cdap.cdap.api.dataset.lib.cube.MeasureType;
+import io.cdap.cdap.api.dataset.lib.cube.Measurement;
 import io.cdap.cdap.api.dataset.lib.cube.TimeSeries;
 import io.cdap.cdap.api.dataset.lib.cube.TimeValue;
 import io.cdap.cdap.api.dataset.metrics.MeteredDataset;
@@ -55,9 +56,13 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -65,6 +70,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 
 /**
@@ -82,6 +88,7 @@ public class DefaultCube implements Cube, MeteredDataset {
   private final Map<Integer, FactTable> resolutionToFactTable;
   private final Map<String, ? extends Aggregation> aggregations;
   private final Map<String, AggregationAlias> aggregationAliasMap;
+  private final Set<Integer> rollupResolutions;
   private final ExecutorService executorService;
 
   @Nullable
@@ -90,12 +97,23 @@ public class DefaultCube implements Cube, MeteredDataset {
   public DefaultCube(int[] resolutions, FactTableSupplier factTableSupplier,
                      Map<String, ? extends Aggregation> aggregations,
                      Map<String, AggregationAlias> aggregationAliasMap) {
+    this(resolutions, factTableSupplier, aggregations, aggregationAliasMap, Collections.emptySet());
+  }
+
+  /**
+   * Creates a {@link DefaultCube} in which counters of the given rollup resolutions are not written on ingest, but
+   * derived from a finer resolution by {@link #rollup(int, int, long, long)}.
+   */
+  public DefaultCube(int[] resolutions, FactTableSupplier factTableSupplier,
+                     Map<String, ? extends Aggregation> aggregations,
+                     Map<String, AggregationAlias> aggregationAliasMap, Set<Integer> rollupResolutions) {
     this.aggregations = aggregations;
     this.resolutionToFactTable = Maps.newHashMap();
     for (int resolution : resolutions) {
       resolutionToFactTable.put(resolution, factTableSupplier.get(resolution, 3600));
     }
     this.aggregationAliasMap = aggregationAliasMap;
+    this.rollupResolutions = ImmutableSet.copyOf(rollupResolutions);
     this.executorService = new ThreadPoolExecutor(0, resolutions.length, 30, TimeUnit.SECONDS,
                                                   new LinkedBlockingQueue<>(),
                                                   Threads.createDaemonThreadFactory("metrics-table-%d"));
@@ -132,9 +150,14 @@ public class DefaultCube implements Cube, MeteredDataset {
       }
     }
 
+    // counters of the rollup resolutions are derived later, only gauges are written to them on ingest
+    List<Fact> gaugesToWrite = rollupResolutions.isEmpty() ? toWrite : getGauges(toWrite);
     Map<Integer, Future<?>> futures = new HashMap<>();
     for (Map.Entry<Integer, FactTable> table : resolutionToFactTable.entrySet()) {
-      futures.put(table.getKey(), executorService.submit(() -> table.getValue().add(toWrite)));
+      List<Fact> tableFacts = rollupResolutions.contains(table.getKey()) ? gaugesToWrite : toWrite;
+      if (!tableFacts.isEmpty()) {
+        futures.put(table.getKey(), executorService.submit(() -> table.getValue().add(tableFacts)));
+      }
     }
 
     boolean failed = false;
@@ -171,6 +194,22 @@ public class DefaultCube implements Cube, MeteredDataset {
 
   @Override
   public Collection<TimeSeries> query(CubeQuery query) {
+    List<TimeSeries> result = new ArrayList<>();
+    query(query, Integer.MAX_VALUE, result::add);
+    return result;
+  }
+
+  /**
+   * Executes the given {@link CubeQuery} like {@link #query(CubeQuery)}, but hands each resulting {@link TimeSeries}
+   * to the given consumer as soon as it is built instead of collecting the whole result first. The aggregated values
+   * of a group are released once its time series are handed over, so the result is never held in memory twice.
+   *
+   * @param query the query to execute
+   * @param maxSeries maximum number of time series to return; if the query matches more, only the ones with
+   *                  the largest sum of values are returned
+   * @param consumer the consumer to receive the resulting time series
+   */
+  public void query(CubeQuery query, int maxSeries, Consumer<TimeSeries> consumer) {
     /*
       CubeQuery example: "dataset read ops for app per dataset". Or:
 
@@ -209,6 +248,11 @@ public class DefaultCube implements Cube, MeteredDataset {
 
     incrementMetric("cube.query.request.count", 1);
 
+    if (maxSeries <= 0) {
+      incrementMetric("cube.query.request.failure.count", 1);
+      throw new IllegalArgumentException("The maximum number of time series must be greater than 0");
+    }
+
     if (!resolutionToFactTable.containsKey(query.getResolution())) {
       incrementMetric("cube.query.request.failure.count", 1);
       throw new IllegalArgumentException("There's no data aggregated for specified resolution to satisfy the query: " +
@@ -254,16 +298,99 @@ public class DefaultCube implements Cube, MeteredDataset {
 
     // 3) execute scan query
     FactTable table = resolutionToFactTable.get(query.getResolution());
+    Map<Map<String, String>, Map<String, Map<Long, Long>>> resultMap;
     FactScanner scanner = table.scan(scan);
-    Table<Map<String, String>, String, Map<Long, Long>> resultMap = getTimeSeries(query, scanner);
+    try {
+      resultMap = getTimeSeries(query, scanner);
+    } finally {
+      scanner.close();
+    }
 
+    int seriesCount = 0;
+    for (Map<String, Map<Long, Long>> measures : resultMap.values()) {
+      seriesCount += measures.size();
+    }
     incrementMetric("cube.query.request.success.count", 1);
-    incrementMetric("cube.query.result.size", resultMap.size());
+    incrementMetric("cube.query.result.size", seriesCount);
 
-    Collection<TimeSeries> timeSeries = convertToQueryResult(query, resultMap);
-    incrementMetric("cube.query.result.timeseries.count", timeSeries.size());
+    // 4) push the limit on number of time series down before converting the result
+    if (seriesCount > maxSeries) {
+      resultMap = retainTopSeries(resultMap, maxSeries);
+    }
 
-    return timeSeries;
+    int timeSeriesCount = convertToQueryResult(query, resultMap, consumer);
+    incrementMetric("cube.query.result.timeseries.count", timeSeriesCount);
+  }
+
+  /**
+   * Derives the counters of a rollup resolution from a finer resolution for the given time range, in all
+   * aggregations. The values of each coarser time bucket are summed up and written with a put. Buckets that already
+   * have a value in the target resolution are skipped: these are either gauges, which are written to every
+   * resolution on ingest, or buckets that were rolled up before, which makes the rollup idempotent.
+   * Only complete time buckets should be rolled up, as later data in a rolled up bucket is not picked up.
+   *
+   * @param sourceResolution the resolution to derive the data from
+   * @param targetResolution the rollup resolution to derive the data for
+   * @param startTs start (inclusive) of the time range, aligned to the target resolution
+   * @param endTs end (exclusive) of the time range, aligned to the target resolution
+   */
+  public void rollup(int sourceResolution, int targetResolution, long startTs, long endTs) {
+    FactTable sourceTable = resolutionToFactTable.get(sourceResolution);
+    FactTable targetTable = resolutionToFactTable.get(targetResolution);
+    if (sourceTable == null || !rollupResolutions.contains(targetResolution) || sourceResolution >= targetResolution) {
+      throw new IllegalArgumentException(String.format("Cannot roll up resolution %d into resolution %d",
+                                                       sourceResolution, targetResolution));
+    }
+
+    for (Aggregation agg : aggregations.values()) {
+      List<DimensionValue> dimensionValues = new ArrayList<>();
+      for (String dimensionName : agg.getDimensionNames()) {
+        // null means "any"
+        dimensionValues.add(new DimensionValue(dimensionName, null));
+      }
+      FactScan scan = new FactScan(startTs, endTs - 1, Collections.emptySet(), dimensionValues);
+
+      // sum up the values per target time bucket
+      Map<FactKey, Long> rollups = new HashMap<>();
+      FactScanner scanner = sourceTable.scan(scan);
+      try {
+        while (scanner.hasNext()) {
+          FactScanResult next = scanner.next();
+          for (TimeValue timeValue : next) {
+            long bucketTs = timeValue.getTimestamp() / targetResolution * targetResolution;
+            rollups.merge(new FactKey(next.getDimensionValues(), next.getMeasureName(), bucketTs),
+                          timeValue.getValue(), Long::sum);
+          }
+        }
+      } finally {
+        scanner.close();
+      }
+      if (rollups.isEmpty()) {
+        continue;
+      }
+
+      // skip the buckets that already have a value
+      scanner = targetTable.scan(scan);
+      try {
+        while (scanner.hasNext()) {
+          FactScanResult next = scanner.next();
+          for (TimeValue timeValue : next) {
+            rollups.remove(new FactKey(next.getDimensionValues(), next.getMeasureName(), timeValue.getTimestamp()));
+          }
+        }
+      } finally {
+        scanner.close();
+      }
+
+      List<Fact> facts = new ArrayList<>(rollups.size());
+      for (Map.Entry<FactKey, Long> rollup : rollups.entrySet()) {
+        FactKey key = rollup.getKey();
+        facts.add(new Fact(key.timestamp, key.dimensionValues,
+                           new Measurement(key.measureName, MeasureType.GAUGE, rollup.getValue())));
+      }
+      targetTable.add(facts);
+      incrementMetric("cube.rollup." + targetResolution + ".facts.count", facts.size());
+    }
   }
 
   @Override
@@ -374,9 +501,27 @@ public class DefaultCube implements Cube, MeteredDataset {
     return currentBest;
   }
 
-  private Table<Map<String, String>, String, Map<Long, Long>> getTimeSeries(CubeQuery query, FactScanner scanner) {
-    // {dimension values, measure} -> {time -> value}s
-    Table<Map<String, String>, String, Map<Long, Long>> result = HashBasedTable.create();
+  private List<Fact> getGauges(List<Fact> facts) {
+    List<Fact> gauges = new ArrayList<>();
+    for (Fact fact : facts) {
+      List<Measurement> measurements = new ArrayList<>();
+      for (Measurement measurement : fact.getMeasurements()) {
+        if (measurement.getType() == MeasureType.GAUGE) {
+          measurements.add(measurement);
+        }
+      }
+      if (!measurements.isEmpty()) {
+        gauges.add(measurements.size() == fact.getMeasurements().size() ?
+                     fact : new Fact(fact.getTimestamp(), fact.getDimensionValues(), measurements));
+      }
+    }
+    return gauges;
+  }
+
+  private Map<Map<String, String>, Map<String, Map<Long, Long>>> getTimeSeries(CubeQuery query,
+                                                                                FactScanner scanner) {
+    // {dimension values} -> {measure} -> {time -> value}s
+    Map<Map<String, String>, Map<String, Map<Long, Long>>> result = new HashMap<>();
 
     int count = 0;
     while (scanner.hasNext()) {
@@ -411,28 +556,23 @@ public class DefaultCube implements Cube, MeteredDataset {
         continue;
       }
 
+      // look up the series once per scanned record rather than once per data point
+      AggregationFunction function = query.getMeasurements().get(next.getMeasureName());
+      Map<Long, Long> timeValues = null;
       for (TimeValue timeValue : next) {
-        Map<Long, Long> timeValues = result.get(seriesDimensions, next.getMeasureName());
         if (timeValues == null) {
-          result.put(seriesDimensions, next.getMeasureName(), Maps.<Long, Long>newHashMap());
+          timeValues = result.computeIfAbsent(seriesDimensions, k -> new HashMap<>())
+            .computeIfAbsent(next.getMeasureName(), k -> new HashMap<>());
         }
 
-        AggregationFunction function = query.getMeasurements().get(next.getMeasureName());
         if (AggregationFunction.SUM == function) {
-          Long value =  result.get(seriesDimensions, next.getMeasureName()).get(timeValue.getTimestamp());
-          value = value == null ? 0 : value;
-          value += timeValue.getValue();
-          result.get(seriesDimensions, next.getMeasureName()).put(timeValue.getTimestamp(), value);
+          timeValues.merge(timeValue.getTimestamp(), timeValue.getValue(), Long::sum);
         } else if (AggregationFunction.MAX == function) {
-          Long value = result.get(seriesDimensions, next.getMeasureName()).get(timeValue.getTimestamp());
-          value = value != null && value > timeValue.getValue() ? value : timeValue.getValue();
-          result.get(seriesDimensions, next.getMeasureName()).put(timeValue.getTimestamp(), value);
+          timeValues.merge(timeValue.getTimestamp(), timeValue.getValue(), Math::max);
         } else if (AggregationFunction.MIN == function) {
-          Long value =  result.get(seriesDimensions, next.getMeasureName()).get(timeValue.getTimestamp());
-          value = value != null && value < timeValue.getValue() ? value : timeValue.getValue();
-          result.get(seriesDimensions, next.getMeasureName()).put(timeValue.getTimestamp(), value);
+          timeValues.merge(timeValue.getTimestamp(), timeValue.getValue(), Math::min);
         } else if (AggregationFunction.LATEST == function) {
-          result.get(seriesDimensions, next.getMeasureName()).put(timeValue.getTimestamp(), timeValue.getValue());
+          timeValues.put(timeValue.getTimestamp(), timeValue.getValue());
         } else {
           // should never happen: developer error
           throw new RuntimeException("Unknown MeasureType: " + function);
@@ -445,16 +585,56 @@ public class DefaultCube implements Cube, MeteredDataset {
     return result;
   }
 
-  private Collection<TimeSeries> convertToQueryResult(
-    CubeQuery query, Table<Map<String, String>, String, Map<Long, Long>> resultTable) {
-    List<TimeSeries> result = new ArrayList<>();
+  /**
+   * Returns the given number of time series with the largest sum of values from the given query result. Uses a
+   * bounded min-heap, so only the selected series are tracked while going over the result.
+   */
+  private Map<Map<String, String>, Map<String, Map<Long, Long>>> retainTopSeries(
+    Map<Map<String, String>, Map<String, Map<Long, Long>>> resultMap, int maxSeries) {
+
+    PriorityQueue<TopSeries> topSeries = new PriorityQueue<>(maxSeries,
+                                                             Comparator.comparingLong((TopSeries s) -> s.total));
+    for (Map.Entry<Map<String, String>, Map<String, Map<Long, Long>>> row : resultMap.entrySet()) {
+      for (Map.Entry<String, Map<Long, Long>> measureEntry : row.getValue().entrySet()) {
+        long total = 0L;
+        for (long value : measureEntry.getValue().values()) {
+          total += value;
+        }
+        if (topSeries.size() < maxSeries) {
+          topSeries.add(new TopSeries(row.getKey(), measureEntry.getKey(), total));
+        } else if (topSeries.peek().total < total) {
+          topSeries.poll();
+          topSeries.add(new TopSeries(row.getKey(), measureEntry.getKey(), total));
+        }
+      }
+    }
+
+    Map<Map<String, String>, Map<String, Map<Long, Long>>> result = new HashMap<>();
+    for (TopSeries series : topSeries) {
+      result.computeIfAbsent(series.dimensionValues, k -> new HashMap<>())
+        .put(series.measureName, resultMap.get(series.dimensionValues).get(series.measureName));
+    }
+    return result;
+  }
+
+  /**
+   * Converts the aggregated query result into {@link TimeSeries} and hands them to the given consumer. Each group is
+   * removed from the given result map once it has been converted.
+   *
+   * @return the number of time series handed to the consumer
+   */
+  private int convertToQueryResult(CubeQuery query, Map<Map<String, String>, Map<String, Map<Long, Long>>> resultMap,
+                                   Consumer<TimeSeries> consumer) {
+    int timeSeriesCount = 0;
     // iterating each groupValue dimensions
-    for (Map.Entry<Map<String, String>, Map<String, Map<Long, Long>>> row : resultTable.rowMap().entrySet()) {
+    Iterator<Map.Entry<Map<String, String>, Map<String, Map<Long, Long>>>> rows = resultMap.entrySet().iterator();
+    while (rows.hasNext()) {
+      Map.Entry<Map<String, String>, Map<String, Map<Long, Long>>> row = rows.next();
       // iterating each measure
       for (Map.Entry<String, Map<Long, Long>> measureEntry : row.getValue().entrySet()) {
         // generating time series for a grouping and a measure
         int count = 0;
-        List<TimeValue> timeValues = new ArrayList<>();
+        List<TimeValue> timeValues = new ArrayList<>(measureEntry.getValue().size());
         for (Map.Entry<Long, Long> timeValue : measureEntry.getValue().entrySet()) {
           timeValues.add(new TimeValue(timeValue.getKey(), timeValue.getValue()));
         }
@@ -497,10 +677,13 @@ public class DefaultCube implements Cube, MeteredDataset {
             }
           }
         }
-        result.add(new TimeSeries(measureEntry.getKey(), row.getKey(), resultTimeValues));
+        consumer.accept(new TimeSeries(measureEntry.getKey(), row.getKey(), resultTimeValues));
+        timeSeriesCount++;
       }
+      // release the aggregated values of the group as soon as its time series are handed over
+      rows.remove();
     }
-    return result;
+    return timeSeriesCount;
   }
 
   @Override
@@ -519,6 +702,55 @@ public class DefaultCube implements Cube, MeteredDataset {
     }
   }
 
+  /**
+   * A time series selected by {@link #retainTopSeries(Map, int)}, together with the sum of its values.
+   */
+  private static final class TopSeries {
+    private final Map<String, String> dimensionValues;
+    private final String measureName;
+    private final long total;
+
+    private TopSeries(Map<String, String> dimensionValues, String measureName, long total) {
+      this.dimensionValues = dimensionValues;
+      this.measureName = measureName;
+      this.total = total;
+    }
+  }
+
+  /**
+   * Identifies a single value in a {@link FactTable}.
+   */
+  private static final class FactKey {
+    private final List<DimensionValue> dimensionValues;
+    private final String measureName;
+    private final long timestamp;
+
+    private FactKey(List<DimensionValue> dimensionValues, String measureName, long timestamp) {
+      this.dimensionValues = dimensionValues;
+      this.measureName = measureName;
+      this.timestamp = timestamp;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      FactKey that = (FactKey) o;
+      return timestamp == that.timestamp
+        && Objects.equals(dimensionValues, that.dimensionValues)
+        && Objects.equals(measureName, that.measureName);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(dimensionValues, measureName, timestamp);
+    }
+  }
+
   private static final class DimensionValueComparator implements Comparator<DimensionValue> {
     @Override
     public int compare(DimensionValue t1, DimensionValue t2) {
@@ -17,25 +17,33 @@
 package io.cdap.cdap.data2.dataset2.lib.partitioned;
 
 import com.google.common.base.Objects;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import io.cdap.cdap.api.dataset.lib.PartitionDetail;
 import io.cdap.cdap.api.dataset.lib.PartitionKey;
 import io.cdap.cdap.api.dataset.lib.PartitionMetadata;
 
 /**
- * Implementation of Partition, with associated metadata.
+ * Implementation of Partition, with associated metadata. The metadata can be supplied lazily, so that it is
+ * only decoded if it is actually used.
  */
 class BasicPartitionDetail extends BasicPartition implements PartitionDetail {
-  protected final PartitionMetadata metadata;
+  private final Supplier<PartitionMetadata> metadata;
 
   protected BasicPartitionDetail(PartitionedFileSetDataset partitionedFileSetDataset,
                                  String relativePath, PartitionKey key, PartitionMetadata metadata) {
+    this(partitionedFileSetDataset, relativePath, key, Suppliers.ofInstance(metadata));
+  }
+
+  protected BasicPartitionDetail(PartitionedFileSetDataset partitionedFileSetDataset,
+                                 String relativePath, PartitionKey key, Supplier<PartitionMetadata> metadata) {
     super(partitionedFileSetDataset, relativePath, key);
     this.metadata = metadata;
   }
 
   @Override
   public PartitionMetadata getMetadata() {
-    return metadata;
+    return metadata.get();
   }
 
   @Override
@@ -49,13 +57,15 @@ class BasicPartitionDetail extends BasicPartition implements PartitionDetail {
 
     BasicPartitionDetail that = (BasicPartitionDetail) o;
 
-    return Objects.equal(this.metadata, that.metadata) &&
+    // compare the metadata last, to avoid decoding it if possible
+    return Objects.equal(this.key, that.key) &&
       Objects.equal(this.relativePath, that.relativePath) &&
-      Objects.equal(this.key, that.key);
+      Objects.equal(getMetadata(), that.getMetadata());
   }
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(metadata, relativePath, key);
+    // the metadata is not included, to avoid decoding it; equal partition details still have equal hash codes
+    return Objects.hashCode(relativePath, key);
   }
 }
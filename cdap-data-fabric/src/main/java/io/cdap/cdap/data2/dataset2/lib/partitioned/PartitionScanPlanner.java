@@ -0,0 +1,300 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.data2.dataset2.lib.partitioned;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.api.dataset.lib.PartitionFilter;
+import io.cdap.cdap.api.dataset.lib.Partitioning;
+import io.cdap.cdap.api.dataset.lib.Partitioning.FieldType;
+import io.cdap.cdap.api.dataset.table.Scan;
+import io.cdap.cdap.common.utils.ImmutablePair;
+import io.cdap.cdap.data2.dataset2.lib.table.FuzzyRowFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Plans the scans of the partitions table that are needed to find all partitions matching a {@link PartitionFilter}.
+ * A row key of the partitions table is the concatenation of the encoded partitioning fields, separated by \0.
+ * The planner prunes the key space as follows:
+ * <ul>
+ *   <li>Leading fields with single-value conditions become a fixed key prefix.</li>
+ *   <li>Leading {@link FieldType#INT} and {@link FieldType#LONG} fields with small, bounded ranges are enumerated
+ *     into multiple prefixes, if a following field also has a condition, so that the following field can narrow
+ *     the scan too. The total number of prefixes is bounded by {@link #MAX_KEY_RANGES}.</li>
+ *   <li>The first field that cannot be fixed or enumerated bounds the scan by its lower and upper bound.</li>
+ *   <li>Single-value conditions on fields after that are evaluated by the table using a {@link FuzzyRowFilter},
+ *     as long as all fields before them have a fixed length in bytes.</li>
+ * </ul>
+ * The scans returned by the planner may still contain rows that do not match the filter, hence callers must
+ * still apply the filter to every partition key. The scans are returned in row key order.
+ */
+final class PartitionScanPlanner {
+
+  @VisibleForTesting
+  static final int MAX_KEY_RANGES = 1000;
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private PartitionScanPlanner() {
+    // no-op
+  }
+
+  /**
+   * Plans the scans for the given filter.
+   *
+   * @param partitioning the partitioning of the dataset
+   * @param filter the partition filter, or {@code null} to match all partitions
+   * @return the list of scans to perform; an empty list if the filter cannot match any partition
+   * @throws IllegalArgumentException if a condition of the filter is incompatible with the partitioning
+   */
+  static List<Scan> plan(Partitioning partitioning, @Nullable PartitionFilter filter) {
+    if (filter == null) {
+      return Collections.singletonList(new Scan(null, null));
+    }
+
+    List<Map.Entry<String, FieldType>> fields = new ArrayList<>(partitioning.getFields().entrySet());
+    List<byte[]> prefixes = Collections.singletonList(EMPTY);
+    int fieldIdx = 0;
+    byte[] lower = null;
+    byte[] upper = null;
+    boolean bounded = false;
+
+    for (; fieldIdx < fields.size(); fieldIdx++) {
+      String fieldName = fields.get(fieldIdx).getKey();
+      FieldType fieldType = fields.get(fieldIdx).getValue();
+      PartitionFilter.Condition<? extends Comparable> condition = filter.getCondition(fieldName);
+      if (condition == null) {
+        break;
+      }
+      if (condition.isSingleValue()) {
+        prefixes = append(prefixes, Collections.singletonList(toBytes(condition.getValue(), fieldName, fieldType)));
+        continue;
+      }
+      if (hasConditionAfter(filter, fields, fieldIdx)) {
+        List<byte[]> values = enumerate(condition, fieldType, MAX_KEY_RANGES / prefixes.size());
+        if (values != null) {
+          if (values.isEmpty()) {
+            // the range is empty, hence no partition can match
+            return Collections.emptyList();
+          }
+          prefixes = append(prefixes, values);
+          continue;
+        }
+      }
+      // bound the scan by the range of this field, following fields can only be filtered
+      lower = condition.getLower() == null ? null : toBytes(condition.getLower(), fieldName, fieldType);
+      upper = condition.getUpper() == null ? null : toBytes(condition.getUpper(), fieldName, fieldType);
+      bounded = true;
+      break;
+    }
+
+    boolean complete = fieldIdx == fields.size();
+    List<Scan> scans = new ArrayList<>(prefixes.size());
+    for (byte[] prefix : prefixes) {
+      byte[] startRow;
+      byte[] stopRow;
+      if (complete) {
+        // all fields are fixed: the prefix is the full row key followed by a separator.
+        // Scan exactly that row key by replacing the trailing \0 with \1 for the stop row.
+        startRow = Bytes.head(prefix, prefix.length - 1);
+        stopRow = stopRowForPrefix(prefix);
+      } else if (bounded) {
+        startRow = lower == null ? nullIfEmpty(prefix) : Bytes.add(prefix, lower);
+        stopRow = upper == null ? stopRowForPrefix(prefix) : Bytes.add(prefix, upper);
+      } else {
+        startRow = nullIfEmpty(prefix);
+        stopRow = stopRowForPrefix(prefix);
+      }
+      FuzzyRowFilter fuzzyFilter = complete ? null : createFuzzyFilter(filter, fields, fieldIdx, prefix);
+      scans.add(new Scan(startRow, stopRow, fuzzyFilter));
+    }
+    return scans;
+  }
+
+  /**
+   * Returns whether any field after the given index has a condition in the filter.
+   */
+  private static boolean hasConditionAfter(PartitionFilter filter, List<Map.Entry<String, FieldType>> fields,
+                                           int fieldIdx) {
+    for (int i = fieldIdx + 1; i < fields.size(); i++) {
+      if (filter.getCondition(fields.get(i).getKey()) != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Enumerates all values of a range condition on an integral field, in ascending order.
+   *
+   * @return the encoded values, or {@code null} if the range is unbounded, not integral, or has more than
+   *         {@code maxValues} values
+   */
+  @Nullable
+  private static List<byte[]> enumerate(PartitionFilter.Condition<? extends Comparable> condition,
+                                        FieldType fieldType, int maxValues) {
+    if (condition.getLower() == null || condition.getUpper() == null) {
+      return null;
+    }
+    long lower;
+    long upper;
+    if (fieldType == FieldType.INT && condition.getLower() instanceof Integer
+      && condition.getUpper() instanceof Integer) {
+      lower = (Integer) condition.getLower();
+      upper = (Integer) condition.getUpper();
+    } else if (fieldType == FieldType.LONG && condition.getLower() instanceof Long
+      && condition.getUpper() instanceof Long) {
+      lower = (Long) condition.getLower();
+      upper = (Long) condition.getUpper();
+    } else {
+      return null;
+    }
+    if (lower >= upper) {
+      return Collections.emptyList();
+    }
+    // the difference can overflow for very large ranges
+    long count = upper - lower;
+    if (count <= 0 || count > maxValues) {
+      return null;
+    }
+    List<byte[]> values = new ArrayList<>((int) count);
+    for (long value = lower; value < upper; value++) {
+      values.add(fieldType == FieldType.INT
+                   ? FieldTypes.toBytes((int) value, fieldType) : FieldTypes.toBytes(value, fieldType));
+    }
+    return values;
+  }
+
+  /**
+   * Creates a {@link FuzzyRowFilter} that matches the single-value conditions on fields starting at the given
+   * index, as long as all fields in between have a fixed length.
+   *
+   * @return the filter, or {@code null} if no condition can be evaluated that way
+   */
+  @Nullable
+  private static FuzzyRowFilter createFuzzyFilter(PartitionFilter filter, List<Map.Entry<String, FieldType>> fields,
+                                                  int fieldIdx, byte[] prefix) {
+    List<byte[]> keyParts = new ArrayList<>();
+    List<Boolean> fixedParts = new ArrayList<>();
+    int fuzzyLength = prefix.length;
+    int matchedLength = 0;
+    for (int i = fieldIdx; i < fields.size(); i++) {
+      String fieldName = fields.get(i).getKey();
+      FieldType fieldType = fields.get(i).getValue();
+      int size = fixedSize(fieldType);
+      if (size < 0) {
+        break;
+      }
+      PartitionFilter.Condition<? extends Comparable> condition = filter.getCondition(fieldName);
+      boolean fixed = condition != null && condition.isSingleValue();
+      keyParts.add(fixed ? toBytes(condition.getValue(), fieldName, fieldType) : new byte[size]);
+      fixedParts.add(fixed);
+      // each field is followed by a \0 separator, except for the last field
+      fuzzyLength += size + (i < fields.size() - 1 ? 1 : 0);
+      if (fixed) {
+        matchedLength = fuzzyLength;
+      }
+    }
+    if (matchedLength == 0) {
+      return null;
+    }
+
+    // all bytes of the prefix and the separators are fixed (0 in the mask), unconstrained fields are not (1)
+    byte[] fuzzyKey = new byte[matchedLength];
+    byte[] fuzzyMask = new byte[matchedLength];
+    System.arraycopy(prefix, 0, fuzzyKey, 0, prefix.length);
+    int offset = prefix.length;
+    for (int i = 0; i < keyParts.size() && offset < matchedLength; i++) {
+      byte[] part = keyParts.get(i);
+      System.arraycopy(part, 0, fuzzyKey, offset, part.length);
+      if (!fixedParts.get(i)) {
+        for (int j = offset; j < offset + part.length; j++) {
+          fuzzyMask[j] = 1;
+        }
+      }
+      // skip the \0 separator, which is already zero in both key and mask
+      offset += part.length + 1;
+    }
+    return new FuzzyRowFilter(Collections.singletonList(ImmutablePair.of(fuzzyKey, fuzzyMask)));
+  }
+
+  /**
+   * @return the number of bytes of the encoded field, or -1 if it has variable length
+   */
+  private static int fixedSize(FieldType fieldType) {
+    switch (fieldType) {
+      case INT:
+        return Bytes.SIZEOF_INT;
+      case LONG:
+        return Bytes.SIZEOF_LONG;
+      default:
+        return -1;
+    }
+  }
+
+  /**
+   * Appends each of the values, followed by a \0 separator, to each of the prefixes.
+   */
+  private static List<byte[]> append(List<byte[]> prefixes, List<byte[]> values) {
+    List<byte[]> result = new ArrayList<>(prefixes.size() * values.size());
+    for (byte[] prefix : prefixes) {
+      for (byte[] value : values) {
+        byte[] key = new byte[prefix.length + value.length + 1];
+        System.arraycopy(prefix, 0, key, 0, prefix.length);
+        System.arraycopy(value, 0, key, prefix.length, value.length);
+        result.add(key);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Computes the stop row for scanning all row keys starting with the given prefix, which ends with a \0
+   * separator. Returns {@code null} for an empty prefix.
+   */
+  @Nullable
+  private static byte[] stopRowForPrefix(byte[] prefix) {
+    if (prefix.length == 0) {
+      return null;
+    }
+    byte[] stopRow = Arrays.copyOf(prefix, prefix.length);
+    stopRow[stopRow.length - 1] = 1;
+    return stopRow;
+  }
+
+  @Nullable
+  private static byte[] nullIfEmpty(byte[] bytes) {
+    return bytes.length == 0 ? null : bytes;
+  }
+
+  private static byte[] toBytes(Comparable value, String fieldName, FieldType fieldType) {
+    try {
+      fieldType.validate(value);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(String.format(
+        "Invalid partition filter: Value for field '%s' is incompatible with the partitioning: %s",
+        fieldName, e.getMessage()));
+    }
+    return FieldTypes.toBytes(value, fieldType);
+  }
+}
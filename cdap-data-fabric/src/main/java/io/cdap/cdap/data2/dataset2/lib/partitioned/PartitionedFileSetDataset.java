@@ -19,6 +19,8 @@ package io.cdap.cdap.data2.dataset2.lib.partitioned;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
@@ -57,11 +59,13 @@ import io.cdap.cdap.api.dataset.lib.PartitionMetadata;
 import io.cdap.cdap.api.dataset.lib.PartitionOutput;
 import io.cdap.cdap.api.dataset.lib.PartitionedFileSet;
 import io.cdap.cdap.api.dataset.lib.PartitionedFileSetArguments;
+import io.cdap.cdap.api.dataset.lib.PartitionedFileSetProperties;
 import io.cdap.cdap.api.dataset.lib.Partitioning;
 import io.cdap.cdap.api.dataset.lib.Partitioning.FieldType;
 import io.cdap.cdap.api.dataset.lib.partitioned.PartitionKeyCodec;
 import io.cdap.cdap.api.dataset.table.Put;
 import io.cdap.cdap.api.dataset.table.Row;
+import io.cdap.cdap.api.dataset.table.Scan;
 import io.cdap.cdap.api.dataset.table.Scanner;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.io.Locations;
@@ -129,6 +133,7 @@ public class PartitionedFileSetDataset extends AbstractDataset
   private static final byte[] LAST_MODIFICATION_TIME_COL = { 'm' };
   private static final byte[] RELATIVE_PATH = { 'p' };
   private static final byte[] METADATA_PREFIX = { 'm', '.' };
+  private static final byte[] FIELD_INDEX_PREFIX = { 'i', '.' };
 
   protected final FileSet files;
   protected final DatasetSpecification spec;
@@ -136,6 +141,7 @@ public class PartitionedFileSetDataset extends AbstractDataset
   private final boolean exploreEnabled;
   protected final Map<String, String> runtimeArguments;
   protected final Partitioning partitioning;
+  private final Set<String> indexedFields;
   private final IndexedTable partitionsTable;
   private final Provider<ExploreFacade> exploreFacadeProvider;
 
@@ -164,6 +170,7 @@ public class PartitionedFileSetDataset extends AbstractDataset
     this.exploreEnabled = FileSetProperties.isExploreEnabled(spec.getProperties());
     this.runtimeArguments = arguments;
     this.partitioning = partitioning;
+    this.indexedFields = PartitionedFileSetProperties.getIndexedFields(spec.getProperties());
     this.exploreFacadeProvider = exploreFacadeProvider;
     this.datasetInstanceId = new DatasetId(datasetContext.getNamespaceId(), name);
   }
@@ -358,6 +365,13 @@ public class PartitionedFileSetDataset extends AbstractDataset
       put.add(CREATION_TIME_COL, nowInMillis);
     }
     put.add(LAST_MODIFICATION_TIME_COL, nowInMillis);
+    if (!appending) {
+      // index the configured partitioning fields, so that they can be filtered on without scanning all partitions
+      for (String indexedField : indexedFields) {
+        put.add(getFieldIndexColumn(indexedField),
+                FieldTypes.toBytes(key.getField(indexedField), partitioning.getFieldType(indexedField)));
+      }
+    }
 
     // we allow updates, because an update will only happen if its an append
     addMetadataToPut(row, metadata, put, true);
@@ -729,11 +743,11 @@ public class PartitionedFileSetDataset extends AbstractDataset
     final Set<PartitionDetail> partitionDetails = Sets.newHashSet();
     getPartitions(filter, new PartitionConsumer() {
       @Override
-      public void consume(PartitionKey key, String path, @Nullable PartitionMetadata metadata) {
-        // metadata won't be null, because we pass 'true' as the 'decodeMetadata' parameter of 'getPartitions'
+      public void consume(PartitionKey key, String path, Supplier<PartitionMetadata> metadata) {
+        // the metadata is only decoded when it is requested from the partition detail
         partitionDetails.add(new BasicPartitionDetail(PartitionedFileSetDataset.this, path, key, metadata));
       }
-    }, true);
+    });
     return partitionDetails;
   }
 
@@ -742,32 +756,51 @@ public class PartitionedFileSetDataset extends AbstractDataset
     final Set<PartitionKey> partitionKeys = new HashSet<>();
     getPartitions(filter, new PartitionConsumer() {
       @Override
-      public void consume(PartitionKey key, String path, @Nullable PartitionMetadata metadata) {
+      public void consume(PartitionKey key, String path, Supplier<PartitionMetadata> metadata) {
         partitionKeys.add(key);
       }
-    }, false);
+    });
     return partitionKeys;
   }
 
+  /**
+   * Passes all partitions that match the given filter to the consumer. The partitions table is scanned according to
+   * the scans planned by the {@link PartitionScanPlanner}. If that requires a scan of all partitions, and the filter
+   * has a condition on an indexed field, the partitions are read through the index instead, in which case they are
+   * not consumed in the order of their partition keys.
+   */
   protected void getPartitions(@Nullable PartitionFilter filter, PartitionConsumer consumer) {
-    // by default, parse the metadata from the rows
-    getPartitions(filter, consumer, true);
+    List<Scan> scans = PartitionScanPlanner.plan(partitioning, filter);
+    Scanner indexScanner = isFullScan(scans) ? scanIndex(filter) : null;
+    long count = 0L;
+    if (indexScanner != null) {
+      count = consumePartitions(indexScanner, filter, consumer, Long.MAX_VALUE);
+    } else {
+      for (Scan scan : scans) {
+        count += consumePartitions(partitionsTable.scan(scan), filter, consumer, Long.MAX_VALUE);
+      }
+    }
+    if (count == 0) {
+      warnIfInvalidPartitionFilter(filter, partitioning);
+    }
   }
 
-  // if decodeMetadata is false, null is passed as the PartitionMetadata to the PartitionConsumer,
-  // for efficiency reasons, since the metadata is not always needed
-  protected void getPartitions(@Nullable PartitionFilter filter, PartitionConsumer consumer, boolean decodeMetadata) {
-    byte[] startKey = generateStartKey(filter);
-    byte[] endKey = generateStopKey(filter);
-    getPartitions(filter, consumer, decodeMetadata, startKey, endKey, Long.MAX_VALUE);
+  private void getPartitions(PartitionConsumer consumer, @Nullable byte[] startKey, @Nullable byte[] endKey,
+                             long limit) {
+    consumePartitions(partitionsTable.scan(startKey, endKey), null, consumer, limit);
   }
 
-  private void getPartitions(@Nullable PartitionFilter filter, PartitionConsumer consumer, boolean decodeMetadata,
-                             @Nullable byte[] startKey, @Nullable byte[] endKey, long limit) {
+  /**
+   * Consumes the partitions returned by the given scanner that match the filter, and closes the scanner.
+   *
+   * @return the number of partitions consumed
+   */
+  private long consumePartitions(Scanner partitionsScanner, @Nullable PartitionFilter filter,
+                                 PartitionConsumer consumer, long limit) {
     long count = 0L;
-    try (Scanner scanner = partitionsTable.scan(startKey, endKey)) {
+    try (Scanner scanner = partitionsScanner) {
       while (count < limit) {
-        Row row = scanner.next();
+        final Row row = scanner.next();
         if (row == null) {
           break;
         }
@@ -784,14 +817,71 @@ public class PartitionedFileSetDataset extends AbstractDataset
         }
         byte[] pathBytes = row.get(RELATIVE_PATH);
         if (pathBytes != null) {
-          consumer.consume(key, Bytes.toString(pathBytes), decodeMetadata ? metadataFromRow(row) : null);
+          consumer.consume(key, Bytes.toString(pathBytes), Suppliers.memoize(new Supplier<PartitionMetadata>() {
+            @Override
+            public PartitionMetadata get() {
+              return metadataFromRow(row);
+            }
+          }));
         }
         count++;
       }
-      if (count == 0) {
-        warnIfInvalidPartitionFilter(filter, partitioning);
+    }
+    return count;
+  }
+
+  private static boolean isFullScan(List<Scan> scans) {
+    if (scans.size() != 1) {
+      return false;
+    }
+    Scan scan = scans.get(0);
+    return scan.getStartRow() == null && scan.getStopRow() == null && scan.getFilter() == null;
+  }
+
+  /**
+   * Returns a scanner over the partitions table through the index of a field that the filter has a condition on.
+   * Fields with a single-value condition are preferred over fields with a range condition.
+   *
+   * @return the scanner, or {@code null} if the filter has no condition on any indexed field
+   */
+  @Nullable
+  private Scanner scanIndex(@Nullable PartitionFilter filter) {
+    if (filter == null || indexedFields.isEmpty()) {
+      return null;
+    }
+    String rangeField = null;
+    for (String indexedField : indexedFields) {
+      PartitionFilter.Condition<? extends Comparable> condition = filter.getCondition(indexedField);
+      if (condition == null) {
+        continue;
+      }
+      if (condition.isSingleValue()) {
+        return partitionsTable.readByIndex(getFieldIndexColumn(indexedField),
+                                           toIndexValue(condition.getValue(), indexedField));
       }
+      if (rangeField == null) {
+        rangeField = indexedField;
+      }
+    }
+    if (rangeField == null) {
+      return null;
     }
+    PartitionFilter.Condition<? extends Comparable> condition = filter.getCondition(rangeField);
+    return partitionsTable.scanByIndex(getFieldIndexColumn(rangeField),
+                                       toIndexValue(condition.getLower(), rangeField),
+                                       toIndexValue(condition.getUpper(), rangeField));
+  }
+
+  @Nullable
+  private byte[] toIndexValue(@Nullable Comparable value, String fieldName) {
+    return value == null ? null : FieldTypes.toBytes(value, partitioning.getFieldType(fieldName));
+  }
+
+  /**
+   * Returns the column of the partitions table that stores the value of a partitioning field for indexing.
+   */
+  static byte[] getFieldIndexColumn(String fieldName) {
+    return Bytes.add(FIELD_INDEX_PREFIX, Bytes.toBytes(fieldName));
   }
 
   private PartitionMetadata metadataFromRow(Row row) {
@@ -845,7 +935,10 @@ public class PartitionedFileSetDataset extends AbstractDataset
    * Interface use internally to build different types of results when scanning partitions.
    */
   protected interface PartitionConsumer {
-    void consume(PartitionKey key, String path, @Nullable PartitionMetadata metadata);
+    /**
+     * Consumes a partition. The metadata of the partition is decoded when the supplier is first called.
+     */
+    void consume(PartitionKey key, String path, Supplier<PartitionMetadata> metadata);
   }
 
   @Override
@@ -1094,7 +1187,7 @@ public class PartitionedFileSetDataset extends AbstractDataset
               int count = 0;
 
               @Override
-              public void consume(PartitionKey key, String path, @Nullable PartitionMetadata metadata) {
+              public void consume(PartitionKey key, String path, Supplier<PartitionMetadata> metadata) {
                 if (count >= partitionsPerTx) {
                   // reached the limit: remember this key as the start for the next round
                   startKey.set(key);
@@ -1115,7 +1208,7 @@ public class PartitionedFileSetDataset extends AbstractDataset
                 count++;
               }
             };
-            pfs.getPartitions(null, consumer, false, startRow, null, partitionsPerTx + 1);
+            pfs.getPartitions(consumer, startRow, null, partitionsPerTx + 1);
           }
         });
       } catch (TransactionConflictException e) {
@@ -1209,103 +1302,6 @@ public class PartitionedFileSetDataset extends AbstractDataset
     return rowKey;
   }
 
-  private byte[] generateStartKey(PartitionFilter filter) {
-    if (null == filter) {
-      return null;
-    }
-    // validate partition filter, convert values, and compute size of output
-    Map<String, FieldType> partitionFields = partitioning.getFields();
-    int totalSize = 0;
-    ArrayList<byte[]> values = Lists.newArrayListWithCapacity(partitionFields.size());
-    for (Map.Entry<String, FieldType> entry : partitionFields.entrySet()) {
-      String fieldName = entry.getKey();
-      FieldType fieldType = entry.getValue();
-      PartitionFilter.Condition<? extends Comparable> condition = filter.getCondition(fieldName);
-      if (condition == null) {
-        break; // this field is not present; we can't include any more fields in the start key
-      }
-      Comparable lowerValue = condition.getLower();
-      if (lowerValue == null) {
-        break; // this field has no lower bound; we can't include any more fields in the start key
-      }
-      try {
-        fieldType.validate(lowerValue);
-      } catch (IllegalArgumentException e) {
-        throw new IllegalArgumentException(String.format(
-          "Invalid partition filter: Lower bound for field '%s' is incompatible with the partitioning: %s",
-          fieldName, e.getMessage()));
-      }
-      byte[] bytes = FieldTypes.toBytes(lowerValue, fieldType);
-      totalSize += bytes.length;
-      values.add(bytes);
-    }
-    if (values.isEmpty()) {
-      return null;
-    }
-    totalSize += values.size() - 1; // one \0 between each of the fields
-    byte[] startKey = new byte[totalSize];
-    int offset = 0;
-    for (byte[] bytes : values) {
-      System.arraycopy(bytes, 0, startKey, offset, bytes.length);
-      offset += bytes.length + 1; // this leaves a \0 byte after the value
-    }
-    return startKey;
-  }
-
-  private byte[] generateStopKey(PartitionFilter filter) {
-    if (null == filter) {
-      return null;
-    }
-    // validate partition filter, convert values, and compute size of output
-    Map<String, FieldType> partitionFields = partitioning.getFields();
-    int totalSize = 0;
-    boolean allSingleValue = true;
-    ArrayList<byte[]> values = Lists.newArrayListWithCapacity(partitionFields.size());
-    for (Map.Entry<String, FieldType> entry : partitionFields.entrySet()) {
-      String fieldName = entry.getKey();
-      FieldType fieldType = entry.getValue();
-      PartitionFilter.Condition<? extends Comparable> condition = filter.getCondition(fieldName);
-      if (condition == null) {
-        break; // this field is not present; we can't include any more fields in the stop key
-      }
-      Comparable upperValue = condition.getUpper();
-      if (upperValue == null) {
-        break; // this field is not present; we can't include any more fields in the stop key
-      }
-      try {
-        fieldType.validate(upperValue);
-      } catch (IllegalArgumentException e) {
-        throw new IllegalArgumentException(String.format(
-          "Invalid partition filter: Upper bound for field '%s' is incompatible with the partitioning: %s",
-          fieldName, e.getMessage()));
-      }
-      byte[] bytes = FieldTypes.toBytes(upperValue, fieldType);
-      totalSize += bytes.length;
-      values.add(bytes);
-      if (!condition.isSingleValue()) {
-        allSingleValue = false;
-        break; // upper bound for this field, following fields don't matter
-      }
-    }
-    if (values.isEmpty()) {
-      return null;
-    }
-    totalSize += values.size() - 1; // one \0 between each of the fields
-    if (allSingleValue) {
-      totalSize++; // in this case the start and stop key are equal, we append one \1 to ensure the scan is not empty
-    }
-    byte[] stopKey = new byte[totalSize];
-    int offset = 0;
-    for (byte[] bytes : values) {
-      System.arraycopy(bytes, 0, stopKey, offset, bytes.length);
-      offset += bytes.length + 1; // this leaves a \0 byte after the value
-      if (allSingleValue && offset == stopKey.length) {
-        stopKey[offset - 1] = 1; // see above - we \1 instead of \0 at the end, to make sure scan is not empty
-      }
-    }
-    return stopKey;
-  }
-
   @VisibleForTesting
   static PartitionKey parseRowKey(byte[] rowKey, Partitioning partitioning) {
     PartitionKey.Builder builder = PartitionKey.builder();
@@ -136,7 +136,7 @@ public class TimePartitionedFileSetDataset extends PartitionedFileSetDataset imp
     for (PartitionFilter filter : partitionFiltersForTimeRange(startTime, endTime)) {
       super.getPartitions(filter, new PartitionedFileSetDataset.PartitionConsumer() {
         @Override
-        public void consume(PartitionKey key, String path, @Nullable PartitionMetadata metadata) {
+        public void consume(PartitionKey key, String path, Supplier<PartitionMetadata> metadata) {
           partitions.add(new BasicTimePartitionDetail(TimePartitionedFileSetDataset.this, path, key, metadata));
         }
       });
@@ -149,7 +149,7 @@ public class TimePartitionedFileSetDataset extends PartitionedFileSetDataset imp
     for (PartitionFilter filter : partitionFiltersForTimeRange(startTime, endTime)) {
       super.getPartitions(filter, new PartitionedFileSetDataset.PartitionConsumer() {
         @Override
-        public void consume(PartitionKey key, String path, @Nullable PartitionMetadata metadata) {
+        public void consume(PartitionKey key, String path, Supplier<PartitionMetadata> metadata) {
           partitionKeys.add(key);
         }
       });
@@ -414,6 +414,12 @@ public class TimePartitionedFileSetDataset extends PartitionedFileSetDataset imp
       this.time = timeForPartitionKey(key);
     }
 
+    private BasicTimePartitionDetail(TimePartitionedFileSetDataset timePartitionedFileSetDataset, String relativePath,
+                                     PartitionKey key, Supplier<PartitionMetadata> metadata) {
+      super(timePartitionedFileSetDataset, relativePath, key, metadata);
+      this.time = timeForPartitionKey(key);
+    }
+
     @Override
     public long getTime() {
       return time;
@@ -38,8 +38,9 @@ import io.cdap.cdap.api.dataset.table.Row;
 import io.cdap.cdap.api.dataset.table.Scan;
 import io.cdap.cdap.api.dataset.table.Scanner;
 import io.cdap.cdap.api.dataset.table.Table;
+import io.cdap.cdap.internal.io.ReflectionFieldAccessorFactory;
 import io.cdap.cdap.internal.io.ReflectionPutWriter;
-import io.cdap.cdap.internal.io.ReflectionRowReader;
+import io.cdap.cdap.internal.io.ResolvingRowReader;
 import io.cdap.cdap.internal.io.TypeRepresentation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,7 +65,7 @@ public class ObjectMappedTableDataset<T> extends AbstractDataset implements Obje
   private final ReflectionPutWriter<T> putWriter;
   // we get this lazily, since we may not have the actual Type when using this as a RecordScannable,
   // but we do expect to have it when using it in a program context
-  private ReflectionRowReader<T> rowReader;
+  private ResolvingRowReader<T> rowReader;
 
   // schema is passed in as an argument because it is a required dataset property for validation purposes, so
   // the ObjectMappedTableDefinition will always have it. We could always derive the schema from the type,
@@ -80,12 +81,13 @@ public class ObjectMappedTableDataset<T> extends AbstractDataset implements Obje
   }
 
   @SuppressWarnings("unchecked")
-  private ReflectionRowReader<T> getReflectionRowReader() {
+  private ResolvingRowReader<T> getRowReader() {
     if (rowReader == null) {
       try {
         // this can throw a runtime exception from a ClassNotFoundException
         Type type = typeRepresentation.toType();
-        rowReader = new ReflectionRowReader<>(objectSchema, (TypeToken<T>) TypeToken.of(type));
+        rowReader = new ResolvingRowReader<>(objectSchema, (TypeToken<T>) TypeToken.of(type),
+                                             new ReflectionFieldAccessorFactory());
       } catch (RuntimeException e) {
         String missingClass = isClassNotFoundException(e);
         if (missingClass != null) {
@@ -272,7 +274,7 @@ public class ObjectMappedTableDataset<T> extends AbstractDataset implements Obje
       if (row.isEmpty()) {
         return null;
       }
-      return getReflectionRowReader().read(row, objectSchema);
+      return getRowReader().read(row, objectSchema);
     } catch (Exception e) {
       // should not happen. Can happen if somebody changes the type in an incompatible way?
       throw new DataSetException("Failed to decode object: " + e.getMessage(), e);
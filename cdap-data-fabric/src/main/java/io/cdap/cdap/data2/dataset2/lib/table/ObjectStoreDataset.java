@@ -36,8 +36,10 @@ import io.cdap.cdap.api.dataset.lib.KeyValueTable;
 import io.cdap.cdap.api.dataset.lib.ObjectStore;
 import io.cdap.cdap.common.io.BinaryDecoder;
 import io.cdap.cdap.common.io.BinaryEncoder;
-import io.cdap.cdap.internal.io.ReflectionDatumReader;
+import io.cdap.cdap.common.io.DatumReader;
 import io.cdap.cdap.internal.io.ReflectionDatumWriter;
+import io.cdap.cdap.internal.io.ReflectionFieldAccessorFactory;
+import io.cdap.cdap.internal.io.ResolvingDatumReaderFactory;
 import io.cdap.cdap.internal.io.TypeRepresentation;
 
 import java.io.ByteArrayInputStream;
@@ -45,6 +47,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import javax.annotation.Nullable;
 
 /**
@@ -62,7 +66,7 @@ public class ObjectStoreDataset<T> extends AbstractDataset implements ObjectStor
   // we get this lazily, since we may not have the actual Type when simply instantiating this class (for instance, when
   // datasets are instantiated in DatasetSystemMetadataWriter for checking RecordScannable/BatchWritable/etc.),
   // but we do expect to have it when using it in a program context
-  private ReflectionDatumReader<T> datumReader;
+  private DatumReader<T> datumReader;
 
   public ObjectStoreDataset(String name, KeyValueTable kvTable, TypeRepresentation typeRep,
                             Schema schema, @Nullable ClassLoader classLoader) {
@@ -130,6 +134,16 @@ public class ObjectStoreDataset<T> extends AbstractDataset implements ObjectStor
     return decode(read);
   }
 
+  @ReadOnly
+  @Override
+  public Map<byte[], T> readAll(byte[][] keys) {
+    Map<byte[], T> objects = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    for (Map.Entry<byte[], byte[]> entry : kvTable.readAll(keys).entrySet()) {
+      objects.put(entry.getKey(), decode(entry.getValue()));
+    }
+    return objects;
+  }
+
   @WriteOnly
   @Override
   public void delete(byte[] key) {
@@ -150,9 +164,11 @@ public class ObjectStoreDataset<T> extends AbstractDataset implements ObjectStor
   }
 
   @SuppressWarnings("unchecked")
-  private ReflectionDatumReader<T> getReflectionDatumReader() {
+  private DatumReader<T> getDatumReader() {
     if (datumReader == null) {
-      datumReader = new ReflectionDatumReader<>(schema, (TypeToken<T>) TypeToken.of(this.typeRep.toType()));
+      // Fields are set through reflection, since the type is usually loaded by the program classloader
+      datumReader = new ResolvingDatumReaderFactory(new ReflectionFieldAccessorFactory())
+        .create((TypeToken<T>) TypeToken.of(this.typeRep.toType()), schema);
     }
     return datumReader;
   }
@@ -165,7 +181,7 @@ public class ObjectStoreDataset<T> extends AbstractDataset implements ObjectStor
     ByteArrayInputStream bis = new ByteArrayInputStream(bytes);
     BinaryDecoder decoder = new BinaryDecoder(bis);
     try {
-      return getReflectionDatumReader().read(decoder, this.schema);
+      return getDatumReader().read(decoder, this.schema);
     } catch (IOException e) {
       // SHOULD NEVER happen
       throw new DataSetException("Failed to decode read object: " + e.getMessage(), e);
@@ -228,8 +228,14 @@ public final class FactTable implements Closeable {
       }
     }
     endRow = Bytes.stopKeyForPrefix(endRow);
-    FuzzyRowFilter fuzzyRowFilter =
-      measureNames.isEmpty() ? createFuzzyRowFilter(scan, startRow) : createFuzzyRowFilter(scan, measureNames);
+    // The aggregation group and the time base lead the row key, so a scan of all dimension values and measures is
+    // fully bounded by its start and end rows and does not need to be filtered row by row
+    FuzzyRowFilter fuzzyRowFilter = null;
+    if (!measureNames.isEmpty()) {
+      fuzzyRowFilter = createFuzzyRowFilter(scan, measureNames);
+    } else if (hasDimensionValue(scan.getDimensionValues())) {
+      fuzzyRowFilter = createFuzzyRowFilter(scan, startRow);
+    }
 
     if (LOG.isTraceEnabled()) {
       LOG.trace("Scanning fact table {} with scan: {}; constructed startRow: {}, endRow: {}, fuzzyRowFilter: {}",
@@ -454,6 +460,15 @@ public final class FactTable implements Closeable {
     return factCounterCache;
   }
 
+  private static boolean hasDimensionValue(List<DimensionValue> dimensionValues) {
+    for (DimensionValue dimensionValue : dimensionValues) {
+      if (dimensionValue.getValue() != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private FuzzyRowFilter createFuzzyRowFilter(FactScan scan, List<String> measureNames) {
     List<ImmutablePair<byte[], byte[]>> fuzzyPairsList = new ArrayList<>();
     for (String measureName : measureNames) {
@@ -53,7 +53,7 @@ public final class StoreDefinition {
     WorkflowStore.createTables(tableAdmin, overWrite);
     ConfigStore.createTable(tableAdmin, overWrite);
     PreferencesStore.createTable(tableAdmin, overWrite);
-    ProvisionerStore.createTable(tableAdmin, overWrite);
+    ProvisionerStore.createTables(tableAdmin, overWrite);
     AppMetadataStore.createTables(tableAdmin, overWrite);
     ProfileStore.createTables(tableAdmin, overWrite);
     ProgramScheduleStore.createTables(tableAdmin, overWrite);
@@ -365,11 +365,27 @@ public final class StoreDefinition {
                        PROGRAM_TYPE_FIELD, PROGRAM_FIELD, RUN_FIELD, KEY_TYPE)
       .build();
 
-    public static void createTable(StructuredTableAdmin tableAdmin,
-                                   boolean overWrite) throws IOException, TableAlreadyExistsException {
+    public static final StructuredTableId CLUSTER_POOL_TABLE = new StructuredTableId("provisioner_cluster_pool");
+    public static final String POOL_KEY_FIELD = "pool_key";
+    public static final String CLUSTER_ID_FIELD = "cluster_id";
+    public static final String POOLED_CLUSTER_FIELD = "pooled_cluster";
+
+    public static final StructuredTableSpecification CLUSTER_POOL_SPEC = new StructuredTableSpecification.Builder()
+      .withId(CLUSTER_POOL_TABLE)
+      .withFields(Fields.stringType(POOL_KEY_FIELD),
+                  Fields.stringType(CLUSTER_ID_FIELD),
+                  Fields.stringType(POOLED_CLUSTER_FIELD))
+      .withPrimaryKeys(POOL_KEY_FIELD, CLUSTER_ID_FIELD)
+      .build();
+
+    public static void createTables(StructuredTableAdmin tableAdmin,
+                                    boolean overWrite) throws IOException, TableAlreadyExistsException {
       if (overWrite || tableAdmin.getSpecification(PROVISIONER_TABLE) == null) {
         tableAdmin.create(PROVISIONER_STORE_SPEC);
       }
+      if (overWrite || tableAdmin.getSpecification(CLUSTER_POOL_TABLE) == null) {
+        tableAdmin.create(CLUSTER_POOL_SPEC);
+      }
     }
   }
   /**
@@ -423,6 +423,77 @@ public class IndexedTableTest {
     }
   }
 
+  @Test
+  public void testIndexScanPrefetch() throws Exception {
+    DatasetId prefetchTabInstance = DatasetFrameworkTestUtil.NAMESPACE_ID.dataset("prefetchtab");
+    dsFrameworkUtil.createInstance("indexedTable", prefetchTabInstance, DatasetProperties.builder()
+      .add(IndexedTable.INDEX_COLUMNS_CONF_KEY, idxColString)
+      .add(IndexedTable.INDEX_SCAN_PREFETCH_SIZE, "3")
+      .build());
+    final IndexedTable iTable = dsFrameworkUtil.getInstance(prefetchTabInstance);
+    try {
+      TransactionExecutor tx = dsFrameworkUtil.newTransactionExecutor(iTable);
+      tx.execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          // rows with index values 1 and 2 are interleaved, so that every prefetch also reads non-matching entries
+          for (int i = 0; i < 10; i++) {
+            iTable.put(Bytes.toBytes(i), colIdxVal, new byte[][] { i % 2 == 0 ? idx1 : idx2, Bytes.toBytes(i) });
+          }
+        }
+      });
+
+      tx.execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          // all matching rows are returned in the order of the index, across multiple prefetches
+          Scanner scanner = iTable.readByIndex(idxCol, idx1);
+          try {
+            for (int i = 0; i < 10; i += 2) {
+              Row row = scanner.next();
+              Assert.assertNotNull(row);
+              Assert.assertArrayEquals(Bytes.toBytes(i), row.getRow());
+              Assert.assertArrayEquals(Bytes.toBytes(i), row.get(valCol));
+            }
+            assertEmpty(scanner);
+          } finally {
+            scanner.close();
+          }
+
+          scanner = iTable.scanByIndex(idxCol, idx1, idx3);
+          try {
+            int count = 0;
+            for (Row row = scanner.next(); row != null; row = scanner.next()) {
+              count++;
+            }
+            Assert.assertEquals(10, count);
+          } finally {
+            scanner.close();
+          }
+
+          // a row deleted within the transaction is skipped, since its index entry is deleted too
+          iTable.delete(Bytes.toBytes(4));
+          scanner = iTable.readByIndex(idxCol, idx1);
+          try {
+            for (int i = 0; i < 10; i += 2) {
+              if (i == 4) {
+                continue;
+              }
+              Row row = scanner.next();
+              Assert.assertNotNull(row);
+              Assert.assertArrayEquals(Bytes.toBytes(i), row.getRow());
+            }
+            assertEmpty(scanner);
+          } finally {
+            scanner.close();
+          }
+        }
+      });
+    } finally {
+      dsFrameworkUtil.deleteInstance(prefetchTabInstance);
+    }
+  }
+
   @Test
   public void testMultipleIndexedColumns() throws Exception {
     DatasetId multiColumnTabInstance =
@@ -26,10 +26,12 @@ import io.cdap.cdap.api.dataset.table.Put;
 import io.cdap.cdap.api.dataset.table.Row;
 import io.cdap.cdap.api.dataset.table.Table;
 import io.cdap.cdap.data2.dataset2.DatasetFrameworkTestUtil;
+import io.cdap.cdap.internal.io.ReflectionFieldAccessorFactory;
 import io.cdap.cdap.internal.io.ReflectionPutWriter;
 import io.cdap.cdap.internal.io.ReflectionRowReader;
 import io.cdap.cdap.internal.io.ReflectionRowRecordReader;
 import io.cdap.cdap.internal.io.ReflectionSchemaGenerator;
+import io.cdap.cdap.internal.io.ResolvingRowReader;
 import io.cdap.cdap.proto.id.DatasetId;
 import org.apache.tephra.TransactionAware;
 import org.apache.tephra.TransactionExecutor;
@@ -255,6 +257,9 @@ public class ReflectionTableTest {
           ReflectionRowReader<User2> rowReader = new ReflectionRowReader<>(projSchema, TypeToken.of(User2.class));
           User2 actual = rowReader.read(row, fullSchema);
           Assert.assertEquals(projected, actual);
+          ResolvingRowReader<User2> resolvingReader = new ResolvingRowReader<>(projSchema, TypeToken.of(User2.class),
+                                                                               new ReflectionFieldAccessorFactory());
+          Assert.assertEquals(projected, resolvingReader.read(row, fullSchema));
         }
       });
     } finally {
@@ -336,6 +341,9 @@ public class ReflectionTableTest {
         ReflectionRowReader<User> rowReader = new ReflectionRowReader<>(schema, TypeToken.of(User.class));
         User actual = rowReader.read(row, schema);
         Assert.assertEquals(obj, actual);
+        ResolvingRowReader<User> resolvingReader = new ResolvingRowReader<>(schema, TypeToken.of(User.class),
+                                                                            new ReflectionFieldAccessorFactory());
+        Assert.assertEquals(obj, resolvingReader.read(row, schema));
       }
     });
   }
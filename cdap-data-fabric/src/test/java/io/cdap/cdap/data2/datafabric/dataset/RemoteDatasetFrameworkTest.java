@@ -17,14 +17,19 @@
 package io.cdap.cdap.data2.datafabric.dataset;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.Service;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Scopes;
 import com.google.inject.Singleton;
+import io.cdap.cdap.api.dataset.DatasetDefinition;
 import io.cdap.cdap.api.dataset.DatasetManagementException;
+import io.cdap.cdap.api.dataset.DatasetProperties;
+import io.cdap.cdap.api.dataset.table.Table;
 import io.cdap.cdap.api.metrics.MetricsCollectionService;
 import io.cdap.cdap.common.conf.CConfigurationUtil;
 import io.cdap.cdap.common.conf.Constants;
@@ -34,11 +39,13 @@ import io.cdap.cdap.common.discovery.RandomEndpointStrategy;
 import io.cdap.cdap.common.guice.ConfigModule;
 import io.cdap.cdap.common.guice.InMemoryDiscoveryModule;
 import io.cdap.cdap.common.metrics.NoOpMetricsCollectionService;
+import io.cdap.cdap.common.utils.Tasks;
 import io.cdap.cdap.data.dataset.SystemDatasetInstantiatorFactory;
 import io.cdap.cdap.data.runtime.StorageModule;
 import io.cdap.cdap.data.runtime.SystemDatasetRuntimeModule;
 import io.cdap.cdap.data2.datafabric.dataset.instance.DatasetInstanceManager;
 import io.cdap.cdap.data2.datafabric.dataset.service.AuthorizationDatasetTypeService;
+import io.cdap.cdap.data2.datafabric.dataset.service.DatasetChangePublisher;
 import io.cdap.cdap.data2.datafabric.dataset.service.DatasetInstanceService;
 import io.cdap.cdap.data2.datafabric.dataset.service.DatasetService;
 import io.cdap.cdap.data2.datafabric.dataset.service.DatasetTypeService;
@@ -48,16 +55,23 @@ import io.cdap.cdap.data2.datafabric.dataset.service.executor.DatasetAdminServic
 import io.cdap.cdap.data2.datafabric.dataset.service.executor.DatasetOpExecutor;
 import io.cdap.cdap.data2.datafabric.dataset.service.executor.DatasetOpExecutorService;
 import io.cdap.cdap.data2.datafabric.dataset.service.executor.RemoteDatasetOpExecutor;
+import io.cdap.cdap.data2.datafabric.dataset.type.ConstantClassLoaderProvider;
+import io.cdap.cdap.data2.datafabric.dataset.type.DatasetClassLoaderProvider;
 import io.cdap.cdap.data2.datafabric.dataset.type.DatasetTypeManager;
 import io.cdap.cdap.data2.dataset2.AbstractDatasetFrameworkTest;
 import io.cdap.cdap.data2.dataset2.DatasetDefinitionRegistryFactory;
 import io.cdap.cdap.data2.dataset2.DatasetFramework;
 import io.cdap.cdap.data2.dataset2.DefaultDatasetDefinitionRegistryFactory;
+import io.cdap.cdap.data2.metadata.lineage.AccessType;
 import io.cdap.cdap.data2.metadata.writer.NoOpMetadataServiceClient;
 import io.cdap.cdap.data2.transaction.DelegatingTransactionSystemClientService;
 import io.cdap.cdap.data2.transaction.TransactionSystemClientService;
 import io.cdap.cdap.explore.client.DiscoveryExploreClient;
 import io.cdap.cdap.explore.client.ExploreFacade;
+import io.cdap.cdap.messaging.MessagingService;
+import io.cdap.cdap.messaging.guice.MessagingServerRuntimeModule;
+import io.cdap.cdap.proto.DatasetMeta;
+import io.cdap.cdap.proto.id.DatasetId;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.security.auth.context.AuthenticationContextModules;
 import io.cdap.cdap.security.authorization.AuthorizationEnforcementModule;
@@ -86,6 +100,8 @@ import org.junit.Test;
 
 import java.util.HashSet;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
 
 /**
  * Tests for {@link RemoteDatasetFramework}
@@ -95,6 +111,9 @@ public class RemoteDatasetFrameworkTest extends AbstractDatasetFrameworkTest {
   private DatasetOpExecutorService opExecutorService;
   private DatasetService service;
   private RemoteDatasetFramework framework;
+  private DiscoveryServiceClient discoveryServiceClient;
+  private AuthenticationContext authenticationContext;
+  private DatasetInstanceService instanceService;
 
   @Before
   public void before() throws Exception {
@@ -140,9 +159,9 @@ public class RemoteDatasetFrameworkTest extends AbstractDatasetFrameworkTest {
     TransactionSystemClientService txSystemClientService = new DelegatingTransactionSystemClientService(txSystemClient);
 
     DiscoveryService discoveryService = injector.getInstance(DiscoveryService.class);
-    DiscoveryServiceClient discoveryServiceClient = injector.getInstance(DiscoveryServiceClient.class);
+    discoveryServiceClient = injector.getInstance(DiscoveryServiceClient.class);
     MetricsCollectionService metricsCollectionService = injector.getInstance(MetricsCollectionService.class);
-    AuthenticationContext authenticationContext = injector.getInstance(AuthenticationContext.class);
+    authenticationContext = injector.getInstance(AuthenticationContext.class);
 
     framework = new RemoteDatasetFramework(cConf, discoveryServiceClient, registryFactory, authenticationContext);
     SystemDatasetInstantiatorFactory datasetInstantiatorFactory =
@@ -171,11 +190,11 @@ public class RemoteDatasetFrameworkTest extends AbstractDatasetFrameworkTest {
 
 
     DatasetOpExecutor opExecutor = new RemoteDatasetOpExecutor(discoveryServiceClient, authenticationContext);
-    DatasetInstanceService instanceService = new DatasetInstanceService(typeService, noAuthTypeService,
-                                                                        instanceManager, opExecutor,
-                                                                        exploreFacade, namespaceQueryAdmin, ownerAdmin,
-                                                                        authorizationEnforcer, authenticationContext,
-                                                                        new NoOpMetadataServiceClient());
+    instanceService = new DatasetInstanceService(typeService, noAuthTypeService,
+                                                 instanceManager, opExecutor,
+                                                 exploreFacade, namespaceQueryAdmin, ownerAdmin,
+                                                 authorizationEnforcer, authenticationContext,
+                                                 new NoOpMetadataServiceClient());
     instanceService.setAuditPublisher(inMemoryAuditPublisher);
 
     service = new DatasetService(cConf, SConfiguration.create(),
@@ -210,6 +229,90 @@ public class RemoteDatasetFrameworkTest extends AbstractDatasetFrameworkTest {
     }
   }
 
+  @Test
+  public void testDatasetMetaCache() throws Exception {
+    Injector injector = Guice.createInjector(
+      new ConfigModule(cConf),
+      new InMemoryDiscoveryModule(),
+      new MessagingServerRuntimeModule().getInMemoryModules(),
+      new AbstractModule() {
+        @Override
+        protected void configure() {
+          bind(MetricsCollectionService.class).to(NoOpMetricsCollectionService.class).in(Singleton.class);
+        }
+      }
+    );
+    MessagingService messagingService = injector.getInstance(MessagingService.class);
+    if (messagingService instanceof Service) {
+      ((Service) messagingService).startAndWait();
+    }
+    DatasetMetaCache metaCache = new DatasetMetaCache(cConf, messagingService);
+    metaCache.startAndWait();
+    try {
+      DatasetChangePublisher changePublisher = new DatasetChangePublisher(cConf);
+      changePublisher.setMessagingService(messagingService);
+      instanceService.setDatasetChangePublisher(changePublisher);
+
+      // A framework that counts the remote calls for getting dataset instances and the registries it creates
+      AtomicInteger remoteCalls = new AtomicInteger();
+      AtomicInteger registries = new AtomicInteger();
+      DatasetDefinitionRegistryFactory countingRegistryFactory = () -> {
+        registries.incrementAndGet();
+        return registryFactory.create();
+      };
+      RemoteDatasetFramework cachingFramework = new RemoteDatasetFramework(cConf, discoveryServiceClient,
+                                                                           countingRegistryFactory,
+                                                                           authenticationContext) {
+        @Override
+        DatasetServiceClient createServiceClient(DiscoveryServiceClient discoveryClient, NamespaceId namespace,
+                                                 AuthenticationContext authenticationContext) {
+          return new DatasetServiceClient(discoveryClient, namespace, cConf, authenticationContext) {
+            @Nullable
+            @Override
+            public DatasetMeta getInstance(String instanceName) throws DatasetManagementException {
+              remoteCalls.incrementAndGet();
+              return super.getInstance(instanceName);
+            }
+          };
+        }
+      };
+      cachingFramework.setDatasetMetaCache(metaCache);
+
+      DatasetId datasetId = NAMESPACE_ID.dataset("cached");
+      framework.addInstance("table", datasetId, DatasetProperties.EMPTY);
+
+      DatasetClassLoaderProvider classLoaderProvider = new ConstantClassLoaderProvider();
+      for (int i = 0; i < 10000; i++) {
+        Table table = cachingFramework.getDataset(datasetId, DatasetDefinition.NO_ARGUMENTS, null,
+                                                  classLoaderProvider, null, AccessType.UNKNOWN);
+        Assert.assertNotNull(table);
+        table.close();
+      }
+      Assert.assertEquals(1, remoteCalls.get());
+      // The dataset type is instantiated once and then taken from the type cache
+      Assert.assertEquals(1, registries.get());
+
+      // Updating the dataset through another client should invalidate the cache through the change topic
+      framework.updateInstance(datasetId, DatasetProperties.of(ImmutableMap.of("key", "value")));
+      Tasks.waitFor(true, () -> {
+        cachingFramework.getDataset(datasetId, DatasetDefinition.NO_ARGUMENTS, null,
+                                    classLoaderProvider, null, AccessType.UNKNOWN);
+        return remoteCalls.get() > 1;
+      }, 10, TimeUnit.SECONDS, 100, TimeUnit.MILLISECONDS);
+
+      // Deleting the dataset through the caching framework invalidates the cache immediately
+      cachingFramework.deleteInstance(datasetId);
+      Assert.assertNull(cachingFramework.getDataset(datasetId, DatasetDefinition.NO_ARGUMENTS, null,
+                                                    classLoaderProvider, null, AccessType.UNKNOWN));
+    } finally {
+      metaCache.stopAndWait();
+      instanceService.setDatasetChangePublisher(null);
+      if (messagingService instanceof Service) {
+        ((Service) messagingService).stopAndWait();
+      }
+    }
+  }
+
   @After
   public void after() {
     Futures.getUnchecked(Services.chainStop(service, opExecutorService, txManager));
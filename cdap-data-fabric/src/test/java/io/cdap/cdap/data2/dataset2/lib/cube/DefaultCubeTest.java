@@ -16,14 +16,26 @@
 
 package io.cdap.cdap.data2.dataset2.lib.cube;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.cdap.cdap.api.dataset.lib.cube.AggregationFunction;
 import io.cdap.cdap.api.dataset.lib.cube.Cube;
+import io.cdap.cdap.api.dataset.lib.cube.CubeQuery;
+import io.cdap.cdap.api.dataset.lib.cube.TimeSeries;
 import io.cdap.cdap.data2.dataset2.lib.table.inmemory.InMemoryMetricsTable;
 import io.cdap.cdap.data2.dataset2.lib.table.inmemory.InMemoryTableService;
 import io.cdap.cdap.data2.dataset2.lib.timeseries.EntityTable;
 import io.cdap.cdap.data2.dataset2.lib.timeseries.FactTable;
+import org.junit.Assert;
+import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  *
@@ -32,7 +44,12 @@ public class DefaultCubeTest extends AbstractCubeTest {
 
   @Override
   protected Cube getCube(final String name, int[] resolutions, Map<String, ? extends Aggregation> aggregations) {
-    FactTableSupplier supplier = (resolution, rollTime) -> {
+    return new DefaultCube(resolutions, getFactTableSupplier(name), aggregations,
+                           ImmutableMap.<String, AggregationAlias>of());
+  }
+
+  private FactTableSupplier getFactTableSupplier(String name) {
+    return (resolution, rollTime) -> {
       String entityTableName = "EntityTable-" + name;
       InMemoryTableService.create(entityTableName);
       String dataTableName = "DataTable-" + name + "-" + resolution;
@@ -42,7 +59,108 @@ public class DefaultCubeTest extends AbstractCubeTest {
                            resolution, rollTime);
 
     };
+  }
+
+  @Test
+  public void testQueryTopSeries() throws Exception {
+    Aggregation agg = new DefaultAggregation(ImmutableList.of("dim1", "dim2"), ImmutableList.of("dim1"));
+    DefaultCube cube = (DefaultCube) getCube("testTopSeries", new int[] {1}, ImmutableMap.of("agg", agg));
+
+    // series for dim2 = "i" sums up to 3 * i, spread over different timestamps and dim1 values
+    for (int i = 1; i <= 10; i++) {
+      writeInc(cube, "metric1", 1, i, "a", String.valueOf(i));
+      writeInc(cube, "metric1", 2, i, "b", String.valueOf(i));
+      writeInc(cube, "metric1", 2, i, "c", String.valueOf(i));
+    }
+
+    CubeQuery query = CubeQuery.builder()
+      .select()
+        .measurement("metric1", AggregationFunction.SUM)
+      .from().resolution(1, TimeUnit.SECONDS)
+      .where()
+        .dimensions(ImmutableMap.of())
+        .timeRange(0, 10)
+      .groupBy()
+        .dimension("dim2")
+      .limit(Integer.MAX_VALUE)
+      .build();
+
+    // only the three series with the largest sums should be returned, with all of their data points
+    List<TimeSeries> result = new ArrayList<>();
+    cube.query(query, 3, result::add);
+    Assert.assertEquals(3, result.size());
+    Set<TimeSeries> expected = new HashSet<>();
+    for (int i = 8; i <= 10; i++) {
+      expected.add(new TimeSeries("metric1", ImmutableMap.of("dim2", String.valueOf(i)),
+                                  timeValues(1, i, 2, 2 * i)));
+    }
+    Assert.assertEquals(expected, new HashSet<>(result));
+
+    // without a limit on the number of series, the streaming query returns the same as the regular one
+    result.clear();
+    cube.query(query, Integer.MAX_VALUE, result::add);
+    Assert.assertEquals(10, result.size());
+    Assert.assertEquals(new HashSet<>(cube.query(query)), new HashSet<>(result));
+
+    try {
+      cube.query(query, 0, result::add);
+      Assert.fail("Expected the query to fail for a non-positive maximum number of series");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testRollup() throws Exception {
+    Aggregation agg = new DefaultAggregation(ImmutableList.of("dim1", "dim2"));
+    DefaultCube cube = new DefaultCube(new int[] {1, 10}, getFactTableSupplier("testRollup"),
+                                       ImmutableMap.of("agg", agg), ImmutableMap.of(), ImmutableSet.of(10));
+
+    writeInc(cube, "metric1", 1, 1, "a", "x");
+    writeInc(cube, "metric1", 5, 2, "a", "x");
+    writeInc(cube, "metric1", 12, 3, "a", "x");
+    writeInc(cube, "metric1", 3, 4, "b", "x");
+    writeGauge(cube, "metric2", 2, 7, "a", "x");
+    writeGauge(cube, "metric2", 8, 9, "a", "x");
+
+    // counters are not written to the rollup resolution on ingest, gauges are
+    Assert.assertTrue(cube.query(buildQuery("metric1", AggregationFunction.SUM, 10)).isEmpty());
+    Set<TimeSeries> expectedGauges = ImmutableSet.of(
+      new TimeSeries("metric2", ImmutableMap.of("dim1", "a"), timeValues(0, 9)));
+    Assert.assertEquals(expectedGauges,
+                        new HashSet<>(cube.query(buildQuery("metric2", AggregationFunction.LATEST, 10))));
+
+    Set<TimeSeries> expectedCounters = ImmutableSet.of(
+      new TimeSeries("metric1", ImmutableMap.of("dim1", "a"), timeValues(0, 3, 10, 3)),
+      new TimeSeries("metric1", ImmutableMap.of("dim1", "b"), timeValues(0, 4)));
+    // rolling up multiple times gives the same result and leaves the gauges written on ingest untouched
+    for (int i = 0; i < 2; i++) {
+      cube.rollup(1, 10, 0, 20);
+      Assert.assertEquals(expectedCounters,
+                          new HashSet<>(cube.query(buildQuery("metric1", AggregationFunction.SUM, 10))));
+      Assert.assertEquals(expectedGauges,
+                          new HashSet<>(cube.query(buildQuery("metric2", AggregationFunction.LATEST, 10))));
+    }
+
+    try {
+      cube.rollup(10, 1, 0, 20);
+      Assert.fail("Expected the rollup to fail for a resolution that is written on ingest");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
 
-    return new DefaultCube(resolutions, supplier, aggregations, ImmutableMap.<String, AggregationAlias>of());
+  private CubeQuery buildQuery(String measureName, AggregationFunction function, int resolution) {
+    return CubeQuery.builder()
+      .select()
+        .measurement(measureName, function)
+      .from().resolution(resolution, TimeUnit.SECONDS)
+      .where()
+        .dimensions(ImmutableMap.of())
+        .timeRange(0, 19)
+      .groupBy()
+        .dimension("dim1")
+      .limit(Integer.MAX_VALUE)
+      .build();
   }
 }
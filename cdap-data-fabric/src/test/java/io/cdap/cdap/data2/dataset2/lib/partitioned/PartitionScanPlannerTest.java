@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.data2.dataset2.lib.partitioned;
+
+import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.api.dataset.lib.PartitionFilter;
+import io.cdap.cdap.api.dataset.lib.Partitioning;
+import io.cdap.cdap.api.dataset.lib.Partitioning.FieldType;
+import io.cdap.cdap.api.dataset.table.Scan;
+import io.cdap.cdap.common.utils.ImmutablePair;
+import io.cdap.cdap.data2.dataset2.lib.table.FuzzyRowFilter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Unit tests for {@link PartitionScanPlanner}.
+ */
+public class PartitionScanPlannerTest {
+
+  private static final byte[] SEPARATOR = { 0 };
+
+  private static final Partitioning PARTITIONING = Partitioning.builder()
+    .addStringField("s")
+    .addIntField("i")
+    .addLongField("l")
+    .build();
+
+  private static final Partitioning INT_PARTITIONING = Partitioning.builder()
+    .addIntField("i")
+    .addLongField("l")
+    .build();
+
+  @Test
+  public void testNoFilter() {
+    List<Scan> scans = PartitionScanPlanner.plan(PARTITIONING, null);
+    Assert.assertEquals(1, scans.size());
+    Assert.assertNull(scans.get(0).getStartRow());
+    Assert.assertNull(scans.get(0).getStopRow());
+    Assert.assertNull(scans.get(0).getFilter());
+  }
+
+  @Test
+  public void testLeadingSingleValue() {
+    List<Scan> scans = PartitionScanPlanner.plan(PARTITIONING, PartitionFilter.builder()
+      .addValueCondition("s", "a").build());
+    Assert.assertEquals(1, scans.size());
+    Assert.assertArrayEquals(Bytes.add(Bytes.toBytes("a"), SEPARATOR), scans.get(0).getStartRow());
+    Assert.assertArrayEquals(Bytes.add(Bytes.toBytes("a"), new byte[] { 1 }), scans.get(0).getStopRow());
+    Assert.assertNull(scans.get(0).getFilter());
+  }
+
+  @Test
+  public void testCompleteKey() {
+    List<Scan> scans = PartitionScanPlanner.plan(PARTITIONING, PartitionFilter.builder()
+      .addValueCondition("l", 5L)
+      .addValueCondition("s", "a")
+      .addValueCondition("i", 1)
+      .build());
+    Assert.assertEquals(1, scans.size());
+    byte[] rowKey = rowKey("a", 1, 5L);
+    Assert.assertArrayEquals(rowKey, scans.get(0).getStartRow());
+    Assert.assertArrayEquals(Bytes.add(rowKey, new byte[] { 1 }), scans.get(0).getStopRow());
+  }
+
+  @Test
+  public void testEnumeratedRange() {
+    // the range of i is enumerated so that the condition on l also narrows the scans
+    List<Scan> scans = PartitionScanPlanner.plan(PARTITIONING, PartitionFilter.builder()
+      .addValueCondition("s", "a")
+      .addRangeCondition("i", 1, 3)
+      .addValueCondition("l", 5L)
+      .build());
+    Assert.assertEquals(2, scans.size());
+    Assert.assertArrayEquals(rowKey("a", 1, 5L), scans.get(0).getStartRow());
+    Assert.assertArrayEquals(rowKey("a", 2, 5L), scans.get(1).getStartRow());
+
+    // without a condition on a following field, the range only bounds the scan
+    scans = PartitionScanPlanner.plan(PARTITIONING, PartitionFilter.builder()
+      .addValueCondition("s", "a")
+      .addRangeCondition("i", 1, 3)
+      .build());
+    Assert.assertEquals(1, scans.size());
+    byte[] prefix = Bytes.add(Bytes.toBytes("a"), SEPARATOR);
+    Assert.assertArrayEquals(Bytes.add(prefix, FieldTypes.toBytes(1, FieldType.INT)), scans.get(0).getStartRow());
+    Assert.assertArrayEquals(Bytes.add(prefix, FieldTypes.toBytes(3, FieldType.INT)), scans.get(0).getStopRow());
+  }
+
+  @Test
+  public void testLargeRange() {
+    // too many values to enumerate, the range bounds the scan and l is matched by a fuzzy filter
+    List<Scan> scans = PartitionScanPlanner.plan(INT_PARTITIONING, PartitionFilter.builder()
+      .addRangeCondition("i", 0, PartitionScanPlanner.MAX_KEY_RANGES + 1)
+      .addValueCondition("l", 5L)
+      .build());
+    Assert.assertEquals(1, scans.size());
+    Assert.assertArrayEquals(FieldTypes.toBytes(0, FieldType.INT), scans.get(0).getStartRow());
+    Assert.assertArrayEquals(FieldTypes.toBytes(PartitionScanPlanner.MAX_KEY_RANGES + 1, FieldType.INT),
+                             scans.get(0).getStopRow());
+    assertFuzzyFilter(scans.get(0));
+  }
+
+  @Test
+  public void testFuzzyFilter() {
+    List<Scan> scans = PartitionScanPlanner.plan(INT_PARTITIONING, PartitionFilter.builder()
+      .addValueCondition("l", 5L)
+      .build());
+    Assert.assertEquals(1, scans.size());
+    Assert.assertNull(scans.get(0).getStartRow());
+    Assert.assertNull(scans.get(0).getStopRow());
+    assertFuzzyFilter(scans.get(0));
+
+    // a variable-length field before the condition prevents the fuzzy filter
+    scans = PartitionScanPlanner.plan(PARTITIONING, PartitionFilter.builder()
+      .addValueCondition("l", 5L)
+      .build());
+    Assert.assertEquals(1, scans.size());
+    Assert.assertNull(scans.get(0).getFilter());
+  }
+
+  @Test
+  public void testEmptyRange() {
+    List<Scan> scans = PartitionScanPlanner.plan(INT_PARTITIONING, PartitionFilter.builder()
+      .addRangeCondition("i", 5, 2)
+      .addValueCondition("l", 5L)
+      .build());
+    Assert.assertTrue(scans.isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIncompatibleValue() {
+    PartitionScanPlanner.plan(PARTITIONING, PartitionFilter.builder().addValueCondition("s", 1).build());
+  }
+
+  /**
+   * Asserts that the scan has a fuzzy filter for {@link #INT_PARTITIONING} that matches any i and l = 5.
+   */
+  private void assertFuzzyFilter(Scan scan) {
+    Assert.assertTrue(scan.getFilter() instanceof FuzzyRowFilter);
+    List<ImmutablePair<byte[], byte[]>> fuzzyKeys = ((FuzzyRowFilter) scan.getFilter()).getFuzzyKeysData();
+    Assert.assertEquals(1, fuzzyKeys.size());
+    byte[] fuzzyKey = fuzzyKeys.get(0).getFirst();
+    byte[] fuzzyMask = fuzzyKeys.get(0).getSecond();
+    Assert.assertArrayEquals(Bytes.concat(new byte[Bytes.SIZEOF_INT], SEPARATOR,
+                                          FieldTypes.toBytes(5L, FieldType.LONG)), fuzzyKey);
+    Assert.assertArrayEquals(Bytes.concat(new byte[] { 1, 1, 1, 1 }, new byte[1 + Bytes.SIZEOF_LONG]), fuzzyMask);
+
+    FuzzyRowFilter filter = (FuzzyRowFilter) scan.getFilter();
+    Assert.assertEquals(FuzzyRowFilter.ReturnCode.INCLUDE,
+                        filter.filterRow(Bytes.concat(FieldTypes.toBytes(7, FieldType.INT), SEPARATOR,
+                                                      FieldTypes.toBytes(5L, FieldType.LONG))));
+    Assert.assertNotEquals(FuzzyRowFilter.ReturnCode.INCLUDE,
+                           filter.filterRow(Bytes.concat(FieldTypes.toBytes(7, FieldType.INT), SEPARATOR,
+                                                         FieldTypes.toBytes(6L, FieldType.LONG))));
+  }
+
+  private static byte[] rowKey(String s, int i, long l) {
+    return Bytes.concat(Bytes.toBytes(s), SEPARATOR, FieldTypes.toBytes(i, FieldType.INT), SEPARATOR,
+                        FieldTypes.toBytes(l, FieldType.LONG));
+  }
+}
@@ -939,6 +939,73 @@ public class PartitionedFileSetTest {
     Assert.assertTrue(absolutePath.isDirectory());
   }
 
+  @Test
+  public void testIndexedFieldFilter() throws Exception {
+    DatasetId indexedInstance = DatasetFrameworkTestUtil.NAMESPACE_ID.dataset("indexed");
+    dsFrameworkUtil.createInstance("partitionedFileSet", indexedInstance, PartitionedFileSetProperties.builder()
+      .setPartitioning(PARTITIONING_1)
+      .setIndexedFields(Collections.singleton("l"))
+      .setBasePath("indexedDir")
+      .build());
+    try {
+      final PartitionedFileSet pfs = dsFrameworkUtil.getInstance(indexedInstance);
+      dsFrameworkUtil.newTransactionExecutor((TransactionAware) pfs).execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          for (String s : new String[] { "a", "b" }) {
+            for (int i = 1; i <= 2; i++) {
+              for (long l = 10L; l <= 30L; l += 10) {
+                pfs.addPartition(PartitionKey.builder().addField("s", s).addField("i", i).addField("l", l).build(),
+                                 String.format("%s/%d/%d", s, i, l));
+              }
+            }
+          }
+        }
+      });
+
+      dsFrameworkUtil.newTransactionExecutor((TransactionAware) pfs).execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          // single value of the indexed field, read through the index
+          Set<String> paths = new HashSet<>();
+          for (PartitionDetail detail : pfs.getPartitions(PartitionFilter.builder()
+                                                            .addValueCondition("l", 20L).build())) {
+            paths.add(detail.getRelativePath());
+          }
+          Assert.assertEquals(ImmutableSet.of("a/1/20", "a/2/20", "b/1/20", "b/2/20"), paths);
+
+          // range of the indexed field, combined with a condition on another field
+          paths.clear();
+          for (PartitionDetail detail : pfs.getPartitions(PartitionFilter.builder()
+                                                            .addRangeCondition("l", 20L, null)
+                                                            .addValueCondition("i", 2).build())) {
+            paths.add(detail.getRelativePath());
+          }
+          Assert.assertEquals(ImmutableSet.of("a/2/20", "a/2/30", "b/2/20", "b/2/30"), paths);
+
+          // filter on a non-indexed field that is not the leading field
+          paths.clear();
+          for (PartitionDetail detail : pfs.getPartitions(PartitionFilter.builder()
+                                                            .addValueCondition("i", 1).build())) {
+            paths.add(detail.getRelativePath());
+          }
+          Assert.assertEquals(ImmutableSet.of("a/1/10", "a/1/20", "a/1/30", "b/1/10", "b/1/20", "b/1/30"), paths);
+
+          // after dropping a partition, it must not be found through the index
+          pfs.dropPartition(PartitionKey.builder().addField("s", "a").addField("i", 1).addField("l", 20L).build());
+          paths.clear();
+          for (PartitionDetail detail : pfs.getPartitions(PartitionFilter.builder()
+                                                            .addValueCondition("l", 20L).build())) {
+            paths.add(detail.getRelativePath());
+          }
+          Assert.assertEquals(ImmutableSet.of("a/2/20", "b/1/20", "b/2/20"), paths);
+        }
+      });
+    } finally {
+      dsFrameworkUtil.deleteInstance(indexedInstance);
+    }
+  }
+
   @Test
   @Category(SlowTests.class)
   public void testAddRemoveGetPartitions() throws Exception {
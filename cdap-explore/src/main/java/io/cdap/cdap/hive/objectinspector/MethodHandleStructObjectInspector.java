@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.hive.objectinspector;
+
+import com.google.common.base.Throwables;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link ReflectionStructObjectInspector} that reads the fields of struct objects through {@link MethodHandle}s
+ * created once per field, instead of through Java reflection on every access.
+ *
+ * Always use the ObjectInspectorFactory with {@link ObjectInspectorFactory.ObjectInspectorOptions#METHOD_HANDLE}
+ * to create new instances of this class.
+ */
+public class MethodHandleStructObjectInspector extends ReflectionStructObjectInspector {
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  /**
+   * A struct field with the {@link MethodHandle} for reading it.
+   */
+  public static class MethodHandleField extends MyField {
+
+    private final MethodHandle getter;
+
+    public MethodHandleField(int fieldId, Field field, ObjectInspector fieldObjectInspector) {
+      super(fieldId, field, fieldObjectInspector);
+      try {
+        this.getter = MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+      } catch (IllegalAccessException e) {
+        throw new IllegalArgumentException("Cannot access field " + field, e);
+      }
+    }
+
+    private Object get(Object data) {
+      try {
+        return (Object) getter.invokeExact(data);
+      } catch (Throwable t) {
+        throw Throwables.propagate(t);
+      }
+    }
+  }
+
+  /**
+   * Creates an uninitialized ObjectInspector. See {@link ReflectionStructObjectInspector} for details.
+   */
+  MethodHandleStructObjectInspector() {
+  }
+
+  @Override
+  void init(Class<?> objectClass, List<ObjectInspector> structFieldObjectInspectors) {
+    // the fields are made accessible by the parent, before the getters are created
+    super.init(objectClass, structFieldObjectInspectors);
+    List<MyField> handleFields = new ArrayList<>(fields.size());
+    for (MyField field : fields) {
+      handleFields.add(new MethodHandleField(field.fieldId, field.field, field.fieldObjectInspector));
+    }
+    fields = handleFields;
+  }
+
+  @Override
+  public Object getStructFieldData(Object data, StructField fieldRef) {
+    if (data == null) {
+      return null;
+    }
+    if (!(fieldRef instanceof MethodHandleField)) {
+      throw new RuntimeException("fieldRef has to be of MethodHandleField");
+    }
+    return ((MethodHandleField) fieldRef).get(data);
+  }
+
+  @Override
+  public List<Object> getStructFieldsDataAsList(Object data) {
+    if (data == null) {
+      return null;
+    }
+    List<Object> result = new ArrayList<>(fields.size());
+    for (MyField field : fields) {
+      result.add(((MethodHandleField) field).get(data));
+    }
+    return result;
+  }
+}
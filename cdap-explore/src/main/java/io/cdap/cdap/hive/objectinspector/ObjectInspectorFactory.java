@@ -19,6 +19,8 @@ package io.cdap.cdap.hive.objectinspector;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
 import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
@@ -52,22 +54,51 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public final class ObjectInspectorFactory {
 
+  /**
+   * Options for how the ObjectInspector of a Java object accesses the fields of struct objects.
+   */
+  public enum ObjectInspectorOptions {
+    /**
+     * Fields are read with Java reflection on every access.
+     */
+    REFLECTION,
+
+    /**
+     * Fields are read with {@link java.lang.invoke.MethodHandle}s that are created once per field.
+     * This is faster when inspecting many objects of the same type.
+     */
+    METHOD_HANDLE
+  }
+
   private static ConcurrentHashMap<Type, ObjectInspector> objectInspectorCache =
       new ConcurrentHashMap<>();
+  private static ConcurrentHashMap<Type, ObjectInspector> methodHandleObjectInspectorCache =
+      new ConcurrentHashMap<>();
+  private static ConcurrentHashMap<Schema, ObjectInspector> schemaObjectInspectorCache =
+      new ConcurrentHashMap<>();
 
   public static ObjectInspector getReflectionObjectInspector(Type t) {
-    ObjectInspector oi = objectInspectorCache.get(t);
+    return getReflectionObjectInspector(t, ObjectInspectorOptions.REFLECTION);
+  }
+
+  public static ObjectInspector getReflectionObjectInspector(Type t, ObjectInspectorOptions options) {
+    ConcurrentHashMap<Type, ObjectInspector> cache = getObjectInspectorCache(options);
+    ObjectInspector oi = cache.get(t);
     if (oi == null) {
-      oi = getReflectionObjectInspectorNoCache(t);
-      objectInspectorCache.put(t, oi);
+      oi = getReflectionObjectInspectorNoCache(t, options);
+      cache.put(t, oi);
     }
     return oi;
   }
 
-  private static ObjectInspector getReflectionObjectInspectorNoCache(Type t) {
+  private static ConcurrentHashMap<Type, ObjectInspector> getObjectInspectorCache(ObjectInspectorOptions options) {
+    return options == ObjectInspectorOptions.METHOD_HANDLE ? methodHandleObjectInspectorCache : objectInspectorCache;
+  }
+
+  private static ObjectInspector getReflectionObjectInspectorNoCache(Type t, ObjectInspectorOptions options) {
     if (t instanceof GenericArrayType) {
       GenericArrayType at = (GenericArrayType) t;
-      return getStandardListObjectInspector(getReflectionObjectInspector(at.getGenericComponentType()));
+      return getStandardListObjectInspector(getReflectionObjectInspector(at.getGenericComponentType(), options));
     }
 
     Map<TypeVariable, Type> genericTypes = null;
@@ -76,12 +107,12 @@ public final class ObjectInspectorFactory {
       Type rawType = pt.getRawType();
       // Collection?
       if (Collection.class.isAssignableFrom((Class<?>) rawType)) {
-        return getStandardListObjectInspector(getReflectionObjectInspector(pt.getActualTypeArguments()[0]));
+        return getStandardListObjectInspector(getReflectionObjectInspector(pt.getActualTypeArguments()[0], options));
       }
       // Map?
       if (Map.class.isAssignableFrom((Class<?>) rawType)) {
-        return getStandardMapObjectInspector(getReflectionObjectInspector(pt.getActualTypeArguments()[0]),
-                                             getReflectionObjectInspector(pt.getActualTypeArguments()[1]));
+        return getStandardMapObjectInspector(getReflectionObjectInspector(pt.getActualTypeArguments()[0], options),
+                                             getReflectionObjectInspector(pt.getActualTypeArguments()[1], options));
       }
       // Otherwise convert t to RawType so we will fall into the following if block.
       t = rawType;
@@ -125,7 +156,7 @@ public final class ObjectInspectorFactory {
 
     // Array
     if (c.isArray()) {
-      return getStandardListObjectInspector(getReflectionObjectInspector(c.getComponentType()));
+      return getStandardListObjectInspector(getReflectionObjectInspector(c.getComponentType(), options));
     }
 
     // Must be struct because List and Map need to be ParameterizedType
@@ -134,10 +165,12 @@ public final class ObjectInspectorFactory {
 
     Preconditions.checkState(!c.isInterface(), "Cannot inspect an interface.");
 
-    ReflectionStructObjectInspector oi = new ReflectionStructObjectInspector();
+    ReflectionStructObjectInspector oi = options == ObjectInspectorOptions.METHOD_HANDLE
+      ? new MethodHandleStructObjectInspector()
+      : new ReflectionStructObjectInspector();
     // put it into the cache BEFORE it is initialized to make sure we can catch
     // recursive types.
-    objectInspectorCache.put(t, oi);
+    getObjectInspectorCache(options).put(t, oi);
     Field[] fields = ObjectInspectorUtils.getDeclaredNonStaticFields(c);
     List<ObjectInspector> structFieldObjectInspectors = new ArrayList<>(fields.length);
     for (Field field : fields) {
@@ -154,13 +187,89 @@ public final class ObjectInspectorFactory {
                                      "Generic type " + newType + " not a parameter of class " + c);
           newType = genericTypes.get(newType);
         }
-        structFieldObjectInspectors.add(getReflectionObjectInspector(newType));
+        structFieldObjectInspectors.add(getReflectionObjectInspector(newType, options));
       }
     }
     oi.init(c, structFieldObjectInspectors);
     return oi;
   }
 
+  /**
+   * Returns the ObjectInspector for {@link StructuredRecord}s of the given record schema. The inspector of a schema
+   * is created once and reads fields by position from records that have that schema.
+   */
+  public static StructuredRecordObjectInspector getStructuredRecordObjectInspector(Schema schema) {
+    Schema recordSchema = schema.isNullable() ? schema.getNonNullable() : schema;
+    Preconditions.checkArgument(recordSchema.getType() == Schema.Type.RECORD,
+                                "Schema must be a record schema, but is %s", schema);
+    return (StructuredRecordObjectInspector) getSchemaObjectInspector(recordSchema);
+  }
+
+  private static ObjectInspector getSchemaObjectInspector(Schema schema) {
+    ObjectInspector oi = schemaObjectInspectorCache.get(schema);
+    if (oi == null) {
+      oi = getSchemaObjectInspectorNoCache(schema);
+      schemaObjectInspectorCache.put(schema, oi);
+    }
+    return oi;
+  }
+
+  private static ObjectInspector getSchemaObjectInspectorNoCache(Schema schema) {
+    if (schema.isNullable()) {
+      return getSchemaObjectInspector(schema.getNonNullable());
+    }
+    switch (schema.getType()) {
+      case NULL:
+        return PrimitiveObjectInspectorFactory.getPrimitiveJavaObjectInspector(
+            PrimitiveObjectInspector.PrimitiveCategory.VOID);
+      case BOOLEAN:
+        return PrimitiveObjectInspectorFactory.getPrimitiveJavaObjectInspector(
+            PrimitiveObjectInspector.PrimitiveCategory.BOOLEAN);
+      case INT:
+        return PrimitiveObjectInspectorFactory.getPrimitiveJavaObjectInspector(
+            PrimitiveObjectInspector.PrimitiveCategory.INT);
+      case LONG:
+        return PrimitiveObjectInspectorFactory.getPrimitiveJavaObjectInspector(
+            PrimitiveObjectInspector.PrimitiveCategory.LONG);
+      case FLOAT:
+        return PrimitiveObjectInspectorFactory.getPrimitiveJavaObjectInspector(
+            PrimitiveObjectInspector.PrimitiveCategory.FLOAT);
+      case DOUBLE:
+        return PrimitiveObjectInspectorFactory.getPrimitiveJavaObjectInspector(
+            PrimitiveObjectInspector.PrimitiveCategory.DOUBLE);
+      case BYTES:
+        return PrimitiveObjectInspectorFactory.getPrimitiveJavaObjectInspector(
+            PrimitiveObjectInspector.PrimitiveCategory.BINARY);
+      case STRING:
+      case ENUM:
+        return PrimitiveObjectInspectorFactory.getPrimitiveJavaObjectInspector(
+            PrimitiveObjectInspector.PrimitiveCategory.STRING);
+      case ARRAY:
+        return getStandardListObjectInspector(getSchemaObjectInspector(schema.getComponentSchema()));
+      case MAP:
+        return getStandardMapObjectInspector(getSchemaObjectInspector(schema.getMapSchema().getKey()),
+                                             getSchemaObjectInspector(schema.getMapSchema().getValue()));
+      case UNION:
+        List<ObjectInspector> unionObjectInspectors = new ArrayList<>();
+        for (Schema unionSchema : schema.getUnionSchemas()) {
+          unionObjectInspectors.add(getSchemaObjectInspector(unionSchema));
+        }
+        return getStandardUnionObjectInspector(unionObjectInspectors);
+      case RECORD:
+        StructuredRecordObjectInspector oi = new StructuredRecordObjectInspector();
+        // put it into the cache BEFORE it is initialized to make sure we can catch
+        // recursive schemas.
+        schemaObjectInspectorCache.put(schema, oi);
+        List<ObjectInspector> structFieldObjectInspectors = new ArrayList<>(schema.getFields().size());
+        for (Schema.Field field : schema.getFields()) {
+          structFieldObjectInspectors.add(getSchemaObjectInspector(field.getSchema()));
+        }
+        oi.init(schema, structFieldObjectInspectors);
+        return oi;
+    }
+    throw new IllegalArgumentException("Unsupported schema " + schema);
+  }
+
   static ConcurrentHashMap<ObjectInspector, StandardListObjectInspector> cachedStandardListObjectInspector =
       new ConcurrentHashMap<>();
 
@@ -0,0 +1,179 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.hive.objectinspector;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StructuredRecordObjectInspector works on {@link StructuredRecord}s of a record {@link Schema}. Fields of a record
+ * that has the schema of the inspector are read by their position, otherwise they are read by name.
+ *
+ * Always use the ObjectInspectorFactory to create new ObjectInspector objects,
+ * instead of directly creating an instance of this class.
+ */
+public class StructuredRecordObjectInspector extends StructObjectInspector {
+
+  /**
+   * A field of the record schema.
+   */
+  public static class RecordField implements StructField {
+
+    private final int fieldId;
+    private final String name;
+    private final String hiveName;
+    private final ObjectInspector fieldObjectInspector;
+
+    public RecordField(int fieldId, String name, ObjectInspector fieldObjectInspector) {
+      this.fieldId = fieldId;
+      this.name = name;
+      this.hiveName = name.toLowerCase();
+      this.fieldObjectInspector = fieldObjectInspector;
+    }
+
+    @Override
+    public String getFieldName() {
+      return hiveName;
+    }
+
+    @Override
+    public ObjectInspector getFieldObjectInspector() {
+      return fieldObjectInspector;
+    }
+
+    @Override
+    public int getFieldID() {
+      return fieldId;
+    }
+
+    @Override
+    public String getFieldComment() {
+      return null;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  private Schema schema;
+  private List<RecordField> fields;
+  // Another instance of the schema that is known to be equal, so that records that have it are read by position
+  private volatile Schema equalSchema;
+
+  /**
+   * Creates an uninitialized ObjectInspector, so that the ObjectInspectorFactory can put it into its cache
+   * before it initializes it with the inspectors of the fields, which might be of the same schema.
+   */
+  StructuredRecordObjectInspector() {
+  }
+
+  /**
+   * Initializes the inspector with the record schema and the inspectors of its fields, in the order of the fields.
+   */
+  void init(Schema schema, List<ObjectInspector> structFieldObjectInspectors) {
+    List<Schema.Field> schemaFields = schema.getFields();
+    assert (schemaFields.size() == structFieldObjectInspectors.size());
+
+    this.schema = schema;
+    this.fields = new ArrayList<>(schemaFields.size());
+    for (int i = 0; i < schemaFields.size(); i++) {
+      fields.add(new RecordField(i, schemaFields.get(i).getName(), structFieldObjectInspectors.get(i)));
+    }
+  }
+
+  @Override
+  public Category getCategory() {
+    return Category.STRUCT;
+  }
+
+  @Override
+  public String getTypeName() {
+    StringBuilder sb = new StringBuilder("struct<");
+    boolean first = true;
+    for (StructField structField : fields) {
+      if (first) {
+        first = false;
+      } else {
+        sb.append(",");
+      }
+      ObjectInspector oi = structField.getFieldObjectInspector();
+      // This prevents infinite loop for recursive schemas
+      sb.append(structField.getFieldName()).append(":").append(oi == this ? "this" : oi.getTypeName());
+    }
+    sb.append(">");
+    return sb.toString();
+  }
+
+  @Override
+  public StructField getStructFieldRef(String fieldName) {
+    return ObjectInspectorUtils.getStandardStructFieldRef(fieldName, fields);
+  }
+
+  @Override
+  public List<? extends StructField> getAllStructFieldRefs() {
+    return fields;
+  }
+
+  @Override
+  public Object getStructFieldData(Object data, StructField fieldRef) {
+    if (data == null) {
+      return null;
+    }
+    if (!(fieldRef instanceof RecordField)) {
+      throw new RuntimeException("fieldRef has to be of RecordField");
+    }
+    StructuredRecord record = (StructuredRecord) data;
+    RecordField field = (RecordField) fieldRef;
+    return hasSchema(record) ? record.get(field.fieldId) : record.get(field.name);
+  }
+
+  @Override
+  public List<Object> getStructFieldsDataAsList(Object data) {
+    if (data == null) {
+      return null;
+    }
+    StructuredRecord record = (StructuredRecord) data;
+    boolean hasSchema = hasSchema(record);
+    List<Object> result = new ArrayList<>(fields.size());
+    for (RecordField field : fields) {
+      result.add(hasSchema ? record.get(field.fieldId) : record.get(field.name));
+    }
+    return result;
+  }
+
+  private boolean hasSchema(StructuredRecord record) {
+    Schema recordSchema = record.getSchema();
+    if (recordSchema == schema || recordSchema == equalSchema) {
+      return true;
+    }
+    if (schema.equals(recordSchema)) {
+      equalSchema = recordSchema;
+      return true;
+    }
+    return false;
+  }
+}
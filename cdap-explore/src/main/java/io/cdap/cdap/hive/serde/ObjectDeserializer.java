@@ -27,6 +27,8 @@ import io.cdap.cdap.hive.objectinspector.ObjectInspectorFactory;
 import org.apache.hadoop.hive.serde.serdeConstants;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
 import org.apache.hadoop.hive.serde2.typeinfo.ListTypeInfo;
 import org.apache.hadoop.hive.serde2.typeinfo.MapTypeInfo;
 import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
@@ -35,7 +37,6 @@ import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
 
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.sql.Date;
 import java.sql.Timestamp;
@@ -46,11 +47,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Helper class for translating objects that fit a cdap {@link Schema} into objects
  * that Hive can understand.
+ *
+ * The lookup from Hive column names to schema fields is computed once per record schema. Record fields are read
+ * through struct ObjectInspectors that are created once per record schema for {@link StructuredRecord}s and once per
+ * class for Java objects, since this is done for every row of a query.
  */
 public class ObjectDeserializer {
   private final List<String> fieldNames;
@@ -59,6 +66,8 @@ public class ObjectDeserializer {
   // we can almost do without the schema. The problem is that everything in Hive is lowercase,
   // but when we look up record fields we need the case sensitive field name.
   private final Schema schema;
+  // Map from record schema to the readers of its fields in the order of the hive columns
+  private final Map<Schema, RecordFields> recordFields;
 
   /**
    * Creates an ObjectTranslator that will be able to deserialize objects that fit a {@link Schema} into objects
@@ -96,6 +105,7 @@ public class ObjectDeserializer {
     // determined outside of this class, such as the stream case where timestamp and headers are read elsewhere
     this.inspector = createInspector(fieldNames, fieldTypes);
     this.schema = schema;
+    this.recordFields = new ConcurrentHashMap<>();
   }
 
   /**
@@ -151,15 +161,12 @@ public class ObjectDeserializer {
       schema = schema.getNonNullable();
     }
 
-    Map<String, Schema.Field> fieldMap = getFieldMap(schema);
+    RecordFields fields = getRecordFields(schema, fieldNames);
+    FieldReader reader = fields.getReader(obj);
     List<Object> objectFields = Lists.newArrayListWithCapacity(fieldNames.size());
     for (int i = 0; i < fieldNames.size(); i++) {
-      String hiveName = fieldNames.get(i);
-      TypeInfo fieldType = fieldTypes.get(i);
-      Schema.Field schemaField = fieldMap.get(hiveName);
-      // use the name from the schema field in case it is not all lowercase
-      Object recordField = getRecordField(obj, schemaField.getName());
-      objectFields.add(deserializeField(recordField, fieldType, schemaField.getSchema()));
+      Object recordField = reader.inspector.getStructFieldData(obj, reader.fieldRefs[i]);
+      objectFields.add(deserializeField(recordField, fieldTypes.get(i), fields.schemaFields[i].getSchema()));
     }
     return objectFields;
   }
@@ -326,26 +333,73 @@ public class ObjectDeserializer {
     return translatedMap;
   }
 
-  // get a field from the object using the get method if the object is a StructuredRecord,
-  // or using reflection if it is not.
-  private Object getRecordField(Object record, String fieldName)
-    throws NoSuchFieldException, IllegalAccessException {
-    if (record instanceof StructuredRecord) {
-      return ((StructuredRecord) record).get(fieldName);
+  // get the fields of the record schema in the order of the given hive names.
+  private RecordFields getRecordFields(Schema schema, List<String> hiveNames) throws NoSuchFieldException {
+    RecordFields fields = recordFields.get(schema);
+    if (fields == null) {
+      fields = new RecordFields(schema, hiveNames);
+      recordFields.put(schema, fields);
     }
-    Class recordClass = record.getClass();
-    Field field = recordClass.getDeclaredField(fieldName);
-    field.setAccessible(true);
-    return field.get(record);
+    return fields;
   }
 
-  // get a map from the expected hive name of a field in the schema to the field in the schema.
-  private Map<String, Schema.Field> getFieldMap(Schema schema) {
-    Map<String, Schema.Field> fieldMap = Maps.newHashMap();
-    for (Schema.Field field : schema.getFields()) {
-      fieldMap.put(field.getName().toLowerCase(), field);
+  /**
+   * The fields of a record schema in the order of the hive columns, with the readers of those fields from
+   * {@link StructuredRecord}s and from Java objects of the classes seen so far.
+   */
+  private static final class RecordFields {
+    private final Schema.Field[] schemaFields;
+    private final FieldReader recordReader;
+    private final ConcurrentMap<Class<?>, FieldReader> objectReaders;
+
+    RecordFields(Schema schema, List<String> hiveNames) throws NoSuchFieldException {
+      // map from the expected hive name of a field in the schema to the field in the schema
+      Map<String, Schema.Field> fieldMap = Maps.newHashMap();
+      for (Schema.Field field : schema.getFields()) {
+        fieldMap.put(field.getName().toLowerCase(), field);
+      }
+      this.schemaFields = new Schema.Field[hiveNames.size()];
+      for (int i = 0; i < schemaFields.length; i++) {
+        schemaFields[i] = fieldMap.get(hiveNames.get(i));
+        if (schemaFields[i] == null) {
+          throw new NoSuchFieldException("Field " + hiveNames.get(i) + " not found in schema " + schema);
+        }
+      }
+      this.recordReader = new FieldReader(ObjectInspectorFactory.getStructuredRecordObjectInspector(schema),
+                                          schemaFields);
+      this.objectReaders = new ConcurrentHashMap<>();
+    }
+
+    FieldReader getReader(Object obj) {
+      if (obj instanceof StructuredRecord) {
+        return recordReader;
+      }
+      Class<?> cls = obj.getClass();
+      FieldReader reader = objectReaders.get(cls);
+      if (reader == null) {
+        ObjectInspector inspector = ObjectInspectorFactory.getReflectionObjectInspector(
+          cls, ObjectInspectorFactory.ObjectInspectorOptions.METHOD_HANDLE);
+        reader = new FieldReader((StructObjectInspector) inspector, schemaFields);
+        objectReaders.put(cls, reader);
+      }
+      return reader;
+    }
+  }
+
+  /**
+   * Reads the fields of a record with a struct ObjectInspector, using the field references that are resolved once.
+   */
+  private static final class FieldReader {
+    private final StructObjectInspector inspector;
+    private final StructField[] fieldRefs;
+
+    FieldReader(StructObjectInspector inspector, Schema.Field[] schemaFields) {
+      this.inspector = inspector;
+      this.fieldRefs = new StructField[schemaFields.length];
+      for (int i = 0; i < schemaFields.length; i++) {
+        fieldRefs[i] = inspector.getStructFieldRef(schemaFields[i].getName());
+      }
     }
-    return fieldMap;
   }
 
   private ObjectInspector createInspector(List<String> fieldNames, List<TypeInfo> fieldTypes) {
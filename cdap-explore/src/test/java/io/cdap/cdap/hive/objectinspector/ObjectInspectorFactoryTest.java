@@ -17,7 +17,11 @@
 package io.cdap.cdap.hive.objectinspector;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.google.common.reflect.TypeToken;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.common.utils.ImmutablePair;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
@@ -32,6 +36,7 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +53,11 @@ public class ObjectInspectorFactoryTest {
   }
 
   private void assertObjectInspection(Type t, Object data) throws Exception {
+    assertObjectInspection(t, data, ObjectInspectorFactory.ObjectInspectorOptions.REFLECTION);
+  }
+
+  private void assertObjectInspection(Type t, Object data,
+                                      ObjectInspectorFactory.ObjectInspectorOptions options) throws Exception {
     Field[] tmpFields;
     // Build the expected fields, based on the type t. Exclude the transient fields.
     if (t instanceof ParameterizedType) {
@@ -65,8 +75,8 @@ public class ObjectInspectorFactoryTest {
     }
     List<Field> expectedFields = builder.build();
 
-    ObjectInspector oi1 = ObjectInspectorFactory.getReflectionObjectInspector(t);
-    ObjectInspector oi2 = ObjectInspectorFactory.getReflectionObjectInspector(t);
+    ObjectInspector oi1 = ObjectInspectorFactory.getReflectionObjectInspector(t, options);
+    ObjectInspector oi2 = ObjectInspectorFactory.getReflectionObjectInspector(t, options);
     Assert.assertEquals(oi1, oi2);
 
     // metadata
@@ -132,6 +142,107 @@ public class ObjectInspectorFactoryTest {
                            new DummyEmployee<>(new DummyAddress<>("foo")));
   }
 
+  @Test
+  public void methodHandleObjectInspectorTest() throws Exception {
+    ObjectInspectorFactory.ObjectInspectorOptions options = ObjectInspectorFactory.ObjectInspectorOptions.METHOD_HANDLE;
+    ObjectInspector oi = ObjectInspectorFactory.getReflectionObjectInspector(DummyStruct.class, options);
+    ObjectInspector reflectionOi = ObjectInspectorFactory.getReflectionObjectInspector(DummyStruct.class);
+    Assert.assertTrue(oi instanceof MethodHandleStructObjectInspector);
+    Assert.assertFalse(reflectionOi instanceof MethodHandleStructObjectInspector);
+    Assert.assertEquals(reflectionOi.getTypeName(), oi.getTypeName());
+
+    DummyStruct a = new DummyStruct();
+    a.myInt = 1;
+    a.myInteger = 2;
+    a.myString = "test";
+    a.dummyStruct = a;
+    a.myListString = Arrays.asList("a", "b", "c");
+    a.myMapStringString = new HashMap<>();
+    a.myMapStringString.put("key", "value");
+    a.employee = new DummyEmployee<>(new DummyAddress<>("foo"));
+    a.ints = new int[] { 1, 2 };
+
+    assertObjectInspection(DummyStruct.class, a, options);
+    assertObjectInspection(new TypeToken<DummyEmployee<DummyAddress<String>>>() { }.getType(),
+                           new DummyEmployee<>(new DummyAddress<>("foo")), options);
+
+    // the method handle inspector must read the same values as the reflection inspector, including nested structs
+    StructObjectInspector soi = (StructObjectInspector) oi;
+    StructObjectInspector reflectionSoi = (StructObjectInspector) reflectionOi;
+    Assert.assertEquals(reflectionSoi.getStructFieldsDataAsList(a), soi.getStructFieldsDataAsList(a));
+    StructField employeeField = soi.getStructFieldRef("employee");
+    StructObjectInspector employeeOi = (StructObjectInspector) employeeField.getFieldObjectInspector();
+    StructObjectInspector reflectionEmployeeOi =
+      (StructObjectInspector) reflectionSoi.getStructFieldRef("employee").getFieldObjectInspector();
+    Assert.assertTrue(employeeOi instanceof MethodHandleStructObjectInspector);
+    Assert.assertEquals(reflectionEmployeeOi.getStructFieldsDataAsList(a.employee),
+                        employeeOi.getStructFieldsDataAsList(soi.getStructFieldData(a, employeeField)));
+  }
+
+  @Test
+  public void structuredRecordObjectInspectorTest() throws Exception {
+    Schema addressSchema = Schema.recordOf("address", Schema.Field.of("street", Schema.of(Schema.Type.STRING)));
+    Schema schema = Schema.recordOf(
+      "employee",
+      Schema.Field.of("id", Schema.of(Schema.Type.INT)),
+      Schema.Field.of("name", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("salary", Schema.of(Schema.Type.DOUBLE)),
+      Schema.Field.of("tags", Schema.arrayOf(Schema.of(Schema.Type.STRING))),
+      Schema.Field.of("props", Schema.mapOf(Schema.of(Schema.Type.STRING), Schema.of(Schema.Type.LONG))),
+      Schema.Field.of("homeAddress", addressSchema));
+
+    StructuredRecordObjectInspector oi = ObjectInspectorFactory.getStructuredRecordObjectInspector(schema);
+    // inspectors are cached per schema
+    Schema schemaCopy = Schema.parseJson(schema.toString());
+    Assert.assertSame(oi, ObjectInspectorFactory.getStructuredRecordObjectInspector(schemaCopy));
+    Assert.assertSame(oi, ObjectInspectorFactory.getStructuredRecordObjectInspector(Schema.nullableOf(schema)));
+    Assert.assertEquals("struct<id:int,name:string,salary:double,tags:array<string>,props:map<string,bigint>," +
+                          "homeaddress:struct<street:string>>", oi.getTypeName());
+
+    StructuredRecord address = StructuredRecord.builder(addressSchema).set("street", "main").build();
+    StructuredRecord record = StructuredRecord.builder(schema)
+      .set("id", 1)
+      .set("salary", 2.5d)
+      .set("tags", Arrays.asList("a", "b"))
+      .set("props", ImmutableMap.of("k", 3L))
+      .set("homeAddress", address)
+      .build();
+    List<Object> expected = Arrays.asList(1, null, 2.5d, Arrays.asList("a", "b"), ImmutableMap.of("k", 3L), address);
+    Assert.assertNull(oi.getStructFieldsDataAsList(null));
+    Assert.assertEquals(expected, oi.getStructFieldsDataAsList(record));
+    for (Schema.Field field : schema.getFields()) {
+      StructField fieldRef = oi.getStructFieldRef(field.getName());
+      Assert.assertNull(oi.getStructFieldData(null, fieldRef));
+      Assert.assertEquals(record.get(field.getName()), oi.getStructFieldData(record, fieldRef));
+    }
+    StructField addressRef = oi.getStructFieldRef("homeaddress");
+    StructObjectInspector addressOi = (StructObjectInspector) addressRef.getFieldObjectInspector();
+    Assert.assertEquals(Collections.singletonList("main"),
+                        addressOi.getStructFieldsDataAsList(oi.getStructFieldData(record, addressRef)));
+
+    // a record with an equal schema instance is read the same way
+    StructuredRecord copy = StructuredRecord.builder(schemaCopy)
+      .set("id", 1)
+      .set("salary", 2.5d)
+      .set("tags", Arrays.asList("a", "b"))
+      .set("props", ImmutableMap.of("k", 3L))
+      .set("homeAddress", address)
+      .build();
+    Assert.assertEquals(expected, oi.getStructFieldsDataAsList(copy));
+
+    // a record with the fields in a different order is read by field name
+    Schema reordered = Schema.recordOf("employee", Lists.reverse(schema.getFields()));
+    StructuredRecord reorderedRecord = StructuredRecord.builder(reordered)
+      .set("id", 1)
+      .set("salary", 2.5d)
+      .set("tags", Arrays.asList("a", "b"))
+      .set("props", ImmutableMap.of("k", 3L))
+      .set("homeAddress", address)
+      .build();
+    Assert.assertEquals(expected, oi.getStructFieldsDataAsList(reorderedRecord));
+    Assert.assertEquals(2.5d, oi.getStructFieldData(reorderedRecord, oi.getStructFieldRef("salary")));
+  }
+
   ////////////// Dummy classes used for this class test /////////////
   private class DummyEmployee<A> {
     public A address;
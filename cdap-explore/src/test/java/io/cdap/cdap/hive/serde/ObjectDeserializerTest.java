@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.hive.serde;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -369,6 +370,29 @@ public class ObjectDeserializerTest {
     assertSimpleRecordEquals(expected, translated);
   }
 
+  @Test
+  public void testFlattenStructuredRecordsOfDifferentSchemas() throws Exception {
+    Schema schema = Schema.recordOf("record",
+                                    Schema.Field.of("intField", Schema.of(Schema.Type.INT)),
+                                    Schema.Field.of("stringField", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+                                    Schema.Field.of("longField", Schema.of(Schema.Type.LONG)));
+    ObjectDeserializer translator = new ObjectDeserializer(
+      Lists.newArrayList("longfield", "intfield", "stringfield"),
+      Lists.<TypeInfo>newArrayList(TypeInfoFactory.longTypeInfo, TypeInfoFactory.intTypeInfo,
+                                   TypeInfoFactory.stringTypeInfo),
+      schema);
+
+    // records of the same schema are read by field position, records of another schema by field name
+    Schema reversed = Schema.recordOf("record", Lists.reverse(schema.getFields()));
+    for (Schema recordSchema : ImmutableList.of(schema, reversed, schema)) {
+      StructuredRecord record = StructuredRecord.builder(recordSchema)
+        .set("intField", 5)
+        .set("longField", 7L)
+        .build();
+      Assert.assertEquals(Lists.<Object>newArrayList(7L, 5, null), translator.translateRecord(record));
+    }
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   public void testNestedRecord() throws Exception {
@@ -0,0 +1,262 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.hive.serde;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.hive.objectinspector.ObjectInspectorFactory;
+import io.cdap.cdap.internal.io.ReflectionSchemaGenerator;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks reading the rows of a wide record type, as done by the {@link ObjectDeserializer} of
+ * {@link io.cdap.cdap.hive.datasets.DatasetSerDe} for every row of an Explore query. Compares the struct
+ * ObjectInspectors for Java objects and for {@link StructuredRecord}s with reading the fields through reflection
+ * and by field name.
+ *
+ * Run it with the main method from the test classpath of this module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class WideRecordBenchmark {
+
+  private static final int FIELDS = 48;
+
+  private WideRecord object;
+  private StructuredRecord record;
+  private List<String> fieldNames;
+  private StructObjectInspector reflectionInspector;
+  private StructObjectInspector methodHandleInspector;
+  private StructObjectInspector recordInspector;
+  private ObjectDeserializer deserializer;
+
+  @Setup
+  public void setup() throws Exception {
+    Schema schema = new ReflectionSchemaGenerator().generate(WideRecord.class);
+    object = new WideRecord();
+    StructuredRecord.Builder builder = StructuredRecord.builder(schema);
+    fieldNames = new ArrayList<>();
+    List<TypeInfo> fieldTypes = new ArrayList<>();
+    for (int i = 0; i < FIELDS; i++) {
+      String name = "field" + i;
+      builder.set(name, object.getField(i));
+      fieldNames.add(name);
+      fieldTypes.add(getTypeInfo(schema.getField(name).getSchema()));
+    }
+    record = builder.build();
+
+    reflectionInspector = (StructObjectInspector) ObjectInspectorFactory.getReflectionObjectInspector(
+      WideRecord.class, ObjectInspectorFactory.ObjectInspectorOptions.REFLECTION);
+    methodHandleInspector = (StructObjectInspector) ObjectInspectorFactory.getReflectionObjectInspector(
+      WideRecord.class, ObjectInspectorFactory.ObjectInspectorOptions.METHOD_HANDLE);
+    recordInspector = ObjectInspectorFactory.getStructuredRecordObjectInspector(schema);
+    deserializer = new ObjectDeserializer(fieldNames, fieldTypes, schema);
+  }
+
+  @Benchmark
+  public List<Object> reflectionInspector() {
+    return reflectionInspector.getStructFieldsDataAsList(object);
+  }
+
+  @Benchmark
+  public List<Object> methodHandleInspector() {
+    return methodHandleInspector.getStructFieldsDataAsList(object);
+  }
+
+  @Benchmark
+  public List<Object> recordByName() {
+    List<Object> result = new ArrayList<>(FIELDS);
+    for (String fieldName : fieldNames) {
+      result.add(record.get(fieldName));
+    }
+    return result;
+  }
+
+  @Benchmark
+  public List<Object> recordInspector() {
+    return recordInspector.getStructFieldsDataAsList(record);
+  }
+
+  @Benchmark
+  public List<Object> deserializeObject() throws Exception {
+    return deserializer.translateRecord(object);
+  }
+
+  @Benchmark
+  public List<Object> deserializeRecord() throws Exception {
+    return deserializer.translateRecord(record);
+  }
+
+  private static TypeInfo getTypeInfo(Schema schema) {
+    switch (schema.getType()) {
+      case INT:
+        return TypeInfoFactory.intTypeInfo;
+      case LONG:
+        return TypeInfoFactory.longTypeInfo;
+      case DOUBLE:
+        return TypeInfoFactory.doubleTypeInfo;
+      default:
+        return TypeInfoFactory.stringTypeInfo;
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(WideRecordBenchmark.class.getSimpleName()).build()).run();
+  }
+
+  /**
+   * A record type with many fields.
+   */
+  public static final class WideRecord {
+    private int field0;
+    private long field1;
+    private String field2;
+    private double field3;
+    private int field4;
+    private long field5;
+    private String field6;
+    private double field7;
+    private int field8;
+    private long field9;
+    private String field10;
+    private double field11;
+    private int field12;
+    private long field13;
+    private String field14;
+    private double field15;
+    private int field16;
+    private long field17;
+    private String field18;
+    private double field19;
+    private int field20;
+    private long field21;
+    private String field22;
+    private double field23;
+    private int field24;
+    private long field25;
+    private String field26;
+    private double field27;
+    private int field28;
+    private long field29;
+    private String field30;
+    private double field31;
+    private int field32;
+    private long field33;
+    private String field34;
+    private double field35;
+    private int field36;
+    private long field37;
+    private String field38;
+    private double field39;
+    private int field40;
+    private long field41;
+    private String field42;
+    private double field43;
+    private int field44;
+    private long field45;
+    private String field46;
+    private double field47;
+
+    WideRecord() {
+      field0 = (Integer) getField(0);
+      field1 = (Long) getField(1);
+      field2 = (String) getField(2);
+      field3 = (Double) getField(3);
+      field4 = (Integer) getField(4);
+      field5 = (Long) getField(5);
+      field6 = (String) getField(6);
+      field7 = (Double) getField(7);
+      field8 = (Integer) getField(8);
+      field9 = (Long) getField(9);
+      field10 = (String) getField(10);
+      field11 = (Double) getField(11);
+      field12 = (Integer) getField(12);
+      field13 = (Long) getField(13);
+      field14 = (String) getField(14);
+      field15 = (Double) getField(15);
+      field16 = (Integer) getField(16);
+      field17 = (Long) getField(17);
+      field18 = (String) getField(18);
+      field19 = (Double) getField(19);
+      field20 = (Integer) getField(20);
+      field21 = (Long) getField(21);
+      field22 = (String) getField(22);
+      field23 = (Double) getField(23);
+      field24 = (Integer) getField(24);
+      field25 = (Long) getField(25);
+      field26 = (String) getField(26);
+      field27 = (Double) getField(27);
+      field28 = (Integer) getField(28);
+      field29 = (Long) getField(29);
+      field30 = (String) getField(30);
+      field31 = (Double) getField(31);
+      field32 = (Integer) getField(32);
+      field33 = (Long) getField(33);
+      field34 = (String) getField(34);
+      field35 = (Double) getField(35);
+      field36 = (Integer) getField(36);
+      field37 = (Long) getField(37);
+      field38 = (String) getField(38);
+      field39 = (Double) getField(39);
+      field40 = (Integer) getField(40);
+      field41 = (Long) getField(41);
+      field42 = (String) getField(42);
+      field43 = (Double) getField(43);
+      field44 = (Integer) getField(44);
+      field45 = (Long) getField(45);
+      field46 = (String) getField(46);
+      field47 = (Double) getField(47);
+    }
+
+    private Object getField(int i) {
+      switch (i % 4) {
+        case 0:
+          return i;
+        case 1:
+          return (long) i;
+        case 2:
+          return "value" + i;
+        default:
+          return i / 2.0d;
+      }
+    }
+  }
+}
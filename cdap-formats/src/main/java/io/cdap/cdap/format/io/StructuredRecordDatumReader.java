@@ -160,8 +160,29 @@ public class StructuredRecordDatumReader implements DatumReader<StructuredRecord
    */
   protected StructuredRecord decodeRecord(Decoder decoder, Schema schema) throws IOException {
     StructuredRecord.Builder builder = StructuredRecord.builder(schema);
-    for (Schema.Field field : schema.getFields()) {
-      builder.set(field.getName(), decode(decoder, field.getSchema()));
+    List<Schema.Field> fields = schema.getFields();
+    for (int i = 0; i < fields.size(); i++) {
+      Schema fieldSchema = fields.get(i).getSchema();
+      // Set primitive values by position without boxing
+      switch (fieldSchema.getType()) {
+        case BOOLEAN:
+          builder.setBoolean(i, decoder.readBool());
+          break;
+        case INT:
+          builder.setInt(i, decoder.readInt());
+          break;
+        case LONG:
+          builder.setLong(i, decoder.readLong());
+          break;
+        case FLOAT:
+          builder.setFloat(i, decoder.readFloat());
+          break;
+        case DOUBLE:
+          builder.setDouble(i, decoder.readDouble());
+          break;
+        default:
+          builder.set(i, decode(decoder, fieldSchema));
+      }
     }
     return builder.build();
   }
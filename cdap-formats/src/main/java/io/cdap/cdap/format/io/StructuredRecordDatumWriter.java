@@ -28,6 +28,7 @@ import java.lang.reflect.Array;
 import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 
@@ -152,7 +153,8 @@ public class StructuredRecordDatumWriter implements DatumWriter<StructuredRecord
   }
 
   /**
-   * Encodes the ending of an array. This method writes out {@code 0} to signal the end of the array.
+   * Encodes the ending of an array. This method writes out {@code 0} to signal the end of the array,
+   * unless the array is empty, in which case the size written by the beginning already signals the end.
    * Sub-class can override this to have different behavior
    *
    * @param encoder The encoder to use
@@ -161,7 +163,9 @@ public class StructuredRecordDatumWriter implements DatumWriter<StructuredRecord
    * @throws IOException If failed to encode
    */
   protected void encodeArrayEnd(Encoder encoder, Schema elementSchema, int size) throws IOException {
-    encoder.writeInt(0);
+    if (size > 0) {
+      encoder.writeInt(0);
+    }
   }
 
   /**
@@ -196,7 +200,8 @@ public class StructuredRecordDatumWriter implements DatumWriter<StructuredRecord
   }
 
   /**
-   * Encodes the ending of a {@link Map}. This method writes out {@code 0} to signal the end of the map.
+   * Encodes the ending of a {@link Map}. This method writes out {@code 0} to signal the end of the map,
+   * unless the map is empty, in which case the size written by the beginning already signals the end.
    * Sub-class can override this to have different behavior.
    *
    * @param encoder The encoder to use
@@ -206,7 +211,9 @@ public class StructuredRecordDatumWriter implements DatumWriter<StructuredRecord
    * @throws IOException If failed to encode
    */
   protected void encodeMapEnd(Encoder encoder, Schema keySchema, Schema valueSchema, int size) throws IOException {
-    encoder.writeInt(0);
+    if (size > 0) {
+      encoder.writeInt(0);
+    }
   }
 
   /**
@@ -308,9 +315,15 @@ public class StructuredRecordDatumWriter implements DatumWriter<StructuredRecord
       throw new IOException("Expected StructuredRecord type. Got: " + record.getClass());
     }
 
+    StructuredRecord structuredRecord = (StructuredRecord) record;
+    List<Schema.Field> fields = recordSchema.getFields();
+    // Read the field values by position if the record has the same schema, otherwise by name
+    boolean positional = recordSchema.equals(structuredRecord.getSchema());
+
     encodeRecordBegin(encoder, recordSchema);
-    for (Schema.Field field : recordSchema.getFields()) {
-      encodeRecordField(encoder, field, ((StructuredRecord) record).get(field.getName()));
+    for (int i = 0; i < fields.size(); i++) {
+      Schema.Field field = fields.get(i);
+      encodeRecordField(encoder, field, positional ? structuredRecord.get(i) : structuredRecord.get(field.getName()));
     }
     encodeRecordEnd(encoder, recordSchema);
   }
@@ -22,6 +22,10 @@ import io.cdap.cdap.api.data.schema.Schema;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.text.SimpleDateFormat;
@@ -285,4 +289,72 @@ public class StructuredRecordBuilderTest {
     Schema schema = Schema.recordOf("test", Schema.Field.of("d", Schema.decimalOf(5, 2)));
     StructuredRecord.builder(schema).setDecimal("d", new BigDecimal(new BigInteger("12341324"), 2)).build();
   }
+
+  @Test
+  public void testPositionalAccess() throws Exception {
+    Schema schema = Schema.recordOf("x",
+                                    Schema.Field.of("b", Schema.of(Schema.Type.BOOLEAN)),
+                                    Schema.Field.of("i", Schema.of(Schema.Type.INT)),
+                                    Schema.Field.of("l", Schema.of(Schema.Type.LONG)),
+                                    Schema.Field.of("f", Schema.of(Schema.Type.FLOAT)),
+                                    Schema.Field.of("d", Schema.of(Schema.Type.DOUBLE)),
+                                    Schema.Field.of("s", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+    StructuredRecord positional = StructuredRecord.builder(schema)
+      .setBoolean(0, true)
+      .setInt(1, 1)
+      .setLong(2, 2L)
+      .setFloat(3, 3.0f)
+      .setDouble(4, 4.0d)
+      .set(5, "5")
+      .build();
+    StructuredRecord named = StructuredRecord.builder(schema)
+      .set("b", true)
+      .set("i", 1)
+      .set("l", 2L)
+      .set("f", 3.0f)
+      .set("d", 4.0d)
+      .set("s", "5")
+      .build();
+
+    // Both representations are equal and can be read in both ways
+    Assert.assertEquals(named, positional);
+    Assert.assertEquals(named.hashCode(), positional.hashCode());
+    for (StructuredRecord record : new StructuredRecord[] { positional, named }) {
+      Assert.assertTrue(record.getBoolean(0));
+      Assert.assertEquals(1, record.getInt(1));
+      Assert.assertEquals(2L, record.getLong(2));
+      Assert.assertEquals(3.0f, record.getFloat(3), 0.0f);
+      Assert.assertEquals(4.0d, record.getDouble(4), 0.0d);
+      Assert.assertEquals(Boolean.TRUE, record.get("b"));
+      Assert.assertEquals(Integer.valueOf(1), record.get("i"));
+      Assert.assertEquals(Long.valueOf(2L), record.get("l"));
+      Assert.assertEquals(Float.valueOf(3.0f), record.get("f"));
+      Assert.assertEquals(Double.valueOf(4.0d), record.get("d"));
+      Assert.assertEquals("5", record.get(5));
+      Assert.assertNull(record.get("unknown"));
+    }
+
+    // Java serialization keeps the record content
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+      oos.writeObject(positional);
+    }
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+      Assert.assertEquals(named, ois.readObject());
+    }
+
+    // A non-nullable field set to null, or not set, is invalid
+    try {
+      StructuredRecord.builder(schema).set(0, null);
+      Assert.fail("Expected failure when setting a non-nullable field to null");
+    } catch (UnexpectedFormatException e) {
+      // expected
+    }
+    try {
+      StructuredRecord.builder(schema).setInt(1, 1).build();
+      Assert.fail("Expected failure when building a record without all non-nullable fields");
+    } catch (UnexpectedFormatException e) {
+      // expected
+    }
+  }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.format.io;
+
+import com.google.common.collect.ImmutableMap;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.common.io.Encoder;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Tests for {@link StructuredRecordDatumWriter}.
+ */
+public class StructuredRecordDatumWriterTest {
+
+  private static final Schema SCHEMA = Schema.recordOf(
+    "rec",
+    Schema.Field.of("array", Schema.arrayOf(Schema.of(Schema.Type.INT))),
+    Schema.Field.of("map", Schema.mapOf(Schema.of(Schema.Type.STRING), Schema.of(Schema.Type.INT))),
+    Schema.Field.of("after", Schema.of(Schema.Type.STRING)));
+
+  @Test
+  public void testEmptyCollections() throws IOException {
+    // The field after empty collections must still be readable, which requires no extra end marker
+    GenericRecord record = writeAndRead(Collections.emptyList(), Collections.emptyMap());
+    Assert.assertTrue(((Collection<?>) record.get("array")).isEmpty());
+    Assert.assertTrue(((Map<?, ?>) record.get("map")).isEmpty());
+    Assert.assertEquals("after", record.get("after").toString());
+
+    record = writeAndRead(Arrays.asList(1, 2), Collections.emptyMap());
+    Assert.assertEquals(Arrays.asList(1, 2), record.get("array"));
+    Assert.assertTrue(((Map<?, ?>) record.get("map")).isEmpty());
+    Assert.assertEquals("after", record.get("after").toString());
+
+    record = writeAndRead(Collections.emptyList(), ImmutableMap.of("k", 1));
+    Assert.assertTrue(((Collection<?>) record.get("array")).isEmpty());
+    Assert.assertEquals(1, ((Map<?, ?>) record.get("map")).size());
+    Assert.assertEquals("after", record.get("after").toString());
+  }
+
+  /**
+   * Writes a record with the given collections and reads it back with the Avro binary decoder.
+   */
+  private GenericRecord writeAndRead(Collection<Integer> array, Map<String, Integer> map) throws IOException {
+    StructuredRecord record = StructuredRecord.builder(SCHEMA)
+      .set("array", array)
+      .set("map", map)
+      .set("after", "after")
+      .build();
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    BinaryEncoder avroEncoder = EncoderFactory.get().binaryEncoder(os, null);
+    new StructuredRecordDatumWriter().encode(record, new AvroEncoder(avroEncoder));
+    avroEncoder.flush();
+    byte[] bytes = os.toByteArray();
+
+    org.apache.avro.Schema avroSchema = new org.apache.avro.Schema.Parser().parse(SCHEMA.toString());
+    org.apache.avro.io.BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(bytes, null);
+    GenericRecord result = new GenericDatumReader<GenericRecord>(avroSchema).read(null, decoder);
+    Assert.assertTrue("Not all bytes were consumed", decoder.isEnd());
+    return result;
+  }
+
+  /**
+   * An {@link Encoder} that writes through an Avro {@link BinaryEncoder}.
+   */
+  private static final class AvroEncoder implements Encoder {
+
+    private final BinaryEncoder encoder;
+
+    AvroEncoder(BinaryEncoder encoder) {
+      this.encoder = encoder;
+    }
+
+    @Override
+    public Encoder writeNull() throws IOException {
+      encoder.writeNull();
+      return this;
+    }
+
+    @Override
+    public Encoder writeBool(boolean b) throws IOException {
+      encoder.writeBoolean(b);
+      return this;
+    }
+
+    @Override
+    public Encoder writeInt(int i) throws IOException {
+      encoder.writeInt(i);
+      return this;
+    }
+
+    @Override
+    public Encoder writeLong(long l) throws IOException {
+      encoder.writeLong(l);
+      return this;
+    }
+
+    @Override
+    public Encoder writeFloat(float f) throws IOException {
+      encoder.writeFloat(f);
+      return this;
+    }
+
+    @Override
+    public Encoder writeDouble(double d) throws IOException {
+      encoder.writeDouble(d);
+      return this;
+    }
+
+    @Override
+    public Encoder writeString(String s) throws IOException {
+      encoder.writeString(s);
+      return this;
+    }
+
+    @Override
+    public Encoder writeBytes(byte[] bytes) throws IOException {
+      encoder.writeBytes(bytes);
+      return this;
+    }
+
+    @Override
+    public Encoder writeBytes(byte[] bytes, int off, int len) throws IOException {
+      encoder.writeBytes(bytes, off, len);
+      return this;
+    }
+
+    @Override
+    public Encoder writeBytes(ByteBuffer bytes) throws IOException {
+      encoder.writeBytes(bytes);
+      return this;
+    }
+  }
+}
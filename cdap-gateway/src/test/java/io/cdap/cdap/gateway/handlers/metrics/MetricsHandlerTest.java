@@ -461,6 +461,12 @@ public class MetricsHandlerTest extends MetricsSuiteTestBase {
     verifyGroupByResult(
       "/v3/metrics/query?metric=system.reads" +
         "&groupBy=namespace&groupBy=handler&groupBy=app&start=" + start + "&end=" + end, groupByResult);
+
+    // with a series limit, only the series with the largest sum are returned
+    verifyGroupByResult(
+      "/v3/metrics/query?metric=system.reads" +
+        "&groupBy=namespace&groupBy=handler&groupBy=app&start=" + start + "&end=" + end + "&seriesLimit=1",
+      ImmutableList.of(groupByResult.get(2)));
   }
 
   @Test
@@ -51,6 +51,7 @@ import io.cdap.cdap.metrics.process.MessagingMetricsProcessorServiceFactory;
 import io.cdap.cdap.metrics.process.MetricsAdminSubscriberService;
 import io.cdap.cdap.metrics.process.MetricsProcessorStatusService;
 import io.cdap.cdap.metrics.runtime.MessagingMetricsProcessorRuntimeService;
+import io.cdap.cdap.metrics.store.MetricsRollupService;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.security.auth.context.AuthenticationContextModules;
 import io.cdap.cdap.security.authorization.AuthorizationEnforcementModule;
@@ -100,9 +101,10 @@ public final class MetricsProcessorTwillRunnable extends AbstractMasterTwillRunn
     services.add(injector.getInstance(MessagingMetricsProcessorRuntimeService.class));
     services.add(injector.getInstance(MetricsProcessorStatusService.class));
 
-    // Only starts the MetricsAdminSubscriberService in instance 0
+    // Only starts the MetricsAdminSubscriberService and the MetricsRollupService in instance 0
     if (instanceId == 0) {
       services.add(injector.getInstance(MetricsAdminSubscriberService.class));
+      services.add(injector.getInstance(MetricsRollupService.class));
     }
   }
 
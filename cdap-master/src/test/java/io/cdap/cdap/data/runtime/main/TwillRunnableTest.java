@@ -22,6 +22,7 @@ import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.namespace.NamespaceQueryAdmin;
 import io.cdap.cdap.common.test.MockTwillContext;
 import io.cdap.cdap.data.tools.HBaseTableExporter;
+import io.cdap.cdap.metrics.store.MetricsRollupService;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.junit.Assert;
@@ -63,8 +64,10 @@ public class TwillRunnableTest {
 
   @Test
   public void testMetricsProcessorTwillRunnableInjector() {
-    MetricsProcessorTwillRunnable.createGuiceInjector(CConfiguration.create(), new Configuration(), "",
-                                                      new MockTwillContext());
+    Injector injector = MetricsProcessorTwillRunnable.createGuiceInjector(CConfiguration.create(),
+                                                                          new Configuration(), "",
+                                                                          new MockTwillContext());
+    Assert.assertNotNull(injector.getInstance(MetricsRollupService.class));
   }
 
   @Test
@@ -34,6 +34,7 @@ public class MetricQueryRequest {
   private final List<String> metrics;
   private final List<String> groupBy;
   private TimeRange timeRange;
+  private Integer seriesLimit;
 
   public MetricQueryRequest(Map<String, String> tags, List<String> metrics, List<String> groupBy) {
     this.tags = tags;
@@ -57,6 +58,18 @@ public class MetricQueryRequest {
     return timeRange;
   }
 
+  /**
+   * Returns the maximum number of time series to return, or {@code null} if there is no limit.
+   */
+  @Nullable
+  public Integer getSeriesLimit() {
+    return seriesLimit;
+  }
+
+  public void setSeriesLimit(@Nullable Integer seriesLimit) {
+    this.seriesLimit = seriesLimit;
+  }
+
   public void setTimeRange(@Nullable Long start, @Nullable Long end, @Nullable Integer count,
                            @Nullable Integer resolution,  @Nullable Interpolator interpolator,
                            AggregationOption aggregation) {
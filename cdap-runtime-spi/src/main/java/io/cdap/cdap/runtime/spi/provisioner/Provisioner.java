@@ -141,4 +141,21 @@ public interface Provisioner {
    */
   Capabilities getCapabilities();
 
+  /**
+   * Returns whether a cluster created by this provisioner with the given properties can be reused by other program
+   * runs. When the platform is configured to pool clusters, a reusable cluster is kept idle after the program run
+   * that it was created for completes, and is handed to a later program run that uses the same properties instead of
+   * creating a new cluster. This means {@link #getClusterStatus(ProvisionerContext, Cluster)},
+   * {@link #initializeCluster(ProvisionerContext, Cluster)} and {@link #deleteCluster(ProvisionerContext, Cluster)}
+   * must work when called with the context of a program run other than the one the cluster was created for,
+   * and the cluster must not keep any state specific to a program run.
+   *
+   * By default, clusters are not reusable.
+   *
+   * @param properties the properties that the cluster is created with
+   * @return {@code true} if clusters created with the given properties can be reused
+   */
+  default boolean isClusterReusable(Map<String, String> properties) {
+    return false;
+  }
 }
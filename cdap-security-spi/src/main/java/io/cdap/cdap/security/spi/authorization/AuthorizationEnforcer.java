@@ -21,6 +21,9 @@ import io.cdap.cdap.proto.id.EntityId;
 import io.cdap.cdap.proto.security.Action;
 import io.cdap.cdap.proto.security.Principal;
 
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -53,6 +56,34 @@ public interface AuthorizationEnforcer {
    */
   void enforce(EntityId entity, Principal principal, Set<Action> actions) throws Exception;
 
+  /**
+   * Checks authorization for the specified {@link Principal} for the specified {@link Action actions} on each of the
+   * specified {@link EntityId entities}. Unlike {@link #enforce(EntityId, Principal, Set)}, this method checks all
+   * entities instead of failing on the first unauthorized one, which allows implementations to perform all the checks
+   * at once. The default implementation calls {@link #enforce(EntityId, Principal, Action)} for every action.
+   *
+   * @param entityActions the {@link Action actions} being performed, keyed by the {@link EntityId} they are
+   *                      performed on
+   * @param principal the {@link Principal} that performs the actions
+   * @return the actions that the principal is not authorized to perform, keyed by entity. Entities on which all
+   *         actions are authorized are not included.
+   * @throws Exception if any errors occurred while performing the authorization enforcement checks
+   */
+  default Map<EntityId, Set<Action>> getUnauthorizedActions(Map<? extends EntityId, Set<Action>> entityActions,
+                                                             Principal principal) throws Exception {
+    Map<EntityId, Set<Action>> unauthorized = new HashMap<>();
+    for (Map.Entry<? extends EntityId, Set<Action>> entry : entityActions.entrySet()) {
+      for (Action action : entry.getValue()) {
+        try {
+          enforce(entry.getKey(), principal, action);
+        } catch (UnauthorizedException e) {
+          unauthorized.computeIfAbsent(entry.getKey(), k -> EnumSet.noneOf(Action.class)).add(action);
+        }
+      }
+    }
+    return unauthorized;
+  }
+
   /**
    * Checks whether the set of {@link EntityId}s are visible to the specified {@link Principal}.
    * An entity is visible to a principal if the principal has any privileges on the entity, or any of its descendants.
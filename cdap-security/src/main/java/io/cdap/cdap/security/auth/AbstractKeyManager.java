@@ -29,7 +29,9 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
 import javax.crypto.KeyGenerator;
 import javax.crypto.Mac;
 import javax.crypto.SecretKey;
@@ -53,6 +55,7 @@ public abstract class AbstractKeyManager extends AbstractIdleService implements
    */
   protected long keyExpirationPeriod = 0;
 
+  private final List<Runnable> keyChangeListeners = new CopyOnWriteArrayList<>();
 
   /**
    * An AbstractKeyManager that has common functionality of all keymanagers.
@@ -125,9 +128,28 @@ public abstract class AbstractKeyManager extends AbstractIdleService implements
     addKey(keyIdentifier);
     this.currentKey = keyIdentifier;
     LOG.info("Changed current key to {}", currentKey);
+    notifyKeyChange();
     return keyIdentifier;
   }
 
+  @Override
+  public final void addKeyChangeListener(Runnable listener) {
+    keyChangeListeners.add(listener);
+  }
+
+  /**
+   * Notifies all listeners added through {@link #addKeyChangeListener(Runnable)} that the set of keys has changed.
+   */
+  protected final void notifyKeyChange() {
+    for (Runnable listener : keyChangeListeners) {
+      try {
+        listener.run();
+      } catch (Exception e) {
+        LOG.warn("Exception raised when notifying key change listener {}", listener, e);
+      }
+    }
+  }
+
   @Override
   public final <T> void validateMAC(Codec<T> codec, Signed<T> signedMessage)
     throws InvalidDigestException, InvalidKeyException {
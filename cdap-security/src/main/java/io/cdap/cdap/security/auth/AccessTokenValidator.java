@@ -16,38 +16,80 @@
 
 package io.cdap.cdap.security.auth;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.AbstractIdleService;
 import com.google.inject.Inject;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.io.Codec;
 import org.apache.commons.codec.binary.Base64;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
 
 /**
  * This class validates the accessToken and returns the different states
  * of accessToken validation.
+ *
+ * Tokens that are validated successfully are cached, keyed by a digest of the token string, so that the same
+ * token doesn't need to be decoded and have its signature recomputed on every request. A cached token is only
+ * used until its expiration time, and all cached tokens are discarded whenever the secret keys change.
  */
 public class AccessTokenValidator extends AbstractIdleService implements TokenValidator {
   private static final Logger LOG = LoggerFactory.getLogger(AccessTokenValidator.class);
   private final TokenManager tokenManager;
   private final Codec<AccessToken> accessTokenCodec;
+  private final AtomicLong keyGeneration;
+  @Nullable
+  private final Cache<HashCode, ValidatedToken> validatedTokens;
 
   @Inject
-  public AccessTokenValidator(TokenManager tokenManager, Codec<AccessToken> accessTokenCodec) {
+  public AccessTokenValidator(CConfiguration cConf, TokenManager tokenManager, Codec<AccessToken> accessTokenCodec) {
+    this(tokenManager, accessTokenCodec, cConf.getInt(Constants.Security.TOKEN_VALIDATION_CACHE_SIZE),
+         Math.max(cConf.getLong(Constants.Security.TOKEN_EXPIRATION),
+                  cConf.getLong(Constants.Security.EXTENDED_TOKEN_EXPIRATION)));
+  }
+
+  @VisibleForTesting
+  AccessTokenValidator(TokenManager tokenManager, Codec<AccessToken> accessTokenCodec,
+                       int cacheSize, long maxTokenExpiration) {
     this.tokenManager = tokenManager;
     this.accessTokenCodec = accessTokenCodec;
+    this.keyGeneration = new AtomicLong();
+    this.validatedTokens = cacheSize <= 0 ? null : CacheBuilder.newBuilder()
+      .maximumSize(cacheSize)
+      .expireAfterWrite(maxTokenExpiration, TimeUnit.MILLISECONDS)
+      .recordStats()
+      .build();
   }
 
   @Override
   protected void startUp() throws Exception {
+    tokenManager.addKeyChangeListener(() -> {
+      keyGeneration.incrementAndGet();
+      if (validatedTokens != null) {
+        validatedTokens.invalidateAll();
+      }
+    });
     tokenManager.startAndWait();
   }
 
   @Override
   protected void shutDown() throws Exception {
     tokenManager.stopAndWait();
+    if (validatedTokens != null) {
+      LOG.debug("Validated token cache stats: {}", validatedTokens.stats());
+    }
   }
 
   @Override
@@ -58,11 +100,30 @@ public class AccessTokenValidator extends AbstractIdleService implements TokenVa
       LOG.debug("Token is missing");
       return TokenState.MISSING;
     }
+
+    HashCode tokenDigest = null;
+    long generation = keyGeneration.get();
+    if (validatedTokens != null) {
+      tokenDigest = Hashing.sha256().hashString(token, StandardCharsets.UTF_8);
+      ValidatedToken validated = validatedTokens.getIfPresent(tokenDigest);
+      if (validated != null) {
+        if (validated.keyGeneration == generation && validated.expireTimestamp >= System.currentTimeMillis()) {
+          return TokenState.VALID;
+        }
+        // Either expired or validated with a different set of keys, validate it again
+        validatedTokens.invalidate(tokenDigest);
+      }
+    }
+
     byte[] decodedToken = Base64.decodeBase64(token);
 
     try {
       accessToken = accessTokenCodec.decode(decodedToken);
       tokenManager.validateSecret(accessToken);
+      if (tokenDigest != null) {
+        validatedTokens.put(tokenDigest,
+                            new ValidatedToken(accessToken.getIdentifier().getExpireTimestamp(), generation));
+      }
     } catch (IOException ioe) {
       state = TokenState.INVALID;
       LOG.debug("Unknown Schema version for Access Token. {}", ioe);
@@ -72,4 +133,24 @@ public class AccessTokenValidator extends AbstractIdleService implements TokenVa
     }
     return state;
   }
+
+  /**
+   * Returns the statistics of the validated token cache, which includes the cache hit rate.
+   */
+  public CacheStats getCacheStats() {
+    return validatedTokens == null ? new CacheStats(0, 0, 0, 0, 0, 0) : validatedTokens.stats();
+  }
+
+  /**
+   * The expiration time of a validated token and the generation of the secret keys it was validated with.
+   */
+  private static final class ValidatedToken {
+    private final long expireTimestamp;
+    private final long keyGeneration;
+
+    private ValidatedToken(long expireTimestamp, long keyGeneration) {
+      this.expireTimestamp = expireTimestamp;
+      this.keyGeneration = keyGeneration;
+    }
+  }
 }
@@ -142,13 +142,18 @@ public class DistributedKeyManager extends AbstractKeyManager implements Resourc
     // create a new secret key
     generateKey();
     // clear out any expired keys
+    boolean removed = false;
     for (KeyIdentifier keyIdent : keyCache.getResources()) {
       // we can only remove keys that expired prior to the oldest non-expired token
       if (keyIdent.getExpiration() < (now - maxTokenExpiration)) {
         LOG.debug("Removing expired key: id={}, expiration={}", keyIdent.getKeyId(), keyIdent.getExpiration());
         keyCache.remove(Integer.toString(keyIdent.getKeyId()));
+        removed = true;
       }
     }
+    if (removed) {
+      notifyKeyChange();
+    }
     lastKeyUpdate = now;
   }
 
@@ -176,6 +181,7 @@ public class DistributedKeyManager extends AbstractKeyManager implements Resourc
         LOG.debug("Set current key: leader={}, key={}", leader, currentKey.getKeyId());
       }
     }
+    notifyKeyChange();
   }
 
   @Override
@@ -185,11 +191,13 @@ public class DistributedKeyManager extends AbstractKeyManager implements Resourc
       currentKey = instance;
       LOG.debug("Set current key: leader={}, key={}", leader, currentKey.getKeyId());
     }
+    notifyKeyChange();
   }
 
   @Override
   public void onResourceDelete(String name) {
     LOG.debug("Removed key: leader={}, key={}", leader, name);
+    notifyKeyChange();
   }
 
   @Override
@@ -64,4 +64,11 @@ public interface KeyManager extends Service {
   <T> void validateMAC(Codec<T> codec, Signed<T> signedMessage)
     throws InvalidDigestException, InvalidKeyException;
 
+  /**
+   * Adds a listener that is called whenever the set of secret keys changes, for example when a new key is
+   * generated or an expired key is removed.
+   * @param listener The listener to call on key changes.
+   */
+  void addKeyChangeListener(Runnable listener);
+
 }
@@ -64,6 +64,15 @@ public class TokenManager extends AbstractIdleService {
     }
   }
 
+  /**
+   * Adds a listener that is called whenever the secret keys used to sign and validate tokens change. Tokens that
+   * were validated before such a change need to be validated again.
+   * @param listener The listener to call on key changes.
+   */
+  public void addKeyChangeListener(Runnable listener) {
+    keyManager.addKeyChangeListener(listener);
+  }
+
   /**
    * Given an {@link AccessToken} instance, checks that the token has not yet expired and that the digest matches
    * the expected value. To validate the token digest, we recompute the digest value, based on the asserted identity
@@ -33,7 +33,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
 
@@ -68,6 +70,42 @@ public class DefaultAuthorizationEnforcer extends AbstractAuthorizationEnforcer
     doEnforce(entity, principal, Collections.singleton(action));
   }
 
+  @Override
+  public Map<EntityId, Set<Action>> getUnauthorizedActions(Map<? extends EntityId, Set<Action>> entityActions,
+                                                          Principal principal) throws Exception {
+    if (!isSecurityAuthorizationEnabled()) {
+      return Collections.emptyMap();
+    }
+
+    Map<EntityId, Set<Action>> toCheck = new HashMap<>();
+    // bypass the check when the principal is the master user and the entity is in the system namespace
+    for (Map.Entry<? extends EntityId, Set<Action>> entry : entityActions.entrySet()) {
+      EntityId entity = entry.getKey();
+      if (!isAccessingSystemNSAsMasterUser(entity, principal) && !isEnforcingOnSamePrincipalId(entity, principal)) {
+        toCheck.put(entity, entry.getValue());
+      }
+    }
+    if (toCheck.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    LOG.trace("Checking actions {} for principal {}.", toCheck, principal);
+    StopWatch watch = new StopWatch();
+    watch.start();
+    try {
+      return authorizerInstantiator.get().getUnauthorizedActions(toCheck, principal);
+    } finally {
+      watch.stop();
+      long timeTaken = watch.getTime();
+      String logLine = "Checked actions {} for principal {}. Time spent in enforcement was {} ms.";
+      if (timeTaken > logTimeTakenAsWarn) {
+        LOG.warn(logLine, toCheck, principal, timeTaken);
+      } else {
+        LOG.trace(logLine, toCheck, principal, timeTaken);
+      }
+    }
+  }
+
   @Override
   public Set<? extends EntityId> isVisible(Set<? extends EntityId> entityIds, Principal principal) throws Exception {
     if (!isSecurityAuthorizationEnabled()) {
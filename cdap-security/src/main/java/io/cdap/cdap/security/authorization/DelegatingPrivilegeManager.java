@@ -16,47 +16,97 @@
 
 package io.cdap.cdap.security.authorization;
 
+import com.google.gson.Gson;
 import com.google.inject.Inject;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.messaging.MessagingService;
+import io.cdap.cdap.messaging.client.StoreRequestBuilder;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.id.TopicId;
 import io.cdap.cdap.proto.security.Action;
 import io.cdap.cdap.proto.security.Authorizable;
 import io.cdap.cdap.proto.security.Principal;
 import io.cdap.cdap.proto.security.Privilege;
 import io.cdap.cdap.security.spi.authorization.Authorizer;
 import io.cdap.cdap.security.spi.authorization.PrivilegesManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Set;
+import javax.annotation.Nullable;
 
 /**
  * A {@link PrivilegesManager} implements that delegates to the authorizer.
  * Having this makes Guice injection for Privilege manager simple. That reason will go away once
  * https://issues.cask.co/browse/CDAP-11561 is fixed.
+ *
+ * Every change of privileges is published to the privilege change topic if a {@link MessagingService} is available,
+ * so that the {@link RemoteAuthorizationEnforcer} in containers can invalidate their caches.
  */
 public class DelegatingPrivilegeManager implements PrivilegesManager {
 
+  private static final Logger LOG = LoggerFactory.getLogger(DelegatingPrivilegeManager.class);
+  private static final Gson GSON = new Gson();
+
   private final Authorizer delegateAuthorizer;
+  private final TopicId privilegeChangeTopic;
+  @Nullable
+  private MessagingService messagingService;
 
   @Inject
-  DelegatingPrivilegeManager(AuthorizerInstantiator authorizerInstantiator) {
+  DelegatingPrivilegeManager(CConfiguration cConf, AuthorizerInstantiator authorizerInstantiator) {
     this.delegateAuthorizer = authorizerInstantiator.get();
+    this.privilegeChangeTopic =
+      NamespaceId.SYSTEM.topic(cConf.get(Constants.Security.Authorization.PRIVILEGE_CHANGE_TOPIC));
+  }
+
+  /**
+   * Sets the {@link MessagingService} for publishing privilege changes. It is optional, since not every process
+   * that manages privileges has the messaging service available.
+   */
+  @Inject(optional = true)
+  void setMessagingService(MessagingService messagingService) {
+    this.messagingService = messagingService;
   }
 
   @Override
   public void grant(Authorizable authorizable, Principal principal, Set<Action> actions) throws Exception {
     delegateAuthorizer.grant(authorizable, principal, actions);
+    publishChange(authorizable);
   }
 
   @Override
   public void revoke(Authorizable authorizable, Principal principal, Set<Action> actions) throws Exception {
     delegateAuthorizer.revoke(authorizable, principal, actions);
+    publishChange(authorizable);
   }
 
   @Override
   public void revoke(Authorizable authorizable) throws Exception {
     delegateAuthorizer.revoke(authorizable);
+    publishChange(authorizable);
   }
 
   @Override
   public Set<Privilege> listPrivileges(Principal principal) throws Exception {
     return delegateAuthorizer.listPrivileges(principal);
   }
+
+  /**
+   * Publishes a privilege change on the given {@link Authorizable}. Failure to publish is only logged, since the
+   * privileges have already been changed, and caches will still expire by their TTL.
+   */
+  private void publishChange(Authorizable authorizable) {
+    if (messagingService == null) {
+      return;
+    }
+    try {
+      messagingService.publish(StoreRequestBuilder.of(privilegeChangeTopic)
+                                 .addPayload(GSON.toJson(authorizable.toString())).build());
+    } catch (Exception e) {
+      LOG.warn("Failed to publish privilege change on {} to topic {}. Authorization caches may be stale until they "
+                 + "expire.", authorizable, privilegeChangeTopic, e);
+    }
+  }
 }
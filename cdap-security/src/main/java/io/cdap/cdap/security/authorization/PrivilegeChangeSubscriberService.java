@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization;
+
+import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.api.messaging.Message;
+import io.cdap.cdap.api.messaging.MessagingContext;
+import io.cdap.cdap.api.metrics.NoopMetricsContext;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.common.service.RetryStrategies;
+import io.cdap.cdap.common.utils.ImmutablePair;
+import io.cdap.cdap.messaging.MessagingService;
+import io.cdap.cdap.messaging.context.MultiThreadMessagingContext;
+import io.cdap.cdap.messaging.data.MessageId;
+import io.cdap.cdap.messaging.subscriber.AbstractMessagingPollingService;
+import io.cdap.cdap.proto.id.NamespaceId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Service that polls the privilege change topic published by {@link DelegatingPrivilegeManager} and
+ * calls a given invalidator whenever there are new changes, so that cached authorization results can be discarded.
+ * Only changes published after this service was created are processed.
+ */
+final class PrivilegeChangeSubscriberService extends AbstractMessagingPollingService<String> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PrivilegeChangeSubscriberService.class);
+
+  private final MessagingContext messagingContext;
+  private final Runnable invalidator;
+  private final long startTime;
+
+  PrivilegeChangeSubscriberService(CConfiguration cConf, MessagingService messagingService, Runnable invalidator) {
+    super(NamespaceId.SYSTEM.topic(cConf.get(Constants.Security.Authorization.PRIVILEGE_CHANGE_TOPIC)),
+          new NoopMetricsContext(), 100,
+          cConf.getLong(Constants.Security.Authorization.PRIVILEGE_CHANGE_POLL_DELAY_MILLIS),
+          RetryStrategies.exponentialDelay(100, 5000, TimeUnit.MILLISECONDS));
+    this.messagingContext = new MultiThreadMessagingContext(messagingService);
+    this.invalidator = invalidator;
+    this.startTime = System.currentTimeMillis();
+  }
+
+  @Override
+  protected MessagingContext getMessagingContext() {
+    return messagingContext;
+  }
+
+  @Override
+  protected String decodeMessage(Message message) {
+    return message.getPayloadAsString();
+  }
+
+  @Nullable
+  @Override
+  protected String loadMessageId() {
+    // Start from the time when this service was created. Changes before that are already reflected in the caches.
+    byte[] rawId = new byte[MessageId.RAW_ID_SIZE];
+    MessageId.putRawId(startTime, (short) 0, 0L, (short) 0, rawId, 0);
+    return Bytes.toHexString(rawId);
+  }
+
+  @Nullable
+  @Override
+  protected String processMessages(Iterator<ImmutablePair<String, String>> messages) {
+    String messageId = null;
+    while (messages.hasNext()) {
+      ImmutablePair<String, String> message = messages.next();
+      LOG.trace("Received privilege change {}", message.getSecond());
+      messageId = message.getFirst();
+    }
+    if (messageId != null) {
+      invalidator.run();
+    }
+    return messageId;
+  }
+}
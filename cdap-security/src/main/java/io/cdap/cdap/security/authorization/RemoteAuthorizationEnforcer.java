@@ -16,7 +16,6 @@
 
 package io.cdap.cdap.security.authorization;
 
-import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
@@ -35,6 +34,7 @@ import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.http.DefaultHttpRequestConfig;
 import io.cdap.cdap.common.internal.remote.RemoteClient;
+import io.cdap.cdap.messaging.MessagingService;
 import io.cdap.cdap.proto.codec.EntityIdTypeAdapter;
 import io.cdap.cdap.proto.id.EntityId;
 import io.cdap.cdap.proto.security.Action;
@@ -44,26 +44,35 @@ import io.cdap.cdap.proto.security.VisibilityRequest;
 import io.cdap.cdap.security.spi.authorization.UnauthorizedException;
 import io.cdap.common.http.HttpMethod;
 import io.cdap.common.http.HttpRequest;
+import org.apache.twill.common.Threads;
 import org.apache.twill.discovery.DiscoveryServiceClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.ParametersAreNonnullByDefault;
 
 /**
  * Remote implementation of the AuthorizationEnforcer. Contacts master for authorization enforcement and
- * then caches the results if caching is enabled.
+ * then caches the results if caching is enabled. It must be closed when it is no longer used, to release the
+ * threads for refreshing the caches and for watching privilege changes.
  */
-public class RemoteAuthorizationEnforcer extends AbstractAuthorizationEnforcer {
+public class RemoteAuthorizationEnforcer extends AbstractAuthorizationEnforcer implements Closeable {
 
   private static final Logger LOG = LoggerFactory.getLogger(RemoteAuthorizationEnforcer.class);
 
@@ -71,6 +80,7 @@ public class RemoteAuthorizationEnforcer extends AbstractAuthorizationEnforcer {
     .registerTypeAdapter(EntityId.class, new EntityIdTypeAdapter())
     .create();
   private static final Type SET_ENTITY_TYPE = new TypeToken<Set<EntityId>>() { }.getType();
+  private static final Type LIST_PRIVILEGE_TYPE = new TypeToken<List<AuthorizationPrivilege>>() { }.getType();
 
   private static final Function<VisibilityKey, EntityId> VISIBILITY_KEY_ENTITY_ID_FUNCTION =
     new Function<VisibilityKey, EntityId>() {
@@ -88,39 +98,57 @@ public class RemoteAuthorizationEnforcer extends AbstractAuthorizationEnforcer {
       }
     };
 
+  private final CConfiguration cConf;
   private final RemoteClient remoteClient;
   private final boolean cacheEnabled;
 
   private final LoadingCache<AuthorizationPrivilege, Boolean> authPolicyCache;
   private final LoadingCache<VisibilityKey, Boolean> visibilityCache;
+  private final ExecutorService refreshExecutor;
+  private final AtomicBoolean subscriberStarted;
+  private PrivilegeChangeSubscriberService privilegeChangeSubscriber;
 
   @Inject
   public RemoteAuthorizationEnforcer(CConfiguration cConf, final DiscoveryServiceClient discoveryClient) {
     super(cConf);
+    this.cConf = cConf;
     this.remoteClient = new RemoteClient(discoveryClient, Constants.Service.APP_FABRIC_HTTP,
                                          new DefaultHttpRequestConfig(false), "/v1/execute/");
     int cacheTTLSecs = cConf.getInt(Constants.Security.Authorization.CACHE_TTL_SECS);
+    int cacheRefreshSecs = cConf.getInt(Constants.Security.Authorization.CACHE_REFRESH_SECS);
     int cacheMaxEntries = cConf.getInt(Constants.Security.Authorization.CACHE_MAX_ENTRIES);
     // Cache can be disabled by setting the number of entries to <= 0
     this.cacheEnabled = cacheMaxEntries > 0;
+    this.subscriberStarted = new AtomicBoolean();
+    // Entries that are accessed after the refresh interval are reloaded in the background, so that frequently
+    // used entries don't expire and incur a remote call on the request path
+    this.refreshExecutor = Executors.newSingleThreadExecutor(
+      Threads.createDaemonThreadFactory("authorization-cache-refresh"));
 
     int perCacheSize = cacheMaxEntries / 2 + 1;
-    authPolicyCache = CacheBuilder.newBuilder()
+    authPolicyCache = withRefresh(CacheBuilder.newBuilder(), cacheRefreshSecs, cacheTTLSecs)
       .expireAfterWrite(cacheTTLSecs, TimeUnit.SECONDS)
       .maximumSize(perCacheSize)
-      .build(new CacheLoader<AuthorizationPrivilege, Boolean>() {
+      .build(CacheLoader.asyncReloading(new CacheLoader<AuthorizationPrivilege, Boolean>() {
         @Override
         @ParametersAreNonnullByDefault
         public Boolean load(AuthorizationPrivilege authorizationPrivilege) throws Exception {
           LOG.trace("Cache miss for {}", authorizationPrivilege);
           return doEnforce(authorizationPrivilege);
         }
-      });
 
-    visibilityCache = CacheBuilder.newBuilder()
+        @Override
+        public Map<AuthorizationPrivilege, Boolean> loadAll(
+          Iterable<? extends AuthorizationPrivilege> privileges) throws Exception {
+          LOG.trace("Cache miss for {}", privileges);
+          return doEnforce(privileges);
+        }
+      }, refreshExecutor));
+
+    visibilityCache = withRefresh(CacheBuilder.newBuilder(), cacheRefreshSecs, cacheTTLSecs)
       .expireAfterAccess(cacheTTLSecs, TimeUnit.SECONDS)
       .maximumSize(perCacheSize)
-      .build(new CacheLoader<VisibilityKey, Boolean>() {
+      .build(CacheLoader.asyncReloading(new CacheLoader<VisibilityKey, Boolean>() {
         @Override
         @ParametersAreNonnullByDefault
         public Boolean load(VisibilityKey key) throws Exception {
@@ -133,7 +161,19 @@ public class RemoteAuthorizationEnforcer extends AbstractAuthorizationEnforcer {
           LOG.trace("Cache miss for {}", keys);
           return loadVisibility(keys);
         }
-      });
+      }, refreshExecutor));
+  }
+
+  /**
+   * Sets the {@link MessagingService} for receiving privilege changes, which invalidate the caches. It is optional,
+   * since not every process that enforces authorization has the messaging service available, in which case
+   * cache entries are only discarded when they expire.
+   */
+  @Inject(optional = true)
+  void setMessagingService(MessagingService messagingService) {
+    if (cacheEnabled) {
+      privilegeChangeSubscriber = new PrivilegeChangeSubscriberService(cConf, messagingService, this::clearCache);
+    }
   }
 
   @Override
@@ -143,12 +183,50 @@ public class RemoteAuthorizationEnforcer extends AbstractAuthorizationEnforcer {
     }
     AuthorizationPrivilege authorizationPrivilege = new AuthorizationPrivilege(principal, entity, action);
 
-    boolean allowed = cacheEnabled ? authPolicyCache.get(authorizationPrivilege) : doEnforce(authorizationPrivilege);
+    boolean allowed = cacheEnabled ? getCache().get(authorizationPrivilege) : doEnforce(authorizationPrivilege);
     if (!allowed) {
       throw new UnauthorizedException(principal, action, entity);
     }
   }
 
+  @Override
+  public void enforce(EntityId entity, Principal principal, Set<Action> actions) throws Exception {
+    if (!isSecurityAuthorizationEnabled()) {
+      return;
+    }
+    Set<Action> disallowed = getUnauthorizedActions(Collections.singletonMap(entity, actions), principal).get(entity);
+    if (disallowed != null && !disallowed.isEmpty()) {
+      throw new UnauthorizedException(principal, disallowed, entity);
+    }
+  }
+
+  @Override
+  public Map<EntityId, Set<Action>> getUnauthorizedActions(Map<? extends EntityId, Set<Action>> entityActions,
+                                                          Principal principal) throws Exception {
+    if (!isSecurityAuthorizationEnabled()) {
+      return Collections.emptyMap();
+    }
+
+    Set<AuthorizationPrivilege> privileges = new LinkedHashSet<>();
+    for (Map.Entry<? extends EntityId, Set<Action>> entry : entityActions.entrySet()) {
+      for (Action action : entry.getValue()) {
+        privileges.add(new AuthorizationPrivilege(principal, entry.getKey(), action));
+      }
+    }
+
+    // All privileges that are not in the cache are checked with a single remote call
+    Map<AuthorizationPrivilege, Boolean> allowed = cacheEnabled ? getCache().getAll(privileges) : doEnforce(privileges);
+    Map<EntityId, Set<Action>> unauthorized = new HashMap<>();
+    for (Map.Entry<AuthorizationPrivilege, Boolean> entry : allowed.entrySet()) {
+      if (!entry.getValue()) {
+        AuthorizationPrivilege privilege = entry.getKey();
+        unauthorized.computeIfAbsent(privilege.getEntity(), k -> EnumSet.noneOf(Action.class))
+          .add(privilege.getAction());
+      }
+    }
+    return unauthorized;
+  }
+
   @Override
   public Set<? extends EntityId> isVisible(Set<? extends EntityId> entityIds, Principal principal) throws Exception {
     if (!isSecurityAuthorizationEnabled()) {
@@ -159,6 +237,7 @@ public class RemoteAuthorizationEnforcer extends AbstractAuthorizationEnforcer {
 
     if (cacheEnabled) {
       Iterable<VisibilityKey> visibilityKeys = toVisibilityKeys(principal, entityIds);
+      startPrivilegeChangeSubscriber();
       ImmutableMap<VisibilityKey, Boolean> visibilityMap = visibilityCache.getAll(visibilityKeys);
       return toEntityIds(Maps.filterEntries(visibilityMap, VISIBILITY_KEYS_FILTER).keySet());
     } else {
@@ -166,12 +245,80 @@ public class RemoteAuthorizationEnforcer extends AbstractAuthorizationEnforcer {
     }
   }
 
-  @VisibleForTesting
+  /**
+   * Discards all cached authorization results.
+   */
   public void clearCache() {
     authPolicyCache.invalidateAll();
     visibilityCache.invalidateAll();
   }
 
+  /**
+   * Stops watching privilege changes and refreshing cache entries, and discards all cached results.
+   */
+  @Override
+  public void close() {
+    // Prevent the subscriber from being started after closing
+    if (subscriberStarted.getAndSet(true) && privilegeChangeSubscriber != null) {
+      privilegeChangeSubscriber.stopAndWait();
+    }
+    refreshExecutor.shutdownNow();
+    clearCache();
+  }
+
+  /**
+   * Returns the cache of enforcement results, making sure that changes of privileges are being watched.
+   */
+  private LoadingCache<AuthorizationPrivilege, Boolean> getCache() {
+    startPrivilegeChangeSubscriber();
+    return authPolicyCache;
+  }
+
+  /**
+   * Starts the {@link PrivilegeChangeSubscriberService} on first use of the caches, if a {@link MessagingService}
+   * is available.
+   */
+  private void startPrivilegeChangeSubscriber() {
+    if (privilegeChangeSubscriber != null && subscriberStarted.compareAndSet(false, true)) {
+      privilegeChangeSubscriber.start();
+    }
+  }
+
+  private static CacheBuilder<Object, Object> withRefresh(CacheBuilder<Object, Object> builder,
+                                                          int refreshSecs, int ttlSecs) {
+    if (refreshSecs <= 0 || refreshSecs >= ttlSecs) {
+      return builder;
+    }
+    return builder.refreshAfterWrite(refreshSecs, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Checks all the given privileges with a single call to the master.
+   *
+   * @return a map from each privilege to whether it is granted
+   */
+  private Map<AuthorizationPrivilege, Boolean> doEnforce(Iterable<? extends AuthorizationPrivilege> privileges)
+    throws IOException {
+    Set<AuthorizationPrivilege> toCheck = ImmutableSet.copyOf(privileges);
+    if (toCheck.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    HttpRequest request = remoteClient.requestBuilder(HttpMethod.POST, "enforceAll")
+      .withBody(GSON.toJson(toCheck))
+      .build();
+    List<AuthorizationPrivilege> unauthorized =
+      GSON.fromJson(remoteClient.execute(request).getResponseBodyAsString(), LIST_PRIVILEGE_TYPE);
+
+    Map<AuthorizationPrivilege, Boolean> result = new HashMap<>();
+    for (AuthorizationPrivilege privilege : toCheck) {
+      result.put(privilege, true);
+    }
+    for (AuthorizationPrivilege privilege : unauthorized) {
+      result.put(privilege, false);
+    }
+    return result;
+  }
+
   private boolean doEnforce(AuthorizationPrivilege authorizationPrivilege) throws IOException {
     HttpRequest request = remoteClient.requestBuilder(HttpMethod.POST, "enforce")
       .withBody(GSON.toJson(authorizationPrivilege))
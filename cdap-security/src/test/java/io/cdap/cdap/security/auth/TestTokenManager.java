@@ -20,6 +20,7 @@ import com.google.common.collect.Lists;
 import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.common.io.Codec;
 import io.cdap.cdap.common.utils.ImmutablePair;
+import org.apache.commons.codec.binary.Base64;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -112,4 +113,51 @@ public abstract class TestTokenManager {
 
     tokenManager.stopAndWait();
   }
+
+  @Test
+  public void testValidatorCache() throws Exception {
+    ImmutablePair<TokenManager, Codec<AccessToken>> pair = getTokenManagerAndCodec();
+    TokenManager tokenManager = pair.getFirst();
+    Codec<AccessToken> tokenCodec = pair.getSecond();
+    AccessTokenValidator validator = new AccessTokenValidator(tokenManager, tokenCodec, 10, TOKEN_DURATION);
+    validator.startAndWait();
+
+    long now = System.currentTimeMillis();
+    List<String> groups = Lists.newArrayList("users", "admins");
+    AccessToken token = tokenManager.signIdentifier(new AccessTokenIdentifier("testuser", groups,
+                                                                              now, now + TOKEN_DURATION));
+    String tokenStr = Base64.encodeBase64String(tokenCodec.encode(token));
+
+    // the second validation is served from the cache
+    assertEquals(TokenState.VALID, validator.validate(tokenStr));
+    assertEquals(0, validator.getCacheStats().hitCount());
+    assertEquals(TokenState.VALID, validator.validate(tokenStr));
+    assertEquals(1, validator.getCacheStats().hitCount());
+
+    // invalid tokens are never cached
+    byte[] invalidDigest = token.getDigestBytes();
+    new Random().nextBytes(invalidDigest);
+    String invalidTokenStr = Base64.encodeBase64String(
+      tokenCodec.encode(new AccessToken(token.getIdentifier(), token.getKeyId(), invalidDigest)));
+    assertEquals(TokenState.INVALID, validator.validate(invalidTokenStr));
+    assertEquals(TokenState.INVALID, validator.validate(invalidTokenStr));
+    assertEquals(1, validator.getCacheStats().hitCount());
+
+    // expired tokens are not cached
+    AccessToken expiredToken = tokenManager.signIdentifier(new AccessTokenIdentifier("testuser", groups,
+                                                                                     now - 1000, now - 1));
+    String expiredTokenStr = Base64.encodeBase64String(tokenCodec.encode(expiredToken));
+    assertEquals(TokenState.EXPIRED, validator.validate(expiredTokenStr));
+    assertEquals(TokenState.EXPIRED, validator.validate(expiredTokenStr));
+
+    // a key rotation discards all cached tokens
+    ((AbstractKeyManager) tokenManager.keyManager).generateKey();
+    long hitCount = validator.getCacheStats().hitCount();
+    assertEquals(TokenState.VALID, validator.validate(tokenStr));
+    assertEquals(0, validator.getCacheStats().hitCount() - hitCount);
+    assertEquals(TokenState.VALID, validator.validate(tokenStr));
+    assertEquals(1, validator.getCacheStats().hitCount() - hitCount);
+
+    validator.stopAndWait();
+  }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.app.runtime.spark;
+
+import io.cdap.cdap.api.metrics.MetricsContext;
+import io.cdap.cdap.common.conf.Constants;
+import org.apache.spark.Accumulable;
+import org.apache.spark.AccumulableParam;
+import org.apache.spark.SparkContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+/**
+ * Collects the user metrics counted by the tasks of a Spark program in an {@link Accumulable}, so that they are
+ * merged by Spark and published by the driver, instead of by every executor. Spark merges the counts of a task
+ * when it completes, and {@link #publish()} publishes the counts merged since the last call.
+ */
+final class SparkMetricsAccumulator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SparkMetricsAccumulator.class);
+
+  private final MetricsContext userMetrics;
+  // counts that are already published, by metric name
+  private final Map<String, Long> published;
+  private Accumulable<MetricCounts, MetricCounts> accumulable;
+
+  SparkMetricsAccumulator(SparkRuntimeContext runtimeContext) {
+    this.userMetrics = runtimeContext.getProgramMetrics().childContext(Constants.Metrics.Tag.SCOPE, "user");
+    this.published = new HashMap<>();
+  }
+
+  /**
+   * Returns the {@link Accumulable} for the tasks to count in, or {@code null} if there is no {@link SparkContext}.
+   */
+  @Nullable
+  synchronized Accumulable<MetricCounts, MetricCounts> getAccumulable() {
+    if (accumulable == null) {
+      SparkContext sparkContext;
+      try {
+        sparkContext = SparkRuntimeEnv.getContext();
+      } catch (IllegalStateException e) {
+        LOG.trace("No SparkContext for collecting metrics of tasks", e);
+        return null;
+      }
+      accumulable = sparkContext.accumulable(new MetricCounts(), "cdap.metrics", new MetricCountsParam());
+    }
+    return accumulable;
+  }
+
+  /**
+   * Publishes the counts that were merged since the last call.
+   */
+  synchronized void publish() {
+    if (accumulable == null) {
+      return;
+    }
+    for (Map.Entry<String, AtomicLong> entry : accumulable.value().entrySet()) {
+      long value = entry.getValue().get();
+      Long previous = published.get(entry.getKey());
+      long delta = value - (previous == null ? 0L : previous);
+      if (delta != 0L) {
+        userMetrics.increment(entry.getKey(), delta);
+        published.put(entry.getKey(), value);
+      }
+    }
+  }
+
+  /**
+   * Counts by metric name. It can be read by the driver while Spark merges the counts of tasks into it.
+   */
+  static final class MetricCounts extends ConcurrentHashMap<String, AtomicLong> {
+
+    private static final long serialVersionUID = 3652738464810203625L;
+
+    void add(String metricName, long delta) {
+      getCount(metricName).addAndGet(delta);
+    }
+
+    /**
+     * Returns the count of the given metric, creating it if needed.
+     */
+    AtomicLong getCount(String metricName) {
+      AtomicLong count = get(metricName);
+      if (count == null) {
+        AtomicLong newCount = new AtomicLong();
+        count = putIfAbsent(metricName, newCount);
+        if (count == null) {
+          count = newCount;
+        }
+      }
+      return count;
+    }
+
+    MetricCounts addAll(MetricCounts counts) {
+      for (Map.Entry<String, AtomicLong> entry : counts.entrySet()) {
+        add(entry.getKey(), entry.getValue().get());
+      }
+      return this;
+    }
+  }
+
+  /**
+   * The {@link AccumulableParam} for merging {@link MetricCounts}.
+   */
+  private static final class MetricCountsParam implements AccumulableParam<MetricCounts, MetricCounts> {
+
+    private static final long serialVersionUID = -1570393542390526126L;
+
+    @Override
+    public MetricCounts addAccumulator(MetricCounts counts, MetricCounts other) {
+      return counts.addAll(other);
+    }
+
+    @Override
+    public MetricCounts addInPlace(MetricCounts counts, MetricCounts other) {
+      return counts.addAll(other);
+    }
+
+    @Override
+    public MetricCounts zero(MetricCounts initialValue) {
+      return new MetricCounts();
+    }
+  }
+}
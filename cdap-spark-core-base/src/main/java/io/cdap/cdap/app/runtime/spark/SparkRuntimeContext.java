@@ -22,6 +22,7 @@ import com.google.common.collect.Maps;
 import io.cdap.cdap.api.metadata.MetadataReader;
 import io.cdap.cdap.api.metrics.Metrics;
 import io.cdap.cdap.api.metrics.MetricsCollectionService;
+import io.cdap.cdap.api.metrics.MetricsCounter;
 import io.cdap.cdap.api.security.store.SecureStore;
 import io.cdap.cdap.api.security.store.SecureStoreManager;
 import io.cdap.cdap.api.spark.SparkSpecification;
@@ -114,6 +115,11 @@ public final class SparkRuntimeContext extends AbstractContext implements Metric
     getMetrics().gauge(metricName, value);
   }
 
+  @Override
+  public MetricsCounter counter(String metricName) {
+    return getMetrics().counter(metricName);
+  }
+
   /**
    * Returns the {@link SparkSpecification} of the spark program of this context.
    */
@@ -17,38 +17,57 @@
 package io.cdap.cdap.app.runtime.spark;
 
 import io.cdap.cdap.api.metrics.Metrics;
+import io.cdap.cdap.api.metrics.MetricsCounter;
+import org.apache.spark.Accumulable;
+import org.apache.spark.TaskContext;
 
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
 
 /**
  * A {@link Externalizable} implementation of {@link Metrics} used in Spark program execution.
- * It has no-op for serialize/deserialize operation, with all operations delegated to the {@link SparkRuntimeContext}
- * of the current execution context.
+ * All operations are delegated to the {@link SparkRuntimeContext} of the current execution context. If the driver
+ * collects the metrics of tasks with a {@link SparkMetricsAccumulator}, its {@link Accumulable} is serialized, and
+ * counts within a task are added to it instead.
  */
 public final class SparkUserMetrics implements Metrics, Externalizable {
 
   private final Metrics delegate;
+  @Nullable
+  private final SparkMetricsAccumulator metricsAccumulator;
+  // the accumulable registered with the task that deserialized this instance
+  private Accumulable<SparkMetricsAccumulator.MetricCounts, SparkMetricsAccumulator.MetricCounts> taskAccumulable;
 
   /**
    * Constructor. It delegates metrics operations to the current {@link SparkRuntimeContext}.
    */
   public SparkUserMetrics() {
-    this(SparkRuntimeContextProvider.get());
+    this(SparkRuntimeContextProvider.get(), null);
   }
 
   /**
    * Creates an instance that delegates all metrics operations to the give {@link Metrics} delegate.
+   *
+   * @param delegate the {@link Metrics} to delegate to
+   * @param metricsAccumulator the {@link SparkMetricsAccumulator} for tasks to count in, or {@code null} if tasks
+   *                           emit their metrics directly
    */
-  SparkUserMetrics(Metrics delegate) {
+  SparkUserMetrics(Metrics delegate, @Nullable SparkMetricsAccumulator metricsAccumulator) {
     this.delegate = delegate;
+    this.metricsAccumulator = metricsAccumulator;
   }
 
   @Override
   public void count(String metricName, int delta) {
-    delegate.count(metricName, delta);
+    if (taskAccumulable != null) {
+      taskAccumulable.localValue().add(metricName, delta);
+    } else {
+      delegate.count(metricName, delta);
+    }
   }
 
   @Override
@@ -56,13 +75,28 @@ public final class SparkUserMetrics implements Metrics, Externalizable {
     delegate.gauge(metricName, value);
   }
 
+  @Override
+  public MetricsCounter counter(String metricName) {
+    if (taskAccumulable != null) {
+      AtomicLong count = taskAccumulable.localValue().getCount(metricName);
+      return count::addAndGet;
+    }
+    return delegate.counter(metricName);
+  }
+
   @Override
   public void writeExternal(ObjectOutput out) throws IOException {
-    // no-op
+    out.writeObject(metricsAccumulator == null ? null : metricsAccumulator.getAccumulable());
   }
 
+  @SuppressWarnings("unchecked")
   @Override
   public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
-    // no-op
+    Object accumulable = in.readObject();
+    // Spark only merges the accumulables deserialized by a task
+    if (accumulable != null && TaskContext.get() != null) {
+      taskAccumulable =
+        (Accumulable<SparkMetricsAccumulator.MetricCounts, SparkMetricsAccumulator.MetricCounts>) accumulable;
+    }
   }
 }
@@ -65,6 +65,7 @@ import io.cdap.cdap.common.utils.DirUtils
 import io.cdap.cdap.data.LineageDatasetContext
 import io.cdap.cdap.data2.metadata.lineage.AccessType
 import io.cdap.cdap.internal.app.runtime.DefaultTaskLocalizationContext
+import io.cdap.cdap.proto.ProgramType
 import org.apache.hadoop.conf.Configuration
 import org.apache.hadoop.mapreduce.MRJobConfig
 import org.apache.spark.broadcast.Broadcast
@@ -110,6 +111,12 @@ abstract class AbstractSparkExecutionContext(sparkClassLoader: SparkClassLoader,
   private val authenticationContext = runtimeContext.getAuthenticationContext
   private val compilerCleanupManager = new SparkCompilerCleanupManager
   private val interpreterCount = new AtomicInteger(0)
+  // collects the metrics counted by tasks, to publish them from the driver
+  private val metricsAccumulator =
+    if (runtimeContext.getCConfiguration.getBoolean(
+          Constants.Metrics.DRIVER_AGGREGATION_ENABLED + ProgramType.SPARK.name().toLowerCase, false))
+      Some(new SparkMetricsAccumulator(runtimeContext))
+    else None
 
   @volatile
   private var sparkHttpServiceServer: Option[SparkHttpServiceServer] = None
@@ -166,6 +173,11 @@ abstract class AbstractSparkExecutionContext(sparkClassLoader: SparkClassLoader,
     override def onJobEnd(jobEnd: SparkListenerJobEnd): Unit = {
       sparkTxHandler.jobEnded(jobEnd.jobId, jobEnd.jobResult == JobSucceeded)
     }
+
+    override def onTaskEnd(taskEnd: SparkListenerTaskEnd): Unit = {
+      // the counts of the task are merged into the accumulable before the task end event
+      metricsAccumulator.foreach(_.publish())
+    }
   })
 
   /**
@@ -185,6 +197,7 @@ abstract class AbstractSparkExecutionContext(sparkClassLoader: SparkClassLoader,
       SparkRuntimeEnv.stop().foreach(sc => applicationEndLatch.await())
     } finally {
       try {
+        metricsAccumulator.foreach(_.publish())
         sparkDriveHttpService.stopAndWait()
       } finally {
         compilerCleanupManager.close()
@@ -210,7 +223,7 @@ abstract class AbstractSparkExecutionContext(sparkClassLoader: SparkClassLoader,
 
   override def getServiceDiscoverer: ServiceDiscoverer = new SparkServiceDiscoverer(runtimeContext)
 
-  override def getMetrics: Metrics = new SparkUserMetrics(runtimeContext)
+  override def getMetrics: Metrics = new SparkUserMetrics(runtimeContext, metricsAccumulator.orNull)
 
   override def getSecureStore: SecureStore = new SparkSecureStore(runtimeContext)
 
@@ -62,6 +62,7 @@ public final class MetricDataQuery {
   private final AggregationOption aggregationOption;
 
   private final Interpolator interpolator;
+  private final int seriesLimit;
 
   /**
    * @param startTs Start timestamp, in seconds.
@@ -104,6 +105,22 @@ public final class MetricDataQuery {
                          Map<String, String> sliceByTagValues, List<String> groupByTags,
                          AggregationOption aggregationOption,
                          @Nullable Interpolator interpolator) {
+    this(startTs, endTs, resolution, limit, metrics, sliceByTagValues, groupByTags, aggregationOption, interpolator,
+         Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param startTs Start timestamp, in seconds.
+   * @param endTs End timestamp, in seconds.
+   * @param resolution Resolution in seconds.
+   * @param seriesLimit Maximum number of time series to return. If the query matches more, only the ones with
+   *                    the largest sum of values are returned.
+   */
+  public MetricDataQuery(long startTs, long endTs, int resolution, int limit,
+                         Map<String, AggregationFunction> metrics,
+                         Map<String, String> sliceByTagValues, List<String> groupByTags,
+                         AggregationOption aggregationOption,
+                         @Nullable Interpolator interpolator, int seriesLimit) {
     this.startTs = startTs;
     this.endTs = endTs;
     this.resolution = resolution;
@@ -113,6 +130,7 @@ public final class MetricDataQuery {
     this.groupByTags = groupByTags;
     this.aggregationOption = aggregationOption;
     this.interpolator = interpolator;
+    this.seriesLimit = seriesLimit;
   }
 
   public long getStartTs() {
@@ -152,6 +170,10 @@ public final class MetricDataQuery {
     return interpolator;
   }
 
+  public int getSeriesLimit() {
+    return seriesLimit;
+  }
+
   @Override
   public String toString() {
     return Objects.toStringHelper(this)
@@ -160,6 +182,7 @@ public final class MetricDataQuery {
       .add("resolution", resolution)
       .add("metrics", metrics)
       .add("sliceByTags", Joiner.on(",").withKeyValueSeparator(":").useForNull("null").join(sliceByTagValues))
-      .add("groupByTags", Joiner.on(",").join(groupByTags)).toString();
+      .add("groupByTags", Joiner.on(",").join(groupByTags))
+      .add("seriesLimit", seriesLimit).toString();
   }
 }
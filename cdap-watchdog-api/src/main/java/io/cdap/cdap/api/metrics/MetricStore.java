@@ -18,6 +18,7 @@ package io.cdap.cdap.api.metrics;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Stores and provides access to metrics data.
@@ -49,6 +50,14 @@ public interface MetricStore {
    */
   Collection<MetricTimeSeries> query(MetricDataQuery query);
 
+  /**
+   * Queries metrics data, handing each resulting time series to the given consumer as soon as it is available
+   * instead of collecting all of them first.
+   * @param query query to execute
+   * @param consumer consumer of the time series that satisfy the query
+   */
+  void query(MetricDataQuery query, Consumer<MetricTimeSeries> consumer);
+
   /**
    * Deletes all metric data before given timestamp. Used for applying TTL policy.
    *
@@ -61,6 +70,12 @@ public interface MetricStore {
    */
   void deleteTTLExpired();
 
+  /**
+   * Derives the complete time buckets of the resolution tables that are rolled up from a finer resolution,
+   * instead of being written on ingest.
+   */
+  void rollup();
+
   /**
    * Deletes all metric data specified by the {@link MetricDeleteQuery}
    * @param query specifies what to delete
@@ -15,12 +15,12 @@
  */
 package io.cdap.cdap.metrics.collect;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.AbstractExecutionThreadService;
 import com.google.common.util.concurrent.Uninterruptibles;
@@ -29,13 +29,20 @@ import io.cdap.cdap.api.metrics.MetricValue;
 import io.cdap.cdap.api.metrics.MetricValues;
 import io.cdap.cdap.api.metrics.MetricsCollectionService;
 import io.cdap.cdap.api.metrics.MetricsContext;
+import io.cdap.cdap.api.metrics.MetricsCounter;
 import io.cdap.cdap.common.conf.Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
@@ -50,38 +57,32 @@ public abstract class AggregatedMetricsCollectionService extends AbstractExecuti
   private static final Logger LOG = LoggerFactory.getLogger(AggregatedMetricsCollectionService.class);
   private static final long CACHE_EXPIRE_MINUTES = 1;
 
-  private final LoadingCache<Map<String, String>, MetricsContext> collectors;
-  private final LoadingCache<Map<String, String>, LoadingCache<String, AggregatedMetricsEmitter>> emitters;
+  // Contexts are only weakly referenced, so that there is at most one context for the same tags as long as it is
+  // used by anyone, while unused contexts can still be garbage collected. Contexts with metrics to publish are
+  // strongly referenced by the active contexts.
+  private final LoadingCache<Map<String, String>, MetricsContextImpl> collectors;
+  // contexts that have metrics emitted recently
+  private final Set<MetricsContextImpl> activeContexts;
   // maximum number of milliseconds to sleep between each publish
   private final long publishIntervalInMillis;
+  // number of milliseconds without any change after which contexts and metrics are no longer published
+  private final long expireMillis;
   private final CountDownLatch shutdownLatch;
 
   public AggregatedMetricsCollectionService(long publishIntervalInMillis) {
+    this(publishIntervalInMillis, TimeUnit.MINUTES.toMillis(CACHE_EXPIRE_MINUTES));
+  }
+
+  @VisibleForTesting
+  AggregatedMetricsCollectionService(long publishIntervalInMillis, long expireMillis) {
     // the longest sleep time will be 1 min
     this.publishIntervalInMillis = Math.min(publishIntervalInMillis, Constants.Metrics.PROCESS_INTERVAL_MILLIS);
+    this.expireMillis = expireMillis;
     this.shutdownLatch = new CountDownLatch(1);
     this.collectors = CacheBuilder.newBuilder()
-      .expireAfterAccess(CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES)
+      .weakValues()
       .build(createCollectorLoader());
-
-    this.emitters = CacheBuilder.newBuilder()
-      // NOTE : we don't need to have removalListener to  emit metrics, as we have expireAfterAccess set for a minute,
-      // emitters.get() is used to increment/gauge and that would reset the access time,
-      // and since runOneIteration() emits all the metrics for the scheduled duration (every 1 second)
-      // there wont be any loss of emitter entries.
-      .expireAfterAccess(CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES)
-      .build(new CacheLoader<Map<String, String>, LoadingCache<String, AggregatedMetricsEmitter>>() {
-        @Override
-        public LoadingCache<String, AggregatedMetricsEmitter> load(Map<String, String> tags) throws Exception {
-          return CacheBuilder.newBuilder().expireAfterAccess(CACHE_EXPIRE_MINUTES, TimeUnit.MINUTES).
-            build(new CacheLoader<String, AggregatedMetricsEmitter>() {
-              @Override
-              public AggregatedMetricsEmitter load(String metricName) throws Exception {
-                return new AggregatedMetricsEmitter(metricName);
-              }
-            });
-        }
-      });
+    this.activeContexts = Collections.newSetFromMap(new ConcurrentHashMap<>());
   }
 
   /**
@@ -95,6 +96,18 @@ public abstract class AggregatedMetricsCollectionService extends AbstractExecuti
    */
   protected abstract void publish(Iterator<MetricValues> metrics) throws Exception;
 
+  /**
+   * Returns the tags to publish the metrics of the context with the given tags. The metrics of all contexts that are
+   * published with the same tags different from their own are merged into one {@link MetricValues}, where counters
+   * are summed up and the latest gauge is kept. By default the tags of the context are used as they are.
+   *
+   * @param tags the tags of the context
+   * @return the tags to publish with
+   */
+  protected Map<String, String> getPublishTags(Map<String, String> tags) {
+    return tags;
+  }
+
   /**
    * Returns the initial delay in milliseconds for the first metrics to be published. By default this will be the
    * publish intervals
@@ -128,7 +141,7 @@ public abstract class AggregatedMetricsCollectionService extends AbstractExecuti
 
     LOG.trace("Start log collection for timestamp {}", timestamp);
 
-    Iterator<MetricValues> metrics = getMetrics(timestamp);
+    Iterator<MetricValues> metrics = getMetrics(currentTimeMillis);
     try {
       publish(metrics);
     } catch (Throwable t) {
@@ -171,69 +184,203 @@ public abstract class AggregatedMetricsCollectionService extends AbstractExecuti
     shutdownLatch.countDown();
   }
 
-  private Iterator<MetricValues> getMetrics(final long timestamp) {
-    // NOTE : emitters.asMap does not reset the access time in cache,
-    // so it's the preferred way to access the cache entries. as we access and emit metrics every second.
-    final Iterator<Map.Entry<Map<String, String>, LoadingCache<String, AggregatedMetricsEmitter>>> iterator =
-      emitters.asMap().entrySet().iterator();
+  private Iterator<MetricValues> getMetrics(final long currentTimeMillis) {
+    final long timestamp = TimeUnit.MILLISECONDS.toSeconds(currentTimeMillis);
+    final Iterator<MetricsContextImpl> iterator = activeContexts.iterator();
+    // metrics of the contexts published with other tags than their own, they are emitted after all other contexts
+    final Map<Map<String, String>, MergedMetricValues> mergedMetrics = new LinkedHashMap<>();
     return new AbstractIterator<MetricValues>() {
+
+      private Iterator<Map.Entry<Map<String, String>, MergedMetricValues>> mergedIterator;
+
       @Override
       protected MetricValues computeNext() {
         while (iterator.hasNext()) {
-          Map.Entry<Map<String, String>, LoadingCache<String, AggregatedMetricsEmitter>> entry = iterator.next();
-          Map<String, AggregatedMetricsEmitter> metricEmitters = entry.getValue().asMap();
-          // +1 because we add extra metric about how many metric values did we emit in this context (see below)
-          List<MetricValue> metricValues = Lists.newArrayListWithCapacity(metricEmitters.size() + 1);
-          for (Map.Entry<String, AggregatedMetricsEmitter> emitterEntry : metricEmitters.entrySet()) {
-            MetricValue metricValue = emitterEntry.getValue().emit();
-            // skip increment by 0
-            if (metricValue.getType() == MetricType.COUNTER && metricValue.getValue() == 0) {
+          MetricsContextImpl context = iterator.next();
+          List<MetricValue> metricValues = context.emit(currentTimeMillis);
+
+          if (metricValues.isEmpty()) {
+            if (currentTimeMillis - context.lastEmitMillis < expireMillis) {
+              // skip if there are no metric values to send
+              continue;
+            }
+            // stop publishing the context, it is published again as soon as a metric is emitted to it
+            metricValues = context.deactivate(currentTimeMillis);
+            if (metricValues.isEmpty()) {
               continue;
             }
-            metricValues.add(metricValue);
           }
-
-          if (metricValues.isEmpty()) {
-            // skip if there are no metric values to send
+          context.lastEmitMillis = currentTimeMillis;
+
+          Map<String, String> publishTags = getPublishTags(context.tags);
+          if (!publishTags.equals(context.tags)) {
+            MergedMetricValues merged = mergedMetrics.get(publishTags);
+            if (merged == null) {
+              merged = new MergedMetricValues();
+              mergedMetrics.put(publishTags, merged);
+            }
+            merged.add(metricValues);
             continue;
           }
 
-          // number of emitted metrics
-          metricValues.add(new MetricValue("metrics.emitted.count", MetricType.COUNTER, metricValues.size() + 1));
+          return createMetricValues(context.tags, timestamp, metricValues);
+        }
 
-          LOG.trace("Emit metric {}", metricValues);
-          return new MetricValues(entry.getKey(), timestamp, metricValues);
+        if (mergedIterator == null) {
+          mergedIterator = mergedMetrics.entrySet().iterator();
+        }
+        if (mergedIterator.hasNext()) {
+          Map.Entry<Map<String, String>, MergedMetricValues> entry = mergedIterator.next();
+          List<MetricValue> metricValues = new ArrayList<>(entry.getValue().metrics.values());
+          // number of contexts merged
+          metricValues.add(new MetricValue("metrics.contexts.merged.count", MetricType.COUNTER,
+                                           entry.getValue().contexts));
+          return createMetricValues(entry.getKey(), timestamp, metricValues);
         }
         return endOfData();
       }
     };
   }
 
-  private CacheLoader<Map<String, String>, MetricsContext> createCollectorLoader() {
-    return new CacheLoader<Map<String, String>, MetricsContext>() {
+  private MetricValues createMetricValues(Map<String, String> tags, long timestamp, List<MetricValue> metricValues) {
+    // number of emitted metrics
+    metricValues.add(new MetricValue("metrics.emitted.count", MetricType.COUNTER, metricValues.size() + 1));
+
+    LOG.trace("Emit metric {}", metricValues);
+    return new MetricValues(tags, timestamp, metricValues);
+  }
+
+  private CacheLoader<Map<String, String>, MetricsContextImpl> createCollectorLoader() {
+    return new CacheLoader<Map<String, String>, MetricsContextImpl>() {
       @Override
-      public MetricsContext load(final Map<String, String> collectorKey) throws Exception {
+      public MetricsContextImpl load(final Map<String, String> collectorKey) throws Exception {
         return new MetricsContextImpl(collectorKey);
       }
     };
   }
 
+  /**
+   * The metrics of multiple contexts that are published with the same tags.
+   */
+  private static final class MergedMetricValues {
+    private final Map<String, MetricValue> metrics = new LinkedHashMap<>();
+    private int contexts;
+
+    void add(List<MetricValue> metricValues) {
+      contexts++;
+      for (MetricValue metricValue : metricValues) {
+        MetricValue existing = metrics.get(metricValue.getName());
+        if (existing != null && existing.getType() == MetricType.COUNTER
+          && metricValue.getType() == MetricType.COUNTER) {
+          metricValue = new MetricValue(metricValue.getName(), MetricType.COUNTER,
+                                        existing.getValue() + metricValue.getValue());
+        }
+        metrics.put(metricValue.getName(), metricValue);
+      }
+    }
+  }
+
   private final class MetricsContextImpl implements MetricsContext {
 
     private final Map<String, String> tags;
+    private final ConcurrentMap<String, AggregatedMetricsEmitter> emitters;
+    // whether this context is in the active contexts to publish
+    private volatile boolean active;
+    // last time in milliseconds this context had metrics to publish, only accessed by the publishing thread
+    private long lastEmitMillis;
 
     private MetricsContextImpl(final Map<String, String> tags) {
       this.tags = ImmutableMap.copyOf(tags);
+      this.emitters = new ConcurrentHashMap<>();
     }
 
     @Override
     public void increment(String metricName, long value) {
-      emitters.getUnchecked(tags).getUnchecked(metricName).increment(value);
+      // An emitter that has not changed for a while can be expired by the publishing thread right after it is
+      // looked up here, in which case this increment is not published. This is the same window there was when
+      // emitters were expired from a cache, callers that cannot afford it should use a counter instead.
+      getEmitter(metricName).increment(value);
+      // activate after emitting, so that a concurrent deactivation either publishes the value or gets reverted
+      activate();
     }
 
     @Override
     public void gauge(String metricName, long value) {
-      emitters.getUnchecked(tags).getUnchecked(metricName).gauge(value);
+      getEmitter(metricName).gauge(value);
+      activate();
+    }
+
+    @Override
+    public MetricsCounter counter(String metricName) {
+      while (true) {
+        AggregatedMetricsEmitter emitter = getEmitter(metricName);
+        // pinned emitters are never expired, so that the counter keeps incrementing the published emitter
+        if (emitter.pin()) {
+          return delta -> {
+            emitter.increment(delta);
+            activate();
+          };
+        }
+        // the emitter got expired after the lookup, a new one is created by the next lookup
+        emitters.remove(metricName, emitter);
+      }
+    }
+
+    private AggregatedMetricsEmitter getEmitter(String metricName) {
+      AggregatedMetricsEmitter emitter = emitters.get(metricName);
+      return emitter == null ? emitters.computeIfAbsent(metricName, AggregatedMetricsEmitter::new) : emitter;
+    }
+
+    private void activate() {
+      if (!active) {
+        synchronized (this) {
+          if (!active) {
+            activeContexts.add(this);
+            active = true;
+          }
+        }
+      }
+    }
+
+    /**
+     * Removes this context from the active contexts and returns the metrics emitted to it in the meantime.
+     */
+    private List<MetricValue> deactivate(long currentTimeMillis) {
+      synchronized (this) {
+        activeContexts.remove(this);
+        active = false;
+      }
+      return emit(currentTimeMillis);
+    }
+
+    /**
+     * Returns the metric values that changed since the last call and expires the emitters that have not changed
+     * for longer than the expiry time. Must only be called by the publishing thread.
+     */
+    private List<MetricValue> emit(long currentTimeMillis) {
+      // +1 because we add extra metric about how many metric values did we emit in this context
+      List<MetricValue> metricValues = new ArrayList<>(emitters.size() + 1);
+      for (Map.Entry<String, AggregatedMetricsEmitter> entry : emitters.entrySet()) {
+        AggregatedMetricsEmitter emitter = entry.getValue();
+        MetricValue metricValue = emitter.emit(currentTimeMillis);
+        if (isZeroIncrement(metricValue) && currentTimeMillis - emitter.getLastChangeMillis() >= expireMillis
+          && emitter.expire()) {
+          // only remove this very emitter, a new one for the same metric may have been created already
+          emitters.remove(entry.getKey(), emitter);
+          // publish whatever got incremented between the emit and the expiry
+          metricValue = emitter.emit(currentTimeMillis);
+        }
+        // skip increment by 0
+        if (isZeroIncrement(metricValue)) {
+          continue;
+        }
+        metricValues.add(metricValue);
+      }
+      return metricValues;
+    }
+
+    private boolean isZeroIncrement(MetricValue metricValue) {
+      return metricValue.getType() == MetricType.COUNTER && metricValue.getValue() == 0;
     }
 
     @Override
@@ -21,20 +21,30 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * {@link MetricsEmitter} that aggregates  values for a metric
  * during collection and emit the aggregated value when emit.
+ * Increments and gauges are lock-free, while {@link #emit(long)} must only be called from a single thread.
  */
 final class AggregatedMetricsEmitter implements MetricsEmitter {
   private static final Logger LOG = LoggerFactory.getLogger(AggregatedMetricsEmitter.class);
 
   private final String name;
-  // metric value
-  private final AtomicLong value;
+  // sum of all increments. It is never reset, so that increments concurrent to emit are not lost
+  private final LongAdder increments;
+  // sum of the increments emitted so far, only accessed by the emitting thread
+  private long emittedIncrements;
+  private volatile long gaugeValue;
   // specifies if the metric type is gauge or counter
   private final AtomicBoolean gaugeUsed;
+  // last time in milliseconds the emitted value changed, only accessed by the emitting thread
+  private long lastChangeMillis;
+  // whether a counter is bound to this emitter, guarded by this
+  private boolean pinned;
+  // whether this emitter got removed from its context, guarded by this
+  private boolean expired;
 
   AggregatedMetricsEmitter(String name) {
     if (name == null || name.isEmpty()) {
@@ -42,25 +52,70 @@ final class AggregatedMetricsEmitter implements MetricsEmitter {
     }
 
     this.name = name;
-    this.value = new AtomicLong();
+    this.increments = new LongAdder();
     this.gaugeUsed = new AtomicBoolean(false);
+    this.lastChangeMillis = System.currentTimeMillis();
   }
 
   void increment(long value) {
-    this.value.addAndGet(value);
+    increments.add(value);
   }
 
-
   @Override
   public MetricValue emit() {
-    // todo CDAP-2195 - potential race condition , reseting value and type has to be done together
-    long value = this.value.getAndSet(0);
-    MetricType type = gaugeUsed.getAndSet(false) ? MetricType.GAUGE : MetricType.COUNTER;
-    return new MetricValue(name, type, value);
+    return emit(System.currentTimeMillis());
+  }
+
+  MetricValue emit(long currentTimeMillis) {
+    long sum = increments.sum();
+    long value = sum - emittedIncrements;
+    emittedIncrements = sum;
+    // a gauge set since the last emit takes precedence over the increments
+    if (gaugeUsed.getAndSet(false)) {
+      lastChangeMillis = currentTimeMillis;
+      return new MetricValue(name, MetricType.GAUGE, gaugeValue);
+    }
+    if (value != 0) {
+      lastChangeMillis = currentTimeMillis;
+    }
+    return new MetricValue(name, MetricType.COUNTER, value);
+  }
+
+  /**
+   * Returns the last time in milliseconds {@link #emit(long)} returned a change.
+   */
+  long getLastChangeMillis() {
+    return lastChangeMillis;
+  }
+
+  /**
+   * Prevents this emitter from being expired.
+   *
+   * @return {@code false} if this emitter is already expired and must not be used anymore
+   */
+  synchronized boolean pin() {
+    if (expired) {
+      return false;
+    }
+    pinned = true;
+    return true;
+  }
+
+  /**
+   * Marks this emitter as expired, unless it is pinned.
+   *
+   * @return {@code true} if this emitter is expired and should be removed
+   */
+  synchronized boolean expire() {
+    if (pinned) {
+      return false;
+    }
+    expired = true;
+    return true;
   }
 
   public void gauge(long value) {
-    this.value.set(value);
-    this.gaugeUsed.set(true);
+    gaugeValue = value;
+    gaugeUsed.set(true);
   }
 }
@@ -26,6 +26,7 @@ import io.cdap.cdap.common.id.Id;
 import io.cdap.cdap.metrics.process.MessagingMetricsProcessorService;
 import io.cdap.cdap.metrics.process.MessagingMetricsProcessorServiceFactory;
 import io.cdap.cdap.metrics.store.MetricsCleanUpService;
+import io.cdap.cdap.metrics.store.MetricsRollupService;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -48,16 +49,19 @@ public final class LocalMetricsCollectionService extends AggregatedMetricsCollec
   private final CConfiguration cConf;
   private final MetricStore metricStore;
   private final MetricsCleanUpService metricsCleanUpService;
+  private final MetricsRollupService metricsRollupService;
   private MessagingMetricsProcessorServiceFactory messagingMetricsProcessorFactory;
   private MessagingMetricsProcessorService messagingMetricsProcessor;
 
   @Inject
   LocalMetricsCollectionService(CConfiguration cConf, MetricStore metricStore,
-                                MetricsCleanUpService metricsCleanUpService) {
+                                MetricsCleanUpService metricsCleanUpService,
+                                MetricsRollupService metricsRollupService) {
     super(TimeUnit.SECONDS.toMillis(cConf.getInt(Constants.Metrics.METRICS_MINIMUM_RESOLUTION_SECONDS)));
     this.cConf = cConf;
     this.metricStore = metricStore;
     this.metricsCleanUpService = metricsCleanUpService;
+    this.metricsRollupService = metricsRollupService;
     metricStore.setMetricsContext(this.getContext(METRICS_PROCESSOR_CONTEXT));
   }
 
@@ -92,6 +96,7 @@ public final class LocalMetricsCollectionService extends AggregatedMetricsCollec
 
     // The local metrics store do not have ttl, so start the clean up service
     metricsCleanUpService.startAndWait();
+    metricsRollupService.startAndWait();
   }
 
   @Override
@@ -117,7 +122,16 @@ public final class LocalMetricsCollectionService extends AggregatedMetricsCollec
       }
     }
 
-    // Shutdown the clean up service
+    // Shutdown the rollup and the clean up service
+    try {
+      metricsRollupService.stopAndWait();
+    } catch (Exception e) {
+      if (failure != null) {
+        failure.addSuppressed(e);
+      } else {
+        failure = e;
+      }
+    }
     try {
       metricsCleanUpService.stopAndWait();
     } catch (Exception e) {
@@ -18,6 +18,8 @@ package io.cdap.cdap.metrics.collect;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.cdap.cdap.api.messaging.TopicNotFoundException;
@@ -32,6 +34,7 @@ import io.cdap.cdap.common.service.RetryStrategies;
 import io.cdap.cdap.common.service.RetryStrategy;
 import io.cdap.cdap.messaging.MessagingService;
 import io.cdap.cdap.messaging.client.StoreRequestBuilder;
+import io.cdap.cdap.proto.ProgramType;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.TopicId;
 import org.slf4j.Logger;
@@ -40,11 +43,14 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -54,12 +60,22 @@ import java.util.concurrent.TimeUnit;
 public class MessagingMetricsCollectionService extends AggregatedMetricsCollectionService {
   private static final Logger LOG = LoggerFactory.getLogger(MessagingMetricsCollectionService.class);
   private static final Joiner.MapJoiner MAP_JOINER = Joiner.on(',').withKeyValueSeparator("=");
+  // program types that can be configured to publish aggregated metrics, with the tag that identifies their contexts.
+  // workflow is last, as the contexts of programs run by a workflow carry the workflow tag too.
+  private static final Map<ProgramType, String> PROGRAM_TYPE_TAGS = ImmutableMap.of(
+    ProgramType.MAPREDUCE, Constants.Metrics.Tag.MAPREDUCE,
+    ProgramType.SPARK, Constants.Metrics.Tag.SPARK,
+    ProgramType.SERVICE, Constants.Metrics.Tag.SERVICE,
+    ProgramType.WORKER, Constants.Metrics.Tag.WORKER,
+    ProgramType.WORKFLOW, Constants.Metrics.Tag.WORKFLOW);
 
   private final MessagingService messagingService;
   private final DatumWriter<MetricValues> recordWriter;
   private final ByteArrayOutputStream encoderOutputStream;
   private final Encoder encoder;
   private final Map<Integer, TopicPayload> topicPayloads;
+  // tags to drop before publishing, by the tag that identifies the contexts of a program type
+  private final Map<String, Set<String>> publishAggregationTags;
 
   @Inject
   MessagingMetricsCollectionService(CConfiguration cConf,
@@ -83,6 +99,31 @@ public class MessagingMetricsCollectionService extends AggregatedMetricsCollecti
     for (int i = 0; i < totalTopicNum; i++) {
       topicPayloads.put(i, new TopicPayload(NamespaceId.SYSTEM.topic(topicPrefix + i), retryStrategy));
     }
+
+    this.publishAggregationTags = new LinkedHashMap<>();
+    for (Map.Entry<ProgramType, String> entry : PROGRAM_TYPE_TAGS.entrySet()) {
+      Collection<String> tags = cConf.getTrimmedStringCollection(
+        Constants.Metrics.PUBLISH_AGGREGATION_TAGS + entry.getKey().name().toLowerCase());
+      if (!tags.isEmpty()) {
+        publishAggregationTags.put(entry.getValue(), ImmutableSet.copyOf(tags));
+      }
+    }
+  }
+
+  @Override
+  protected Map<String, String> getPublishTags(Map<String, String> tags) {
+    for (Map.Entry<String, Set<String>> entry : publishAggregationTags.entrySet()) {
+      if (!tags.containsKey(entry.getKey())) {
+        continue;
+      }
+      if (Collections.disjoint(tags.keySet(), entry.getValue())) {
+        return tags;
+      }
+      Map<String, String> publishTags = new HashMap<>(tags);
+      publishTags.keySet().removeAll(entry.getValue());
+      return publishTags;
+    }
+    return tags;
   }
 
   @Override
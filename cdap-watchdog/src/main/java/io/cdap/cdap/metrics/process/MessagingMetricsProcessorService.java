@@ -38,7 +38,9 @@ import io.cdap.cdap.common.io.BinaryDecoder;
 import io.cdap.cdap.common.io.DatumReader;
 import io.cdap.cdap.common.logging.LogSamplers;
 import io.cdap.cdap.common.logging.Loggers;
+import io.cdap.cdap.internal.io.ASMFieldAccessorFactory;
 import io.cdap.cdap.internal.io.DatumReaderFactory;
+import io.cdap.cdap.internal.io.ResolvingDatumReaderFactory;
 import io.cdap.cdap.internal.io.SchemaGenerator;
 import io.cdap.cdap.messaging.MessageFetcher;
 import io.cdap.cdap.messaging.MessagingService;
@@ -106,13 +108,14 @@ public class MessagingMetricsProcessorService extends AbstractExecutionThreadSer
                                    MetricDatasetFactory metricDatasetFactory,
                                    MessagingService messagingService,
                                    SchemaGenerator schemaGenerator,
-                                   DatumReaderFactory readerFactory,
                                    MetricStore metricStore,
                                    @Assisted Set<Integer> topicNumbers,
                                    @Assisted MetricsContext metricsContext,
                                    @Assisted Integer instanceId) {
+    // Every fetched message is decoded with the same schema, hence use the reader that resolves it only once
     this(cConf, metricDatasetFactory, messagingService,
-         schemaGenerator, readerFactory, metricStore, topicNumbers, metricsContext,
+         schemaGenerator, new ResolvingDatumReaderFactory(new ASMFieldAccessorFactory()), metricStore,
+         topicNumbers, metricsContext,
          TimeUnit.SECONDS.toMillis(cConf.getInt(Constants.Metrics.METRICS_MINIMUM_RESOLUTION_SECONDS)), instanceId);
   }
 
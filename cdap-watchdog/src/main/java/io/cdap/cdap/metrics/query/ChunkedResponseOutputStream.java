@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.metrics.query;
+
+import com.google.common.io.Closeables;
+import io.cdap.http.ChunkResponder;
+import io.cdap.http.HttpResponder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An {@link OutputStream} that sends what is written to it as a chunked HTTP response. Content is buffered up to
+ * the chunk size and the response is only started when the first chunk is full, so that a failure before that can
+ * still be answered with a proper error status. Content that never fills a chunk is sent as a regular response.
+ */
+final class ChunkedResponseOutputStream extends OutputStream {
+
+  private static final int CHUNK_SIZE = 64 * 1024;
+
+  private final HttpResponder responder;
+  private final HttpHeaders headers;
+  private ByteBuf buffer;
+  private ChunkResponder chunkResponder;
+
+  ChunkedResponseOutputStream(HttpResponder responder, HttpHeaders headers) {
+    this.responder = responder;
+    this.headers = headers;
+    this.buffer = Unpooled.buffer(CHUNK_SIZE);
+  }
+
+  /**
+   * Returns {@code true} if the response has been started, after which no other response can be sent.
+   */
+  boolean isResponseStarted() {
+    return chunkResponder != null;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    buffer.writeByte(b);
+    sendChunkIfFull();
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      int size = Math.min(len, CHUNK_SIZE - buffer.readableBytes());
+      buffer.writeBytes(b, off, size);
+      off += size;
+      len -= size;
+      sendChunkIfFull();
+    }
+  }
+
+  /**
+   * Discards the buffered content. If the response has been started already, it is terminated as is.
+   */
+  void abort() {
+    buffer.clear();
+    if (chunkResponder != null) {
+      Closeables.closeQuietly(chunkResponder);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (chunkResponder == null) {
+      responder.sendContent(HttpResponseStatus.OK, buffer, headers);
+      return;
+    }
+    try {
+      if (buffer.isReadable()) {
+        sendChunk();
+      }
+    } finally {
+      chunkResponder.close();
+    }
+  }
+
+  private void sendChunkIfFull() throws IOException {
+    if (buffer.readableBytes() >= CHUNK_SIZE) {
+      sendChunk();
+    }
+  }
+
+  private void sendChunk() throws IOException {
+    if (chunkResponder == null) {
+      chunkResponder = responder.sendChunkStart(HttpResponseStatus.OK, headers);
+    }
+    ByteBuf chunk = buffer;
+    buffer = Unpooled.buffer(CHUNK_SIZE);
+    chunkResponder.sendChunk(chunk);
+  }
+}
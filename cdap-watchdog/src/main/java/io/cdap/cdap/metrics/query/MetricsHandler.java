@@ -18,11 +18,14 @@ package io.cdap.cdap.metrics.query;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
 import com.google.inject.Inject;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.http.AbstractHttpHandler;
 import io.cdap.http.HttpResponder;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpUtil;
@@ -30,6 +33,8 @@ import io.netty.handler.codec.http.QueryStringDecoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
@@ -103,13 +108,14 @@ public class MetricsHandler extends AbstractHttpHandler {
           Map<String, MetricsQueryHelper.QueryRequestFormat> queries =
             GSON.fromJson(request.content().toString(StandardCharsets.UTF_8),
                           new TypeToken<Map<String, MetricsQueryHelper.QueryRequestFormat>>() { }.getType());
-          responder.sendJson(HttpResponseStatus.OK, GSON.toJson(metricsQueryHelper.executeBatchQueries(queries)));
+          streamQueryResult(responder, writer -> metricsQueryHelper.executeBatchQueries(queries, writer));
           return;
         }
         responder.sendJson(HttpResponseStatus.BAD_REQUEST, "Batch request with empty content");
+        return;
       }
-      responder.sendJson(HttpResponseStatus.OK,
-                         GSON.toJson(metricsQueryHelper.executeTagQuery(tags, metrics, groupBy, queryParams)));
+      streamQueryResult(responder,
+                        writer -> metricsQueryHelper.executeTagQuery(tags, metrics, groupBy, queryParams, writer));
     } catch (IllegalArgumentException e) {
       LOG.warn("Invalid request", e);
       responder.sendString(HttpResponseStatus.BAD_REQUEST, e.getMessage());
@@ -119,6 +125,35 @@ public class MetricsHandler extends AbstractHttpHandler {
     }
   }
 
+  /**
+   * Streams the JSON written by the given query to the client as a chunked response, so that the result of a wide
+   * query is never held in memory as a whole. Failures that happen before the response is started are rethrown,
+   * so that they can be answered with a proper error status.
+   */
+  private void streamQueryResult(HttpResponder responder, QueryResultWriter resultWriter) throws IOException {
+    ChunkedResponseOutputStream output = new ChunkedResponseOutputStream(
+      responder, new DefaultHttpHeaders().set(HttpHeaderNames.CONTENT_TYPE, "application/json"));
+    JsonWriter writer = new JsonWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    try {
+      resultWriter.write(writer);
+    } catch (IOException | RuntimeException e) {
+      if (!output.isResponseStarted()) {
+        throw e;
+      }
+      LOG.error("Exception while sending metrics query result", e);
+      output.abort();
+      return;
+    }
+    writer.close();
+  }
+
+  /**
+   * Writes the result of a metrics query as JSON.
+   */
+  private interface QueryResultWriter {
+    void write(JsonWriter writer) throws IOException;
+  }
+
   @GET
   @Path("/processor/status")
   public void processorStatus(HttpRequest request, HttpResponder responder) throws Exception {
@@ -25,6 +25,9 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.primitives.Ints;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import com.google.inject.Inject;
 import io.cdap.cdap.api.dataset.lib.cube.AggregationFunction;
 import io.cdap.cdap.api.dataset.lib.cube.AggregationOption;
@@ -39,14 +42,17 @@ import io.cdap.cdap.api.metrics.TagValue;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.utils.TimeMathParser;
+import io.cdap.cdap.metrics.store.MetricsResolutions;
 import io.cdap.cdap.proto.MetricQueryRequest;
 import io.cdap.cdap.proto.MetricQueryResult;
 import io.cdap.cdap.proto.MetricTagValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -72,10 +78,13 @@ public class MetricsQueryHelper {
   private static final String PARAM_MAX_INTERPOLATE_GAP = "maxInterpolateGap";
   private static final String PARAM_AGGREGATE = "aggregate";
   private static final String PARAM_AUTO_RESOLUTION = "auto";
+  private static final String PARAM_SERIES_LIMIT = "seriesLimit";
   private static final String ANY_TAG_VALUE = "*";
+  private static final Gson GSON = new Gson();
 
   private final MetricStore metricStore;
   private final int minResolution;
+  private final MetricsResolutions metricsResolutions;
 
   private static final Map<String, String> tagNameToHuman;
   private static final Map<String, String> humanToTagName;
@@ -127,6 +136,7 @@ public class MetricsQueryHelper {
     this.metricStore = metricStore;
     int minimumResolution = cConf.getInt(Constants.Metrics.METRICS_MINIMUM_RESOLUTION_SECONDS);
     this.minResolution = minimumResolution < 60 ? minimumResolution : 60;
+    this.metricsResolutions = new MetricsResolutions(cConf);
   }
 
   public List<MetricTagValue> searchTags(List<String> tags) {
@@ -151,11 +161,37 @@ public class MetricsQueryHelper {
     return queryFinalResponse;
   }
 
+  /**
+   * Executes the given batch of queries like {@link #executeBatchQueries(Map)}, but writes the results to the given
+   * {@link JsonWriter} one time series at a time instead of collecting them in memory first. All queries are
+   * validated before anything is written.
+   */
+  public void executeBatchQueries(Map<String, QueryRequestFormat> queries, JsonWriter writer) throws IOException {
+    LOG.trace("Received Queries {}", queries);
+    Map<String, MetricDataQuery> dataQueries = new LinkedHashMap<>();
+    for (Map.Entry<String, QueryRequestFormat> query : queries.entrySet()) {
+      dataQueries.put(query.getKey(), toMetricDataQuery(getQueryRequestFromFormat(query.getValue())));
+    }
+    writer.beginObject();
+    for (Map.Entry<String, MetricDataQuery> query : dataQueries.entrySet()) {
+      writer.name(query.getKey());
+      executeQuery(query.getValue(), writer);
+    }
+    writer.endObject();
+  }
+
   public MetricQueryResult executeTagQuery(List<String> tags, List<String> metrics, List<String> groupByTags,
                                            Map<String, List<String>> queryTimeParams) throws Exception {
-    MetricQueryRequest queryRequest = new MetricQueryRequest(parseTagValuesAsMap(tags), metrics, groupByTags);
-    setTimeRangeInQueryRequest(queryRequest, queryTimeParams);
-    return executeQuery(queryRequest);
+    return executeQuery(getTagQueryRequest(tags, metrics, groupByTags, queryTimeParams));
+  }
+
+  /**
+   * Executes the given tag query like {@link #executeTagQuery(List, List, List, Map)}, but writes the result to the
+   * given {@link JsonWriter} one time series at a time instead of collecting it in memory first.
+   */
+  public void executeTagQuery(List<String> tags, List<String> metrics, List<String> groupByTags,
+                              Map<String, List<String>> queryTimeParams, JsonWriter writer) throws IOException {
+    executeQuery(toMetricDataQuery(getTagQueryRequest(tags, metrics, groupByTags, queryTimeParams)), writer);
   }
 
   @VisibleForTesting
@@ -235,9 +271,26 @@ public class MetricsQueryHelper {
                                                              queryRequestFormat.getMetrics(),
                                                              queryRequestFormat.getGroupBy());
     setTimeRangeInQueryRequest(queryRequest, queryParams);
+    setSeriesLimitInQueryRequest(queryRequest, queryRequestFormat.getSeriesLimit());
     return queryRequest;
   }
 
+  private MetricQueryRequest getTagQueryRequest(List<String> tags, List<String> metrics, List<String> groupByTags,
+                                                Map<String, List<String>> queryParams) {
+    MetricQueryRequest queryRequest = new MetricQueryRequest(parseTagValuesAsMap(tags), metrics, groupByTags);
+    setTimeRangeInQueryRequest(queryRequest, queryParams);
+    setSeriesLimitInQueryRequest(queryRequest, queryParams.containsKey(PARAM_SERIES_LIMIT) ?
+      Integer.valueOf(queryParams.get(PARAM_SERIES_LIMIT).get(0)) : null);
+    return queryRequest;
+  }
+
+  private void setSeriesLimitInQueryRequest(MetricQueryRequest request, @Nullable Integer seriesLimit) {
+    if (seriesLimit != null && seriesLimit <= 0) {
+      throw new IllegalArgumentException("Invalid metrics query request, the seriesLimit must be greater than 0");
+    }
+    request.setSeriesLimit(seriesLimit);
+  }
+
   private void setTimeRangeInQueryRequest(MetricQueryRequest request, Map<String, List<String>> queryTimeParams) {
     Long start =
       queryTimeParams.containsKey(PARAM_START_TIME) ?
@@ -253,8 +306,12 @@ public class MetricsQueryHelper {
         : AggregationOption.FALSE;
     boolean aggregate = aggregationOption.equals(AggregationOption.TRUE) || ((start == null) && (end == null));
 
-    Integer resolution = queryTimeParams.containsKey(PARAM_RESOLUTION) ?
-      getResolution(queryTimeParams.get(PARAM_RESOLUTION).get(0), start, end) : getResolution(null, start, end);
+    String resolutionParam = queryTimeParams.containsKey(PARAM_RESOLUTION) ?
+      queryTimeParams.get(PARAM_RESOLUTION).get(0) : null;
+    Integer resolution = getResolution(resolutionParam, start, end);
+    if ((resolutionParam == null || resolutionParam.equals(PARAM_AUTO_RESOLUTION)) && start != null && end != null) {
+      resolution = planResolution(resolution, start, end, TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+    }
 
     Interpolator interpolator = null;
     if (queryTimeParams.containsKey(PARAM_INTERPOLATE)) {
@@ -340,6 +397,46 @@ public class MetricsQueryHelper {
     }
   }
 
+  /**
+   * Adjusts an automatically chosen resolution to the data that is actually available for the time range:
+   * 1. If the data at the start time already expired in the chosen resolution, the finest coarser resolution that
+   * still retains it is used. If no resolution retains it, the chosen resolution is kept.
+   * 2. If the chosen resolution is derived by rollup and not complete up to the end time yet, the finer resolution it
+   * is derived from is used, as long as that one retains the data at the start time.
+   *
+   * @param resolution the resolution chosen based on the length of the time range
+   * @param start the start timestamp of the query
+   * @param end the end timestamp of the query
+   * @param currentTime the current time in seconds
+   * @return the resolution for the query
+   */
+  @VisibleForTesting
+  int planResolution(int resolution, long start, long end, long currentTime) {
+    int[] resolutions = metricsResolutions.getResolutions();
+    Map<Integer, Long> retentions = metricsResolutions.getRetentions();
+    int index = Ints.indexOf(resolutions, resolution);
+    if (index < 0) {
+      return resolution;
+    }
+    // never fall back to totals, they don't have a time dimension
+    for (int i = index; i < resolutions.length - 1; i++) {
+      if (currentTime - start <= retentions.get(resolutions[i])) {
+        index = i;
+        break;
+      }
+    }
+
+    int planned = resolutions[index];
+    Integer source = metricsResolutions.getRollupSources().get(planned);
+    Long watermark = metricsResolutions.getRollupWatermark(planned, currentTime);
+    while (source != null && watermark != null && end > watermark && currentTime - start <= retentions.get(source)) {
+      planned = source;
+      source = metricsResolutions.getRollupSources().get(planned);
+      watermark = metricsResolutions.getRollupWatermark(planned, currentTime);
+    }
+    return planned;
+  }
+
   private Interpolator getInterpolator(String interpolator, long timeLimit) {
     if (PARAM_STEP_INTERPOLATOR.equals(interpolator)) {
       return new Interpolators.Step(timeLimit);
@@ -350,6 +447,28 @@ public class MetricsQueryHelper {
   }
 
   private MetricQueryResult executeQuery(MetricQueryRequest queryRequest) throws Exception {
+    MetricDataQuery query = toMetricDataQuery(queryRequest);
+    Collection<MetricTimeSeries> queryResult = metricStore.query(query);
+    return decorate(queryResult, query.getStartTs(), getEndTime(query), query.getResolution());
+  }
+
+  /**
+   * Executes the given query and writes the result in the format of {@link MetricQueryResult}, handing each time
+   * series to the writer as soon as the {@link MetricStore} produces it.
+   */
+  private void executeQuery(MetricDataQuery query, JsonWriter writer) throws IOException {
+    writer.beginObject();
+    writer.name("startTime").value(query.getStartTs());
+    writer.name("endTime").value(getEndTime(query));
+    writer.name("series").beginArray();
+    metricStore.query(query, timeSeries -> GSON.toJson(decorate(timeSeries), MetricQueryResult.TimeSeries.class,
+                                                       writer));
+    writer.endArray();
+    writer.name("resolution").value(String.valueOf(query.getResolution()) + "s");
+    writer.endObject();
+  }
+
+  private MetricDataQuery toMetricDataQuery(MetricQueryRequest queryRequest) {
     if (queryRequest.getMetrics().size() == 0) {
       throw new IllegalArgumentException("Missing metrics parameter in the query");
     }
@@ -362,20 +481,22 @@ public class MetricsQueryHelper {
 
     Map<String, String> tagsSliceBy = humanToTagNames(transformTagMap(queryRequest.getTags()));
 
-    MetricDataQuery query = new MetricDataQuery(timeRange.getStart(), timeRange.getEnd(),
-                                                timeRange.getResolutionInSeconds(),
-                                                timeRange.getCount(), toMetrics(queryRequest.getMetrics()),
-                                                tagsSliceBy, transformGroupByTags(queryRequest.getGroupBy()),
-                                                aggregation, timeRange.getInterpolate());
-    Collection<MetricTimeSeries> queryResult = metricStore.query(query);
+    Integer seriesLimit = queryRequest.getSeriesLimit();
+    return new MetricDataQuery(timeRange.getStart(), timeRange.getEnd(),
+                               timeRange.getResolutionInSeconds(),
+                               timeRange.getCount(), toMetrics(queryRequest.getMetrics()),
+                               tagsSliceBy, transformGroupByTags(queryRequest.getGroupBy()),
+                               aggregation, timeRange.getInterpolate(),
+                               seriesLimit == null ? Integer.MAX_VALUE : seriesLimit);
+  }
 
-    long endTime = timeRange.getEnd();
-    if (timeRange.getResolutionInSeconds() == Integer.MAX_VALUE && endTime == 0) {
+  private long getEndTime(MetricDataQuery query) {
+    long endTime = query.getEndTs();
+    if (query.getResolution() == Integer.MAX_VALUE && endTime == 0) {
       // for aggregate query, we set the end time to be query time (current time)
       endTime = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
     }
-
-    return decorate(queryResult, timeRange.getStart(), endTime, timeRange.getResolutionInSeconds());
+    return endTime;
   }
 
   private Map<String, String> transformTagMap(Map<String, String> tags) {
@@ -434,13 +555,17 @@ public class MetricsQueryHelper {
     MetricQueryResult.TimeSeries[] serieses = new MetricQueryResult.TimeSeries[series.size()];
     int i = 0;
     for (MetricTimeSeries timeSeries : series) {
-      MetricQueryResult.TimeValue[] timeValues = decorate(timeSeries.getTimeValues());
-      serieses[i++] = new MetricQueryResult.TimeSeries(timeSeries.getMetricName(),
-                                                       tagNamesToHuman(timeSeries.getTagValues()), timeValues);
+      serieses[i++] = decorate(timeSeries);
     }
     return new MetricQueryResult(startTs, endTs, serieses, resolution);
   }
 
+  private MetricQueryResult.TimeSeries decorate(MetricTimeSeries timeSeries) {
+    MetricQueryResult.TimeValue[] timeValues = decorate(timeSeries.getTimeValues());
+    return new MetricQueryResult.TimeSeries(timeSeries.getMetricName(),
+                                            tagNamesToHuman(timeSeries.getTagValues()), timeValues);
+  }
+
   private MetricQueryResult.TimeValue[] decorate(List<TimeValue> points) {
     MetricQueryResult.TimeValue[] timeValues = new MetricQueryResult.TimeValue[points.size()];
     int k = 0;
@@ -467,6 +592,7 @@ public class MetricsQueryHelper {
     private List<String> metrics;
     private List<String> groupBy;
     private Map<String, String> timeRange;
+    private Integer seriesLimit;
 
     public Map<String, String> getTags() {
       tags = tags == null ? Collections.emptyMap() : tags;
@@ -494,5 +620,13 @@ public class MetricsQueryHelper {
       timeRange = (timeRange == null || timeRange.size() == 0) ? ImmutableMap.of("aggregate", "true") : timeRange;
       return timeRange;
     }
+
+    /**
+     * @return maximum number of time series to return, or {@code null} to return all of them
+     */
+    @Nullable
+    public Integer getSeriesLimit() {
+      return seriesLimit;
+    }
   }
 }
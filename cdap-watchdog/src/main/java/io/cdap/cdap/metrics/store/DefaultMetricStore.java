@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.metrics.store;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
@@ -24,7 +25,6 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.inject.Inject;
-import io.cdap.cdap.api.dataset.lib.cube.Cube;
 import io.cdap.cdap.api.dataset.lib.cube.CubeDeleteQuery;
 import io.cdap.cdap.api.dataset.lib.cube.CubeExploreQuery;
 import io.cdap.cdap.api.dataset.lib.cube.CubeFact;
@@ -32,7 +32,6 @@ import io.cdap.cdap.api.dataset.lib.cube.CubeQuery;
 import io.cdap.cdap.api.dataset.lib.cube.DimensionValue;
 import io.cdap.cdap.api.dataset.lib.cube.MeasureType;
 import io.cdap.cdap.api.dataset.lib.cube.Measurement;
-import io.cdap.cdap.api.dataset.lib.cube.TimeSeries;
 import io.cdap.cdap.api.metrics.MetricDataQuery;
 import io.cdap.cdap.api.metrics.MetricDeleteQuery;
 import io.cdap.cdap.api.metrics.MetricSearchQuery;
@@ -65,7 +64,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 
 /**
@@ -74,7 +75,9 @@ import javax.annotation.Nullable;
 public class DefaultMetricStore implements MetricStore {
   public static final Map<String, Aggregation> AGGREGATIONS;
 
-  private static final int TOTALS_RESOLUTION = Integer.MAX_VALUE;
+  private static final int TOTALS_RESOLUTION = MetricsResolutions.TOTALS_RESOLUTION;
+  // maximum number of time buckets to roll up when there is no previous rollup to continue from
+  private static final int MAX_ROLLUP_LOOKBACK_BUCKETS = 24;
   private static final String BY_NAMESPACE = "namespace";
   private static final String BY_APP = "app";
   private static final String BY_MAPREDUCE = "mapreduce";
@@ -90,11 +93,14 @@ public class DefaultMetricStore implements MetricStore {
                     new AggregationAlias(ImmutableMap.of(Constants.Metrics.Tag.RUN_ID,
                                                          Constants.Metrics.Tag.WORKFLOW_RUN_ID)));
 
-  private final Supplier<Cube> cube;
+  private final Supplier<DefaultCube> cube;
   private final Supplier<MetricsConsumerMetaTable> metaTableSupplier;
   private MetricsContext metricsContext;
   private final List<TopicId> metricsTopics;
   private final Map<Integer, Long> resolutionTTLMap;
+  private final MetricsResolutions metricsResolutions;
+  // end (exclusive) of the time range rolled up last, per rollup resolution
+  private final Map<Integer, Long> rollupWatermarks;
 
 
   static {
@@ -198,29 +204,20 @@ public class DefaultMetricStore implements MetricStore {
 
   @Inject
   DefaultMetricStore(MetricDatasetFactory dsFactory, CConfiguration cConf) {
-    int minimumResolution = cConf.getInt(Constants.Metrics.METRICS_MINIMUM_RESOLUTION_SECONDS);
-    int[] resolutions = minimumResolution < 60 ?
-      new int[] {minimumResolution, 60, 3600, TOTALS_RESOLUTION} : new int[] {60, 3600, TOTALS_RESOLUTION};
-    long minRetentionSecs = cConf.getLong(Constants.Metrics.RETENTION_SECONDS + Constants.Metrics.MINUTE_RESOLUTION +
-                                            Constants.Metrics.RETENTION_SECONDS_SUFFIX);
-    long hourRetentionSecs = cConf.getLong(Constants.Metrics.RETENTION_SECONDS + Constants.Metrics.HOUR_RESOLUTION +
-                                             Constants.Metrics.RETENTION_SECONDS_SUFFIX);
-    ImmutableMap.Builder<Integer, Long> builder = ImmutableMap.<Integer, Long>builder()
-      .put(60, minRetentionSecs)
-      .put(3600, hourRetentionSecs);
-    if (minimumResolution < 60) {
-      builder.put(minimumResolution, cConf.getLong(Constants.Metrics.MINIMUM_RESOLUTION_RETENTION_SECONDS));
-    }
-    this.resolutionTTLMap = builder.build();
+    this.metricsResolutions = new MetricsResolutions(cConf);
+    int[] resolutions = metricsResolutions.getResolutions();
+    this.resolutionTTLMap = metricsResolutions.getRetentions();
+    this.rollupWatermarks = new ConcurrentHashMap<>();
     FactTableSupplier factTableSupplier = (resolution, ignoredRollTime) -> {
       // roll time will be taken from configuration
       // TODO: remove roll time from the supplier api, https://issues.cask.co/browse/CDAP-14730
       return dsFactory.getOrCreateFactTable(resolution);
     };
-    this.cube = Suppliers.memoize(new Supplier<Cube>() {
+    this.cube = Suppliers.memoize(new Supplier<DefaultCube>() {
       @Override
-      public Cube get() {
-        DefaultCube cube = new DefaultCube(resolutions, factTableSupplier, AGGREGATIONS, AGGREGATIONS_ALIAS_DIMENSIONS);
+      public DefaultCube get() {
+        DefaultCube cube = new DefaultCube(resolutions, factTableSupplier, AGGREGATIONS, AGGREGATIONS_ALIAS_DIMENSIONS,
+                                           metricsResolutions.getRollupSources().keySet());
         cube.setMetricsCollector(metricsContext);
         return cube;
       }
@@ -268,16 +265,19 @@ public class DefaultMetricStore implements MetricStore {
 
   @Override
   public Collection<MetricTimeSeries> query(MetricDataQuery query) {
-    Collection<TimeSeries> cubeResult = cube.get().query(buildCubeQuery(query));
     List<MetricTimeSeries> result = Lists.newArrayList();
-    for (TimeSeries timeSeries : cubeResult) {
-      result.add(new MetricTimeSeries(timeSeries.getMeasureName(),
-                                      timeSeries.getDimensionValues(),
-                                      timeSeries.getTimeValues()));
-    }
+    query(query, result::add);
     return result;
   }
 
+  @Override
+  public void query(MetricDataQuery query, Consumer<MetricTimeSeries> consumer) {
+    cube.get().query(buildCubeQuery(query), query.getSeriesLimit(),
+                     timeSeries -> consumer.accept(new MetricTimeSeries(timeSeries.getMeasureName(),
+                                                                        timeSeries.getDimensionValues(),
+                                                                        timeSeries.getTimeValues())));
+  }
+
   private CubeQuery buildCubeQuery(MetricDataQuery query) {
     return new CubeQuery(null, query.getStartTs(), query.getEndTs(),
                          query.getResolution(), query.getLimit(), query.getMetrics(),
@@ -301,6 +301,43 @@ public class DefaultMetricStore implements MetricStore {
     }
   }
 
+  @Override
+  public void rollup() {
+    rollup(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+  }
+
+  /**
+   * Rolls up the complete time buckets as of the given time in seconds.
+   */
+  @VisibleForTesting
+  void rollup(long currentTime) {
+    // rollup resolutions are ordered from finer to coarser, so a resolution rolled up from another one is
+    // always rolled up after its source
+    for (Map.Entry<Integer, Integer> rollupSource : metricsResolutions.getRollupSources().entrySet()) {
+      int resolution = rollupSource.getKey();
+      int sourceResolution = rollupSource.getValue();
+
+      long endTs = (currentTime - metricsResolutions.getRollupDelay()) / resolution * resolution;
+      Long sourceWatermark = rollupWatermarks.get(sourceResolution);
+      if (metricsResolutions.getRollupSources().containsKey(sourceResolution)) {
+        // the source is rolled up itself, it is only complete up to its own watermark
+        endTs = sourceWatermark == null ? endTs : Math.min(endTs, sourceWatermark / resolution * resolution);
+      }
+      Long startTs = rollupWatermarks.get(resolution);
+      if (startTs == null) {
+        // nothing is known about previous rollups, roll up as far back as the source data is kept
+        long lookback = Math.min(resolutionTTLMap.get(sourceResolution),
+                                 (long) resolution * MAX_ROLLUP_LOOKBACK_BUCKETS);
+        startTs = (endTs - lookback) / resolution * resolution;
+      }
+      if (startTs >= endTs) {
+        continue;
+      }
+      cube.get().rollup(sourceResolution, resolution, startTs, endTs);
+      rollupWatermarks.put(resolution, endTs);
+    }
+  }
+
   @Override
   public void delete(MetricDeleteQuery query) {
     cube.get().delete(buildCubeDeleteQuery(query));
@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.metrics.store;
+
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Resolutions of the metrics tables, together with their retention and whether they are written on ingest or
+ * derived by rollup of the next finer resolution.
+ */
+public final class MetricsResolutions {
+
+  public static final int TOTALS_RESOLUTION = Integer.MAX_VALUE;
+
+  private final int[] resolutions;
+  private final Map<Integer, Long> retentions;
+  private final Map<Integer, Integer> rollupSources;
+  private final long rollupDelay;
+  private final long rollupInterval;
+
+  public MetricsResolutions(CConfiguration cConf) {
+    int minimumResolution = cConf.getInt(Constants.Metrics.METRICS_MINIMUM_RESOLUTION_SECONDS);
+    this.resolutions = minimumResolution < 60 ?
+      new int[] {minimumResolution, 60, 3600, TOTALS_RESOLUTION} : new int[] {60, 3600, TOTALS_RESOLUTION};
+
+    Map<Integer, Long> retentions = new LinkedHashMap<>();
+    if (minimumResolution < 60) {
+      retentions.put(minimumResolution, cConf.getLong(Constants.Metrics.MINIMUM_RESOLUTION_RETENTION_SECONDS));
+    }
+    retentions.put(60, cConf.getLong(Constants.Metrics.RETENTION_SECONDS + Constants.Metrics.MINUTE_RESOLUTION +
+                                       Constants.Metrics.RETENTION_SECONDS_SUFFIX));
+    retentions.put(3600, cConf.getLong(Constants.Metrics.RETENTION_SECONDS + Constants.Metrics.HOUR_RESOLUTION +
+                                         Constants.Metrics.RETENTION_SECONDS_SUFFIX));
+    this.retentions = Collections.unmodifiableMap(retentions);
+
+    // the finest resolution is always written on ingest, and so are totals, as they have no time buckets to derive
+    Map<Integer, Integer> rollupSources = new LinkedHashMap<>();
+    for (int i = 1; i < resolutions.length - 1; i++) {
+      if (cConf.getBoolean(Constants.Metrics.ROLLUP_ENABLED + resolutions[i] + Constants.Metrics.ROLLUP_ENABLED_SUFFIX,
+                           false)) {
+        rollupSources.put(resolutions[i], resolutions[i - 1]);
+      }
+    }
+    this.rollupSources = Collections.unmodifiableMap(rollupSources);
+    this.rollupDelay = cConf.getLong(Constants.Metrics.ROLLUP_DELAY_SECONDS);
+    this.rollupInterval = cConf.getLong(Constants.Metrics.ROLLUP_INTERVAL_SECONDS);
+  }
+
+  /**
+   * Returns all resolutions in seconds, from the finest to totals.
+   */
+  public int[] getResolutions() {
+    return resolutions.clone();
+  }
+
+  /**
+   * Returns the retention in seconds of each resolution that has one, from the finest to the coarsest.
+   */
+  public Map<Integer, Long> getRetentions() {
+    return retentions;
+  }
+
+  /**
+   * Returns the resolutions that are derived by rollup, from the finest to the coarsest, mapped to the resolution
+   * they are derived from.
+   */
+  public Map<Integer, Integer> getRollupSources() {
+    return rollupSources;
+  }
+
+  /**
+   * Returns the time in seconds to wait after the end of a time bucket before rolling it up.
+   */
+  public long getRollupDelay() {
+    return rollupDelay;
+  }
+
+  /**
+   * Returns the interval in seconds at which rollups run.
+   */
+  public long getRollupInterval() {
+    return rollupInterval;
+  }
+
+  /**
+   * Returns the latest time in seconds up to which the given resolution is guaranteed to be complete at the given
+   * time, or {@code null} if the resolution is written on ingest.
+   */
+  @Nullable
+  public Long getRollupWatermark(int resolution, long currentTime) {
+    if (!rollupSources.containsKey(resolution)) {
+      return null;
+    }
+    // a bucket is rolled up once it is complete and the delay passed, by the next run of the rollup
+    return (currentTime - rollupDelay - rollupInterval) / resolution * resolution;
+  }
+}
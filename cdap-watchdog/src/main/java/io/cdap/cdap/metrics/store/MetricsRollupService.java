@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.metrics.store;
+
+import com.google.common.util.concurrent.AbstractScheduledService;
+import com.google.inject.Inject;
+import io.cdap.cdap.api.metrics.MetricStore;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import org.apache.twill.common.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The metrics rollup service that periodically derives the resolution metrics tables that are not written on ingest
+ * from the next finer resolution.
+ */
+public class MetricsRollupService extends AbstractScheduledService {
+  private static final Logger LOG = LoggerFactory.getLogger(MetricsRollupService.class);
+
+  private final MetricStore metricStore;
+  private final long rollupInterval;
+  private ScheduledExecutorService executor;
+
+  @Inject
+  MetricsRollupService(MetricStore metricStore, CConfiguration cConf) {
+    this.metricStore = metricStore;
+    this.rollupInterval = cConf.getLong(Constants.Metrics.ROLLUP_INTERVAL_SECONDS);
+  }
+
+  @Override
+  protected final ScheduledExecutorService executor() {
+    executor = Executors.newSingleThreadScheduledExecutor(Threads.createDaemonThreadFactory("metrics-rollup"));
+    return executor;
+  }
+
+  @Override
+  protected void runOneIteration() {
+    try {
+      metricStore.rollup();
+    } catch (Exception e) {
+      // keep the schedule running, the failed time range is picked up by the next iteration
+      LOG.warn("Failed to roll up metrics resolution tables. Will be retried.", e);
+    }
+  }
+
+  @Override
+  protected Scheduler scheduler() {
+    return Scheduler.newFixedDelaySchedule(rollupInterval, rollupInterval, TimeUnit.SECONDS);
+  }
+
+  @Override
+  protected void shutDown() throws Exception {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -17,20 +17,28 @@ package io.cdap.cdap.metrics.collect;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.Uninterruptibles;
 import io.cdap.cdap.api.metrics.MetricValue;
 import io.cdap.cdap.api.metrics.MetricValues;
 import io.cdap.cdap.api.metrics.MetricsContext;
+import io.cdap.cdap.api.metrics.MetricsCounter;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.test.SlowTests;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -48,6 +56,7 @@ public class AggregatedMetricsCollectionServiceTest {
   private static final String INSTANCE = "testInstance";
   private static final String METRIC = "metric";
   private static final String GAUGE_METRIC = "gaugeMetric";
+  private static final String COUNTER_METRIC = "counterMetric";
 
   private Long getMetricValue(Collection<MetricValue> metrics, String metricName) {
     for (MetricValue metricValue : metrics) {
@@ -139,6 +148,130 @@ public class AggregatedMetricsCollectionServiceTest {
     }
   }
 
+  @Category(SlowTests.class)
+  @Test
+  public void testMergedPublish() throws InterruptedException {
+    final BlockingQueue<MetricValues> published = new LinkedBlockingQueue<>();
+
+    AggregatedMetricsCollectionService service = new AggregatedMetricsCollectionService(1000L) {
+      @Override
+      protected Map<String, String> getPublishTags(Map<String, String> tags) {
+        Map<String, String> publishTags = new HashMap<>(tags);
+        publishTags.remove(Constants.Metrics.Tag.INSTANCE_ID);
+        return publishTags;
+      }
+
+      @Override
+      protected void publish(Iterator<MetricValues> metrics) {
+        Iterators.addAll(published, metrics);
+      }
+    };
+
+    service.startAndWait();
+    try {
+      MetricsContext baseCollector = service.getContext(ImmutableMap.of(Constants.Metrics.Tag.NAMESPACE, NAMESPACE,
+                                                                        Constants.Metrics.Tag.APP, APP));
+      for (int i = 1; i <= 3; i++) {
+        baseCollector.childContext(Constants.Metrics.Tag.INSTANCE_ID, INSTANCE + i).increment(METRIC, i);
+      }
+
+      // the three contexts are published as one without the instance tag
+      verifyCounterMetricsValue(published, ImmutableMap.of(2, ImmutableMap.of(METRIC, 6L,
+                                                                              "metrics.contexts.merged.count", 3L)));
+    } finally {
+      service.stopAndWait();
+    }
+  }
+
+  @Test
+  public void testConcurrentIncrements() throws Exception {
+    final BlockingQueue<MetricValues> published = new LinkedBlockingQueue<>();
+
+    AggregatedMetricsCollectionService service = new AggregatedMetricsCollectionService(100L) {
+      @Override
+      protected void publish(Iterator<MetricValues> metrics) {
+        Iterators.addAll(published, metrics);
+      }
+    };
+
+    int threads = 8;
+    int increments = 100000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    service.startAndWait();
+    try {
+      MetricsContext context = service.getContext(ImmutableMap.of(Constants.Metrics.Tag.NAMESPACE, NAMESPACE));
+      CountDownLatch startLatch = new CountDownLatch(1);
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          Uninterruptibles.awaitUninterruptibly(startLatch);
+          for (int j = 0; j < increments; j++) {
+            context.increment(METRIC, 1);
+          }
+        }));
+      }
+      startLatch.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+      // stopping the service publishes the remaining metrics
+      service.stopAndWait();
+    }
+
+    // no increment should get lost by publishing concurrently
+    long total = 0;
+    for (MetricValues metricValues : published) {
+      Long value = getMetricValue(metricValues.getMetrics(), METRIC);
+      total += value == null ? 0 : value;
+    }
+    Assert.assertEquals((long) threads * increments, total);
+  }
+
+  @Test
+  public void testExpiry() throws Exception {
+    final BlockingQueue<MetricValues> published = new LinkedBlockingQueue<>();
+
+    // contexts and metrics that did not change for 200 milliseconds are no longer published
+    AggregatedMetricsCollectionService service = new AggregatedMetricsCollectionService(100L, 200L) {
+      @Override
+      protected void publish(Iterator<MetricValues> metrics) {
+        Iterators.addAll(published, metrics);
+      }
+    };
+
+    service.startAndWait();
+    try {
+      Map<String, String> tags = ImmutableMap.of(Constants.Metrics.Tag.NAMESPACE, NAMESPACE);
+      MetricsContext context = service.getContext(tags);
+      MetricsCounter counter = context.counter(COUNTER_METRIC);
+      context.increment(METRIC, 1);
+      counter.increment(2);
+      verifyCounterMetricsValue(published, ImmutableMap.of(1, ImmutableMap.of(METRIC, 1L, COUNTER_METRIC, 2L)));
+
+      // wait for the context to be deactivated and its metrics to expire
+      TimeUnit.MILLISECONDS.sleep(600);
+      Assert.assertNull(published.poll());
+
+      // a context is the same for the same tags as long as it is referenced
+      Assert.assertSame(context, service.getContext(tags));
+      Assert.assertSame(context, service.getContext(ImmutableMap.of()).childContext(tags));
+
+      // both metrics are published again after they expired
+      context.increment(METRIC, 3);
+      counter.increment(4);
+      verifyCounterMetricsValue(published, ImmutableMap.of(1, ImmutableMap.of(METRIC, 3L, COUNTER_METRIC, 4L)));
+
+      // the counter keeps counting through other contexts for the same tags
+      service.getContext(tags).counter(COUNTER_METRIC).increment(5);
+      counter.increment(6);
+      verifyCounterMetricsValue(published, ImmutableMap.of(1, ImmutableMap.of(COUNTER_METRIC, 11L)));
+    } finally {
+      service.stopAndWait();
+    }
+  }
+
   private void verifyCounterMetricsValue(BlockingQueue<MetricValues> published,
                                          Map<Integer, Map<String, Long>> expected) throws InterruptedException {
     Map<Integer, Map<String, Long>> received = new HashMap<>();
@@ -77,6 +77,58 @@ public class MessagingMetricsCollectionServiceTest extends MetricsTestBase {
     assertMetricsFromMessaging(schema, recordReader, expected);
   }
 
+  @Test
+  public void testPublishTags() {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.set(Constants.Metrics.PUBLISH_AGGREGATION_TAGS + "service", Constants.Metrics.Tag.METHOD);
+    MessagingMetricsCollectionService collectionService = new MessagingMetricsCollectionService(cConf,
+                                                                                                messagingService,
+                                                                                                recordWriter);
+
+    // the method is dropped from service contexts, also when run by a workflow
+    Map<String, String> tags = ImmutableMap.of(Constants.Metrics.Tag.SERVICE, "srv",
+                                               Constants.Metrics.Tag.METHOD, "get");
+    Assert.assertEquals(ImmutableMap.of(Constants.Metrics.Tag.SERVICE, "srv"),
+                        collectionService.getPublishTags(tags));
+    tags = ImmutableMap.of(Constants.Metrics.Tag.WORKFLOW, "wf",
+                           Constants.Metrics.Tag.SERVICE, "srv",
+                           Constants.Metrics.Tag.METHOD, "get");
+    Assert.assertEquals(ImmutableMap.of(Constants.Metrics.Tag.WORKFLOW, "wf", Constants.Metrics.Tag.SERVICE, "srv"),
+                        collectionService.getPublishTags(tags));
+
+    // contexts of other program types are published as they are
+    tags = ImmutableMap.of(Constants.Metrics.Tag.WORKER, "wrk", Constants.Metrics.Tag.METHOD, "get");
+    Assert.assertEquals(tags, collectionService.getPublishTags(tags));
+  }
+
+  @Test
+  public void testMergedPublish() throws TopicNotFoundException {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.set(Constants.Metrics.PUBLISH_AGGREGATION_TAGS + "service", Constants.Metrics.Tag.METHOD);
+    MetricsCollectionService collectionService = new MessagingMetricsCollectionService(cConf, messagingService,
+                                                                                       recordWriter);
+
+    // emit metrics for different methods of the same handler before starting, so they are published together
+    Map<String, String> handlerTags = ImmutableMap.of(Constants.Metrics.Tag.SERVICE, "srv",
+                                                      Constants.Metrics.Tag.HANDLER, "hnd");
+    for (int i = 1; i <= 3; i++) {
+      Map<String, String> tags = ImmutableMap.<String, String>builder()
+        .putAll(handlerTags).put(Constants.Metrics.Tag.METHOD, "method" + i).build();
+      collectionService.getContext(tags).increment("requests", i);
+    }
+
+    collectionService.startAndWait();
+    collectionService.stopAndWait();
+
+    // the metrics are published as a single message without the method tag
+    Table<String, String, Long> expected = HashBasedTable.create();
+    expected.put("hnd.hnd.srv.srv", "requests", 6L);
+    expected.put("hnd.hnd.srv.srv", "metrics.contexts.merged.count", 3L);
+
+    ReflectionDatumReader<MetricValues> recordReader = new ReflectionDatumReader<>(schema, metricValueType);
+    assertMetricsFromMessaging(schema, recordReader, expected);
+  }
+
   private void assertMetricsFromMessaging(final Schema schema,
                                           ReflectionDatumReader recordReader,
                                           Table<String, String, Long> expected) throws TopicNotFoundException {
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.metrics.collect;
+
+import com.google.common.collect.ImmutableMap;
+import io.cdap.cdap.api.metrics.MetricValues;
+import io.cdap.cdap.api.metrics.MetricsContext;
+import io.cdap.cdap.api.metrics.MetricsCounter;
+import io.cdap.cdap.common.conf.Constants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the number of increments per second of one metric from multiple threads, through a
+ * {@link MetricsContext} of an {@link AggregatedMetricsCollectionService}. Compares incrementing by metric name,
+ * looking up the context by tags for every increment, and incrementing a {@link MetricsCounter}.
+ *
+ * Run it with the main method from the test classpath of this module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MetricsIncrementBenchmark {
+
+  private static final String METRIC = "stage.records.out";
+
+  private AggregatedMetricsCollectionService service;
+  private Map<String, String> tags;
+  private MetricsContext context;
+  private MetricsCounter counter;
+
+  @Setup
+  public void setup() {
+    service = new AggregatedMetricsCollectionService(1000L) {
+      @Override
+      protected void publish(Iterator<MetricValues> metrics) {
+        // no-op
+      }
+    };
+    tags = ImmutableMap.of(Constants.Metrics.Tag.NAMESPACE, "default",
+                           Constants.Metrics.Tag.APP, "app",
+                           Constants.Metrics.Tag.SPARK, "phase-1",
+                           Constants.Metrics.Tag.RUN_ID, "run",
+                           Constants.Metrics.Tag.SCOPE, "user");
+    context = service.getContext(tags);
+    counter = context.counter(METRIC);
+  }
+
+  @Benchmark
+  public void incrementByName() {
+    context.increment(METRIC, 1);
+  }
+
+  @Benchmark
+  public void incrementByTags() {
+    service.getContext(tags).increment(METRIC, 1);
+  }
+
+  @Benchmark
+  public void incrementCounter() {
+    counter.increment(1);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(MetricsIncrementBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -32,7 +32,8 @@ import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.utils.Tasks;
 import io.cdap.cdap.data2.datafabric.dataset.service.DatasetService;
 import io.cdap.cdap.data2.datafabric.dataset.service.executor.DatasetOpExecutorService;
-import io.cdap.cdap.internal.io.DatumReaderFactory;
+import io.cdap.cdap.internal.io.ASMFieldAccessorFactory;
+import io.cdap.cdap.internal.io.ResolvingDatumReaderFactory;
 import io.cdap.cdap.internal.io.SchemaGenerator;
 import io.cdap.cdap.metrics.store.MetricDatasetFactory;
 import io.cdap.cdap.spi.data.StructuredTableAdmin;
@@ -48,6 +49,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -89,8 +91,8 @@ public class MessagingMetricsProcessorServiceTest extends MetricsProcessorServic
       MessagingMetricsProcessorService messagingMetricsProcessorService =
         new MessagingMetricsProcessorService(cConf, injector.getInstance(MetricDatasetFactory.class), messagingService,
                                              injector.getInstance(SchemaGenerator.class),
-                                             injector.getInstance(DatumReaderFactory.class), metricStore,
-                                             partitions, new NoopMetricsContext(), 50, 0);
+                                             new ResolvingDatumReaderFactory(new ASMFieldAccessorFactory()),
+                                             metricStore, partitions, new NoopMetricsContext(), 50, 0);
       messagingMetricsProcessorService.startAndWait();
 
       // Wait for the 1 aggregated counter metric (with value 50) and 50 gauge metrics to be stored in the metricStore
@@ -202,6 +204,11 @@ public class MessagingMetricsProcessorServiceTest extends MetricsProcessorServic
       return null;
     }
 
+    @Override
+    public void query(MetricDataQuery query, Consumer<MetricTimeSeries> consumer) {
+      // no-op
+    }
+
     @Override
     public void deleteBefore(long timestamp) {
       // no-op
@@ -212,6 +219,11 @@ public class MessagingMetricsProcessorServiceTest extends MetricsProcessorServic
       // no-op
     }
 
+    @Override
+    public void rollup() {
+      // no-op
+    }
+
     @Override
     public void delete(MetricDeleteQuery query) {
       // no-op
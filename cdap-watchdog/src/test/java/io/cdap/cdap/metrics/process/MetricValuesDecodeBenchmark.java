@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.metrics.process;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.reflect.TypeToken;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.metrics.MetricType;
+import io.cdap.cdap.api.metrics.MetricValue;
+import io.cdap.cdap.api.metrics.MetricValues;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.common.io.BinaryDecoder;
+import io.cdap.cdap.common.io.BinaryEncoder;
+import io.cdap.cdap.common.io.DatumReader;
+import io.cdap.cdap.internal.io.ASMDatumWriterFactory;
+import io.cdap.cdap.internal.io.ASMFieldAccessorFactory;
+import io.cdap.cdap.internal.io.ReflectionDatumReaderFactory;
+import io.cdap.cdap.internal.io.ReflectionSchemaGenerator;
+import io.cdap.cdap.internal.io.ResolvingDatumReaderFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks decoding {@link MetricValues}, as done by the {@link MessagingMetricsProcessorService} for every
+ * message fetched from the metrics topics. Compares the reflection reader with the reader of the
+ * {@link ResolvingDatumReaderFactory} used by the service.
+ *
+ * Run it with the main method from the test classpath of this module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MetricValuesDecodeBenchmark {
+
+  private Schema schema;
+  private byte[] bytes;
+  private DatumReader<MetricValues> reflectionReader;
+  private DatumReader<MetricValues> resolvingReader;
+
+  @Setup
+  public void setup() throws Exception {
+    schema = new ReflectionSchemaGenerator().generate(MetricValues.class);
+    TypeToken<MetricValues> type = TypeToken.of(MetricValues.class);
+
+    Map<String, String> tags = ImmutableMap.of(Constants.Metrics.Tag.NAMESPACE, "default",
+                                               Constants.Metrics.Tag.APP, "app",
+                                               Constants.Metrics.Tag.WORKER, "worker",
+                                               Constants.Metrics.Tag.INSTANCE_ID, "0");
+    List<MetricValue> metrics = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      metrics.add(new MetricValue("user.metric" + i, i % 2 == 0 ? MetricType.COUNTER : MetricType.GAUGE, i));
+    }
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    new ASMDatumWriterFactory(new ASMFieldAccessorFactory()).create(type, schema)
+      .encode(new MetricValues(tags, System.currentTimeMillis() / 1000, metrics), new BinaryEncoder(os));
+    bytes = os.toByteArray();
+
+    reflectionReader = new ReflectionDatumReaderFactory().create(type, schema);
+    resolvingReader = new ResolvingDatumReaderFactory(new ASMFieldAccessorFactory()).create(type, schema);
+  }
+
+  @Benchmark
+  public MetricValues reflection() throws IOException {
+    return reflectionReader.read(new BinaryDecoder(new ByteArrayInputStream(bytes)), schema);
+  }
+
+  @Benchmark
+  public MetricValues resolving() throws IOException {
+    return resolvingReader.read(new BinaryDecoder(new ByteArrayInputStream(bytes)), schema);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(MetricValuesDecodeBenchmark.class.getSimpleName()).build()).run();
+  }
+}
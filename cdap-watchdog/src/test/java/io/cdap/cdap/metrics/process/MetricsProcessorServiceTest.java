@@ -31,7 +31,8 @@ import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.utils.Tasks;
 import io.cdap.cdap.data2.datafabric.dataset.service.DatasetService;
 import io.cdap.cdap.data2.datafabric.dataset.service.executor.DatasetOpExecutorService;
-import io.cdap.cdap.internal.io.DatumReaderFactory;
+import io.cdap.cdap.internal.io.ASMFieldAccessorFactory;
+import io.cdap.cdap.internal.io.ResolvingDatumReaderFactory;
 import io.cdap.cdap.internal.io.SchemaGenerator;
 import io.cdap.cdap.metrics.store.MetricDatasetFactory;
 import io.cdap.cdap.spi.data.StructuredTableAdmin;
@@ -81,7 +82,7 @@ public class MetricsProcessorServiceTest extends MetricsProcessorServiceTestBase
     MessagingMetricsProcessorService messagingMetricsProcessorService =
       new MessagingMetricsProcessorService(cConf, injector.getInstance(MetricDatasetFactory.class),
                                            messagingService, injector.getInstance(SchemaGenerator.class),
-                                           injector.getInstance(DatumReaderFactory.class), metricStore,
+                                           new ResolvingDatumReaderFactory(new ASMFieldAccessorFactory()), metricStore,
                                            partitions, new NoopMetricsContext(), 50, 0);
     messagingMetricsProcessorService.startAndWait();
 
@@ -99,7 +100,7 @@ public class MetricsProcessorServiceTest extends MetricsProcessorServiceTestBase
     messagingMetricsProcessorService =
       new MessagingMetricsProcessorService(cConf, injector.getInstance(MetricDatasetFactory.class),
                                            messagingService, injector.getInstance(SchemaGenerator.class),
-                                           injector.getInstance(DatumReaderFactory.class), metricStore,
+                                           new ResolvingDatumReaderFactory(new ASMFieldAccessorFactory()), metricStore,
                                            partitions, new NoopMetricsContext(), 50, 0);
     messagingMetricsProcessorService.startAndWait();
 
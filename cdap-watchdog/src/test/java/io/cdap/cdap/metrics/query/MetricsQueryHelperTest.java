@@ -17,6 +17,7 @@
 package io.cdap.cdap.metrics.query;
 
 import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -96,4 +97,26 @@ public class MetricsQueryHelperTest {
     Assert.assertEquals(1, helper.getResolution(null, 0L, null).intValue());
     Assert.assertEquals(1, helper.getResolution(null, null, 10000000L).intValue());
   }
+
+  @Test
+  public void testPlanResolution() {
+    long now = 100000000L;
+    MetricsQueryHelper helper = new MetricsQueryHelper(null, CConfiguration.create());
+    // second resolution is retained for two hours by default
+    Assert.assertEquals(1, helper.planResolution(1, now - 600, now, now));
+    Assert.assertEquals(60, helper.planResolution(1, now - 10000, now - 9400, now));
+    // nothing retains the start time, keep the resolution
+    Assert.assertEquals(1, helper.planResolution(1, 0L, 600L, now));
+    Assert.assertEquals(3600, helper.planResolution(3600, now - 40000, now, now));
+
+    CConfiguration cConf = CConfiguration.create();
+    cConf.setBoolean(Constants.Metrics.ROLLUP_ENABLED + 60 + Constants.Metrics.ROLLUP_ENABLED_SUFFIX, true);
+    helper = new MetricsQueryHelper(null, cConf);
+    // minute resolution is not rolled up to the end time yet, use the second resolution it is derived from
+    Assert.assertEquals(1, helper.planResolution(60, now - 3600, now, now));
+    // minute resolution is rolled up to the end time
+    Assert.assertEquals(60, helper.planResolution(60, now - 3600, now - 1000, now));
+    // second resolution does not retain the start time anymore
+    Assert.assertEquals(60, helper.planResolution(60, now - 10000, now, now));
+  }
 }
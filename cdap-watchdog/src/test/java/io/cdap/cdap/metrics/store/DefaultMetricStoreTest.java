@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2019 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.metrics.store;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.cdap.cdap.api.dataset.lib.cube.AggregationFunction;
+import io.cdap.cdap.api.dataset.lib.cube.TimeValue;
+import io.cdap.cdap.api.metrics.MetricDataQuery;
+import io.cdap.cdap.api.metrics.MetricTimeSeries;
+import io.cdap.cdap.api.metrics.MetricType;
+import io.cdap.cdap.api.metrics.MetricValues;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.data2.dataset2.lib.table.inmemory.InMemoryMetricsTable;
+import io.cdap.cdap.data2.dataset2.lib.table.inmemory.InMemoryTableService;
+import io.cdap.cdap.data2.dataset2.lib.timeseries.EntityTable;
+import io.cdap.cdap.data2.dataset2.lib.timeseries.FactTable;
+import io.cdap.cdap.metrics.process.MetricsConsumerMetaTable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tests for {@link DefaultMetricStore}.
+ */
+public class DefaultMetricStoreTest {
+
+  private static final Map<String, String> TAGS = ImmutableMap.of(Constants.Metrics.Tag.NAMESPACE, "ns1");
+  private static final String METRIC = "system.reads";
+
+  @Test
+  public void testRollup() {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.setInt(Constants.Metrics.METRICS_MINIMUM_RESOLUTION_SECONDS, 1);
+    cConf.setBoolean(Constants.Metrics.ROLLUP_ENABLED + 60 + Constants.Metrics.ROLLUP_ENABLED_SUFFIX, true);
+    cConf.setBoolean(Constants.Metrics.ROLLUP_ENABLED + 3600 + Constants.Metrics.ROLLUP_ENABLED_SUFFIX, true);
+    cConf.setLong(Constants.Metrics.ROLLUP_DELAY_SECONDS, 0);
+    DefaultMetricStore metricStore = new DefaultMetricStore(new InMemoryMetricDatasetFactory("rollup"), cConf);
+
+    long hour = 3600L * 400000;
+    addCount(metricStore, hour + 10);
+    addCount(metricStore, hour + 70);
+
+    // counters are only written to the finest resolution, minutes are rolled up from seconds and hours from minutes
+    Assert.assertTrue(query(metricStore, 60, hour).isEmpty());
+    metricStore.rollup(hour + 120);
+    Assert.assertEquals(ImmutableMap.of(hour, 1L, hour + 60, 1L), query(metricStore, 60, hour));
+    // the hour is not complete yet
+    Assert.assertTrue(query(metricStore, 3600, hour).isEmpty());
+
+    addCount(metricStore, hour + 130);
+    addCount(metricStore, hour + 3590);
+
+    // minutes continue from where the previous rollup ended, and the hour is rolled up from the minutes
+    // rolled up in the same run
+    metricStore.rollup(hour + 3660);
+    Assert.assertEquals(ImmutableMap.of(hour, 1L, hour + 60, 1L, hour + 120, 1L, hour + 3540, 1L),
+                        query(metricStore, 60, hour));
+    Assert.assertEquals(ImmutableMap.of(hour, 4L), query(metricStore, 3600, hour));
+  }
+
+  private void addCount(DefaultMetricStore metricStore, long timestamp) {
+    metricStore.add(new MetricValues(TAGS, "reads", timestamp, 1, MetricType.COUNTER));
+  }
+
+  private Map<Long, Long> query(DefaultMetricStore metricStore, int resolution, long hour) {
+    Collection<MetricTimeSeries> result =
+      metricStore.query(new MetricDataQuery(hour, hour + 3599, resolution, METRIC, AggregationFunction.SUM,
+                                            TAGS, ImmutableList.of()));
+    Map<Long, Long> values = new LinkedHashMap<>();
+    for (MetricTimeSeries timeSeries : result) {
+      for (TimeValue timeValue : timeSeries.getTimeValues()) {
+        values.put(timeValue.getTimestamp(), timeValue.getValue());
+      }
+    }
+    return values;
+  }
+
+  /**
+   * {@link MetricDatasetFactory} that keeps the metrics tables in memory.
+   */
+  private static final class InMemoryMetricDatasetFactory implements MetricDatasetFactory {
+    private final String prefix;
+    private final EntityTable entityTable;
+
+    private InMemoryMetricDatasetFactory(String prefix) {
+      this.prefix = prefix;
+      InMemoryTableService.create(prefix + "-entity");
+      this.entityTable = new EntityTable(new InMemoryMetricsTable(prefix + "-entity"));
+    }
+
+    @Override
+    public FactTable getOrCreateFactTable(int resolution) {
+      String tableName = prefix + "-" + resolution;
+      InMemoryTableService.create(tableName);
+      return new FactTable(new InMemoryMetricsTable(tableName), entityTable, resolution,
+                           Constants.Metrics.DEFAULT_TIME_SERIES_TABLE_ROLL_TIME);
+    }
+
+    @Override
+    public MetricsConsumerMetaTable createConsumerMeta() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}